@@ -0,0 +1,221 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshMetrics;
+
+/**
+ * Ordered queue of database mutations applied by a single writer thread.
+ * <p>
+ * Mutations are applied in the order they were enqueued. The writer drains the mutations queued since the last flush
+ * and applies them in a single transaction, so that a burst of writes costs one commit instead of one per write. If the
+ * transaction fails, the mutations of the batch are applied again one by one so that a single failing mutation does
+ * not discard the others.
+ * </p>
+ */
+final class CommitJournal {
+
+    private static final String TAG = CommitJournal.class.getSimpleName();
+    static final int MAX_BATCH_SIZE = 256;
+    // Queue depth above which a warning is logged, as the writer is not keeping up with the mutations
+    static final int HIGH_WATER_MARK = 2048;
+
+    /**
+     * Runs a batch of mutations in a single database transaction.
+     */
+    interface Transactor {
+        void runInTransaction(@NonNull final Runnable batch);
+    }
+
+    /**
+     * Notified on the writer thread once mutations have been committed, or have failed.
+     */
+    interface Listener {
+        void onMutationsCompleted(final int count);
+    }
+
+    private final ExecutorService mWriter = Executors.newSingleThreadExecutor();
+    private final Transactor mTransactor;
+    private final Listener mListener;
+    private final ArrayDeque<Runnable> mQueue = new ArrayDeque<>();
+    private final Object mLock = new Object();
+    private long mEnqueued;
+    private long mCompleted;
+    private boolean mFlushScheduled;
+    private boolean mAboveHighWaterMark;
+
+    // Metrics, guarded by mLock
+    private int mMaxQueueDepth;
+    private long mFlushes;
+    private long mFailedMutations;
+    private long mLastFlushLatency;
+    private long mMaxFlushLatency;
+    private long mTotalFlushLatency;
+
+    CommitJournal(@NonNull final Transactor transactor, @NonNull final Listener listener) {
+        this.mTransactor = transactor;
+        this.mListener = listener;
+    }
+
+    /**
+     * Enqueues a mutation.
+     *
+     * @param mutation database write
+     * @return sequence number of the mutation, see {@link #awaitCompleted(long)}
+     */
+    long enqueue(@NonNull final Runnable mutation) {
+        final boolean scheduleFlush;
+        final long sequence;
+        synchronized (mLock) {
+            mQueue.add(mutation);
+            sequence = ++mEnqueued;
+            mMaxQueueDepth = Math.max(mMaxQueueDepth, mQueue.size());
+            if (!mAboveHighWaterMark && mQueue.size() > HIGH_WATER_MARK) {
+                mAboveHighWaterMark = true;
+                MeshLogger.warn(TAG, "Database writes are falling behind, " + mQueue.size() + " mutations queued");
+            }
+            scheduleFlush = !mFlushScheduled;
+            mFlushScheduled = true;
+        }
+        if (scheduleFlush) {
+            mWriter.execute(this::flush);
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the sequence number of the last enqueued mutation.
+     */
+    long getLastSequence() {
+        synchronized (mLock) {
+            return mEnqueued;
+        }
+    }
+
+    /**
+     * Waits until the mutation with the given sequence number, and all mutations enqueued before it, have been
+     * committed or have failed. Must not be called on the writer thread.
+     *
+     * @param sequence sequence number returned by {@link #enqueue(Runnable)}
+     */
+    void awaitCompleted(final long sequence) throws InterruptedException {
+        synchronized (mLock) {
+            while (mCompleted < sequence) {
+                mLock.wait();
+            }
+        }
+    }
+
+    /**
+     * Returns the current metrics of the journal.
+     */
+    @NonNull
+    DatabaseWriteMetrics getMetrics() {
+        synchronized (mLock) {
+            final long committed = mCompleted - mFailedMutations;
+            return new DatabaseWriteMetrics(mQueue.size(), mMaxQueueDepth, mFlushes, committed, mFailedMutations,
+                    mLastFlushLatency / 1000, mMaxFlushLatency / 1000,
+                    mFlushes == 0 ? 0 : mTotalFlushLatency / mFlushes / 1000);
+        }
+    }
+
+    private void flush() {
+        try {
+            while (flushBatch()) {
+                // Keep draining the queue
+            }
+        } finally {
+            // Runs even if a mutation or the listener threw an error, so that the queued mutations are not stranded
+            final boolean reschedule;
+            synchronized (mLock) {
+                reschedule = !mQueue.isEmpty();
+                if (!reschedule) {
+                    mFlushScheduled = false;
+                    mAboveHighWaterMark = false;
+                }
+            }
+            if (reschedule) {
+                mWriter.execute(this::flush);
+            }
+        }
+    }
+
+    /**
+     * Applies the next batch of queued mutations.
+     *
+     * @return false if the queue was empty
+     */
+    private boolean flushBatch() {
+        final List<Runnable> batch = new ArrayList<>();
+        synchronized (mLock) {
+            while (!mQueue.isEmpty() && batch.size() < MAX_BATCH_SIZE) {
+                batch.add(mQueue.poll());
+            }
+        }
+        if (batch.isEmpty())
+            return false;
+
+        final long start = System.nanoTime();
+        // A batch that throws an error is counted as failed
+        int failed = batch.size();
+        try {
+            failed = apply(batch);
+        } finally {
+            final long latency = System.nanoTime() - start;
+            try {
+                MeshMetrics.onDatabaseFlush(latency / 1000);
+                // Notified before the waiters are released so that they observe the completion
+                mListener.onMutationsCompleted(batch.size());
+            } finally {
+                synchronized (mLock) {
+                    mCompleted += batch.size();
+                    mFailedMutations += failed;
+                    mFlushes++;
+                    mLastFlushLatency = latency;
+                    mMaxFlushLatency = Math.max(mMaxFlushLatency, latency);
+                    mTotalFlushLatency += latency;
+                    mLock.notifyAll();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a batch of mutations in a single transaction, or one by one if the transaction fails.
+     *
+     * @return number of mutations that failed
+     */
+    private int apply(@NonNull final List<Runnable> batch) {
+        try {
+            mTransactor.runInTransaction(() -> {
+                for (Runnable mutation : batch) {
+                    mutation.run();
+                }
+            });
+            return 0;
+        } catch (Exception ex) {
+            MeshLogger.warn(TAG, "Batch of " + batch.size() + " mutations failed, applying them one by one: " + ex.getMessage());
+            return applyOneByOne(batch);
+        }
+    }
+
+    private int applyOneByOne(@NonNull final List<Runnable> batch) {
+        int failed = 0;
+        for (Runnable mutation : batch) {
+            try {
+                mTransactor.runInTransaction(mutation);
+            } catch (Exception ex) {
+                failed++;
+                MeshLogger.error(TAG, "Database mutation failed: " + ex.getMessage());
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,111 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Metrics of the queue of pending writes to the mesh network database.
+ * <p>
+ * Writes are queued and applied in order by a single writer, in batches of one transaction each. A growing queue
+ * depth or flush latency indicates that the network is changed faster than it can be stored.
+ * </p>
+ */
+public final class DatabaseWriteMetrics {
+
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final long flushes;
+    private final long committedWrites;
+    private final long failedWrites;
+    private final long lastFlushLatencyMicros;
+    private final long maxFlushLatencyMicros;
+    private final long averageFlushLatencyMicros;
+
+    DatabaseWriteMetrics(final int queueDepth,
+                         final int maxQueueDepth,
+                         final long flushes,
+                         final long committedWrites,
+                         final long failedWrites,
+                         final long lastFlushLatencyMicros,
+                         final long maxFlushLatencyMicros,
+                         final long averageFlushLatencyMicros) {
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.flushes = flushes;
+        this.committedWrites = committedWrites;
+        this.failedWrites = failedWrites;
+        this.lastFlushLatencyMicros = lastFlushLatencyMicros;
+        this.maxFlushLatencyMicros = maxFlushLatencyMicros;
+        this.averageFlushLatencyMicros = averageFlushLatencyMicros;
+    }
+
+    /**
+     * Returns the number of writes waiting to be applied.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns the highest number of writes that were waiting to be applied at the same time.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Returns the number of transactions used to apply the writes.
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Returns the number of writes applied successfully.
+     */
+    public long getCommittedWrites() {
+        return committedWrites;
+    }
+
+    /**
+     * Returns the number of writes that failed.
+     */
+    public long getFailedWrites() {
+        return failedWrites;
+    }
+
+    /**
+     * Returns the time taken by the last transaction in microseconds.
+     */
+    public long getLastFlushLatencyMicros() {
+        return lastFlushLatencyMicros;
+    }
+
+    /**
+     * Returns the longest time taken by a transaction in microseconds.
+     */
+    public long getMaxFlushLatencyMicros() {
+        return maxFlushLatencyMicros;
+    }
+
+    /**
+     * Returns the average time taken by a transaction in microseconds.
+     */
+    public long getAverageFlushLatencyMicros() {
+        return averageFlushLatencyMicros;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DatabaseWriteMetrics{" +
+                "queueDepth=" + queueDepth +
+                ", maxQueueDepth=" + maxQueueDepth +
+                ", flushes=" + flushes +
+                ", committedWrites=" + committedWrites +
+                ", failedWrites=" + failedWrites +
+                ", lastFlushLatencyMicros=" + lastFlushLatencyMicros +
+                ", maxFlushLatencyMicros=" + maxFlushLatencyMicros +
+                ", averageFlushLatencyMicros=" + averageFlushLatencyMicros +
+                '}';
+    }
+}
@@ -0,0 +1,205 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Registry of the faults reported by the Health Servers of the network.
+ * <p>
+ * The faults of Health Current Status and Health Fault Status messages are kept per element address and company
+ * identifier, as sets of fault codes. A report identical to the previous report of the same type, e.g. a periodic
+ * publication while the faults do not change, is counted as a duplicate and does not update the time of the last
+ * change. The faults of an element are removed when its node is reset.
+ * </p>
+ */
+public final class HealthFaultRegistry {
+
+    private static final int NO_FAULT = 0x00;
+    private static final int CURRENT = 0;
+    private static final int REGISTERED = 1;
+
+    private final Map<Integer, Entry> mEntries = new LinkedHashMap<>();
+
+    /**
+     * Adds the faults of a Health Current Status.
+     *
+     * @param elementAddress address of the element containing the Health Server
+     * @param testId         identifier of the most recently performed test
+     * @param companyId      company identifier of the faults
+     * @param faults         fault array, null if empty
+     * @param timestamp      time the status was received, in milliseconds since the epoch
+     * @return the updated faults, or null if the report repeated the previous one
+     */
+    @Nullable
+    synchronized HealthFaults addCurrentFaults(final int elementAddress, final int testId, final int companyId,
+                                               @Nullable final byte[] faults, final long timestamp) {
+        final Entry entry = obtain(elementAddress, companyId, timestamp);
+        return entry.update(CURRENT, testId, faults, timestamp) ? entry.snapshot() : null;
+    }
+
+    /**
+     * Adds the faults of a Health Fault Status.
+     *
+     * @param elementAddress address of the element containing the Health Server
+     * @param testId         identifier of the most recently performed test
+     * @param companyId      company identifier of the faults
+     * @param faults         fault array, null if empty
+     * @param timestamp      time the status was received, in milliseconds since the epoch
+     * @return the updated faults, or null if the report repeated the previous one
+     */
+    @Nullable
+    synchronized HealthFaults addRegisteredFaults(final int elementAddress, final int testId, final int companyId,
+                                                  @Nullable final byte[] faults, final long timestamp) {
+        final Entry entry = obtain(elementAddress, companyId, timestamp);
+        return entry.update(REGISTERED, testId, faults, timestamp) ? entry.snapshot() : null;
+    }
+
+    /**
+     * Removes the faults of an element.
+     *
+     * @param elementAddress element address
+     */
+    synchronized void remove(final int elementAddress) {
+        final Iterator<Entry> iterator = mEntries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().elementAddress == elementAddress) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all faults.
+     */
+    synchronized void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * Returns the faults of an element for a company identifier, or null if none have been reported.
+     *
+     * @param elementAddress element address
+     * @param companyId      company identifier
+     */
+    @Nullable
+    public synchronized HealthFaults get(final int elementAddress, final int companyId) {
+        final Entry entry = mEntries.get(keyOf(elementAddress, companyId));
+        return entry == null ? null : entry.snapshot();
+    }
+
+    /**
+     * Returns the faults reported by all elements, in the order they were first reported.
+     *
+     * @param faultyOnly true to only return the elements with current or registered faults
+     */
+    @NonNull
+    public synchronized List<HealthFaults> getAll(final boolean faultyOnly) {
+        final List<HealthFaults> faults = new ArrayList<>(mEntries.size());
+        for (Entry entry : mEntries.values()) {
+            if (!faultyOnly || entry.hasFaults()) {
+                faults.add(entry.snapshot());
+            }
+        }
+        return faults;
+    }
+
+    private static int keyOf(final int elementAddress, final int companyId) {
+        return elementAddress << 16 | companyId;
+    }
+
+    private Entry obtain(final int elementAddress, final int companyId, final long timestamp) {
+        final int key = keyOf(elementAddress, companyId);
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            entry = new Entry(elementAddress, companyId, timestamp);
+            mEntries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+        final int elementAddress;
+        final int companyId;
+        // Current and registered fault codes, as bit sets of 256 bits
+        private final long[][] faults = new long[2][4];
+        private final boolean[] reported = new boolean[2];
+        private final long[] scratch = new long[4];
+        int testId;
+        long lastReport;
+        long lastChange;
+        int reportCount;
+        int duplicateCount;
+
+        Entry(final int elementAddress, final int companyId, final long timestamp) {
+            this.elementAddress = elementAddress;
+            this.companyId = companyId;
+            this.lastChange = timestamp;
+        }
+
+        /**
+         * Replaces the current or registered faults with the faults of a report.
+         *
+         * @return true if the faults or the test id changed
+         */
+        boolean update(final int type, final int testId, @Nullable final byte[] faultArray, final long timestamp) {
+            final long[] set = faults[type];
+            Arrays.fill(scratch, 0);
+            if (faultArray != null) {
+                for (byte fault : faultArray) {
+                    final int code = fault & 0xFF;
+                    if (code != NO_FAULT) {
+                        scratch[code >>> 6] |= 1L << code;
+                    }
+                }
+            }
+            reportCount++;
+            lastReport = timestamp;
+            if (reported[type] && this.testId == testId && Arrays.equals(set, scratch)) {
+                duplicateCount++;
+                return false;
+            }
+            reported[type] = true;
+            System.arraycopy(scratch, 0, set, 0, set.length);
+            this.testId = testId;
+            lastChange = timestamp;
+            return true;
+        }
+
+        boolean hasFaults() {
+            for (int i = 0; i < scratch.length; i++) {
+                if (faults[CURRENT][i] != 0 || faults[REGISTERED][i] != 0)
+                    return true;
+            }
+            return false;
+        }
+
+        HealthFaults snapshot() {
+            return new HealthFaults(elementAddress, companyId, testId, toCodes(faults[CURRENT]), toCodes(faults[REGISTERED]),
+                    lastReport, lastChange, reportCount, duplicateCount);
+        }
+
+        private static int[] toCodes(final long[] set) {
+            int count = 0;
+            for (long word : set) {
+                count += Long.bitCount(word);
+            }
+            final int[] codes = new int[count];
+            int index = 0;
+            for (int i = 0; i < set.length; i++) {
+                long word = set[i];
+                while (word != 0) {
+                    codes[index++] = i * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return codes;
+        }
+    }
+}
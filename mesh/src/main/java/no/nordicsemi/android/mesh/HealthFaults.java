@@ -0,0 +1,123 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Faults reported by a Health Server for one company identifier, as kept by the {@link HealthFaultRegistry}.
+ * <p>
+ * The fault codes are defined in the Bluetooth Assigned Numbers, "No Fault" (0x00) is never included. Instances are
+ * immutable snapshots of the registry.
+ * </p>
+ */
+public final class HealthFaults {
+
+    private final int elementAddress;
+    private final int companyId;
+    private final int testId;
+    private final int[] currentFaults;
+    private final int[] registeredFaults;
+    private final long lastReport;
+    private final long lastChange;
+    private final int reportCount;
+    private final int duplicateCount;
+
+    HealthFaults(final int elementAddress, final int companyId, final int testId,
+                 @NonNull final int[] currentFaults, @NonNull final int[] registeredFaults,
+                 final long lastReport, final long lastChange, final int reportCount, final int duplicateCount) {
+        this.elementAddress = elementAddress;
+        this.companyId = companyId;
+        this.testId = testId;
+        this.currentFaults = currentFaults;
+        this.registeredFaults = registeredFaults;
+        this.lastReport = lastReport;
+        this.lastChange = lastChange;
+        this.reportCount = reportCount;
+        this.duplicateCount = duplicateCount;
+    }
+
+    /**
+     * Returns the address of the element containing the Health Server.
+     */
+    public int getElementAddress() {
+        return elementAddress;
+    }
+
+    /**
+     * Returns the company identifier the faults are defined by.
+     */
+    public int getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * Returns the identifier of the most recently performed self-test.
+     */
+    public int getTestId() {
+        return testId;
+    }
+
+    /**
+     * Returns the faults currently present, as reported by Health Current Status messages, in ascending order.
+     */
+    @NonNull
+    public int[] getCurrentFaults() {
+        return currentFaults.clone();
+    }
+
+    /**
+     * Returns the faults registered since they were last cleared, as reported by Health Fault Status messages, in
+     * ascending order.
+     */
+    @NonNull
+    public int[] getRegisteredFaults() {
+        return registeredFaults.clone();
+    }
+
+    /**
+     * Returns true if faults are currently present.
+     */
+    public boolean hasCurrentFaults() {
+        return currentFaults.length > 0;
+    }
+
+    /**
+     * Returns true if a fault is currently present.
+     *
+     * @param faultCode fault code
+     */
+    public boolean hasCurrentFault(final int faultCode) {
+        for (int fault : currentFaults) {
+            if (fault == faultCode)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the time the last report was received, in milliseconds since the epoch.
+     */
+    public long getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Returns the time the faults or the test id last changed, in milliseconds since the epoch.
+     */
+    public long getLastChange() {
+        return lastChange;
+    }
+
+    /**
+     * Returns the number of reports received.
+     */
+    public int getReportCount() {
+        return reportCount;
+    }
+
+    /**
+     * Returns the number of reports received that repeated the previous report of the same type.
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+}
@@ -0,0 +1,199 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.transport.HealthFaultGet;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.HEALTH_FAULT_GET;
+
+/**
+ * Polls the registered faults of Health Servers that do not publish their current faults.
+ * <p>
+ * A Health Server that publishes periodically is only polled once its publications stop arriving for two publish
+ * periods. Other Health Servers are polled with a Health Fault Get at the polling interval. All requests share a
+ * budget of messages per minute and are spread evenly over time, through the same transmit queue as the sensor
+ * requests. The scheduler does not keep time itself, {@link #poll(long)} is called when the time returned by its
+ * previous invocation is reached.
+ * </p>
+ */
+final class HealthPollingScheduler {
+
+    static final long DEFAULT_INTERVAL = 5 * 60 * 1000;
+    static final long MIN_INTERVAL = 30 * 1000;
+    static final int DEFAULT_BUDGET = 60; // Messages per minute
+
+    private final SensorPollingScheduler.TransmitQueue mTransmitQueue;
+    private final Map<Integer, HealthServer> mServers = new LinkedHashMap<>();
+    private long mInterval = DEFAULT_INTERVAL;
+    private long mSpacing = 60 * 1000 / DEFAULT_BUDGET;
+    private long mNextSend = Long.MIN_VALUE;
+
+    HealthPollingScheduler(@NonNull final SensorPollingScheduler.TransmitQueue transmitQueue) {
+        this.mTransmitQueue = transmitQueue;
+    }
+
+    /**
+     * Sets the interval Health Servers that do not publish are polled at.
+     *
+     * @param interval polling interval in milliseconds
+     * @throws IllegalArgumentException if the interval is shorter than 30 seconds
+     */
+    synchronized void setInterval(final long interval) {
+        if (interval < MIN_INTERVAL)
+            throw new IllegalArgumentException("Health polling interval must be at least " + MIN_INTERVAL + " ms");
+        for (HealthServer server : mServers.values()) {
+            server.nextPoll = Math.min(server.nextPoll, server.lastPoll + interval);
+        }
+        mInterval = interval;
+    }
+
+    /**
+     * Starts monitoring a Health Server.
+     *
+     * @param elementAddress address of the element containing the Health Server
+     * @param appKey         application key bound to the Health Server
+     * @param companyId      company identifier of the faults to be polled
+     * @param publishPeriod  publish period of the Health Server in milliseconds, 0 if it does not publish
+     * @param now            current time in milliseconds
+     */
+    synchronized void add(final int elementAddress,
+                          @NonNull final ApplicationKey appKey,
+                          final int companyId,
+                          final long publishPeriod,
+                          final long now) {
+        HealthServer server = mServers.get(elementAddress);
+        if (server == null) {
+            server = new HealthServer(elementAddress);
+            server.nextPoll = now;
+            // A publishing server gets two periods to publish before it is polled
+            server.lastStatus = now;
+            mServers.put(elementAddress, server);
+        }
+        server.appKey = appKey;
+        server.companyId = companyId;
+        server.publishPeriod = publishPeriod;
+    }
+
+    /**
+     * Stops monitoring a Health Server.
+     *
+     * @param elementAddress address of the element containing the Health Server
+     */
+    synchronized void remove(final int elementAddress) {
+        mServers.remove(elementAddress);
+    }
+
+    /**
+     * Stops monitoring all Health Servers.
+     */
+    synchronized void clear() {
+        mServers.clear();
+    }
+
+    /**
+     * Returns true if a Health Server is monitored.
+     *
+     * @param elementAddress address of the element containing the Health Server
+     */
+    synchronized boolean contains(final int elementAddress) {
+        return mServers.containsKey(elementAddress);
+    }
+
+    /**
+     * Submits the requests that are due, as far as the budget allows.
+     *
+     * @param now current time in milliseconds
+     * @return time at which the scheduler should be polled again, or {@link Long#MAX_VALUE} if no Health Servers are
+     * monitored
+     */
+    synchronized long poll(final long now) {
+        while (true) {
+            final HealthServer server = getNextDue();
+            if (server == null)
+                return Long.MAX_VALUE;
+            final long due = Math.max(server.getDue(mInterval), mNextSend);
+            if (due > now)
+                return due;
+            server.lastPoll = now;
+            server.nextPoll = now + mInterval;
+            mTransmitQueue.submit(server.address, new FaultGetFactory(server.appKey, server.companyId));
+            mNextSend = now + mSpacing;
+        }
+    }
+
+    /**
+     * Handles a Health Current Status or Health Fault Status received from a Health Server.
+     *
+     * @param src source address
+     * @param now current time in milliseconds
+     */
+    synchronized void onStatusReceived(final int src, final long now) {
+        final HealthServer server = mServers.get(src);
+        if (server == null)
+            return;
+        server.lastStatus = now;
+        // A publication delays the next poll as well as a response does
+        server.nextPoll = now + mInterval;
+    }
+
+    private HealthServer getNextDue() {
+        HealthServer next = null;
+        for (HealthServer server : mServers.values()) {
+            if (next == null || server.getDue(mInterval) < next.getDue(mInterval)) {
+                next = server;
+            }
+        }
+        return next;
+    }
+
+    private static final class HealthServer {
+        final int address;
+        ApplicationKey appKey;
+        int companyId;
+        long publishPeriod;
+        long nextPoll;
+        long lastPoll = Long.MIN_VALUE / 2;
+        long lastStatus = Long.MIN_VALUE / 2;
+
+        HealthServer(final int address) {
+            this.address = address;
+        }
+
+        long getDue(final long interval) {
+            if (publishPeriod > 0) {
+                // Unanswered polls are repeated at the polling interval
+                final long stale = lastStatus + 2 * publishPeriod;
+                return lastPoll > lastStatus ? Math.max(stale, lastPoll + interval) : stale;
+            }
+            return nextPoll;
+        }
+    }
+
+    /**
+     * Creates the Health Fault Get requests once they are sent. The requests are not transactional, the TID is not
+     * used.
+     */
+    private static final class FaultGetFactory implements TransactionalMessageFactory {
+        private final ApplicationKey appKey;
+        private final int companyId;
+
+        FaultGetFactory(@NonNull final ApplicationKey appKey, final int companyId) {
+            this.appKey = appKey;
+            this.companyId = companyId;
+        }
+
+        @Override
+        public int getOpCode() {
+            return HEALTH_FAULT_GET;
+        }
+
+        @NonNull
+        @Override
+        public MeshMessage createMessage(final int tid) {
+            return new HealthFaultGet(appKey, companyId);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * Keeps track of the Heartbeat messages received from the nodes of the network.
+ * <p>
+ * For every source the monitor keeps the time the last heartbeat was received, the hops it travelled (Initial TTL -
+ * Received TTL + 1), the minimum and maximum hops, as Heartbeat Subscription does, and the features the node reported
+ * as enabled. The state is kept in parallel primitive arrays indexed by a slot, so thousands of nodes can be tracked
+ * without an object per node. The slots are iterated from 0 to {@link #size()} - 1, their order changes when a node is
+ * removed.
+ * </p>
+ * <p>
+ * A heartbeat is missed when none arrived within half a period after the next one was due. Deadlines are kept in a
+ * hashed timer wheel of one second buckets, so checking them costs the number of buckets elapsed rather than the
+ * number of nodes. The monitor does not keep time itself, {@link #advance(long)} is called when the time returned by
+ * its previous invocation is reached.
+ * </p>
+ */
+public final class HeartbeatMonitor {
+
+    static final long TICK = 1000;
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+    private static final int NO_HOPS = 0;
+    /**
+     * Time returned by {@link #getLastSeen(int)} if no heartbeat has been received from a node.
+     */
+    public static final long NEVER = Long.MIN_VALUE;
+
+    /**
+     * Listener notified when heartbeats are missed.
+     */
+    interface Listener {
+
+        /**
+         * Called when a heartbeat expected from a node did not arrive.
+         *
+         * @param src    source address of the node
+         * @param missed number of consecutive heartbeats missed
+         */
+        void onHeartbeatsMissed(final int src, final int missed);
+    }
+
+    private final Listener mListener;
+    // Slot + 1 of each unicast address, 0 if the address is not tracked
+    private final char[] mSlots = new char[MeshAddress.END_UNICAST_ADDRESS + 1];
+    private final int[] mWheel = new int[WHEEL_SIZE];
+    private int mSize;
+    private int[] mSrc = new int[INITIAL_CAPACITY];
+    private long[] mLastSeen = new long[INITIAL_CAPACITY];
+    private long[] mPeriod = new long[INITIAL_CAPACITY];
+    private long[] mDeadline = new long[INITIAL_CAPACITY];
+    private byte[] mHops = new byte[INITIAL_CAPACITY];
+    private byte[] mMinHops = new byte[INITIAL_CAPACITY];
+    private byte[] mMaxHops = new byte[INITIAL_CAPACITY];
+    private byte[] mFeatures = new byte[INITIAL_CAPACITY];
+    private int[] mReceived = new int[INITIAL_CAPACITY];
+    private int[] mMissed = new int[INITIAL_CAPACITY];
+    private int[] mConsecutiveMissed = new int[INITIAL_CAPACITY];
+    // Links of the timer wheel buckets, NONE terminated
+    private int[] mNext = new int[INITIAL_CAPACITY];
+    private int[] mPrevious = new int[INITIAL_CAPACITY];
+    private long mTick = Long.MIN_VALUE;
+    private int mScheduled;
+    private int[] mExpiredSources = new int[INITIAL_CAPACITY];
+    private int[] mExpiredCounts = new int[INITIAL_CAPACITY];
+
+    HeartbeatMonitor(@NonNull final Listener listener) {
+        this.mListener = listener;
+        Arrays.fill(mWheel, NONE);
+    }
+
+    /**
+     * Records a heartbeat.
+     *
+     * @param src      source address of the heartbeat
+     * @param initTtl  initial TTL the heartbeat was sent with
+     * @param rxTtl    TTL the heartbeat was received with
+     * @param features features enabled on the node, as assembled by {@link Features#assembleFeatures()}
+     * @param period   publication period of the node in milliseconds, 0 if unknown, in which case the period set
+     *                 previously is kept
+     * @param now      current time in milliseconds
+     */
+    synchronized void onHeartbeatReceived(final int src, final int initTtl, final int rxTtl, final int features,
+                                          final long period, final long now) {
+        if (!MeshAddress.isValidUnicastAddress(src))
+            return;
+        final int slot = obtain(src);
+        final int hops = Math.max(1, Math.min(0x7F, initTtl - rxTtl + 1));
+        mLastSeen[slot] = now;
+        mHops[slot] = (byte) hops;
+        if (mMinHops[slot] == NO_HOPS || hops < mMinHops[slot]) {
+            mMinHops[slot] = (byte) hops;
+        }
+        if (hops > mMaxHops[slot]) {
+            mMaxHops[slot] = (byte) hops;
+        }
+        mFeatures[slot] = (byte) features;
+        mReceived[slot]++;
+        mConsecutiveMissed[slot] = 0;
+        if (period > 0) {
+            mPeriod[slot] = period;
+        }
+        unschedule(slot);
+        if (mPeriod[slot] > 0) {
+            schedule(slot, now + mPeriod[slot] + mPeriod[slot] / 2, now);
+        }
+    }
+
+    /**
+     * Starts expecting heartbeats from a node at the given period.
+     *
+     * @param src    unicast address of the node
+     * @param period publication period in milliseconds
+     * @param now    current time in milliseconds
+     */
+    synchronized void expect(final int src, final long period, final long now) {
+        if (!MeshAddress.isValidUnicastAddress(src))
+            throw new IllegalArgumentException("Heartbeats can only be expected from unicast addresses");
+        if (period <= 0)
+            throw new IllegalArgumentException("Heartbeat period must be positive");
+        final int slot = obtain(src);
+        mPeriod[slot] = period;
+        unschedule(slot);
+        schedule(slot, now + period + period / 2, now);
+    }
+
+    /**
+     * Stops tracking a node.
+     *
+     * @param src unicast address of the node
+     */
+    synchronized void remove(final int src) {
+        final int slot = indexOf(src);
+        if (slot == NONE)
+            return;
+        unschedule(slot);
+        mSlots[src] = 0;
+        final int last = --mSize;
+        if (slot != last) {
+            final boolean scheduled = isScheduled(last);
+            if (scheduled) {
+                unschedule(last);
+            }
+            mSrc[slot] = mSrc[last];
+            mLastSeen[slot] = mLastSeen[last];
+            mPeriod[slot] = mPeriod[last];
+            mDeadline[slot] = mDeadline[last];
+            mHops[slot] = mHops[last];
+            mMinHops[slot] = mMinHops[last];
+            mMaxHops[slot] = mMaxHops[last];
+            mFeatures[slot] = mFeatures[last];
+            mReceived[slot] = mReceived[last];
+            mMissed[slot] = mMissed[last];
+            mConsecutiveMissed[slot] = mConsecutiveMissed[last];
+            mSlots[mSrc[slot]] = (char) (slot + 1);
+            mNext[slot] = NONE;
+            mPrevious[slot] = NONE;
+            if (scheduled) {
+                link(slot);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking all nodes.
+     */
+    synchronized void clear() {
+        for (int slot = 0; slot < mSize; slot++) {
+            mSlots[mSrc[slot]] = 0;
+        }
+        Arrays.fill(mWheel, NONE);
+        mSize = 0;
+        mScheduled = 0;
+        mTick = Long.MIN_VALUE;
+    }
+
+    /**
+     * Marks the heartbeats that were due by the given time as missed, notifying the listener once per node.
+     *
+     * @param now current time in milliseconds
+     * @return the time {@link #advance(long)} should be called at next, or {@link Long#MAX_VALUE} if no heartbeats
+     * are expected
+     */
+    long advance(final long now) {
+        final int count;
+        final long next;
+        final int[] sources;
+        final int[] missed;
+        synchronized (this) {
+            if (mScheduled == 0)
+                return Long.MAX_VALUE;
+            count = expire(now);
+            next = nextTick(now);
+            sources = Arrays.copyOf(mExpiredSources, count);
+            missed = Arrays.copyOf(mExpiredCounts, count);
+        }
+        // Notified outside of the lock, the listener may remove nodes
+        for (int i = 0; i < count; i++) {
+            mListener.onHeartbeatsMissed(sources[i], missed[i]);
+        }
+        return next;
+    }
+
+    /**
+     * Walks the buckets elapsed since the previous call and reschedules the expired deadlines one period later.
+     *
+     * @return the number of nodes added to the expired sources and counts
+     */
+    private int expire(final long now) {
+        final long tick = now / TICK;
+        final long buckets = Math.min(tick - mTick + 1, WHEEL_SIZE);
+        int count = 0;
+        for (long i = 0; i < buckets; i++) {
+            int slot = mWheel[(int) ((mTick + i) & WHEEL_MASK)];
+            while (slot != NONE) {
+                final int next = mNext[slot];
+                if (mDeadline[slot] <= now) {
+                    unschedule(slot);
+                    final long period = mPeriod[slot];
+                    final int missed = (int) ((now - mDeadline[slot]) / period + 1);
+                    mMissed[slot] += missed;
+                    mConsecutiveMissed[slot] += missed;
+                    schedule(slot, mDeadline[slot] + missed * period, now);
+                    if (count == mExpiredSources.length) {
+                        mExpiredSources = Arrays.copyOf(mExpiredSources, count * 2);
+                        mExpiredCounts = Arrays.copyOf(mExpiredCounts, count * 2);
+                    }
+                    mExpiredSources[count] = mSrc[slot];
+                    mExpiredCounts[count] = mConsecutiveMissed[slot];
+                    count++;
+                }
+                slot = next;
+            }
+        }
+        // The bucket of the current tick is walked again on the next call, for the deadlines later within the tick
+        mTick = Math.max(mTick, tick);
+        return count;
+    }
+
+    /**
+     * Returns the time of the earliest non empty bucket after now, or {@link Long#MAX_VALUE} if the wheel is empty.
+     */
+    private long nextTick(final long now) {
+        final long tick = now / TICK;
+        long earliest = Long.MAX_VALUE;
+        for (int slot = mWheel[(int) (tick & WHEEL_MASK)]; slot != NONE; slot = mNext[slot]) {
+            if (mDeadline[slot] / TICK == tick) {
+                earliest = Math.min(earliest, mDeadline[slot]);
+            }
+        }
+        if (earliest != Long.MAX_VALUE)
+            return earliest;
+        for (int i = 1; i < WHEEL_SIZE; i++) {
+            if (mWheel[(int) ((tick + i) & WHEEL_MASK)] != NONE)
+                return (tick + i) * TICK;
+        }
+        return mScheduled == 0 ? Long.MAX_VALUE : (tick + WHEEL_SIZE) * TICK;
+    }
+
+    /**
+     * Returns the number of nodes tracked.
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns the slot of a node, or -1 if the node is not tracked.
+     *
+     * @param src unicast address of the node
+     */
+    public synchronized int indexOf(final int src) {
+        if (!MeshAddress.isValidUnicastAddress(src))
+            return NONE;
+        return mSlots[src] - 1;
+    }
+
+    /**
+     * Returns the unicast address of the node in a slot.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getSource(final int index) {
+        return mSrc[check(index)];
+    }
+
+    /**
+     * Returns the time the last heartbeat was received in milliseconds, or {@link #NEVER}.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized long getLastSeen(final int index) {
+        return mLastSeen[check(index)];
+    }
+
+    /**
+     * Returns the heartbeat period expected from the node in milliseconds, or 0 if unknown.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized long getPeriod(final int index) {
+        return mPeriod[check(index)];
+    }
+
+    /**
+     * Returns the hops the last heartbeat travelled, or 0 if no heartbeat has been received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getHops(final int index) {
+        return mHops[check(index)];
+    }
+
+    /**
+     * Returns the minimum hops of the heartbeats received, or 0 if no heartbeat has been received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getMinHops(final int index) {
+        return mMinHops[check(index)];
+    }
+
+    /**
+     * Returns the maximum hops of the heartbeats received, or 0 if no heartbeat has been received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getMaxHops(final int index) {
+        return mMaxHops[check(index)];
+    }
+
+    /**
+     * Returns the features enabled on the node when the last heartbeat was sent, with the relay, proxy, friend and
+     * low power features in bits 0 to 3.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getFeatures(final int index) {
+        return mFeatures[check(index)];
+    }
+
+    /**
+     * Returns the number of heartbeats received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getReceivedCount(final int index) {
+        return mReceived[check(index)];
+    }
+
+    /**
+     * Returns the number of heartbeats missed.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getMissedCount(final int index) {
+        return mMissed[check(index)];
+    }
+
+    /**
+     * Returns the number of heartbeats missed since the last one was received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized int getConsecutiveMissedCount(final int index) {
+        return mConsecutiveMissed[check(index)];
+    }
+
+    /**
+     * Returns true if the last heartbeat expected from the node was received.
+     *
+     * @param index slot from 0 to {@link #size()} - 1
+     */
+    public synchronized boolean isAlive(final int index) {
+        return mReceived[check(index)] > 0 && mConsecutiveMissed[index] == 0;
+    }
+
+    private int check(final int index) {
+        if (index < 0 || index >= mSize)
+            throw new IndexOutOfBoundsException("Index " + index + " out of range 0 to " + (mSize - 1));
+        return index;
+    }
+
+    private int obtain(final int src) {
+        final int slot = mSlots[src] - 1;
+        if (slot != NONE)
+            return slot;
+        if (mSize == mSrc.length) {
+            grow(mSize * 2);
+        }
+        final int added = mSize++;
+        mSrc[added] = src;
+        mLastSeen[added] = NEVER;
+        mPeriod[added] = 0;
+        mDeadline[added] = 0;
+        mHops[added] = NO_HOPS;
+        mMinHops[added] = NO_HOPS;
+        mMaxHops[added] = NO_HOPS;
+        mFeatures[added] = 0;
+        mReceived[added] = 0;
+        mMissed[added] = 0;
+        mConsecutiveMissed[added] = 0;
+        mNext[added] = NONE;
+        mPrevious[added] = NONE;
+        mSlots[src] = (char) (added + 1);
+        return added;
+    }
+
+    private void grow(final int capacity) {
+        mSrc = Arrays.copyOf(mSrc, capacity);
+        mLastSeen = Arrays.copyOf(mLastSeen, capacity);
+        mPeriod = Arrays.copyOf(mPeriod, capacity);
+        mDeadline = Arrays.copyOf(mDeadline, capacity);
+        mHops = Arrays.copyOf(mHops, capacity);
+        mMinHops = Arrays.copyOf(mMinHops, capacity);
+        mMaxHops = Arrays.copyOf(mMaxHops, capacity);
+        mFeatures = Arrays.copyOf(mFeatures, capacity);
+        mReceived = Arrays.copyOf(mReceived, capacity);
+        mMissed = Arrays.copyOf(mMissed, capacity);
+        mConsecutiveMissed = Arrays.copyOf(mConsecutiveMissed, capacity);
+        mNext = Arrays.copyOf(mNext, capacity);
+        mPrevious = Arrays.copyOf(mPrevious, capacity);
+    }
+
+    private static int bucketOf(final long deadline) {
+        return (int) ((deadline / TICK) & WHEEL_MASK);
+    }
+
+    private void schedule(final int slot, final long deadline, final long now) {
+        if (mScheduled == 0 || mTick == Long.MIN_VALUE) {
+            mTick = now / TICK;
+        }
+        mDeadline[slot] = deadline;
+        link(slot);
+    }
+
+    private void link(final int slot) {
+        final int bucket = bucketOf(mDeadline[slot]);
+        final int head = mWheel[bucket];
+        mNext[slot] = head;
+        mPrevious[slot] = NONE;
+        if (head != NONE) {
+            mPrevious[head] = slot;
+        }
+        mWheel[bucket] = slot;
+        mScheduled++;
+    }
+
+    private boolean isScheduled(final int slot) {
+        return mPrevious[slot] != NONE || mWheel[bucketOf(mDeadline[slot])] == slot;
+    }
+
+    private void unschedule(final int slot) {
+        if (!isScheduled(slot))
+            return;
+        final int bucket = bucketOf(mDeadline[slot]);
+        final int next = mNext[slot];
+        final int previous = mPrevious[slot];
+        if (previous == NONE) {
+            mWheel[bucket] = next;
+        } else {
+            mNext[previous] = next;
+        }
+        if (next != NONE) {
+            mPrevious[next] = previous;
+        }
+        mNext[slot] = NONE;
+        mPrevious[slot] = NONE;
+        mScheduled--;
+    }
+}
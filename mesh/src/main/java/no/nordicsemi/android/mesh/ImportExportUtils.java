@@ -1,24 +1,43 @@
 package no.nordicsemi.android.mesh;
 
-import android.content.ContentResolver;
-import android.net.Uri;
-
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.data.NetworkChange;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 import no.nordicsemi.android.mesh.transport.Element;
 import no.nordicsemi.android.mesh.transport.InternalElementListDeserializer;
@@ -28,6 +47,7 @@ import no.nordicsemi.android.mesh.transport.NodeDeserializer;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 
 import static no.nordicsemi.android.mesh.utils.MeshAddress.isValidGroupAddress;
+import static no.nordicsemi.android.mesh.utils.MeshParserUtils.formatTimeStamp;
 
 /**
  * Utility class to handle network imports and exports
@@ -35,16 +55,36 @@ import static no.nordicsemi.android.mesh.utils.MeshAddress.isValidGroupAddress;
 class ImportExportUtils {
 
     private static final String TAG = ImportExportUtils.class.getSimpleName();
-    private final Gson mGson;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String NODES = "nodes";
+    private static final String DELTA = "delta";
+    private static final Type NODE_LIST = new TypeToken<List<ProvisionedMeshNode>>() {
+    }.getType();
+    private static final Gson GSON = initGson();
+    private static final MeshNetworkDeserializer SERIALIZER = new MeshNetworkDeserializer();
+    // Lets the section serializers of the network deserializer be used outside of a Gson serialization
+    private static final JsonSerializationContext SERIALIZATION_CONTEXT = new JsonSerializationContext() {
+        @Override
+        public JsonElement serialize(final Object src) {
+            return GSON.toJsonTree(src);
+        }
+
+        @Override
+        public JsonElement serialize(final Object src, final Type typeOfSrc) {
+            return GSON.toJsonTree(src, typeOfSrc);
+        }
+    };
 
     ImportExportUtils() {
-        mGson = initGson();
     }
 
     /**
      * Initializes the Gson based on the network export type.
+     * <p>
+     * The Gson instance is created once and shared, as building the adapters of the whole network is expensive.
+     * </p>
      */
-    private Gson initGson() {
+    private static Gson initGson() {
         Type netKeyList = new TypeToken<List<NetworkKey>>() {
         }.getType();
         Type appKeyList = new TypeToken<List<ApplicationKey>>() {
@@ -55,18 +95,17 @@ class ImportExportUtils {
         }.getType();
         Type allocatedSceneRange = new TypeToken<List<AllocatedSceneRange>>() {
         }.getType();
-        Type nodeList = new TypeToken<List<ProvisionedMeshNode>>() {
-        }.getType();
         Type meshModelList = new TypeToken<List<MeshModel>>() {
         }.getType();
         Type elementList = new TypeToken<List<Element>>() {
         }.getType();
-        return new GsonBuilder().registerTypeAdapter(netKeyList, new NetKeyDeserializer())
+        return MeshTypeAdapters.registerTypeAdapters(new GsonBuilder())
+                .registerTypeAdapter(netKeyList, new NetKeyDeserializer())
                 .registerTypeAdapter(appKeyList, new AppKeyDeserializer())
                 .registerTypeAdapter(allocatedUnicastRange, new AllocatedUnicastRangeDeserializer())
                 .registerTypeAdapter(allocatedGroupRange, new AllocatedGroupRangeDeserializer())
                 .registerTypeAdapter(allocatedSceneRange, new AllocatedSceneRangeDeserializer())
-                .registerTypeAdapter(nodeList, new NodeDeserializer())
+                .registerTypeAdapter(NODE_LIST, new NodeDeserializer())
                 .registerTypeAdapter(elementList, new InternalElementListDeserializer())
                 .registerTypeAdapter(meshModelList, new MeshModelListDeserializer())
                 .registerTypeAdapter(MeshNetwork.class, new MeshNetworkDeserializer())
@@ -79,30 +118,111 @@ class ImportExportUtils {
      * Imports the network from the Mesh Provisioning/Configuration Database json file
      */
     protected MeshNetwork importNetwork(@NonNull final String networkJson) throws JsonSyntaxException {
-        return mGson.fromJson(networkJson, MeshNetwork.class);
+        try {
+            return importNetwork(new JsonReader(new StringReader(networkJson)));
+        } catch (IOException ex) {
+            throw new JsonSyntaxException(ex);
+        }
+    }
+
+    /**
+     * Imports the network from a stream containing the Mesh Provisioning/Configuration Database json file.
+     * <p>
+     * The document is read with a {@link JsonReader} and only the json tree of a single node is held in memory at a
+     * time, instead of reading the whole file in to a String and building the json tree of the whole network.
+     * </p>
+     *
+     * @param inputStream input stream, the caller is responsible for closing it
+     * @throws IOException         in case of failure reading the stream
+     * @throws JsonSyntaxException if the json is not a valid Mesh Provisioning/Configuration Database
+     */
+    protected MeshNetwork importNetwork(@NonNull final InputStream inputStream) throws IOException, JsonSyntaxException {
+        return importNetwork(new JsonReader(new BufferedReader(new InputStreamReader(inputStream, UTF_8))));
+    }
+
+    private MeshNetwork importNetwork(@NonNull final JsonReader reader) throws IOException, JsonSyntaxException {
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        final MeshNetwork network = GSON.fromJson(readNetwork(reader, nodes), MeshNetwork.class);
+        MeshNetworkDeserializer.setNodes(network, nodes);
+        return network;
+    }
+
+    /**
+     * Reads the json tree of a network without its nodes, which are de-serialized one at a time in to the given list.
+     */
+    private JsonObject readNetwork(@NonNull final JsonReader reader,
+                                   @NonNull final List<ProvisionedMeshNode> nodes) throws IOException, JsonSyntaxException {
+        reader.setLenient(true);
+        final JsonObject jsonNetwork = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (NODES.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    final JsonArray node = new JsonArray();
+                    node.add(JsonParser.parseReader(reader));
+                    final List<ProvisionedMeshNode> deserializedNodes = GSON.fromJson(node, NODE_LIST);
+                    nodes.addAll(deserializedNodes);
+                }
+                reader.endArray();
+                // The network deserializer validates the presence of the nodes, which are added once it has completed
+                jsonNetwork.add(name, new JsonArray());
+            } else {
+                jsonNetwork.add(name, JsonParser.parseReader(reader));
+            }
+        }
+        reader.endObject();
+        return jsonNetwork;
+    }
+
+    /**
+     * Imports the changes of a network exported with {@link #exportDelta(MeshNetwork, List, long, long, OutputStream)}.
+     */
+    protected NetworkDelta importDelta(@NonNull final String deltaJson) throws JsonSyntaxException {
+        try {
+            return importDelta(new JsonReader(new StringReader(deltaJson)));
+        } catch (IOException ex) {
+            throw new JsonSyntaxException(ex);
+        }
     }
 
     /**
-     * Reads and returns the json string from URI.
+     * Imports the changes of a network from a stream.
      *
-     * @param contentResolver ContentResolver
-     * @param uri             URI
-     * @throws IOException in case of failure
+     * @param inputStream input stream, the caller is responsible for closing it
+     * @throws IOException         in case of failure reading the stream
+     * @throws JsonSyntaxException if the json is not a valid delta
      */
-    protected String readJsonStringFromUri(@NonNull final ContentResolver contentResolver, @NonNull final Uri uri) throws IOException {
-        final StringBuilder stringBuilder = new StringBuilder();
-        final InputStream inputStream = contentResolver.openInputStream(uri);
-        if (inputStream != null) {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                    inputStream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+    protected NetworkDelta importDelta(@NonNull final InputStream inputStream) throws IOException, JsonSyntaxException {
+        return importDelta(new JsonReader(new BufferedReader(new InputStreamReader(inputStream, UTF_8))));
+    }
+
+    private NetworkDelta importDelta(@NonNull final JsonReader reader) throws IOException, JsonSyntaxException {
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        final JsonObject jsonNetwork = readNetwork(reader, nodes);
+        final JsonElement jsonDelta = jsonNetwork.remove(DELTA);
+        if (jsonDelta == null || !jsonDelta.isJsonObject())
+            throw new JsonSyntaxException("Invalid mesh network delta, the delta object is missing.");
+        final MeshNetwork network = GSON.fromJson(jsonNetwork, MeshNetwork.class);
+        MeshNetworkDeserializer.setNodes(network, nodes);
+
+        try {
+            final JsonObject delta = jsonDelta.getAsJsonObject();
+            final List<NetworkChange> changes = new ArrayList<>();
+            for (JsonElement element : delta.getAsJsonArray("changes")) {
+                final JsonObject change = element.getAsJsonObject();
+                changes.add(new NetworkChange(network.getMeshUUID(),
+                        change.get("type").getAsString(),
+                        change.get("id").getAsString(),
+                        0,
+                        change.get("timestamp").getAsLong(),
+                        change.get("deleted").getAsBoolean()));
             }
-            reader.close();
-            inputStream.close();
+            return new NetworkDelta(network, delta.get("fromRevision").getAsLong(), delta.get("toRevision").getAsLong(), changes);
+        } catch (RuntimeException ex) {
+            throw new JsonSyntaxException("Invalid mesh network delta, " + ex.getMessage(), ex);
         }
-        return stringBuilder.toString();
     }
 
     /**
@@ -114,17 +234,38 @@ class ImportExportUtils {
     @Nullable
     protected String export(@NonNull final MeshNetwork network, final boolean partial) {
         try {
-            network.setPartial(partial);
-            return mGson.toJson(network);
-        } catch (final com.google.gson.JsonSyntaxException ex) {
-            MeshLogger.error(TAG, "Error: " + ex.getMessage());
-            return null;
+            final StringWriter writer = new StringWriter();
+            export(network, partial, writer);
+            return writer.toString();
         } catch (final Exception e) {
             MeshLogger.error(TAG, "Error: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Exports the mesh network to a stream in the Mesh Provisioning/Configuration Database format.
+     *
+     * @param network      Mesh network to be exported
+     * @param partial      True if the network is to be exported as partial.
+     * @param outputStream output stream, the caller is responsible for closing it
+     * @throws IOException in case of failure writing to the stream
+     */
+    protected void export(@NonNull final MeshNetwork network,
+                          final boolean partial,
+                          @NonNull final OutputStream outputStream) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        export(network, partial, writer);
+        writer.flush();
+    }
+
+    private void export(@NonNull final MeshNetwork network,
+                        final boolean partial,
+                        @NonNull final Writer writer) throws IOException {
+        network.setPartial(partial);
+        write(GSON.newJsonWriter(writer), network, new ExportSelection(network));
+    }
+
     @Nullable
     protected String export(@NonNull final MeshNetwork network,
                             @NonNull final NetworkKeysConfig networkKeysConfig,
@@ -133,14 +274,287 @@ class ImportExportUtils {
                             @NonNull final ProvisionersConfig provisionersConfig,
                             @NonNull final GroupsConfig groupsConfig,
                             @NonNull final ScenesConfig scenesConfig) {
-        //Let's use Gson to make a temporary copy of the network and apply the export configurations.
-        final MeshNetwork temp = mGson.fromJson(mGson.toJson(network), MeshNetwork.class);
-        return export(prepareNetwork(temp, networkKeysConfig, applicationKeysConfig, nodesConfig,
-                provisionersConfig, groupsConfig, scenesConfig), true);
+        try {
+            final StringWriter writer = new StringWriter();
+            write(GSON.newJsonWriter(writer), network, selectNetwork(network, networkKeysConfig, applicationKeysConfig,
+                    nodesConfig, provisionersConfig, groupsConfig, scenesConfig));
+            return writer.toString();
+        } catch (final Exception e) {
+            MeshLogger.error(TAG, "Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Exports a partial mesh network to a stream with the export configuration provided.
+     * <p>
+     * The configuration is applied to each node while it is written, the network itself is not copied or modified.
+     * </p>
+     *
+     * @param outputStream output stream, the caller is responsible for closing it
+     * @throws IOException in case of failure writing to the stream
+     */
+    protected void export(@NonNull final MeshNetwork network,
+                          @NonNull final NetworkKeysConfig networkKeysConfig,
+                          @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                          @NonNull final NodesConfig nodesConfig,
+                          @NonNull final ProvisionersConfig provisionersConfig,
+                          @NonNull final GroupsConfig groupsConfig,
+                          @NonNull final ScenesConfig scenesConfig,
+                          @NonNull final OutputStream outputStream) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        write(GSON.newJsonWriter(writer), network, selectNetwork(network, networkKeysConfig, applicationKeysConfig,
+                nodesConfig, provisionersConfig, groupsConfig, scenesConfig));
+        writer.flush();
+    }
+
+    /**
+     * Writes the network in the same format as {@link MeshNetworkDeserializer}, serializing one node at a time.
+     *
+     * @param writer    Json writer.
+     * @param network   Mesh network.
+     * @param selection Parts of the network to be written.
+     */
+    private void write(@NonNull final JsonWriter writer,
+                       @NonNull final MeshNetwork network,
+                       @NonNull final ExportSelection selection) throws IOException {
+        writer.beginObject();
+        writer.name("$schema").value(network.getSchema());
+        writer.name("id").value(network.getId());
+        writer.name("version").value(network.getVersion());
+        writer.name("meshUUID").value(network.getMeshUUID().toUpperCase(Locale.US));
+        writer.name("meshName").value(network.getMeshName());
+        writer.name("timestamp").value(formatTimeStamp(network.getTimestamp()));
+        writer.name("partial").value(selection.filtered || network.partial);
+        writer.name("netKeys");
+        GSON.toJson(SERIALIZER.serializeNetKeys(SERIALIZATION_CONTEXT, selection.netKeys), writer);
+        writer.name("appKeys");
+        GSON.toJson(SERIALIZER.serializeAppKeys(SERIALIZATION_CONTEXT, selection.appKeys), writer);
+        writer.name("provisioners");
+        GSON.toJson(SERIALIZER.serializeProvisioners(SERIALIZATION_CONTEXT, selection.provisioners), writer);
+
+        writer.name(NODES);
+        writer.beginArray();
+        final Set<Group> relatedGroups = new LinkedHashSet<>();
+        for (ProvisionedMeshNode node : selection.nodes) {
+            final ProvisionedMeshNode exportedNode = selection.filtered ? prepareNode(node, selection) : node;
+            if (selection.groupsConfig instanceof GroupsConfig.ExportRelated) {
+                for (Group group : network.getGroups()) {
+                    if (isGroupInUse(exportedNode, group)) {
+                        relatedGroups.add(group);
+                    }
+                }
+            }
+            GSON.toJson(SERIALIZER.serializeNodes(SERIALIZATION_CONTEXT,
+                    Collections.singletonList(exportedNode)).getAsJsonArray().get(0), writer);
+        }
+        writer.endArray();
+
+        writer.name("groups");
+        final List<Group> groups = selection.groupsConfig instanceof GroupsConfig.ExportRelated ?
+                new ArrayList<>(relatedGroups) : selection.groups;
+        GSON.toJson(SERIALIZER.serializeGroups(groups), writer);
+        writer.name("scenes");
+        GSON.toJson(SERIALIZER.serializeScenes(selection.filtered ?
+                filterSceneAddresses(selection.nodes, selection.scenes) : selection.scenes), writer);
+        writer.name("networkExclusions");
+        GSON.toJson(SERIALIZER.serializeExclusionList(network.getNetworkExclusions()), writer);
+        writer.endObject();
+        writer.flush();
     }
 
     /**
-     * Configures and returns a network with the export configuration provided.
+     * Exports the entities of the network changed after a revision.
+     *
+     * @param network      Mesh network.
+     * @param changes      Changes made after the revision.
+     * @param fromRevision Revision the changes are exported since.
+     * @param toRevision   Revision of the last change.
+     */
+    @Nullable
+    protected String exportDelta(@NonNull final MeshNetwork network,
+                                 @NonNull final List<NetworkChange> changes,
+                                 final long fromRevision,
+                                 final long toRevision) {
+        try {
+            final StringWriter writer = new StringWriter();
+            writeDelta(new JsonWriter(writer), network, changes, fromRevision, toRevision);
+            return writer.toString();
+        } catch (final Exception e) {
+            MeshLogger.error(TAG, "Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Exports the entities of the network changed after a revision to a stream.
+     * <p>
+     * The delta is a partial Mesh Configuration Database containing only the changed entities, with an additional
+     * delta object listing the changes including the deleted entities. It is written without indentation as it is
+     * meant to be sent to other provisioners.
+     * </p>
+     *
+     * @param network      Mesh network.
+     * @param changes      Changes made after the revision.
+     * @param fromRevision Revision the changes are exported since.
+     * @param toRevision   Revision of the last change.
+     * @param outputStream output stream, the caller is responsible for closing it
+     * @throws IOException in case of failure writing to the stream
+     */
+    protected void exportDelta(@NonNull final MeshNetwork network,
+                               @NonNull final List<NetworkChange> changes,
+                               final long fromRevision,
+                               final long toRevision,
+                               @NonNull final OutputStream outputStream) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        writeDelta(new JsonWriter(writer), network, changes, fromRevision, toRevision);
+        writer.flush();
+    }
+
+    private void writeDelta(@NonNull final JsonWriter writer,
+                            @NonNull final MeshNetwork network,
+                            @NonNull final List<NetworkChange> changes,
+                            final long fromRevision,
+                            final long toRevision) throws IOException {
+        final List<NetworkKey> netKeys = new ArrayList<>();
+        final List<ApplicationKey> appKeys = new ArrayList<>();
+        final List<Provisioner> provisioners = new ArrayList<>();
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        final List<Group> groups = new ArrayList<>();
+        final List<Scene> scenes = new ArrayList<>();
+        boolean exclusionsChanged = false;
+        for (NetworkChange change : changes) {
+            if (change.deleted)
+                continue;
+            final Object entity = NetworkDelta.find(network, change.entityType, change.entityId);
+            if (entity instanceof NetworkKey) {
+                netKeys.add((NetworkKey) entity);
+            } else if (entity instanceof ApplicationKey) {
+                appKeys.add((ApplicationKey) entity);
+            } else if (entity instanceof Provisioner) {
+                provisioners.add((Provisioner) entity);
+            } else if (entity instanceof ProvisionedMeshNode) {
+                nodes.add((ProvisionedMeshNode) entity);
+            } else if (entity instanceof Group) {
+                groups.add((Group) entity);
+            } else if (entity instanceof Scene) {
+                scenes.add((Scene) entity);
+            } else if (NetworkChangeLog.NETWORK_EXCLUSIONS.equals(change.entityType)) {
+                exclusionsChanged = true;
+            }
+        }
+
+        writer.setSerializeNulls(true);
+        writer.beginObject();
+        writer.name("$schema").value(network.getSchema());
+        writer.name("id").value(network.getId());
+        writer.name("version").value(network.getVersion());
+        writer.name("meshUUID").value(network.getMeshUUID().toUpperCase(Locale.US));
+        writer.name("meshName").value(network.getMeshName());
+        writer.name("timestamp").value(formatTimeStamp(network.getTimestamp()));
+        writer.name("partial").value(true);
+        writer.name("netKeys");
+        GSON.toJson(SERIALIZER.serializeNetKeys(SERIALIZATION_CONTEXT, netKeys), writer);
+        writer.name("appKeys");
+        GSON.toJson(SERIALIZER.serializeAppKeys(SERIALIZATION_CONTEXT, appKeys), writer);
+        writer.name("provisioners");
+        GSON.toJson(SERIALIZER.serializeProvisioners(SERIALIZATION_CONTEXT, provisioners), writer);
+        writer.name(NODES);
+        writer.beginArray();
+        for (ProvisionedMeshNode node : nodes) {
+            GSON.toJson(SERIALIZER.serializeNodes(SERIALIZATION_CONTEXT,
+                    Collections.singletonList(node)).getAsJsonArray().get(0), writer);
+        }
+        writer.endArray();
+        writer.name("groups");
+        GSON.toJson(SERIALIZER.serializeGroups(groups), writer);
+        writer.name("scenes");
+        GSON.toJson(SERIALIZER.serializeScenes(scenes), writer);
+        if (exclusionsChanged) {
+            writer.name("networkExclusions");
+            GSON.toJson(SERIALIZER.serializeExclusionList(network.getNetworkExclusions()), writer);
+        }
+
+        writer.name(DELTA);
+        writer.beginObject();
+        writer.name("fromRevision").value(fromRevision);
+        writer.name("toRevision").value(toRevision);
+        writer.name("changes");
+        writer.beginArray();
+        for (NetworkChange change : changes) {
+            writer.beginObject();
+            writer.name("type").value(change.entityType);
+            writer.name("id").value(change.entityId);
+            writer.name("timestamp").value(change.timestamp);
+            writer.name("deleted").value(change.deleted);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Returns the json of a single entity of the network in the Mesh Configuration Database format, used to compare
+     * entities of different networks.
+     *
+     * @param entity key, provisioner, node, group, scene or exclusion list
+     */
+    @SuppressWarnings("unchecked")
+    static JsonElement serializeEntity(@NonNull final Object entity) {
+        if (entity instanceof NetworkKey) {
+            return SERIALIZER.serializeNetKeys(SERIALIZATION_CONTEXT, Collections.singletonList((NetworkKey) entity));
+        } else if (entity instanceof ApplicationKey) {
+            return SERIALIZER.serializeAppKeys(SERIALIZATION_CONTEXT, Collections.singletonList((ApplicationKey) entity));
+        } else if (entity instanceof Provisioner) {
+            return SERIALIZER.serializeProvisioners(SERIALIZATION_CONTEXT, Collections.singletonList((Provisioner) entity));
+        } else if (entity instanceof ProvisionedMeshNode) {
+            return SERIALIZER.serializeNodes(SERIALIZATION_CONTEXT, Collections.singletonList((ProvisionedMeshNode) entity));
+        } else if (entity instanceof Group) {
+            return SERIALIZER.serializeGroups(Collections.singletonList((Group) entity));
+        } else if (entity instanceof Scene) {
+            return SERIALIZER.serializeScenes(Collections.singletonList((Scene) entity));
+        } else if (entity instanceof Map) {
+            return SERIALIZER.serializeExclusionList((Map<Integer, List<Integer>>) entity);
+        }
+        throw new IllegalArgumentException("Unknown entity " + entity);
+    }
+
+    /**
+     * Parts of the network to be exported.
+     */
+    private static final class ExportSelection {
+        final boolean filtered;
+        List<NetworkKey> netKeys;
+        List<ApplicationKey> appKeys;
+        List<Provisioner> provisioners;
+        List<ProvisionedMeshNode> nodes;
+        final Set<ProvisionedMeshNode> withoutDeviceKey = Collections.newSetFromMap(new IdentityHashMap<>());
+        ExportConfig.Builder groupsConfig;
+        List<Group> groups;
+        List<Scene> scenes;
+
+        /**
+         * Selects the whole network.
+         */
+        ExportSelection(@NonNull final MeshNetwork network) {
+            this(network, false);
+        }
+
+        ExportSelection(@NonNull final MeshNetwork network, final boolean filtered) {
+            this.filtered = filtered;
+            netKeys = network.getNetKeys();
+            appKeys = network.getAppKeys();
+            provisioners = network.getProvisioners();
+            nodes = network.getNodes();
+            groups = network.getGroups();
+            scenes = network.getScenes();
+        }
+    }
+
+    /**
+     * Selects the parts of the network to be exported with the export configuration provided.
      *
      * @param network               MeshNetwork.
      * @param networkKeysConfig     Network Keys configuration.
@@ -150,43 +564,46 @@ class ImportExportUtils {
      * @param groupsConfig          Groups configuration.
      * @param scenesConfig          Scenes configuration.
      */
-    private MeshNetwork prepareNetwork(@NonNull final MeshNetwork network,
-                                       @NonNull final NetworkKeysConfig networkKeysConfig,
-                                       @NonNull final ApplicationKeysConfig applicationKeysConfig,
-                                       @NonNull final NodesConfig nodesConfig,
-                                       @NonNull final ProvisionersConfig provisionersConfig,
-                                       @NonNull final GroupsConfig groupsConfig,
-                                       @NonNull final ScenesConfig scenesConfig) {
+    private ExportSelection selectNetwork(@NonNull final MeshNetwork network,
+                                          @NonNull final NetworkKeysConfig networkKeysConfig,
+                                          @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                                          @NonNull final NodesConfig nodesConfig,
+                                          @NonNull final ProvisionersConfig provisionersConfig,
+                                          @NonNull final GroupsConfig groupsConfig,
+                                          @NonNull final ScenesConfig scenesConfig) {
+        final ExportSelection selection = new ExportSelection(network, true);
 
         // Initial list of nodes to export
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
         if (nodesConfig.getConfig() instanceof NodesConfig.ExportWithoutDeviceKey) {
-            for (ProvisionedMeshNode node : network.nodes)
-                node.setDeviceKey(null);
+            nodes.addAll(network.nodes);
+            selection.withoutDeviceKey.addAll(network.nodes);
         } else if (nodesConfig.getConfig() instanceof NodesConfig.ExportSome) {
-            network.nodes.clear();
             final List<ProvisionedMeshNode> withDeviceKey = ((NodesConfig.ExportSome) nodesConfig.getConfig()).getWithDeviceKey();
             final List<ProvisionedMeshNode> withoutDeviceKey = ((NodesConfig.ExportSome) nodesConfig.getConfig()).getWithoutDeviceKey();
-            for (ProvisionedMeshNode node : withoutDeviceKey)
-                node.setDeviceKey(null);
-            network.nodes.addAll(withDeviceKey);
-            network.nodes.addAll(withoutDeviceKey);
+            nodes.addAll(withDeviceKey);
+            nodes.addAll(withoutDeviceKey);
+            selection.withoutDeviceKey.addAll(withoutDeviceKey);
 
             // Add any missing provisioner nodes if they were not selected when selecting nodes.
             for (Provisioner provisioner : network.provisioners) {
-                if (!isProvisionerExistsInNodes(provisioner, network.nodes)) {
-                    network.nodes.add(new ProvisionedMeshNode(provisioner, network.netKeys, network.appKeys));
+                if (!isProvisionerExistsInNodes(provisioner, nodes)) {
+                    nodes.add(new ProvisionedMeshNode(provisioner, network.netKeys, network.appKeys));
                 }
             }
+        } else {
+            nodes.addAll(network.nodes);
         }
 
         // Include the selected provisioners
         // List of provisioners to export
+        final List<Provisioner> provisioners = new ArrayList<>(network.provisioners);
         if (provisionersConfig.getConfig() instanceof ProvisionersConfig.ExportSome) {
             // First Let's exclude provisioners that are not nodes
-            final ListIterator<Provisioner> provisionerListIterator = network.provisioners.listIterator();
+            final ListIterator<Provisioner> provisionerListIterator = provisioners.listIterator();
             while (provisionerListIterator.hasNext()) {
                 final Provisioner provisioner = provisionerListIterator.next();
-                if (!isProvisionerExistsInNodes(provisioner, network.nodes)) {
+                if (!isProvisionerExistsInNodes(provisioner, nodes)) {
                     provisionerListIterator.remove();
                 }
             }
@@ -195,67 +612,92 @@ class ImportExportUtils {
             // We must go through all items to ensure there are no duplicates
             final List<Provisioner> selectedProvisioners = ((ProvisionersConfig.ExportSome) provisionersConfig.getConfig()).getProvisioners();
             for (Provisioner provisioner : selectedProvisioners) {
-                if (!network.isProvisionerUuidInUse(provisioner.getProvisionerUuid())) {
-                    network.provisioners.add(provisioner);
+                if (!isProvisionerUuidInUse(provisioners, provisioner.getProvisionerUuid())) {
+                    provisioners.add(provisioner);
                 }
             }
         }
+        selection.provisioners = provisioners;
 
         // List of Network Keys to export
         if (networkKeysConfig.getConfig() instanceof NetworkKeysConfig.ExportSome) {
-            network.setNetKeys(((NetworkKeysConfig.ExportSome) networkKeysConfig.getConfig()).getKeys());
+            selection.netKeys = ((NetworkKeysConfig.ExportSome) networkKeysConfig.getConfig()).getKeys();
         }
 
         // List of Application Keys to export
         if (applicationKeysConfig.getConfig() instanceof ApplicationKeysConfig.ExportSome) {
-            network.appKeys.clear();
+            final List<ApplicationKey> appKeys = new ArrayList<>();
             // List of application keys set in the configuration, but we must only export the keys that are bound to that network key.
             final List<ApplicationKey> keys = ((ApplicationKeysConfig.ExportSome) applicationKeysConfig.getConfig()).getKeys();
             for (ApplicationKey key : keys) {
-                if (isApplicationKeyBound(network.getNetKeys(), key)) {
-                    network.appKeys.add(key);
+                if (isApplicationKeyBound(selection.netKeys, key)) {
+                    appKeys.add(key);
                 }
             }
+            selection.appKeys = appKeys;
         }
 
         // Exclude nodes unknown to network keys
         // TODO what will happen to the provisioner if the node is to excluded due to an unknown network key?
-        final ListIterator<ProvisionedMeshNode> nodeListIterator = network.nodes.listIterator();
+        final ListIterator<ProvisionedMeshNode> nodeListIterator = nodes.listIterator();
         while (nodeListIterator.hasNext()) {
             final ProvisionedMeshNode node = nodeListIterator.next();
-            if (!isNetworkKeyAdded(node, network.getNetKeys())) {
+            if (!isNetworkKeyAdded(node, selection.netKeys)) {
                 nodeListIterator.remove();
-                continue;
             }
-            excludeAppKeys(node, network.appKeys);
         }
+        selection.nodes = nodes;
+
+        selection.groupsConfig = groupsConfig.getConfig();
+        if (groupsConfig.getConfig() instanceof GroupsConfig.ExportSome) {
+            selection.groups = ((GroupsConfig.ExportSome) groupsConfig.getConfig()).getGroups();
+        }
+
+        if (scenesConfig.getConfig() instanceof ScenesConfig.ExportSome) {
+            selection.scenes = ((ScenesConfig.ExportSome) scenesConfig.getConfig()).getScenes();
+        }
+        return selection;
+    }
+
+    /**
+     * Returns a copy of the node with the export configuration applied, leaving the node in the network unchanged.
+     *
+     * @param node      Mesh node.
+     * @param selection Parts of the network to be exported.
+     */
+    private ProvisionedMeshNode prepareNode(@NonNull final ProvisionedMeshNode node, @NonNull final ExportSelection selection) {
+        final List<ProvisionedMeshNode> copies = GSON.fromJson(
+                SERIALIZER.serializeNodes(SERIALIZATION_CONTEXT, Collections.singletonList(node)), NODE_LIST);
+        final ProvisionedMeshNode copy = copies.get(0);
+        if (selection.withoutDeviceKey.contains(node)) {
+            copy.setDeviceKey(null);
+        }
+        excludeAppKeys(copy, selection.appKeys);
 
-        if (groupsConfig.getConfig() instanceof GroupsConfig.ExportRelated) {
-            excludeNonRelatedGroups(network);
-        } else if (groupsConfig.getConfig() instanceof GroupsConfig.ExportSome) {
-            network.groups = ((GroupsConfig.ExportSome) groupsConfig.getConfig()).getGroups();
+        if (selection.groupsConfig instanceof GroupsConfig.ExportSome) {
             // If subscriptions/publications uses any excluded group addresses, let's remove them.
-            for (ProvisionedMeshNode node : network.getNodes()) {
-                for (Element element : node.getElements().values()) {
-                    for (MeshModel model : element.getMeshModels().values()) {
-                        for (Group group : network.groups) {
-                            if (model.getPublicationSettings() != null &&
-                                    isValidGroupAddress(model.getPublicationSettings().getPublishAddress()) &&
-                                    model.getPublicationSettings().getPublishAddress() != group.getAddress()) {
-                                model.setPublicationSettings(null);
-                            }
-                            model.getSubscribedAddresses().remove((Integer) group.getAddress());
+            for (Element element : copy.getElements().values()) {
+                for (MeshModel model : element.getMeshModels().values()) {
+                    for (Group group : selection.groups) {
+                        if (model.getPublicationSettings() != null &&
+                                isValidGroupAddress(model.getPublicationSettings().getPublishAddress()) &&
+                                model.getPublicationSettings().getPublishAddress() != group.getAddress()) {
+                            model.setPublicationSettings(null);
                         }
+                        model.removeSubscriptionAddress(group.getAddress());
                     }
                 }
             }
         }
+        return copy;
+    }
 
-        if (scenesConfig.getConfig() instanceof ScenesConfig.ExportSome) {
-            network.scenes = ((ScenesConfig.ExportSome) scenesConfig.getConfig()).getScenes();
+    private boolean isProvisionerUuidInUse(@NonNull final List<Provisioner> provisioners, @NonNull final String uuid) {
+        for (Provisioner provisioner : provisioners) {
+            if (provisioner.getProvisionerUuid().equalsIgnoreCase(uuid))
+                return true;
         }
-        removeExcludedNodesFromScenes(network.nodes, network.scenes);
-        return network;
+        return false;
     }
 
     /**
@@ -275,23 +717,6 @@ class ImportExportUtils {
         return false;
     }
 
-    /**
-     * Excludes groups that are not related tot he list of nodes.
-     *
-     * @param network Mesh network.
-     */
-    private void excludeNonRelatedGroups(@NonNull final MeshNetwork network) {
-        final List<Group> groups = new ArrayList<>();
-        for (Group group : network.getGroups()) {
-            for (ProvisionedMeshNode node : network.getNodes()) {
-                if (isGroupInUse(node, group)) {
-                    groups.add(group);
-                }
-            }
-        }
-        network.groups = groups;
-    }
-
     /**
      * Checks if the node has subscribed or publishes to the group.
      *
@@ -302,7 +727,8 @@ class ImportExportUtils {
     private boolean isGroupInUse(@NonNull final ProvisionedMeshNode node, @NonNull final Group group) {
         for (final Element element : node.getElements().values()) {
             for (final MeshModel model : element.getMeshModels().values()) {
-                if (model.getPublicationSettings().getPublishAddress() == group.getAddress() ||
+                if ((model.getPublicationSettings() != null &&
+                        model.getPublicationSettings().getPublishAddress() == group.getAddress()) ||
                         model.getSubscribedAddresses().contains((Integer) group.getAddress())) {
                     return true;
                 }
@@ -312,23 +738,25 @@ class ImportExportUtils {
     }
 
     /**
-     * Removes excluded node from a scene addresses.
+     * Returns the scenes without the addresses of nodes that are not exported.
      *
      * @param nodes  List of nodes in the network.
      * @param scenes List of scenes in the network.
      */
-    private void removeExcludedNodesFromScenes(@NonNull List<ProvisionedMeshNode> nodes, @NonNull List<Scene> scenes) {
-        ListIterator<Integer> addresses;
-        Integer address;
+    private List<Scene> filterSceneAddresses(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final List<Scene> scenes) {
+        final List<Scene> filteredScenes = new ArrayList<>(scenes.size());
         for (Scene scene : scenes) {
-            addresses = scene.getAddresses().listIterator();
-            while (addresses.hasNext()) {
-                address = addresses.next();
-                if (!isNodeAddressExistsInScene(nodes, address)) {
-                    addresses.remove();
+            final List<Integer> addresses = new ArrayList<>();
+            for (Integer address : scene.getAddresses()) {
+                if (isNodeAddressExistsInScene(nodes, address)) {
+                    addresses.add(address);
                 }
             }
+            final Scene filteredScene = new Scene(scene.getNumber(), addresses, scene.getMeshUuid());
+            filteredScene.setName(scene.getName());
+            filteredScenes.add(filteredScene);
         }
+        return filteredScenes;
     }
 
     /**
@@ -354,14 +782,12 @@ class ImportExportUtils {
      * @param applicationKeys Selected Application keys.
      */
     private void excludeAppKeys(@NonNull final ProvisionedMeshNode node, @NonNull final List<ApplicationKey> applicationKeys) {
-        int index;
         for (Element element : node.getElements().values()) {
             for (MeshModel model : element.getMeshModels().values()) {
-                final ListIterator<Integer> boundKeyIndexes = model.getBoundAppKeyIndexes().listIterator();
-                while (boundKeyIndexes.hasNext()) {
-                    index = boundKeyIndexes.next();
+                // The bound key indexes are read only, iterate over a copy while removing them from the model
+                for (Integer index : new ArrayList<>(model.getBoundAppKeyIndexes())) {
                     if (!isApplicationKeyBound(index, applicationKeys)) {
-                        boundKeyIndexes.remove();
+                        model.removeBoundAppKeyIndex(index);
                         if (model.getPublicationSettings() != null && model.getPublicationSettings().getAppKeyIndex() == index) {
                             model.setPublicationSettings(null);
                         }
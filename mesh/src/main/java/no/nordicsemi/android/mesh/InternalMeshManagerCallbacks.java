@@ -22,6 +22,9 @@
 
 package no.nordicsemi.android.mesh;
 
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 
 interface InternalMeshManagerCallbacks {
@@ -33,4 +36,11 @@ interface InternalMeshManagerCallbacks {
      * @param numberOfElements  Number of expected elements that is available in the node based on the capabilities.
      */
     void onNodeProvisioned(final ProvisionedMeshNode meshNode, final int numberOfElements);
+
+    /**
+     * Internal callback to notify the {@link MeshManagerApi} that provisioning of a device has ended
+     *
+     * @param deviceUuid Device UUID of the device
+     */
+    void onProvisioningSessionClosed(@NonNull final UUID deviceUuid);
 }
@@ -26,7 +26,10 @@ import java.util.List;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.control.HeartbeatMessage;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.ConfigStatusMessage;
+import no.nordicsemi.android.mesh.transport.ControlMessage;
 import no.nordicsemi.android.mesh.transport.MeshMessage;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.mesh.utils.ProxyFilter;
@@ -92,6 +95,21 @@ public interface InternalTransportCallbacks {
      */
     void onMeshNodeReset(final ProvisionedMeshNode meshNode);
 
+    /**
+     * This callback is invoked when a Remote Provisioning status or report is received
+     *
+     * @param status Remote Provisioning status or report
+     */
+    void onRemoteProvisioningStatusReceived(@NonNull final ConfigStatusMessage status);
+
+    /**
+     * This callback is invoked when a Heartbeat message is received
+     *
+     * @param message   control message containing the heartbeat
+     * @param heartbeat heartbeat message
+     */
+    void onHeartbeatReceived(@NonNull final ControlMessage message, @NonNull final HeartbeatMessage heartbeat);
+
     /**
      * Returns the mesh network
      */
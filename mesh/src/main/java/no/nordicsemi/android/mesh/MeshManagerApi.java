@@ -26,26 +26,44 @@ import android.content.Context;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.Security;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.bearer.MeshBearer;
+import no.nordicsemi.android.mesh.bearer.ProxyBearerManager;
+import no.nordicsemi.android.mesh.bearer.ProxyPduCodec;
+import no.nordicsemi.android.mesh.capture.PduCaptureRecord;
+import no.nordicsemi.android.mesh.capture.PduCaptureWriter;
+import no.nordicsemi.android.mesh.control.HeartbeatMessage;
 import no.nordicsemi.android.mesh.data.ApplicationKeyDao;
 import no.nordicsemi.android.mesh.data.ApplicationKeysDao;
+import no.nordicsemi.android.mesh.data.ElementsDao;
 import no.nordicsemi.android.mesh.data.GroupDao;
 import no.nordicsemi.android.mesh.data.GroupsDao;
 import no.nordicsemi.android.mesh.data.MeshNetworkDao;
+import no.nordicsemi.android.mesh.data.NetworkChange;
+import no.nordicsemi.android.mesh.data.NetworkChangesDao;
 import no.nordicsemi.android.mesh.data.NetworkKeyDao;
 import no.nordicsemi.android.mesh.data.NetworkKeysDao;
 import no.nordicsemi.android.mesh.data.ProvisionedMeshNodeDao;
@@ -55,18 +73,60 @@ import no.nordicsemi.android.mesh.data.ProvisionersDao;
 import no.nordicsemi.android.mesh.data.SceneDao;
 import no.nordicsemi.android.mesh.data.ScenesDao;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshMetrics;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
+import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
+import no.nordicsemi.android.mesh.models.SigModelParser;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.sensorutils.SensorDataReader;
+import no.nordicsemi.android.mesh.sensorutils.SensorDataStore;
+import no.nordicsemi.android.mesh.transport.ApplicationStatusMessage;
+import no.nordicsemi.android.mesh.transport.ConfigAppKeyStatus;
+import no.nordicsemi.android.mesh.transport.ConfigCompositionDataStatus;
+import no.nordicsemi.android.mesh.transport.ConfigHeartbeatPublicationSet;
+import no.nordicsemi.android.mesh.transport.ConfigHeartbeatPublicationStatus;
+import no.nordicsemi.android.mesh.transport.ConfigHeartbeatSubscriptionStatus;
+import no.nordicsemi.android.mesh.transport.ConfigModelAppStatus;
+import no.nordicsemi.android.mesh.transport.ConfigModelPublicationStatus;
+import no.nordicsemi.android.mesh.transport.ConfigModelSubscriptionStatus;
+import no.nordicsemi.android.mesh.transport.ConfigNetKeyStatus;
+import no.nordicsemi.android.mesh.transport.ConfigSigModelAppList;
+import no.nordicsemi.android.mesh.transport.ConfigSigModelSubscriptionList;
+import no.nordicsemi.android.mesh.transport.ConfigStatusMessage;
+import no.nordicsemi.android.mesh.transport.ConfigVendorModelAppList;
+import no.nordicsemi.android.mesh.transport.ConfigVendorModelSubscriptionList;
+import no.nordicsemi.android.mesh.transport.ControlMessage;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.HealthCurrentStatus;
+import no.nordicsemi.android.mesh.transport.HealthFaultStatus;
+import no.nordicsemi.android.mesh.transport.HealthPeriodSet;
 import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.MeshModel;
 import no.nordicsemi.android.mesh.transport.NetworkLayerCallbacks;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.PublicationSettings;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningStatusMessage;
+import no.nordicsemi.android.mesh.transport.SceneRegisterStatus;
+import no.nordicsemi.android.mesh.transport.SceneStatus;
+import no.nordicsemi.android.mesh.transport.SensorColumnStatus;
+import no.nordicsemi.android.mesh.transport.SensorSeriesStatus;
+import no.nordicsemi.android.mesh.transport.SensorStatus;
+import no.nordicsemi.android.mesh.transport.StatusOverflowPolicy;
 import no.nordicsemi.android.mesh.transport.UpperTransportLayerCallbacks;
+import no.nordicsemi.android.mesh.transport.VendorStatusDecoder;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
+import no.nordicsemi.android.mesh.utils.Heartbeat;
+import no.nordicsemi.android.mesh.utils.HeartbeatPublication;
 import no.nordicsemi.android.mesh.utils.InputOOBAction;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 import no.nordicsemi.android.mesh.utils.OutputOOBAction;
 import no.nordicsemi.android.mesh.utils.ProxyFilter;
 import no.nordicsemi.android.mesh.utils.SecureUtils;
+import no.nordicsemi.android.mesh.utils.TransactionIdAllocator;
 
 
 @SuppressWarnings("WeakerAccess")
@@ -84,11 +144,7 @@ public class MeshManagerApi implements MeshMngrApi {
     //GATT level segmentation
     private static final byte GATT_SAR_COMPLETE = 0b00;
     private static final byte GATT_SAR_START = 0b01;
-    private static final byte GATT_SAR_CONTINUATION = 0b10;
     private static final byte GATT_SAR_END = 0b11;
-    //GATT level segmentation mask
-    private static final int GATT_SAR_MASK = 0xC0;
-    private static final int GATT_SAR_UNMASK = 0x3F;
     private static final int SAR_BIT_OFFSET = 6;
 
     private static final long PROXY_SAR_TRANSFER_TIME_OUT = 20 * 1000; // According to the spec the proxy protocol must contain an SAR timeout of 20 seconds.
@@ -108,10 +164,31 @@ public class MeshManagerApi implements MeshMngrApi {
     private final MeshProvisioningHandler mMeshProvisioningHandler;
     private final MeshMessageHandler mMeshMessageHandler;
     private final ImportExportUtils mImportExportUtils;
-    private byte[] mIncomingBuffer;
-    private int mIncomingBufferOffset;
-    private byte[] mOutgoingBuffer;
-    private int mOutgoingBufferOffset;
+    private final TransactionIdAllocator mTransactionIdAllocator;
+    private final MeshMessageCoalescer mMessageCoalescer;
+    private final ProxyBearerManager mProxyBearerManager;
+    private final RemoteProvisioningBearer mRemoteProvisioningBearer;
+    private volatile PduCaptureWriter mPduCapture;
+    // Node Provisioning Protocol Interface procedures in progress, by the device UUID of the node
+    private final Map<UUID, NodeRefresh> mNodeRefreshes = new HashMap<>();
+    private final SensorDataStore mSensorDataStore = new SensorDataStore();
+    private final SensorDataReader mSensorDataReader = new SensorDataReader();
+    private final SensorPollingScheduler mSensorPollingScheduler;
+    private final Runnable mSensorPollingRunnable = this::pollSensors;
+    private final HeartbeatMonitor mHeartbeatMonitor = new HeartbeatMonitor(this::onHeartbeatsMissed);
+    private final Runnable mHeartbeatRunnable = this::checkHeartbeats;
+    private final HealthFaultRegistry mHealthFaultRegistry = new HealthFaultRegistry();
+    private final HealthPollingScheduler mHealthPollingScheduler;
+    private final Runnable mHealthPollingRunnable = this::pollHealthServers;
+    private MeshStatusCallbacks mMeshStatusCallbacks;
+    // Bearer of the pdu being parsed, only visible to the thread parsing it
+    private final ThreadLocal<MeshBearer> mReceivingBearer = new ThreadLocal<>();
+    // Appended to on the thread delivering the notifications and reset by the SAR timeout on the main thread,
+    // guarded by its own lock
+    private final ProxyPduCodec mIncomingCodec = new ProxyPduCodec();
+    private final ProxyPduCodec mOutgoingCodec = new ProxyPduCodec();
+    private final ProxyPduCodec mSegmentationCodec = new ProxyPduCodec();
+    private final PackedSegmentSink mSegmentationSink = new PackedSegmentSink();
     private MeshNetwork mMeshNetwork;
     private boolean ivUpdateTestModeActive = false;
     private boolean allowIvIndexRecoveryOver42 = false;
@@ -130,11 +207,21 @@ public class MeshManagerApi implements MeshMngrApi {
     private GroupsDao mGroupsDao;
     private SceneDao mSceneDao;
     private ScenesDao mScenesDao;
+    private ElementsDao mElementsDao;
+    private NetworkChangesDao mNetworkChangesDao;
     private boolean isNetworkImportInProgress = false;
+    private boolean isDeltaImportInProgress = false;
+    private final NetworkChangeLog mChangeLog = new NetworkChangeLog();
 
     private final Runnable mProxyProtocolTimeoutRunnable = new Runnable() {
         @Override
         public void run() {
+            synchronized (mIncomingCodec) {
+                // A pdu restarted since the timeout was posted is not discarded
+                if (!mIncomingCodec.hasExpired(PROXY_SAR_TRANSFER_TIME_OUT))
+                    return;
+                mIncomingCodec.reset();
+            }
             mMeshMessageHandler.onIncompleteTimerExpired(MeshAddress.UNASSIGNED_ADDRESS);
         }
     };
@@ -147,12 +234,22 @@ public class MeshManagerApi implements MeshMngrApi {
     public MeshManagerApi(@NonNull final Context context) {
         this.mContext = context;
         mHandler = new Handler(Looper.getMainLooper());
-        mMeshProvisioningHandler = new MeshProvisioningHandler(context, internalTransportCallbacks, internalMeshMgrCallbacks);
+        mMeshProvisioningHandler = new MeshProvisioningHandler(context, mHandler, internalTransportCallbacks, internalMeshMgrCallbacks);
         mMeshMessageHandler = new MeshMessageHandler(context, internalTransportCallbacks, networkLayerCallbacks, upperTransportLayerCallbacks);
         mImportExportUtils = new ImportExportUtils();
+        mTransactionIdAllocator = new TransactionIdAllocator();
+        mMessageCoalescer = new MeshMessageCoalescer(mHandler, this, mTransactionIdAllocator);
+        mSensorPollingScheduler = new SensorPollingScheduler(mMessageCoalescer::submit);
+        mHealthPollingScheduler = new HealthPollingScheduler(mMessageCoalescer::submit);
+        mProxyBearerManager = new ProxyBearerManager();
+        mProxyBearerManager.setCallbacks(proxyBearerCallbacks);
+        mRemoteProvisioningBearer = new RemoteProvisioningBearer(remoteProvisioningCallbacks);
         initBouncyCastle();
+        mMeshProvisioningHandler.setKeyPairPoolSize(MeshProvisioningHandler.DEFAULT_KEY_PAIR_POOL_SIZE);
         //Init database
         initDb(context);
+        MeshMetrics.registerGauge("db.queue_depth", () -> mMeshNetworkDb.getWriteMetrics().getQueueDepth());
+        MeshMetrics.registerGauge("status_batch.queue_depth", mMeshMessageHandler::getQueuedStatusCount);
     }
 
     @Override
@@ -167,13 +264,301 @@ public class MeshManagerApi implements MeshMngrApi {
 
     @Override
     public void setMeshStatusCallbacks(@NonNull final MeshStatusCallbacks callbacks) {
+        mMeshStatusCallbacks = callbacks;
         mMeshMessageHandler.setMeshStatusCallbacks(callbacks);
     }
 
+    @Override
+    public void setProvisioningKeyPairPoolSize(final int size) {
+        mMeshProvisioningHandler.setKeyPairPoolSize(size);
+    }
+
+    @NonNull
+    @Override
+    public SensorDataStore getSensorDataStore() {
+        return mSensorDataStore;
+    }
+
+    @Override
+    public void startSensorPolling(final int elementAddress, @NonNull final ApplicationKey appKey) {
+        final ProvisionedMeshNode node = mMeshNetwork == null ? null : mMeshNetwork.getNode(elementAddress);
+        final Element element = node == null ? null : node.getElements().get(elementAddress);
+        final MeshModel model = element == null ? null : element.getMeshModels().get((int) SigModelParser.SENSOR_SERVER);
+        if (model == null)
+            throw new IllegalArgumentException("Element " + MeshAddress.formatAddress(elementAddress, true) + " does not contain a Sensor Server");
+        mSensorPollingScheduler.add(elementAddress, appKey, getPublishPeriod(model.getPublicationSettings()), SystemClock.uptimeMillis());
+        pollSensors();
+    }
+
+    @Override
+    public void stopSensorPolling(final int elementAddress) {
+        mSensorPollingScheduler.remove(elementAddress);
+    }
+
+    @Override
+    public void setSensorPollingIntervals(final long interval, final long maxInterval) {
+        mSensorPollingScheduler.setIntervals(interval, maxInterval);
+    }
+
+    @Override
+    public void setSensorPollingBudget(final int messagesPerMinute) {
+        mSensorPollingScheduler.setBudget(messagesPerMinute);
+        pollSensors();
+    }
+
+    /**
+     * Returns the publish period of a model in milliseconds, or 0 if the model does not publish periodically.
+     */
+    private static long getPublishPeriod(@Nullable final PublicationSettings settings) {
+        if (settings == null || settings.getPublishAddress() == MeshAddress.UNASSIGNED_ADDRESS)
+            return 0;
+        final long steps = settings.getPublicationSteps();
+        switch (settings.getPublicationResolution()) {
+            case MeshParserUtils.RESOLUTION_100_MS:
+                return steps * 100;
+            case MeshParserUtils.RESOLUTION_1_S:
+                return steps * 1000;
+            case MeshParserUtils.RESOLUTION_10_S:
+                return steps * 10 * 1000;
+            default:
+                return steps * 10 * 60 * 1000;
+        }
+    }
+
+    private void pollSensors() {
+        mHandler.removeCallbacks(mSensorPollingRunnable);
+        final long next = mSensorPollingScheduler.poll(SystemClock.uptimeMillis());
+        if (next != Long.MAX_VALUE) {
+            mHandler.postAtTime(mSensorPollingRunnable, next);
+        }
+    }
+
+    @NonNull
+    @Override
+    public HeartbeatMonitor getHeartbeatMonitor() {
+        return mHeartbeatMonitor;
+    }
+
+    @Override
+    public int configureHeartbeatPublications(@NonNull final List<ProvisionedMeshNode> nodes, final int periodLog,
+                                              final int ttl, @NonNull final Features features, final int netKeyIndex) {
+        if (periodLog < 0x01 || periodLog > 0x10)
+            throw new IllegalArgumentException("Period log must range from 0x01 to 0x10");
+        final Provisioner provisioner = mMeshNetwork == null ? null : mMeshNetwork.getSelectedProvisioner();
+        if (provisioner == null || provisioner.getProvisionerAddress() == null)
+            throw new IllegalArgumentException("Provisioner address not set, please assign an address to the provisioner.");
+        final int dst = provisioner.getProvisionerAddress();
+        // Validates the parameters once rather than for every node
+        final HeartbeatPublicationFactory factory = new HeartbeatPublicationFactory(dst,
+                (byte) Heartbeat.SEND_INDEFINITELY, (byte) periodLog, ttl, features, netKeyIndex);
+        factory.createMessage(0);
+        final long period = Heartbeat.calculateHeartbeatPeriod((short) periodLog) * 1000L;
+        final long now = SystemClock.uptimeMillis();
+        int configured = 0;
+        for (ProvisionedMeshNode node : nodes) {
+            if (node.getUnicastAddress() == dst)
+                continue;
+            mMessageCoalescer.submit(node.getUnicastAddress(), factory);
+            mHeartbeatMonitor.expect(node.getUnicastAddress(), period, now);
+            configured++;
+        }
+        checkHeartbeats();
+        return configured;
+    }
+
+    @Override
+    public void stopHeartbeatPublications(@NonNull final List<ProvisionedMeshNode> nodes) {
+        final HeartbeatPublicationFactory factory = new HeartbeatPublicationFactory(MeshAddress.UNASSIGNED_ADDRESS,
+                (byte) 0, (byte) 0, 0, new Features(Features.UNSUPPORTED, Features.UNSUPPORTED, Features.UNSUPPORTED, Features.UNSUPPORTED), 0);
+        for (ProvisionedMeshNode node : nodes) {
+            mMessageCoalescer.submit(node.getUnicastAddress(), factory);
+            mHeartbeatMonitor.remove(node.getUnicastAddress());
+        }
+        checkHeartbeats();
+    }
+
+    /**
+     * Creates the Config Heartbeat Publication Set messages of {@link #configureHeartbeatPublications}. The messages
+     * are created when sent, so that a newer configuration queued for a node replaces an older one.
+     */
+    private static final class HeartbeatPublicationFactory implements TransactionalMessageFactory {
+        private final int dst;
+        private final byte countLog;
+        private final byte periodLog;
+        private final int ttl;
+        private final Features features;
+        private final int netKeyIndex;
+
+        HeartbeatPublicationFactory(final int dst, final byte countLog, final byte periodLog, final int ttl,
+                                    @NonNull final Features features, final int netKeyIndex) {
+            this.dst = dst;
+            this.countLog = countLog;
+            this.periodLog = periodLog;
+            this.ttl = ttl;
+            this.features = features;
+            this.netKeyIndex = netKeyIndex;
+        }
+
+        @Override
+        public int getOpCode() {
+            return ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_SET;
+        }
+
+        @NonNull
+        @Override
+        public MeshMessage createMessage(final int tid) {
+            return new ConfigHeartbeatPublicationSet(dst, countLog, periodLog, ttl, features, netKeyIndex);
+        }
+    }
+
+    /**
+     * Returns the Heartbeat Publication period of a node in milliseconds, or 0 if it is not known to the network.
+     */
+    private static long getHeartbeatPeriod(@Nullable final ProvisionedMeshNode node) {
+        final Element element = node == null ? null : node.getElements().get(node.getUnicastAddress());
+        final MeshModel model = element == null ? null : element.getMeshModels().get((int) SigModelParser.CONFIGURATION_SERVER);
+        if (!(model instanceof ConfigurationServerModel))
+            return 0;
+        final HeartbeatPublication publication = ((ConfigurationServerModel) model).getHeartbeatPublication();
+        if (publication == null || !publication.isEnabled() || publication.getPeriodLog() == 0)
+            return 0;
+        return Heartbeat.calculateHeartbeatPeriod(publication.getPeriodLog()) * 1000L;
+    }
+
+    private void checkHeartbeats() {
+        mHandler.removeCallbacks(mHeartbeatRunnable);
+        final long next = mHeartbeatMonitor.advance(SystemClock.uptimeMillis());
+        if (next != Long.MAX_VALUE) {
+            mHandler.postAtTime(mHeartbeatRunnable, next);
+        }
+    }
+
+    @NonNull
+    @Override
+    public HealthFaultRegistry getHealthFaultRegistry() {
+        return mHealthFaultRegistry;
+    }
+
+    @Override
+    public int startHealthMonitoring(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ApplicationKey appKey,
+                                     final int fastPeriodDivisor) {
+        // Validates the divisor once rather than for every Health Server
+        new HealthPeriodSet(appKey, fastPeriodDivisor);
+        final long now = SystemClock.uptimeMillis();
+        int monitored = 0;
+        for (ProvisionedMeshNode node : nodes) {
+            final Integer companyId = node.getCompanyIdentifier();
+            for (Element element : node.getElements().values()) {
+                final MeshModel model = element.getMeshModels().get((int) SigModelParser.HEALTH_SERVER_MODEL);
+                if (model == null)
+                    continue;
+                mMessageCoalescer.submit(element.getElementAddress(), new HealthPeriodFactory(appKey, fastPeriodDivisor));
+                if (companyId != null) {
+                    mHealthPollingScheduler.add(element.getElementAddress(), appKey, companyId,
+                            getPublishPeriod(model.getPublicationSettings()), now);
+                }
+                monitored++;
+            }
+        }
+        pollHealthServers();
+        return monitored;
+    }
+
+    @Override
+    public void stopHealthMonitoring(@NonNull final List<ProvisionedMeshNode> nodes) {
+        for (ProvisionedMeshNode node : nodes) {
+            for (Element element : node.getElements().values()) {
+                mHealthPollingScheduler.remove(element.getElementAddress());
+            }
+        }
+    }
+
+    @Override
+    public void setHealthPollingInterval(final long interval) {
+        mHealthPollingScheduler.setInterval(interval);
+        pollHealthServers();
+    }
+
+    /**
+     * Creates the Health Period Set messages of {@link #startHealthMonitoring}.
+     */
+    private static final class HealthPeriodFactory implements TransactionalMessageFactory {
+        private final ApplicationKey appKey;
+        private final int fastPeriodDivisor;
+
+        HealthPeriodFactory(@NonNull final ApplicationKey appKey, final int fastPeriodDivisor) {
+            this.appKey = appKey;
+            this.fastPeriodDivisor = fastPeriodDivisor;
+        }
+
+        @Override
+        public int getOpCode() {
+            return ApplicationMessageOpCodes.HEALTH_PERIOD_SET;
+        }
+
+        @NonNull
+        @Override
+        public MeshMessage createMessage(final int tid) {
+            return new HealthPeriodSet(appKey, fastPeriodDivisor);
+        }
+    }
+
+    private void pollHealthServers() {
+        mHandler.removeCallbacks(mHealthPollingRunnable);
+        final long next = mHealthPollingScheduler.poll(SystemClock.uptimeMillis());
+        if (next != Long.MAX_VALUE) {
+            mHandler.postAtTime(mHealthPollingRunnable, next);
+        }
+    }
+
+    private void onHeartbeatsMissed(final int src, final int missed) {
+        MeshLogger.warn(TAG, missed + " heartbeats missed from " + MeshAddress.formatAddress(src, true));
+        final MeshStatusCallbacks callbacks = mMeshStatusCallbacks;
+        if (callbacks != null) {
+            callbacks.onHeartbeatsMissed(src, missed);
+        }
+    }
+
     @Override
     public void loadMeshNetwork() {
         mMeshNetworkDb.loadNetwork(mMeshNetworkDao, mNetworkKeysDao, mApplicationKeysDao, mProvisionersDao, mProvisionedNodesDao,
-                mGroupsDao, mScenesDao, networkLoadCallbacks);
+                mGroupsDao, mScenesDao, mElementsDao, networkLoadCallbacks);
+    }
+
+    @Override
+    public void setNetworkSnapshotEnabled(final boolean enabled) {
+        if (!enabled) {
+            mMeshNetworkDb.setSnapshotSource(null);
+            return;
+        }
+        mMeshNetworkDb.setSnapshotSource(new MeshNetworkSnapshot.Source() {
+            @Override
+            public MeshNetwork getMeshNetwork() {
+                return mMeshNetwork;
+            }
+
+            @Override
+            public void execute(@NonNull final Runnable task) {
+                // The network is modified on the main thread
+                mHandler.post(task);
+            }
+        });
+    }
+
+    @Override
+    public void setNodeElementCacheSize(final int maxNodes) {
+        mMeshNetworkDb.setNodeElementCacheSize(maxNodes);
+    }
+
+    @Override
+    public void prefetchNodeElements(@NonNull final List<ProvisionedMeshNode> nodes) {
+        mMeshNetworkDb.prefetchNodeElements(nodes);
+    }
+
+    @NonNull
+    @Override
+    public DatabaseWriteMetrics getDatabaseWriteMetrics() {
+        return mMeshNetworkDb.getWriteMetrics();
     }
 
     @Override
@@ -215,6 +600,35 @@ public class MeshManagerApi implements MeshMngrApi {
         mGroupsDao = mMeshNetworkDb.groupsDao();
         mSceneDao = mMeshNetworkDb.sceneDao();
         mScenesDao = mMeshNetworkDb.scenesDao();
+        mElementsDao = mMeshNetworkDb.elementsDao();
+        mNetworkChangesDao = mMeshNetworkDb.networkChangesDao();
+    }
+
+    /**
+     * Loads the changes recorded for a network, which becomes the current network.
+     */
+    private void loadChangeLog(@NonNull final MeshNetwork network, final boolean stored) {
+        List<NetworkChange> changes = Collections.emptyList();
+        if (stored) {
+            try {
+                changes = mMeshNetworkDb.loadChanges(mNetworkChangesDao, network.getMeshUUID());
+            } catch (ExecutionException | InterruptedException ex) {
+                MeshLogger.error(TAG, "Error while loading the network changes: " + ex.getMessage());
+            }
+        }
+        mChangeLog.load(network.getMeshUUID(), changes, network.getNetworkExclusions());
+    }
+
+    /**
+     * Records a local change of an entity of the current network.
+     */
+    private void recordChange(@NonNull final String type, @NonNull final String id, final boolean deleted) {
+        if (isNetworkImportInProgress || isDeltaImportInProgress)
+            return;
+        final NetworkChange change = mChangeLog.record(type, id, deleted);
+        if (change != null) {
+            mMeshNetworkDb.insert(mNetworkChangesDao, change);
+        }
     }
 
     private void insertNetwork(final MeshNetwork meshNetwork) {
@@ -228,39 +642,38 @@ public class MeshManagerApi implements MeshMngrApi {
                 mApplicationKeysDao,
                 mProvisionersDao,
                 mProvisionedNodesDao,
-                mGroupsDao, mScenesDao,
+                mGroupsDao, mScenesDao, mElementsDao,
                 meshNetwork);
     }
 
     @Override
     public final void handleNotifications(final int mtuSize, @NonNull final byte[] data) {
-        byte[] unsegmentedPdu;
-        if (!isGattSegmented(data)) {
-            unsegmentedPdu = data;
-        } else {
-            final byte[] combinedPdu = appendPdu(mtuSize, data);
-            if (combinedPdu == null) {
-                //Start the timer
-                toggleProxyProtocolSarTimeOut(data);
-                return;
-            } else {
-                toggleProxyProtocolSarTimeOut(data);
-                unsegmentedPdu = removeSegmentation(mtuSize, combinedPdu);
-            }
+        capturePdu(PduCaptureRecord.NOTIFICATION, mtuSize, data);
+        final int result;
+        final byte[] pdu;
+        synchronized (mIncomingCodec) {
+            result = mIncomingCodec.append(data);
+            toggleProxyProtocolSarTimeOut(data);
+            pdu = result == ProxyPduCodec.RESULT_COMPLETE ? mIncomingCodec.getPdu() : null;
+        }
+        if (pdu != null) {
+            parseNotifications(pdu);
+        } else if (result == ProxyPduCodec.RESULT_DISCARDED) {
+            MeshLogger.warn(TAG, "Unexpected proxy pdu segment discarded: " + MeshParserUtils.bytesToHex(data, true));
         }
-        parseNotifications(unsegmentedPdu);
     }
 
     /**
-     * Toggles the Segmentation and Reassembly timeout for proxy configuration messages received via proxy protocol
+     * Toggles the Segmentation and Reassembly timeout for pdus received via proxy protocol
      *
      * @param data pdu
      */
     private void toggleProxyProtocolSarTimeOut(final byte[] data) {
-        final int pduType = MeshParserUtils.unsignedByteToInt(data[0]);
-        if (pduType == ((GATT_SAR_START << SAR_BIT_OFFSET) | MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION)) {
+        final int sar = MeshParserUtils.unsignedByteToInt(data[0]) >> SAR_BIT_OFFSET;
+        if (sar == GATT_SAR_START) {
+            mHandler.removeCallbacks(mProxyProtocolTimeoutRunnable);
             mHandler.postDelayed(mProxyProtocolTimeoutRunnable, PROXY_SAR_TRANSFER_TIME_OUT);
-        } else if (pduType == ((GATT_SAR_END << SAR_BIT_OFFSET) | MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION)) {
+        } else if (!mIncomingCodec.isInProgress()) {
             mHandler.removeCallbacks(mProxyProtocolTimeoutRunnable);
         }
     }
@@ -271,6 +684,9 @@ public class MeshManagerApi implements MeshMngrApi {
      * @param unsegmentedPdu pdu received by the client.
      */
     private void parseNotifications(final byte[] unsegmentedPdu) {
+        MeshMetrics.onPduReceived(unsegmentedPdu[0]);
+        // The source of the pdu is unknown until the network layer has decrypted it
+        MeshTracer.instant("proxy.pdu_received", MeshAddress.UNASSIGNED_ADDRESS);
         try {
             switch (unsegmentedPdu[0]) {
                 case PDU_TYPE_NETWORK:
@@ -387,7 +803,7 @@ public class MeshManagerApi implements MeshMngrApi {
                     break;
             }
         } catch (ExtendedInvalidCipherTextException ex) {
-            //TODO handle decryption failure
+            MeshMetrics.onDecryptionFailed(ex.getTag());
         } catch (IllegalArgumentException ex) {
             MeshLogger.error(TAG, "Parsing notification failed: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true) + " - " + ex.getMessage());
         }
@@ -395,18 +811,10 @@ public class MeshManagerApi implements MeshMngrApi {
 
     @Override
     public final void handleWriteCallbacks(final int mtuSize, @NonNull final byte[] data) {
-        byte[] unsegmentedPdu;
-        if (!isGattSegmented(data)) {
-            unsegmentedPdu = data;
-        } else {
-            final byte[] combinedPdu = appendWritePdu(mtuSize, data);
-            if (combinedPdu == null)
-                return;
-            else {
-                unsegmentedPdu = removeSegmentation(mtuSize, combinedPdu);
-            }
+        capturePdu(PduCaptureRecord.WRITE_CALLBACK, mtuSize, data);
+        if (mOutgoingCodec.append(data) == ProxyPduCodec.RESULT_COMPLETE) {
+            handleWriteCallbacks(mOutgoingCodec.getPdu());
         }
-        handleWriteCallbacks(unsegmentedPdu);
     }
 
     /**
@@ -432,134 +840,48 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
-    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private boolean isGattSegmented(final byte[] pdu) {
-        final int gattSar = (pdu[0] & GATT_SAR_MASK) >> SAR_BIT_OFFSET;
-        switch (gattSar) {
-            case GATT_SAR_START:
-            case GATT_SAR_CONTINUATION:
-            case GATT_SAR_END:
-                return true;
-            default:
-                return false;
-        }
-    }
 
     /**
-     * Appends the PDUs that are segmented at gatt layer.
+     * Segments a proxy pdu in to MTU sized segments that are placed one after the other in a single buffer,
+     * each segment starting at a multiple of the mtu.
      *
      * @param mtuSize mtu size supported by the device/node
-     * @param pdu     pdu received by the provisioner
-     * @return the combine pdu or returns null if not complete.
+     * @param pdu     proxy pdu
+     * @return the pdu if it does not need to be segmented or the segments
      */
-    private byte[] appendPdu(final int mtuSize, final byte[] pdu) {
-        final int length = Math.min(pdu.length, mtuSize);
-        if (mIncomingBuffer == null) {
-            mIncomingBufferOffset = 0;
-            mIncomingBufferOffset += length;
-            mIncomingBuffer = pdu;
-        } else {
-            final byte[] buffer = new byte[mIncomingBuffer.length + length];
-            System.arraycopy(mIncomingBuffer, 0, buffer, 0, mIncomingBufferOffset);
-            System.arraycopy(pdu, 0, buffer, mIncomingBufferOffset, length);
-            mIncomingBufferOffset += length;
-            mIncomingBuffer = buffer;
-            final int sar = MeshParserUtils.unsignedByteToInt(pdu[0]) >> SAR_BIT_OFFSET;
-            if (sar == GATT_SAR_END) {
-                final byte[] packet = mIncomingBuffer;
-                mIncomingBuffer = null;
-                return packet;
-            }
-        }
-        return null;
+    private byte[] applySegmentation(final int mtuSize, final byte[] pdu) {
+        final int count = ProxyPduCodec.getSegmentCount(pdu.length, mtuSize);
+        if (count == 1)
+            return pdu;
+        final byte[] segmentedBuffer = new byte[pdu.length + count - 1];
+        synchronized (mSegmentationCodec) {
+            mSegmentationSink.reset(segmentedBuffer, mtuSize);
+            mSegmentationCodec.segment(pdu, mtuSize, mSegmentationSink);
+        }
+        return segmentedBuffer;
     }
 
     /**
-     * Appends the PDUs that are segmented at gatt layer.
-     *
-     * @param mtuSize mtu size supported by the device/node
-     * @param pdu     pdu received by the provisioner
-     * @return the combine pdu or returns null if not complete.
+     * Copies each segment to a buffer at the next multiple of the mtu.
      */
-    private byte[] appendWritePdu(final int mtuSize, final byte[] pdu) {
-        if (mOutgoingBuffer == null) {
-            final int length = Math.min(pdu.length, mtuSize);
-            mOutgoingBufferOffset = 0;
-            mOutgoingBufferOffset += length;
-            mOutgoingBuffer = pdu;
-        } else {
-            final int length = Math.min(pdu.length, mtuSize);
-            final byte[] buffer = new byte[mOutgoingBuffer.length + length];
-            System.arraycopy(mOutgoingBuffer, 0, buffer, 0, mOutgoingBufferOffset);
-            System.arraycopy(pdu, 0, buffer, mOutgoingBufferOffset, length);
-            mOutgoingBufferOffset += length;
-            mOutgoingBuffer = buffer;
-            if (length < mtuSize) {
-                final byte[] packet = mOutgoingBuffer;
-                mOutgoingBuffer = null;
-                return packet;
-            }
+    private static final class PackedSegmentSink implements ProxyPduCodec.SegmentSink {
+
+        private byte[] mTarget;
+        private int mMtu;
+        private int mOffset;
+
+        void reset(@NonNull final byte[] target, final int mtu) {
+            mTarget = target;
+            mMtu = mtu;
+            mOffset = 0;
         }
-        return null;
-    }
 
-    private byte[] applySegmentation(final int mtuSize, final byte[] pdu) {
-        int srcOffset = 0;
-        int dstOffset = 0;
-        final int chunks = (pdu.length + (mtuSize - 1)) / mtuSize;
-
-        final int pduType = pdu[0];
-        if (chunks > 1) {
-            final byte[] segmentedBuffer = new byte[pdu.length + chunks - 1];
-            int length;
-            for (int i = 0; i < chunks; i++) {
-                if (i == 0) {
-                    length = Math.min(pdu.length - srcOffset, mtuSize);
-                    System.arraycopy(pdu, srcOffset, segmentedBuffer, dstOffset, length);
-                    segmentedBuffer[0] = (byte) ((GATT_SAR_START << 6) | pduType);
-                } else if (i == chunks - 1) {
-                    length = Math.min(pdu.length - srcOffset, mtuSize);
-                    segmentedBuffer[dstOffset] = (byte) ((GATT_SAR_END << 6) | pduType);
-                    System.arraycopy(pdu, srcOffset, segmentedBuffer, dstOffset + 1, length);
-                } else {
-                    length = Math.min(pdu.length - srcOffset, mtuSize - 1);
-                    segmentedBuffer[dstOffset] = (byte) ((GATT_SAR_CONTINUATION << 6) | pduType);
-                    System.arraycopy(pdu, srcOffset, segmentedBuffer, dstOffset + 1, length);
-                }
-                srcOffset += length;
-                dstOffset += mtuSize;
-            }
-            return segmentedBuffer;
-        }
-        return pdu;
-    }
-
-    private byte[] removeSegmentation(final int mtuSize, final byte[] data) {
-        int srcOffset = 0;
-        int dstOffset = 0;
-        final int chunks = (data.length + (mtuSize - 1)) / mtuSize;
-        if (chunks > 1) {
-            final byte[] buffer = new byte[data.length - (chunks - 1)];
-            int length;
-            for (int i = 0; i < chunks; i++) {
-                // when removing segmentation bits we only remove the start because the pdu type would be the same for each segment.
-                // Therefore we can ignore this pdu type byte as they are already put together in the ble
-                length = Math.min(buffer.length - dstOffset, mtuSize);
-                if (i == 0) {
-                    System.arraycopy(data, srcOffset, buffer, dstOffset, length);
-                    buffer[0] = (byte) (buffer[0] & GATT_SAR_UNMASK);
-                } else if (i == chunks - 1) {
-                    System.arraycopy(data, srcOffset + 1, buffer, dstOffset, length);
-                } else {
-                    length = length - 1;
-                    System.arraycopy(data, srcOffset + 1, buffer, dstOffset, length);
-                }
-                srcOffset += mtuSize;
-                dstOffset += length;
-            }
-            return buffer;
+        @Override
+        public boolean onSegment(@NonNull final byte[] buffer, final int offset, final int length) {
+            System.arraycopy(buffer, offset, mTarget, mOffset, length);
+            mOffset += mMtu;
+            return true;
         }
-        return data;
     }
 
     @Override
@@ -612,6 +934,53 @@ public class MeshManagerApi implements MeshMngrApi {
         mMeshProvisioningHandler.sendProvisioningConfirmation(authentication);
     }
 
+    @Override
+    public void setProvisioningAuthentication(@NonNull final UUID deviceUuid, @NonNull final String authentication) {
+        mMeshProvisioningHandler.sendProvisioningConfirmation(deviceUuid, authentication);
+    }
+
+    @Override
+    public void handleProvisioningNotifications(@NonNull final UUID deviceUuid, @NonNull final byte[] data) {
+        mMeshProvisioningHandler.handleNotifications(deviceUuid, data);
+    }
+
+    @Override
+    public void handleProvisioningWriteCallbacks(@NonNull final UUID deviceUuid, @NonNull final byte[] data) {
+        mMeshProvisioningHandler.handleWriteCallbacks(deviceUuid, data);
+    }
+
+    @Override
+    public boolean cancelProvisioning(@NonNull final UUID deviceUuid) {
+        final boolean linked = mRemoteProvisioningBearer.isLinked(deviceUuid);
+        final boolean cancelled = mMeshProvisioningHandler.cancel(deviceUuid);
+        // The link may still be opening, in which case there is no session yet
+        mRemoteProvisioningBearer.closeLink(deviceUuid);
+        mNodeRefreshes.remove(deviceUuid);
+        return cancelled || linked;
+    }
+
+    @Override
+    public void identifyNode(final int serverAddress, @NonNull final UUID deviceUuid, final int attentionTimer) throws IllegalArgumentException {
+        if (!MeshAddress.isValidUnicastAddress(serverAddress)) {
+            throw new IllegalArgumentException("Remote Provisioning Server address must be a unicast address");
+        }
+        mRemoteProvisioningBearer.openLink(serverAddress, deviceUuid, new RemoteProvisioningLinkOpen(deviceUuid), attentionTimer);
+    }
+
+    @Override
+    public void refreshNode(@NonNull final ProvisionedMeshNode node, final int nppiProcedure) throws IllegalArgumentException {
+        final UUID deviceUuid = UUID.fromString(MeshParserUtils.formatUuid(node.getUuid()));
+        final RemoteProvisioningLinkOpen linkOpen = new RemoteProvisioningLinkOpen(nppiProcedure);
+        mRemoteProvisioningBearer.openLink(node.getUnicastAddress(), deviceUuid, linkOpen, 0);
+        mNodeRefreshes.put(deviceUuid, new NodeRefresh(node, nppiProcedure));
+    }
+
+    @NonNull
+    @Override
+    public List<UUID> getProvisioningSessions() {
+        return mMeshProvisioningHandler.getProvisioningSessions();
+    }
+
     @NonNull
     @Override
     public UUID getDeviceUuid(@NonNull final byte[] serviceData) throws IllegalArgumentException {
@@ -792,11 +1161,23 @@ public class MeshManagerApi implements MeshMngrApi {
         //We delete the existing network as the user has already given the
         ivUpdateTestModeActive = false;
         allowIvIndexRecoveryOver42 = false;
+        mMessageCoalescer.clear();
+        mSensorPollingScheduler.clear();
+        mHandler.removeCallbacks(mSensorPollingRunnable);
+        mHeartbeatMonitor.clear();
+        mHandler.removeCallbacks(mHeartbeatRunnable);
+        mHealthPollingScheduler.clear();
+        mHealthFaultRegistry.clear();
+        mHandler.removeCallbacks(mHealthPollingRunnable);
+        mMeshMessageHandler.cancelMessageRepeats();
+        mMeshMessageHandler.clearNetworkMessageCache();
+        mTransactionIdAllocator.clear();
         final MeshNetwork meshNet = mMeshNetwork;
         deleteMeshNetworkFromDb(meshNet);
         final MeshNetwork newMeshNetwork = generateMeshNetwork();
         newMeshNetwork.setCallbacks(callbacks);
         insertNetwork(newMeshNetwork);
+        loadChangeLog(newMeshNetwork, false);
         mMeshNetwork = newMeshNetwork;
         mMeshManagerCallbacks.onNetworkLoaded(newMeshNetwork);
     }
@@ -813,6 +1194,7 @@ public class MeshManagerApi implements MeshMngrApi {
         final MeshNetwork newMeshNetwork = generateMeshNetwork();
         newMeshNetwork.setCallbacks(callbacks);
         insertNetwork(newMeshNetwork);
+        loadChangeLog(newMeshNetwork, false);
         mMeshNetwork = newMeshNetwork;
         mMeshManagerCallbacks.onNetworkLoaded(newMeshNetwork);
     }
@@ -892,6 +1274,112 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
+    @Override
+    public void createCoalescedMeshPdu(final int dst, @NonNull final TransactionalMessageFactory factory) {
+        if (!MeshAddress.isAddressInRange(dst)) {
+            throw new IllegalArgumentException("Invalid address, destination address must be a valid 16-bit value.");
+        }
+        mMessageCoalescer.submit(dst, factory);
+    }
+
+    @Override
+    public void setMessageCoalescingInterval(final long interval) {
+        mMessageCoalescer.setInterval(interval);
+    }
+
+    @Override
+    public void setUnacknowledgedMessageRepeats(final int count, final long interval, final long jitter) {
+        mMeshMessageHandler.setUnacknowledgedMessageRepeats(count, interval, jitter);
+    }
+
+    @Override
+    public void registerVendorStatusDecoder(final int companyIdentifier, final int opCode, @NonNull final VendorStatusDecoder decoder) {
+        mMeshMessageHandler.registerVendorStatusDecoder(companyIdentifier, opCode, decoder);
+    }
+
+    @Override
+    public void unregisterVendorStatusDecoder(final int companyIdentifier, final int opCode) {
+        mMeshMessageHandler.unregisterVendorStatusDecoder(companyIdentifier, opCode);
+    }
+
+    @Override
+    public void setStatusBatching(final long interval, final int capacity, @NonNull final StatusOverflowPolicy policy) {
+        mMeshMessageHandler.setStatusBatching(interval, capacity, policy);
+    }
+
+    @Override
+    public void disableStatusBatching() {
+        mMeshMessageHandler.disableStatusBatching();
+    }
+
+    @Override
+    public int getDroppedStatusCount() {
+        return mMeshMessageHandler.getDroppedStatusCount();
+    }
+
+    @Override
+    public synchronized void startPduCapture(@NonNull final File file) throws IOException {
+        final PduCaptureWriter capture = new PduCaptureWriter(file, System.nanoTime());
+        closePduCapture(mPduCapture);
+        mPduCapture = capture;
+    }
+
+    @Override
+    public synchronized void stopPduCapture() {
+        closePduCapture(mPduCapture);
+        mPduCapture = null;
+    }
+
+    private void closePduCapture(@Nullable final PduCaptureWriter capture) {
+        if (capture == null)
+            return;
+        try {
+            capture.close();
+        } catch (IOException ex) {
+            MeshLogger.error(TAG, "Unable to close the PDU capture: " + ex.getMessage());
+        }
+    }
+
+    private void capturePdu(@PduCaptureRecord.Type final int type, final int mtu, @NonNull final byte[] data) {
+        final PduCaptureWriter capture = mPduCapture;
+        if (capture == null)
+            return;
+        try {
+            capture.write(type, mtu, data, System.nanoTime());
+        } catch (IOException | IllegalArgumentException ex) {
+            MeshLogger.error(TAG, "Unable to capture PDU, stopping the capture: " + ex.getMessage());
+            synchronized (this) {
+                if (mPduCapture == capture) {
+                    stopPduCapture();
+                }
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public ProxyBearerManager getProxyBearerManager() {
+        return mProxyBearerManager;
+    }
+
+    @Override
+    public long getNetworkMessageCacheHitCount() {
+        return mMeshMessageHandler.getNetworkMessageCacheHitCount();
+    }
+
+    @Override
+    public long getNetworkMessageCacheMissCount() {
+        return mMeshMessageHandler.getNetworkMessageCacheMissCount();
+    }
+
+    @Override
+    public int nextTransactionId(final int dst) {
+        if (!MeshAddress.isAddressInRange(dst)) {
+            throw new IllegalArgumentException("Invalid address, destination address must be a valid 16-bit value.");
+        }
+        return mTransactionIdAllocator.next(dst);
+    }
+
     @Override
     public String exportMeshNetwork() {
         try {
@@ -920,11 +1408,49 @@ public class MeshManagerApi implements MeshMngrApi {
         return null;
     }
 
+    @Override
+    public void exportMeshNetwork(@NonNull final OutputStream outputStream) throws IOException {
+        mImportExportUtils.export(mMeshNetwork, false, outputStream);
+    }
+
+    @Override
+    public void exportMeshNetwork(@NonNull final NetworkKeysConfig networkKeysConfig,
+                                  @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                                  @NonNull final NodesConfig nodesConfig,
+                                  @NonNull final ProvisionersConfig provisionersConfig,
+                                  @NonNull final GroupsConfig groupsConfig,
+                                  @NonNull final ScenesConfig scenesConfig,
+                                  @NonNull final OutputStream outputStream) throws IOException {
+        mImportExportUtils.export(mMeshNetwork, networkKeysConfig, applicationKeysConfig,
+                nodesConfig, provisionersConfig, groupsConfig, scenesConfig, outputStream);
+    }
+
     @Override
     public void importMeshNetwork(@NonNull final Uri uri) {
+        InputStream inputStream = null;
+        try {
+            inputStream = mContext.getContentResolver().openInputStream(uri);
+            if (inputStream == null)
+                throw new IOException("Unable to open " + uri);
+            importMeshNetwork(inputStream);
+        } catch (Exception ex) {
+            mMeshManagerCallbacks.onNetworkImportFailed(ex.getMessage());
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ex) {
+                    MeshLogger.error(TAG, "Error while closing the network file: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void importMeshNetwork(@NonNull final InputStream inputStream) {
         try {
             isNetworkImportInProgress = true;
-            importMeshNetworkJson(mImportExportUtils.readJsonStringFromUri(mContext.getContentResolver(), uri));
+            onNetworkImported(mImportExportUtils.importNetwork(inputStream));
             isNetworkImportInProgress = false;
         } catch (Exception ex) {
             isNetworkImportInProgress = false;
@@ -936,28 +1462,7 @@ public class MeshManagerApi implements MeshMngrApi {
     public void importMeshNetworkJson(@NonNull String networkJson) {
         try {
             isNetworkImportInProgress = true;
-            final MeshNetwork importedNetwork = mImportExportUtils.importNetwork(networkJson);
-            importedNetwork.setCallbacks(callbacks);
-            final MeshNetwork network = mMeshNetworkDb.getMeshNetwork(mMeshNetworkDao, importedNetwork.getMeshUUID());
-            if (network != null) {
-                final List<ProvisionedMeshNode> nodes = mMeshNetworkDb.getNodes(mProvisionedNodesDao, importedNetwork.getMeshUUID());
-                importedNetwork.unicastAddress = network.unicastAddress;
-                for (ProvisionedMeshNode meshNode : importedNetwork.getNodes()) {
-                    for (ProvisionedMeshNode node : nodes) {
-                        if (node.getUuid().equalsIgnoreCase(meshNode.getUuid())) {
-                            meshNode.setSequenceNumber(node.getSequenceNumber());
-                        }
-                    }
-                }
-                importedNetwork.loadSequenceNumbers();
-                // Load the last known ivIndex.
-                // Note: The iv index will be updated based on the secure network beacon after connecting to a proxy.
-                importedNetwork.ivIndex = network.ivIndex;
-            }
-            mMeshNetworkDb.update(mMeshNetworkDao, importedNetwork, false);
-            insertNetwork(importedNetwork);
-            mMeshNetwork = importedNetwork;
-            mMeshManagerCallbacks.onNetworkImported(importedNetwork);
+            onNetworkImported(mImportExportUtils.importNetwork(networkJson));
             isNetworkImportInProgress = false;
         } catch (Exception ex) {
             isNetworkImportInProgress = false;
@@ -965,7 +1470,103 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
+    @Override
+    public long getNetworkRevision() {
+        return mChangeLog.getRevision();
+    }
+
+    @Nullable
+    @Override
+    public String exportMeshNetworkDelta(final long sinceRevision) {
+        final long revision = mChangeLog.getRevision();
+        return mImportExportUtils.exportDelta(mMeshNetwork, mChangeLog.getChangesSince(sinceRevision), sinceRevision, revision);
+    }
+
+    @Override
+    public void exportMeshNetworkDelta(final long sinceRevision, @NonNull final OutputStream outputStream) throws IOException {
+        final long revision = mChangeLog.getRevision();
+        mImportExportUtils.exportDelta(mMeshNetwork, mChangeLog.getChangesSince(sinceRevision), sinceRevision, revision, outputStream);
+    }
+
+    @NonNull
+    @Override
+    public List<NetworkDeltaConflict> importMeshNetworkDelta(@NonNull final String deltaJson, final long sinceRevision) {
+        return mergeDelta(mImportExportUtils.importDelta(deltaJson), sinceRevision);
+    }
+
+    @NonNull
+    @Override
+    public List<NetworkDeltaConflict> importMeshNetworkDelta(@NonNull final InputStream inputStream,
+                                                             final long sinceRevision) throws IOException {
+        return mergeDelta(mImportExportUtils.importDelta(inputStream), sinceRevision);
+    }
+
+    private List<NetworkDeltaConflict> mergeDelta(@NonNull final NetworkDelta delta, final long sinceRevision) {
+        final MeshNetwork network = mMeshNetwork;
+        final List<NetworkDeltaConflict> conflicts;
+        isDeltaImportInProgress = true;
+        try {
+            conflicts = delta.merge(network, mChangeLog, sinceRevision);
+        } finally {
+            isDeltaImportInProgress = false;
+        }
+        // Merged exclusions are not a local change
+        mChangeLog.resetExclusions(network.getNetworkExclusions());
+        MeshLogger.debug(TAG, "Merged " + delta.getChanges().size() + " changes up to revision " + delta.getToRevision() +
+                " with " + conflicts.size() + " conflicts");
+        return conflicts;
+    }
+
+    private void onNetworkImported(@NonNull final MeshNetwork importedNetwork) throws ExecutionException, InterruptedException {
+        importedNetwork.setCallbacks(callbacks);
+        final MeshNetwork network = mMeshNetworkDb.getMeshNetwork(mMeshNetworkDao, importedNetwork.getMeshUUID());
+        if (network != null) {
+            final List<ProvisionedMeshNode> nodes = mMeshNetworkDb.getNodes(mProvisionedNodesDao, importedNetwork.getMeshUUID());
+            importedNetwork.unicastAddress = network.unicastAddress;
+            for (ProvisionedMeshNode meshNode : importedNetwork.getNodes()) {
+                for (ProvisionedMeshNode node : nodes) {
+                    if (node.getUuid().equalsIgnoreCase(meshNode.getUuid())) {
+                        meshNode.setSequenceNumber(node.getSequenceNumber());
+                    }
+                }
+            }
+            importedNetwork.loadSequenceNumbers();
+            // Load the last known ivIndex.
+            // Note: The iv index will be updated based on the secure network beacon after connecting to a proxy.
+            importedNetwork.ivIndex = network.ivIndex;
+        }
+        mMeshNetworkDb.update(mMeshNetworkDao, importedNetwork, false);
+        insertNetwork(importedNetwork);
+        loadChangeLog(importedNetwork, network != null);
+        mMeshNetwork = importedNetwork;
+        mMeshManagerCallbacks.onNetworkImported(importedNetwork);
+    }
+
     @SuppressWarnings("FieldCanBeLocal")
+    private final ProxyBearerManager.Callbacks proxyBearerCallbacks = new ProxyBearerManager.Callbacks() {
+        @Override
+        public void onPduReceived(@NonNull final MeshBearer bearer, @NonNull final byte[] pdu) {
+            //Proxy filter statuses are parsed synchronously, this lets them update the filter of the bearer they were received on
+            mReceivingBearer.set(bearer);
+            try {
+                parseNotifications(pdu);
+            } finally {
+                mReceivingBearer.remove();
+            }
+        }
+
+        @Override
+        public void onBearerFailed(@NonNull final MeshBearer bearer) {
+            MeshLogger.warn(TAG, "Proxy bearer " + bearer.getIdentifier() + " failed and was removed");
+        }
+
+        @Override
+        public void onSarTimeout(@NonNull final MeshBearer bearer) {
+            MeshLogger.warn(TAG, "Proxy protocol SAR timeout expired on " + bearer.getIdentifier());
+            mMeshMessageHandler.onIncompleteTimerExpired(MeshAddress.UNASSIGNED_ADDRESS);
+        }
+    };
+
     private final InternalTransportCallbacks internalTransportCallbacks = new InternalTransportCallbacks() {
 
         @Override
@@ -985,6 +1586,9 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void sendProvisioningPdu(final UnprovisionedMeshNode meshNode, final byte[] pdu) {
+            if (mRemoteProvisioningBearer.send(meshNode.getDeviceUuid(), pdu))
+                return;
+            MeshMetrics.onPduSent(PDU_TYPE_PROVISIONING);
             final int mtu = mMeshManagerCallbacks.getMtu();
             mMeshManagerCallbacks.sendProvisioningPdu(meshNode, applySegmentation(mtu, pdu));
         }
@@ -995,33 +1599,103 @@ public class MeshManagerApi implements MeshMngrApi {
             //This will specifically save the sequence number for every message sent.
             final ProvisionedMeshNode meshNode = mMeshNetwork.getNode(dst);
             updateNetwork(meshNode);
-            final int mtu = mMeshManagerCallbacks.getMtu();
-            mMeshManagerCallbacks.onMeshPduCreated(applySegmentation(mtu, pdu));
+            MeshMetrics.onPduSent(pdu[0]);
+            if (mProxyBearerManager.hasBearers()) {
+                capturePdu(PduCaptureRecord.PDU_CREATED, 0, pdu);
+                final long start = MeshTracer.begin();
+                mProxyBearerManager.send(dst, pdu);
+                MeshTracer.end("bearer.send", dst, start);
+            } else {
+                final int mtu = mMeshManagerCallbacks.getMtu();
+                capturePdu(PduCaptureRecord.PDU_CREATED, mtu, pdu);
+                long start = MeshTracer.begin();
+                final byte[] segmentedPdu = applySegmentation(mtu, pdu);
+                MeshTracer.end("proxy.sar", dst, start);
+                start = MeshTracer.begin();
+                mMeshManagerCallbacks.onMeshPduCreated(segmentedPdu);
+                MeshTracer.end("bearer.send", dst, start);
+            }
         }
 
         @Override
         public ProxyFilter getProxyFilter() {
+            final MeshBearer bearer = mReceivingBearer.get();
+            if (bearer != null) {
+                final ProxyFilter filter = mProxyBearerManager.getProxyFilter(bearer);
+                if (filter != null)
+                    return filter;
+            }
             return mMeshNetwork.getProxyFilter();
         }
 
         @Override
         public void setProxyFilter(@NonNull final ProxyFilter filter) {
+            final MeshBearer bearer = mReceivingBearer.get();
+            if (bearer != null) {
+                mProxyBearerManager.setProxyFilter(bearer, filter);
+            }
             mMeshNetwork.setProxyFilter(filter);
         }
 
         @Override
         public void updateMeshNetwork(final MeshMessage message) {
+            storeSensorData(message);
+            storeHealthFaults(message);
+            if (message instanceof ApplicationStatusMessage) {
+                mSensorPollingScheduler.onStatusReceived(message.getSrc(), message.getOpCode(),
+                        ((ApplicationStatusMessage) message).getParameters(), SystemClock.uptimeMillis());
+            }
             final ProvisionedMeshNode meshNode = mMeshNetwork.getNode(message.getSrc());
-            updateNetwork(meshNode);
+            if (meshNode != null) {
+                updateElements(meshNode, message);
+                if (message instanceof ConfigStatusMessage) {
+                    recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(meshNode), false);
+                }
+            }
+            if (changesPersistedState(message)) {
+                updateNetwork(meshNode);
+            }
+        }
+
+        /**
+         * Returns true if a received status may have changed the persisted network. Application statuses only do so
+         * for scenes, so the network is not written for every sensor or level status received.
+         *
+         * @param message received status message
+         */
+        private boolean changesPersistedState(@NonNull final MeshMessage message) {
+            return !(message instanceof ApplicationStatusMessage) ||
+                    message instanceof SceneStatus || message instanceof SceneRegisterStatus;
         }
 
         @Override
         public void onMeshNodeReset(final ProvisionedMeshNode meshNode) {
             if (meshNode != null) {
+                for (Element element : meshNode.getElements().values()) {
+                    mSensorDataStore.remove(element.getElementAddress());
+                    mSensorPollingScheduler.remove(element.getElementAddress());
+                    mHealthPollingScheduler.remove(element.getElementAddress());
+                    mHealthFaultRegistry.remove(element.getElementAddress());
+                }
+                mHeartbeatMonitor.remove(meshNode.getUnicastAddress());
                 mMeshNetwork.deleteNode(meshNode);
             }
         }
 
+        @Override
+        public void onHeartbeatReceived(@NonNull final ControlMessage message, @NonNull final HeartbeatMessage heartbeat) {
+            final int src = message.getSrc();
+            mHeartbeatMonitor.onHeartbeatReceived(src, heartbeat.getInitTtl() & 0x7F, message.getTtl(),
+                    heartbeat.getFeatures().assembleFeatures(), getHeartbeatPeriod(mMeshNetwork.getNode(src)),
+                    SystemClock.uptimeMillis());
+            checkHeartbeats();
+        }
+
+        @Override
+        public void onRemoteProvisioningStatusReceived(@NonNull final ConfigStatusMessage status) {
+            mRemoteProvisioningBearer.onStatusReceived(status);
+        }
+
         @Override
         public MeshNetwork getMeshNetwork() {
             return mMeshNetwork;
@@ -1048,6 +1722,129 @@ public class MeshManagerApi implements MeshMngrApi {
             }
         }
 
+        /**
+         * Records the faults reported by a received health status message.
+         */
+        private void storeHealthFaults(@NonNull final MeshMessage message) {
+            final long timestamp = System.currentTimeMillis();
+            final HealthFaults faults;
+            if (message instanceof HealthCurrentStatus) {
+                final HealthCurrentStatus status = (HealthCurrentStatus) message;
+                faults = mHealthFaultRegistry.addCurrentFaults(status.getSrc(), status.getTestId(), status.getCompanyId(),
+                        status.getFaultArray(), timestamp);
+            } else if (message instanceof HealthFaultStatus) {
+                final HealthFaultStatus status = (HealthFaultStatus) message;
+                faults = mHealthFaultRegistry.addRegisteredFaults(status.getSrc(), status.getTestId(), status.getCompanyId(),
+                        status.getFaultArray(), timestamp);
+            } else {
+                return;
+            }
+            mHealthPollingScheduler.onStatusReceived(message.getSrc(), SystemClock.uptimeMillis());
+            final MeshStatusCallbacks callbacks = mMeshStatusCallbacks;
+            if (faults != null && callbacks != null) {
+                callbacks.onHealthFaultsChanged(faults);
+            }
+        }
+
+        /**
+         * Records the values reported by a received sensor status message.
+         */
+        private void storeSensorData(@NonNull final MeshMessage message) {
+            final long timestamp = System.currentTimeMillis();
+            if (message instanceof SensorStatus) {
+                synchronized (mSensorDataReader) {
+                    mSensorDataStore.add(message.getSrc(), timestamp, ((SensorStatus) message).getSensorData(mSensorDataReader));
+                }
+            } else if (message instanceof SensorColumnStatus || message instanceof SensorSeriesStatus) {
+                final byte[] parameters = ((ApplicationStatusMessage) message).getParameters();
+                if (parameters.length > 2) {
+                    final int propertyId = MeshParserUtils.unsignedBytesToInt(parameters[0], parameters[1]);
+                    mSensorDataStore.addColumns(message.getSrc(), propertyId, parameters, 2, parameters.length - 2);
+                }
+            }
+        }
+
+        /**
+         * Stores only the element and model rows changed by a received status message.
+         *
+         * @param meshNode node that sent the message
+         * @param message  received status message
+         */
+        private void updateElements(@NonNull final ProvisionedMeshNode meshNode, @NonNull final MeshMessage message) {
+            if (message instanceof ConfigCompositionDataStatus) {
+                mMeshNetworkDb.updateElements(mElementsDao, meshNode);
+            } else if (mayHaveRemovedKey(message)) {
+                // Deleting a key unbinds it from the models or clears the heartbeat publication using it
+                mMeshNetworkDb.updateElements(mElementsDao, meshNode);
+            } else if (message instanceof ConfigModelAppStatus) {
+                final ConfigModelAppStatus status = (ConfigModelAppStatus) message;
+                updateBindings(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigSigModelAppList) {
+                final ConfigSigModelAppList status = (ConfigSigModelAppList) message;
+                updateBindings(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigVendorModelAppList) {
+                final ConfigVendorModelAppList status = (ConfigVendorModelAppList) message;
+                updateBindings(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigModelSubscriptionStatus) {
+                final ConfigModelSubscriptionStatus status = (ConfigModelSubscriptionStatus) message;
+                updateSubscriptions(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigSigModelSubscriptionList) {
+                final ConfigSigModelSubscriptionList status = (ConfigSigModelSubscriptionList) message;
+                updateSubscriptions(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigVendorModelSubscriptionList) {
+                final ConfigVendorModelSubscriptionList status = (ConfigVendorModelSubscriptionList) message;
+                updateSubscriptions(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigModelPublicationStatus) {
+                final ConfigModelPublicationStatus status = (ConfigModelPublicationStatus) message;
+                updateModel(meshNode, status.getElementAddress(), status.getModelIdentifier());
+            } else if (message instanceof ConfigHeartbeatPublicationStatus || message instanceof ConfigHeartbeatSubscriptionStatus) {
+                updateModel(meshNode, message.getSrc(), SigModelParser.CONFIGURATION_SERVER);
+            } else if (message instanceof SceneStatus || message instanceof SceneRegisterStatus) {
+                updateModel(meshNode, message.getSrc(), SigModelParser.SCENE_SERVER);
+            }
+        }
+
+        /**
+         * Returns true if a successful key status may have removed a key from the node and so changed its models.
+         * The status does not tell which request it answers, so added and updated keys are stored as well.
+         *
+         * @param message received status message
+         */
+        private boolean mayHaveRemovedKey(@NonNull final MeshMessage message) {
+            if (message instanceof ConfigAppKeyStatus)
+                return ((ConfigAppKeyStatus) message).isSuccessful();
+            if (message instanceof ConfigNetKeyStatus)
+                return ((ConfigNetKeyStatus) message).isSuccessful();
+            return false;
+        }
+
+        private void updateBindings(@NonNull final ProvisionedMeshNode meshNode, final int elementAddress, final int modelId) {
+            final MeshModel model = getMeshModel(meshNode, elementAddress, modelId);
+            if (model != null) {
+                mMeshNetworkDb.updateBindings(mElementsDao, meshNode, elementAddress, model);
+            }
+        }
+
+        private void updateSubscriptions(@NonNull final ProvisionedMeshNode meshNode, final int elementAddress, final int modelId) {
+            final MeshModel model = getMeshModel(meshNode, elementAddress, modelId);
+            if (model != null) {
+                mMeshNetworkDb.updateSubscriptions(mElementsDao, meshNode, elementAddress, model);
+            }
+        }
+
+        private void updateModel(@NonNull final ProvisionedMeshNode meshNode, final int elementAddress, final int modelId) {
+            final MeshModel model = getMeshModel(meshNode, elementAddress, modelId);
+            if (model != null) {
+                mMeshNetworkDb.updateModel(mElementsDao, meshNode, elementAddress, model);
+            }
+        }
+
+        @Nullable
+        private MeshModel getMeshModel(@NonNull final ProvisionedMeshNode meshNode, final int elementAddress, final int modelId) {
+            final Element element = meshNode.getElements().get(elementAddress);
+            return element == null ? null : element.getMeshModels().get(modelId);
+        }
+
         private void updateNetwork(final ProvisionedMeshNode meshNode) {
             if (meshNode != null) {
                 for (int i = 0; i < mMeshNetwork.nodes.size(); i++) {
@@ -1080,17 +1877,35 @@ public class MeshManagerApi implements MeshMngrApi {
     private final InternalMeshManagerCallbacks internalMeshMgrCallbacks = new InternalMeshManagerCallbacks() {
         @Override
         public void onNodeProvisioned(final ProvisionedMeshNode meshNode, final int numberOfElements) {
+            final NodeRefresh refresh = mNodeRefreshes.get(UUID.fromString(meshNode.getUuid()));
+            if (refresh != null) {
+                // Applied once the link has been closed, the link is closed using the current device key
+                refresh.provisionedNode = meshNode;
+                return;
+            }
             updateProvisionedNodeList(meshNode);
             mMeshNetwork.sequenceNumbers.put(meshNode.getUnicastAddress(), meshNode.getSequenceNumber());
             mMeshNetwork.unicastAddress = mMeshNetwork.nextAvailableUnicastAddress(numberOfElements, mMeshNetwork.getSelectedProvisioner());
             //Set the mesh network uuid to the node so we can identify nodes belonging to a network
             meshNode.setMeshUuid(mMeshNetwork.getMeshUUID());
-            mMeshNetworkDb.insert(mProvisionedNodeDao, meshNode);
+            mMeshNetworkDb.insert(mProvisionedNodeDao, mElementsDao, meshNode);
             mMeshNetworkDb.update(mProvisionerDao,
                     mMeshNetwork.getSelectedProvisioner());
+            recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(meshNode), false);
+            recordChange(NetworkChangeLog.PROVISIONER, NetworkChangeLog.idOf(mMeshNetwork.getSelectedProvisioner()), false);
             mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
         }
 
+        @Override
+        public void onProvisioningSessionClosed(@NonNull final UUID deviceUuid) {
+            mRemoteProvisioningBearer.closeLink(deviceUuid);
+            mMeshNetwork.releaseUnicastAddress(deviceUuid);
+            final NodeRefresh refresh = mNodeRefreshes.remove(deviceUuid);
+            if (refresh != null && refresh.provisionedNode != null) {
+                onNodeRefreshed(refresh);
+            }
+        }
+
         private void updateProvisionedNodeList(final ProvisionedMeshNode meshNode) {
             for (int i = 0; i < mMeshNetwork.nodes.size(); i++) {
                 final ProvisionedMeshNode node = mMeshNetwork.nodes.get(i);
@@ -1213,6 +2028,7 @@ public class MeshManagerApi implements MeshMngrApi {
                 network.loadSequenceNumbers();
             }
             network.setCallbacks(callbacks);
+            loadChangeLog(network, meshNetwork != null);
             mMeshNetwork = network;
             mMeshManagerCallbacks.onNetworkLoaded(network);
         }
@@ -1230,6 +2046,7 @@ public class MeshManagerApi implements MeshMngrApi {
         // clearing the exclusion lists
         // mMeshNetwork.sequenceNumbers.delete(meshNode.getUnicastAddress());
         mMeshMessageHandler.resetState(meshNode.getUnicastAddress());
+        mMessageCoalescer.cancel(meshNode.getUnicastAddress());
         mMeshNetworkDb.deleteNode(mProvisionedNodeDao, meshNode);
         mMeshNetwork.setTimestamp(System.currentTimeMillis());
         mMeshNetworkDb.update(mMeshNetworkDao, mMeshNetwork);
@@ -1245,66 +2062,84 @@ public class MeshManagerApi implements MeshMngrApi {
             if (!isNetworkImportInProgress)
                 mMeshNetwork.setTimestamp(System.currentTimeMillis());
             mMeshNetworkDb.update(mMeshNetworkDao, mMeshNetwork);
+            if (!isNetworkImportInProgress && !isDeltaImportInProgress) {
+                final NetworkChange change = mChangeLog.recordExclusions(mMeshNetwork.getNetworkExclusions());
+                if (change != null) {
+                    mMeshNetworkDb.insert(mNetworkChangesDao, change);
+                }
+            }
             mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
         }
 
         @Override
         public void onNetworkKeyAdded(@NonNull final NetworkKey networkKey) {
             mMeshNetworkDb.insert(mNetworkKeyDao, networkKey);
+            recordChange(NetworkChangeLog.NETWORK_KEY, NetworkChangeLog.idOf(networkKey), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onNetworkKeyUpdated(@NonNull final NetworkKey networkKey) {
             mMeshNetworkDb.update(mNetworkKeyDao, networkKey);
+            recordChange(NetworkChangeLog.NETWORK_KEY, NetworkChangeLog.idOf(networkKey), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onNetworkKeyDeleted(@NonNull final NetworkKey networkKey) {
             mMeshNetworkDb.delete(mNetworkKeyDao, networkKey);
+            recordChange(NetworkChangeLog.NETWORK_KEY, NetworkChangeLog.idOf(networkKey), true);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onApplicationKeyAdded(@NonNull final ApplicationKey applicationKey) {
             mMeshNetworkDb.insert(mApplicationKeyDao, applicationKey);
+            recordChange(NetworkChangeLog.APPLICATION_KEY, NetworkChangeLog.idOf(applicationKey), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onApplicationKeyUpdated(@NonNull final ApplicationKey applicationKey) {
             mMeshNetworkDb.update(mApplicationKeyDao, applicationKey);
+            recordChange(NetworkChangeLog.APPLICATION_KEY, NetworkChangeLog.idOf(applicationKey), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onApplicationKeyDeleted(@NonNull final ApplicationKey applicationKey) {
             mMeshNetworkDb.delete(mApplicationKeyDao, applicationKey);
+            recordChange(NetworkChangeLog.APPLICATION_KEY, NetworkChangeLog.idOf(applicationKey), true);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onProvisionerAdded(@NonNull final Provisioner provisioner) {
             mMeshNetworkDb.insert(mProvisionerDao, provisioner);
+            recordChange(NetworkChangeLog.PROVISIONER, NetworkChangeLog.idOf(provisioner), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onProvisionerUpdated(@NonNull final Provisioner provisioner) {
             mMeshNetworkDb.update(mProvisionerDao, provisioner);
+            recordChange(NetworkChangeLog.PROVISIONER, NetworkChangeLog.idOf(provisioner), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onProvisionersUpdated(@NonNull final List<Provisioner> provisioners) {
             mMeshNetworkDb.update(mProvisionerDao, provisioners);
+            for (Provisioner provisioner : provisioners) {
+                recordChange(NetworkChangeLog.PROVISIONER, NetworkChangeLog.idOf(provisioner), false);
+            }
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onProvisionerDeleted(@NonNull Provisioner provisioner) {
             mMeshNetworkDb.delete(mProvisionerDao, provisioner);
+            recordChange(NetworkChangeLog.PROVISIONER, NetworkChangeLog.idOf(provisioner), true);
             // Network update is invoked independent in the case of node deletion or provisioner deletion
             // onMeshNetworkUpdated();
         }
@@ -1318,69 +2153,152 @@ public class MeshManagerApi implements MeshMngrApi {
             // clearing the exclusion lists
             // mMeshNetwork.sequenceNumbers.delete(meshNode.getUnicastAddress());
             mMeshNetworkDb.deleteNode(mProvisionedNodeDao, meshNode);
+            recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(meshNode), true);
             mMeshMessageHandler.resetState(meshNode.getUnicastAddress());
+            mMessageCoalescer.cancel(meshNode.getUnicastAddress());
             // Network update is invoked independent in the case of node deletion or provisioner deletion
             // mMeshNetworkDb.update(mMeshNetworkDao, mMeshNetwork);
         }
 
         @Override
         public void onNodeAdded(@NonNull final ProvisionedMeshNode meshNode) {
-            mMeshNetworkDb.insert(mProvisionedNodeDao, meshNode);
+            mMeshNetworkDb.insert(mProvisionedNodeDao, mElementsDao, meshNode);
+            recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(meshNode), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onNodeUpdated(@NonNull final ProvisionedMeshNode meshNode) {
-            mMeshNetworkDb.update(mProvisionedNodeDao, meshNode);
+            mMeshNetworkDb.update(mProvisionedNodeDao, mElementsDao, meshNode);
+            recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(meshNode), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onGroupAdded(@NonNull final Group group) {
             mMeshNetworkDb.insert(mGroupDao, group);
+            recordChange(NetworkChangeLog.GROUP, NetworkChangeLog.idOf(group), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onGroupUpdated(@NonNull final Group group) {
             mMeshNetworkDb.update(mGroupDao, group);
+            recordChange(NetworkChangeLog.GROUP, NetworkChangeLog.idOf(group), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onGroupDeleted(@NonNull final Group group) {
             mMeshNetworkDb.delete(mGroupDao, group);
+            recordChange(NetworkChangeLog.GROUP, NetworkChangeLog.idOf(group), true);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onSceneAdded(@NonNull final Scene scene) {
             mMeshNetworkDb.insert(mSceneDao, scene);
+            recordChange(NetworkChangeLog.SCENE, NetworkChangeLog.idOf(scene), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onSceneUpdated(@NonNull final Scene scene) {
             mMeshNetworkDb.update(mSceneDao, scene);
+            recordChange(NetworkChangeLog.SCENE, NetworkChangeLog.idOf(scene), false);
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onSceneDeleted(@NonNull final Scene scene) {
             mMeshNetworkDb.delete(mSceneDao, scene);
+            recordChange(NetworkChangeLog.SCENE, NetworkChangeLog.idOf(scene), true);
             onMeshNetworkUpdated();
         }
     };
 
+    private final RemoteProvisioningBearer.Callbacks remoteProvisioningCallbacks = new RemoteProvisioningBearer.Callbacks() {
+        @Override
+        public void sendRemoteProvisioningMessage(final int serverAddress, @NonNull final MeshMessage message) {
+            createMeshPdu(serverAddress, message);
+        }
+
+        @Override
+        public void onLinkOpened(@NonNull final UUID deviceUuid, final int attentionTimer) {
+            identifyNode(deviceUuid, attentionTimer);
+        }
+
+        @Override
+        public void onLinkClosed(@NonNull final UUID deviceUuid, final int statusCode) {
+            MeshLogger.debug(TAG, "Remote provisioning link to " + deviceUuid + " closed: " +
+                    RemoteProvisioningStatusMessage.getRemoteProvisioningStatusName(statusCode));
+            mMeshProvisioningHandler.onBearerClosed(deviceUuid);
+            mNodeRefreshes.remove(deviceUuid);
+        }
+
+        @Override
+        public void onProvisioningPduReceived(@NonNull final UUID deviceUuid, @NonNull final byte[] pdu) {
+            mMeshProvisioningHandler.parseProvisioningNotifications(deviceUuid, pdu);
+        }
+
+        @Override
+        public void onProvisioningPduSent(@NonNull final UUID deviceUuid) {
+            mMeshProvisioningHandler.handleProvisioningWriteCallbacks(deviceUuid);
+        }
+    };
+
+    /**
+     * Node Provisioning Protocol Interface procedure in progress.
+     */
+    private static final class NodeRefresh {
+        final ProvisionedMeshNode node;
+        final int procedure;
+        // Node as provisioned by the procedure, once completed
+        ProvisionedMeshNode provisionedNode;
+
+        NodeRefresh(@NonNull final ProvisionedMeshNode node, final int procedure) {
+            this.node = node;
+            this.procedure = procedure;
+        }
+    }
+
+    /**
+     * Applies the result of a completed Node Provisioning Protocol Interface procedure to the node.
+     * The composition data must be read again after a node address or composition refresh.
+     */
+    private void onNodeRefreshed(@NonNull final NodeRefresh refresh) {
+        final ProvisionedMeshNode node = refresh.node;
+        final ProvisionedMeshNode provisionedNode = refresh.provisionedNode;
+        node.setDeviceKey(provisionedNode.getDeviceKey());
+        if (refresh.procedure != RemoteProvisioningLinkOpen.NPPI_DEVICE_KEY_REFRESH) {
+            if (refresh.procedure == RemoteProvisioningLinkOpen.NPPI_NODE_ADDRESS_REFRESH) {
+                node.setUnicastAddress(provisionedNode.getUnicastAddress());
+                mMeshNetwork.sequenceNumbers.put(node.getUnicastAddress(), node.getSequenceNumber());
+            }
+            // Placeholder elements occupying the addresses until the composition data has been read
+            node.setElements(provisionedNode.getElements());
+            mMeshNetwork.unicastAddress = mMeshNetwork.nextAvailableUnicastAddress(1, mMeshNetwork.getSelectedProvisioner());
+        }
+        mMeshNetworkDb.update(mProvisionedNodeDao, mElementsDao, node);
+        recordChange(NetworkChangeLog.NODE, NetworkChangeLog.idOf(node), false);
+        mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
+    }
+
     private boolean isAddressValid(@NonNull final UnprovisionedMeshNode node) {
-        final int unicast = mMeshNetwork.nextAvailableUnicastAddress(node.getNumberOfElements(), mMeshNetwork.getSelectedProvisioner());
-        if (!MeshAddress.isValidUnicastAddress(unicast)) {
-            throw new IllegalArgumentException("Invalid address");
+        final NodeRefresh refresh = mNodeRefreshes.get(node.getDeviceUuid());
+        if (refresh != null && refresh.procedure != RemoteProvisioningLinkOpen.NPPI_NODE_ADDRESS_REFRESH) {
+            // The node keeps its address
+            node.setUnicastAddress(refresh.node.getUnicastAddress());
+            return true;
         }
-        if (!mMeshNetwork.getSelectedProvisioner().isAddressWithinAllocatedRange(mMeshNetwork.getUnicastAddress())) {
+        final Provisioner provisioner = mMeshNetwork.getSelectedProvisioner();
+        if (!provisioner.isAddressWithinAllocatedRange(mMeshNetwork.getUnicastAddress())) {
             throw new IllegalArgumentException("Address assigned to node is outside of provisioner's allocated unicast range.");
         }
-        node.setUnicastAddress(mMeshNetwork.getUnicastAddress());
+        // Reserved atomically, devices provisioned at the same time must not be assigned the same address
+        final int unicast = mMeshNetwork.reserveUnicastAddress(node.getDeviceUuid(), mMeshNetwork.getUnicastAddress(),
+                node.getNumberOfElements(), provisioner);
+        node.setUnicastAddress(unicast);
         return true;
     }
 }
\ No newline at end of file
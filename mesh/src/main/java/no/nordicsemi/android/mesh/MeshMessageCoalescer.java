@@ -0,0 +1,189 @@
+package no.nordicsemi.android.mesh;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.TransactionIdAllocator;
+
+/**
+ * Coalesces messages sent by continuous controls such as dimming sliders.
+ * <p>
+ * Only the latest pending value per destination and op code is kept, and messages are sent to each destination no
+ * faster than the configured interval. Superseded values are dropped before a sequence number is allocated, the
+ * message is encrypted or the network is persisted.
+ * </p>
+ * <p>
+ * Messages are always sent from the handler, never from the thread submitting them. A destination is kept for one
+ * interval after its last message was sent so that the next message is delayed accordingly, and is dropped afterwards.
+ * </p>
+ */
+final class MeshMessageCoalescer {
+
+    private static final String TAG = MeshMessageCoalescer.class.getSimpleName();
+    static final long DEFAULT_INTERVAL = 100; // Ten messages per second per destination
+
+    private final Handler mHandler;
+    private final MeshMngrApi mMeshManagerApi;
+    private final TransactionIdAllocator mTransactionIdAllocator;
+    private final Map<Integer, Destination> mDestinations = new HashMap<>();
+    private long mInterval = DEFAULT_INTERVAL;
+    private int mSupersededCount;
+
+    /**
+     * Constructs the MeshMessageCoalescer
+     *
+     * @param handler                Handler used to schedule the transmissions.
+     * @param meshManagerApi         Api used to create the mesh pdus.
+     * @param transactionIdAllocator Allocates the transaction identifiers for the messages sent.
+     */
+    MeshMessageCoalescer(@NonNull final Handler handler,
+                         @NonNull final MeshMngrApi meshManagerApi,
+                         @NonNull final TransactionIdAllocator transactionIdAllocator) {
+        this.mHandler = handler;
+        this.mMeshManagerApi = meshManagerApi;
+        this.mTransactionIdAllocator = transactionIdAllocator;
+    }
+
+    /**
+     * Sets the minimum interval between two messages sent to the same destination.
+     *
+     * @param interval Interval in milliseconds.
+     * @throws IllegalArgumentException if the interval is negative.
+     */
+    synchronized void setInterval(final long interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("Coalescing interval cannot be negative");
+        mInterval = interval;
+    }
+
+    /**
+     * Returns the minimum interval between two messages sent to the same destination in milliseconds.
+     */
+    synchronized long getInterval() {
+        return mInterval;
+    }
+
+    /**
+     * Returns the number of values that were superseded by a newer value before being sent.
+     */
+    synchronized int getSupersededCount() {
+        return mSupersededCount;
+    }
+
+    /**
+     * Queues a message to be sent to a destination.
+     * <p>
+     * If a message with the same op code is already pending for the destination it is replaced by this one.
+     * </p>
+     *
+     * @param dst     Destination address.
+     * @param factory Factory creating the message once it is sent.
+     */
+    synchronized void submit(final int dst, @NonNull final TransactionalMessageFactory factory) {
+        Destination destination = mDestinations.get(dst);
+        if (destination == null) {
+            destination = new Destination(dst);
+            mDestinations.put(dst, destination);
+        }
+        destination.enqueue(factory);
+        if (!destination.scheduled) {
+            // Nothing was sent to the destination within the last interval
+            destination.schedule(0);
+        }
+    }
+
+    /**
+     * Drops the pending messages of a given destination.
+     *
+     * @param dst Destination address.
+     */
+    synchronized void cancel(final int dst) {
+        final Destination destination = mDestinations.remove(dst);
+        if (destination != null) {
+            mHandler.removeCallbacks(destination);
+        }
+    }
+
+    /**
+     * Drops all pending messages.
+     */
+    synchronized void clear() {
+        for (Destination destination : mDestinations.values()) {
+            mHandler.removeCallbacks(destination);
+        }
+        mDestinations.clear();
+    }
+
+    /**
+     * Returns the number of destinations that have pending messages or were sent a message within the last interval.
+     */
+    synchronized int getDestinationCount() {
+        return mDestinations.size();
+    }
+
+    private void send(final int address, @NonNull final TransactionalMessageFactory factory) {
+        try {
+            final MeshMessage message = factory.createMessage(mTransactionIdAllocator.next(address));
+            mMeshManagerApi.createMeshPdu(address, message);
+        } catch (IllegalArgumentException ex) {
+            MeshLogger.error(TAG, "Unable to send coalesced message to " +
+                    MeshAddress.formatAddress(address, true) + ": " + ex.getMessage());
+        }
+    }
+
+    private final class Destination implements Runnable {
+
+        private final int address;
+        private final List<TransactionalMessageFactory> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        Destination(final int address) {
+            this.address = address;
+        }
+
+        /**
+         * Adds a pending message, replacing a pending message with the same op code while keeping its place in the queue.
+         */
+        void enqueue(@NonNull final TransactionalMessageFactory factory) {
+            for (int i = 0; i < pending.size(); i++) {
+                if (pending.get(i).getOpCode() == factory.getOpCode()) {
+                    pending.set(i, factory);
+                    mSupersededCount++;
+                    return;
+                }
+            }
+            pending.add(factory);
+        }
+
+        void schedule(final long delay) {
+            scheduled = true;
+            mHandler.postDelayed(this, delay);
+        }
+
+        @Override
+        public void run() {
+            final TransactionalMessageFactory factory;
+            synchronized (MeshMessageCoalescer.this) {
+                scheduled = false;
+                if (pending.isEmpty()) {
+                    // The interval since the last message has passed, the destination is no longer rate limited
+                    if (mDestinations.get(address) == this) {
+                        mDestinations.remove(address);
+                    }
+                    return;
+                }
+                factory = pending.remove(0);
+                schedule(mInterval);
+            }
+            send(address, factory);
+        }
+    }
+}
@@ -2,13 +2,22 @@ package no.nordicsemi.android.mesh;
 
 import android.net.Uri;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.bearer.ProxyBearerManager;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.sensorutils.SensorDataStore;
 import no.nordicsemi.android.mesh.transport.MeshMessage;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.StatusOverflowPolicy;
+import no.nordicsemi.android.mesh.transport.VendorStatusDecoder;
 import no.nordicsemi.android.mesh.utils.InputOOBAction;
 import no.nordicsemi.android.mesh.utils.OutputOOBAction;
 
@@ -78,6 +87,40 @@ interface MeshMngrApi {
      */
     void identifyNode(@NonNull final UUID deviceUUID, final int attentionTimer) throws IllegalArgumentException;
 
+    /**
+     * Identifies a node that is to be provisioned through a Remote Provisioning Server (PB-Remote).
+     * <p>
+     * This method opens a link from the Remote Provisioning Server to the unprovisioned device, which may be found using
+     * {@link no.nordicsemi.android.mesh.transport.RemoteProvisioningScanStart}. Once the link has been opened the
+     * provisioning invite is sent to the device and provisioning continues as with {@link #identifyNode(UUID, int)}, with
+     * the provisioning pdus carried over the mesh network instead of {@link MeshManagerCallbacks#sendProvisioningPdu(UnprovisionedMeshNode, byte[])}.
+     * The link is closed when provisioning ends, or using {@link #cancelProvisioning(UUID)}.
+     * </p>
+     *
+     * @param serverAddress  Unicast address of the Remote Provisioning Server
+     * @param deviceUuid     Device uuid of the unprovisioned mesh node
+     * @param attentionTimer Attention timer in seconds
+     * @throws IllegalArgumentException if the server already has a link open or the address is not a unicast address
+     */
+    void identifyNode(final int serverAddress, @NonNull final UUID deviceUuid, final int attentionTimer) throws IllegalArgumentException;
+
+    /**
+     * Runs a Node Provisioning Protocol Interface (NPPI) procedure on a node hosting a Remote Provisioning Server.
+     * <p>
+     * The node is provisioned again over a link to itself, without being reset. Once the link has been opened the node
+     * is identified, and provisioning continues by calling one of the startProvisioning methods with the
+     * {@link UnprovisionedMeshNode} received in the provisioning callbacks. The new device key is applied to the node
+     * after the link has been closed. After a node address or composition refresh the composition data must be read again.
+     * </p>
+     *
+     * @param node          Node to be refreshed
+     * @param nppiProcedure One of {@link no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen#NPPI_DEVICE_KEY_REFRESH},
+     *                      {@link no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen#NPPI_NODE_ADDRESS_REFRESH} or
+     *                      {@link no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen#NPPI_NODE_COMPOSITION_REFRESH}
+     * @throws IllegalArgumentException if the procedure is unknown or the node already has a link open
+     */
+    void refreshNode(@NonNull final ProvisionedMeshNode node, final int nppiProcedure) throws IllegalArgumentException;
+
     /**
      * Starts provisioning an unprovisioned mesh node
      * <p>
@@ -127,6 +170,204 @@ interface MeshMngrApi {
      */
     void setProvisioningAuthentication(@NonNull final String authentication);
 
+    /**
+     * Set the provisioning confirmation of a device that is provisioned at the same time as other devices
+     *
+     * @param deviceUuid     device UUID of the device being provisioned
+     * @param authentication confirmation pin
+     * @throws IllegalArgumentException if the device is not being provisioned
+     */
+    void setProvisioningAuthentication(@NonNull final UUID deviceUuid, @NonNull final String authentication) throws IllegalArgumentException;
+
+    /**
+     * Handles provisioning notifications received from a device over its own bearer.
+     * <p>
+     * Devices may be provisioned at the same time, each over its own connection. Each device is provisioned independently
+     * of the others after it has been identified using {@link #identifyNode(UUID, int)}, the provisioning pdus sent to
+     * the device are delivered through {@link MeshManagerCallbacks#sendProvisioningPdu(UnprovisionedMeshNode, byte[])}
+     * with the device as the node.
+     * </p>
+     *
+     * @param deviceUuid device UUID of the device being provisioned
+     * @param data       data received from the device
+     * @throws IllegalArgumentException if the device is not being provisioned
+     */
+    void handleProvisioningNotifications(@NonNull final UUID deviceUuid, @NonNull final byte[] data) throws IllegalArgumentException;
+
+    /**
+     * Handles the write callbacks of provisioning pdus written to a device over its own bearer.
+     *
+     * @param deviceUuid device UUID of the device being provisioned
+     * @param data       data written to the device
+     * @throws IllegalArgumentException if the device is not being provisioned
+     */
+    void handleProvisioningWriteCallbacks(@NonNull final UUID deviceUuid, @NonNull final byte[] data) throws IllegalArgumentException;
+
+    /**
+     * Cancels provisioning a device and releases the unicast address reserved for it.
+     *
+     * @param deviceUuid device UUID of the device being provisioned
+     * @return true if the device was being provisioned
+     */
+    boolean cancelProvisioning(@NonNull final UUID deviceUuid);
+
+    /**
+     * Returns the device UUIDs of the devices currently being provisioned.
+     */
+    @NonNull
+    List<UUID> getProvisioningSessions();
+
+    /**
+     * Sets the number of provisioner key pairs generated in the background ahead of provisioning.
+     * <p>
+     * Generating the key pair for the public key exchange takes a considerable amount of time on slower devices.
+     * Key pairs are generated ahead of time and each is used for a single device only. Increase the size when
+     * provisioning several devices in a row. Defaults to 1.
+     * </p>
+     *
+     * @param size number of key pairs, 0 to generate the key pair when provisioning a device
+     * @throws IllegalArgumentException if the size is negative
+     */
+    void setProvisioningKeyPairPoolSize(final int size);
+
+    /**
+     * Returns the store of received sensor values.
+     * <p>
+     * The values of Sensor Status messages are added as they are received, keyed by the address of the element
+     * that sent them and the property id. The columns of Sensor Column Status and Sensor Series Status messages are
+     * kept as well. The values of a node are removed when the node is reset.
+     * </p>
+     */
+    @NonNull
+    SensorDataStore getSensorDataStore();
+
+    /**
+     * Starts polling a Sensor Server.
+     * <p>
+     * The descriptors and cadences of the sensor are read first. The sensor is then polled with Sensor Get messages at
+     * an interval that grows while the values are stable and shrinks when they change by more than the Status Trigger
+     * Delta of the sensor. A Sensor Server that publishes periodically is only polled if its publications stop
+     * arriving. The requests of all sensors are spread over time within the budget set using
+     * {@link #setSensorPollingBudget(int)} and are sent through the same queue as coalesced messages. The values
+     * received are added to the {@link #getSensorDataStore()}.
+     * </p>
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     * @param appKey         application key bound to the Sensor Server
+     * @throws IllegalArgumentException if the element does not contain a Sensor Server
+     */
+    void startSensorPolling(final int elementAddress, @NonNull final ApplicationKey appKey) throws IllegalArgumentException;
+
+    /**
+     * Stops polling a Sensor Server.
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     */
+    void stopSensorPolling(final int elementAddress);
+
+    /**
+     * Sets the interval Sensor Servers are polled at and the maximum interval the polling of stable values is
+     * stretched to.
+     *
+     * @param interval    interval in milliseconds, at least 5 seconds, defaults to 1 minute
+     * @param maxInterval maximum interval in milliseconds, defaults to 10 minutes
+     * @throws IllegalArgumentException if the interval is shorter than 5 seconds or longer than the maximum interval
+     */
+    void setSensorPollingIntervals(final long interval, final long maxInterval) throws IllegalArgumentException;
+
+    /**
+     * Sets the number of messages per minute that may be sent to poll Sensor Servers.
+     *
+     * @param messagesPerMinute number of messages per minute, defaults to 60
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    void setSensorPollingBudget(final int messagesPerMinute) throws IllegalArgumentException;
+
+    /**
+     * Returns the monitor of the Heartbeat messages received.
+     * <p>
+     * The last heartbeat, hops and features of every node that sent one are kept. Heartbeats are expected from the
+     * nodes configured using {@link #configureHeartbeatPublications} and from the nodes whose Heartbeat Publication is
+     * known to the network, {@link MeshStatusCallbacks#onHeartbeatsMissed(int, int)} is invoked when they stop
+     * arriving. A node is removed from the monitor when it is reset.
+     * </p>
+     */
+    @NonNull
+    HeartbeatMonitor getHeartbeatMonitor();
+
+    /**
+     * Configures the nodes of a fleet to publish heartbeats to the provisioner, and starts monitoring them.
+     * <p>
+     * A Config Heartbeat Publication Set message is queued for every node, except the provisioner itself, through the
+     * same queue as coalesced messages, so a fleet is configured without bursts. The heartbeats are published
+     * indefinitely. Nodes that do not respond are reported missing once the first period has elapsed.
+     * </p>
+     *
+     * @param nodes       nodes to be configured
+     * @param periodLog   heartbeat period log, the period being 2^(periodLog - 1) seconds, from 0x01 to 0x10
+     * @param ttl         TTL the heartbeats are sent with, from 0x00 to 0x7F
+     * @param features    features that trigger a heartbeat when they change
+     * @param netKeyIndex index of the network key the heartbeats are sent with
+     * @return the number of nodes configured
+     * @throws IllegalArgumentException if the parameters are out of range or the provisioner has no address
+     */
+    int configureHeartbeatPublications(@NonNull final List<ProvisionedMeshNode> nodes, final int periodLog, final int ttl,
+                                       @NonNull final Features features, final int netKeyIndex) throws IllegalArgumentException;
+
+    /**
+     * Disables the Heartbeat Publication of the nodes of a fleet, and stops monitoring them.
+     *
+     * @param nodes nodes to be configured
+     */
+    void stopHeartbeatPublications(@NonNull final List<ProvisionedMeshNode> nodes);
+
+    /**
+     * Returns the registry of the faults reported by Health Servers.
+     * <p>
+     * The faults of every Health Current Status and Health Fault Status received are added, whether or not the node
+     * is monitored using {@link #startHealthMonitoring}. Reports that repeat the previous one are counted but do not
+     * invoke {@link MeshStatusCallbacks#onHealthFaultsChanged(HealthFaults)}. The faults of a node are removed when it
+     * is reset.
+     * </p>
+     */
+    @NonNull
+    HealthFaultRegistry getHealthFaultRegistry();
+
+    /**
+     * Starts monitoring the Health Servers of a fleet.
+     * <p>
+     * A Health Period Set message is queued for every Health Server, through the same queue as coalesced messages, so
+     * that a Health Server publishing periodically publishes faster while it has faults. Health Servers whose
+     * publication is not known to be periodic are polled with Health Fault Get messages, for the company identifier of
+     * their node, at the interval set using {@link #setHealthPollingInterval(long)}. Polls are spread over time and
+     * share the transmit queue. The Health Servers must be bound to the application key.
+     * </p>
+     *
+     * @param nodes             nodes to be monitored
+     * @param appKey            application key bound to the Health Servers
+     * @param fastPeriodDivisor fast period divisor, the publish period being divided by 2^fastPeriodDivisor while
+     *                          faults are present, from 0 to 15
+     * @return the number of Health Servers monitored
+     * @throws IllegalArgumentException if the fast period divisor is out of range
+     */
+    int startHealthMonitoring(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ApplicationKey appKey,
+                              final int fastPeriodDivisor) throws IllegalArgumentException;
+
+    /**
+     * Stops polling the Health Servers of a fleet.
+     *
+     * @param nodes nodes to stop monitoring
+     */
+    void stopHealthMonitoring(@NonNull final List<ProvisionedMeshNode> nodes);
+
+    /**
+     * Sets the interval Health Servers that do not publish periodically are polled at.
+     *
+     * @param interval interval in milliseconds, at least 30 seconds, defaults to 5 minutes
+     * @throws IllegalArgumentException if the interval is shorter than 30 seconds
+     */
+    void setHealthPollingInterval(final long interval) throws IllegalArgumentException;
+
     /**
      * Returns the device uuid of an unprovisioned node
      *
@@ -219,6 +460,144 @@ interface MeshMngrApi {
      */
     void createMeshPdu(final int dst, @NonNull final MeshMessage meshMessage) throws IllegalArgumentException;
 
+    /**
+     * Sends a message created by a continuous control such as a dimming slider.
+     * <p>
+     * Only the latest pending value per destination and op code is kept and messages are sent to a destination no
+     * faster than the interval set using {@link #setMessageCoalescingInterval(long)}. Each value that is sent gets a
+     * new Transaction Identifier. Superseded values are dropped before they are encrypted.
+     * </p>
+     *
+     * @param dst     destination address
+     * @param factory {@link TransactionalMessageFactory} creating the message once it is sent
+     */
+    void createCoalescedMeshPdu(final int dst, @NonNull final TransactionalMessageFactory factory) throws IllegalArgumentException;
+
+    /**
+     * Sets the minimum interval between two coalesced messages sent to the same destination.
+     *
+     * @param interval interval in milliseconds, defaults to 100 ms
+     */
+    void setMessageCoalescingInterval(final long interval) throws IllegalArgumentException;
+
+    /**
+     * Enables repeated transmissions of unacknowledged application messages such as
+     * {@link no.nordicsemi.android.mesh.transport.GenericOnOffSetUnacknowledged}.
+     * <p>
+     * Each repeat contains the same access payload, including the Transaction Identifier, and is encrypted with a new
+     * sequence number. Pending repeats are cancelled as soon as another message is sent to the same destination.
+     * </p>
+     *
+     * @param count    number of repeats sent after the original message, 0 disables repeats (default)
+     * @param interval interval between two transmissions in milliseconds
+     * @param jitter   maximum random delay in milliseconds added to each interval
+     */
+    void setUnacknowledgedMessageRepeats(final int count, final long interval, final long jitter) throws IllegalArgumentException;
+
+    /**
+     * Registers a decoder for the messages of a vendor model.
+     * <p>
+     * Received messages with the given company identifier and opcode are decoded by the decoder and delivered to
+     * {@link MeshStatusCallbacks#onMeshMessageReceived(int, MeshMessage)}, whether or not they are a response to a
+     * message sent by the library. Messages without a registered decoder are only decoded as a
+     * {@link no.nordicsemi.android.mesh.transport.VendorModelMessageStatus} in response to a vendor model message.
+     * </p>
+     *
+     * @param companyIdentifier 16-bit company identifier
+     * @param opCode            6-bit vendor opcode, without the two most significant bits of the first octet
+     * @param decoder           {@link VendorStatusDecoder} decoder
+     */
+    void registerVendorStatusDecoder(final int companyIdentifier, final int opCode, @NonNull final VendorStatusDecoder decoder) throws IllegalArgumentException;
+
+    /**
+     * Removes the decoder registered for the messages of a vendor model.
+     *
+     * @param companyIdentifier 16-bit company identifier
+     * @param opCode            6-bit vendor opcode
+     */
+    void unregisterVendorStatusDecoder(final int companyIdentifier, final int opCode) throws IllegalArgumentException;
+
+    /**
+     * Enables batched delivery of application status messages that do not change the persisted network, such as
+     * sensor, generic level and health statuses published at a high rate.
+     * <p>
+     * Received statuses are queued, decoded on a worker thread and delivered through
+     * {@link MeshStatusCallbacks#onMeshMessagesReceived(List)} at most once per interval. When more statuses than the
+     * capacity are received within an interval, statuses are dropped according to the policy. Configuration statuses
+     * are always delivered immediately.
+     * </p>
+     *
+     * @param interval minimum interval between two batches in milliseconds
+     * @param capacity maximum number of statuses queued between two batches
+     * @param policy   {@link StatusOverflowPolicy} applied when the queue is full
+     */
+    void setStatusBatching(final long interval, final int capacity, @NonNull final StatusOverflowPolicy policy) throws IllegalArgumentException;
+
+    /**
+     * Disables batched delivery of status messages, which is the default. Statuses already queued are still delivered.
+     */
+    void disableStatusBatching();
+
+    /**
+     * Returns the number of status messages dropped because more statuses than the batch capacity were received
+     * within a batch interval.
+     */
+    int getDroppedStatusCount();
+
+    /**
+     * Starts recording the data passed to {@link #handleNotifications(int, byte[])} and
+     * {@link #handleWriteCallbacks(int, byte[])} and the mesh PDUs created by the library to a capture file, replacing
+     * any capture in progress.
+     * <p>
+     * The capture can be read using {@link no.nordicsemi.android.mesh.capture.PduCaptureReader} or fed back through
+     * another instance using {@link no.nordicsemi.android.mesh.capture.PduReplayer}. Note that the captured PDUs
+     * remain encrypted, but the file must still be handled with the same care as the network keys.
+     * </p>
+     *
+     * @param file capture file, replaced if it exists
+     * @throws IOException if the file could not be created
+     */
+    void startPduCapture(@NonNull final File file) throws IOException;
+
+    /**
+     * Stops recording PDUs and closes the capture file.
+     */
+    void stopPduCapture();
+
+    /**
+     * Allocates a new Transaction Identifier for a message sent to the given destination.
+     * <p>
+     * Use a new identifier for every new value and the same identifier when re-sending the same value.
+     * </p>
+     *
+     * @param dst destination address
+     * @return transaction identifier ranging from 0x00 to 0xFF
+     */
+    int nextTransactionId(final int dst) throws IllegalArgumentException;
+
+    /**
+     * Returns the manager of the proxy connections.
+     * <p>
+     * Once a {@link no.nordicsemi.android.mesh.bearer.MeshBearer} is registered with the manager, mesh pdus are sent
+     * through the registered bearers instead of {@link MeshManagerCallbacks#onMeshPduCreated(byte[])}, and data
+     * received from the bearers must be passed to {@link ProxyBearerManager#onDataReceived} instead of
+     * {@link #handleNotifications(int, byte[])}.
+     * </p>
+     */
+    @NonNull
+    ProxyBearerManager getProxyBearerManager();
+
+    /**
+     * Returns the number of received network pdus that were dropped as duplicates by the network message cache
+     * before being decrypted.
+     */
+    long getNetworkMessageCacheHitCount();
+
+    /**
+     * Returns the number of received network pdus that were not found in the network message cache.
+     */
+    long getNetworkMessageCacheMissCount();
+
     /**
      * Loads the mesh network from the local database.
      * <p>
@@ -228,6 +607,48 @@ interface MeshMngrApi {
      */
     void loadMeshNetwork();
 
+    /**
+     * Enables or disables the binary snapshot of the mesh network.
+     * <p>
+     * When enabled, the library keeps a compact binary copy of the last selected network next to the database and
+     * loads it instead of querying every table of the database, which shortens the startup time of large networks.
+     * The network is loaded from the database if the snapshot is missing or outdated. Call this before
+     * {@link #loadMeshNetwork()}. The snapshot is disabled by default.
+     * </p>
+     *
+     * @param enabled true to enable the snapshot or false otherwise
+     */
+    void setNetworkSnapshotEnabled(final boolean enabled);
+
+    /**
+     * Sets the maximum number of nodes kept in memory with their elements and models.
+     * <p>
+     * When greater than 0, the nodes of the network are loaded as a summary and the elements and models of a node are
+     * loaded from the database the first time they are accessed, e.g. through {@link ProvisionedMeshNode#getElements()}.
+     * Once more nodes have been loaded, the elements of the least recently used nodes are released and loaded again on
+     * their next access. Call this before {@link #loadMeshNetwork()}. Defaults to 0, loading all elements upfront.
+     * </p>
+     *
+     * @param maxNodes maximum number of nodes kept with their elements in memory or 0 to load all elements upfront
+     * @throws IllegalArgumentException if the maximum number of nodes is negative
+     */
+    void setNodeElementCacheSize(final int maxNodes);
+
+    /**
+     * Loads the elements and models of the given nodes in the background, e.g. the nodes about to be displayed,
+     * when the network has been loaded with a node element cache.
+     *
+     * @param nodes nodes in the order they are likely to be accessed
+     */
+    void prefetchNodeElements(@NonNull final List<ProvisionedMeshNode> nodes);
+
+    /**
+     * Returns the metrics of the queue of pending database writes, e.g. to detect that the network is changed faster
+     * than it can be stored.
+     */
+    @NonNull
+    DatabaseWriteMetrics getDatabaseWriteMetrics();
+
     /**
      * Returns an already loaded mesh network, make sure to call {@link #loadMeshNetwork()} before calling this
      *
@@ -294,6 +715,35 @@ interface MeshMngrApi {
                              @NonNull final GroupsConfig groupsConfig,
                              @NonNull final ScenesConfig scenesConfig);
 
+    /**
+     * Exports the full mesh network as json to a stream, without holding the json document in memory.
+     *
+     * @param outputStream stream the json is written to, the caller is responsible for closing it.
+     * @throws IOException in case of failure writing to the stream.
+     */
+    void exportMeshNetwork(@NonNull final OutputStream outputStream) throws IOException;
+
+    /**
+     * Exports a partial mesh network as json to a stream with the provided export configuration, without holding
+     * the json document or a copy of the network in memory.
+     *
+     * @param networkKeysConfig     Export configuration for Network Keys.
+     * @param applicationKeysConfig Export configuration for Application Keys.
+     * @param nodesConfig           Export configuration for Nodes.
+     * @param provisionersConfig    Export configuration for Provisioners.
+     * @param groupsConfig          Export configuration for Groups.
+     * @param scenesConfig          Export configuration for scenes.
+     * @param outputStream          stream the json is written to, the caller is responsible for closing it.
+     * @throws IOException in case of failure writing to the stream.
+     */
+    void exportMeshNetwork(@NonNull final NetworkKeysConfig networkKeysConfig,
+                           @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                           @NonNull final NodesConfig nodesConfig,
+                           @NonNull final ProvisionersConfig provisionersConfig,
+                           @NonNull final GroupsConfig groupsConfig,
+                           @NonNull final ScenesConfig scenesConfig,
+                           @NonNull final OutputStream outputStream) throws IOException;
+
     /**
      * Starts an asynchronous task that imports a network from the mesh configuration db json
      *
@@ -301,6 +751,15 @@ interface MeshMngrApi {
      */
     void importMeshNetwork(@NonNull final Uri uri);
 
+    /**
+     * Imports a network from a stream containing the mesh configuration db json. The json is read as it is parsed,
+     * so the whole document is never held in memory.
+     *
+     * @param inputStream stream containing the mesh configuration database json, the caller is responsible for
+     *                    closing it.
+     */
+    void importMeshNetwork(@NonNull final InputStream inputStream);
+
     /**
      * Starts an asynchronous task that imports a network from the mesh configuration db json
      *
@@ -308,6 +767,64 @@ interface MeshMngrApi {
      */
     void importMeshNetworkJson(@NonNull final String networkJson);
 
+    /**
+     * Returns the revision of the current network, which is incremented on every change of a key, provisioner, node,
+     * group, scene or the exclusion list. Provisioners syncing their networks keep the revision of the last sync to
+     * export and import only the changes made since.
+     */
+    long getNetworkRevision();
+
+    /**
+     * Exports the changes made to the network after the given revision.
+     * <p>
+     * The delta contains only the changed keys, provisioners, nodes, groups, scenes and exclusion list, and the ids
+     * of the deleted ones, to be imported by another provisioner using {@link #importMeshNetworkDelta(String, long)}.
+     * </p>
+     *
+     * @param sinceRevision revision of the last sync, 0 to export all changes.
+     * @return the delta json or null if the export failed.
+     */
+    @Nullable
+    String exportMeshNetworkDelta(final long sinceRevision);
+
+    /**
+     * Exports the changes made to the network after the given revision to a stream.
+     *
+     * @param sinceRevision revision of the last sync, 0 to export all changes.
+     * @param outputStream  stream the json is written to, the caller is responsible for closing it.
+     * @throws IOException in case of failure writing to the stream.
+     */
+    void exportMeshNetworkDelta(final long sinceRevision, @NonNull final OutputStream outputStream) throws IOException;
+
+    /**
+     * Merges the changes exported by another provisioner in to the current network.
+     * <p>
+     * A change conflicts if the same entity was also changed locally after the given revision to a different result.
+     * Conflicting changes are not applied and are returned, leaving the local entities unchanged. Changes merged from a
+     * delta are not recorded as local changes, so they are not exported back to the provisioner they came from.
+     * </p>
+     *
+     * @param deltaJson     delta exported using {@link #exportMeshNetworkDelta(long)}.
+     * @param sinceRevision local revision at the last sync with the provisioner that exported the delta.
+     * @return the conflicting changes, empty if all changes were applied.
+     * @throws com.google.gson.JsonSyntaxException if the json is not a valid delta.
+     * @throws IllegalArgumentException            if the delta belongs to a different network.
+     */
+    @NonNull
+    List<NetworkDeltaConflict> importMeshNetworkDelta(@NonNull final String deltaJson, final long sinceRevision);
+
+    /**
+     * Merges the changes exported by another provisioner read from a stream in to the current network.
+     *
+     * @param inputStream   stream containing the delta, the caller is responsible for closing it.
+     * @param sinceRevision local revision at the last sync with the provisioner that exported the delta.
+     * @return the conflicting changes, empty if all changes were applied.
+     * @throws IOException in case of failure reading the stream.
+     * @see #importMeshNetworkDelta(String, long)
+     */
+    @NonNull
+    List<NetworkDeltaConflict> importMeshNetworkDelta(@NonNull final InputStream inputStream, final long sinceRevision) throws IOException;
+
     /**
      * Generates a random virtual address
      */
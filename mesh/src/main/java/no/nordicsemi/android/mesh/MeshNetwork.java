@@ -5,6 +5,7 @@ import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -13,6 +14,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
 import no.nordicsemi.android.mesh.transport.Element;
 import no.nordicsemi.android.mesh.transport.MeshModel;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
@@ -24,6 +26,10 @@ import static no.nordicsemi.android.mesh.AddressRange.isAddressInAnyRanges;
 @Entity(tableName = "mesh_network")
 public final class MeshNetwork extends BaseMeshNetwork {
 
+    // Unicast addresses reserved for the devices being provisioned, by device UUID
+    @Ignore
+    private final Map<UUID, AllocatedUnicastRange> reservedUnicastRanges = new HashMap<>();
+
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public MeshNetwork(final String meshUUID) {
         super(meshUUID);
@@ -140,31 +146,13 @@ public final class MeshNetwork extends BaseMeshNetwork {
      * @return Allocated unicast address or -1 if none
      * @throws IllegalArgumentException if there is no allocated unicast range to the provisioner
      */
-    public int nextAvailableUnicastAddress(final int elementCount, @NonNull final Provisioner provisioner) throws IllegalArgumentException {
+    public synchronized int nextAvailableUnicastAddress(final int elementCount, @NonNull final Provisioner provisioner) throws IllegalArgumentException {
         if (provisioner.getAllocatedUnicastRanges().isEmpty()) {
             throw new IllegalArgumentException("Please allocate a unicast address range to the provisioner");
         }
 
-        // Populate all addresses that are currently in use
-        final ArrayList<Integer> usedAddresses = new ArrayList<>();
-        for (ProvisionedMeshNode node : nodes) {
-            //There could be devices that are provisioned but does not have the number of elements yet so let's check for that.
-            if (node.getElements().size() > 0)
-                usedAddresses.addAll(node.getElements().keySet());
-            else
-                usedAddresses.add(node.getUnicastAddress());
-        }
-        // Excluded addresses with the current IvIndex and current IvIndex - 1 must be considered as addresses in use.
-        final List<Integer> addressesWithCurrentIvIndex = networkExclusions.get(ivIndex.getIvIndex());
-        if (addressesWithCurrentIvIndex != null)
-            usedAddresses.addAll(addressesWithCurrentIvIndex);
-        final List<Integer> addressesWithCurrentIvIndexMinusOne = networkExclusions.get(ivIndex.getIvIndex() - 1);
-        if (addressesWithCurrentIvIndexMinusOne != null)
-            usedAddresses.addAll(addressesWithCurrentIvIndexMinusOne);
-
-        Collections.sort(usedAddresses);
+        final List<Integer> usedAddresses = getUsedUnicastAddresses();
         // Iterate through all nodes just once, while iterating over ranges.
-        int index = 0;
         for (AllocatedUnicastRange range : provisioner.getAllocatedUnicastRanges()) {
             // Start from the beginning of the current range.
             int address = range.getLowAddress();
@@ -200,6 +188,91 @@ public final class MeshNetwork extends BaseMeshNetwork {
         return -1;
     }
 
+    /**
+     * Reserves the unicast addresses of a device being provisioned, so that devices provisioned at the same time are
+     * never assigned the same addresses. The reservation is released once the device has been added to the network
+     * or provisioning has ended, see {@link #releaseUnicastAddress(UUID)}.
+     *
+     * @param deviceUuid   Device UUID of the device being provisioned
+     * @param preferred    Preferred unicast address, reserved if the addresses starting from it are not in use
+     * @param elementCount Element count
+     * @param provisioner  Provisioner whose allocated ranges the addresses are reserved from otherwise
+     * @return the reserved unicast address
+     * @throws IllegalArgumentException if there are no addresses available
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public synchronized int reserveUnicastAddress(@NonNull final UUID deviceUuid,
+                                                  final int preferred,
+                                                  final int elementCount,
+                                                  @NonNull final Provisioner provisioner) throws IllegalArgumentException {
+        reservedUnicastRanges.remove(deviceUuid);
+        final int count = Math.max(1, elementCount);
+        int address = preferred;
+        if (!MeshAddress.isValidUnicastAddress(address) || !MeshAddress.isValidUnicastAddress(address + count - 1) ||
+                isAnyAddressUsed(address, count)) {
+            address = nextAvailableUnicastAddress(count, provisioner);
+        }
+        if (!MeshAddress.isValidUnicastAddress(address))
+            throw new IllegalArgumentException("No unicast address available for " + count + " elements");
+        reservedUnicastRanges.put(deviceUuid, new AllocatedUnicastRange(address, address + count - 1));
+        return address;
+    }
+
+    /**
+     * Releases the unicast addresses reserved for a device.
+     *
+     * @param deviceUuid Device UUID of the device
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public synchronized void releaseUnicastAddress(@NonNull final UUID deviceUuid) {
+        reservedUnicastRanges.remove(deviceUuid);
+    }
+
+    private boolean isAnyAddressUsed(final int address, final int count) {
+        for (int usedAddress : getUsedUnicastAddresses()) {
+            if (usedAddress >= address && usedAddress < address + count)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the sorted unicast addresses in use by the nodes, excluded or reserved for devices being provisioned.
+     */
+    private List<Integer> getUsedUnicastAddresses() {
+        // Populate all addresses that are currently in use
+        final ArrayList<Integer> usedAddresses = new ArrayList<>();
+        for (ProvisionedMeshNode node : nodes) {
+            //There could be devices that are provisioned but does not have the number of elements yet so let's check for that.
+            final int numberOfElements = node.getNumberOfElements();
+            if (!node.isElementsLoaded() && numberOfElements > 0) {
+                // Element addresses are sequential, so nodes loaded without their elements are not loaded here
+                for (int i = 0; i < numberOfElements; i++) {
+                    usedAddresses.add(node.getUnicastAddress() + i);
+                }
+            } else if (node.getElements().size() > 0) {
+                usedAddresses.addAll(node.getElements().keySet());
+            } else {
+                usedAddresses.add(node.getUnicastAddress());
+            }
+        }
+        // Excluded addresses with the current IvIndex and current IvIndex - 1 must be considered as addresses in use.
+        final List<Integer> addressesWithCurrentIvIndex = networkExclusions.get(ivIndex.getIvIndex());
+        if (addressesWithCurrentIvIndex != null)
+            usedAddresses.addAll(addressesWithCurrentIvIndex);
+        final List<Integer> addressesWithCurrentIvIndexMinusOne = networkExclusions.get(ivIndex.getIvIndex() - 1);
+        if (addressesWithCurrentIvIndexMinusOne != null)
+            usedAddresses.addAll(addressesWithCurrentIvIndexMinusOne);
+        // Addresses reserved for devices being provisioned
+        for (AllocatedUnicastRange range : reservedUnicastRanges.values()) {
+            for (int address = range.getLowAddress(); address <= range.getHighAddress(); address++) {
+                usedAddresses.add(address);
+            }
+        }
+        Collections.sort(usedAddresses);
+        return usedAddresses;
+    }
+
     /**
      * Returns the next unicast address for a provisioner based on the allocated range and the number of elements
      *
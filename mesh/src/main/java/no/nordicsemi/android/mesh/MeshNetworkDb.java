@@ -8,9 +8,11 @@ import android.database.sqlite.SQLiteDatabase;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 import android.util.SparseIntArray;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -20,6 +22,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.room.Database;
 import androidx.room.Room;
@@ -28,17 +31,29 @@ import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import no.nordicsemi.android.mesh.data.ApplicationKeyDao;
 import no.nordicsemi.android.mesh.data.ApplicationKeysDao;
+import no.nordicsemi.android.mesh.data.ElementEntity;
+import no.nordicsemi.android.mesh.data.ElementsDao;
 import no.nordicsemi.android.mesh.data.GroupDao;
 import no.nordicsemi.android.mesh.data.GroupsDao;
 import no.nordicsemi.android.mesh.data.MeshNetworkDao;
+import no.nordicsemi.android.mesh.data.ModelBindingEntity;
+import no.nordicsemi.android.mesh.data.ModelEntity;
+import no.nordicsemi.android.mesh.data.ModelSubscriptionEntity;
+import no.nordicsemi.android.mesh.data.NetworkChange;
+import no.nordicsemi.android.mesh.data.NetworkChangesDao;
 import no.nordicsemi.android.mesh.data.NetworkKeyDao;
 import no.nordicsemi.android.mesh.data.NetworkKeysDao;
+import no.nordicsemi.android.mesh.data.NodeElementCount;
 import no.nordicsemi.android.mesh.data.ProvisionedMeshNodeDao;
 import no.nordicsemi.android.mesh.data.ProvisionedMeshNodesDao;
 import no.nordicsemi.android.mesh.data.ProvisionerDao;
 import no.nordicsemi.android.mesh.data.ProvisionersDao;
 import no.nordicsemi.android.mesh.data.SceneDao;
 import no.nordicsemi.android.mesh.data.ScenesDao;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ElementEntityMapper;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.NodeElementsCache;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
@@ -52,11 +67,18 @@ import no.nordicsemi.android.mesh.utils.MeshParserUtils;
         Provisioner.class,
         ProvisionedMeshNode.class,
         Group.class,
-        Scene.class},
-        version = 12)
+        Scene.class,
+        ElementEntity.class,
+        ModelEntity.class,
+        ModelSubscriptionEntity.class,
+        ModelBindingEntity.class,
+        NetworkChange.class},
+        version = MeshNetworkDb.DATABASE_VERSION)
 abstract class MeshNetworkDb extends RoomDatabase {
 
     private static final String TAG = MeshNetworkDb.class.getSimpleName();
+    static final int DATABASE_VERSION = 14;
+    private static final String SNAPSHOT_FILE_NAME = "mesh_network.snapshot";
 
     abstract MeshNetworkDao meshNetworkDao();
 
@@ -84,10 +106,24 @@ abstract class MeshNetworkDb extends RoomDatabase {
 
     abstract SceneDao sceneDao();
 
+    abstract ElementsDao elementsDao();
+
+    abstract NetworkChangesDao networkChangesDao();
+
     private static volatile MeshNetworkDb INSTANCE;
     private static final int NUMBER_OF_THREADS = 4;
-    private static final ExecutorService databaseWriteExecutor =
+    // Reads run concurrently with the writer, with write-ahead logging they see the last committed state of the
+    // database without waiting for the writes in progress
+    private static final ExecutorService databaseReadExecutor =
             Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // All writes are applied in order by a single writer, so that e.g. a node update never lands after the node was
+    // deleted and targeted element updates are never applied before the rows they reference
+    private CommitJournal commitJournal;
+    // Sequence number of the last queued write of the element rows of each node, so that loading the elements of a
+    // node only waits for the writes of that node
+    private final Map<String, Long> elementWrites = new HashMap<>();
+    private MeshNetworkSnapshot networkSnapshot;
+    private NodeElementsCache nodeElementsCache;
 
     /**
      * Returns the mesh database
@@ -97,7 +133,7 @@ abstract class MeshNetworkDb extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (MeshNetworkDb.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
+                    final MeshNetworkDb database = Room.databaseBuilder(context.getApplicationContext(),
                                     MeshNetworkDb.class, "mesh_network_database.db")
                             .addCallback(sRoomDatabaseCallback)
                             .addMigrations(MIGRATION_1_2)
@@ -111,7 +147,19 @@ abstract class MeshNetworkDb extends RoomDatabase {
                             .addMigrations(MIGRATION_9_10)
                             .addMigrations(MIGRATION_10_11)
                             .addMigrations(MIGRATION_11_12)
+                            .addMigrations(MIGRATION_12_13)
+                            .addMigrations(MIGRATION_13_14)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
                             .build();
+                    database.networkSnapshot = new MeshNetworkSnapshot(
+                            new File(context.getApplicationContext().getFilesDir(), SNAPSHOT_FILE_NAME), DATABASE_VERSION);
+                    database.nodeElementsCache = new NodeElementsCache(database::loadNodeElements, 0);
+                    database.commitJournal = new CommitJournal(database::runInTransaction, count -> {
+                        for (int i = 0; i < count; i++) {
+                            database.networkSnapshot.endWrite();
+                        }
+                    });
+                    INSTANCE = database;
                 }
 
             }
@@ -142,15 +190,24 @@ abstract class MeshNetworkDb extends RoomDatabase {
                        @NonNull final ProvisionedMeshNodesDao nodesDao,
                        @NonNull final GroupsDao groupsDao,
                        @NonNull final ScenesDao scenesDao,
+                       @NonNull final ElementsDao elementsDao,
                        @NonNull final MeshNetwork meshNetwork) {
-        databaseWriteExecutor.execute(() -> {
+        final String[] nodeUuids = new String[meshNetwork.nodes.size()];
+        for (int i = 0; i < nodeUuids.length; i++) {
+            nodeUuids[i] = meshNetwork.nodes.get(i).getUuid();
+        }
+        writeElements(() -> {
 
             meshNetworkDao.insert(meshNetwork);
             netKeysDao.insert(new ArrayList<>(meshNetwork.netKeys));
             appKeysDao.insert(new ArrayList<>(meshNetwork.appKeys));
             provisionersDao.insert(new ArrayList<>(meshNetwork.provisioners));
             if (!meshNetwork.nodes.isEmpty()) {
-                nodesDao.insert(new ArrayList<>(meshNetwork.nodes));
+                final List<ProvisionedMeshNode> nodes = new ArrayList<>(meshNetwork.nodes);
+                nodesDao.insert(nodes);
+                for (ProvisionedMeshNode node : nodes) {
+                    replaceElements(elementsDao, node).run();
+                }
             }
             if (meshNetwork.groups != null) {
                 groupsDao.insert(new ArrayList<>(meshNetwork.groups));
@@ -158,7 +215,7 @@ abstract class MeshNetworkDb extends RoomDatabase {
             if (meshNetwork.scenes != null) {
                 scenesDao.insert(new ArrayList<>(meshNetwork.scenes));
             }
-        });
+        }, nodeUuids);
     }
 
     void loadNetwork(@NonNull final MeshNetworkDao meshNetworkDao,
@@ -168,42 +225,184 @@ abstract class MeshNetworkDb extends RoomDatabase {
                      @NonNull final ProvisionedMeshNodesDao nodesDao,
                      @NonNull final GroupsDao groupsDao,
                      @NonNull final ScenesDao scenesDao,
+                     @NonNull final ElementsDao elementsDao,
                      @NonNull final LoadNetworkCallbacks listener) {
-        databaseWriteExecutor.execute(() -> {
-            final MeshNetwork meshNetwork = meshNetworkDao.getMeshNetwork(true);
+        databaseReadExecutor.execute(() -> {
+            final long start = System.nanoTime();
+            MeshNetwork meshNetwork = loadSnapshot(meshNetworkDao);
+            if (meshNetwork != null) {
+                MeshLogger.debug(TAG, "Mesh network loaded from snapshot in " + (System.nanoTime() - start) / 1000000 + " ms");
+            } else {
+                meshNetwork = meshNetworkDao.getMeshNetwork(true);
+                if (meshNetwork != null) {
+                    meshNetwork.netKeys = netKeysDao.loadNetworkKeys(meshNetwork.getMeshUUID());
+                    meshNetwork.appKeys = appKeysDao.loadApplicationKeys(meshNetwork.getMeshUUID());
+                    meshNetwork.nodes = nodesDao.getNodes(meshNetwork.getMeshUUID());
+                    if (nodeElementsCache.getMaxNodes() > 0) {
+                        setElementsUnloaded(elementsDao, meshNetwork.getMeshUUID(), meshNetwork.nodes);
+                    } else {
+                        loadElements(elementsDao, meshNetwork.getMeshUUID(), meshNetwork.nodes);
+                    }
+                    meshNetwork.provisioners = provisionersDao.getProvisioners(meshNetwork.getMeshUUID());
+                    meshNetwork.groups = groupsDao.loadGroups(meshNetwork.getMeshUUID());
+                    meshNetwork.scenes = scenesDao.loadScenes(meshNetwork.getMeshUUID());
+                    MeshLogger.debug(TAG, "Mesh network loaded from database in " + (System.nanoTime() - start) / 1000000 + " ms");
+                    networkSnapshot.scheduleSave();
+                }
+            }
             if (meshNetwork != null) {
-                meshNetwork.netKeys = netKeysDao.loadNetworkKeys(meshNetwork.getMeshUUID());
-                meshNetwork.appKeys = appKeysDao.loadApplicationKeys(meshNetwork.getMeshUUID());
-                meshNetwork.nodes = nodesDao.getNodes(meshNetwork.getMeshUUID());
-                meshNetwork.provisioners = provisionersDao.getProvisioners(meshNetwork.getMeshUUID());
-                meshNetwork.groups = groupsDao.loadGroups(meshNetwork.getMeshUUID());
-                meshNetwork.scenes = scenesDao.loadScenes(meshNetwork.getMeshUUID());
+                attachElementsCache(meshNetwork.nodes);
             }
             listener.onNetworkLoadedFromDb(meshNetwork);
         });
     }
 
+    /**
+     * Enables the binary snapshot of the network returned by the source, or disables it if the source is null.
+     */
+    void setSnapshotSource(@Nullable final MeshNetworkSnapshot.Source source) {
+        networkSnapshot.setSource(source);
+    }
+
+    /**
+     * Sets the maximum number of nodes kept with their elements in memory. If greater than 0, networks are loaded
+     * without the elements of their nodes, which are then loaded on first access.
+     */
+    void setNodeElementCacheSize(final int maxNodes) {
+        nodeElementsCache.setMaxNodes(maxNodes);
+    }
+
+    /**
+     * Returns the metrics of the queue of pending writes.
+     */
+    @NonNull
+    DatabaseWriteMetrics getWriteMetrics() {
+        return commitJournal.getMetrics();
+    }
+
+    /**
+     * Loads the elements of the given nodes in the background.
+     */
+    void prefetchNodeElements(@NonNull final List<ProvisionedMeshNode> nodes) {
+        nodeElementsCache.prefetch(nodes);
+    }
+
+    private void attachElementsCache(@NonNull final List<ProvisionedMeshNode> nodes) {
+        nodeElementsCache.clear();
+        final boolean loadOnDemand = nodeElementsCache.getMaxNodes() > 0;
+        for (ProvisionedMeshNode node : nodes) {
+            // A snapshot written while loading on demand may contain nodes without elements
+            if (loadOnDemand || !node.isElementsLoaded()) {
+                node.setElementsCache(nodeElementsCache);
+            }
+        }
+    }
+
+    /**
+     * Loads the elements of a single node for the node elements cache.
+     */
+    @Nullable
+    private Map<Integer, Element> loadNodeElements(@NonNull final String nodeUuid) {
+        final ElementsDao dao = elementsDao();
+        try {
+            // Element writes already issued for the node must be applied first
+            final Long sequence;
+            synchronized (elementWrites) {
+                sequence = elementWrites.get(nodeUuid);
+            }
+            if (sequence != null) {
+                commitJournal.awaitCompleted(sequence);
+                synchronized (elementWrites) {
+                    if (sequence.equals(elementWrites.get(nodeUuid))) {
+                        elementWrites.remove(nodeUuid);
+                    }
+                }
+            }
+            return databaseReadExecutor.submit(() -> {
+                final Map<Integer, Element> elements = ElementEntityMapper.toElements(
+                        dao.loadNodeElements(nodeUuid),
+                        dao.loadNodeModels(nodeUuid),
+                        dao.loadNodeSubscriptions(nodeUuid),
+                        dao.loadNodeBindings(nodeUuid)).get(nodeUuid);
+                return elements == null ? new LinkedHashMap<Integer, Element>() : elements;
+            }).get();
+        } catch (ExecutionException | InterruptedException ex) {
+            MeshLogger.error(TAG, "Error while loading node elements: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the network stored in the snapshot if it is enabled and up to date, or null otherwise.
+     */
+    @Nullable
+    private MeshNetwork loadSnapshot(@NonNull final MeshNetworkDao meshNetworkDao) {
+        if (!networkSnapshot.isEnabled())
+            return null;
+        final MeshNetwork snapshot = networkSnapshot.read();
+        if (snapshot == null)
+            return null;
+        // Loading the network row is cheap and ensures the snapshot belongs to the last selected network
+        final MeshNetwork network = meshNetworkDao.getMeshNetwork(true);
+        if (network == null || !network.getMeshUUID().equals(snapshot.getMeshUUID()) ||
+                network.getTimestamp() != snapshot.getTimestamp()) {
+            MeshLogger.warn(TAG, "Mesh network snapshot is stale, loading from database");
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Queues a database write, keeping the network snapshot in step with the database.
+     *
+     * @return sequence number of the write in the commit journal
+     */
+    private long write(@NonNull final Runnable write) {
+        networkSnapshot.beginWrite();
+        return commitJournal.enqueue(write);
+    }
+
+    /**
+     * Queues a database write of the element rows of the given nodes, see {@link #loadNodeElements(String)}.
+     */
+    private void writeElements(@NonNull final Runnable write, @NonNull final String... nodeUuids) {
+        synchronized (elementWrites) {
+            final long sequence = write(write);
+            for (String nodeUuid : nodeUuids) {
+                elementWrites.put(nodeUuid, sequence);
+            }
+        }
+    }
+
+    List<NetworkChange> loadChanges(@NonNull final NetworkChangesDao dao, @NonNull final String meshUuid) throws ExecutionException, InterruptedException {
+        return databaseReadExecutor.submit(() -> dao.loadChanges(meshUuid)).get();
+    }
+
+    void insert(@NonNull final NetworkChangesDao dao, @NonNull final NetworkChange change) {
+        write(() -> dao.insert(change));
+    }
+
     MeshNetwork getMeshNetwork(@NonNull final MeshNetworkDao meshNetworkDao, @NonNull final String meshUuid) throws ExecutionException, InterruptedException {
-        return databaseWriteExecutor.submit(() -> meshNetworkDao.getMeshNetwork(meshUuid)).get();
+        return databaseReadExecutor.submit(() -> meshNetworkDao.getMeshNetwork(meshUuid)).get();
     }
 
     List<MeshNetwork> getMeshNetworks(@NonNull final MeshNetworkDao meshNetworkDao) throws ExecutionException, InterruptedException {
-        return databaseWriteExecutor.submit(meshNetworkDao::getMeshNetworks).get();
+        return databaseReadExecutor.submit(meshNetworkDao::getMeshNetworks).get();
     }
 
     void update(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork network) {
-        databaseWriteExecutor.execute(() -> dao.update(network.meshUUID, network.meshName, network.timestamp,
+        write(() -> dao.update(network.meshUUID, network.meshName, network.timestamp,
                 network.partial, MeshTypeConverters.ivIndexToJson(network.ivIndex),
                 network.lastSelected,
                 MeshTypeConverters.networkExclusionsToJson(new HashMap<>(network.getNetworkExclusions()))));
     }
 
     void update(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork meshNetwork, final boolean lastSelected) throws ExecutionException, InterruptedException {
-        databaseWriteExecutor.submit(() -> dao.update(meshNetwork.meshUUID, lastSelected)).get();
+        commitJournal.awaitCompleted(write(() -> dao.update(meshNetwork.meshUUID, lastSelected)));
     }
 
     void update(@NonNull final MeshNetworkDao dao, @NonNull final List<MeshNetwork> meshNetworks) {
-        databaseWriteExecutor.execute(() -> dao.update(meshNetworks));
+        write(() -> dao.update(meshNetworks));
     }
 
     void update(@NonNull final MeshNetwork network,
@@ -214,7 +413,7 @@ abstract class MeshNetworkDb extends RoomDatabase {
                 @NonNull final ProvisionedMeshNodesDao nodesDao,
                 @NonNull final GroupsDao groupsDao,
                 @NonNull final ScenesDao sceneDao) {
-        databaseWriteExecutor.execute(() -> {
+        write(() -> {
             networkDao.update(network.meshUUID, network.meshName, network.timestamp,
                     network.partial, MeshTypeConverters.ivIndexToJson(network.ivIndex),
                     network.lastSelected,
@@ -229,91 +428,192 @@ abstract class MeshNetworkDb extends RoomDatabase {
     }
 
     void delete(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork meshNetwork) {
-        databaseWriteExecutor.execute(() -> dao.delete(meshNetwork));
+        write(() -> dao.delete(meshNetwork));
     }
 
     void insert(@NonNull final NetworkKeyDao dao, @NonNull final NetworkKey networkKey) {
-        databaseWriteExecutor.execute(() -> dao.insert(networkKey));
+        write(() -> dao.insert(networkKey));
     }
 
     void update(@NonNull final NetworkKeyDao dao, @NonNull final NetworkKey networkKey) {
-        databaseWriteExecutor.execute(() -> dao.update(networkKey));
+        write(() -> dao.update(networkKey));
     }
 
     void delete(@NonNull final NetworkKeyDao dao, @NonNull final NetworkKey networkKey) {
-        databaseWriteExecutor.execute(() -> dao.delete(networkKey.getKeyIndex()));
+        write(() -> dao.delete(networkKey.getKeyIndex()));
     }
 
     void insert(@NonNull final ApplicationKeyDao dao, @NonNull final ApplicationKey applicationKey) {
-        databaseWriteExecutor.execute(() -> dao.insert(applicationKey));
+        write(() -> dao.insert(applicationKey));
     }
 
     void update(@NonNull final ApplicationKeyDao dao, @NonNull final ApplicationKey applicationKey) {
-        databaseWriteExecutor.execute(() -> dao.update(applicationKey));
+        write(() -> dao.update(applicationKey));
     }
 
     void delete(@NonNull final ApplicationKeyDao dao, @NonNull final ApplicationKey applicationKey) {
-        databaseWriteExecutor.execute(() -> dao.delete(applicationKey));
+        write(() -> dao.delete(applicationKey));
     }
 
     void insert(@NonNull final ProvisionerDao dao, @NonNull final Provisioner provisioner) {
-        databaseWriteExecutor.execute(() -> dao.insert(provisioner));
+        write(() -> dao.insert(provisioner));
     }
 
     void update(@NonNull final ProvisionerDao dao, @NonNull final Provisioner provisioner) {
-        databaseWriteExecutor.execute(() -> dao.update(provisioner));
+        write(() -> dao.update(provisioner));
     }
 
     void update(@NonNull final ProvisionerDao dao, @NonNull final List<Provisioner> provisioners) {
-        databaseWriteExecutor.execute(() -> dao.update(provisioners));
+        write(() -> dao.update(provisioners));
     }
 
     void delete(@NonNull final ProvisionerDao dao, @NonNull final Provisioner provisioner) {
-        databaseWriteExecutor.execute(() -> dao.delete(provisioner));
+        write(() -> dao.delete(provisioner));
     }
 
     List<ProvisionedMeshNode> getNodes(@NonNull final ProvisionedMeshNodesDao dao, @NonNull final String meshUuid) throws ExecutionException, InterruptedException {
-        return databaseWriteExecutor.submit(() -> dao.getNodes(meshUuid)).get();
+        return databaseReadExecutor.submit(() -> dao.getNodes(meshUuid)).get();
+    }
+
+    void insert(@NonNull final ProvisionedMeshNodeDao dao,
+                @NonNull final ElementsDao elementsDao,
+                @NonNull final ProvisionedMeshNode node) {
+        final Runnable replaceElements = replaceElements(elementsDao, node);
+        writeElements(() -> {
+            dao.insert(node);
+            replaceElements.run();
+        }, node.getUuid());
+    }
+
+    void update(@NonNull final ProvisionedMeshNodeDao dao,
+                @NonNull final ElementsDao elementsDao,
+                @NonNull final ProvisionedMeshNode node) {
+        final Runnable replaceElements = replaceElements(elementsDao, node);
+        writeElements(() -> {
+            dao.update(node);
+            replaceElements.run();
+        }, node.getUuid());
+    }
+
+    /**
+     * Replaces the stored elements of a node, e.g. after the composition data has been received.
+     */
+    void updateElements(@NonNull final ElementsDao dao, @NonNull final ProvisionedMeshNode node) {
+        writeElements(replaceElements(dao, node), node.getUuid());
     }
 
-    void insert(@NonNull final ProvisionedMeshNodeDao dao, @NonNull final ProvisionedMeshNode node) {
-        databaseWriteExecutor.execute(() -> dao.insert(node));
+    /**
+     * Updates the publication settings and model specific state of a single model.
+     */
+    void updateModel(@NonNull final ElementsDao dao,
+                     @NonNull final ProvisionedMeshNode node,
+                     final int elementAddress,
+                     @NonNull final MeshModel model) {
+        final ModelEntity entity = ElementEntityMapper.toModelEntity(node.getUuid(), elementAddress, model);
+        writeElements(() -> dao.updateModel(entity), node.getUuid());
     }
 
-    void update(@NonNull final ProvisionedMeshNodeDao dao, @NonNull final ProvisionedMeshNode node) {
-        databaseWriteExecutor.execute(() -> dao.update(node));
+    /**
+     * Replaces the subscription addresses of a single model.
+     */
+    void updateSubscriptions(@NonNull final ElementsDao dao,
+                             @NonNull final ProvisionedMeshNode node,
+                             final int elementAddress,
+                             @NonNull final MeshModel model) {
+        final List<ModelSubscriptionEntity> entities = ElementEntityMapper.toSubscriptionEntities(node.getUuid(), elementAddress, model);
+        writeElements(() -> dao.replaceSubscriptions(node.getUuid(), elementAddress, model.getModelId(), entities),
+                node.getUuid());
+    }
+
+    /**
+     * Replaces the application keys bound to a single model.
+     */
+    void updateBindings(@NonNull final ElementsDao dao,
+                        @NonNull final ProvisionedMeshNode node,
+                        final int elementAddress,
+                        @NonNull final MeshModel model) {
+        final List<ModelBindingEntity> entities = ElementEntityMapper.toBindingEntities(node.getUuid(), elementAddress, model);
+        writeElements(() -> dao.replaceBindings(node.getUuid(), elementAddress, model.getModelId(), entities),
+                node.getUuid());
+    }
+
+    /**
+     * Maps the elements of a node to rows on the calling thread and returns a task replacing the stored rows.
+     */
+    private static Runnable replaceElements(@NonNull final ElementsDao dao, @NonNull final ProvisionedMeshNode node) {
+        // The stored elements of a node that has not been loaded are unchanged
+        if (!node.isElementsLoaded())
+            return () -> {
+            };
+        final String uuid = node.getUuid();
+        final Map<Integer, Element> elements = node.getElements();
+        final List<ElementEntity> elementEntities = ElementEntityMapper.toElementEntities(uuid, elements);
+        final List<ModelEntity> modelEntities = ElementEntityMapper.toModelEntities(uuid, elements);
+        final List<ModelSubscriptionEntity> subscriptionEntities = ElementEntityMapper.toSubscriptionEntities(uuid, elements);
+        final List<ModelBindingEntity> bindingEntities = ElementEntityMapper.toBindingEntities(uuid, elements);
+        return () -> dao.replaceElements(uuid, elementEntities, modelEntities, subscriptionEntities, bindingEntities);
+    }
+
+    private static void loadElements(@NonNull final ElementsDao dao,
+                                     @NonNull final String meshUuid,
+                                     @NonNull final List<ProvisionedMeshNode> nodes) {
+        final Map<String, Map<Integer, Element>> elements = ElementEntityMapper.toElements(
+                dao.loadElements(meshUuid),
+                dao.loadModels(meshUuid),
+                dao.loadSubscriptions(meshUuid),
+                dao.loadBindings(meshUuid));
+        for (ProvisionedMeshNode node : nodes) {
+            final Map<Integer, Element> nodeElements = elements.get(node.getUuid());
+            if (nodeElements != null) {
+                node.setElements(nodeElements);
+            }
+        }
+    }
+
+    private static void setElementsUnloaded(@NonNull final ElementsDao dao,
+                                            @NonNull final String meshUuid,
+                                            @NonNull final List<ProvisionedMeshNode> nodes) {
+        final Map<String, Integer> elementCounts = new HashMap<>();
+        for (NodeElementCount count : dao.loadElementCounts(meshUuid)) {
+            elementCounts.put(count.nodeUuid, count.elementCount);
+        }
+        for (ProvisionedMeshNode node : nodes) {
+            final Integer elementCount = elementCounts.get(node.getUuid());
+            node.setElementsUnloaded(elementCount == null ? 0 : elementCount);
+        }
     }
 
     void update(@NonNull final ProvisionedMeshNodesDao dao, @NonNull final List<ProvisionedMeshNode> nodes) {
-        databaseWriteExecutor.execute(() -> dao.update(nodes));
+        write(() -> dao.update(nodes));
     }
 
     void deleteNode(@NonNull final ProvisionedMeshNodeDao dao, @NonNull final ProvisionedMeshNode node) {
-        databaseWriteExecutor.execute(() -> dao.delete(node));
+        nodeElementsCache.remove(node);
+        write(() -> dao.delete(node));
     }
 
     void insert(@NonNull final GroupDao dao, @NonNull final Group group) {
-        databaseWriteExecutor.execute(() -> dao.insert(group));
+        write(() -> dao.insert(group));
     }
 
     void update(@NonNull final GroupDao dao, @NonNull final Group group) {
-        databaseWriteExecutor.execute(() -> dao.update(group));
+        write(() -> dao.update(group));
     }
 
     void delete(@NonNull final GroupDao dao, @NonNull final Group group) {
-        databaseWriteExecutor.execute(() -> dao.delete(group.getAddress()));
+        write(() -> dao.delete(group.getAddress()));
     }
 
     void insert(@NonNull final SceneDao dao, @NonNull final Scene scene) {
-        databaseWriteExecutor.execute(() -> dao.insert(scene));
+        write(() -> dao.insert(scene));
     }
 
     void update(@NonNull final SceneDao dao, @NonNull final Scene scene) {
-        databaseWriteExecutor.execute(() -> dao.update(scene));
+        write(() -> dao.update(scene));
     }
 
     void delete(@NonNull final SceneDao dao, @NonNull final Scene scene) {
-        databaseWriteExecutor.execute(() -> dao.delete(scene.getNumber()));
+        write(() -> dao.delete(scene.getNumber()));
     }
 
     private static final Migration MIGRATION_1_2 = new Migration(1, 2) {
@@ -396,6 +696,28 @@ abstract class MeshNetworkDb extends RoomDatabase {
         }
     };
 
+    private static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            migrateElements12_13(database);
+        }
+    };
+
+    private static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `network_changes` " +
+                    "(`mesh_uuid` TEXT NOT NULL, " +
+                    "`entity_type` TEXT NOT NULL, " +
+                    "`entity_id` TEXT NOT NULL, " +
+                    "`revision` INTEGER NOT NULL, " +
+                    "`timestamp` INTEGER NOT NULL, " +
+                    "`deleted` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`mesh_uuid`, `entity_type`, `entity_id`), " +
+                    "FOREIGN KEY(`mesh_uuid`) REFERENCES `mesh_network`(`mesh_uuid`) ON UPDATE CASCADE ON DELETE CASCADE )");
+        }
+    };
+
     private static void migrateMeshNetwork(final SupportSQLiteDatabase database) {
         database.execSQL("CREATE TABLE `mesh_network_temp` " +
                 "(`mesh_uuid` TEXT NOT NULL, " +
@@ -1036,4 +1358,158 @@ abstract class MeshNetworkDb extends RoomDatabase {
         database.execSQL("DROP TABLE mesh_network");
         database.execSQL("ALTER TABLE mesh_network_temp RENAME TO mesh_network");
     }
+
+    private static void migrateElements12_13(@NonNull final SupportSQLiteDatabase database) {
+        final Map<String, Map<Integer, Element>> nodeElements = new HashMap<>();
+        final MeshTypeConverters converters = new MeshTypeConverters();
+        final Cursor cursor = database.query("SELECT uuid, elements FROM nodes");
+        if (cursor != null && cursor.moveToFirst()) {
+            do {
+                final String uuid = cursor.getString(cursor.getColumnIndex("uuid"));
+                final String elements = cursor.getString(cursor.getColumnIndex("elements"));
+                if (elements != null) {
+                    try {
+                        nodeElements.put(uuid, converters.fromJsonToElements(elements));
+                    } catch (Exception ex) {
+                        MeshLogger.error(TAG, "Unable to migrate the elements of node " + uuid + ": " + ex.getMessage());
+                    }
+                }
+            } while (cursor.moveToNext());
+            cursor.close();
+        }
+
+        database.execSQL("CREATE TABLE `nodes_temp` " +
+                "(timestamp INTEGER NOT NULL, " +
+                "name TEXT, " +
+                "ttl INTEGER, " +
+                "secureNetworkBeacon INTEGER, " +
+                "mesh_uuid TEXT, " +
+                "uuid TEXT NOT NULL, " +
+                "security INTEGER NOT NULL, " +
+                "unicast_address INTEGER NOT NULL, " +
+                "configured INTEGER NOT NULL, " +
+                "device_key BLOB, " +
+                "seq_number INTEGER NOT NULL, " +
+                "cid INTEGER, " +
+                "pid INTEGER, " +
+                "vid INTEGER, " +
+                "crpl INTEGER, " +
+                "netKeys TEXT, " +
+                "appKeys TEXT, " +
+                "excluded INTEGER NOT NULL, " +
+                "networkTransmitCount INTEGER, " +
+                "networkIntervalSteps INTEGER, " +
+                "relayTransmitCount INTEGER, " +
+                "relayIntervalSteps INTEGER, " +
+                "friend INTEGER, " +
+                "lowPower INTEGER, " +
+                "proxy INTEGER, " +
+                "relay INTEGER, " +
+                "PRIMARY KEY(uuid), " +
+                "FOREIGN KEY(mesh_uuid) REFERENCES mesh_network(mesh_uuid) ON UPDATE CASCADE ON DELETE CASCADE )");
+        database.execSQL(
+                "INSERT INTO nodes_temp (timestamp, name, ttl, secureNetworkBeacon, mesh_uuid, uuid, security, " +
+                        "unicast_address, configured, device_key, seq_number, cid, pid, vid, crpl, netKeys, appKeys, " +
+                        "excluded, networkTransmitCount, networkIntervalSteps, relayTransmitCount, relayIntervalSteps, " +
+                        "friend, lowPower, proxy, relay) " +
+                        "SELECT timestamp, name, ttl, secureNetworkBeacon, mesh_uuid, uuid, security, " +
+                        "unicast_address, configured, device_key, seq_number, cid, pid, vid, crpl, netKeys, appKeys, " +
+                        "excluded, networkTransmitCount, networkIntervalSteps, relayTransmitCount, relayIntervalSteps, " +
+                        "friend, lowPower, proxy, relay FROM nodes");
+        database.execSQL("DROP TABLE nodes");
+        database.execSQL("ALTER TABLE nodes_temp RENAME TO nodes");
+        database.execSQL("CREATE INDEX index_nodes_mesh_uuid ON `nodes` (mesh_uuid)");
+
+        database.execSQL("CREATE TABLE `elements` " +
+                "(`node_uuid` TEXT NOT NULL, " +
+                "`element_address` INTEGER NOT NULL, " +
+                "`location_descriptor` INTEGER NOT NULL, " +
+                "`name` TEXT, " +
+                "PRIMARY KEY(`node_uuid`, `element_address`), " +
+                "FOREIGN KEY(`node_uuid`) REFERENCES `nodes`(`uuid`) ON UPDATE CASCADE ON DELETE CASCADE )");
+        database.execSQL("CREATE TABLE `models` " +
+                "(`node_uuid` TEXT NOT NULL, " +
+                "`element_address` INTEGER NOT NULL, " +
+                "`model_id` INTEGER NOT NULL, " +
+                "`publish_address` INTEGER, " +
+                "`publish_label_uuid` TEXT, " +
+                "`publish_app_key_index` INTEGER, " +
+                "`publish_credential_flag` INTEGER, " +
+                "`publish_ttl` INTEGER, " +
+                "`publication_steps` INTEGER, " +
+                "`publication_resolution` INTEGER, " +
+                "`publish_retransmit_count` INTEGER, " +
+                "`publish_retransmit_interval_steps` INTEGER, " +
+                "`state` TEXT, " +
+                "PRIMARY KEY(`node_uuid`, `element_address`, `model_id`), " +
+                "FOREIGN KEY(`node_uuid`, `element_address`) REFERENCES `elements`(`node_uuid`, `element_address`) " +
+                "ON UPDATE CASCADE ON DELETE CASCADE )");
+        database.execSQL("CREATE INDEX `index_models_model_id` ON `models` (`model_id`)");
+        database.execSQL("CREATE TABLE `model_subscriptions` " +
+                "(`node_uuid` TEXT NOT NULL, " +
+                "`element_address` INTEGER NOT NULL, " +
+                "`model_id` INTEGER NOT NULL, " +
+                "`address` INTEGER NOT NULL, " +
+                "`label_uuid` TEXT, " +
+                "PRIMARY KEY(`node_uuid`, `element_address`, `model_id`, `address`), " +
+                "FOREIGN KEY(`node_uuid`, `element_address`, `model_id`) " +
+                "REFERENCES `models`(`node_uuid`, `element_address`, `model_id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+        database.execSQL("CREATE INDEX `index_model_subscriptions_address` ON `model_subscriptions` (`address`)");
+        database.execSQL("CREATE TABLE `model_bindings` " +
+                "(`node_uuid` TEXT NOT NULL, " +
+                "`element_address` INTEGER NOT NULL, " +
+                "`model_id` INTEGER NOT NULL, " +
+                "`app_key_index` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`node_uuid`, `element_address`, `model_id`, `app_key_index`), " +
+                "FOREIGN KEY(`node_uuid`, `element_address`, `model_id`) " +
+                "REFERENCES `models`(`node_uuid`, `element_address`, `model_id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+        database.execSQL("CREATE INDEX `index_model_bindings_app_key_index` ON `model_bindings` (`app_key_index`)");
+
+        for (Map.Entry<String, Map<Integer, Element>> entry : nodeElements.entrySet()) {
+            final String uuid = entry.getKey();
+            final Map<Integer, Element> elements = entry.getValue();
+            for (ElementEntity element : ElementEntityMapper.toElementEntities(uuid, elements)) {
+                final ContentValues values = new ContentValues();
+                values.put("node_uuid", element.nodeUuid);
+                values.put("element_address", element.elementAddress);
+                values.put("location_descriptor", element.locationDescriptor);
+                values.put("name", element.name);
+                database.insert("elements", SQLiteDatabase.CONFLICT_REPLACE, values);
+            }
+            for (ModelEntity model : ElementEntityMapper.toModelEntities(uuid, elements)) {
+                final ContentValues values = new ContentValues();
+                values.put("node_uuid", model.nodeUuid);
+                values.put("element_address", model.elementAddress);
+                values.put("model_id", model.modelId);
+                values.put("publish_address", model.publishAddress);
+                values.put("publish_label_uuid", model.publishLabelUuid);
+                values.put("publish_app_key_index", model.publishAppKeyIndex);
+                values.put("publish_credential_flag", model.publishCredentialFlag);
+                values.put("publish_ttl", model.publishTtl);
+                values.put("publication_steps", model.publicationSteps);
+                values.put("publication_resolution", model.publicationResolution);
+                values.put("publish_retransmit_count", model.publishRetransmitCount);
+                values.put("publish_retransmit_interval_steps", model.publishRetransmitIntervalSteps);
+                values.put("state", model.state);
+                database.insert("models", SQLiteDatabase.CONFLICT_REPLACE, values);
+            }
+            for (ModelSubscriptionEntity subscription : ElementEntityMapper.toSubscriptionEntities(uuid, elements)) {
+                final ContentValues values = new ContentValues();
+                values.put("node_uuid", subscription.nodeUuid);
+                values.put("element_address", subscription.elementAddress);
+                values.put("model_id", subscription.modelId);
+                values.put("address", subscription.address);
+                values.put("label_uuid", subscription.labelUuid);
+                database.insert("model_subscriptions", SQLiteDatabase.CONFLICT_REPLACE, values);
+            }
+            for (ModelBindingEntity binding : ElementEntityMapper.toBindingEntities(uuid, elements)) {
+                final ContentValues values = new ContentValues();
+                values.put("node_uuid", binding.nodeUuid);
+                values.put("element_address", binding.elementAddress);
+                values.put("model_id", binding.modelId);
+                values.put("app_key_index", binding.appKeyIndex);
+                database.insert("model_bindings", SQLiteDatabase.CONFLICT_REPLACE, values);
+            }
+        }
+    }
 }
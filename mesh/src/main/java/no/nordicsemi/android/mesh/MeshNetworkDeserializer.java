@@ -138,8 +138,8 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param networkKeys Network key list
      * @return JsonElement
      */
-    private JsonElement serializeNetKeys(@NonNull final JsonSerializationContext context,
-                                         @NonNull final List<NetworkKey> networkKeys) {
+    JsonElement serializeNetKeys(@NonNull final JsonSerializationContext context,
+                                 @NonNull final List<NetworkKey> networkKeys) {
         final Type networkKey = new TypeToken<List<NetworkKey>>() {
         }.getType();
         return context.serialize(networkKeys, networkKey);
@@ -172,8 +172,8 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param applicationKeys Application key list
      * @return JsonElement
      */
-    private JsonElement serializeAppKeys(@NonNull final JsonSerializationContext context,
-                                         @NonNull final List<ApplicationKey> applicationKeys) {
+    JsonElement serializeAppKeys(@NonNull final JsonSerializationContext context,
+                                 @NonNull final List<ApplicationKey> applicationKeys) {
         final Type networkKey = new TypeToken<List<ApplicationKey>>() {
         }.getType();
         return context.serialize(applicationKeys, networkKey);
@@ -253,8 +253,8 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param provisioners Provisioners list
      * @return JsonElement
      */
-    private JsonElement serializeProvisioners(@NonNull final JsonSerializationContext context,
-                                              @NonNull final List<Provisioner> provisioners) {
+    JsonElement serializeProvisioners(@NonNull final JsonSerializationContext context,
+                                      @NonNull final List<Provisioner> provisioners) {
         final JsonArray jsonArray = new JsonArray();
         for (Provisioner provisioner : provisioners) {
             final JsonObject provisionerJson = new JsonObject();
@@ -358,8 +358,8 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param nodes   Nodes list
      * @return JsonElement
      */
-    private JsonElement serializeNodes(@NonNull final JsonSerializationContext context,
-                                       @NonNull final List<ProvisionedMeshNode> nodes) {
+    JsonElement serializeNodes(@NonNull final JsonSerializationContext context,
+                               @NonNull final List<ProvisionedMeshNode> nodes) {
         final Type nodeList = new TypeToken<List<ProvisionedMeshNode>>() {
         }.getType();
         return context.serialize(nodes, nodeList);
@@ -390,7 +390,7 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param groups Group list
      * @return JsonElement
      */
-    private JsonElement serializeGroups(@NonNull final List<Group> groups) {
+    JsonElement serializeGroups(@NonNull final List<Group> groups) {
         JsonArray groupsArray = new JsonArray();
         for (Group group : groups) {
             JsonObject groupObj = new JsonObject();
@@ -456,7 +456,7 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param scenes Group list
      * @return JsonElement
      */
-    private JsonElement serializeScenes(@NonNull final List<Scene> scenes) {
+    JsonElement serializeScenes(@NonNull final List<Scene> scenes) {
         final JsonArray scenesArray = new JsonArray();
         for (Scene scene : scenes) {
             JsonObject sceneObj = new JsonObject();
@@ -519,7 +519,7 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
      * @param networkExclusions exclusion list
      * @return JsonElement
      */
-    private JsonElement serializeExclusionList(@NonNull final Map<Integer, List<Integer>> networkExclusions) {
+    JsonElement serializeExclusionList(@NonNull final Map<Integer, List<Integer>> networkExclusions) {
         final JsonArray exclusionList = new JsonArray();
         JsonObject exclusion;
         JsonArray array;
@@ -580,7 +580,26 @@ public final class MeshNetworkDeserializer implements JsonSerializer<MeshNetwork
         return unicast;
     }
 
-    private void assignProvisionerAddresses(@NonNull final MeshNetwork network) {
+    /**
+     * Sets the nodes of a network whose nodes were de-serialized separately from the rest of the network.
+     *
+     * @param network mesh network
+     * @param nodes   nodes of the network
+     */
+    static void setNodes(@NonNull final MeshNetwork network, @NonNull final List<ProvisionedMeshNode> nodes) {
+        for (ProvisionedMeshNode node : nodes) {
+            node.setMeshUuid(network.meshUUID);
+        }
+        network.nodes = nodes;
+        assignProvisionerAddresses(network);
+    }
+
+    /**
+     * Assigns the unicast address and ttl of the node of each provisioner to the provisioner.
+     *
+     * @param network mesh network
+     */
+    static void assignProvisionerAddresses(@NonNull final MeshNetwork network) {
         for (Provisioner provisioner : network.provisioners) {
             for (ProvisionedMeshNode node : network.nodes) {
                 if (provisioner.getProvisionerUuid().equalsIgnoreCase(node.getUuid())) {
@@ -0,0 +1,815 @@
+package no.nordicsemi.android.mesh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.data.ElementEntity;
+import no.nordicsemi.android.mesh.data.ModelBindingEntity;
+import no.nordicsemi.android.mesh.data.ModelEntity;
+import no.nordicsemi.android.mesh.data.ModelSubscriptionEntity;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ElementEntityMapper;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.NetworkTransmitSettings;
+import no.nordicsemi.android.mesh.utils.RelaySettings;
+
+/**
+ * Compact binary snapshot of the last selected mesh network, kept alongside the database.
+ * <p>
+ * Loading the network from Room runs a query for every table and decodes the json columns of every node. The snapshot
+ * holds the same data in a single versioned file that is read with one NIO read on startup. It is written atomically
+ * once the database writes have completed and is deleted before a new write is issued, so a snapshot on disk never
+ * lags behind the database. A missing, corrupt or outdated snapshot is ignored and the network is loaded from Room.
+ * </p>
+ * <p>
+ * The network is encoded on the thread of the {@link Source} that modifies it, only the file is written in the
+ * background.
+ * </p>
+ */
+final class MeshNetworkSnapshot {
+
+    private static final String TAG = MeshNetworkSnapshot.class.getSimpleName();
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    static final int VERSION = 2;
+    private static final long SAVE_DELAY = 500;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Provides the network to be written to the snapshot.
+     */
+    interface Source {
+
+        /**
+         * Returns the network currently in use or null if it has not been loaded.
+         */
+        @Nullable
+        MeshNetwork getMeshNetwork();
+
+        /**
+         * Runs a task on the thread the network is modified on.
+         */
+        void execute(@NonNull final Runnable task);
+    }
+
+    private final File mFile;
+    private final File mTempFile;
+    private final int mDatabaseVersion;
+    private final ScheduledExecutorService mExecutor = Executors.newSingleThreadScheduledExecutor();
+    private volatile Source mSource;
+    // Guarded by this
+    private long mGeneration;
+    private int mPendingWrites;
+    private boolean mMayExist = true;
+    private ScheduledFuture<?> mPendingSave;
+
+    /**
+     * Constructs the snapshot.
+     *
+     * @param file            snapshot file
+     * @param databaseVersion version of the database the snapshot is kept alongside, a snapshot written for another
+     *                        version is ignored
+     */
+    MeshNetworkSnapshot(@NonNull final File file, final int databaseVersion) {
+        mFile = file;
+        mTempFile = new File(file.getPath() + ".tmp");
+        mDatabaseVersion = databaseVersion;
+    }
+
+    /**
+     * Enables writing the snapshot of the network returned by the source, or disables it if the source is null.
+     */
+    synchronized void setSource(@Nullable final Source source) {
+        mSource = source;
+        if (source == null) {
+            cancelPendingSave();
+        } else {
+            scheduleSave();
+        }
+    }
+
+    boolean isEnabled() {
+        return mSource != null;
+    }
+
+    /**
+     * Must be called before a database write is issued.
+     * <p>
+     * Deletes the snapshot so that it is never read while the database is being changed. The file is deleted on the
+     * calling thread, but only once for a burst of writes.
+     * </p>
+     */
+    synchronized void beginWrite() {
+        mGeneration++;
+        mPendingWrites++;
+        cancelPendingSave();
+        if (mMayExist) {
+            if (mFile.exists() && !mFile.delete()) {
+                MeshLogger.warn(TAG, "Unable to delete the mesh network snapshot");
+            } else {
+                mMayExist = false;
+            }
+        }
+    }
+
+    /**
+     * Must be called once a database write has completed. The snapshot is written when no more writes are pending.
+     */
+    synchronized void endWrite() {
+        mPendingWrites--;
+        if (mPendingWrites == 0) {
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Writes the snapshot once the pending database writes have completed, e.g. after loading the network from Room.
+     */
+    synchronized void scheduleSave() {
+        cancelPendingSave();
+        if (mSource != null && mPendingWrites == 0) {
+            mPendingSave = mExecutor.schedule(this::save, SAVE_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Reads the snapshot.
+     *
+     * @return the network or null if there is no valid snapshot
+     */
+    @Nullable
+    MeshNetwork read() {
+        synchronized (this) {
+            if (!mMayExist || !mFile.exists())
+                return null;
+        }
+        try {
+            final FileInputStream inputStream = new FileInputStream(mFile);
+            try {
+                final FileChannel channel = inputStream.getChannel();
+                final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) == -1)
+                        throw new IOException("Unexpected end of snapshot");
+                }
+                buffer.flip();
+                return decode(buffer, mDatabaseVersion);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException | RuntimeException ex) {
+            MeshLogger.warn(TAG, "Unable to read the mesh network snapshot: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void cancelPendingSave() {
+        if (mPendingSave != null) {
+            mPendingSave.cancel(false);
+            mPendingSave = null;
+        }
+    }
+
+    private void save() {
+        final Source source;
+        final long generation;
+        synchronized (this) {
+            source = mSource;
+            if (source == null || mPendingWrites > 0)
+                return;
+            generation = mGeneration;
+        }
+        source.execute(() -> encodeSnapshot(source, generation));
+    }
+
+    private void encodeSnapshot(@NonNull final Source source, final long generation) {
+        synchronized (this) {
+            if (source != mSource || generation != mGeneration)
+                return;
+        }
+        final MeshNetwork network = source.getMeshNetwork();
+        if (network == null)
+            return;
+        final byte[] data;
+        try {
+            data = encode(network, mDatabaseVersion);
+        } catch (RuntimeException ex) {
+            MeshLogger.warn(TAG, "Unable to encode the mesh network snapshot: " + ex.getMessage());
+            return;
+        }
+        mExecutor.execute(() -> writeSnapshot(data, generation));
+    }
+
+    private void writeSnapshot(@NonNull final byte[] data, final long generation) {
+        try {
+            final FileOutputStream outputStream = new FileOutputStream(mTempFile);
+            try {
+                outputStream.write(data);
+                outputStream.getFD().sync();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException ex) {
+            MeshLogger.warn(TAG, "Unable to write the mesh network snapshot: " + ex.getMessage());
+            return;
+        }
+        synchronized (this) {
+            // Discard the snapshot if the database has been written to since the network was encoded
+            if (generation == mGeneration && mTempFile.renameTo(mFile)) {
+                mMayExist = true;
+                MeshLogger.verbose(TAG, "Mesh network snapshot written, " + data.length + " bytes");
+                return;
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        mTempFile.delete();
+    }
+
+    /**
+     * Encodes the network to a snapshot.
+     *
+     * @param network         mesh network
+     * @param databaseVersion version of the database
+     */
+    @NonNull
+    static byte[] encode(@NonNull final MeshNetwork network, final int databaseVersion) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream(4096);
+        final DataOutputStream out = new DataOutputStream(stream);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(databaseVersion);
+            writeNetwork(out, network);
+            out.flush();
+        } catch (IOException ex) {
+            // Writing to a ByteArrayOutputStream does not throw
+            throw new IllegalStateException(ex);
+        }
+        final byte[] body = stream.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        final byte[] data = new byte[body.length + 4];
+        System.arraycopy(body, 0, data, 0, body.length);
+        ByteBuffer.wrap(data, body.length, 4).putInt((int) crc.getValue());
+        return data;
+    }
+
+    /**
+     * Decodes a network from a snapshot.
+     *
+     * @param buffer          buffer containing the snapshot
+     * @param databaseVersion version of the database
+     * @throws IOException if the snapshot is corrupt or was written by another version
+     */
+    @NonNull
+    static MeshNetwork decode(@NonNull final ByteBuffer buffer, final int databaseVersion) throws IOException {
+        if (buffer.remaining() < 16)
+            throw new IOException("Snapshot too short");
+        final int bodyLength = buffer.limit() - 4;
+        final CRC32 crc = new CRC32();
+        if (buffer.hasArray()) {
+            crc.update(buffer.array(), buffer.arrayOffset(), bodyLength);
+        } else {
+            final byte[] body = new byte[bodyLength];
+            buffer.duplicate().get(body);
+            crc.update(body, 0, bodyLength);
+        }
+        if ((int) crc.getValue() != buffer.getInt(bodyLength))
+            throw new IOException("Snapshot checksum mismatch");
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("Not a mesh network snapshot");
+        final int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported snapshot version " + version);
+        final int snapshotDatabaseVersion = buffer.getInt();
+        if (snapshotDatabaseVersion != databaseVersion)
+            throw new IOException("Snapshot written for database version " + snapshotDatabaseVersion);
+        buffer.limit(bodyLength);
+        try {
+            return readNetwork(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt snapshot", ex);
+        }
+    }
+
+    private static void writeNetwork(@NonNull final DataOutputStream out, @NonNull final MeshNetwork network) throws IOException {
+        writeString(out, network.meshUUID);
+        writeString(out, network.meshName);
+        out.writeLong(network.timestamp);
+        out.writeBoolean(network.partial);
+        out.writeBoolean(network.lastSelected);
+        final IvIndex ivIndex = network.ivIndex;
+        out.writeInt(ivIndex.getIvIndex());
+        out.writeBoolean(ivIndex.isIvUpdateActive());
+        out.writeBoolean(ivIndex.getIvRecoveryFlag());
+        final Calendar transitionDate = ivIndex.getTransitionDate();
+        out.writeBoolean(transitionDate != null);
+        if (transitionDate != null) {
+            out.writeLong(transitionDate.getTimeInMillis());
+        }
+        out.writeInt(network.networkExclusions.size());
+        for (Map.Entry<Integer, List<Integer>> entry : network.networkExclusions.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeIntegers(out, entry.getValue());
+        }
+
+        out.writeInt(network.netKeys.size());
+        for (NetworkKey key : network.netKeys) {
+            out.writeInt(key.getId());
+            writeString(out, key.getMeshUuid());
+            out.writeInt(key.getKeyIndex());
+            writeString(out, key.getName());
+            writeBytes(out, key.getKey());
+            writeBytes(out, key.getOldKey());
+            out.writeInt(key.getPhase());
+            out.writeBoolean(key.isMinSecurity());
+            out.writeLong(key.getTimestamp());
+        }
+
+        out.writeInt(network.appKeys.size());
+        for (ApplicationKey key : network.appKeys) {
+            out.writeInt(key.getId());
+            writeString(out, key.getMeshUuid());
+            out.writeInt(key.getKeyIndex());
+            writeString(out, key.getName());
+            writeBytes(out, key.getKey());
+            writeBytes(out, key.getOldKey());
+            out.writeInt(key.getBoundNetKeyIndex());
+        }
+
+        out.writeInt(network.provisioners.size());
+        for (Provisioner provisioner : network.provisioners) {
+            writeString(out, provisioner.getMeshUuid());
+            writeString(out, provisioner.getProvisionerUuid());
+            writeString(out, provisioner.getProvisionerName());
+            out.writeInt(provisioner.getAllocatedUnicastRanges().size());
+            for (AllocatedUnicastRange range : provisioner.getAllocatedUnicastRanges()) {
+                out.writeInt(range.getLowAddress());
+                out.writeInt(range.getHighAddress());
+            }
+            out.writeInt(provisioner.getAllocatedGroupRanges().size());
+            for (AllocatedGroupRange range : provisioner.getAllocatedGroupRanges()) {
+                out.writeInt(range.getLowAddress());
+                out.writeInt(range.getHighAddress());
+            }
+            out.writeInt(provisioner.getAllocatedSceneRanges().size());
+            for (AllocatedSceneRange range : provisioner.getAllocatedSceneRanges()) {
+                out.writeInt(range.getFirstScene());
+                out.writeInt(range.getLastScene());
+            }
+            writeInteger(out, provisioner.getProvisionerAddress());
+            out.writeInt(provisioner.getGlobalTtl());
+            out.writeBoolean(provisioner.isLastSelected());
+        }
+
+        out.writeInt(network.nodes.size());
+        for (ProvisionedMeshNode node : network.nodes) {
+            writeNode(out, node);
+        }
+
+        out.writeInt(network.groups.size());
+        for (Group group : network.groups) {
+            out.writeInt(group.id);
+            writeString(out, group.getName());
+            out.writeInt(group.getAddress());
+            writeUuid(out, group.getAddressLabel());
+            out.writeInt(group.getParentAddress());
+            writeUuid(out, group.getParentAddressLabel());
+            writeString(out, group.getMeshUuid());
+        }
+
+        out.writeInt(network.scenes.size());
+        for (Scene scene : network.scenes) {
+            writeString(out, scene.getMeshUuid());
+            writeString(out, scene.getName());
+            out.writeInt(scene.getNumber());
+            writeIntegers(out, scene.getAddresses());
+        }
+    }
+
+    private static void writeNode(@NonNull final DataOutputStream out, @NonNull final ProvisionedMeshNode node) throws IOException {
+        final String uuid = node.getUuid();
+        writeString(out, uuid);
+        writeString(out, node.getMeshUuid());
+        writeString(out, node.getNodeName());
+        out.writeLong(node.getTimeStamp());
+        writeInteger(out, node.getTtl());
+        final Boolean secureNetworkBeacon = node.isSecureNetworkBeaconSupported();
+        out.writeByte(secureNetworkBeacon == null ? -1 : (secureNetworkBeacon ? 1 : 0));
+        final NetworkTransmitSettings networkTransmitSettings = node.getNetworkTransmitSettings();
+        out.writeBoolean(networkTransmitSettings != null);
+        if (networkTransmitSettings != null) {
+            out.writeInt(networkTransmitSettings.getNetworkTransmitCount());
+            out.writeInt(networkTransmitSettings.getNetworkIntervalSteps());
+        }
+        final RelaySettings relaySettings = node.getRelaySettings();
+        out.writeBoolean(relaySettings != null);
+        if (relaySettings != null) {
+            out.writeInt(relaySettings.getRelayTransmitCount());
+            out.writeInt(relaySettings.getRelayIntervalSteps());
+        }
+        out.writeInt(node.getSecurity());
+        out.writeInt(node.getUnicastAddress());
+        out.writeBoolean(node.isConfigured());
+        writeBytes(out, node.getDeviceKey());
+        out.writeInt(node.getSequenceNumber());
+        writeInteger(out, node.getCompanyIdentifier());
+        writeInteger(out, node.getProductIdentifier());
+        writeInteger(out, node.getVersionIdentifier());
+        writeInteger(out, node.getCrpl());
+        final Features features = node.getNodeFeatures();
+        out.writeBoolean(features != null);
+        if (features != null) {
+            out.writeInt(features.getFriend());
+            out.writeInt(features.getLowPower());
+            out.writeInt(features.getProxy());
+            out.writeInt(features.getRelay());
+        }
+        writeNodeKeys(out, node.getAddedNetKeys());
+        writeNodeKeys(out, node.getAddedAppKeys());
+        out.writeBoolean(node.isExcluded());
+
+        // Nodes whose elements are loaded on demand are written without their elements
+        if (!node.isElementsLoaded()) {
+            out.writeBoolean(false);
+            out.writeInt(node.getNumberOfElements());
+            return;
+        }
+        out.writeBoolean(true);
+
+        // Elements are stored as the rows of the element tables, without the node uuid
+        final Map<Integer, Element> elements = node.getElements();
+        final List<ElementEntity> elementEntities = ElementEntityMapper.toElementEntities(uuid, elements);
+        out.writeInt(elementEntities.size());
+        for (ElementEntity entity : elementEntities) {
+            out.writeInt(entity.elementAddress);
+            out.writeInt(entity.locationDescriptor);
+            writeString(out, entity.name);
+        }
+        final List<ModelEntity> modelEntities = ElementEntityMapper.toModelEntities(uuid, elements);
+        out.writeInt(modelEntities.size());
+        for (ModelEntity entity : modelEntities) {
+            out.writeInt(entity.elementAddress);
+            out.writeInt(entity.modelId);
+            writeInteger(out, entity.publishAddress);
+            writeString(out, entity.publishLabelUuid);
+            writeInteger(out, entity.publishAppKeyIndex);
+            out.writeByte(entity.publishCredentialFlag == null ? -1 : (entity.publishCredentialFlag ? 1 : 0));
+            writeInteger(out, entity.publishTtl);
+            writeInteger(out, entity.publicationSteps);
+            writeInteger(out, entity.publicationResolution);
+            writeInteger(out, entity.publishRetransmitCount);
+            writeInteger(out, entity.publishRetransmitIntervalSteps);
+            writeString(out, entity.state);
+        }
+        final List<ModelSubscriptionEntity> subscriptionEntities = ElementEntityMapper.toSubscriptionEntities(uuid, elements);
+        out.writeInt(subscriptionEntities.size());
+        for (ModelSubscriptionEntity entity : subscriptionEntities) {
+            out.writeInt(entity.elementAddress);
+            out.writeInt(entity.modelId);
+            out.writeInt(entity.address);
+            writeString(out, entity.labelUuid);
+        }
+        final List<ModelBindingEntity> bindingEntities = ElementEntityMapper.toBindingEntities(uuid, elements);
+        out.writeInt(bindingEntities.size());
+        for (ModelBindingEntity entity : bindingEntities) {
+            out.writeInt(entity.elementAddress);
+            out.writeInt(entity.modelId);
+            out.writeInt(entity.appKeyIndex);
+        }
+    }
+
+    @NonNull
+    private static MeshNetwork readNetwork(@NonNull final ByteBuffer in) {
+        final MeshNetwork network = new MeshNetwork(readString(in));
+        network.meshName = readString(in);
+        network.timestamp = in.getLong();
+        network.partial = readBoolean(in);
+        network.lastSelected = readBoolean(in);
+        final int ivIndex = in.getInt();
+        final boolean ivUpdateActive = readBoolean(in);
+        final boolean ivRecoveryFlag = readBoolean(in);
+        Calendar transitionDate = null;
+        if (readBoolean(in)) {
+            transitionDate = Calendar.getInstance();
+            transitionDate.setTimeInMillis(in.getLong());
+        }
+        network.ivIndex = new IvIndex(ivIndex, ivUpdateActive, transitionDate);
+        network.ivIndex.setIvRecoveryFlag(ivRecoveryFlag);
+        final int exclusions = readCount(in);
+        final Map<Integer, List<Integer>> networkExclusions = new HashMap<>();
+        for (int i = 0; i < exclusions; i++) {
+            final int key = in.getInt();
+            networkExclusions.put(key, readIntegers(in));
+        }
+        network.networkExclusions = networkExclusions;
+
+        final int netKeys = readCount(in);
+        final List<NetworkKey> networkKeys = new ArrayList<>(netKeys);
+        for (int i = 0; i < netKeys; i++) {
+            final int id = in.getInt();
+            final String meshUuid = readString(in);
+            final int keyIndex = in.getInt();
+            final String name = readString(in);
+            final NetworkKey key = new NetworkKey(keyIndex, readBytes(in));
+            key.setId(id);
+            key.setMeshUuid(meshUuid);
+            key.setName(name);
+            final byte[] oldKey = readBytes(in);
+            if (oldKey != null) {
+                key.setOldKey(oldKey);
+            }
+            key.setPhase(in.getInt());
+            key.setMinSecurity(readBoolean(in));
+            key.setTimestamp(in.getLong());
+            networkKeys.add(key);
+        }
+        network.netKeys = networkKeys;
+
+        final int appKeys = readCount(in);
+        final List<ApplicationKey> applicationKeys = new ArrayList<>(appKeys);
+        for (int i = 0; i < appKeys; i++) {
+            final int id = in.getInt();
+            final String meshUuid = readString(in);
+            final int keyIndex = in.getInt();
+            final String name = readString(in);
+            final ApplicationKey key = new ApplicationKey(keyIndex, readBytes(in));
+            key.setId(id);
+            key.setMeshUuid(meshUuid);
+            key.setName(name);
+            final byte[] oldKey = readBytes(in);
+            if (oldKey != null) {
+                key.setOldKey(oldKey);
+            }
+            key.setBoundNetKeyIndex(in.getInt());
+            applicationKeys.add(key);
+        }
+        network.appKeys = applicationKeys;
+
+        final int provisionerCount = readCount(in);
+        final List<Provisioner> provisioners = new ArrayList<>(provisionerCount);
+        for (int i = 0; i < provisionerCount; i++) {
+            final String meshUuid = readString(in);
+            final String provisionerUuid = readString(in);
+            final String name = readString(in);
+            final int unicastRangeCount = readCount(in);
+            final List<AllocatedUnicastRange> unicastRanges = new ArrayList<>(unicastRangeCount);
+            for (int j = 0; j < unicastRangeCount; j++) {
+                unicastRanges.add(new AllocatedUnicastRange(in.getInt(), in.getInt()));
+            }
+            final int groupRangeCount = readCount(in);
+            final List<AllocatedGroupRange> groupRanges = new ArrayList<>(groupRangeCount);
+            for (int j = 0; j < groupRangeCount; j++) {
+                groupRanges.add(new AllocatedGroupRange(in.getInt(), in.getInt()));
+            }
+            final int sceneRangeCount = readCount(in);
+            final List<AllocatedSceneRange> sceneRanges = new ArrayList<>(sceneRangeCount);
+            for (int j = 0; j < sceneRangeCount; j++) {
+                sceneRanges.add(new AllocatedSceneRange(in.getInt(), in.getInt()));
+            }
+            final Provisioner provisioner = new Provisioner(provisionerUuid, unicastRanges, groupRanges, sceneRanges, meshUuid);
+            provisioner.setProvisionerName(name);
+            provisioner.setProvisionerAddress(readInteger(in));
+            provisioner.setGlobalTtl(in.getInt());
+            provisioner.setLastSelected(readBoolean(in));
+            provisioners.add(provisioner);
+        }
+        network.provisioners = provisioners;
+
+        final int nodeCount = readCount(in);
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(readNode(in));
+        }
+        network.nodes = nodes;
+
+        final int groupCount = readCount(in);
+        final List<Group> groups = new ArrayList<>(groupCount);
+        for (int i = 0; i < groupCount; i++) {
+            final int id = in.getInt();
+            final String name = readString(in);
+            final int address = in.getInt();
+            final UUID addressLabel = readUuid(in);
+            final int parentAddress = in.getInt();
+            final UUID parentAddressLabel = readUuid(in);
+            final Group group = new Group(id, address, addressLabel, parentAddress, parentAddressLabel, readString(in));
+            group.setName(name);
+            groups.add(group);
+        }
+        network.groups = groups;
+
+        final int sceneCount = readCount(in);
+        final List<Scene> scenes = new ArrayList<>(sceneCount);
+        for (int i = 0; i < sceneCount; i++) {
+            final String meshUuid = readString(in);
+            final String name = readString(in);
+            final Scene scene = new Scene(in.getInt(), readIntegers(in), meshUuid);
+            scene.setName(name);
+            scenes.add(scene);
+        }
+        network.scenes = scenes;
+        if (in.hasRemaining())
+            throw new IllegalArgumentException("Unexpected data at the end of the snapshot");
+        return network;
+    }
+
+    @NonNull
+    private static ProvisionedMeshNode readNode(@NonNull final ByteBuffer in) {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        final String uuid = readString(in);
+        node.setUuid(uuid);
+        node.setMeshUuid(readString(in));
+        node.setNodeName(readString(in));
+        node.setTimeStamp(in.getLong());
+        node.setTtl(readInteger(in));
+        final byte secureNetworkBeacon = in.get();
+        node.setSecureNetworkBeaconSupported(secureNetworkBeacon == -1 ? null : secureNetworkBeacon == 1);
+        if (readBoolean(in)) {
+            node.setNetworkTransmitSettings(new NetworkTransmitSettings(in.getInt(), in.getInt()));
+        }
+        if (readBoolean(in)) {
+            node.setRelaySettings(new RelaySettings(in.getInt(), in.getInt()));
+        }
+        node.setSecurity(in.getInt());
+        node.setUnicastAddress(in.getInt());
+        node.setConfigured(readBoolean(in));
+        node.setDeviceKey(readBytes(in));
+        node.setSequenceNumber(in.getInt());
+        node.setCompanyIdentifier(readInteger(in));
+        node.setProductIdentifier(readInteger(in));
+        node.setVersionIdentifier(readInteger(in));
+        node.setCrpl(readInteger(in));
+        if (readBoolean(in)) {
+            node.setNodeFeatures(new Features(in.getInt(), in.getInt(), in.getInt(), in.getInt()));
+        }
+        node.setAddedNetKeys(readNodeKeys(in));
+        node.setAddedAppKeys(readNodeKeys(in));
+        node.setExcluded(readBoolean(in));
+
+        if (!readBoolean(in)) {
+            final int numberOfElements = in.getInt();
+            if (numberOfElements < 0)
+                throw new IllegalArgumentException("Invalid number of elements " + numberOfElements);
+            node.setElementsUnloaded(numberOfElements);
+            return node;
+        }
+        final int elementCount = readCount(in);
+        final List<ElementEntity> elementEntities = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            elementEntities.add(new ElementEntity(uuid, in.getInt(), in.getInt(), readString(in)));
+        }
+        final int modelCount = readCount(in);
+        final List<ModelEntity> modelEntities = new ArrayList<>(modelCount);
+        for (int i = 0; i < modelCount; i++) {
+            final int elementAddress = in.getInt();
+            final int modelId = in.getInt();
+            final Integer publishAddress = readInteger(in);
+            final String publishLabelUuid = readString(in);
+            final Integer publishAppKeyIndex = readInteger(in);
+            final byte credentialFlag = in.get();
+            modelEntities.add(new ModelEntity(uuid, elementAddress, modelId, publishAddress, publishLabelUuid,
+                    publishAppKeyIndex, credentialFlag == -1 ? null : credentialFlag == 1,
+                    readInteger(in), readInteger(in), readInteger(in), readInteger(in), readInteger(in),
+                    readString(in)));
+        }
+        final int subscriptionCount = readCount(in);
+        final List<ModelSubscriptionEntity> subscriptionEntities = new ArrayList<>(subscriptionCount);
+        for (int i = 0; i < subscriptionCount; i++) {
+            subscriptionEntities.add(new ModelSubscriptionEntity(uuid, in.getInt(), in.getInt(), in.getInt(), readString(in)));
+        }
+        final int bindingCount = readCount(in);
+        final List<ModelBindingEntity> bindingEntities = new ArrayList<>(bindingCount);
+        for (int i = 0; i < bindingCount; i++) {
+            bindingEntities.add(new ModelBindingEntity(uuid, in.getInt(), in.getInt(), in.getInt()));
+        }
+        final Map<Integer, Element> elements = ElementEntityMapper.toElements(elementEntities, modelEntities,
+                subscriptionEntities, bindingEntities).get(uuid);
+        if (elements != null) {
+            node.setElements(elements);
+        }
+        return node;
+    }
+
+    private static void writeString(@NonNull final DataOutputStream out, @Nullable final String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(UTF_8));
+    }
+
+    private static void writeBytes(@NonNull final DataOutputStream out, @Nullable final byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static void writeInteger(@NonNull final DataOutputStream out, @Nullable final Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeIntegers(@NonNull final DataOutputStream out, @NonNull final List<Integer> values) throws IOException {
+        out.writeInt(values.size());
+        for (Integer value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeUuid(@NonNull final DataOutputStream out, @Nullable final UUID uuid) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static void writeNodeKeys(@NonNull final DataOutputStream out, @NonNull final List<NodeKey> keys) throws IOException {
+        out.writeInt(keys.size());
+        for (NodeKey key : keys) {
+            out.writeInt(key.getIndex());
+            out.writeBoolean(key.isUpdated());
+        }
+    }
+
+    private static boolean readBoolean(@NonNull final ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    private static int readCount(@NonNull final ByteBuffer in) {
+        final int count = in.getInt();
+        if (count < 0 || count > in.remaining())
+            throw new IllegalArgumentException("Invalid count " + count);
+        return count;
+    }
+
+    @Nullable
+    private static byte[] readBytes(@NonNull final ByteBuffer in) {
+        final int length = in.getInt();
+        if (length == -1)
+            return null;
+        if (length < 0 || length > in.remaining())
+            throw new IllegalArgumentException("Invalid length " + length);
+        final byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+
+    @Nullable
+    private static String readString(@NonNull final ByteBuffer in) {
+        final byte[] value = readBytes(in);
+        return value == null ? null : new String(value, UTF_8);
+    }
+
+    @Nullable
+    private static Integer readInteger(@NonNull final ByteBuffer in) {
+        return readBoolean(in) ? in.getInt() : null;
+    }
+
+    @NonNull
+    private static List<Integer> readIntegers(@NonNull final ByteBuffer in) {
+        final int count = readCount(in);
+        final List<Integer> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.getInt());
+        }
+        return values;
+    }
+
+    @Nullable
+    private static UUID readUuid(@NonNull final ByteBuffer in) {
+        return readBoolean(in) ? new UUID(in.getLong(), in.getLong()) : null;
+    }
+
+    @NonNull
+    private static List<NodeKey> readNodeKeys(@NonNull final ByteBuffer in) {
+        final int count = readCount(in);
+        final List<NodeKey> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(new NodeKey(in.getInt(), readBoolean(in)));
+        }
+        return keys;
+    }
+}
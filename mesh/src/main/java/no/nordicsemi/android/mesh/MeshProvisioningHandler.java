@@ -23,47 +23,47 @@
 package no.nordicsemi.android.mesh;
 
 import android.content.Context;
-import no.nordicsemi.android.mesh.logger.MeshLogger;
+import android.os.Handler;
 
-import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCapabilities;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCapabilitiesState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCompleteState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningConfirmationState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningDataState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningFailedState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningInputCompleteState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningInviteState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningPublicKeyState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningRandomConfirmationState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningStartState;
-import no.nordicsemi.android.mesh.provisionerstates.ProvisioningState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningKeyPairPool;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
-import no.nordicsemi.android.mesh.transport.MeshModel;
-import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.mesh.utils.InputOOBAction;
-import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 import no.nordicsemi.android.mesh.utils.OutputOOBAction;
 import no.nordicsemi.android.mesh.utils.StaticOOBType;
 
-class MeshProvisioningHandler implements InternalProvisioningCallbacks {
+/**
+ * Provisions devices, each in its own {@link ProvisioningSession} keyed by the device UUID.
+ * <p>
+ * Sessions are independent of each other so that several devices may be provisioned at the same time, each over its
+ * own bearer. The methods that do not take a device UUID address the session that was identified last, which is the
+ * single bearer case.
+ * </p>
+ * <p>
+ * Bearer callbacks, the handler and the crypto of the sessions may run on different threads, so the sessions are only
+ * accessed while holding their lock. Sessions are called outside the lock as they notify the callbacks.
+ * </p>
+ */
+class MeshProvisioningHandler implements ProvisioningSession.Listener {
     private static final String TAG = MeshProvisioningHandler.class.getSimpleName();
     static final int ATTENTION_TIMER = 5; //seconds
+    static final int DEFAULT_KEY_PAIR_POOL_SIZE = 1;
     private final InternalTransportCallbacks mInternalTransportCallbacks;
     private final Context mContext;
-    private MeshProvisioningStatusCallbacks mStatusCallbacks;
-    private UnprovisionedMeshNode mUnprovisionedMeshNode;
-    private byte attentionTimer = ATTENTION_TIMER;
-
-    private ProvisioningState provisioningState;
-    private boolean isProvisioningPublicKeySent;
-    private boolean isProvisioneePublicKeyReceived;
+    private final Handler mHandler;
+    private final ProvisioningKeyPairPool mKeyPairPool = new ProvisioningKeyPairPool();
     private final InternalMeshManagerCallbacks mInternalMeshManagerCallbacks;
-    private byte[] confirmationInputs;
+    // Guards the sessions and the current session
+    private final Map<UUID, ProvisioningSession> mSessions = new LinkedHashMap<>();
+    private MeshProvisioningStatusCallbacks mStatusCallbacks;
+    private ProvisioningSession mCurrentSession;
 
     /**
      * Constructs the mesh provisioning handler
@@ -72,20 +72,33 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
      * </p>
      *
      * @param context                      context
+     * @param handler                      handler the provisioning steps continue on once their crypto has completed
      * @param mInternalTransportCallbacks  {@link InternalTransportCallbacks} callbacks
      * @param internalMeshManagerCallbacks {@link InternalMeshManagerCallbacks} callbacks
      */
-    MeshProvisioningHandler(final Context context, final InternalTransportCallbacks mInternalTransportCallbacks, final InternalMeshManagerCallbacks internalMeshManagerCallbacks) {
+    MeshProvisioningHandler(final Context context, final Handler handler, final InternalTransportCallbacks mInternalTransportCallbacks, final InternalMeshManagerCallbacks internalMeshManagerCallbacks) {
         this.mContext = context;
+        this.mHandler = handler;
         this.mInternalTransportCallbacks = mInternalTransportCallbacks;
         this.mInternalMeshManagerCallbacks = internalMeshManagerCallbacks;
     }
 
     /**
-     * Returns the unprovisioned mesh node
+     * Returns the unprovisioned mesh node of the session that was identified last
      */
     public UnprovisionedMeshNode getMeshNode() {
-        return mUnprovisionedMeshNode;
+        final ProvisioningSession session = getCurrentSession();
+        return session == null ? null : session.getMeshNode();
+    }
+
+    /**
+     * Returns the devices that are currently being provisioned
+     */
+    @NonNull
+    List<UUID> getProvisioningSessions() {
+        synchronized (mSessions) {
+            return new ArrayList<>(mSessions.keySet());
+        }
     }
 
     /**
@@ -94,184 +107,102 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
      * @param provisioningCallbacks {@link MeshProvisioningStatusCallbacks} callbacks
      */
     void setProvisioningCallbacks(MeshProvisioningStatusCallbacks provisioningCallbacks) {
-        this.mStatusCallbacks = provisioningCallbacks;
+        final List<ProvisioningSession> sessions;
+        synchronized (mSessions) {
+            this.mStatusCallbacks = provisioningCallbacks;
+            sessions = new ArrayList<>(mSessions.values());
+        }
+        for (ProvisioningSession session : sessions) {
+            session.setProvisioningCallbacks(provisioningCallbacks);
+        }
     }
 
-    void parseProvisioningNotifications(final byte[] data) {
-        final UnprovisionedMeshNode unprovisionedMeshNode = mUnprovisionedMeshNode;
-        try {
-            switch (provisioningState.getState()) {
-                case PROVISIONING_INVITE:
-                    break;
-                case PROVISIONING_CAPABILITIES:
-                    if (validateMessage(data)) {
-                        if (!parseProvisioningCapabilitiesMessage(unprovisionedMeshNode, data)) {
-                            parseProvisioningState(unprovisionedMeshNode, data);
-                        }
-                    } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                    }
-                    break;
-                case PROVISIONING_START:
-                    break;
-                case PROVISIONING_PUBLIC_KEY:
-                    if (validateMessage(data)) {
-                        parseProvisioneePublicKeyXY(unprovisionedMeshNode, data);
-                    } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                    }
-                    break;
-                case PROVISIONING_INPUT_COMPLETE:
-                    if (validateMessage(data)) {
-                        if (parseProvisioningInputCompleteState(data)) {
-                            sendProvisioningConfirmation(null);
-                        }
-                    } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                    }
-                    break;
-                case PROVISIONING_CONFIRMATION:
-                    if (validateMessage(data)) {
-                        if (parseProvisioneeConfirmation(data)) {
-                            sendRandomConfirmationPDU(unprovisionedMeshNode);
-                        }
-                    } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                    }
-                    break;
-                case PROVISIONING_RANDOM:
-                    if (validateMessage(data)) {
-                        if (parseProvisioneeRandom(data)) {
-                            sendProvisioningData(unprovisionedMeshNode);
-                        } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                        }
-                    } else {
-                        parseProvisioningState(unprovisionedMeshNode, data);
-                    }
-                    break;
-                case PROVISIONING_DATA:
-                case PROVISIONING_COMPLETE:
-                case PROVISIONING_FAILED:
-                    parseProvisioningState(unprovisionedMeshNode, data);
-                    break;
+    /**
+     * Sets the number of provisioner key pairs generated in the background ahead of provisioning.
+     *
+     * @param size number of key pairs, 0 to generate the key pair when provisioning a device
+     * @throws IllegalArgumentException if the size is negative
+     */
+    void setKeyPairPoolSize(final int size) {
+        mKeyPairPool.setSize(size);
+    }
 
-            }
-        } catch (Exception ex) {
-            MeshLogger.error(TAG, "Exception in " + provisioningState.getState().name() + " : " + ex.getMessage());
-            parseProvisioningState(unprovisionedMeshNode, data);
+    void parseProvisioningNotifications(final byte[] data) {
+        final ProvisioningSession session = getCurrentSession();
+        if (session != null) {
+            session.parseProvisioningNotifications(data);
         }
     }
 
     void handleProvisioningWriteCallbacks() {
-        final UnprovisionedMeshNode unprovisionedMeshNode = mUnprovisionedMeshNode;
-        switch (provisioningState.getState()) {
-            case PROVISIONING_INVITE:
-                provisioningState = new ProvisioningCapabilitiesState(unprovisionedMeshNode, mStatusCallbacks);
-                break;
-            case PROVISIONING_CAPABILITIES:
-                break;
-            case PROVISIONING_START:
-            case PROVISIONING_PUBLIC_KEY:
-                //Devices with lower mtu have to send the key in multiple segments
-                sendProvisionerPublicKey(unprovisionedMeshNode);
-                break;
-            case PROVISIONING_INPUT_COMPLETE:
-                break;
-            case PROVISIONING_CONFIRMATION:
-                break;
-            case PROVISIONING_RANDOM:
-                break;
-            case PROVISIONING_DATA:
-                break;
+        final ProvisioningSession session = getCurrentSession();
+        if (session != null) {
+            session.handleProvisioningWriteCallbacks();
         }
     }
 
-    private void parseProvisioningState(final UnprovisionedMeshNode unprovisionedMeshNode, final byte[] data) {
-        isProvisioningPublicKeySent = false;
-        isProvisioneePublicKeyReceived = false;
-        if (data[1] == ProvisioningState.State.PROVISIONING_COMPLETE.getState()) {
-            provisioningState = new ProvisioningCompleteState(unprovisionedMeshNode);
-            //Generate the network id and store it in the mesh node, this is needed to reconnect to the device at a later stage.
-            final ProvisionedMeshNode provisionedMeshNode = new ProvisionedMeshNode(unprovisionedMeshNode);
-            mInternalMeshManagerCallbacks.onNodeProvisioned(provisionedMeshNode, unprovisionedMeshNode.getProvisioningCapabilities().getNumberOfElements());
-            mStatusCallbacks.onProvisioningCompleted(provisionedMeshNode, ProvisioningState.States.PROVISIONING_COMPLETE, data);
-        } else {
-            final ProvisioningFailedState provisioningFailedState = new ProvisioningFailedState();
-            provisioningState = provisioningFailedState;
-            if (provisioningFailedState.parseData(data)) {
-                mStatusCallbacks.onProvisioningFailed(unprovisionedMeshNode, ProvisioningState.States.PROVISIONING_FAILED, data);
-            }
-        }
+    /**
+     * Handles a pdu segment received from a device on its own bearer.
+     *
+     * @param deviceUuid device UUID
+     * @param data       pdu segment
+     */
+    void handleNotifications(@NonNull final UUID deviceUuid, @NonNull final byte[] data) {
+        getSession(deviceUuid).handleNotifications(data);
     }
 
     /**
-     * Initializes a mesh node object to be provisioned
+     * Handles a pdu segment written to a device on its own bearer.
      *
-     * @param uuid       Device UUID of unprovisioned node
-     * @param networkKey Network key
-     * @param flags      Flag containing the key refresh or the iv update operations
-     * @param ivIndex    32-bit value shared across the network
-     * @param globalTtl  Global ttl which is also the number of hops to be used for a message
-     * @return {@link MeshModel} to be provisioned
+     * @param deviceUuid device UUID
+     * @param data       pdu segment
      */
-    private UnprovisionedMeshNode initializeMeshNode(@NonNull final UUID uuid,
-                                                     @NonNull final NetworkKey networkKey,
-                                                     final int flags,
-                                                     final int ivIndex,
-                                                     final int globalTtl) throws IllegalArgumentException {
-        UnprovisionedMeshNode unprovisionedMeshNode = null;
-
-        if (validateProvisioningDataInput(networkKey, flags, ivIndex)) {
-            final byte[] flagBytes = ByteBuffer.allocate(1).put((byte) flags).array();
-
-            byte[] ivIndexBytes = null;
-            if (MeshParserUtils.validateIvIndexInput(mContext, ivIndex)) {
-                ivIndexBytes = ByteBuffer.allocate(4).putInt(ivIndex).array();
-            }
-
-            unprovisionedMeshNode = new UnprovisionedMeshNode(uuid);
-            unprovisionedMeshNode.setNetworkKey(networkKey.getTxNetworkKey());
-            unprovisionedMeshNode.setKeyIndex(networkKey.getKeyIndex());
-            unprovisionedMeshNode.setFlags(flagBytes);
-            unprovisionedMeshNode.setIvIndex(ivIndexBytes);
-            unprovisionedMeshNode.setTtl(globalTtl);
-            mUnprovisionedMeshNode = unprovisionedMeshNode;
-        }
-        return unprovisionedMeshNode;
+    void handleWriteCallbacks(@NonNull final UUID deviceUuid, @NonNull final byte[] data) {
+        getSession(deviceUuid).handleWriteCallbacks(data);
     }
 
-    private boolean validateProvisioningDataInput(final NetworkKey networkKey,
-                                                  final Integer flags, final Integer ivIndex) {
-        String error;
-
-        if (networkKey == null) {
-            error = "Network key cannot be null or empty!";
-            throw new IllegalArgumentException(error);
-        }
-
-        if (networkKey.getKey() == null || networkKey.getKey().length != 16) {
-            error = "Network key length must be 16 octets!";
-            throw new IllegalArgumentException(error);
+    /**
+     * Handles a complete provisioning pdu received from a device, see {@link RemoteProvisioningBearer}.
+     *
+     * @param deviceUuid device UUID
+     * @param pdu        provisioning pdu starting with the provisioning proxy pdu type
+     */
+    void parseProvisioningNotifications(@NonNull final UUID deviceUuid, @NonNull final byte[] pdu) {
+        final ProvisioningSession session = findSession(deviceUuid);
+        if (session != null) {
+            session.parseProvisioningNotifications(pdu);
         }
+    }
 
-        if (flags == null) {
-            error = "Flags cannot be null!";
-            throw new IllegalArgumentException(error);
+    /**
+     * Handles a provisioning pdu having been delivered to a device, see {@link RemoteProvisioningBearer}.
+     *
+     * @param deviceUuid device UUID
+     */
+    void handleProvisioningWriteCallbacks(@NonNull final UUID deviceUuid) {
+        final ProvisioningSession session = findSession(deviceUuid);
+        if (session != null) {
+            session.handleProvisioningWriteCallbacks();
         }
+    }
 
-        if (ivIndex == null) {
-            error = "IV Index cannot be null!";
-            throw new IllegalArgumentException(error);
+    /**
+     * Fails provisioning a device whose bearer has been closed.
+     *
+     * @param deviceUuid device UUID
+     */
+    void onBearerClosed(@NonNull final UUID deviceUuid) {
+        final ProvisioningSession session = findSession(deviceUuid);
+        if (session != null) {
+            session.onBearerClosed();
         }
-
-        return true;
     }
 
     /**
      * Identifies the node that is to be provisioned.
      * <p>
-     * This method will send a provisioning invite to the connected peripheral. This will help users to identify a particular node before starting the provisioning process.
+     * This method will send a provisioning invite to the device. This will help users to identify a particular node before starting the provisioning process.
+     * A session that was in progress for the same device is cancelled.
      * This method must be invoked before calling {@link #startProvisioningNoOOB(UnprovisionedMeshNode)}
      * </p
      *
@@ -288,11 +219,23 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
                   final int ivIndex,
                   final int globalTtl,
                   final int attentionTimer) throws IllegalArgumentException {
-        confirmationInputs = null;
-        this.attentionTimer = (byte) attentionTimer;
-        final UnprovisionedMeshNode unprovisionedMeshNode =
-                initializeMeshNode(uuid, networkKey, flags, ivIndex, globalTtl);
-        sendProvisioningInvite(unprovisionedMeshNode);
+        final ProvisioningSession previous = findSession(uuid);
+        if (previous != null) {
+            previous.cancel();
+        }
+        final ProvisioningSession session;
+        synchronized (mSessions) {
+            session = new ProvisioningSession(uuid, mContext, mHandler, mKeyPairPool,
+                    mInternalTransportCallbacks, mInternalMeshManagerCallbacks, mStatusCallbacks, this);
+            mSessions.put(uuid, session);
+            mCurrentSession = session;
+        }
+        try {
+            session.identify(networkKey, flags, ivIndex, globalTtl, attentionTimer);
+        } catch (IllegalArgumentException ex) {
+            session.cancel();
+            throw ex;
+        }
     }
 
     /**
@@ -305,7 +248,7 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
      */
     void startProvisioningNoOOB(@NonNull final UnprovisionedMeshNode node) throws
             IllegalArgumentException {
-        sendProvisioningStart(node);
+        getSession(node.getDeviceUuid()).startProvisioning(null, null, null);
     }
 
     /**
@@ -318,7 +261,7 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
      */
     void startProvisioningWithStaticOOB(
             @NonNull final UnprovisionedMeshNode node) throws IllegalArgumentException {
-        sendProvisioningStartWithStaticOOB(node);
+        getSession(node.getDeviceUuid()).startProvisioning(StaticOOBType.STATIC_OOB_AVAILABLE, null, null);
     }
 
     /**
@@ -333,7 +276,7 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
     void startProvisioningWithOutputOOB(
             @NonNull final UnprovisionedMeshNode node,
             @NonNull final OutputOOBAction action) throws IllegalArgumentException {
-        sendProvisioningStartWithOutputOOB(node, action);
+        getSession(node.getDeviceUuid()).startProvisioning(null, action, null);
     }
 
     /**
@@ -348,227 +291,76 @@ class MeshProvisioningHandler implements InternalProvisioningCallbacks {
     void startProvisioningWithInputOOB(
             @NonNull final UnprovisionedMeshNode node,
             @NonNull final InputOOBAction action) throws IllegalArgumentException {
-        sendProvisioningStartWithInputOOB(node, action);
-    }
-
-    private void sendProvisioningInvite(final UnprovisionedMeshNode node) {
-        isProvisioningPublicKeySent = false;
-        isProvisioneePublicKeyReceived = false;
-        final ProvisioningInviteState invite = new ProvisioningInviteState(node, attentionTimer, mInternalTransportCallbacks, mStatusCallbacks);
-        provisioningState = invite;
-        invite.executeSend();
+        getSession(node.getDeviceUuid()).startProvisioning(null, null, action);
     }
 
     /**
-     * Read provisioning capabilities of node
+     * Sends the provisioning confirmation of the session that was identified last
      *
-     * @param capabilities provisioning capabilities of the node
-     * @return true if the message is valid
+     * @param authentication authentication value input by the user this may be nullable depending on the OOB type selected by the user
      */
-    private boolean parseProvisioningCapabilitiesMessage(
-            final UnprovisionedMeshNode node, final byte[] capabilities) {
-        final ProvisioningCapabilitiesState provisioningCapabilitiesState = new ProvisioningCapabilitiesState(node, mStatusCallbacks);
-        provisioningState = provisioningCapabilitiesState;
-        return provisioningCapabilitiesState.parseData(capabilities);
-    }
-
-    private void sendProvisioningStart(final UnprovisionedMeshNode node) {
-        final ProvisioningCapabilitiesState capabilitiesState = (ProvisioningCapabilitiesState) provisioningState;
-        final ProvisioningCapabilities capabilities = capabilitiesState.getCapabilities();
-        final ProvisioningStartState startProvisioning = new ProvisioningStartState(node, capabilities, mInternalTransportCallbacks, mStatusCallbacks);
-        provisioningState = startProvisioning;
-        startProvisioning.executeSend();
-    }
-
-    private void sendProvisioningStartWithStaticOOB(
-            final UnprovisionedMeshNode node) {
-        final ProvisioningCapabilitiesState capabilitiesState = (ProvisioningCapabilitiesState) provisioningState;
-        final ProvisioningCapabilities capabilities = capabilitiesState.getCapabilities();
-
-        final ProvisioningStartState startProvisioning = new ProvisioningStartState(node, capabilities, mInternalTransportCallbacks, mStatusCallbacks);
-        startProvisioning.setUseStaticOOB(StaticOOBType.STATIC_OOB_AVAILABLE);
-        provisioningState = startProvisioning;
-        startProvisioning.executeSend();
-    }
-
-    private void sendProvisioningStartWithOutputOOB(
-            final UnprovisionedMeshNode node, final OutputOOBAction action) {
-        final ProvisioningCapabilitiesState capabilitiesState = (ProvisioningCapabilitiesState) provisioningState;
-        final ProvisioningCapabilities capabilities = capabilitiesState.getCapabilities();
-
-        final ProvisioningStartState startProvisioning = new ProvisioningStartState(node, capabilities, mInternalTransportCallbacks, mStatusCallbacks);
-        startProvisioning.setUseOutputOOB(action);
-        provisioningState = startProvisioning;
-        startProvisioning.executeSend();
-    }
-
-    private void sendProvisioningStartWithInputOOB(
-            final UnprovisionedMeshNode node, final InputOOBAction action) {
-        final ProvisioningCapabilitiesState capabilitiesState = (ProvisioningCapabilitiesState) provisioningState;
-        final ProvisioningCapabilities capabilities = capabilitiesState.getCapabilities();
-
-        final ProvisioningStartState startProvisioning = new ProvisioningStartState(node, capabilities, mInternalTransportCallbacks, mStatusCallbacks);
-        startProvisioning.setUseInputOOB(action);
-        provisioningState = startProvisioning;
-        startProvisioning.executeSend();
-    }
-
-
-    private void sendProvisionerPublicKey(final UnprovisionedMeshNode node) {
-        if (!isProvisioningPublicKeySent) {
-            if (provisioningState instanceof ProvisioningPublicKeyState) {
-                isProvisioningPublicKeySent = true;
-                provisioningState.executeSend();
-            } else {
-                final ProvisioningPublicKeyState provisioningPublicKeyState = new ProvisioningPublicKeyState(node, mInternalTransportCallbacks, mStatusCallbacks);
-                provisioningState = provisioningPublicKeyState;
-                isProvisioningPublicKeySent = true;
-                provisioningPublicKeyState.executeSend();
-                if (node.getProvisioningCapabilities().isPublicKeyOobSupported() && node.getProvisioneePublicKeyXY() != null) {
-                    isProvisioneePublicKeyReceived = provisioningPublicKeyState.parseData(node.getProvisioneePublicKeyXY());
-                    if (isProvisioningPublicKeySent && isProvisioneePublicKeyReceived) {
-                        handleConfirmationState(node, null);
-                    }
-                }
-            }
-        }
-    }
-
-    private void parseProvisioneePublicKeyXY(final UnprovisionedMeshNode node, final byte[] data) {
-        if (provisioningState instanceof ProvisioningPublicKeyState) {
-            final ProvisioningPublicKeyState provisioningPublicKeyState = ((ProvisioningPublicKeyState) provisioningState);
-            if (data.length != 66) {
-                throw new IllegalArgumentException("Invalid Provisionee Public Key PDU," +
-                        " length of the Provisionee public key must be 66 bytes, but was " + data.length);
-            }
-            final ByteBuffer buffer = ByteBuffer.allocate(data.length - 2);
-            buffer.put(data, 2, buffer.limit());
-            final byte[] xy = buffer.array();
-            isProvisioneePublicKeyReceived = provisioningPublicKeyState.parseData(xy);
-            if (isProvisioningPublicKeySent && isProvisioneePublicKeyReceived) {
-                handleConfirmationState(node, data);
-            }
-        }
-    }
-
-    private void handleConfirmationState(final UnprovisionedMeshNode node, final byte[] data) {
-        switch (node.getAuthMethodUsed()) {
-            case STATIC_OOB_AUTHENTICATION:
-                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
-                mStatusCallbacks.onProvisioningStateChanged(mUnprovisionedMeshNode, ProvisioningState.States.PROVISIONING_AUTHENTICATION_STATIC_OOB_WAITING, data);
-                break;
-            case OUTPUT_OOB_AUTHENTICATION:
-                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
-                mStatusCallbacks.onProvisioningStateChanged(mUnprovisionedMeshNode, ProvisioningState.States.PROVISIONING_AUTHENTICATION_OUTPUT_OOB_WAITING, data);
-                break;
-            case INPUT_OOB_AUTHENTICATION:
-                provisioningState = new ProvisioningInputCompleteState(node, mInternalTransportCallbacks, mStatusCallbacks);
-                mStatusCallbacks.onProvisioningStateChanged(mUnprovisionedMeshNode, ProvisioningState.States.PROVISIONING_AUTHENTICATION_INPUT_OOB_WAITING, data);
-                break;
-            default:
-                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
-                sendProvisioningConfirmation("");
-                break;
-        }
+    void sendProvisioningConfirmation(@Nullable final String authentication) {
+        final ProvisioningSession session = getCurrentSession();
+        if (session == null)
+            throw new IllegalArgumentException("No device is being provisioned");
+        session.sendProvisioningConfirmation(authentication);
     }
 
     /**
-     * Sends the provisioning confirmation
+     * Sends the provisioning confirmation to a device
      *
+     * @param deviceUuid     device UUID
      * @param authentication authentication value input by the user this may be nullable depending on the OOB type selected by the user
      */
-    void sendProvisioningConfirmation(@Nullable final String authentication) {
-        final ProvisioningConfirmationState provisioningConfirmationState;
-        // Check if the current provisioning state, if the user had selected InputOOBAction the state will be ProvisioningInputCompleteState
-        if (provisioningState instanceof ProvisioningInputCompleteState) {
-            provisioningConfirmationState = new ProvisioningConfirmationState(mUnprovisionedMeshNode, this, mInternalTransportCallbacks, mStatusCallbacks);
-            provisioningState = provisioningConfirmationState;
-        } else {
-            provisioningConfirmationState = (ProvisioningConfirmationState) provisioningState;
-            provisioningConfirmationState.setProvisioningAuthentication(authentication);
-        }
-        provisioningConfirmationState.executeSend();
-    }
-
-    private boolean parseProvisioningInputCompleteState(@NonNull final byte[] data) {
-        final ProvisioningInputCompleteState inputCompleteState = (ProvisioningInputCompleteState) provisioningState;
-        return inputCompleteState.parseData(data);
-    }
-
-    private boolean parseProvisioneeConfirmation(final byte[] data) {
-        final ProvisioningConfirmationState provisioningConfirmationState = (ProvisioningConfirmationState) provisioningState;
-        return provisioningConfirmationState.parseData(data);
+    void sendProvisioningConfirmation(@NonNull final UUID deviceUuid, @Nullable final String authentication) {
+        getSession(deviceUuid).sendProvisioningConfirmation(authentication);
     }
 
-    private void sendRandomConfirmationPDU(final UnprovisionedMeshNode node) {
-        final ProvisioningRandomConfirmationState provisioningRandomConfirmation = new ProvisioningRandomConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
-        provisioningState = provisioningRandomConfirmation;
-        provisioningRandomConfirmation.executeSend();
-    }
-
-    private boolean parseProvisioneeRandom(final byte[] data) {
-        final ProvisioningRandomConfirmationState provisioningRandomConfirmation = (ProvisioningRandomConfirmationState) provisioningState;
-        return provisioningRandomConfirmation.parseData(data);
+    /**
+     * Cancels provisioning a device, the provisioning callbacks are not notified.
+     *
+     * @param deviceUuid device UUID
+     * @return true if the device was being provisioned
+     */
+    boolean cancel(@NonNull final UUID deviceUuid) {
+        final ProvisioningSession session = findSession(deviceUuid);
+        if (session == null)
+            return false;
+        session.cancel();
+        return true;
     }
 
-    private void sendProvisioningData(final UnprovisionedMeshNode node) {
-        final ProvisioningDataState provisioningDataState = new ProvisioningDataState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
-        provisioningState = provisioningDataState;
-        provisioningDataState.executeSend();
+    @Override
+    public void onSessionClosed(@NonNull final ProvisioningSession session) {
+        synchronized (mSessions) {
+            if (mCurrentSession == session) {
+                mCurrentSession = null;
+            }
+            if (mSessions.get(session.getDeviceUuid()) != session)
+                return;
+            mSessions.remove(session.getDeviceUuid());
+        }
+        mInternalMeshManagerCallbacks.onProvisioningSessionClosed(session.getDeviceUuid());
     }
 
-    private boolean validateMessage(final byte[] data) {
-        final ProvisioningState state = provisioningState;
-        return data[1] == state.getState().ordinal();
-
+    @Nullable
+    private ProvisioningSession getCurrentSession() {
+        synchronized (mSessions) {
+            return mCurrentSession;
+        }
     }
 
-    /**
-     * Generates the confirmation inputs for a provisionee
-     *
-     * @param provisionerKeyXY xy components of the provisioner public key
-     * @param provisioneeKeyXY xy components of the provisionee public key
-     */
-    public final byte[] generateConfirmationInputs(final byte[] provisionerKeyXY,
-                                                   final byte[] provisioneeKeyXY) {
-        //invite: 1 bytes, capabilities: 11 bytes, start: 5 bytes, provisionerKey: 64 bytes, deviceKey: 64 bytes
-        //Append all the raw data together
-        if (confirmationInputs != null) {
-            return confirmationInputs;
+    @Nullable
+    private ProvisioningSession findSession(final UUID deviceUuid) {
+        synchronized (mSessions) {
+            return mSessions.get(deviceUuid);
         }
+    }
 
-        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
-        final int offset = 2;
-        final int inviteLength = mUnprovisionedMeshNode.getProvisioningInvitePdu().length - offset;
-        final ByteBuffer inviteBuffer = ByteBuffer.allocate(inviteLength).
-                put(mUnprovisionedMeshNode.getProvisioningInvitePdu(), offset, inviteLength);
-        final byte[] invite = inviteBuffer.array();
-
-        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
-        final int capabilitiesLength = mUnprovisionedMeshNode.getProvisioningCapabilitiesPdu().length - offset;
-        final ByteBuffer capabilitiesBuffer = ByteBuffer.allocate(capabilitiesLength)
-                .put(mUnprovisionedMeshNode.getProvisioningCapabilitiesPdu(), offset, capabilitiesLength);
-        final byte[] capabilities = capabilitiesBuffer.array();
-
-        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
-        final int startDataLength = mUnprovisionedMeshNode.getProvisioningStartPdu().length - offset;
-        final ByteBuffer startDataBuffer = ByteBuffer.allocate(startDataLength).
-                put(mUnprovisionedMeshNode.getProvisioningStartPdu(), offset, startDataLength);
-        final byte[] startData = startDataBuffer.array();//get(startData, 2, startDataLength);
-
-        final int length = invite.length +
-                capabilities.length +
-                startData.length +
-                provisionerKeyXY.length +
-                provisioneeKeyXY.length;
-
-        final ByteBuffer buffer = ByteBuffer.allocate(length);
-        buffer.put(invite);
-        buffer.put(capabilities);
-        buffer.put(startData);
-        buffer.put(provisionerKeyXY);
-        buffer.put(provisioneeKeyXY);
-        confirmationInputs = buffer.array();
-        return confirmationInputs;
+    private ProvisioningSession getSession(final UUID deviceUuid) {
+        final ProvisioningSession session = findSession(deviceUuid);
+        if (session == null)
+            throw new IllegalArgumentException("Device " + deviceUuid + " is not being provisioned, identify it first");
+        return session;
     }
 }
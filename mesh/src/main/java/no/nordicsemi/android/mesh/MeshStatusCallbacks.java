@@ -22,6 +22,8 @@
 
 package no.nordicsemi.android.mesh;
 
+import java.util.List;
+
 import androidx.annotation.NonNull;
 
 import no.nordicsemi.android.mesh.transport.ControlMessage;
@@ -81,6 +83,32 @@ public interface MeshStatusCallbacks {
      */
     void onHeartbeatMessageReceived(final int src, @NonNull final ControlMessage message);
 
+    /**
+     * Notifies if heartbeats expected from a node were not received
+     * <p>
+     * Heartbeats are expected from the nodes configured using {@link MeshMngrApi#configureHeartbeatPublications} and
+     * from the nodes whose Heartbeat Publication is known to the network, see {@link MeshMngrApi#getHeartbeatMonitor()}.
+     * </p>
+     *
+     * @param src    Source address of the node
+     * @param missed Number of consecutive heartbeats missed
+     */
+    default void onHeartbeatsMissed(final int src, final int missed) {
+    }
+
+    /**
+     * Notifies if the faults reported by a Health Server changed
+     * <p>
+     * Invoked when a Health Current Status or Health Fault Status reports other faults or another test id than the
+     * previous report of the same type, see {@link MeshMngrApi#getHealthFaultRegistry()}. Identical reports are not
+     * notified.
+     * </p>
+     *
+     * @param faults Faults of the Health Server for the company identifier of the report
+     */
+    default void onHealthFaultsChanged(@NonNull final HealthFaults faults) {
+    }
+
     /**
      * Callback to notify the mesh message has been processed to be sent to the bearer
      *
@@ -102,6 +130,21 @@ public interface MeshStatusCallbacks {
      */
     void onMeshMessageReceived(final int src, @NonNull final MeshMessage meshMessage);
 
+    /**
+     * Callback to notify that a batch of mesh status messages was received from the bearer
+     * <p>
+     * Only invoked when status batching is enabled using {@link MeshMngrApi#setStatusBatching}. By default each message
+     * of the batch is passed to {@link #onMeshMessageReceived(int, MeshMessage)}.
+     * </p>
+     *
+     * @param meshMessages {@link MeshMessage}s received, in the order they were received
+     */
+    default void onMeshMessagesReceived(@NonNull final List<MeshMessage> meshMessages) {
+        for (MeshMessage meshMessage : meshMessages) {
+            onMeshMessageReceived(meshMessage.getSrc(), meshMessage);
+        }
+    }
+
     /**
      * Callback to notify if the decryption failed of a received mesh message
      *
@@ -0,0 +1,370 @@
+package no.nordicsemi.android.mesh;
+
+import android.util.SparseIntArray;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ElementTypeAdapter;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.MeshModelTypeAdapter;
+
+/**
+ * Registry of hand written {@link TypeAdapter}s used to convert the mesh network to and from json.
+ * <p>
+ * The adapters read and write the same json as the reflective adapters Gson creates for these types, so values
+ * stored by earlier versions of the library can still be read. Creating a Gson instance and its reflective adapters
+ * is expensive, {@link #getGson()} returns a single instance that is created once and is safe to use from any thread.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class MeshTypeAdapters {
+
+    private static final Gson GSON = registerTypeAdapters(new GsonBuilder())
+            .registerTypeAdapter(Element.class, new ElementTypeAdapter())
+            .registerTypeHierarchyAdapter(MeshModel.class, new MeshModelTypeAdapter())
+            .registerTypeAdapter(AllocatedUnicastRange.class, new AllocatedUnicastRangeAdapter().nullSafe())
+            .registerTypeAdapter(AllocatedGroupRange.class, new AllocatedGroupRangeAdapter().nullSafe())
+            .registerTypeAdapter(AllocatedSceneRange.class, new AllocatedSceneRangeAdapter().nullSafe())
+            .create();
+
+    private MeshTypeAdapters() {
+    }
+
+    /**
+     * Returns the shared Gson instance used by {@link MeshTypeConverters}.
+     */
+    @NonNull
+    public static Gson getGson() {
+        return GSON;
+    }
+
+    /**
+     * Registers the adapters of the types that are stored in the same json format in the database and in the
+     * exported mesh network.
+     *
+     * @param builder Gson builder
+     * @return the builder
+     */
+    @NonNull
+    public static GsonBuilder registerTypeAdapters(@NonNull final GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(NodeKey.class, new NodeKeyAdapter().nullSafe())
+                .registerTypeAdapter(IvIndex.class, new IvIndexAdapter().nullSafe())
+                .registerTypeAdapter(SparseIntArray.class, new SparseIntArrayAdapter().nullSafe());
+    }
+
+    private static final class NodeKeyAdapter extends TypeAdapter<NodeKey> {
+
+        @Override
+        public void write(final JsonWriter out, final NodeKey value) throws IOException {
+            out.beginObject();
+            out.name("index").value(value.getIndex());
+            out.name("updated").value(value.isUpdated());
+            out.endObject();
+        }
+
+        @Override
+        public NodeKey read(final JsonReader in) throws IOException {
+            int index = 0;
+            boolean updated = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "index":
+                        index = in.nextInt();
+                        break;
+                    case "updated":
+                        updated = in.nextBoolean();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new NodeKey(index, updated);
+        }
+    }
+
+    private static final class IvIndexAdapter extends TypeAdapter<IvIndex> {
+
+        @Override
+        public void write(final JsonWriter out, final IvIndex value) throws IOException {
+            out.beginObject();
+            out.name("ivIndex").value(value.getIvIndex());
+            out.name("isIvUpdateActive").value(value.isIvUpdateActive());
+            out.name("ivRecoveryFlag").value(value.getIvRecoveryFlag());
+            final Calendar transitionDate = value.getTransitionDate();
+            if (transitionDate != null) {
+                out.name("transitionDate");
+                writeCalendar(out, transitionDate);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public IvIndex read(final JsonReader in) throws IOException {
+            int ivIndex = 0;
+            boolean ivUpdateActive = false;
+            boolean ivRecoveryFlag = false;
+            Calendar transitionDate = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "ivIndex":
+                        ivIndex = in.nextInt();
+                        break;
+                    case "isIvUpdateActive":
+                        ivUpdateActive = in.nextBoolean();
+                        break;
+                    case "ivRecoveryFlag":
+                        ivRecoveryFlag = in.nextBoolean();
+                        break;
+                    case "transitionDate":
+                        transitionDate = readCalendar(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            final IvIndex index = new IvIndex(ivIndex, ivUpdateActive, transitionDate);
+            index.setIvRecoveryFlag(ivRecoveryFlag);
+            return index;
+        }
+
+        /**
+         * Writes a calendar in the format used by the built in Gson adapter.
+         */
+        private static void writeCalendar(final JsonWriter out, final Calendar calendar) throws IOException {
+            out.beginObject();
+            out.name("year").value(calendar.get(Calendar.YEAR));
+            out.name("month").value(calendar.get(Calendar.MONTH));
+            out.name("dayOfMonth").value(calendar.get(Calendar.DAY_OF_MONTH));
+            out.name("hourOfDay").value(calendar.get(Calendar.HOUR_OF_DAY));
+            out.name("minute").value(calendar.get(Calendar.MINUTE));
+            out.name("second").value(calendar.get(Calendar.SECOND));
+            out.endObject();
+        }
+
+        private static Calendar readCalendar(final JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            int year = 0, month = 0, dayOfMonth = 0, hourOfDay = 0, minute = 0, second = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "year":
+                        year = in.nextInt();
+                        break;
+                    case "month":
+                        month = in.nextInt();
+                        break;
+                    case "dayOfMonth":
+                        dayOfMonth = in.nextInt();
+                        break;
+                    case "hourOfDay":
+                        hourOfDay = in.nextInt();
+                        break;
+                    case "minute":
+                        minute = in.nextInt();
+                        break;
+                    case "second":
+                        second = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return new GregorianCalendar(year, month, dayOfMonth, hourOfDay, minute, second);
+        }
+    }
+
+    private static final class AllocatedUnicastRangeAdapter extends TypeAdapter<AllocatedUnicastRange> {
+
+        @Override
+        public void write(final JsonWriter out, final AllocatedUnicastRange value) throws IOException {
+            writeAddressRange(out, value);
+        }
+
+        @Override
+        public AllocatedUnicastRange read(final JsonReader in) throws IOException {
+            return readAddressRange(in, new AllocatedUnicastRange());
+        }
+    }
+
+    private static final class AllocatedGroupRangeAdapter extends TypeAdapter<AllocatedGroupRange> {
+
+        @Override
+        public void write(final JsonWriter out, final AllocatedGroupRange value) throws IOException {
+            writeAddressRange(out, value);
+        }
+
+        @Override
+        public AllocatedGroupRange read(final JsonReader in) throws IOException {
+            return readAddressRange(in, new AllocatedGroupRange());
+        }
+    }
+
+    private static void writeAddressRange(final JsonWriter out, final AddressRange range) throws IOException {
+        out.beginObject();
+        out.name("lowAddress").value(range.lowAddress);
+        out.name("highAddress").value(range.highAddress);
+        out.name("lowerBound").value(range.lowerBound);
+        out.name("upperBound").value(range.upperBound);
+        out.endObject();
+    }
+
+    private static <T extends AddressRange> T readAddressRange(final JsonReader in, final T range) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "lowAddress":
+                    range.lowAddress = in.nextInt();
+                    break;
+                case "highAddress":
+                    range.highAddress = in.nextInt();
+                    break;
+                case "lowerBound":
+                    range.lowerBound = in.nextInt();
+                    break;
+                case "upperBound":
+                    range.upperBound = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return range;
+    }
+
+    private static final class AllocatedSceneRangeAdapter extends TypeAdapter<AllocatedSceneRange> {
+
+        @Override
+        public void write(final JsonWriter out, final AllocatedSceneRange value) throws IOException {
+            out.beginObject();
+            out.name("firstScene").value(value.getFirstScene());
+            out.name("lastScene").value(value.getLastScene());
+            out.name("lowerBound").value(value.lowerBound);
+            out.name("upperBound").value(value.upperBound);
+            out.endObject();
+        }
+
+        @Override
+        public AllocatedSceneRange read(final JsonReader in) throws IOException {
+            final AllocatedSceneRange range = new AllocatedSceneRange();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "firstScene":
+                        range.setFirstScene(in.nextInt());
+                        break;
+                    case "lastScene":
+                        range.setLastScene(in.nextInt());
+                        break;
+                    case "lowerBound":
+                        range.lowerBound = in.nextInt();
+                        break;
+                    case "upperBound":
+                        range.upperBound = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return range;
+        }
+    }
+
+    private static final class SparseIntArrayAdapter extends TypeAdapter<SparseIntArray> {
+
+        @Override
+        public void write(final JsonWriter out, final SparseIntArray value) throws IOException {
+            final int size = value.size();
+            out.beginObject();
+            out.name("mKeys").beginArray();
+            for (int i = 0; i < size; i++) {
+                out.value(value.keyAt(i));
+            }
+            out.endArray();
+            out.name("mValues").beginArray();
+            for (int i = 0; i < size; i++) {
+                out.value(value.valueAt(i));
+            }
+            out.endArray();
+            out.name("mSize").value(size);
+            out.endObject();
+        }
+
+        @Override
+        public SparseIntArray read(final JsonReader in) throws IOException {
+            int[] keys = new int[0];
+            int[] values = new int[0];
+            int size = -1;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "mKeys":
+                        keys = readIntArray(in);
+                        break;
+                    case "mValues":
+                        values = readIntArray(in);
+                        break;
+                    case "mSize":
+                        size = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            //The arrays of a SparseIntArray may be longer than the number of mappings
+            final int count = Math.min(size < 0 ? keys.length : size, Math.min(keys.length, values.length));
+            final SparseIntArray array = new SparseIntArray(count);
+            for (int i = 0; i < count; i++) {
+                array.put(keys[i], values[i]);
+            }
+            return array;
+        }
+
+        private static int[] readIntArray(final JsonReader in) throws IOException {
+            int[] array = new int[16];
+            int length = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (length == array.length) {
+                    final int[] grown = new int[array.length * 2];
+                    System.arraycopy(array, 0, grown, 0, length);
+                    array = grown;
+                }
+                array[length++] = in.nextInt();
+            }
+            in.endArray();
+            final int[] result = new int[length];
+            System.arraycopy(array, 0, result, 0, length);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.data.NetworkChange;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Keeps the revision and time at which each entity of the current mesh network was last changed locally.
+ * <p>
+ * The revision of the network is incremented on every change, so that a provisioner can export only the entities
+ * changed since the revision at which it last synced with another provisioner.
+ * </p>
+ */
+final class NetworkChangeLog {
+
+    static final String NETWORK_KEY = "netKey";
+    static final String APPLICATION_KEY = "appKey";
+    static final String PROVISIONER = "provisioner";
+    static final String NODE = "node";
+    static final String GROUP = "group";
+    static final String SCENE = "scene";
+    static final String NETWORK_EXCLUSIONS = "networkExclusions";
+    // The exclusion list is tracked as a single entity of the network
+    static final String NETWORK_EXCLUSIONS_ID = "";
+
+    private static final Comparator<NetworkChange> BY_REVISION = new Comparator<NetworkChange>() {
+        @Override
+        public int compare(final NetworkChange change1, final NetworkChange change2) {
+            return Long.compare(change1.revision, change2.revision);
+        }
+    };
+
+    private final Map<String, NetworkChange> mChanges = new HashMap<>();
+    private final Map<Integer, List<Integer>> mExclusions = new HashMap<>();
+    private String mMeshUuid;
+    private long mRevision;
+
+    /**
+     * Replaces the changes with the changes stored for a network.
+     *
+     * @param meshUuid   uuid of the network
+     * @param changes    stored changes of the network
+     * @param exclusions current exclusion list of the network
+     */
+    synchronized void load(@NonNull final String meshUuid,
+                           @NonNull final List<NetworkChange> changes,
+                           @NonNull final Map<Integer, List<Integer>> exclusions) {
+        mMeshUuid = meshUuid;
+        mRevision = 0;
+        mChanges.clear();
+        for (NetworkChange change : changes) {
+            mChanges.put(key(change.entityType, change.entityId), change);
+            mRevision = Math.max(mRevision, change.revision);
+        }
+        copyExclusions(exclusions);
+    }
+
+    /**
+     * Returns the uuid of the network the changes belong to or null if no network has been loaded.
+     */
+    @Nullable
+    synchronized String getMeshUuid() {
+        return mMeshUuid;
+    }
+
+    /**
+     * Returns the revision of the last change.
+     */
+    synchronized long getRevision() {
+        return mRevision;
+    }
+
+    /**
+     * Records a change of an entity and returns it, or null if no network has been loaded.
+     *
+     * @param type    entity type
+     * @param id      entity id
+     * @param deleted true if the entity was deleted
+     */
+    @Nullable
+    synchronized NetworkChange record(@NonNull final String type, @NonNull final String id, final boolean deleted) {
+        if (mMeshUuid == null)
+            return null;
+        final NetworkChange change = new NetworkChange(mMeshUuid, type, id, ++mRevision, System.currentTimeMillis(), deleted);
+        mChanges.put(key(type, id), change);
+        return change;
+    }
+
+    /**
+     * Records a change of the exclusion list if it differs from the last recorded one.
+     *
+     * @param exclusions current exclusion list of the network
+     * @return the change or null if the exclusion list has not changed
+     */
+    @Nullable
+    synchronized NetworkChange recordExclusions(@NonNull final Map<Integer, List<Integer>> exclusions) {
+        if (mMeshUuid == null || mExclusions.equals(exclusions))
+            return null;
+        copyExclusions(exclusions);
+        return record(NETWORK_EXCLUSIONS, NETWORK_EXCLUSIONS_ID, false);
+    }
+
+    /**
+     * Sets the exclusion list without recording a change, used when the exclusion list was not changed locally.
+     */
+    synchronized void resetExclusions(@NonNull final Map<Integer, List<Integer>> exclusions) {
+        copyExclusions(exclusions);
+    }
+
+    /**
+     * Returns the last change of an entity or null if it has not changed since it was created or imported.
+     */
+    @Nullable
+    synchronized NetworkChange getChange(@NonNull final String type, @NonNull final String id) {
+        return mChanges.get(key(type, id));
+    }
+
+    /**
+     * Returns the changes made after the given revision, ordered by revision.
+     *
+     * @param revision revision of the last sync
+     */
+    @NonNull
+    synchronized List<NetworkChange> getChangesSince(final long revision) {
+        final List<NetworkChange> changes = new ArrayList<>();
+        for (NetworkChange change : mChanges.values()) {
+            if (change.revision > revision) {
+                changes.add(change);
+            }
+        }
+        Collections.sort(changes, BY_REVISION);
+        return changes;
+    }
+
+    private void copyExclusions(@NonNull final Map<Integer, List<Integer>> exclusions) {
+        mExclusions.clear();
+        for (Map.Entry<Integer, List<Integer>> entry : exclusions.entrySet()) {
+            mExclusions.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+    }
+
+    private static String key(@NonNull final String type, @NonNull final String id) {
+        return type + '/' + id;
+    }
+
+    static String idOf(@NonNull final MeshKey key) {
+        return String.valueOf(key.getKeyIndex());
+    }
+
+    static String idOf(@NonNull final Provisioner provisioner) {
+        return MeshParserUtils.uuidToHex(provisioner.getProvisionerUuid());
+    }
+
+    static String idOf(@NonNull final ProvisionedMeshNode node) {
+        return MeshParserUtils.uuidToHex(node.getUuid());
+    }
+
+    static String idOf(@NonNull final Group group) {
+        return MeshAddress.formatAddress(group.getAddress(), false);
+    }
+
+    static String idOf(@NonNull final Scene scene) {
+        return String.format(Locale.US, "%04X", scene.getNumber());
+    }
+}
@@ -0,0 +1,274 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.data.NetworkChange;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static no.nordicsemi.android.mesh.NetworkChangeLog.idOf;
+
+/**
+ * Changes of a mesh network exported by another provisioner.
+ * <p>
+ * The changed entities are contained in a partial network, deleted entities are only listed in the changes.
+ * </p>
+ */
+final class NetworkDelta {
+
+    private static final String TAG = NetworkDelta.class.getSimpleName();
+
+    private final MeshNetwork mNetwork;
+    private final long mFromRevision;
+    private final long mToRevision;
+    private final List<NetworkChange> mChanges;
+
+    NetworkDelta(@NonNull final MeshNetwork network,
+                 final long fromRevision,
+                 final long toRevision,
+                 @NonNull final List<NetworkChange> changes) {
+        this.mNetwork = network;
+        this.mFromRevision = fromRevision;
+        this.mToRevision = toRevision;
+        this.mChanges = changes;
+    }
+
+    /**
+     * Returns the partial network containing the changed entities.
+     */
+    MeshNetwork getNetwork() {
+        return mNetwork;
+    }
+
+    /**
+     * Returns the revision of the exporting provisioner the changes were exported since.
+     */
+    long getFromRevision() {
+        return mFromRevision;
+    }
+
+    /**
+     * Returns the revision of the exporting provisioner at the time of the export.
+     */
+    long getToRevision() {
+        return mToRevision;
+    }
+
+    List<NetworkChange> getChanges() {
+        return mChanges;
+    }
+
+    /**
+     * Applies the changes to a network.
+     * <p>
+     * A change conflicts if the entity was also changed locally after the given revision, unless both changes have the
+     * same result. Conflicting changes are not applied. The changes are persisted through the callbacks of the network.
+     * </p>
+     *
+     * @param network       network the changes are applied to
+     * @param changeLog     local changes of the network
+     * @param sinceRevision local revision at the last sync with the provisioner the delta was exported by
+     * @return the conflicting changes
+     * @throws IllegalArgumentException if the delta belongs to a different network
+     */
+    @NonNull
+    List<NetworkDeltaConflict> merge(@NonNull final MeshNetwork network,
+                                     @NonNull final NetworkChangeLog changeLog,
+                                     final long sinceRevision) {
+        if (!MeshParserUtils.uuidToHex(network.getMeshUUID()).equals(MeshParserUtils.uuidToHex(mNetwork.getMeshUUID())))
+            throw new IllegalArgumentException("The delta belongs to a different mesh network.");
+
+        final List<NetworkDeltaConflict> conflicts = new ArrayList<>();
+        for (NetworkChange change : mChanges) {
+            final Object remote = change.deleted ? null : find(mNetwork, change.entityType, change.entityId);
+            if (!change.deleted && remote == null) {
+                MeshLogger.warn(TAG, "Delta does not contain the changed " + change.entityType + " " + change.entityId);
+                continue;
+            }
+            final Object local = find(network, change.entityType, change.entityId);
+            if (isSame(local, remote))
+                continue;
+
+            final NetworkChange localChange = changeLog.getChange(change.entityType, change.entityId);
+            final boolean changedLocally = localChange != null && localChange.revision > sinceRevision;
+            if (changedLocally || !apply(network, change.entityType, local, remote)) {
+                conflicts.add(new NetworkDeltaConflict(change.entityType, change.entityId,
+                        localChange == null ? 0 : localChange.timestamp,
+                        localChange != null && localChange.deleted,
+                        change.timestamp, change.deleted));
+            }
+        }
+        MeshNetworkDeserializer.assignProvisionerAddresses(network);
+        network.notifyNetworkUpdated();
+        return conflicts;
+    }
+
+    private static boolean isSame(@Nullable final Object local, @Nullable final Object remote) {
+        if (local == null || remote == null)
+            return local == remote;
+        return ImportExportUtils.serializeEntity(local).equals(ImportExportUtils.serializeEntity(remote));
+    }
+
+    /**
+     * Returns the entity of a network with the given type and id or null if the network does not contain it.
+     */
+    @Nullable
+    static Object find(@NonNull final MeshNetwork network, @NonNull final String type, @NonNull final String id) {
+        switch (type) {
+            case NetworkChangeLog.NETWORK_KEY:
+                for (NetworkKey key : network.netKeys) {
+                    if (idOf(key).equals(id))
+                        return key;
+                }
+                return null;
+            case NetworkChangeLog.APPLICATION_KEY:
+                for (ApplicationKey key : network.appKeys) {
+                    if (idOf(key).equals(id))
+                        return key;
+                }
+                return null;
+            case NetworkChangeLog.PROVISIONER:
+                for (Provisioner provisioner : network.provisioners) {
+                    if (idOf(provisioner).equals(id))
+                        return provisioner;
+                }
+                return null;
+            case NetworkChangeLog.NODE:
+                for (ProvisionedMeshNode node : network.nodes) {
+                    if (idOf(node).equals(id))
+                        return node;
+                }
+                return null;
+            case NetworkChangeLog.GROUP:
+                for (Group group : network.groups) {
+                    if (idOf(group).equals(id))
+                        return group;
+                }
+                return null;
+            case NetworkChangeLog.SCENE:
+                for (Scene scene : network.scenes) {
+                    if (idOf(scene).equals(id))
+                        return scene;
+                }
+                return null;
+            case NetworkChangeLog.NETWORK_EXCLUSIONS:
+                return network.getNetworkExclusions();
+            default:
+                MeshLogger.warn(TAG, "Unknown entity type " + type);
+                return null;
+        }
+    }
+
+    /**
+     * Adds, replaces or deletes an entity of the network.
+     *
+     * @param network network
+     * @param type    entity type
+     * @param local   entity of the network or null if the network does not contain it
+     * @param remote  entity of the delta or null if it was deleted
+     * @return false if the change cannot be applied
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean apply(@NonNull final MeshNetwork network,
+                                 @NonNull final String type,
+                                 @Nullable final Object local,
+                                 @Nullable final Object remote) {
+        switch (type) {
+            case NetworkChangeLog.NETWORK_KEY:
+                if (remote == null) {
+                    network.netKeys.remove(local);
+                    network.notifyNetKeyDeleted((NetworkKey) local);
+                } else if (local == null) {
+                    network.netKeys.add((NetworkKey) remote);
+                    network.notifyNetKeyAdded((NetworkKey) remote);
+                } else {
+                    ((NetworkKey) remote).setId(((NetworkKey) local).getId());
+                    network.netKeys.set(network.netKeys.indexOf(local), (NetworkKey) remote);
+                    network.notifyNetKeyUpdated((NetworkKey) remote);
+                }
+                return true;
+            case NetworkChangeLog.APPLICATION_KEY:
+                if (remote == null) {
+                    network.appKeys.remove(local);
+                    network.notifyAppKeyDeleted((ApplicationKey) local);
+                } else if (local == null) {
+                    network.appKeys.add((ApplicationKey) remote);
+                    network.notifyAppKeyAdded((ApplicationKey) remote);
+                } else {
+                    ((ApplicationKey) remote).setId(((ApplicationKey) local).getId());
+                    network.appKeys.set(network.appKeys.indexOf(local), (ApplicationKey) remote);
+                    network.notifyAppKeyUpdated((ApplicationKey) remote);
+                }
+                return true;
+            case NetworkChangeLog.PROVISIONER:
+                if (remote == null) {
+                    // The provisioner in use cannot be deleted by another provisioner
+                    if (((Provisioner) local).isLastSelected())
+                        return false;
+                    network.provisioners.remove(local);
+                    network.notifyProvisionerDeleted((Provisioner) local);
+                } else if (local == null) {
+                    ((Provisioner) remote).setLastSelected(false);
+                    network.provisioners.add((Provisioner) remote);
+                    network.notifyProvisionerAdded((Provisioner) remote);
+                } else {
+                    ((Provisioner) remote).setLastSelected(((Provisioner) local).isLastSelected());
+                    network.provisioners.set(network.provisioners.indexOf(local), (Provisioner) remote);
+                    network.notifyProvisionerUpdated((Provisioner) remote);
+                }
+                return true;
+            case NetworkChangeLog.NODE:
+                if (remote == null) {
+                    network.nodes.remove(local);
+                    network.notifyNodeDeleted((ProvisionedMeshNode) local);
+                } else if (local == null) {
+                    network.nodes.add((ProvisionedMeshNode) remote);
+                    network.notifyNodeAdded((ProvisionedMeshNode) remote);
+                } else {
+                    // The sequence number is not part of the configuration database
+                    ((ProvisionedMeshNode) remote).setSequenceNumber(((ProvisionedMeshNode) local).getSequenceNumber());
+                    network.nodes.set(network.nodes.indexOf(local), (ProvisionedMeshNode) remote);
+                    network.notifyNodeUpdated((ProvisionedMeshNode) remote);
+                }
+                return true;
+            case NetworkChangeLog.GROUP:
+                if (remote == null) {
+                    network.groups.remove(local);
+                    network.notifyGroupDeleted((Group) local);
+                } else if (local == null) {
+                    network.groups.add((Group) remote);
+                    network.notifyGroupAdded((Group) remote);
+                } else {
+                    ((Group) remote).id = ((Group) local).id;
+                    network.groups.set(network.groups.indexOf(local), (Group) remote);
+                    network.notifyGroupUpdated((Group) remote);
+                }
+                return true;
+            case NetworkChangeLog.SCENE:
+                if (remote == null) {
+                    network.scenes.remove(local);
+                    network.notifySceneDeleted((Scene) local);
+                } else if (local == null) {
+                    network.scenes.add((Scene) remote);
+                    network.notifySceneAdded((Scene) remote);
+                } else {
+                    network.scenes.set(network.scenes.indexOf(local), (Scene) remote);
+                    network.notifySceneUpdated((Scene) remote);
+                }
+                return true;
+            case NetworkChangeLog.NETWORK_EXCLUSIONS:
+                if (remote != null) {
+                    network.setNetworkExclusions(new HashMap<>((Map<Integer, List<Integer>>) remote));
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Entity of the mesh network changed both locally and by the provisioner a delta was imported from.
+ * <p>
+ * Conflicting changes are not applied when importing a delta, the local entity is kept as is.
+ * </p>
+ */
+public final class NetworkDeltaConflict {
+
+    public static final String NETWORK_KEY = NetworkChangeLog.NETWORK_KEY;
+    public static final String APPLICATION_KEY = NetworkChangeLog.APPLICATION_KEY;
+    public static final String PROVISIONER = NetworkChangeLog.PROVISIONER;
+    public static final String NODE = NetworkChangeLog.NODE;
+    public static final String GROUP = NetworkChangeLog.GROUP;
+    public static final String SCENE = NetworkChangeLog.SCENE;
+    public static final String NETWORK_EXCLUSIONS = NetworkChangeLog.NETWORK_EXCLUSIONS;
+
+    private final String type;
+    private final String id;
+    private final long localTimestamp;
+    private final boolean localDeleted;
+    private final long remoteTimestamp;
+    private final boolean remoteDeleted;
+
+    NetworkDeltaConflict(@NonNull final String type,
+                         @NonNull final String id,
+                         final long localTimestamp,
+                         final boolean localDeleted,
+                         final long remoteTimestamp,
+                         final boolean remoteDeleted) {
+        this.type = type;
+        this.id = id;
+        this.localTimestamp = localTimestamp;
+        this.localDeleted = localDeleted;
+        this.remoteTimestamp = remoteTimestamp;
+        this.remoteDeleted = remoteDeleted;
+    }
+
+    /**
+     * Returns the type of the entity, one of {@link #NETWORK_KEY}, {@link #APPLICATION_KEY}, {@link #PROVISIONER},
+     * {@link #NODE}, {@link #GROUP}, {@link #SCENE} or {@link #NETWORK_EXCLUSIONS}.
+     */
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the id of the entity, the key index of keys, the uuid of provisioners and nodes in hex, the address of
+     * groups and the number of scenes in hex.
+     */
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the time of the local change.
+     */
+    public long getLocalTimestamp() {
+        return localTimestamp;
+    }
+
+    /**
+     * Returns true if the entity was deleted locally.
+     */
+    public boolean isLocalDeleted() {
+        return localDeleted;
+    }
+
+    /**
+     * Returns the time of the change made by the other provisioner.
+     */
+    public long getRemoteTimestamp() {
+        return remoteTimestamp;
+    }
+
+    /**
+     * Returns true if the entity was deleted by the other provisioner.
+     */
+    public boolean isRemoteDeleted() {
+        return remoteDeleted;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "NetworkDeltaConflict{" + type + " " + id + "}";
+    }
+}
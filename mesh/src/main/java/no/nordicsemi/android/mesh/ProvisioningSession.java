@@ -0,0 +1,614 @@
+package no.nordicsemi.android.mesh;
+
+import android.content.Context;
+import android.os.Handler;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.bearer.ProxyPduCodec;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCapabilities;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCapabilitiesState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCompleteState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningConfirmationState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningDataState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningFailedState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningInputCompleteState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningInviteState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningKeyPairPool;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningPublicKeyState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningRandomConfirmationState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningStartState;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningState;
+import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.InputOOBAction;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.OutputOOBAction;
+import no.nordicsemi.android.mesh.utils.StaticOOBType;
+
+/**
+ * Provisioning of a single device.
+ * <p>
+ * Each session has its own state machine, provisioning timeout and crypto executor, so that several devices can be
+ * provisioned at the same time. The state machine runs on the thread of the handler, the crypto of each step runs on
+ * the crypto executor of the session and the step continues on the handler once it has completed.
+ * </p>
+ */
+final class ProvisioningSession implements InternalProvisioningCallbacks {
+
+    private static final String TAG = ProvisioningSession.class.getSimpleName();
+    // Provisioning fails if no provisioning pdu is received within this time, see Mesh Profile 5.4.4
+    static final long PROVISIONING_TIMEOUT = 60 * 1000;
+
+    /**
+     * Notified once the session has ended, after being completed, failed, timed out or cancelled.
+     */
+    interface Listener {
+        void onSessionClosed(@NonNull final ProvisioningSession session);
+    }
+
+    private final UUID mDeviceUuid;
+    private final Context mContext;
+    private final Handler mHandler;
+    private final ProvisioningKeyPairPool mKeyPairPool;
+    private final InternalTransportCallbacks mInternalTransportCallbacks;
+    private final InternalMeshManagerCallbacks mInternalMeshManagerCallbacks;
+    private final Listener mListener;
+    private final ExecutorService mCryptoExecutor = Executors.newSingleThreadExecutor();
+    // Reassembles the provisioning pdus of a bearer dedicated to this device
+    private final ProxyPduCodec mIncomingCodec = new ProxyPduCodec();
+    private final ProxyPduCodec mOutgoingCodec = new ProxyPduCodec();
+    private final Runnable mTimeoutRunnable = this::onTimeout;
+    private MeshProvisioningStatusCallbacks mStatusCallbacks;
+    private UnprovisionedMeshNode mUnprovisionedMeshNode;
+    private ProvisioningState provisioningState;
+    private boolean isProvisioningPublicKeySent;
+    private boolean isProvisioneePublicKeyReceived;
+    private byte[] confirmationInputs;
+    // Read by the crypto executor and the bearer callbacks
+    private volatile boolean mClosed;
+
+    ProvisioningSession(@NonNull final UUID deviceUuid,
+                        @NonNull final Context context,
+                        @NonNull final Handler handler,
+                        @NonNull final ProvisioningKeyPairPool keyPairPool,
+                        @NonNull final InternalTransportCallbacks internalTransportCallbacks,
+                        @NonNull final InternalMeshManagerCallbacks internalMeshManagerCallbacks,
+                        final MeshProvisioningStatusCallbacks statusCallbacks,
+                        @NonNull final Listener listener) {
+        this.mDeviceUuid = deviceUuid;
+        this.mContext = context;
+        this.mHandler = handler;
+        this.mKeyPairPool = keyPairPool;
+        this.mInternalTransportCallbacks = internalTransportCallbacks;
+        this.mInternalMeshManagerCallbacks = internalMeshManagerCallbacks;
+        this.mStatusCallbacks = statusCallbacks;
+        this.mListener = listener;
+    }
+
+    UUID getDeviceUuid() {
+        return mDeviceUuid;
+    }
+
+    /**
+     * Returns the node being provisioned.
+     */
+    UnprovisionedMeshNode getMeshNode() {
+        return mUnprovisionedMeshNode;
+    }
+
+    void setProvisioningCallbacks(final MeshProvisioningStatusCallbacks provisioningCallbacks) {
+        this.mStatusCallbacks = provisioningCallbacks;
+    }
+
+    /**
+     * Identifies the device by sending a provisioning invite.
+     *
+     * @param networkKey     Network key
+     * @param flags          Flag containing the key refresh or the iv update operations
+     * @param ivIndex        32-bit value shared across the network
+     * @param globalTtl      Global ttl which is also the number of hops to be used for a message
+     * @param attentionTimer Attention timer
+     */
+    void identify(@NonNull final NetworkKey networkKey,
+                  final int flags,
+                  final int ivIndex,
+                  final int globalTtl,
+                  final int attentionTimer) throws IllegalArgumentException {
+        confirmationInputs = null;
+        final UnprovisionedMeshNode unprovisionedMeshNode = initializeMeshNode(networkKey, flags, ivIndex, globalTtl);
+        isProvisioningPublicKeySent = false;
+        isProvisioneePublicKeyReceived = false;
+        final ProvisioningInviteState invite = new ProvisioningInviteState(unprovisionedMeshNode, (byte) attentionTimer,
+                mInternalTransportCallbacks, mStatusCallbacks);
+        provisioningState = invite;
+        restartTimeout();
+        invite.executeSend();
+    }
+
+    /**
+     * Appends a segment of a pdu received from the device on its own bearer.
+     *
+     * @param data pdu segment
+     */
+    void handleNotifications(@NonNull final byte[] data) {
+        if (mIncomingCodec.hasExpired(ProxyPduCodec.DEFAULT_SAR_TIMEOUT)) {
+            mIncomingCodec.reset();
+        }
+        if (mIncomingCodec.append(data) == ProxyPduCodec.RESULT_COMPLETE) {
+            final byte[] pdu = mIncomingCodec.getPdu();
+            if (pdu[0] == MeshManagerApi.PDU_TYPE_PROVISIONING) {
+                MeshLogger.verbose(TAG, "Received provisioning message: " + MeshParserUtils.bytesToHex(pdu, true));
+                parseProvisioningNotifications(pdu);
+            }
+        }
+    }
+
+    /**
+     * Appends a segment of a pdu written to the device on its own bearer.
+     *
+     * @param data pdu segment
+     */
+    void handleWriteCallbacks(@NonNull final byte[] data) {
+        if (mOutgoingCodec.append(data) == ProxyPduCodec.RESULT_COMPLETE &&
+                mOutgoingCodec.getPdu()[0] == MeshManagerApi.PDU_TYPE_PROVISIONING) {
+            handleProvisioningWriteCallbacks();
+        }
+    }
+
+    void parseProvisioningNotifications(final byte[] data) {
+        if (mClosed)
+            return;
+        restartTimeout();
+        final UnprovisionedMeshNode unprovisionedMeshNode = mUnprovisionedMeshNode;
+        try {
+            switch (provisioningState.getState()) {
+                case PROVISIONING_INVITE:
+                    break;
+                case PROVISIONING_CAPABILITIES:
+                    if (validateMessage(data)) {
+                        if (!parseProvisioningCapabilitiesMessage(unprovisionedMeshNode, data)) {
+                            parseProvisioningState(unprovisionedMeshNode, data);
+                        }
+                    } else {
+                        parseProvisioningState(unprovisionedMeshNode, data);
+                    }
+                    break;
+                case PROVISIONING_START:
+                    break;
+                case PROVISIONING_PUBLIC_KEY:
+                    if (validateMessage(data)) {
+                        parseProvisioneePublicKeyXY(unprovisionedMeshNode, data);
+                    } else {
+                        parseProvisioningState(unprovisionedMeshNode, data);
+                    }
+                    break;
+                case PROVISIONING_INPUT_COMPLETE:
+                    if (validateMessage(data)) {
+                        if (parseProvisioningInputCompleteState(data)) {
+                            sendProvisioningConfirmation(null);
+                        }
+                    } else {
+                        parseProvisioningState(unprovisionedMeshNode, data);
+                    }
+                    break;
+                case PROVISIONING_CONFIRMATION:
+                    if (validateMessage(data)) {
+                        if (parseProvisioneeConfirmation(data)) {
+                            sendRandomConfirmationPDU(unprovisionedMeshNode);
+                        }
+                    } else {
+                        parseProvisioningState(unprovisionedMeshNode, data);
+                    }
+                    break;
+                case PROVISIONING_RANDOM:
+                    if (validateMessage(data)) {
+                        parseProvisioneeRandom(unprovisionedMeshNode, data);
+                    } else {
+                        parseProvisioningState(unprovisionedMeshNode, data);
+                    }
+                    break;
+                case PROVISIONING_DATA:
+                case PROVISIONING_COMPLETE:
+                case PROVISIONING_FAILED:
+                    parseProvisioningState(unprovisionedMeshNode, data);
+                    break;
+
+            }
+        } catch (Exception ex) {
+            MeshLogger.error(TAG, "Exception in " + provisioningState.getState().name() + " : " + ex.getMessage());
+            parseProvisioningState(unprovisionedMeshNode, data);
+        }
+    }
+
+    void handleProvisioningWriteCallbacks() {
+        if (mClosed)
+            return;
+        final UnprovisionedMeshNode unprovisionedMeshNode = mUnprovisionedMeshNode;
+        switch (provisioningState.getState()) {
+            case PROVISIONING_INVITE:
+                provisioningState = new ProvisioningCapabilitiesState(unprovisionedMeshNode, mStatusCallbacks);
+                break;
+            case PROVISIONING_CAPABILITIES:
+                break;
+            case PROVISIONING_START:
+            case PROVISIONING_PUBLIC_KEY:
+                //Devices with lower mtu have to send the key in multiple segments
+                sendProvisionerPublicKey(unprovisionedMeshNode);
+                break;
+            case PROVISIONING_INPUT_COMPLETE:
+                break;
+            case PROVISIONING_CONFIRMATION:
+                break;
+            case PROVISIONING_RANDOM:
+                break;
+            case PROVISIONING_DATA:
+                break;
+        }
+    }
+
+    /**
+     * Fails the session if the bearer to the device was closed before provisioning ended.
+     */
+    void onBearerClosed() {
+        if (mClosed)
+            return;
+        MeshLogger.warn(TAG, "Bearer to " + mDeviceUuid + " closed in " + provisioningState.getState().name());
+        fail();
+    }
+
+    /**
+     * Ends the session without notifying the provisioning callbacks.
+     */
+    void cancel() {
+        close();
+    }
+
+    private void close() {
+        if (mClosed)
+            return;
+        mClosed = true;
+        mHandler.removeCallbacks(mTimeoutRunnable);
+        mCryptoExecutor.shutdown();
+        mListener.onSessionClosed(this);
+    }
+
+    private void restartTimeout() {
+        mHandler.removeCallbacks(mTimeoutRunnable);
+        mHandler.postDelayed(mTimeoutRunnable, PROVISIONING_TIMEOUT);
+    }
+
+    private void onTimeout() {
+        if (mClosed)
+            return;
+        MeshLogger.warn(TAG, "Provisioning " + mDeviceUuid + " timed out in " + provisioningState.getState().name());
+        fail();
+    }
+
+    private void fail() {
+        isProvisioningPublicKeySent = false;
+        isProvisioneePublicKeyReceived = false;
+        provisioningState = new ProvisioningFailedState();
+        mStatusCallbacks.onProvisioningFailed(mUnprovisionedMeshNode, ProvisioningState.States.PROVISIONING_FAILED, null);
+        close();
+    }
+
+    private void parseProvisioningState(final UnprovisionedMeshNode unprovisionedMeshNode, final byte[] data) {
+        isProvisioningPublicKeySent = false;
+        isProvisioneePublicKeyReceived = false;
+        if (data[1] == ProvisioningState.State.PROVISIONING_COMPLETE.getState()) {
+            provisioningState = new ProvisioningCompleteState(unprovisionedMeshNode);
+            //Generate the network id and store it in the mesh node, this is needed to reconnect to the device at a later stage.
+            final ProvisionedMeshNode provisionedMeshNode = new ProvisionedMeshNode(unprovisionedMeshNode);
+            mInternalMeshManagerCallbacks.onNodeProvisioned(provisionedMeshNode, unprovisionedMeshNode.getProvisioningCapabilities().getNumberOfElements());
+            mStatusCallbacks.onProvisioningCompleted(provisionedMeshNode, ProvisioningState.States.PROVISIONING_COMPLETE, data);
+        } else {
+            final ProvisioningFailedState provisioningFailedState = new ProvisioningFailedState();
+            provisioningState = provisioningFailedState;
+            if (provisioningFailedState.parseData(data)) {
+                mStatusCallbacks.onProvisioningFailed(unprovisionedMeshNode, ProvisioningState.States.PROVISIONING_FAILED, data);
+            }
+        }
+        close();
+    }
+
+    /**
+     * Initializes a mesh node object to be provisioned
+     *
+     * @param networkKey Network key
+     * @param flags      Flag containing the key refresh or the iv update operations
+     * @param ivIndex    32-bit value shared across the network
+     * @param globalTtl  Global ttl which is also the number of hops to be used for a message
+     * @return {@link UnprovisionedMeshNode} to be provisioned
+     */
+    private UnprovisionedMeshNode initializeMeshNode(@NonNull final NetworkKey networkKey,
+                                                     final int flags,
+                                                     final int ivIndex,
+                                                     final int globalTtl) throws IllegalArgumentException {
+        validateProvisioningDataInput(networkKey);
+        final byte[] flagBytes = ByteBuffer.allocate(1).put((byte) flags).array();
+
+        byte[] ivIndexBytes = null;
+        if (MeshParserUtils.validateIvIndexInput(mContext, ivIndex)) {
+            ivIndexBytes = ByteBuffer.allocate(4).putInt(ivIndex).array();
+        }
+
+        final UnprovisionedMeshNode unprovisionedMeshNode = new UnprovisionedMeshNode(mDeviceUuid);
+        unprovisionedMeshNode.setNetworkKey(networkKey.getTxNetworkKey());
+        unprovisionedMeshNode.setKeyIndex(networkKey.getKeyIndex());
+        unprovisionedMeshNode.setFlags(flagBytes);
+        unprovisionedMeshNode.setIvIndex(ivIndexBytes);
+        unprovisionedMeshNode.setTtl(globalTtl);
+        mUnprovisionedMeshNode = unprovisionedMeshNode;
+        return unprovisionedMeshNode;
+    }
+
+    private void validateProvisioningDataInput(final NetworkKey networkKey) {
+        if (networkKey == null) {
+            throw new IllegalArgumentException("Network key cannot be null or empty!");
+        }
+
+        if (networkKey.getKey() == null || networkKey.getKey().length != 16) {
+            throw new IllegalArgumentException("Network key length must be 16 octets!");
+        }
+    }
+
+    /**
+     * Read provisioning capabilities of node
+     *
+     * @param capabilities provisioning capabilities of the node
+     * @return true if the message is valid
+     */
+    private boolean parseProvisioningCapabilitiesMessage(
+            final UnprovisionedMeshNode node, final byte[] capabilities) {
+        final ProvisioningCapabilitiesState provisioningCapabilitiesState = new ProvisioningCapabilitiesState(node, mStatusCallbacks);
+        provisioningState = provisioningCapabilitiesState;
+        return provisioningCapabilitiesState.parseData(capabilities);
+    }
+
+    /**
+     * Starts provisioning the device, continuing the provisioning process that was started by
+     * {@link #identify(NetworkKey, int, int, int, int)}.
+     *
+     * @param staticOOBType static OOB type or null
+     * @param outputAction  output OOB action or null
+     * @param inputAction   input OOB action or null
+     */
+    void startProvisioning(@Nullable final StaticOOBType staticOOBType,
+                           @Nullable final OutputOOBAction outputAction,
+                           @Nullable final InputOOBAction inputAction) {
+        if (!(provisioningState instanceof ProvisioningCapabilitiesState))
+            throw new IllegalArgumentException("Provisioning capabilities of " + mDeviceUuid + " have not been received");
+        final ProvisioningCapabilities capabilities = ((ProvisioningCapabilitiesState) provisioningState).getCapabilities();
+        final ProvisioningStartState startProvisioning = new ProvisioningStartState(mUnprovisionedMeshNode, capabilities, mInternalTransportCallbacks, mStatusCallbacks);
+        if (staticOOBType != null) {
+            startProvisioning.setUseStaticOOB(staticOOBType);
+        } else if (outputAction != null) {
+            startProvisioning.setUseOutputOOB(outputAction);
+        } else if (inputAction != null) {
+            startProvisioning.setUseInputOOB(inputAction);
+        }
+        provisioningState = startProvisioning;
+        restartTimeout();
+        startProvisioning.executeSend();
+    }
+
+    private void sendProvisionerPublicKey(final UnprovisionedMeshNode node) {
+        if (!isProvisioningPublicKeySent) {
+            if (provisioningState instanceof ProvisioningPublicKeyState) {
+                final ProvisioningPublicKeyState provisioningPublicKeyState = (ProvisioningPublicKeyState) provisioningState;
+                isProvisioningPublicKeySent = true;
+                runCrypto(provisioningPublicKeyState, provisioningPublicKeyState::generateKeyPair, provisioningPublicKeyState::executeSend);
+            } else {
+                final ProvisioningPublicKeyState provisioningPublicKeyState = new ProvisioningPublicKeyState(node, mKeyPairPool, mInternalTransportCallbacks, mStatusCallbacks);
+                provisioningState = provisioningPublicKeyState;
+                isProvisioningPublicKeySent = true;
+                runCrypto(provisioningPublicKeyState, provisioningPublicKeyState::generateKeyPair, () -> {
+                    provisioningPublicKeyState.executeSend();
+                    if (node.getProvisioningCapabilities().isPublicKeyOobSupported() && node.getProvisioneePublicKeyXY() != null) {
+                        provisioningPublicKeyState.parseData(node.getProvisioneePublicKeyXY());
+                        generateSharedSecret(node, provisioningPublicKeyState, null);
+                    }
+                });
+            }
+        }
+    }
+
+    private void parseProvisioneePublicKeyXY(final UnprovisionedMeshNode node, final byte[] data) {
+        if (provisioningState instanceof ProvisioningPublicKeyState) {
+            final ProvisioningPublicKeyState provisioningPublicKeyState = ((ProvisioningPublicKeyState) provisioningState);
+            if (data.length != 66) {
+                throw new IllegalArgumentException("Invalid Provisionee Public Key PDU," +
+                        " length of the Provisionee public key must be 66 bytes, but was " + data.length);
+            }
+            final ByteBuffer buffer = ByteBuffer.allocate(data.length - 2);
+            buffer.put(data, 2, buffer.limit());
+            final byte[] xy = buffer.array();
+            provisioningPublicKeyState.receivePublicKey(xy);
+            generateSharedSecret(node, provisioningPublicKeyState, data);
+        }
+    }
+
+    private void generateSharedSecret(final UnprovisionedMeshNode node,
+                                      final ProvisioningPublicKeyState provisioningPublicKeyState,
+                                      final byte[] data) {
+        runCrypto(provisioningPublicKeyState, provisioningPublicKeyState::generateSharedECDHSecret, () -> {
+            isProvisioneePublicKeyReceived = true;
+            if (isProvisioningPublicKeySent) {
+                handleConfirmationState(node, data);
+            }
+        });
+    }
+
+    private void handleConfirmationState(final UnprovisionedMeshNode node, final byte[] data) {
+        switch (node.getAuthMethodUsed()) {
+            case STATIC_OOB_AUTHENTICATION:
+                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
+                mStatusCallbacks.onProvisioningStateChanged(node, ProvisioningState.States.PROVISIONING_AUTHENTICATION_STATIC_OOB_WAITING, data);
+                break;
+            case OUTPUT_OOB_AUTHENTICATION:
+                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
+                mStatusCallbacks.onProvisioningStateChanged(node, ProvisioningState.States.PROVISIONING_AUTHENTICATION_OUTPUT_OOB_WAITING, data);
+                break;
+            case INPUT_OOB_AUTHENTICATION:
+                provisioningState = new ProvisioningInputCompleteState(node, mInternalTransportCallbacks, mStatusCallbacks);
+                mStatusCallbacks.onProvisioningStateChanged(node, ProvisioningState.States.PROVISIONING_AUTHENTICATION_INPUT_OOB_WAITING, data);
+                break;
+            default:
+                provisioningState = new ProvisioningConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
+                sendProvisioningConfirmation("");
+                break;
+        }
+    }
+
+    /**
+     * Sends the provisioning confirmation
+     *
+     * @param authentication authentication value input by the user this may be nullable depending on the OOB type selected by the user
+     */
+    void sendProvisioningConfirmation(@Nullable final String authentication) {
+        final ProvisioningConfirmationState provisioningConfirmationState;
+        // Check if the current provisioning state, if the user had selected InputOOBAction the state will be ProvisioningInputCompleteState
+        if (provisioningState instanceof ProvisioningInputCompleteState) {
+            provisioningConfirmationState = new ProvisioningConfirmationState(mUnprovisionedMeshNode, this, mInternalTransportCallbacks, mStatusCallbacks);
+            provisioningState = provisioningConfirmationState;
+        } else if (provisioningState instanceof ProvisioningConfirmationState) {
+            provisioningConfirmationState = (ProvisioningConfirmationState) provisioningState;
+            provisioningConfirmationState.setProvisioningAuthentication(authentication);
+        } else {
+            throw new IllegalArgumentException("Provisioning of " + mDeviceUuid + " is not waiting for authentication");
+        }
+        // Validated right away so that an invalid authentication is reported to the caller
+        provisioningConfirmationState.generateAuthenticationValue();
+        restartTimeout();
+        runCrypto(provisioningConfirmationState, provisioningConfirmationState::generateConfirmation,
+                provisioningConfirmationState::executeSend);
+    }
+
+    private boolean parseProvisioningInputCompleteState(@NonNull final byte[] data) {
+        final ProvisioningInputCompleteState inputCompleteState = (ProvisioningInputCompleteState) provisioningState;
+        return inputCompleteState.parseData(data);
+    }
+
+    private boolean parseProvisioneeConfirmation(final byte[] data) {
+        final ProvisioningConfirmationState provisioningConfirmationState = (ProvisioningConfirmationState) provisioningState;
+        return provisioningConfirmationState.parseData(data);
+    }
+
+    private void sendRandomConfirmationPDU(final UnprovisionedMeshNode node) {
+        final ProvisioningRandomConfirmationState provisioningRandomConfirmation = new ProvisioningRandomConfirmationState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
+        provisioningState = provisioningRandomConfirmation;
+        provisioningRandomConfirmation.executeSend();
+    }
+
+    private void parseProvisioneeRandom(final UnprovisionedMeshNode node, final byte[] data) {
+        final ProvisioningRandomConfirmationState provisioningRandomConfirmation = (ProvisioningRandomConfirmationState) provisioningState;
+        provisioningRandomConfirmation.receiveProvisioneeRandom(data);
+        final ProvisioningDataState provisioningDataState = new ProvisioningDataState(node, this, mInternalTransportCallbacks, mStatusCallbacks);
+        final boolean[] confirmed = new boolean[1];
+        runCrypto(provisioningRandomConfirmation, () -> {
+            confirmed[0] = provisioningRandomConfirmation.provisioneeMatches();
+            if (confirmed[0]) {
+                provisioningDataState.generateProvisioningData();
+            }
+        }, () -> {
+            if (confirmed[0]) {
+                provisioningState = provisioningDataState;
+                provisioningDataState.executeSend();
+            } else {
+                parseProvisioningState(node, data);
+            }
+        });
+    }
+
+    /**
+     * Runs the crypto of a provisioning step on the crypto executor and continues the step on the handler, unless
+     * provisioning has moved on or ended in the meantime.
+     *
+     * @param state        current provisioning state
+     * @param crypto       cryptographic operations of the step
+     * @param continuation rest of the step
+     */
+    private void runCrypto(final ProvisioningState state, final Runnable crypto, final Runnable continuation) {
+        mCryptoExecutor.execute(() -> {
+            try {
+                crypto.run();
+            } catch (Exception ex) {
+                MeshLogger.error(TAG, "Exception in " + state.getState().name() + " : " + ex.getMessage());
+                mHandler.post(() -> {
+                    if (!mClosed && provisioningState == state) {
+                        fail();
+                    }
+                });
+                return;
+            }
+            mHandler.post(() -> {
+                if (!mClosed && provisioningState == state) {
+                    continuation.run();
+                }
+            });
+        });
+    }
+
+    private boolean validateMessage(final byte[] data) {
+        final ProvisioningState state = provisioningState;
+        return data[1] == state.getState().ordinal();
+
+    }
+
+    /**
+     * Generates the confirmation inputs for a provisionee
+     *
+     * @param provisionerKeyXY xy components of the provisioner public key
+     * @param provisioneeKeyXY xy components of the provisionee public key
+     */
+    @Override
+    public final byte[] generateConfirmationInputs(final byte[] provisionerKeyXY,
+                                                   final byte[] provisioneeKeyXY) {
+        //invite: 1 bytes, capabilities: 11 bytes, start: 5 bytes, provisionerKey: 64 bytes, deviceKey: 64 bytes
+        //Append all the raw data together
+        if (confirmationInputs != null) {
+            return confirmationInputs;
+        }
+
+        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
+        final int offset = 2;
+        final int inviteLength = mUnprovisionedMeshNode.getProvisioningInvitePdu().length - offset;
+        final ByteBuffer inviteBuffer = ByteBuffer.allocate(inviteLength).
+                put(mUnprovisionedMeshNode.getProvisioningInvitePdu(), offset, inviteLength);
+        final byte[] invite = inviteBuffer.array();
+
+        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
+        final int capabilitiesLength = mUnprovisionedMeshNode.getProvisioningCapabilitiesPdu().length - offset;
+        final ByteBuffer capabilitiesBuffer = ByteBuffer.allocate(capabilitiesLength)
+                .put(mUnprovisionedMeshNode.getProvisioningCapabilitiesPdu(), offset, capabilitiesLength);
+        final byte[] capabilities = capabilitiesBuffer.array();
+
+        //We must remove the first two bytes which is the pdu type and the provisioning pdu type
+        final int startDataLength = mUnprovisionedMeshNode.getProvisioningStartPdu().length - offset;
+        final ByteBuffer startDataBuffer = ByteBuffer.allocate(startDataLength).
+                put(mUnprovisionedMeshNode.getProvisioningStartPdu(), offset, startDataLength);
+        final byte[] startData = startDataBuffer.array();
+
+        final int length = invite.length +
+                capabilities.length +
+                startData.length +
+                provisionerKeyXY.length +
+                provisioneeKeyXY.length;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.put(invite);
+        buffer.put(capabilities);
+        buffer.put(startData);
+        buffer.put(provisionerKeyXY);
+        buffer.put(provisioneeKeyXY);
+        confirmationInputs = buffer.array();
+        return confirmationInputs;
+    }
+}
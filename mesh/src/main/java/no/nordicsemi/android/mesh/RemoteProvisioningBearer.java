@@ -0,0 +1,238 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningState;
+import no.nordicsemi.android.mesh.transport.ConfigStatusMessage;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkClose;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkStatus;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUOutboundReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUSend;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static no.nordicsemi.android.mesh.MeshManagerApi.PDU_TYPE_PROVISIONING;
+
+/**
+ * PB-Remote provisioning bearer.
+ * <p>
+ * Carries the provisioning pdus of a provisioning session through a Remote Provisioning Server, which relays them to
+ * the device over its own PB-ADV or PB-GATT link. This allows provisioning devices that are out of range of the
+ * provisioner, over the existing proxy connection. Each server has at most one link open at a time, links to different
+ * servers are independent of each other.
+ * </p>
+ */
+final class RemoteProvisioningBearer {
+
+    private static final String TAG = RemoteProvisioningBearer.class.getSimpleName();
+
+    interface Callbacks {
+
+        /**
+         * Sends a Remote Provisioning message to a server.
+         *
+         * @param serverAddress unicast address of the server
+         * @param message       message to be sent
+         */
+        void sendRemoteProvisioningMessage(final int serverAddress, @NonNull final MeshMessage message);
+
+        /**
+         * Invoked when the link to a device has been opened and provisioning may start.
+         *
+         * @param deviceUuid     device UUID
+         * @param attentionTimer attention timer requested when opening the link
+         */
+        void onLinkOpened(@NonNull final UUID deviceUuid, final int attentionTimer);
+
+        /**
+         * Invoked when the link to a device has been closed, or could not be opened.
+         *
+         * @param deviceUuid device UUID
+         * @param statusCode Remote Provisioning status code reported by the server
+         */
+        void onLinkClosed(@NonNull final UUID deviceUuid, final int statusCode);
+
+        /**
+         * Invoked when a provisioning pdu was received from a device.
+         *
+         * @param deviceUuid device UUID
+         * @param pdu        provisioning pdu starting with the provisioning proxy pdu type
+         */
+        void onProvisioningPduReceived(@NonNull final UUID deviceUuid, @NonNull final byte[] pdu);
+
+        /**
+         * Invoked when the server has delivered a provisioning pdu to a device.
+         *
+         * @param deviceUuid device UUID
+         */
+        void onProvisioningPduSent(@NonNull final UUID deviceUuid);
+    }
+
+    private static final class Link {
+        final int serverAddress;
+        final UUID deviceUuid;
+        final int attentionTimer;
+        boolean active;
+        boolean completed;
+        int outboundPduNumber;
+        int inboundPduNumber;
+
+        Link(final int serverAddress, final UUID deviceUuid, final int attentionTimer) {
+            this.serverAddress = serverAddress;
+            this.deviceUuid = deviceUuid;
+            this.attentionTimer = attentionTimer;
+        }
+    }
+
+    private final Callbacks mCallbacks;
+    // Links by server address
+    private final Map<Integer, Link> mLinks = new HashMap<>();
+
+    RemoteProvisioningBearer(@NonNull final Callbacks callbacks) {
+        this.mCallbacks = callbacks;
+    }
+
+    /**
+     * Opens a link from a server to a device.
+     *
+     * @param serverAddress  unicast address of the server
+     * @param deviceUuid     device UUID the provisioning session is keyed by
+     * @param linkOpen       link open message, to an unprovisioned device or for a NPPI procedure on the server
+     * @param attentionTimer attention timer used to identify the device once the link has been opened
+     * @throws IllegalArgumentException if the server already has a link open or the device is already linked
+     */
+    synchronized void openLink(final int serverAddress,
+                               @NonNull final UUID deviceUuid,
+                               @NonNull final RemoteProvisioningLinkOpen linkOpen,
+                               final int attentionTimer) {
+        if (mLinks.containsKey(serverAddress))
+            throw new IllegalArgumentException("Remote Provisioning Server 0x" + Integer.toHexString(serverAddress) + " already has a link open");
+        if (getLink(deviceUuid) != null)
+            throw new IllegalArgumentException("Device " + deviceUuid + " is already being provisioned remotely");
+        mLinks.put(serverAddress, new Link(serverAddress, deviceUuid, attentionTimer));
+        mCallbacks.sendRemoteProvisioningMessage(serverAddress, linkOpen);
+    }
+
+    /**
+     * Closes the link to a device, if any.
+     *
+     * @param deviceUuid device UUID
+     */
+    synchronized void closeLink(@NonNull final UUID deviceUuid) {
+        final Link link = getLink(deviceUuid);
+        if (link == null)
+            return;
+        mLinks.remove(link.serverAddress);
+        mCallbacks.sendRemoteProvisioningMessage(link.serverAddress, new RemoteProvisioningLinkClose(link.completed ?
+                RemoteProvisioningLinkClose.REASON_SUCCESS : RemoteProvisioningLinkClose.REASON_FAIL));
+    }
+
+    /**
+     * Returns true if the device is provisioned through a Remote Provisioning Server.
+     *
+     * @param deviceUuid device UUID
+     */
+    synchronized boolean isLinked(@NonNull final UUID deviceUuid) {
+        return getLink(deviceUuid) != null;
+    }
+
+    /**
+     * Sends a provisioning pdu to a device.
+     *
+     * @param deviceUuid device UUID
+     * @param pdu        provisioning pdu starting with the provisioning proxy pdu type
+     * @return true if the device is provisioned through a Remote Provisioning Server and the pdu was sent
+     */
+    synchronized boolean send(@NonNull final UUID deviceUuid, @NonNull final byte[] pdu) {
+        final Link link = getLink(deviceUuid);
+        if (link == null)
+            return false;
+        if (!link.active) {
+            MeshLogger.warn(TAG, "Link to " + deviceUuid + " is not open, dropping provisioning pdu");
+            return true;
+        }
+        // The proxy pdu type is not carried over PB-Remote
+        link.outboundPduNumber = (link.outboundPduNumber + 1) & 0xFF;
+        mCallbacks.sendRemoteProvisioningMessage(link.serverAddress,
+                new RemoteProvisioningPDUSend(link.outboundPduNumber, Arrays.copyOfRange(pdu, 1, pdu.length)));
+        return true;
+    }
+
+    /**
+     * Handles a Remote Provisioning status or report received from a server.
+     *
+     * @param status status or report
+     */
+    void onStatusReceived(@NonNull final ConfigStatusMessage status) {
+        final Link link;
+        synchronized (this) {
+            link = mLinks.get(status.getSrc());
+        }
+        if (link == null)
+            return;
+        if (status instanceof RemoteProvisioningLinkStatus) {
+            final RemoteProvisioningLinkStatus linkStatus = (RemoteProvisioningLinkStatus) status;
+            if (!linkStatus.isSuccessful()) {
+                onLinkClosed(link, linkStatus.getStatusCode());
+            }
+        } else if (status instanceof RemoteProvisioningLinkReport) {
+            final RemoteProvisioningLinkReport report = (RemoteProvisioningLinkReport) status;
+            if (report.getLinkState() == RemoteProvisioningLinkStatus.LINK_STATE_ACTIVE && report.isSuccessful()) {
+                if (!link.active) {
+                    link.active = true;
+                    mCallbacks.onLinkOpened(link.deviceUuid, link.attentionTimer);
+                }
+            } else if (report.getLinkState() == RemoteProvisioningLinkStatus.LINK_STATE_IDLE) {
+                onLinkClosed(link, report.getStatusCode());
+            }
+        } else if (status instanceof RemoteProvisioningPDUOutboundReport) {
+            if (((RemoteProvisioningPDUOutboundReport) status).getOutboundPduNumber() == link.outboundPduNumber) {
+                mCallbacks.onProvisioningPduSent(link.deviceUuid);
+            }
+        } else if (status instanceof RemoteProvisioningPDUReport) {
+            final RemoteProvisioningPDUReport report = (RemoteProvisioningPDUReport) status;
+            // Reports are retransmitted by the server until acknowledged, drop the ones already received
+            if (report.getInboundPduNumber() != ((link.inboundPduNumber + 1) & 0xFF)) {
+                MeshLogger.verbose(TAG, "Dropping duplicate provisioning pdu " + report.getInboundPduNumber());
+                return;
+            }
+            link.inboundPduNumber = report.getInboundPduNumber();
+            final byte[] provisioningPdu = report.getProvisioningPdu();
+            if (provisioningPdu.length == 0)
+                return;
+            if (provisioningPdu[0] == ProvisioningState.State.PROVISIONING_COMPLETE.getState()) {
+                link.completed = true;
+            }
+            final byte[] pdu = new byte[provisioningPdu.length + 1];
+            pdu[0] = PDU_TYPE_PROVISIONING;
+            System.arraycopy(provisioningPdu, 0, pdu, 1, provisioningPdu.length);
+            MeshLogger.verbose(TAG, "Received remote provisioning message: " + MeshParserUtils.bytesToHex(pdu, true));
+            mCallbacks.onProvisioningPduReceived(link.deviceUuid, pdu);
+        }
+    }
+
+    private void onLinkClosed(final Link link, final int statusCode) {
+        synchronized (this) {
+            if (mLinks.get(link.serverAddress) != link)
+                return;
+            mLinks.remove(link.serverAddress);
+        }
+        mCallbacks.onLinkClosed(link.deviceUuid, statusCode);
+    }
+
+    private Link getLink(final UUID deviceUuid) {
+        for (Link link : mLinks.values()) {
+            if (link.deviceUuid.equals(deviceUuid))
+                return link;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,416 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.sensorutils.DeviceProperty;
+import no.nordicsemi.android.mesh.sensorutils.DevicePropertyFormat;
+import no.nordicsemi.android.mesh.sensorutils.DevicePropertyRegistry;
+import no.nordicsemi.android.mesh.sensorutils.SensorDataReader;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.SensorCadenceGet;
+import no.nordicsemi.android.mesh.transport.SensorDescriptorGet;
+import no.nordicsemi.android.mesh.transport.SensorGet;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_CADENCE_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_STATUS;
+
+/**
+ * Polls Sensor Servers that do not publish their values.
+ * <p>
+ * The scheduler first reads the descriptors of each sensor, for the Sensor Update Interval, and the cadence of each
+ * property, for the Fast Cadence Period Divisor and the Status Trigger Delta. Sensors are then polled with a Sensor Get
+ * at an interval that is doubled every time the values did not change by more than the status trigger delta, up to the
+ * maximum interval. When a value changes the interval falls back to the polling interval divided by the fast cadence
+ * period divisor. Sensors that publish their values are only polled once their publications stop arriving.
+ * </p>
+ * <p>
+ * All requests share a budget of messages per minute, and are spread evenly over time instead of being sent in bursts.
+ * Requests are handed to a transmit queue rather than sent directly. The scheduler does not keep time itself,
+ * {@link #poll(long)} is called when the time returned by its previous invocation is reached.
+ * </p>
+ */
+final class SensorPollingScheduler {
+
+    private static final String TAG = SensorPollingScheduler.class.getSimpleName();
+    static final long DEFAULT_INTERVAL = 60 * 1000;
+    static final long DEFAULT_MAX_INTERVAL = 10 * 60 * 1000;
+    static final long MIN_INTERVAL = 5 * 1000;
+    static final int DEFAULT_BUDGET = 60; // Messages per minute
+    private static final int MAX_DESCRIPTOR_ATTEMPTS = 3;
+
+    /**
+     * Queue the requests are submitted to.
+     */
+    interface TransmitQueue {
+
+        /**
+         * Queues a message to be sent to a destination.
+         *
+         * @param dst     destination address
+         * @param factory factory creating the message once it is sent
+         */
+        void submit(final int dst, @NonNull final TransactionalMessageFactory factory);
+    }
+
+    private final TransmitQueue mTransmitQueue;
+    private final Map<Integer, Sensor> mSensors = new LinkedHashMap<>();
+    private final SensorDataReader mReader = new SensorDataReader();
+    private long mInterval = DEFAULT_INTERVAL;
+    private long mMaxInterval = DEFAULT_MAX_INTERVAL;
+    private long mSpacing = 60 * 1000 / DEFAULT_BUDGET;
+    private long mNextSend = Long.MIN_VALUE;
+
+    SensorPollingScheduler(@NonNull final TransmitQueue transmitQueue) {
+        this.mTransmitQueue = transmitQueue;
+    }
+
+    /**
+     * Sets the polling interval and the maximum interval a stable sensor is polled at.
+     *
+     * @param interval    polling interval in milliseconds
+     * @param maxInterval maximum polling interval in milliseconds
+     * @throws IllegalArgumentException if the interval is shorter than 5 seconds or the maximum interval is shorter
+     *                                  than the interval
+     */
+    synchronized void setIntervals(final long interval, final long maxInterval) {
+        if (interval < MIN_INTERVAL)
+            throw new IllegalArgumentException("Sensor polling interval must be at least " + MIN_INTERVAL + " ms");
+        if (maxInterval < interval)
+            throw new IllegalArgumentException("Maximum sensor polling interval must not be shorter than the interval");
+        mInterval = interval;
+        mMaxInterval = maxInterval;
+        for (Sensor sensor : mSensors.values()) {
+            sensor.interval = Math.min(Math.max(sensor.interval, sensor.getMinInterval(mInterval)), mMaxInterval);
+        }
+    }
+
+    /**
+     * Sets the number of messages per minute the scheduler may send.
+     *
+     * @param messagesPerMinute number of messages per minute
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    synchronized void setBudget(final int messagesPerMinute) {
+        if (messagesPerMinute <= 0)
+            throw new IllegalArgumentException("Sensor polling budget must be positive");
+        mSpacing = 60 * 1000 / messagesPerMinute;
+    }
+
+    /**
+     * Starts polling a sensor.
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     * @param appKey         application key bound to the Sensor Server
+     * @param publishPeriod  publish period of the Sensor Server in milliseconds, 0 if it does not publish
+     * @param now            current time in milliseconds
+     */
+    synchronized void add(final int elementAddress,
+                          @NonNull final ApplicationKey appKey,
+                          final long publishPeriod,
+                          final long now) {
+        Sensor sensor = mSensors.get(elementAddress);
+        if (sensor == null) {
+            sensor = new Sensor(elementAddress);
+            sensor.interval = mInterval;
+            sensor.nextPoll = now;
+            mSensors.put(elementAddress, sensor);
+        }
+        sensor.appKey = appKey;
+        sensor.publishPeriod = publishPeriod;
+    }
+
+    /**
+     * Stops polling a sensor.
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     */
+    synchronized void remove(final int elementAddress) {
+        mSensors.remove(elementAddress);
+    }
+
+    /**
+     * Stops polling all sensors.
+     */
+    synchronized void clear() {
+        mSensors.clear();
+    }
+
+    /**
+     * Returns true if a sensor is being polled.
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     */
+    synchronized boolean contains(final int elementAddress) {
+        return mSensors.containsKey(elementAddress);
+    }
+
+    /**
+     * Returns the current polling interval of a sensor in milliseconds, or 0 if it is not polled.
+     *
+     * @param elementAddress address of the element containing the Sensor Server
+     */
+    synchronized long getInterval(final int elementAddress) {
+        final Sensor sensor = mSensors.get(elementAddress);
+        return sensor == null ? 0 : sensor.interval;
+    }
+
+    /**
+     * Submits the requests that are due, as far as the budget allows.
+     *
+     * @param now current time in milliseconds
+     * @return time at which the scheduler should be polled again, or {@link Long#MAX_VALUE} if no sensors are polled
+     */
+    synchronized long poll(final long now) {
+        while (true) {
+            final Sensor sensor = getNextDue();
+            if (sensor == null)
+                return Long.MAX_VALUE;
+            final long due = Math.max(sensor.getDue(), mNextSend);
+            if (due > now)
+                return due;
+            submit(sensor, now);
+            mNextSend = now + mSpacing;
+        }
+    }
+
+    /**
+     * Handles a status received from a sensor.
+     *
+     * @param src        source address
+     * @param opCode     op code of the status
+     * @param parameters parameters of the status
+     * @param now        current time in milliseconds
+     */
+    synchronized void onStatusReceived(final int src, final int opCode, @NonNull final byte[] parameters, final long now) {
+        final Sensor sensor = mSensors.get(src);
+        if (sensor == null)
+            return;
+        switch (opCode) {
+            case SENSOR_DESCRIPTOR_STATUS:
+                sensor.onDescriptorStatus(parameters, now);
+                break;
+            case SENSOR_CADENCE_STATUS:
+                sensor.onCadenceStatus(parameters);
+                break;
+            case SENSOR_STATUS:
+                sensor.onSensorStatus(mReader.reset(parameters), now);
+                break;
+        }
+    }
+
+    private Sensor getNextDue() {
+        Sensor next = null;
+        for (Sensor sensor : mSensors.values()) {
+            if (next == null || sensor.getDue() < next.getDue()) {
+                next = sensor;
+            }
+        }
+        return next;
+    }
+
+    private void submit(final Sensor sensor, final long now) {
+        if (sensor.descriptorAttempts < MAX_DESCRIPTOR_ATTEMPTS && sensor.propertyIds == null) {
+            sensor.descriptorAttempts++;
+            sensor.nextPoll = now + mInterval;
+            mTransmitQueue.submit(sensor.address, new RequestFactory(SENSOR_DESCRIPTOR_GET, sensor.appKey, null));
+        } else if (sensor.cadenceIndex < sensor.getPropertyCount()) {
+            // Each cadence is requested once, a Sensor Server without a Sensor Setup Server does not respond
+            final DeviceProperty property = DeviceProperty.from((short) sensor.propertyIds[sensor.cadenceIndex++]);
+            mTransmitQueue.submit(sensor.address, new RequestFactory(SENSOR_CADENCE_GET, sensor.appKey, property));
+        } else {
+            sensor.lastPoll = now;
+            sensor.nextPoll = now + sensor.interval;
+            mTransmitQueue.submit(sensor.address, new RequestFactory(SENSOR_GET, sensor.appKey, null));
+        }
+    }
+
+    private final class Sensor {
+        final int address;
+        ApplicationKey appKey;
+        long publishPeriod;
+        long interval;
+        long nextPoll;
+        long lastPoll = Long.MIN_VALUE / 2;
+        long lastStatus = Long.MIN_VALUE / 2;
+        int descriptorAttempts;
+        int cadenceIndex;
+        long updateInterval;
+        // Per property, ordered by the descriptors received
+        int[] propertyIds;
+        int[] periodDivisors;
+        double[] deltaDown;
+        double[] deltaUp;
+        boolean[] percentDelta;
+        double[] lastValues;
+
+        Sensor(final int address) {
+            this.address = address;
+        }
+
+        int getPropertyCount() {
+            return propertyIds == null ? 0 : propertyIds.length;
+        }
+
+        long getMinInterval(final long interval) {
+            int divisor = 0;
+            for (int i = 0; i < getPropertyCount(); i++) {
+                divisor = Math.max(divisor, periodDivisors[i]);
+            }
+            return Math.max(Math.max(MIN_INTERVAL, updateInterval), interval >> Math.min(divisor, 16));
+        }
+
+        long getDue() {
+            if (publishPeriod > 0 && propertyIds != null && cadenceIndex >= getPropertyCount()) {
+                // Published values are expected at least every publish period, poll only if they stop arriving.
+                // Unanswered polls are repeated at the polling interval.
+                final long stale = lastStatus + 2 * publishPeriod;
+                return lastPoll > lastStatus ? Math.max(stale, lastPoll + interval) : stale;
+            }
+            return nextPoll;
+        }
+
+        void onDescriptorStatus(final byte[] parameters, final long now) {
+            // The cadences are requested, or the sensor polled, right away
+            nextPoll = now;
+            if (parameters.length < 8) {
+                // Property not found, the sensor is polled without descriptors
+                setProperties(new int[0]);
+                return;
+            }
+            final int count = parameters.length / 8;
+            final int[] ids = new int[count];
+            long updateInterval = 0;
+            for (int i = 0; i < count; i++) {
+                final int offset = i * 8;
+                ids[i] = (parameters[offset] & 0xFF) | (parameters[offset + 1] & 0xFF) << 8;
+                // Sensor Update Interval is 1.1^(n - 64) seconds, 0 if not provided
+                final int n = parameters[offset + 7] & 0xFF;
+                if (n != 0) {
+                    updateInterval = Math.max(updateInterval, (long) (Math.pow(1.1, n - 64) * 1000));
+                }
+            }
+            this.updateInterval = updateInterval;
+            setProperties(ids);
+            MeshLogger.debug(TAG, "Polling " + count + " sensor(s) on " + MeshAddress.formatAddress(address, true));
+        }
+
+        private void setProperties(final int[] ids) {
+            propertyIds = ids;
+            periodDivisors = new int[ids.length];
+            deltaDown = new double[ids.length];
+            deltaUp = new double[ids.length];
+            percentDelta = new boolean[ids.length];
+            lastValues = new double[ids.length];
+            Arrays.fill(lastValues, Double.NaN);
+            interval = Math.max(interval, getMinInterval(mInterval));
+        }
+
+        void onCadenceStatus(final byte[] parameters) {
+            if (propertyIds == null || parameters.length < 3)
+                return;
+            final int index = indexOf((parameters[0] & 0xFF) | (parameters[1] & 0xFF) << 8);
+            if (index < 0)
+                return;
+            periodDivisors[index] = parameters[2] & 0x7F;
+            percentDelta[index] = (parameters[2] & 0x80) != 0;
+            if (percentDelta[index]) {
+                if (parameters.length >= 7) {
+                    // Unitless, in 0.01 %
+                    deltaDown[index] = ((parameters[3] & 0xFF) | (parameters[4] & 0xFF) << 8) / 10000.0;
+                    deltaUp[index] = ((parameters[5] & 0xFF) | (parameters[6] & 0xFF) << 8) / 10000.0;
+                }
+            } else {
+                final DevicePropertyFormat format = DevicePropertyRegistry.getFormat(propertyIds[index]);
+                if (format != null && parameters.length >= 3 + 2 * format.getLength()) {
+                    deltaDown[index] = format.read(parameters, 3);
+                    deltaUp[index] = format.read(parameters, 3 + format.getLength());
+                }
+            }
+        }
+
+        void onSensorStatus(final SensorDataReader reader, final long now) {
+            lastStatus = now;
+            boolean changed = false;
+            while (reader.next()) {
+                final int index = indexOf(reader.getPropertyId());
+                final double value = reader.getValue();
+                if (index < 0 || Double.isNaN(value))
+                    continue;
+                final double last = lastValues[index];
+                lastValues[index] = value;
+                if (!Double.isNaN(last) && hasChanged(index, last, value)) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                interval = getMinInterval(mInterval);
+            } else {
+                interval = Math.min(Math.max(interval * 2, getMinInterval(mInterval)), mMaxInterval);
+            }
+            // A publication delays the next poll as well as a response does
+            nextPoll = now + interval;
+        }
+
+        private boolean hasChanged(final int index, final double last, final double value) {
+            double down = deltaDown[index];
+            double up = deltaUp[index];
+            if (percentDelta[index]) {
+                down *= Math.abs(last);
+                up *= Math.abs(last);
+            }
+            if (Double.isNaN(down) || Double.isNaN(up))
+                return value != last;
+            return value - last > up || last - value > down;
+        }
+
+        private int indexOf(final int propertyId) {
+            for (int i = 0; i < getPropertyCount(); i++) {
+                if (propertyIds[i] == propertyId)
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Creates the sensor requests once they are sent. The requests are not transactional, the TID is not used.
+     */
+    private static final class RequestFactory implements TransactionalMessageFactory {
+        private final int opCode;
+        private final ApplicationKey appKey;
+        private final DeviceProperty property;
+
+        RequestFactory(final int opCode, @NonNull final ApplicationKey appKey, final DeviceProperty property) {
+            this.opCode = opCode;
+            this.appKey = appKey;
+            this.property = property;
+        }
+
+        @Override
+        public int getOpCode() {
+            return opCode;
+        }
+
+        @NonNull
+        @Override
+        public MeshMessage createMessage(final int tid) {
+            switch (opCode) {
+                case SENSOR_DESCRIPTOR_GET:
+                    return new SensorDescriptorGet(appKey, null);
+                case SENSOR_CADENCE_GET:
+                    return new SensorCadenceGet(appKey, property);
+                default:
+                    return new SensorGet(appKey, property);
+            }
+        }
+    }
+}
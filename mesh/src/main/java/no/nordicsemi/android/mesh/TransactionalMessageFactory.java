@@ -0,0 +1,33 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+
+/**
+ * Creates transactional mesh messages on demand, once the library has allocated the Transaction Identifier (TID).
+ * <p>
+ * This is used with {@link MeshManagerApi#createCoalescedMeshPdu(int, TransactionalMessageFactory)}, where the message
+ * is only created when it is actually sent. Values that are superseded before they are sent are never created,
+ * encrypted or persisted.
+ * </p>
+ */
+public interface TransactionalMessageFactory {
+
+    /**
+     * Returns the op code of the message created by this factory.
+     * <p>
+     * Pending messages with the same destination and op code are coalesced, only the latest one is sent.
+     * </p>
+     */
+    int getOpCode();
+
+    /**
+     * Creates the message to be sent.
+     *
+     * @param tid Transaction identifier allocated for this message.
+     * @return {@link MeshMessage} to be sent.
+     */
+    @NonNull
+    MeshMessage createMessage(final int tid);
+}
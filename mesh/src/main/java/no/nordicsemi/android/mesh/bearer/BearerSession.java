@@ -0,0 +1,51 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.utils.ProxyFilter;
+
+/**
+ * State kept for each bearer registered with the {@link ProxyBearerManager}.
+ */
+final class BearerSession implements ProxyPduCodec.SegmentSink {
+
+    private final MeshBearer mBearer;
+    private final ProxyPduCodec mCodec = new ProxyPduCodec();
+    private ProxyFilter mProxyFilter;
+
+    BearerSession(@NonNull final MeshBearer bearer) {
+        this.mBearer = bearer;
+    }
+
+    MeshBearer getBearer() {
+        return mBearer;
+    }
+
+    ProxyPduCodec getCodec() {
+        return mCodec;
+    }
+
+    @Nullable
+    ProxyFilter getProxyFilter() {
+        return mProxyFilter;
+    }
+
+    void setProxyFilter(@Nullable final ProxyFilter proxyFilter) {
+        mProxyFilter = proxyFilter;
+    }
+
+    /**
+     * Segments a proxy pdu to the MTU of the bearer and writes the segments.
+     *
+     * @param pdu proxy pdu starting with the pdu type
+     * @return true if all segments were written
+     */
+    boolean send(@NonNull final byte[] pdu) {
+        return mCodec.segment(pdu, mBearer.getMtu(), this);
+    }
+
+    @Override
+    public boolean onSegment(@NonNull final byte[] buffer, final int offset, final int length) {
+        return mBearer.send(buffer, offset, length);
+    }
+}
@@ -0,0 +1,43 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A connection to a mesh proxy node, such as a GATT connection to the Mesh Proxy Service.
+ * <p>
+ * Bearers are registered with the {@link ProxyBearerManager}, which segments outgoing proxy pdus to the MTU of the
+ * bearer and reassembles the notifications received from it.
+ * </p>
+ */
+public interface MeshBearer {
+
+    /**
+     * Returns a unique identifier of the bearer, e.g. the Bluetooth device address of the proxy node.
+     */
+    @NonNull
+    String getIdentifier();
+
+    /**
+     * Returns the maximum number of bytes that can be written to the bearer at once.
+     */
+    int getMtu();
+
+    /**
+     * Returns the unicast address of the proxy node or {@link no.nordicsemi.android.mesh.utils.MeshAddress#UNASSIGNED_ADDRESS}
+     * if it is not known.
+     */
+    int getProxyAddress();
+
+    /**
+     * Writes a proxy pdu segment to the bearer.
+     * <p>
+     * The buffer is reused for the following segments, so the data must be written or copied before returning.
+     * </p>
+     *
+     * @param buffer buffer containing the segment
+     * @param offset offset of the segment in the buffer
+     * @param length length of the segment, never longer than {@link #getMtu()}
+     * @return true if the segment was written or queued for writing, false if the bearer is no longer usable
+     */
+    boolean send(@NonNull final byte[] buffer, final int offset, final int length);
+}
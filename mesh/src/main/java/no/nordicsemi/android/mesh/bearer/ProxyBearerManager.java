@@ -0,0 +1,392 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.MeshManagerApi;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.utils.ProxyFilter;
+
+/**
+ * Manages several proxy connections at the same time.
+ * <p>
+ * Each bearer keeps its own proxy protocol segmentation and reassembly state and its own proxy filter. Outgoing pdus
+ * are spread over the bearers either by destination or in a round-robin fashion, a bearer that fails to send is
+ * removed and the pdu is sent through the next bearer. Identical pdus received through different bearers are
+ * delivered once.
+ * </p>
+ */
+public final class ProxyBearerManager {
+
+    private static final String TAG = ProxyBearerManager.class.getSimpleName();
+    private static final int DUPLICATE_CACHE_SIZE = 32;
+
+    /**
+     * Strategy used to select the bearer for an outgoing pdu.
+     */
+    public enum LoadBalancing {
+        /**
+         * All pdus sent to the same destination use the same bearer as long as it is available. When a bearer is
+         * removed only the destinations assigned to it move to other bearers.
+         */
+        BY_DESTINATION,
+        /**
+         * Pdus are sent through each bearer in turn.
+         */
+        ROUND_ROBIN
+    }
+
+    /**
+     * Callbacks used to deliver the pdus received through the bearers.
+     */
+    public interface Callbacks {
+
+        /**
+         * Invoked when a complete proxy pdu has been received.
+         *
+         * @param bearer bearer through which the pdu was received
+         * @param pdu    reassembled proxy pdu starting with the pdu type
+         */
+        void onPduReceived(@NonNull final MeshBearer bearer, @NonNull final byte[] pdu);
+
+        /**
+         * Invoked when a bearer failed to send a pdu and was removed.
+         *
+         * @param bearer bearer that was removed
+         */
+        void onBearerFailed(@NonNull final MeshBearer bearer);
+
+        /**
+         * Invoked when a segmented pdu was not completely received within the SAR timeout and was discarded.
+         * <p>
+         * According to the spec the connection to the proxy node should be closed.
+         * </p>
+         *
+         * @param bearer bearer on which the pdu was being received
+         */
+        void onSarTimeout(@NonNull final MeshBearer bearer);
+    }
+
+    private final List<BearerSession> mSessions = new ArrayList<>();
+    private final long[] mReceivedHashes = new long[DUPLICATE_CACHE_SIZE];
+    private int mReceivedHashIndex;
+    private LoadBalancing mLoadBalancing = LoadBalancing.BY_DESTINATION;
+    private int mNextBearer;
+    private long mDuplicateCount;
+    private long mFailoverCount;
+    private long mSarTimeout = ProxyPduCodec.DEFAULT_SAR_TIMEOUT;
+    private Callbacks mCallbacks;
+
+    /**
+     * Sets the callbacks used to deliver received pdus.
+     *
+     * @param callbacks {@link Callbacks}
+     */
+    public void setCallbacks(@Nullable final Callbacks callbacks) {
+        mCallbacks = callbacks;
+    }
+
+    /**
+     * Sets the strategy used to select the bearer for an outgoing pdu, defaults to {@link LoadBalancing#BY_DESTINATION}.
+     *
+     * @param loadBalancing {@link LoadBalancing}
+     */
+    public synchronized void setLoadBalancing(@NonNull final LoadBalancing loadBalancing) {
+        mLoadBalancing = loadBalancing;
+    }
+
+    /**
+     * Returns the strategy used to select the bearer for an outgoing pdu.
+     */
+    @NonNull
+    public synchronized LoadBalancing getLoadBalancing() {
+        return mLoadBalancing;
+    }
+
+    /**
+     * Sets the time within which all segments of a segmented pdu must be received.
+     *
+     * @param sarTimeout timeout in milliseconds, defaults to 20 seconds
+     * @throws IllegalArgumentException if the timeout is negative
+     */
+    public synchronized void setSarTimeout(final long sarTimeout) throws IllegalArgumentException {
+        if (sarTimeout < 0)
+            throw new IllegalArgumentException("SAR timeout must not be negative");
+        mSarTimeout = sarTimeout;
+    }
+
+    /**
+     * Returns the time in milliseconds within which all segments of a segmented pdu must be received.
+     */
+    public synchronized long getSarTimeout() {
+        return mSarTimeout;
+    }
+
+    /**
+     * Discards the segmented pdus that were not completely received within the SAR timeout.
+     * <p>
+     * Timeouts are also checked whenever data is received, this method may be called periodically to detect a timeout
+     * on a bearer that stopped sending.
+     * </p>
+     */
+    public void checkSarTimeouts() {
+        final List<MeshBearer> expiredBearers = new ArrayList<>();
+        synchronized (this) {
+            for (BearerSession session : mSessions) {
+                if (session.getCodec().hasExpired(mSarTimeout)) {
+                    session.getCodec().reset();
+                    expiredBearers.add(session.getBearer());
+                }
+            }
+        }
+        final Callbacks callbacks = mCallbacks;
+        if (callbacks != null) {
+            for (MeshBearer bearer : expiredBearers) {
+                callbacks.onSarTimeout(bearer);
+            }
+        }
+    }
+
+    /**
+     * Registers a bearer once the connection to the proxy node is ready.
+     *
+     * @param bearer {@link MeshBearer}
+     * @throws IllegalArgumentException if a bearer with the same identifier is already registered
+     */
+    public synchronized void addBearer(@NonNull final MeshBearer bearer) throws IllegalArgumentException {
+        if (findSession(bearer.getIdentifier()) != null)
+            throw new IllegalArgumentException("Bearer " + bearer.getIdentifier() + " is already registered");
+        mSessions.add(new BearerSession(bearer));
+    }
+
+    /**
+     * Removes a bearer, e.g. when the connection to the proxy node was lost. Pdus sent after this are sent through
+     * the remaining bearers.
+     *
+     * @param bearer {@link MeshBearer}
+     * @return true if the bearer was registered
+     */
+    public synchronized boolean removeBearer(@NonNull final MeshBearer bearer) {
+        final BearerSession session = findSession(bearer.getIdentifier());
+        if (session == null)
+            return false;
+        mSessions.remove(session);
+        return true;
+    }
+
+    /**
+     * Returns the registered bearers.
+     */
+    @NonNull
+    public synchronized List<MeshBearer> getBearers() {
+        final List<MeshBearer> bearers = new ArrayList<>(mSessions.size());
+        for (BearerSession session : mSessions) {
+            bearers.add(session.getBearer());
+        }
+        return bearers;
+    }
+
+    /**
+     * Returns true if at least one bearer is registered.
+     */
+    public synchronized boolean hasBearers() {
+        return !mSessions.isEmpty();
+    }
+
+    /**
+     * Returns the proxy filter set on a bearer or null if no filter was configured.
+     *
+     * @param bearer {@link MeshBearer}
+     */
+    @Nullable
+    public synchronized ProxyFilter getProxyFilter(@NonNull final MeshBearer bearer) {
+        final BearerSession session = findSession(bearer.getIdentifier());
+        return session == null ? null : session.getProxyFilter();
+    }
+
+    /**
+     * Sets the proxy filter confirmed by the proxy node connected through a bearer.
+     *
+     * @param bearer      {@link MeshBearer}
+     * @param proxyFilter {@link ProxyFilter}
+     */
+    public synchronized void setProxyFilter(@NonNull final MeshBearer bearer, @Nullable final ProxyFilter proxyFilter) {
+        final BearerSession session = findSession(bearer.getIdentifier());
+        if (session != null) {
+            session.setProxyFilter(proxyFilter);
+        }
+    }
+
+    /**
+     * Sends a proxy pdu.
+     * <p>
+     * Proxy configuration pdus are sent through every bearer so that the proxy filters of all proxy nodes are kept
+     * in sync. Other pdus are sent through a single bearer, selected using the {@link LoadBalancing} strategy.
+     * </p>
+     *
+     * @param dst destination address of the pdu
+     * @param pdu proxy pdu starting with the pdu type
+     * @return true if the pdu was sent through at least one bearer
+     */
+    public boolean send(final int dst, @NonNull final byte[] pdu) {
+        final List<MeshBearer> failedBearers = new ArrayList<>();
+        boolean sent = false;
+        synchronized (this) {
+            if ((pdu[0] & ProxyPduCodec.PDU_TYPE_MASK) == MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION) {
+                for (int i = mSessions.size() - 1; i >= 0; i--) {
+                    final BearerSession session = mSessions.get(i);
+                    if (session.send(pdu)) {
+                        sent = true;
+                    } else {
+                        mSessions.remove(i);
+                        failedBearers.add(session.getBearer());
+                    }
+                }
+            } else {
+                while (!sent && !mSessions.isEmpty()) {
+                    final BearerSession session = selectSession(dst);
+                    if (session.send(pdu)) {
+                        sent = true;
+                    } else {
+                        MeshLogger.warn(TAG, "Sending through " + session.getBearer().getIdentifier() + " failed, failing over");
+                        mSessions.remove(session);
+                        failedBearers.add(session.getBearer());
+                        mFailoverCount++;
+                    }
+                }
+            }
+        }
+        if (!sent) {
+            MeshLogger.error(TAG, "No bearer available to send the pdu to 0x" + Integer.toHexString(dst));
+        }
+        final Callbacks callbacks = mCallbacks;
+        if (callbacks != null) {
+            for (MeshBearer bearer : failedBearers) {
+                callbacks.onBearerFailed(bearer);
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Handles the data notified by a bearer.
+     *
+     * @param bearer bearer through which the data was received
+     * @param data   proxy pdu segment
+     */
+    public void onDataReceived(@NonNull final MeshBearer bearer, @NonNull final byte[] data) {
+        byte[] pdu = null;
+        boolean expired = false;
+        synchronized (this) {
+            final BearerSession session = findSession(bearer.getIdentifier());
+            if (session == null) {
+                MeshLogger.warn(TAG, "Data received from an unknown bearer " + bearer.getIdentifier());
+                return;
+            }
+            final ProxyPduCodec codec = session.getCodec();
+            if (codec.hasExpired(mSarTimeout)) {
+                MeshLogger.warn(TAG, "SAR timeout expired on " + bearer.getIdentifier());
+                codec.reset();
+                expired = true;
+            }
+            final int result = codec.append(data);
+            if (result == ProxyPduCodec.RESULT_DISCARDED) {
+                MeshLogger.warn(TAG, "Unexpected proxy pdu segment discarded on " + bearer.getIdentifier());
+            } else if (result == ProxyPduCodec.RESULT_COMPLETE) {
+                pdu = codec.getPdu();
+                //Proxy configuration messages are specific to each proxy node and are never duplicates
+                if ((pdu[0] & ProxyPduCodec.PDU_TYPE_MASK) != MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION && isDuplicate(pdu)) {
+                    mDuplicateCount++;
+                    pdu = null;
+                }
+            }
+        }
+        final Callbacks callbacks = mCallbacks;
+        if (callbacks != null) {
+            if (expired) {
+                callbacks.onSarTimeout(bearer);
+            }
+            if (pdu != null) {
+                callbacks.onPduReceived(bearer, pdu);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of received pdus that were dropped as they had already been received through another bearer.
+     */
+    public synchronized long getDuplicateCount() {
+        return mDuplicateCount;
+    }
+
+    /**
+     * Returns the number of times a pdu was sent through another bearer because the selected bearer failed.
+     */
+    public synchronized long getFailoverCount() {
+        return mFailoverCount;
+    }
+
+    private BearerSession findSession(@NonNull final String identifier) {
+        for (BearerSession session : mSessions) {
+            if (session.getBearer().getIdentifier().equals(identifier))
+                return session;
+        }
+        return null;
+    }
+
+    private BearerSession selectSession(final int dst) {
+        //A pdu sent to the proxy node itself is always sent directly
+        for (BearerSession session : mSessions) {
+            if (session.getBearer().getProxyAddress() == dst)
+                return session;
+        }
+        if (mLoadBalancing == LoadBalancing.ROUND_ROBIN) {
+            final BearerSession session = mSessions.get(mNextBearer % mSessions.size());
+            mNextBearer = (mNextBearer + 1) % mSessions.size();
+            return session;
+        }
+        //Rendezvous hashing keeps the assignment of the other destinations when a bearer is removed
+        BearerSession selected = null;
+        long highestWeight = Long.MIN_VALUE;
+        for (BearerSession session : mSessions) {
+            final long weight = mix(((long) session.getBearer().getIdentifier().hashCode() << 16) ^ (dst & 0xFFFF));
+            if (selected == null || weight > highestWeight) {
+                selected = session;
+                highestWeight = weight;
+            }
+        }
+        return selected;
+    }
+
+    private boolean isDuplicate(@NonNull final byte[] pdu) {
+        final long hash = hash(pdu);
+        for (long receivedHash : mReceivedHashes) {
+            if (receivedHash == hash)
+                return true;
+        }
+        mReceivedHashes[mReceivedHashIndex] = hash;
+        mReceivedHashIndex = (mReceivedHashIndex + 1) % mReceivedHashes.length;
+        return false;
+    }
+
+    private static long hash(@NonNull final byte[] pdu) {
+        //FNV-1a, 0 is reserved for empty cache slots
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : pdu) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
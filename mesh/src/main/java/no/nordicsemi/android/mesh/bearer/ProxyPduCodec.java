@@ -0,0 +1,238 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Segmentation and reassembly of proxy pdus as defined by the Proxy protocol.
+ * <p>
+ * Received segments are reassembled in to a buffer that is allocated once and reused for every pdu, so receiving a
+ * segment does not allocate. Outgoing pdus are split in to MTU sized segments that are written one at a time to a
+ * {@link SegmentSink} through a reusable segment buffer.
+ * </p>
+ * <p>
+ * A codec keeps the state of a single connection and is not thread safe.
+ * </p>
+ */
+public final class ProxyPduCodec {
+
+    /**
+     * The proxy pdu is not segmented.
+     */
+    public static final int SAR_COMPLETE = 0b00;
+    /**
+     * First segment of a segmented proxy pdu.
+     */
+    public static final int SAR_FIRST = 0b01;
+    /**
+     * Continuation segment of a segmented proxy pdu.
+     */
+    public static final int SAR_CONTINUATION = 0b10;
+    /**
+     * Last segment of a segmented proxy pdu.
+     */
+    public static final int SAR_LAST = 0b11;
+
+    /**
+     * According to the spec a segmented proxy pdu must be received within 20 seconds.
+     */
+    public static final long DEFAULT_SAR_TIMEOUT = 20 * 1000;
+
+    /**
+     * The segment did not complete a proxy pdu.
+     */
+    public static final int RESULT_INCOMPLETE = 0;
+    /**
+     * The segment completed a proxy pdu, which is available through {@link #getPdu()}.
+     */
+    public static final int RESULT_COMPLETE = 1;
+    /**
+     * The segment was unexpected and has been discarded together with any partially received pdu.
+     */
+    public static final int RESULT_DISCARDED = 2;
+
+    static final int SAR_OFFSET = 6;
+    static final int PDU_TYPE_MASK = 0x3F;
+    private static final int DEFAULT_CAPACITY = 128;
+
+    /**
+     * Receives the segments of an outgoing proxy pdu.
+     */
+    public interface SegmentSink {
+
+        /**
+         * Writes a single segment.
+         * <p>
+         * The buffer is reused for the next segment, the data must be written or copied before returning.
+         * </p>
+         *
+         * @param buffer buffer containing the segment
+         * @param offset offset of the segment in the buffer
+         * @param length length of the segment
+         * @return true to continue with the next segment, false to stop
+         */
+        boolean onSegment(@NonNull final byte[] buffer, final int offset, final int length);
+    }
+
+    private byte[] mIncomingBuffer = new byte[DEFAULT_CAPACITY];
+    private int mIncomingLength;
+    private int mIncomingPduType = -1;
+    private boolean mPduComplete;
+    private long mSarStartedAt;
+    private byte[] mSegmentBuffer = new byte[0];
+
+    /**
+     * Returns the number of segments needed to send a proxy pdu.
+     *
+     * @param pduLength length of the proxy pdu including the pdu type
+     * @param mtu       maximum length of a segment
+     * @throws IllegalArgumentException if the mtu is too small to carry any data
+     */
+    public static int getSegmentCount(final int pduLength, final int mtu) throws IllegalArgumentException {
+        if (mtu < 2)
+            throw new IllegalArgumentException("MTU must be at least 2 bytes");
+        if (pduLength <= mtu)
+            return 1;
+        final int payloadLength = mtu - 1;
+        return (pduLength - 1 + payloadLength - 1) / payloadLength;
+    }
+
+    /**
+     * Splits a proxy pdu in to segments no longer than the mtu and writes them to the sink in order.
+     *
+     * @param pdu  proxy pdu starting with the pdu type
+     * @param mtu  maximum length of a segment
+     * @param sink {@link SegmentSink} receiving the segments
+     * @return true if all segments were accepted by the sink
+     * @throws IllegalArgumentException if the mtu is too small to carry any data
+     */
+    public boolean segment(@NonNull final byte[] pdu, final int mtu, @NonNull final SegmentSink sink) throws IllegalArgumentException {
+        final int count = getSegmentCount(pdu.length, mtu);
+        if (count == 1) {
+            return sink.onSegment(pdu, 0, pdu.length);
+        }
+        if (mSegmentBuffer.length < mtu) {
+            mSegmentBuffer = new byte[mtu];
+        }
+        final int pduType = pdu[0] & PDU_TYPE_MASK;
+        final int payloadLength = mtu - 1;
+        int offset = 1;
+        for (int i = 0; i < count; i++) {
+            final int length = Math.min(payloadLength, pdu.length - offset);
+            final int sar = i == 0 ? SAR_FIRST : (i == count - 1 ? SAR_LAST : SAR_CONTINUATION);
+            mSegmentBuffer[0] = (byte) ((sar << SAR_OFFSET) | pduType);
+            System.arraycopy(pdu, offset, mSegmentBuffer, 1, length);
+            if (!sink.onSegment(mSegmentBuffer, 0, length + 1))
+                return false;
+            offset += length;
+        }
+        return true;
+    }
+
+    /**
+     * Appends a received segment.
+     *
+     * @param data received proxy pdu or proxy pdu segment
+     * @return {@link #RESULT_INCOMPLETE}, {@link #RESULT_COMPLETE} or {@link #RESULT_DISCARDED}
+     */
+    public int append(@NonNull final byte[] data) {
+        return append(data, 0, data.length);
+    }
+
+    /**
+     * Appends a received segment.
+     *
+     * @param data   buffer containing the received proxy pdu or proxy pdu segment
+     * @param offset offset of the segment in the buffer
+     * @param length length of the segment
+     * @return {@link #RESULT_INCOMPLETE}, {@link #RESULT_COMPLETE} or {@link #RESULT_DISCARDED}
+     */
+    public int append(@NonNull final byte[] data, final int offset, final int length) {
+        if (mPduComplete) {
+            mPduComplete = false;
+            mIncomingLength = 0;
+        }
+        if (length == 0)
+            return RESULT_DISCARDED;
+        final int sar = (data[offset] & 0xFF) >> SAR_OFFSET;
+        final int pduType = data[offset] & PDU_TYPE_MASK;
+        switch (sar) {
+            case SAR_COMPLETE:
+                reset();
+                write(data, offset, length);
+                mIncomingBuffer[0] = (byte) pduType;
+                mPduComplete = true;
+                return RESULT_COMPLETE;
+            case SAR_FIRST:
+                reset();
+                mIncomingPduType = pduType;
+                mSarStartedAt = System.nanoTime();
+                write(data, offset, length);
+                mIncomingBuffer[0] = (byte) pduType;
+                return RESULT_INCOMPLETE;
+            default:
+                if (mIncomingPduType != pduType) {
+                    reset();
+                    return RESULT_DISCARDED;
+                }
+                write(data, offset + 1, length - 1);
+                if (sar == SAR_LAST) {
+                    mIncomingPduType = -1;
+                    mPduComplete = true;
+                    return RESULT_COMPLETE;
+                }
+                return RESULT_INCOMPLETE;
+        }
+    }
+
+    /**
+     * Returns a copy of the proxy pdu completed by the last call to {@link #append(byte[])}, with the SAR bits cleared.
+     *
+     * @throws IllegalStateException if no pdu has been completed
+     */
+    @NonNull
+    public byte[] getPdu() throws IllegalStateException {
+        if (!mPduComplete)
+            throw new IllegalStateException("No complete proxy pdu available");
+        final byte[] pdu = new byte[mIncomingLength];
+        System.arraycopy(mIncomingBuffer, 0, pdu, 0, mIncomingLength);
+        return pdu;
+    }
+
+    /**
+     * Returns true if a segmented pdu is being received.
+     */
+    public boolean isInProgress() {
+        return mIncomingPduType != -1;
+    }
+
+    /**
+     * Returns true if a segmented pdu is being received and its first segment was received at least timeout
+     * milliseconds ago.
+     *
+     * @param timeout SAR timeout in milliseconds
+     */
+    public boolean hasExpired(final long timeout) {
+        return isInProgress() && (System.nanoTime() - mSarStartedAt) / 1000000 >= timeout;
+    }
+
+    /**
+     * Discards any partially received pdu.
+     */
+    public void reset() {
+        mIncomingLength = 0;
+        mIncomingPduType = -1;
+        mPduComplete = false;
+    }
+
+    private void write(@NonNull final byte[] data, final int offset, final int length) {
+        final int required = mIncomingLength + length;
+        if (required > mIncomingBuffer.length) {
+            //Proxy pdus are short, the buffer only grows if a peer sends an unusually long pdu
+            final byte[] buffer = new byte[Math.max(required, mIncomingBuffer.length * 2)];
+            System.arraycopy(mIncomingBuffer, 0, buffer, 0, mIncomingLength);
+            mIncomingBuffer = buffer;
+        }
+        System.arraycopy(data, offset, mIncomingBuffer, mIncomingLength, length);
+        mIncomingLength = required;
+    }
+}
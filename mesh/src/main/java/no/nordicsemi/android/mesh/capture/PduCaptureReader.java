@@ -0,0 +1,119 @@
+package no.nordicsemi.android.mesh.capture;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the records of a capture file written using {@link no.nordicsemi.android.mesh.MeshManagerApi#startPduCapture(File)}.
+ */
+public final class PduCaptureReader {
+
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    private final FileInputStream mInputStream;
+    private final FileChannel mChannel;
+    private final ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+    private final long mStartTime;
+    private long mTimestamp;
+    private boolean mEndOfFile;
+
+    /**
+     * Opens a capture file.
+     *
+     * @param file capture file
+     * @throws IOException if the file could not be opened or is not a capture file
+     */
+    public PduCaptureReader(@NonNull final File file) throws IOException {
+        mInputStream = new FileInputStream(file);
+        mChannel = mInputStream.getChannel();
+        mBuffer.limit(0);
+        try {
+            if (!fill(PduCaptureWriter.HEADER_LENGTH) || mBuffer.getInt() != PduCaptureWriter.MAGIC)
+                throw new IOException("Not a PDU capture file");
+            final byte version = mBuffer.get();
+            if (version != PduCaptureWriter.VERSION)
+                throw new IOException("Unsupported PDU capture version " + version);
+            mStartTime = mBuffer.getLong();
+        } catch (IOException ex) {
+            mInputStream.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the wall clock time the capture started at, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    /**
+     * Returns the next record, or null if the end of the capture has been reached.
+     *
+     * @throws IOException if the file could not be read or the last record is truncated
+     */
+    @Nullable
+    public PduCaptureRecord next() throws IOException {
+        if (!fill(1))
+            return null;
+        // The record header is shorter at the end of the file
+        fill(PduCaptureWriter.MAX_RECORD_HEADER_LENGTH);
+        final int type = mBuffer.get();
+        if (type < PduCaptureRecord.NOTIFICATION || type > PduCaptureRecord.PDU_CREATED)
+            throw new IOException("Invalid record type " + type);
+        mTimestamp += getVarLong();
+        if (mBuffer.remaining() < 4)
+            throw new IOException("Truncated record");
+        final int mtu = mBuffer.getShort() & 0xFFFF;
+        final byte[] data = new byte[mBuffer.getShort() & 0xFFFF];
+        if (!fill(data.length))
+            throw new IOException("Truncated record");
+        mBuffer.get(data);
+        return new PduCaptureRecord(type, mTimestamp, mtu, data);
+    }
+
+    /**
+     * Closes the file.
+     */
+    public void close() throws IOException {
+        mInputStream.close();
+    }
+
+    /**
+     * Reads from the file until at least the given number of bytes are buffered or the end of the file is reached.
+     *
+     * @return true if the bytes are buffered
+     */
+    private boolean fill(final int length) throws IOException {
+        if (mBuffer.remaining() >= length)
+            return true;
+        mBuffer.compact();
+        while (!mEndOfFile && mBuffer.position() < length) {
+            if (mChannel.read(mBuffer) == -1) {
+                mEndOfFile = true;
+            }
+        }
+        mBuffer.flip();
+        return mBuffer.remaining() >= length;
+    }
+
+    private long getVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!mBuffer.hasRemaining())
+                throw new IOException("Truncated record");
+            final byte b = mBuffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Invalid timestamp");
+    }
+}
@@ -0,0 +1,73 @@
+package no.nordicsemi.android.mesh.capture;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * PDU recorded in a capture file.
+ */
+public final class PduCaptureRecord {
+
+    /**
+     * Data passed to {@link no.nordicsemi.android.mesh.MeshManagerApi#handleNotifications(int, byte[])}.
+     */
+    public static final int NOTIFICATION = 0;
+    /**
+     * Data passed to {@link no.nordicsemi.android.mesh.MeshManagerApi#handleWriteCallbacks(int, byte[])}.
+     */
+    public static final int WRITE_CALLBACK = 1;
+    /**
+     * Mesh PDU created by the stack, before it is segmented for the bearer.
+     */
+    public static final int PDU_CREATED = 2;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({NOTIFICATION, WRITE_CALLBACK, PDU_CREATED})
+    public @interface Type {
+    }
+
+    private final int type;
+    private final long timestamp;
+    private final int mtu;
+    private final byte[] data;
+
+    PduCaptureRecord(@Type final int type, final long timestamp, final int mtu, @NonNull final byte[] data) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.mtu = mtu;
+        this.data = data;
+    }
+
+    /**
+     * Returns the type of the record.
+     */
+    @Type
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Returns the time the record was captured, in microseconds since the capture started.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the MTU the data was received or sent with, or 0 if it was sent through a proxy bearer.
+     */
+    public int getMtu() {
+        return mtu;
+    }
+
+    /**
+     * Returns the captured data.
+     */
+    @NonNull
+    public byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,124 @@
+package no.nordicsemi.android.mesh.capture;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes PDUs to a capture file.
+ * <p>
+ * The file starts with a header containing {@link #MAGIC}, {@link #VERSION} and the wall clock time the capture
+ * started at. Each record then contains its type (1 byte), the time elapsed since the previous record in microseconds
+ * (variable length, 7 bits per byte), the MTU (2 bytes), the length of the data (2 bytes) and the data. Records are
+ * buffered and written to the file channel when the buffer is full or the writer is closed.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class PduCaptureWriter {
+
+    static final int MAGIC = 0x4D504341; // "MPCA"
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 4 + 1 + 8;
+    static final int MAX_DATA_LENGTH = 0xFFFF;
+    // Type, timestamp, MTU and length
+    static final int MAX_RECORD_HEADER_LENGTH = 1 + 10 + 2 + 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileOutputStream mOutputStream;
+    private final FileChannel mChannel;
+    private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+    private final long mStartTime;
+    private long mLastTimestamp;
+    private boolean mClosed;
+
+    /**
+     * Creates a capture file, replacing any existing file.
+     *
+     * @param file      capture file
+     * @param startTime time the capture starts at, in nanoseconds as returned by {@link System#nanoTime()}
+     * @throws IOException if the file could not be created
+     */
+    public PduCaptureWriter(@NonNull final File file, final long startTime) throws IOException {
+        mOutputStream = new FileOutputStream(file);
+        mChannel = mOutputStream.getChannel();
+        mStartTime = startTime;
+        mBuffer.putInt(MAGIC).put(VERSION).putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type      {@link PduCaptureRecord.Type} of the record
+     * @param mtu       MTU the data was received or sent with
+     * @param data      data to be recorded
+     * @param timestamp time the data was received or sent, in nanoseconds as returned by {@link System#nanoTime()}
+     * @throws IllegalArgumentException if the data is longer than 65535 bytes or the MTU is out of range
+     * @throws IOException              if the buffer could not be written to the file
+     */
+    public synchronized void write(@PduCaptureRecord.Type final int type, final int mtu,
+                                   @NonNull final byte[] data, final long timestamp) throws IOException {
+        if (data.length > MAX_DATA_LENGTH)
+            throw new IllegalArgumentException("Captured data must not be longer than " + MAX_DATA_LENGTH + " bytes");
+        if (mtu < 0 || mtu > 0xFFFF)
+            throw new IllegalArgumentException("MTU must range from 0 to 65535");
+        if (mClosed)
+            throw new IOException("Capture has been closed");
+        if (mBuffer.remaining() < MAX_RECORD_HEADER_LENGTH + data.length) {
+            flush();
+        }
+        final long micros = Math.max(0, (timestamp - mStartTime) / 1000);
+        mBuffer.put((byte) type);
+        putVarLong(mBuffer, Math.max(0, micros - mLastTimestamp));
+        mLastTimestamp = Math.max(micros, mLastTimestamp);
+        mBuffer.putShort((short) mtu).putShort((short) data.length);
+        if (mBuffer.remaining() >= data.length) {
+            mBuffer.put(data);
+        } else {
+            // Larger than the buffer, written directly
+            flush();
+            writeFully(ByteBuffer.wrap(data));
+        }
+    }
+
+    /**
+     * Writes the buffered records and closes the file.
+     *
+     * @throws IOException if the buffered records could not be written
+     */
+    public synchronized void close() throws IOException {
+        if (mClosed)
+            return;
+        mClosed = true;
+        try {
+            flush();
+        } finally {
+            mOutputStream.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        mBuffer.flip();
+        writeFully(mBuffer);
+        mBuffer.clear();
+    }
+
+    private void writeFully(@NonNull final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            mChannel.write(buffer);
+        }
+    }
+
+    static void putVarLong(@NonNull final ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
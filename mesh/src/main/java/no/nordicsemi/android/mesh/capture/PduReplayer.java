@@ -0,0 +1,152 @@
+package no.nordicsemi.android.mesh.capture;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+
+import no.nordicsemi.android.mesh.MeshManagerApi;
+
+/**
+ * Feeds the notifications and write callbacks of a capture file back through a {@link MeshManagerApi}.
+ * <p>
+ * The records are replayed as fast as possible on a virtual clock: the capture time of each record is reported to
+ * {@link Callbacks#onTimeAdvanced(long)} before the record is fed, so a caller driving the timers of the stack, e.g.
+ * a test scheduler, can advance them in step with the capture. The {@link MeshManagerApi} should be a fresh instance
+ * with the network the capture was recorded with imported, so that the received PDUs can be decrypted. Replaying must
+ * be done on the thread the stack expects notifications on.
+ * </p>
+ */
+public final class PduReplayer {
+
+    private final MeshManagerApi mMeshManagerApi;
+
+    /**
+     * Callbacks notified while a capture is replayed.
+     */
+    public interface Callbacks {
+
+        /**
+         * Called before a record is fed to the stack.
+         *
+         * @param timestamp capture time of the record, in microseconds since the capture started
+         */
+        default void onTimeAdvanced(final long timestamp) {
+        }
+
+        /**
+         * Called for each PDU created by the stack while the capture was recorded, e.g. to compare it with the PDUs
+         * created during the replay.
+         *
+         * @param record captured PDU
+         */
+        default void onCapturedPduCreated(@NonNull final PduCaptureRecord record) {
+        }
+    }
+
+    /**
+     * Outcome of a replay.
+     */
+    public static final class Result {
+
+        private final int inputs;
+        private final long bytes;
+        private final long duration;
+        private final long elapsedTime;
+
+        Result(final int inputs, final long bytes, final long duration, final long elapsedTime) {
+            this.inputs = inputs;
+            this.bytes = bytes;
+            this.duration = duration;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * Returns the number of notifications and write callbacks fed to the stack.
+         */
+        public int getInputs() {
+            return inputs;
+        }
+
+        /**
+         * Returns the number of bytes fed to the stack.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the duration of the capture in microseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns the time spent replaying the capture in nanoseconds.
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Returns the number of inputs handled per second, or 0 if nothing was replayed.
+         */
+        public double getInputsPerSecond() {
+            return elapsedTime == 0 ? 0 : inputs * 1_000_000_000.0 / elapsedTime;
+        }
+    }
+
+    /**
+     * Constructs the replayer.
+     *
+     * @param api {@link MeshManagerApi} the capture is fed to
+     */
+    public PduReplayer(@NonNull final MeshManagerApi api) {
+        mMeshManagerApi = api;
+    }
+
+    /**
+     * Replays a capture file.
+     *
+     * @param file      capture file
+     * @param callbacks {@link Callbacks} notified during the replay
+     * @throws IOException if the capture could not be read
+     */
+    @NonNull
+    public Result replay(@NonNull final File file, @Nullable final Callbacks callbacks) throws IOException {
+        final PduCaptureReader reader = new PduCaptureReader(file);
+        int inputs = 0;
+        long bytes = 0;
+        long duration = 0;
+        final long start = System.nanoTime();
+        try {
+            PduCaptureRecord record;
+            while ((record = reader.next()) != null) {
+                duration = record.getTimestamp();
+                if (callbacks != null) {
+                    callbacks.onTimeAdvanced(record.getTimestamp());
+                }
+                switch (record.getType()) {
+                    case PduCaptureRecord.NOTIFICATION:
+                        mMeshManagerApi.handleNotifications(record.getMtu(), record.getData());
+                        break;
+                    case PduCaptureRecord.WRITE_CALLBACK:
+                        mMeshManagerApi.handleWriteCallbacks(record.getMtu(), record.getData());
+                        break;
+                    case PduCaptureRecord.PDU_CREATED:
+                        if (callbacks != null) {
+                            callbacks.onCapturedPduCreated(record);
+                        }
+                        continue;
+                }
+                inputs++;
+                bytes += record.getData().length;
+            }
+        } finally {
+            reader.close();
+        }
+        return new Result(inputs, bytes, duration, System.nanoTime() - start);
+    }
+}
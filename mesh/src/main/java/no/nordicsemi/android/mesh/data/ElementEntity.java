@@ -0,0 +1,48 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+/**
+ * Row of the elements table, containing an element of a provisioned node.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@Entity(tableName = "elements",
+        primaryKeys = {"node_uuid", "element_address"},
+        foreignKeys = @ForeignKey(entity = ProvisionedMeshNode.class,
+                parentColumns = "uuid",
+                childColumns = "node_uuid",
+                onUpdate = CASCADE, onDelete = CASCADE))
+public class ElementEntity {
+
+    @NonNull
+    @ColumnInfo(name = "node_uuid")
+    public final String nodeUuid;
+
+    @ColumnInfo(name = "element_address")
+    public final int elementAddress;
+
+    @ColumnInfo(name = "location_descriptor")
+    public final int locationDescriptor;
+
+    @Nullable
+    @ColumnInfo(name = "name")
+    public final String name;
+
+    public ElementEntity(@NonNull final String nodeUuid,
+                         final int elementAddress,
+                         final int locationDescriptor,
+                         @Nullable final String name) {
+        this.nodeUuid = nodeUuid;
+        this.elementAddress = elementAddress;
+        this.locationDescriptor = locationDescriptor;
+        this.name = name;
+    }
+}
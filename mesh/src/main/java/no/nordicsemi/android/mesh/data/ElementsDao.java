@@ -0,0 +1,107 @@
+package no.nordicsemi.android.mesh.data;
+
+import java.util.List;
+
+import androidx.annotation.RestrictTo;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@SuppressWarnings("unused")
+@Dao
+public interface ElementsDao {
+
+    @Query("SELECT * from elements WHERE node_uuid IN (SELECT uuid from nodes WHERE mesh_uuid IS :meshUuid) " +
+            "ORDER BY node_uuid, element_address")
+    List<ElementEntity> loadElements(final String meshUuid);
+
+    @Query("SELECT * from models WHERE node_uuid IN (SELECT uuid from nodes WHERE mesh_uuid IS :meshUuid) " +
+            "ORDER BY node_uuid, element_address, model_id")
+    List<ModelEntity> loadModels(final String meshUuid);
+
+    @Query("SELECT * from model_subscriptions WHERE node_uuid IN (SELECT uuid from nodes WHERE mesh_uuid IS :meshUuid) " +
+            "ORDER BY rowid")
+    List<ModelSubscriptionEntity> loadSubscriptions(final String meshUuid);
+
+    @Query("SELECT * from model_bindings WHERE node_uuid IN (SELECT uuid from nodes WHERE mesh_uuid IS :meshUuid) " +
+            "ORDER BY rowid")
+    List<ModelBindingEntity> loadBindings(final String meshUuid);
+
+    @Query("SELECT node_uuid, COUNT(*) AS element_count from elements " +
+            "WHERE node_uuid IN (SELECT uuid from nodes WHERE mesh_uuid IS :meshUuid) GROUP BY node_uuid")
+    List<NodeElementCount> loadElementCounts(final String meshUuid);
+
+    @Query("SELECT * from elements WHERE node_uuid = :nodeUuid ORDER BY element_address")
+    List<ElementEntity> loadNodeElements(final String nodeUuid);
+
+    @Query("SELECT * from models WHERE node_uuid = :nodeUuid ORDER BY element_address, model_id")
+    List<ModelEntity> loadNodeModels(final String nodeUuid);
+
+    @Query("SELECT * from model_subscriptions WHERE node_uuid = :nodeUuid ORDER BY rowid")
+    List<ModelSubscriptionEntity> loadNodeSubscriptions(final String nodeUuid);
+
+    @Query("SELECT * from model_bindings WHERE node_uuid = :nodeUuid ORDER BY rowid")
+    List<ModelBindingEntity> loadNodeBindings(final String nodeUuid);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertElements(final List<ElementEntity> elements);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertModels(final List<ModelEntity> models);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertSubscriptions(final List<ModelSubscriptionEntity> subscriptions);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertBindings(final List<ModelBindingEntity> bindings);
+
+    @Update
+    void updateModel(final ModelEntity model);
+
+    @Query("DELETE from elements WHERE node_uuid = :nodeUuid")
+    void deleteElements(final String nodeUuid);
+
+    @Query("DELETE from model_subscriptions WHERE node_uuid = :nodeUuid AND element_address = :elementAddress AND model_id = :modelId")
+    void deleteSubscriptions(final String nodeUuid, final int elementAddress, final int modelId);
+
+    @Query("DELETE from model_bindings WHERE node_uuid = :nodeUuid AND element_address = :elementAddress AND model_id = :modelId")
+    void deleteBindings(final String nodeUuid, final int elementAddress, final int modelId);
+
+    /**
+     * Replaces the elements of a node, deleting the elements removes their models, subscriptions and bindings.
+     */
+    @Transaction
+    default void replaceElements(final String nodeUuid,
+                                 final List<ElementEntity> elements,
+                                 final List<ModelEntity> models,
+                                 final List<ModelSubscriptionEntity> subscriptions,
+                                 final List<ModelBindingEntity> bindings) {
+        deleteElements(nodeUuid);
+        insertElements(elements);
+        insertModels(models);
+        insertSubscriptions(subscriptions);
+        insertBindings(bindings);
+    }
+
+    @Transaction
+    default void replaceSubscriptions(final String nodeUuid,
+                                      final int elementAddress,
+                                      final int modelId,
+                                      final List<ModelSubscriptionEntity> subscriptions) {
+        deleteSubscriptions(nodeUuid, elementAddress, modelId);
+        insertSubscriptions(subscriptions);
+    }
+
+    @Transaction
+    default void replaceBindings(final String nodeUuid,
+                                 final int elementAddress,
+                                 final int modelId,
+                                 final List<ModelBindingEntity> bindings) {
+        deleteBindings(nodeUuid, elementAddress, modelId);
+        insertBindings(bindings);
+    }
+}
@@ -0,0 +1,47 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+/**
+ * Row of the model_bindings table, containing an application key bound to a model.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@Entity(tableName = "model_bindings",
+        primaryKeys = {"node_uuid", "element_address", "model_id", "app_key_index"},
+        foreignKeys = @ForeignKey(entity = ModelEntity.class,
+                parentColumns = {"node_uuid", "element_address", "model_id"},
+                childColumns = {"node_uuid", "element_address", "model_id"},
+                onUpdate = CASCADE, onDelete = CASCADE),
+        indices = @Index("app_key_index"))
+public class ModelBindingEntity {
+
+    @NonNull
+    @ColumnInfo(name = "node_uuid")
+    public final String nodeUuid;
+
+    @ColumnInfo(name = "element_address")
+    public final int elementAddress;
+
+    @ColumnInfo(name = "model_id")
+    public final int modelId;
+
+    @ColumnInfo(name = "app_key_index")
+    public final int appKeyIndex;
+
+    public ModelBindingEntity(@NonNull final String nodeUuid,
+                              final int elementAddress,
+                              final int modelId,
+                              final int appKeyIndex) {
+        this.nodeUuid = nodeUuid;
+        this.elementAddress = elementAddress;
+        this.modelId = modelId;
+        this.appKeyIndex = appKeyIndex;
+    }
+}
@@ -0,0 +1,108 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+/**
+ * Row of the models table, containing a model of an element and its publication settings.
+ * <p>
+ * Subscriptions and bound application keys are stored in {@link ModelSubscriptionEntity} and {@link ModelBindingEntity}
+ * rows. Publication columns are null if the model does not publish. Model specific state such as the heartbeat
+ * configuration of the Configuration Server or the scenes of a Scene Server is kept as json in the state column.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@Entity(tableName = "models",
+        primaryKeys = {"node_uuid", "element_address", "model_id"},
+        foreignKeys = @ForeignKey(entity = ElementEntity.class,
+                parentColumns = {"node_uuid", "element_address"},
+                childColumns = {"node_uuid", "element_address"},
+                onUpdate = CASCADE, onDelete = CASCADE),
+        indices = @Index("model_id"))
+public class ModelEntity {
+
+    @NonNull
+    @ColumnInfo(name = "node_uuid")
+    public final String nodeUuid;
+
+    @ColumnInfo(name = "element_address")
+    public final int elementAddress;
+
+    @ColumnInfo(name = "model_id")
+    public final int modelId;
+
+    @Nullable
+    @ColumnInfo(name = "publish_address")
+    public final Integer publishAddress;
+
+    @Nullable
+    @ColumnInfo(name = "publish_label_uuid")
+    public final String publishLabelUuid;
+
+    @Nullable
+    @ColumnInfo(name = "publish_app_key_index")
+    public final Integer publishAppKeyIndex;
+
+    @Nullable
+    @ColumnInfo(name = "publish_credential_flag")
+    public final Boolean publishCredentialFlag;
+
+    @Nullable
+    @ColumnInfo(name = "publish_ttl")
+    public final Integer publishTtl;
+
+    @Nullable
+    @ColumnInfo(name = "publication_steps")
+    public final Integer publicationSteps;
+
+    @Nullable
+    @ColumnInfo(name = "publication_resolution")
+    public final Integer publicationResolution;
+
+    @Nullable
+    @ColumnInfo(name = "publish_retransmit_count")
+    public final Integer publishRetransmitCount;
+
+    @Nullable
+    @ColumnInfo(name = "publish_retransmit_interval_steps")
+    public final Integer publishRetransmitIntervalSteps;
+
+    @Nullable
+    @ColumnInfo(name = "state")
+    public final String state;
+
+    public ModelEntity(@NonNull final String nodeUuid,
+                       final int elementAddress,
+                       final int modelId,
+                       @Nullable final Integer publishAddress,
+                       @Nullable final String publishLabelUuid,
+                       @Nullable final Integer publishAppKeyIndex,
+                       @Nullable final Boolean publishCredentialFlag,
+                       @Nullable final Integer publishTtl,
+                       @Nullable final Integer publicationSteps,
+                       @Nullable final Integer publicationResolution,
+                       @Nullable final Integer publishRetransmitCount,
+                       @Nullable final Integer publishRetransmitIntervalSteps,
+                       @Nullable final String state) {
+        this.nodeUuid = nodeUuid;
+        this.elementAddress = elementAddress;
+        this.modelId = modelId;
+        this.publishAddress = publishAddress;
+        this.publishLabelUuid = publishLabelUuid;
+        this.publishAppKeyIndex = publishAppKeyIndex;
+        this.publishCredentialFlag = publishCredentialFlag;
+        this.publishTtl = publishTtl;
+        this.publicationSteps = publicationSteps;
+        this.publicationResolution = publicationResolution;
+        this.publishRetransmitCount = publishRetransmitCount;
+        this.publishRetransmitIntervalSteps = publishRetransmitIntervalSteps;
+        this.state = state;
+    }
+}
@@ -0,0 +1,57 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+/**
+ * Row of the model_subscriptions table, containing a subscription address of a model.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@Entity(tableName = "model_subscriptions",
+        primaryKeys = {"node_uuid", "element_address", "model_id", "address"},
+        foreignKeys = @ForeignKey(entity = ModelEntity.class,
+                parentColumns = {"node_uuid", "element_address", "model_id"},
+                childColumns = {"node_uuid", "element_address", "model_id"},
+                onUpdate = CASCADE, onDelete = CASCADE),
+        indices = @Index("address"))
+public class ModelSubscriptionEntity {
+
+    @NonNull
+    @ColumnInfo(name = "node_uuid")
+    public final String nodeUuid;
+
+    @ColumnInfo(name = "element_address")
+    public final int elementAddress;
+
+    @ColumnInfo(name = "model_id")
+    public final int modelId;
+
+    @ColumnInfo(name = "address")
+    public final int address;
+
+    /**
+     * Label UUID of a virtual subscription address, null otherwise.
+     */
+    @Nullable
+    @ColumnInfo(name = "label_uuid")
+    public final String labelUuid;
+
+    public ModelSubscriptionEntity(@NonNull final String nodeUuid,
+                                   final int elementAddress,
+                                   final int modelId,
+                                   final int address,
+                                   @Nullable final String labelUuid) {
+        this.nodeUuid = nodeUuid;
+        this.elementAddress = elementAddress;
+        this.modelId = modelId;
+        this.address = address;
+        this.labelUuid = labelUuid;
+    }
+}
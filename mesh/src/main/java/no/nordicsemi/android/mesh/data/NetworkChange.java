@@ -0,0 +1,58 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import no.nordicsemi.android.mesh.MeshNetwork;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+/**
+ * Row of the network changes table, containing the revision at which an entity of a mesh network was last changed.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@Entity(tableName = "network_changes",
+        primaryKeys = {"mesh_uuid", "entity_type", "entity_id"},
+        foreignKeys = @ForeignKey(entity = MeshNetwork.class,
+                parentColumns = "mesh_uuid",
+                childColumns = "mesh_uuid",
+                onUpdate = CASCADE, onDelete = CASCADE))
+public class NetworkChange {
+
+    @NonNull
+    @ColumnInfo(name = "mesh_uuid")
+    public final String meshUuid;
+
+    @NonNull
+    @ColumnInfo(name = "entity_type")
+    public final String entityType;
+
+    @NonNull
+    @ColumnInfo(name = "entity_id")
+    public final String entityId;
+
+    @ColumnInfo(name = "revision")
+    public final long revision;
+
+    @ColumnInfo(name = "timestamp")
+    public final long timestamp;
+
+    @ColumnInfo(name = "deleted")
+    public final boolean deleted;
+
+    public NetworkChange(@NonNull final String meshUuid,
+                         @NonNull final String entityType,
+                         @NonNull final String entityId,
+                         final long revision,
+                         final long timestamp,
+                         final boolean deleted) {
+        this.meshUuid = meshUuid;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.revision = revision;
+        this.timestamp = timestamp;
+        this.deleted = deleted;
+    }
+}
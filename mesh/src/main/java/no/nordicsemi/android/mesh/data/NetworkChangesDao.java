@@ -0,0 +1,21 @@
+package no.nordicsemi.android.mesh.data;
+
+import java.util.List;
+
+import androidx.annotation.RestrictTo;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@SuppressWarnings("unused")
+@Dao
+public interface NetworkChangesDao {
+
+    @Query("SELECT * from network_changes WHERE mesh_uuid IS :meshUuid ORDER BY revision")
+    List<NetworkChange> loadChanges(final String meshUuid);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(final NetworkChange change);
+}
@@ -0,0 +1,24 @@
+package no.nordicsemi.android.mesh.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.room.ColumnInfo;
+
+/**
+ * Number of elements stored for a provisioned node, used when the elements are loaded on demand.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public class NodeElementCount {
+
+    @NonNull
+    @ColumnInfo(name = "node_uuid")
+    public final String nodeUuid;
+
+    @ColumnInfo(name = "element_count")
+    public final int elementCount;
+
+    public NodeElementCount(@NonNull final String nodeUuid, final int elementCount) {
+        this.nodeUuid = nodeUuid;
+        this.elementCount = elementCount;
+    }
+}
@@ -0,0 +1,69 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monotonic counter that can be incremented concurrently from many threads.
+ * <p>
+ * The count is striped over several cells, each on its own cache line, and a thread only updates the cell selected
+ * by its id. Threads updating the counter at the same time therefore rarely contend, and the cells are only summed
+ * when the counter is read.
+ * </p>
+ */
+public final class Counter {
+
+    private static final int STRIPES = stripes();
+    // Longs per cache line, so that two stripes never share a line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray mCells = new AtomicLongArray(STRIPES * PADDING);
+
+    Counter() {
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        mCells.getAndIncrement(index());
+    }
+
+    /**
+     * Adds a value to the counter.
+     *
+     * @param value value to be added
+     */
+    public void add(final long value) {
+        mCells.getAndAdd(index(), value);
+    }
+
+    /**
+     * Returns the current count.
+     */
+    public long get() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += mCells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            mCells.set(i * PADDING, 0);
+        }
+    }
+
+    private static int index() {
+        return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+    }
+
+    private static int stripes() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 2;
+        while (stripes < processors * 2 && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+}
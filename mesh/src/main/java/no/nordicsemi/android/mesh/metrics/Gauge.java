@@ -0,0 +1,12 @@
+package no.nordicsemi.android.mesh.metrics;
+
+/**
+ * Value sampled when a snapshot of the metrics is taken, such as the depth of a queue.
+ */
+public interface Gauge {
+
+    /**
+     * Returns the current value. Called from the thread taking the snapshot.
+     */
+    long get();
+}
@@ -0,0 +1,73 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of non-negative values, such as latencies, recorded concurrently from many threads.
+ * <p>
+ * Values are counted in power of two buckets, so recording a value is a few atomic additions and needs no allocation
+ * or lock. Bucket 0 holds 0 and bucket i holds the values from 2^(i-1) to 2^i - 1, so percentiles are reported
+ * with a precision of a factor of two.
+ * </p>
+ */
+public final class Histogram {
+
+    static final int BUCKETS = 64;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKETS);
+    private final Counter mSum = new Counter();
+    private final AtomicLong mMax = new AtomicLong();
+
+    Histogram() {
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value value to be recorded
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        mBuckets.getAndIncrement(bucketOf(v));
+        mSum.add(v);
+        long max;
+        while (v > (max = mMax.get())) {
+            if (mMax.compareAndSet(max, v))
+                break;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the distribution.
+     */
+    @NonNull
+    public HistogramSnapshot snapshot() {
+        final long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = mBuckets.get(i);
+        }
+        return new HistogramSnapshot(buckets, mSum.get(), mMax.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mBuckets.set(i, 0);
+        }
+        mSum.reset();
+        mMax.set(0);
+    }
+
+    static int bucketOf(final long value) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     */
+    static long upperBoundOf(final int bucket) {
+        return bucket == 0 ? 0 : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
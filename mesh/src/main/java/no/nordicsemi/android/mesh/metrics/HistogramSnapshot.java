@@ -0,0 +1,86 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Distribution of the values recorded by a {@link Histogram} at the time the snapshot was taken.
+ */
+public final class HistogramSnapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(@NonNull final long[] buckets, final long sum, final long max) {
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the highest value recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the average of the values recorded, or 0 if none was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the values recorded, which is at most twice the exact value.
+     *
+     * @param percentile percentile ranging from 0 to 100
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must range from 0 to 100");
+        if (count == 0)
+            return 0;
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank)
+                return Math.min(max, Histogram.upperBoundOf(i));
+        }
+        return max;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", sum=" + sum +
+                ", max=" + max +
+                ", p50=" + getPercentile(50) +
+                ", p99=" + getPercentile(99) +
+                '}';
+    }
+}
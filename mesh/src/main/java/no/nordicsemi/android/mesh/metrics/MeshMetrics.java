@@ -0,0 +1,255 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import no.nordicsemi.android.mesh.transport.OpCodeMap;
+
+/**
+ * Registry of the counters, histograms and gauges describing the traffic handled by the mesh stack.
+ * <p>
+ * The stack records the PDUs sent and received by type, decryption failures per layer, duplicate network PDUs,
+ * segmentation activity, round trip times of acknowledged messages per opcode and database write latencies.
+ * Metrics are cheap to record and can be read at any time using {@link #snapshot()}.
+ * </p>
+ */
+public final class MeshMetrics {
+
+    private static final String[] PDU_TYPES = {"network", "mesh_beacon", "proxy_configuration", "provisioning"};
+    // Requests that are not answered within this time are no longer tracked
+    private static final long REQUEST_TIMEOUT = 30_000;
+
+    private static final ConcurrentHashMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    private static final Counter[] PDUS_SENT = new Counter[PDU_TYPES.length];
+    private static final Counter[] PDUS_RECEIVED = new Counter[PDU_TYPES.length];
+    private static final Counter DUPLICATES_DROPPED = counter("network.duplicates_dropped");
+    private static final Counter SEGMENTS_SENT = counter("segments.sent");
+    private static final Counter SEGMENTS_RETRANSMITTED = counter("segments.retransmitted");
+    private static final Counter BLOCK_ACKS_SENT = counter("block_acks.sent");
+    private static final Counter BLOCK_ACKS_RECEIVED = counter("block_acks.received");
+    private static final Counter INCOMPLETE_TIMER_EXPIRIES = counter("incomplete_timer.expired");
+    private static final Histogram DATABASE_WRITE_LATENCY = histogram("db.write_latency_us");
+
+    // Send time and opcode of the pending acknowledged requests keyed by destination address
+    private static final Map<Integer, long[]> PENDING_REQUESTS = new HashMap<>();
+    // Round trip time histograms keyed by opcode, guarded by PENDING_REQUESTS
+    private static final OpCodeMap<Histogram> REQUEST_RTTS = new OpCodeMap<>();
+
+    static {
+        for (int i = 0; i < PDU_TYPES.length; i++) {
+            PDUS_SENT[i] = counter("pdus.sent." + PDU_TYPES[i]);
+            PDUS_RECEIVED[i] = counter("pdus.received." + PDU_TYPES[i]);
+        }
+    }
+
+    private MeshMetrics() {
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name name of the counter
+     */
+    @NonNull
+    public static Counter counter(@NonNull final String name) {
+        Counter counter = COUNTERS.get(name);
+        if (counter == null) {
+            final Counter created = new Counter();
+            counter = COUNTERS.putIfAbsent(name, created);
+            if (counter == null)
+                counter = created;
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it if needed.
+     *
+     * @param name name of the histogram
+     */
+    @NonNull
+    public static Histogram histogram(@NonNull final String name) {
+        Histogram histogram = HISTOGRAMS.get(name);
+        if (histogram == null) {
+            final Histogram created = new Histogram();
+            histogram = HISTOGRAMS.putIfAbsent(name, created);
+            if (histogram == null)
+                histogram = created;
+        }
+        return histogram;
+    }
+
+    /**
+     * Registers a gauge sampled on every snapshot, replacing any gauge registered with the same name.
+     *
+     * @param name  name of the gauge
+     * @param gauge gauge to be sampled
+     */
+    public static void registerGauge(@NonNull final String name, @NonNull final Gauge gauge) {
+        GAUGES.put(name, gauge);
+    }
+
+    /**
+     * Unregisters a gauge.
+     *
+     * @param name name of the gauge
+     */
+    public static void unregisterGauge(@NonNull final String name) {
+        GAUGES.remove(name);
+    }
+
+    /**
+     * Returns the current values of all metrics.
+     * <p>
+     * Counters are read one after the other while they may still be updated, so the snapshot is not atomic.
+     * </p>
+     */
+    @NonNull
+    public static MeshMetricsSnapshot snapshot() {
+        final Map<String, Long> counters = new TreeMap<>();
+        for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue().get());
+        }
+        final Map<String, Long> gauges = new TreeMap<>();
+        for (Map.Entry<String, Gauge> entry : GAUGES.entrySet()) {
+            gauges.put(entry.getKey(), entry.getValue().get());
+        }
+        final Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return new MeshMetricsSnapshot(System.currentTimeMillis(), counters, gauges, histograms);
+    }
+
+    /**
+     * Resets all counters and histograms. Gauges remain registered.
+     */
+    public static void reset() {
+        for (Counter counter : COUNTERS.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+        synchronized (PENDING_REQUESTS) {
+            PENDING_REQUESTS.clear();
+        }
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onPduSent(final int pduType) {
+        if (pduType >= 0 && pduType < PDU_TYPES.length)
+            PDUS_SENT[pduType].increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onPduReceived(final int pduType) {
+        if (pduType >= 0 && pduType < PDU_TYPES.length)
+            PDUS_RECEIVED[pduType].increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onDecryptionFailed(@NonNull final String layer) {
+        counter("decryption.failures." + layer).increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onDuplicateDropped() {
+        DUPLICATES_DROPPED.increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onSegmentsSent(final int count) {
+        SEGMENTS_SENT.add(count);
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onSegmentRetransmitted() {
+        SEGMENTS_RETRANSMITTED.increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onBlockAckSent() {
+        BLOCK_ACKS_SENT.increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onBlockAckReceived() {
+        BLOCK_ACKS_RECEIVED.increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onIncompleteTimerExpired() {
+        INCOMPLETE_TIMER_EXPIRIES.increment();
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onDatabaseFlush(final long latencyMicros) {
+        DATABASE_WRITE_LATENCY.record(latencyMicros);
+    }
+
+    /**
+     * Starts timing an acknowledged request. Only the latest request sent to a destination is tracked, as the
+     * stack does not map responses to the opcode of the request they answer.
+     *
+     * @param dst    destination address of the request
+     * @param opCode opcode of the request
+     * @param now    send time in milliseconds
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onRequestSent(final int dst, final int opCode, final long now) {
+        synchronized (PENDING_REQUESTS) {
+            if (PENDING_REQUESTS.size() >= 64) {
+                final Iterator<long[]> iterator = PENDING_REQUESTS.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next()[0] > REQUEST_TIMEOUT)
+                        iterator.remove();
+                }
+            }
+            PENDING_REQUESTS.put(dst, new long[]{now, opCode});
+        }
+    }
+
+    /**
+     * Records the round trip time of the request pending for the source of a received access message.
+     *
+     * @param src source address of the received message
+     * @param now receive time in milliseconds
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void onResponseReceived(final int src, final long now) {
+        final long[] request;
+        final Histogram rtt;
+        synchronized (PENDING_REQUESTS) {
+            request = PENDING_REQUESTS.remove(src);
+            if (request == null || now - request[0] > REQUEST_TIMEOUT)
+                return;
+            rtt = getRequestRtt((int) request[1]);
+        }
+        rtt.record(now - request[0]);
+    }
+
+    /**
+     * Returns the round trip time histogram of an opcode, so that its name is only formatted once.
+     *
+     * @param opCode opcode of the request
+     */
+    private static Histogram getRequestRtt(final int opCode) {
+        Histogram rtt = REQUEST_RTTS.get(opCode);
+        if (rtt == null) {
+            rtt = histogram(String.format(Locale.US, "request.rtt_ms.0x%04X", opCode));
+            REQUEST_RTTS.put(opCode, rtt);
+        }
+        return rtt;
+    }
+}
@@ -0,0 +1,123 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Values of the mesh metrics at the time the snapshot was taken.
+ */
+public final class MeshMetricsSnapshot {
+
+    private final long timestamp;
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MeshMetricsSnapshot(final long timestamp,
+                        @NonNull final Map<String, Long> counters,
+                        @NonNull final Map<String, Long> gauges,
+                        @NonNull final Map<String, HistogramSnapshot> histograms) {
+        this.timestamp = timestamp;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * Returns the time the snapshot was taken, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the counters sorted by name.
+     */
+    @NonNull
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Returns the value of a counter, or 0 if it has never been incremented.
+     *
+     * @param name name of the counter
+     */
+    public long getCounter(@NonNull final String name) {
+        final Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Returns the gauges sorted by name.
+     */
+    @NonNull
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * Returns the histograms sorted by name.
+     */
+    @NonNull
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Returns the snapshot as a JSON object with the counters, gauges and histograms keyed by name.
+     */
+    @NonNull
+    public String toJson() {
+        final StringWriter out = new StringWriter();
+        final JsonWriter writer = new JsonWriter(out);
+        try {
+            writer.beginObject();
+            writer.name("timestamp").value(timestamp);
+            writeValues(writer, "counters", counters);
+            writeValues(writer, "gauges", gauges);
+            writer.name("histograms").beginObject();
+            for (Map.Entry<String, HistogramSnapshot> entry : histograms.entrySet()) {
+                final HistogramSnapshot histogram = entry.getValue();
+                writer.name(entry.getKey()).beginObject();
+                writer.name("count").value(histogram.getCount());
+                writer.name("sum").value(histogram.getSum());
+                writer.name("max").value(histogram.getMax());
+                writer.name("mean").value(histogram.getMean());
+                writer.name("p50").value(histogram.getPercentile(50));
+                writer.name("p90").value(histogram.getPercentile(90));
+                writer.name("p99").value(histogram.getPercentile(99));
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
+            writer.close();
+        } catch (IOException ex) {
+            // StringWriter does not throw
+            throw new IllegalStateException(ex);
+        }
+        return out.toString();
+    }
+
+    private static void writeValues(@NonNull final JsonWriter writer,
+                                    @NonNull final String name,
+                                    @NonNull final Map<String, Long> values) throws IOException {
+        writer.name(name).beginObject();
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        writer.endObject();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
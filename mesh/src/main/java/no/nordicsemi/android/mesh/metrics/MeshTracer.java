@@ -0,0 +1,255 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in tracer recording how each mesh message travels through the layers of the stack.
+ * <p>
+ * Every message sent gets a correlation id, and the spans recorded while it is encoded, encrypted, segmented and
+ * handed to the bearer, as well as those recorded while its response is received and decoded, are tagged with that
+ * id. The id is looked up by the address of the node the message is exchanged with, as the stack handles a single
+ * message per destination at a time. Spans recorded before the source of a received PDU is known are tagged with 0.
+ * </p>
+ * <p>
+ * Records are kept in a ring buffer allocated when tracing is enabled, so the oldest records are overwritten when
+ * it is full. When tracing is disabled recording a span costs a single volatile read. The records can be exported
+ * using {@link #exportChromeTrace()} and opened in chrome://tracing or Perfetto.
+ * </p>
+ */
+public final class MeshTracer {
+
+    /**
+     * Start time returned by {@link #begin()} when tracing is disabled.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static final long NOT_TRACING = Long.MIN_VALUE;
+    private static final long INSTANT = -1;
+    private static final int NO_OPCODE = -1;
+
+    private static volatile TraceBuffer sBuffer;
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+    // Correlation ids of the messages being exchanged keyed by the address of the node
+    private static final Map<Integer, Integer> ACTIVE_TRACES = new HashMap<>();
+
+    private MeshTracer() {
+    }
+
+    /**
+     * Enables tracing, discarding any previous records.
+     *
+     * @param capacity number of records kept, rounded up to a power of two
+     * @throws IllegalArgumentException if the capacity is less than 1 or greater than 2^20
+     */
+    public static void enable(final int capacity) throws IllegalArgumentException {
+        if (capacity < 1 || capacity > (1 << 20))
+            throw new IllegalArgumentException("Capacity must range from 1 to 2^20");
+        synchronized (ACTIVE_TRACES) {
+            ACTIVE_TRACES.clear();
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        sBuffer = new TraceBuffer(size);
+    }
+
+    /**
+     * Disables tracing and discards the records.
+     */
+    public static void disable() {
+        sBuffer = null;
+        synchronized (ACTIVE_TRACES) {
+            ACTIVE_TRACES.clear();
+        }
+    }
+
+    /**
+     * Returns true if tracing is enabled.
+     */
+    public static boolean isEnabled() {
+        return sBuffer != null;
+    }
+
+    /**
+     * Returns the records as a Chrome trace event JSON object. Spans are exported as complete events and the
+     * correlation id of each record is exported in its arguments.
+     */
+    @NonNull
+    public static String exportChromeTrace() {
+        final StringWriter out = new StringWriter();
+        final JsonWriter writer = new JsonWriter(out);
+        try {
+            writer.beginObject();
+            writer.name("traceEvents").beginArray();
+            final TraceBuffer buffer = sBuffer;
+            if (buffer != null) {
+                buffer.write(writer);
+            }
+            writer.endArray();
+            writer.name("displayTimeUnit").value("ms");
+            writer.endObject();
+            writer.close();
+        } catch (IOException ex) {
+            // StringWriter does not throw
+            throw new IllegalStateException(ex);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Assigns a new correlation id to a message sent to a node.
+     *
+     * @param dst    destination address of the message
+     * @param opCode opcode of the message
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void beginTrace(final int dst, final int opCode) {
+        final TraceBuffer buffer = sBuffer;
+        if (buffer == null)
+            return;
+        final int id = NEXT_ID.getAndIncrement();
+        synchronized (ACTIVE_TRACES) {
+            ACTIVE_TRACES.put(dst, id);
+        }
+        buffer.add("message.send", id, opCode, System.nanoTime(), INSTANT);
+    }
+
+    /**
+     * Ends the trace of the message exchanged with a node once its response has been decoded.
+     *
+     * @param src    source address of the response
+     * @param opCode opcode of the response
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void endTrace(final int src, final int opCode) {
+        final TraceBuffer buffer = sBuffer;
+        if (buffer == null)
+            return;
+        final Integer id;
+        synchronized (ACTIVE_TRACES) {
+            id = ACTIVE_TRACES.remove(src);
+        }
+        buffer.add("message.received", id == null ? 0 : id, opCode, System.nanoTime(), INSTANT);
+    }
+
+    /**
+     * Returns the start time of a span, or {@link #NOT_TRACING} if tracing is disabled.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static long begin() {
+        return sBuffer == null ? NOT_TRACING : System.nanoTime();
+    }
+
+    /**
+     * Records a span started with {@link #begin()}.
+     *
+     * @param name    name of the span
+     * @param address address of the node the message is exchanged with
+     * @param start   start time returned by {@link #begin()}
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void end(@NonNull final String name, final int address, final long start) {
+        if (start == NOT_TRACING)
+            return;
+        final TraceBuffer buffer = sBuffer;
+        if (buffer == null)
+            return;
+        final long end = System.nanoTime();
+        buffer.add(name, traceIdOf(address), NO_OPCODE, start, end - start);
+    }
+
+    /**
+     * Records an event without duration.
+     *
+     * @param name    name of the event
+     * @param address address of the node the message is exchanged with
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void instant(@NonNull final String name, final int address) {
+        final TraceBuffer buffer = sBuffer;
+        if (buffer == null)
+            return;
+        buffer.add(name, traceIdOf(address), NO_OPCODE, System.nanoTime(), INSTANT);
+    }
+
+    private static int traceIdOf(final int address) {
+        final Integer id;
+        synchronized (ACTIVE_TRACES) {
+            id = ACTIVE_TRACES.get(address);
+        }
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * Fixed size ring buffer of trace records stored in parallel arrays.
+     */
+    private static final class TraceBuffer {
+
+        private final int mask;
+        private final String[] names;
+        private final int[] ids;
+        private final int[] opCodes;
+        private final long[] threads;
+        private final long[] starts;
+        private final long[] durations;
+        private long written;
+
+        TraceBuffer(final int capacity) {
+            mask = capacity - 1;
+            names = new String[capacity];
+            ids = new int[capacity];
+            opCodes = new int[capacity];
+            threads = new long[capacity];
+            starts = new long[capacity];
+            durations = new long[capacity];
+        }
+
+        synchronized void add(@NonNull final String name, final int id, final int opCode, final long start, final long duration) {
+            final int index = (int) (written++ & mask);
+            names[index] = name;
+            ids[index] = id;
+            opCodes[index] = opCode;
+            threads[index] = Thread.currentThread().getId();
+            starts[index] = start;
+            durations[index] = duration;
+        }
+
+        synchronized void write(@NonNull final JsonWriter writer) throws IOException {
+            final long first = Math.max(0, written - names.length);
+            for (long i = first; i < written; i++) {
+                final int index = (int) (i & mask);
+                writer.beginObject();
+                writer.name("name").value(names[index]);
+                writer.name("cat").value("mesh");
+                writer.name("pid").value(0);
+                writer.name("tid").value(threads[index]);
+                // Chrome trace timestamps are in microseconds
+                writer.name("ts").value(starts[index] / 1000.0);
+                if (durations[index] == INSTANT) {
+                    writer.name("ph").value("i");
+                    writer.name("s").value("t");
+                } else {
+                    writer.name("ph").value("X");
+                    writer.name("dur").value(durations[index] / 1000.0);
+                }
+                writer.name("args").beginObject();
+                writer.name("id").value(ids[index]);
+                if (opCodes[index] != NO_OPCODE) {
+                    writer.name("opCode").value(String.format(Locale.US, "0x%04X", opCodes[index]));
+                }
+                writer.endObject();
+                writer.endObject();
+            }
+        }
+    }
+}
@@ -27,7 +27,7 @@ public class SigModelParser {
 
     public static final short CONFIGURATION_SERVER = 0x0000;
     public static final short CONFIGURATION_CLIENT = 0x0001;
-    private static final short HEALTH_SERVER_MODEL = 0x0002;
+    public static final short HEALTH_SERVER_MODEL = 0x0002;
     private static final short HEALTH_CLIENT_MODEL = 0x0003;
 
     private static final short REMOTE_PROVISIONING_SERVER                 = 0x0004;
@@ -379,4 +379,89 @@ public class ConfigMessageOpCodes {
      */
     public static final int CONFIG_VENDOR_MODEL_APP_LIST = 0x804E;
 
+    /**
+     * Opcode for the "Remote Provisioning Scan Capabilities Get" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_CAPABILITIES_GET = 0x804F;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Capabilities Status" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_CAPABILITIES_STATUS = 0x8050;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Get" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_GET = 0x8051;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Start" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_START = 0x8052;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Stop" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_STOP = 0x8053;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Status" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_STATUS = 0x8054;
+
+    /**
+     * Opcode for the "Remote Provisioning Scan Report" message.
+     */
+    public static final int REMOTE_PROVISIONING_SCAN_REPORT = 0x8055;
+
+    /**
+     * Opcode for the "Remote Provisioning Extended Scan Start" message.
+     */
+    public static final int REMOTE_PROVISIONING_EXTENDED_SCAN_START = 0x8056;
+
+    /**
+     * Opcode for the "Remote Provisioning Extended Scan Report" message.
+     */
+    public static final int REMOTE_PROVISIONING_EXTENDED_SCAN_REPORT = 0x8057;
+
+    /**
+     * Opcode for the "Remote Provisioning Link Get" message.
+     */
+    public static final int REMOTE_PROVISIONING_LINK_GET = 0x8058;
+
+    /**
+     * Opcode for the "Remote Provisioning Link Open" message.
+     */
+    public static final int REMOTE_PROVISIONING_LINK_OPEN = 0x8059;
+
+    /**
+     * Opcode for the "Remote Provisioning Link Close" message.
+     */
+    public static final int REMOTE_PROVISIONING_LINK_CLOSE = 0x805A;
+
+    /**
+     * Opcode for the "Remote Provisioning Link Status" message.
+     */
+    public static final int REMOTE_PROVISIONING_LINK_STATUS = 0x805B;
+
+    /**
+     * Opcode for the "Remote Provisioning Link Report" message.
+     */
+    public static final int REMOTE_PROVISIONING_LINK_REPORT = 0x805C;
+
+    /**
+     * Opcode for the "Remote Provisioning PDU Send" message.
+     */
+    public static final int REMOTE_PROVISIONING_PDU_SEND = 0x805D;
+
+    /**
+     * Opcode for the "Remote Provisioning PDU Outbound Report" message.
+     */
+    public static final int REMOTE_PROVISIONING_PDU_OUTBOUND_REPORT = 0x805E;
+
+    /**
+     * Opcode for the "Remote Provisioning PDU Report" message.
+     */
+    public static final int REMOTE_PROVISIONING_PDU_REPORT = 0x805F;
+
 }
@@ -29,6 +29,7 @@ import java.util.Arrays;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import no.nordicsemi.android.mesh.InternalProvisioningCallbacks;
 import no.nordicsemi.android.mesh.InternalTransportCallbacks;
 import no.nordicsemi.android.mesh.MeshManagerApi;
@@ -48,6 +49,8 @@ public class ProvisioningConfirmationState extends ProvisioningState {
     private final MeshProvisioningStatusCallbacks mStatusCallbacks;
     private final InternalTransportCallbacks mInternalTransportCallbacks;
     private String authentication;
+    private boolean authenticationValueGenerated;
+    private byte[] provisioningConfirmationPDU;
 
     /**
      * Constructs the provisioning confirmation state.
@@ -84,8 +87,9 @@ public class ProvisioningConfirmationState extends ProvisioningState {
 
     @Override
     public void executeSend() {
-
-        final byte[] provisioningConfirmationPDU = createProvisioningConfirmation();
+        if (provisioningConfirmationPDU == null) {
+            generateConfirmation();
+        }
         final byte[] confirmationWithoutHeaders = Arrays.copyOfRange(provisioningConfirmationPDU, 2, provisioningConfirmationPDU.length);
         mNode.setProvisionerConfirmation(confirmationWithoutHeaders);
         mStatusCallbacks.onProvisioningStateChanged(mNode, States.PROVISIONING_CONFIRMATION_SENT, provisioningConfirmationPDU);
@@ -99,6 +103,32 @@ public class ProvisioningConfirmationState extends ProvisioningState {
         return true;
     }
 
+    /**
+     * Generates the authentication value from the authentication set by the user.
+     *
+     * @throws IllegalArgumentException if the authentication value is invalid
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void generateAuthenticationValue() {
+        final byte[] authenticationValue = createAuthenticationValue();
+        if (authenticationValue == null)
+            throw new IllegalArgumentException("Invalid authentication value!");
+        mNode.setAuthenticationValue(authenticationValue);
+        authenticationValueGenerated = true;
+        MeshLogger.verbose(TAG, "Authentication value: " + MeshParserUtils.bytesToHex(authenticationValue, false));
+    }
+
+    /**
+     * Generates the provisioner confirmation, may be called on a worker thread before {@link #executeSend()}.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void generateConfirmation() {
+        if (!authenticationValueGenerated) {
+            generateAuthenticationValue();
+        }
+        provisioningConfirmationPDU = createProvisioningConfirmation();
+    }
+
     private byte[] createProvisioningConfirmation() {
 
         final byte[] confirmationInputs = provisioningCallbacks.generateConfirmationInputs(mNode.getProvisionerPublicKeyXY(), mNode.getProvisioneePublicKeyXY());
@@ -119,12 +149,7 @@ public class ProvisioningConfirmationState extends ProvisioningState {
         mNode.setProvisionerRandom(provisionerRandom);
         MeshLogger.verbose(TAG, "Provisioner random: " + MeshParserUtils.bytesToHex(provisionerRandom, false));
 
-        //Generate authentication value from the user input authentication
-        final byte[] authenticationValue = generateAuthenticationValue();
-        if (authenticationValue == null)
-            throw new IllegalArgumentException("Invalid authentication value!");
-        mNode.setAuthenticationValue(authenticationValue);
-        MeshLogger.verbose(TAG, "Authentication value: " + MeshParserUtils.bytesToHex(authenticationValue, false));
+        final byte[] authenticationValue = mNode.getAuthenticationValue();
 
         ByteBuffer buffer = ByteBuffer.allocate(provisionerRandom.length + 16);
         buffer.put(provisionerRandom);
@@ -142,7 +167,7 @@ public class ProvisioningConfirmationState extends ProvisioningState {
         return provisioningConfirmationPDU;
     }
 
-    private byte[] generateAuthenticationValue() {
+    private byte[] createAuthenticationValue() {
         switch (mNode.authMethodUsed) {
             case NO_OOB_AUTHENTICATION:
                 return NO_OOB_AUTH;
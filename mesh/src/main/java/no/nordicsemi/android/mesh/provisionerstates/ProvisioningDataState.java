@@ -43,6 +43,7 @@ public class ProvisioningDataState extends ProvisioningState {
     private final MeshProvisioningStatusCallbacks mStatusCallbacks;
     private final InternalProvisioningCallbacks provisioningCallbacks;
     private final InternalTransportCallbacks mInternalTransportCallbacks;
+    private byte[] provisioningDataPDU;
 
     /**
      * Constructs the provisioning data state.
@@ -79,8 +80,18 @@ public class ProvisioningDataState extends ProvisioningState {
         return true;
     }
 
+    /**
+     * Generates the encrypted provisioning data, may be called on a worker thread before {@link #executeSend()}.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void generateProvisioningData() {
+        provisioningDataPDU = createProvisioningDataPDU();
+    }
+
     private void sendProvisioningData() {
-        final byte[] provisioningDataPDU = createProvisioningDataPDU();
+        if (provisioningDataPDU == null) {
+            generateProvisioningData();
+        }
         mStatusCallbacks.onProvisioningStateChanged(mUnprovisionedMeshNode, States.PROVISIONING_DATA_SENT, provisioningDataPDU);
         mInternalTransportCallbacks.sendProvisioningPdu(mUnprovisionedMeshNode, provisioningDataPDU);
     }
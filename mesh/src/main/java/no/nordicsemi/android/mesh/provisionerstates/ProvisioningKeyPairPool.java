@@ -0,0 +1,143 @@
+package no.nordicsemi.android.mesh.provisionerstates;
+
+import org.spongycastle.jce.ECNamedCurveTable;
+import org.spongycastle.jce.spec.ECNamedCurveParameterSpec;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+/**
+ * Pool of pre-generated P-256 key pairs used by the provisioner during the public key exchange.
+ * <p>
+ * Generating a key pair takes a considerable amount of time on slower devices. The pool generates the key pairs in the
+ * background ahead of time, so that provisioning a device does not wait for it. Each key pair is handed out only once,
+ * the pool is refilled in the background after a key pair has been taken.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class ProvisioningKeyPairPool {
+
+    private static final String TAG = ProvisioningKeyPairPool.class.getSimpleName();
+
+    /**
+     * Generates a key pair.
+     */
+    interface Generator {
+        @NonNull
+        KeyPair generateKeyPair() throws GeneralSecurityException;
+    }
+
+    private final Generator mKeyPairGenerator;
+    private final ExecutorService mGenerator = Executors.newSingleThreadExecutor();
+    private final ArrayDeque<KeyPair> mKeyPairs = new ArrayDeque<>();
+    private int mSize;
+    private boolean mRefillScheduled;
+
+    /**
+     * Constructs an empty pool, see {@link #setSize(int)}.
+     */
+    public ProvisioningKeyPairPool() {
+        this(ProvisioningKeyPairPool::generateKeyPair);
+    }
+
+    ProvisioningKeyPairPool(@NonNull final Generator generator) {
+        this.mKeyPairGenerator = generator;
+    }
+
+    /**
+     * Sets the number of key pairs generated ahead of time and starts filling the pool in the background.
+     *
+     * @param size number of key pairs, 0 to generate a key pair when needed
+     * @throws IllegalArgumentException if the size is negative
+     */
+    public void setSize(final int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("Key pair pool size must not be negative");
+        synchronized (mKeyPairs) {
+            mSize = size;
+            while (mKeyPairs.size() > size) {
+                mKeyPairs.removeLast();
+            }
+        }
+        refill();
+    }
+
+    /**
+     * Returns the number of key pairs currently available.
+     */
+    public int getAvailable() {
+        synchronized (mKeyPairs) {
+            return mKeyPairs.size();
+        }
+    }
+
+    /**
+     * Takes a key pair from the pool, or generates one if the pool is empty.
+     *
+     * @throws GeneralSecurityException if a key pair could not be generated
+     */
+    @NonNull
+    public KeyPair take() throws GeneralSecurityException {
+        final KeyPair keyPair;
+        synchronized (mKeyPairs) {
+            keyPair = mKeyPairs.poll();
+        }
+        refill();
+        if (keyPair != null)
+            return keyPair;
+        MeshLogger.debug(TAG, "Key pair pool empty, generating a key pair");
+        return mKeyPairGenerator.generateKeyPair();
+    }
+
+    private void refill() {
+        synchronized (mKeyPairs) {
+            if (mRefillScheduled || mKeyPairs.size() >= mSize)
+                return;
+            mRefillScheduled = true;
+        }
+        mGenerator.execute(() -> {
+            while (true) {
+                synchronized (mKeyPairs) {
+                    if (mKeyPairs.size() >= mSize) {
+                        mRefillScheduled = false;
+                        return;
+                    }
+                }
+                final KeyPair keyPair;
+                try {
+                    keyPair = mKeyPairGenerator.generateKeyPair();
+                } catch (Exception ex) {
+                    MeshLogger.error(TAG, "Unable to generate a key pair: " + ex.getMessage());
+                    synchronized (mKeyPairs) {
+                        mRefillScheduled = false;
+                    }
+                    return;
+                }
+                synchronized (mKeyPairs) {
+                    if (mKeyPairs.size() < mSize) {
+                        mKeyPairs.add(keyPair);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Generates a P-256 key pair.
+     */
+    @NonNull
+    static KeyPair generateKeyPair() throws GeneralSecurityException {
+        final ECNamedCurveParameterSpec parameterSpec = ECNamedCurveTable.getParameterSpec("secp256r1");
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("ECDH", "SC");
+        keyPairGenerator.initialize(parameterSpec);
+        return keyPairGenerator.generateKeyPair();
+    }
+}
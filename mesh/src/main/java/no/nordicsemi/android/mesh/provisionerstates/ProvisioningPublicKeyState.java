@@ -26,7 +26,6 @@ package no.nordicsemi.android.mesh.provisionerstates;
 import org.spongycastle.jce.ECNamedCurveTable;
 import org.spongycastle.jce.interfaces.ECPrivateKey;
 import org.spongycastle.jce.interfaces.ECPublicKey;
-import org.spongycastle.jce.spec.ECNamedCurveParameterSpec;
 import org.spongycastle.jce.spec.ECParameterSpec;
 import org.spongycastle.jce.spec.ECPublicKeySpec;
 import org.spongycastle.math.ec.ECCurve;
@@ -37,8 +36,8 @@ import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
@@ -47,6 +46,7 @@ import java.security.spec.InvalidKeySpecException;
 import javax.crypto.KeyAgreement;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
 import no.nordicsemi.android.mesh.InternalTransportCallbacks;
 import no.nordicsemi.android.mesh.MeshManagerApi;
 import no.nordicsemi.android.mesh.MeshProvisioningStatusCallbacks;
@@ -60,6 +60,7 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
     private final MeshProvisioningStatusCallbacks provisioningStatusCallbacks;
     private final UnprovisionedMeshNode node;
     private final InternalTransportCallbacks internalTransportCallbacks;
+    private final ProvisioningKeyPairPool keyPairPool;
 
     private PrivateKey mProvisionerPrivateKey;
 
@@ -73,8 +74,25 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
     public ProvisioningPublicKeyState(final UnprovisionedMeshNode node,
                                       final InternalTransportCallbacks internalTransportCallbacks,
                                       final MeshProvisioningStatusCallbacks provisioningStatusCallbacks) {
+        this(node, new ProvisioningKeyPairPool(), internalTransportCallbacks, provisioningStatusCallbacks);
+    }
+
+    /**
+     * Constructs the provisioning public key state taking the provisioner key pair from a pool.
+     *
+     * @param node                        {@link UnprovisionedMeshNode} node.
+     * @param keyPairPool                 {@link ProvisioningKeyPairPool} pool of pre-generated key pairs.
+     * @param internalTransportCallbacks  {@link InternalTransportCallbacks} callbacks.
+     * @param provisioningStatusCallbacks {@link MeshProvisioningStatusCallbacks} callbacks.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public ProvisioningPublicKeyState(final UnprovisionedMeshNode node,
+                                      final ProvisioningKeyPairPool keyPairPool,
+                                      final InternalTransportCallbacks internalTransportCallbacks,
+                                      final MeshProvisioningStatusCallbacks provisioningStatusCallbacks) {
         super();
         this.node = node;
+        this.keyPairPool = keyPairPool;
         this.provisioningStatusCallbacks = provisioningStatusCallbacks;
         this.internalTransportCallbacks = internalTransportCallbacks;
     }
@@ -86,7 +104,9 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
 
     @Override
     public void executeSend() {
-        generateKeyPairs();
+        if (mProvisionerPrivateKey == null) {
+            generateKeyPair();
+        }
         final byte[] pdu = generatePublicKeyXYPDU();
         provisioningStatusCallbacks.onProvisioningStateChanged(node, States.PROVISIONING_PUBLIC_KEY_SENT, pdu);
         internalTransportCallbacks.sendProvisioningPdu(node, pdu);
@@ -94,19 +114,38 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
 
     @Override
     public boolean parseData(@NonNull final byte[] data) {
+        receivePublicKey(data);
+        generateSharedECDHSecret();
+        return true;
+    }
+
+    /**
+     * Receives the provisionee public key without generating the shared secret, which must then be generated using
+     * {@link #generateSharedECDHSecret()} before moving on to the confirmation.
+     *
+     * @param data xy components of the provisionee public key
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void receivePublicKey(@NonNull final byte[] data) {
         if (node.getProvisioneePublicKeyXY() == null) {
             provisioningStatusCallbacks.onProvisioningStateChanged(node, States.PROVISIONING_PUBLIC_KEY_RECEIVED, data);
+            node.setProvisioneePublicKeyXY(data);
+        } else {
+            // Mark the node as secure if the provisionee public key is not null.
+            // This would assume that the key was obtained via an OOB method and is provided by the
+            // user before starting provisioning.
+            node.markAsSecure();
         }
-        generateSharedECDHSecret(data);
-        return true;
     }
 
-    private void generateKeyPairs() {
+    /**
+     * Takes the provisioner key pair from the pool, generating one if the pool is empty.
+     * May be called on a worker thread before {@link #executeSend()}.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void generateKeyPair() {
         try {
-            final ECNamedCurveParameterSpec parameterSpec = ECNamedCurveTable.getParameterSpec("secp256r1");
-            final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("ECDH", "SC");
-            keyPairGenerator.initialize(parameterSpec);
-            final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+            final KeyPair keyPair = keyPairPool.take();
             final ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
 
             mProvisionerPrivateKey = (ECPrivateKey) keyPair.getPrivate();
@@ -128,7 +167,7 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
             node.setProvisionerPublicKeyXY(tempXY);
 
             MeshLogger.verbose(TAG, "XY: " + MeshParserUtils.bytesToHex(tempXY, true));
-        } catch (Exception e) {
+        } catch (GeneralSecurityException e) {
             e.printStackTrace();
         }
     }
@@ -142,16 +181,13 @@ public class ProvisioningPublicKeyState extends ProvisioningState {
         return buffer.array();
     }
 
-    private void generateSharedECDHSecret(final byte[] xy) {
-        if(node.getProvisioneePublicKeyXY() == null) {
-            node.setProvisioneePublicKeyXY(xy);
-        } else {
-            // Mark the node as secure if the provisionee public key is not null.
-            // This would assume that the key was obtained via an OOB method and is provided by the
-            // user before starting provisioning.
-            node.markAsSecure();
-        }
-
+    /**
+     * Generates the shared secret from the provisioner private key and the provisionee public key received in
+     * {@link #receivePublicKey(byte[])}. May be called on a worker thread.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void generateSharedECDHSecret() {
+        final byte[] xy = node.getProvisioneePublicKeyXY();
         final byte[] xComponent = new byte[32];
         System.arraycopy(xy, 0, xComponent, 0, xComponent.length);
 
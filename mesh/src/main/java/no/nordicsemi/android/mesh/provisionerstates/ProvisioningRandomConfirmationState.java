@@ -77,9 +77,19 @@ public class ProvisioningRandomConfirmationState extends ProvisioningState {
 
     @Override
     public boolean parseData(@NonNull final byte[] data) {
+        receiveProvisioneeRandom(data);
+        return provisioneeMatches();
+    }
+
+    /**
+     * Receives the provisionee random without confirming it, see {@link #provisioneeMatches()}.
+     *
+     * @param data provisionee random pdu
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void receiveProvisioneeRandom(@NonNull final byte[] data) {
         mStatusCallbacks.onProvisioningStateChanged(node, States.PROVISIONING_RANDOM_RECEIVED, data);
         parseProvisioneeRandom(data);
-        return provisioneeMatches();
     }
 
     private byte[] createProvisionerRandomPDU() {
@@ -92,7 +102,11 @@ public class ProvisioningRandomConfirmationState extends ProvisioningState {
         return data;
     }
 
-    private boolean provisioneeMatches() {
+    /**
+     * Returns true if the provisionee random matches the provisionee confirmation, may be called on a worker thread.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public boolean provisioneeMatches() {
         final byte[] provisioneeRandom = node.getProvisioneeRandom();
         final byte[] provisionerRandom = node.getProvisionerRandom();
         final byte[] provisioneeConfirmation = node.getProvisioneeConfirmation();
@@ -193,6 +193,24 @@ public enum DeviceProperty {
     OUTPUT_CURRENT_PERCENT((short) 0x00B7),
     UNKNOWN((short) 0xFFFF);
 
+    // Device properties indexed by property id
+    private static final DeviceProperty[] PROPERTIES;
+
+    static {
+        int maxPropertyId = 0;
+        for (DeviceProperty property : values()) {
+            if (property != UNKNOWN) {
+                maxPropertyId = Math.max(maxPropertyId, property.propertyId);
+            }
+        }
+        PROPERTIES = new DeviceProperty[maxPropertyId + 1];
+        for (DeviceProperty property : values()) {
+            if (property != UNKNOWN) {
+                PROPERTIES[property.propertyId] = property;
+            }
+        }
+    }
+
     private final short propertyId;
 
     DeviceProperty(final short property) {
@@ -212,380 +230,15 @@ public enum DeviceProperty {
      * @param propertyId property id
      */
     public static DeviceProperty from(final short propertyId) {
-        switch (propertyId) {
-            case 0x0001:
-                return AVERAGE_AMBIENT_TEMPERATURE_IN_A_PERIOD_OF_DAY;
-            case 0x0002:
-                return AVERAGE_INPUT_CURRENT;
-            case 0x0003:
-                return AVERAGE_INPUT_VOLTAGE;
-            case 0x0004:
-                return AVERAGE_OUTPUT_CURRENT;
-            case 0x0005:
-                return AVERAGE_OUTPUT_VOLTAGE;
-            case 0x0006:
-                return CENTER_BEAM_INTENSITY_AT_FULL_POWER;
-            case 0x0007:
-                return CHROMATICITY_TOLERANCE;
-            case 0x0008:
-                return COLOR_RENDERING_INDEX_R9;
-            case 0x0009:
-                return COLOR_RENDERING_INDEX_RA;
-            case 0x000A:
-                return DEVICE_APPEARANCE;
-            case 0x000B:
-                return DEVICE_COUNTRY_OF_ORIGIN;
-            case 0x000C:
-                return DEVICE_DATE_OF_MANUFACTURE;
-            case 0x000D:
-                return DEVICE_ENERGY_USE_SINCE_TURN_ON;
-            case 0x000E:
-                return DEVICE_FIRMWARE_REVISION;
-            case 0x000F:
-                return DEVICE_GLOBAL_TRADE_ITEM_NUMBER;
-            case 0x0010:
-                return DEVICE_HARDWARE_REVISION;
-            case 0x0011:
-                return DEVICE_MANUFACTURER_NAME;
-            case 0x0012:
-                return DEVICE_MODEL_NUMBER;
-            case 0x0013:
-                return DEVICE_OPERATING_TEMPERATURE_RANGE_SPECIFICATION;
-            case 0x0014:
-                return DEVICE_OPERATING_TEMPERATURE_STATISTICAL_VALUES;
-            case 0x0015:
-                return DEVICE_OVER_TEMPERATURE_EVENT_STATISTICS;
-            case 0x0016:
-                return DEVICE_POWER_RANGE_SPECIFICATION;
-            case 0x0017:
-                return DEVICE_RUN_TIME_SINCE_TURN_ON;
-            case 0x0018:
-                return DEVICE_RUNTIME_WARRANTY;
-            case 0x0019:
-                return DEVICE_SERIAL_NUMBER;
-            case 0x001A:
-                return DEVICE_SOFTWARE_REVISION;
-            case 0x001B:
-                return DEVICE_UNDER_TEMPERATURE_EVENT_STATISTICS;
-            case 0x001C:
-                return INDOOR_AMBIENT_TEMPERATURE_STATISTICAL_VALUES;
-            case 0x001D:
-                return INITIAL_CIE1931_CHROMATICITY_COORDINATES;
-            case 0x001E:
-                return INITIAL_CORRELATED_COLOR_TEMPERATURE;
-            case 0x001F:
-                return INITIAL_LUMINOUS_FLUX;
-            case 0x0020:
-                return INITIAL_PLANCKIAN_DISTANCE;
-            case 0x0021:
-                return INPUT_CURRENT_RANGE_SPECIFICATION;
-            case 0x0022:
-                return INPUT_CURRENT_STATISTICS;
-            case 0x0023:
-                return INPUT_OVER_CURRENT_EVENT_STATISTICS;
-            case 0x0024:
-                return INPUT_OVER_RIPPLE_VOLTAGE_EVENT_STATISTICS;
-            case 0x0025:
-                return INPUT_OVER_VOLTAGE_EVENT_STATISTICS;
-            case 0x0026:
-                return INPUT_UNDERCURRENT_EVENT_STATISTICS;
-            case 0x0027:
-                return INPUT_UNDER_VOLTAGE_EVENT_STATISTICS;
-            case 0x0028:
-                return INPUT_VOLTAGE_RANGE_SPECIFICATION;
-            case 0x0029:
-                return INPUT_VOLTAGE_RIPPLE_SPECIFICATION;
-            case 0x002A:
-                return INPUT_VOLTAGE_STATISTICS;
-            case 0x002B:
-                return LIGHT_CONTROL_AMBIENT_LUX_LEVEL_ON;
-            case 0x002C:
-                return LIGHT_CONTROL_AMBIENT_LUX_LEVEL_PROLONG;
-            case 0x002D:
-                return LIGHT_CONTROL_AMBIENT_LUX_LEVEL_STANDBY;
-            case 0x002E:
-                return LIGHT_CONTROL_LIGHTNESS_ON;
-            case 0x002F:
-                return LIGHT_CONTROL_LIGHTNESS_PROLONG;
-            case 0x0030:
-                return LIGHT_CONTROL_LIGHTNESS_STANDBY;
-            case 0x0031:
-                return LIGHT_CONTROL_REGULATOR_ACCURACY;
-            case 0x0032:
-                return LIGHT_CONTROL_REGULATOR_KID;
-            case 0x0033:
-                return LIGHT_CONTROL_REGULATOR_KIU;
-            case 0x0034:
-                return LIGHT_CONTROL_REGULATOR_KPD;
-            case 0x0035:
-                return LIGHT_CONTROL_REGULATOR_KPU;
-            case 0x0036:
-                return LIGHT_CONTROL_TIME_FADE;
-            case 0x0037:
-                return LIGHT_CONTROL_TIME_FADE_ON;
-            case 0x0038:
-                return LIGHT_CONTROL_TIME_FADE_STANDBY_AUTO;
-            case 0x0039:
-                return LIGHT_CONTROL_TIME_FADE_STANDBY_MANUAL;
-            case 0x003A:
-                return LIGHT_CONTROL_TIME_OCCUPANCY_DELAY;
-            case 0x003B:
-                return LIGHT_CONTROL_TIME_PROLONG;
-            case 0x003C:
-                return LIGHT_CONTROL_TIME_RUN_ON;
-            case 0x003D:
-                return LUMEN_MAINTENANCE_FACTOR;
-            case 0x003E:
-                return LUMINOUS_EFFICACY;
-            case 0x003F:
-                return LUMINOUS_ENERGY_SINCE_TURN_ON;
-            case 0x0040:
-                return LUMINOUS_EXPOSURE;
-            case 0x0041:
-                return LUMINOUS_FLUX_RANGE;
-            case 0x0042:
-                return MOTION_SENSED;
-            case 0x0043:
-                return MOTION_THRESHOLD;
-            case 0x0044:
-                return OPEN_CIRCUIT_EVENT_STATISTICS;
-            case 0x0045:
-                return OUTDOOR_STATISTICAL_VALUES;
-            case 0x0046:
-                return OUTPUT_CURRENT_RANGE;
-            case 0x0047:
-                return OUTPUT_CURRENT_STATISTICS;
-            case 0x0048:
-                return OUTPUT_RIPPLE_VOLTAGE_SPECIFICATION;
-            case 0x0049:
-                return OUTPUT_VOLTAGE_RANGE;
-            case 0x004A:
-                return OUTPUT_VOLTAGE_STATISTICS;
-            case 0x004B:
-                return OVER_OUTPUT_RIPPLE_VOLTAGE_EVENT_STATISTICS;
-            case 0x004C:
-                return PEOPLE_COUNT;
-            case 0x004D:
-                return PRESENCE_DETECTED;
-            case 0x004E:
-                return PRESENT_AMBIENT_LIGHT_LEVEL;
-            case 0x004F:
-                return PRESENT_AMBIENT_TEMPERATURE;
-            case 0x0050:
-                return PRESENT_CIE1931_CHROMATICITY_COORDINATES;
-            case 0x0051:
-                return PRESENT_CORRELATED_COLOR_TEMPERATURE;
-            case 0x0052:
-                return PRESENT_DEVICE_INPUT_POWER;
-            case 0x0053:
-                return PRESENT_DEVICE_OPERATING_EFFICIENCY;
-            case 0x0054:
-                return PRESENT_DEVICE_OPERATING_TEMPERATURE;
-            case 0x0055:
-                return PRESENT_ILLUMINANCE;
-            case 0x0056:
-                return PRESENT_INDOOR_AMBIENT_TEMPERATURE;
-            case 0x0057:
-                return PRESENT_INPUT_CURRENT;
-            case 0x0058:
-                return PRESENT_INPUT_RIPPLE_VOLTAGE;
-            case 0x0059:
-                return PRESENT_INPUT_VOLTAGE;
-            case 0x005A:
-                return PRESENT_LUMINOUS_FLUX;
-            case 0x005B:
-                return PRESENT_OUTDOOR_AMBIENT_TEMPERATURE;
-            case 0x005C:
-                return PRESENT_OUTPUT_CURRENT;
-            case 0x005D:
-                return PRESENT_OUTPUT_VOLTAGE;
-            case 0x005E:
-                return PRESENT_PLANCKIAN_DISTANCE;
-            case 0x005F:
-                return PRESENT_RELATIVE_OUTPUT_RIPPLE_VOLTAGE;
-            case 0x0060:
-                return RELATIVE_DEVICE_ENERGY_USE_IN_A_PERIOD_OF_DAY;
-            case 0x0061:
-                return RELATIVE_DEVICE_RUNTIME_IN_A_GENERIC_LEVEL_RANGE;
-            case 0x0062:
-                return RELATIVE_EXPOSURE_TIME_IN_AN_ILLUMINANCE_RANGE;
-            case 0x0063:
-                return RELATIVE_RUNTIME_IN_A_CORRELATED_COLOR_TEMPERATURE_RANGE;
-            case 0x0064:
-                return RELATIVE_RUNTIME_IN_A_DEVICE_OPERATING_TEMPERATURE_RANGE;
-            case 0x0065:
-                return RELATIVE_RUNTIME_IN_AN_INPUT_CURRENT_RANGE;
-            case 0x0066:
-                return RELATIVE_RUNTIME_IN_AN_INPUT_VOLTAGE_RANGE;
-            case 0x0067:
-                return SHORT_CIRCUIT_EVENT_STATISTICS;
-            case 0x0068:
-                return TIME_SINCE_MOTION_SENSED;
-            case 0x0069:
-                return TIME_SINCE_PRESENCE_DETECTED;
-            case 0x006A:
-                return TOTAL_DEVICE_ENERGY_USE;
-            case 0x006B:
-                return TOTAL_DEVICE_OFF_ON_CYCLES;
-            case 0x006C:
-                return TOTAL_DEVICE_POWER_ON_CYCLES;
-            case 0x006D:
-                return TOTAL_DEVICE_POWER_ON_TIME;
-            case 0x006E:
-                return TOTAL_DEVICE_RUNTIME;
-            case 0x006F:
-                return TOTAL_LIGHT_EXPOSURE_TIME;
-            case 0x0070:
-                return TOTAL_LUMINOUS_ENERGY;
-            case 0x0071:
-                return DESIRED_AMBIENT_TEMPERATURE;
-            case 0x0072:
-                return PRECISE_TOTAL_DEVICE_ENERGY_USE;
-            case 0x0073:
-                return POWER_FACTOR;
-            case 0x0074:
-                return SENSOR_GAIN;
-            case 0x0075:
-                return PRECISE_PRESENT_AMBIENT_TEMPERATURE;
-            case 0x0076:
-                return PRESENT_AMBIENT_RELATIVE_HUMIDITY;
-            case 0x0077:
-                return PRESENT_AMBIENT_CARBONDIOXIDE_CONCENTRATION;
-            case 0x0078:
-                return PRESENT_AMBIENT_VOLATILE_ORGANIC_COMPOUNDS_CONCENTRATION;
-            case 0x0079:
-                return PRESENT_AMBIENT_NOISE;
-            case 0x0080:
-                return ACTIVE_ENERGY_LOAD_SIDE;
-            case 0x0081:
-                return ACTIVE_POWER_LOAD_SIDE;
-            case 0x0082:
-                return AIR_PRESSURE;
-            case 0x0083:
-                return APPARENT_ENERGY;
-            case 0x0084:
-                return APPARENT_POWER;
-            case 0x0085:
-                return APPARENT_WIND_DIRECTION;
-            case 0x0086:
-                return APPARENT_WIND_SPEED;
-            case 0x0087:
-                return DEW_POINT;
-            case 0x0088:
-                return EXTERNAL_SUPPLY_VOLTAGE;
-            case 0x0089:
-                return EXTERNAL_SUPPLY_VOLTAGE_FREQUENCY;
-            case 0x008A:
-                return GUST_FACTOR;
-            case 0x008B:
-                return HEAT_INDEX;
-            case 0x008C:
-                return LIGHT_DISTRIBUTION;
-            case 0x008D:
-                return LIGHT_SOURCE_CURRENT;
-            case 0x008E:
-                return LIGHT_SOURCE_ON_TIME_NOT_RESETTABLE;
-            case 0x008F:
-                return LIGHT_SOURCE_ON_TIME_RESETTABLE;
-            case 0x0090:
-                return LIGHT_SOURCE_OPEN_CIRCUIT_STATISTICS;
-            case 0x0091:
-                return LIGHT_SOURCE_OVERALL_FAILURES_STATISTICS;
-            case 0x0092:
-                return LIGHT_SOURCE_SHORT_CIRCUIT_STATISTICS;
-            case 0x0093:
-                return LIGHT_SOURCE_START_COUNTER_RESETTABLE;
-            case 0x0094:
-                return LIGHT_SOURCE_TEMPERATURE;
-            case 0x0095:
-                return LIGHT_SOURCE_THERMAL_DERATING_STATISTICS;
-            case 0x0096:
-                return LIGHT_SOURCE_THERMAL_SHUTDOWN_STATISTICS;
-            case 0x0097:
-                return LIGHT_SOURCE_TOTAL_POWER_ON_CYCLES;
-            case 0x0098:
-                return LIGHT_SOURCE_VOLTAGE;
-            case 0x0099:
-                return LUMINAIRE_COLOR;
-            case 0x009A:
-                return LUMINAIRE_IDENTIFICATION_NUMBER;
-            case 0x009B:
-                return LUMINAIRE_MANUFACTURER_GTIN;
-            case 0x009C:
-                return LUMINAIRE_NOMINAL_INPUT_POWER;
-            case 0x009D:
-                return LUMINAIRE_NOMINAL_MAXIMUM_AC_MAINS_VOLTAGE;
-            case 0x009E:
-                return LUMINAIRE_NOMINAL_MINIMUM_AC_MAINS_VOLTAGE;
-            case 0x009F:
-                return LUMINAIRE_POWER_AT_MINIMUM_DIM_LEVEL;
-            case 0x00A0:
-                return LUMINAIRE_TIME_OF_MANUFACTURE;
-            case 0x00A1:
-                return MAGNETIC_DECLINATION;
-            case 0x00A2:
-                return MAGNETIC_FLUX_DENSITY_2D;
-            case 0x00A3:
-                return MAGNETIC_FLUX_DENSITY_3D;
-            case 0x00A4:
-                return NOMINAL_LIGHT_OUTPUT;
-            case 0x00A5:
-                return OVERALL_FAILURE_CONDITION;
-            case 0x00A6:
-                return POLLEN_CONCENTRATION;
-            case 0x00A7:
-                return PRESENT_INDOOR_RELATIVE_HUMIDITY;
-            case 0x00A8:
-                return PRESENT_OUTDOOR_RELATIVE_HUMIDITY;
-            case 0x00A9:
-                return PRESSURE;
-            case 0x00AA:
-                return RAINFALL;
-            case 0x00AB:
-                return RATED_MEDIAN_USEFUL_LIFE_OF_LUMINAIRE;
-            case 0x00AC:
-                return RATED_MEDIAN_USEFUL_LIGHT_SOURCE_STARTS;
-            case 0x00AD:
-                return REFERENCE_TEMPERATURE;
-            case 0x00AE:
-                return TOTAL_DEVICE_STARTS;
-            case 0x00AF:
-                return TRUE_WIND_DIRECTION;
-            case 0x00B0:
-                return TRUE_WIND_SPEED;
-            case 0x00B1:
-                return UV_INDEX;
-            case 0x00B2:
-                return WIND_CHILL;
-            case 0x00B3:
-                return LIGHT_SOURCE_TYPE;
-            case 0x00B4:
-                return LUMINAIRE_IDENTIFICATION_STRING;
-            case 0x00B5:
-                return OUTPUT_POWER_LIMITATION;
-            case 0x00B6:
-                return THERMAL_DERATING;
-            case 0x00B7:
-                return OUTPUT_CURRENT_PERCENT;
-            default:
-                return UNKNOWN;
-
-        }
+        final int index = propertyId & 0xFFFF;
+        if (index < PROPERTIES.length && PROPERTIES[index] != null)
+            return PROPERTIES[index];
+        return UNKNOWN;
     }
 
     public static DeviceProperty from(final SensorFormat sensorFormat, final short propertyId) {
-        switch (sensorFormat) {
-            case FORMAT_A:
-                for (DeviceProperty deviceProperty : values()) {
-                    if ((deviceProperty.propertyId & 0x7FF) == propertyId) {
-                        return deviceProperty;
-                    }
-                }
-            case FORMAT_B:
-                return from(propertyId);
-            default:
-                return UNKNOWN;
-        }
+        // Format A carries 11-bit property ids, all of which are covered by the table
+        return from(propertyId);
     }
 
     /**
@@ -0,0 +1,194 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Format of a numeric device property value.
+ * <p>
+ * Describes how the raw little endian value of a property is represented, as defined for the characteristic the property
+ * refers to: the length in octets, whether the value is signed, and the resolution given as
+ * M * 10<sup>d</sup> * 2<sup>b</sup>. The value may be decoded directly from the message parameters without allocating a
+ * {@link DevicePropertyCharacteristic}.
+ * </p>
+ */
+public final class DevicePropertyFormat {
+
+    /**
+     * Used when the characteristic does not define a value representing an unknown value.
+     */
+    public static final long NO_UNKNOWN_VALUE = -1;
+
+    static final DevicePropertyFormat BOOLEAN = new DevicePropertyFormat(1, false, 1, 0, 0, NO_UNKNOWN_VALUE);
+    static final DevicePropertyFormat PERCENTAGE_8 = new DevicePropertyFormat(1, false, 1, 0, -1, 0xFF);
+    static final DevicePropertyFormat TEMPERATURE_8 = new DevicePropertyFormat(1, true, 1, 0, -1, 0x7F);
+    static final DevicePropertyFormat TEMPERATURE = new DevicePropertyFormat(2, true, 1, -2, 0, 0x8000);
+    static final DevicePropertyFormat COUNT_16 = new DevicePropertyFormat(2, false, 1, 0, 0, 0xFFFF);
+    static final DevicePropertyFormat COUNT_24 = new DevicePropertyFormat(3, false, 1, 0, 0, 0xFFFFFF);
+    static final DevicePropertyFormat HUMIDITY = new DevicePropertyFormat(2, false, 1, -2, 0, 0xFFFF);
+    static final DevicePropertyFormat PERCEIVED_LIGHTNESS = new DevicePropertyFormat(2, false, 1, 0, 0, NO_UNKNOWN_VALUE);
+    static final DevicePropertyFormat TIME_SECOND_16 = new DevicePropertyFormat(2, false, 1, 0, 0, 0xFFFF);
+    static final DevicePropertyFormat ILLUMINANCE = new DevicePropertyFormat(3, false, 1, -2, 0, 0xFFFFFF);
+    static final DevicePropertyFormat TIME_HOUR_24 = new DevicePropertyFormat(3, false, 1, 0, 0, 0xFFFFFF);
+    static final DevicePropertyFormat TIME_MILLISECOND_24 = new DevicePropertyFormat(3, false, 1, -3, 0, 0xFFFFFF);
+    static final DevicePropertyFormat DATE_UTC = new DevicePropertyFormat(3, false, 1, 0, 0, 0);
+    static final DevicePropertyFormat PRESSURE = new DevicePropertyFormat(4, false, 1, -1, 0, NO_UNKNOWN_VALUE);
+    static final DevicePropertyFormat ENERGY_32 = new DevicePropertyFormat(4, false, 1, -3, 0, 0xFFFFFFFFL);
+    static final DevicePropertyFormat POWER = new DevicePropertyFormat(3, false, 1, -1, 0, 0xFFFFFF);
+    static final DevicePropertyFormat ELECTRIC_CURRENT = new DevicePropertyFormat(2, false, 1, -2, 0, 0xFFFF);
+    static final DevicePropertyFormat COEFFICIENT = new DevicePropertyFormat();
+
+    private final int length;
+    private final boolean signed;
+    private final boolean floatingPoint;
+    private final int multiplier;
+    private final int decimalExponent;
+    private final int binaryExponent;
+    private final long unknownValue;
+    // Scaling is split so that a negative decimal exponent divides by an exact power of ten
+    private final double factor;
+    private final double divisor;
+
+    /**
+     * Constructs the format of an integer property value.
+     *
+     * @param length          length of the value in octets, 1 to 8
+     * @param signed          true if the value is a two's complement signed integer
+     * @param multiplier      multiplier M of the resolution
+     * @param decimalExponent decimal exponent d of the resolution
+     * @param binaryExponent  binary exponent b of the resolution
+     * @param unknownValue    raw value representing an unknown value or {@link #NO_UNKNOWN_VALUE}
+     * @throws IllegalArgumentException if the length is invalid
+     */
+    public DevicePropertyFormat(final int length,
+                                final boolean signed,
+                                final int multiplier,
+                                final int decimalExponent,
+                                final int binaryExponent,
+                                final long unknownValue) {
+        if (length < 1 || length > 8)
+            throw new IllegalArgumentException("Property value length must be in range 1 to 8 octets");
+        this.length = length;
+        this.signed = signed;
+        this.floatingPoint = false;
+        this.multiplier = multiplier;
+        this.decimalExponent = decimalExponent;
+        this.binaryExponent = binaryExponent;
+        this.unknownValue = unknownValue;
+        final double scale = multiplier * Math.pow(2, binaryExponent);
+        if (decimalExponent < 0) {
+            this.factor = scale;
+            this.divisor = Math.pow(10, -decimalExponent);
+        } else {
+            this.factor = scale * Math.pow(10, decimalExponent);
+            this.divisor = 1;
+        }
+    }
+
+    /**
+     * Format of a 32-bit IEEE 754 floating point value.
+     */
+    private DevicePropertyFormat() {
+        this.length = 4;
+        this.signed = true;
+        this.floatingPoint = true;
+        this.multiplier = 1;
+        this.decimalExponent = 0;
+        this.binaryExponent = 0;
+        this.unknownValue = NO_UNKNOWN_VALUE;
+        this.factor = 1;
+        this.divisor = 1;
+    }
+
+    /**
+     * Returns the length of the value in octets.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns true if the value is signed.
+     */
+    public boolean isSigned() {
+        return signed;
+    }
+
+    /**
+     * Returns true if the value is a 32-bit IEEE 754 floating point value.
+     */
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    /**
+     * Returns the multiplier M of the resolution.
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Returns the decimal exponent d of the resolution.
+     */
+    public int getDecimalExponent() {
+        return decimalExponent;
+    }
+
+    /**
+     * Returns the binary exponent b of the resolution.
+     */
+    public int getBinaryExponent() {
+        return binaryExponent;
+    }
+
+    /**
+     * Returns the raw value representing an unknown value or {@link #NO_UNKNOWN_VALUE}.
+     */
+    public long getUnknownValue() {
+        return unknownValue;
+    }
+
+    /**
+     * Reads the raw value, without sign extension.
+     *
+     * @param data   data
+     * @param offset offset of the value
+     */
+    public long readRaw(@NonNull final byte[] data, final int offset) {
+        long raw = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            raw = (raw << 8) | (data[offset + i] & 0xFF);
+        }
+        return raw;
+    }
+
+    /**
+     * Returns true if the raw value represents an unknown value.
+     *
+     * @param raw raw value as returned by {@link #readRaw(byte[], int)}
+     */
+    public boolean isUnknown(final long raw) {
+        return unknownValue != NO_UNKNOWN_VALUE && raw == unknownValue;
+    }
+
+    /**
+     * Reads the value and applies the resolution.
+     *
+     * @param data   data
+     * @param offset offset of the value
+     * @return value or {@link Double#NaN} if the value is not known
+     */
+    public double read(@NonNull final byte[] data, final int offset) {
+        final long raw = readRaw(data, offset);
+        if (isUnknown(raw))
+            return Double.NaN;
+        if (floatingPoint)
+            return Float.intBitsToFloat((int) raw);
+        long value = raw;
+        if (signed && length < 8) {
+            final int shift = 64 - length * 8;
+            value = (value << shift) >> shift;
+        }
+        return value * factor / divisor;
+    }
+}
@@ -0,0 +1,112 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Table of numeric device property formats, indexed by property id.
+ * <p>
+ * Contains the formats of the numeric properties supported by {@link DeviceProperty#getCharacteristic}. Formats of
+ * further properties, such as vendor specific ones, may be added with {@link #register(int, DevicePropertyFormat)}.
+ * Properties without a numeric format, e.g. strings, are not contained in the table.
+ * </p>
+ */
+public final class DevicePropertyRegistry {
+
+    private static volatile DevicePropertyFormat[] sFormats = new DevicePropertyFormat[0x100];
+
+    static {
+        put(DevicePropertyFormat.BOOLEAN, DeviceProperty.PRESENCE_DETECTED);
+        put(DevicePropertyFormat.PERCENTAGE_8,
+                DeviceProperty.LIGHT_CONTROL_REGULATOR_ACCURACY, DeviceProperty.OUTPUT_RIPPLE_VOLTAGE_SPECIFICATION,
+                DeviceProperty.INPUT_VOLTAGE_RIPPLE_SPECIFICATION, DeviceProperty.OUTPUT_CURRENT_PERCENT, DeviceProperty.LUMEN_MAINTENANCE_FACTOR, DeviceProperty.MOTION_SENSED,
+                DeviceProperty.MOTION_THRESHOLD, DeviceProperty.PRESENT_DEVICE_OPERATING_EFFICIENCY, DeviceProperty.PRESENT_RELATIVE_OUTPUT_RIPPLE_VOLTAGE,
+                DeviceProperty.PRESENT_INPUT_RIPPLE_VOLTAGE);
+        put(DevicePropertyFormat.TEMPERATURE_8,
+                DeviceProperty.DESIRED_AMBIENT_TEMPERATURE, DeviceProperty.PRESENT_AMBIENT_TEMPERATURE, DeviceProperty.PRESENT_INDOOR_AMBIENT_TEMPERATURE,
+                DeviceProperty.PRESENT_OUTDOOR_AMBIENT_TEMPERATURE);
+        put(DevicePropertyFormat.TEMPERATURE, DeviceProperty.PRECISE_PRESENT_AMBIENT_TEMPERATURE, DeviceProperty.PRESENT_DEVICE_OPERATING_TEMPERATURE);
+        put(DevicePropertyFormat.COUNT_16, DeviceProperty.PEOPLE_COUNT);
+        put(DevicePropertyFormat.HUMIDITY,
+                DeviceProperty.PRESENT_AMBIENT_RELATIVE_HUMIDITY, DeviceProperty.PRESENT_INDOOR_RELATIVE_HUMIDITY, DeviceProperty.PRESENT_OUTDOOR_RELATIVE_HUMIDITY);
+        put(DevicePropertyFormat.PERCEIVED_LIGHTNESS,
+                DeviceProperty.LIGHT_CONTROL_LIGHTNESS_ON, DeviceProperty.LIGHT_CONTROL_LIGHTNESS_PROLONG, DeviceProperty.LIGHT_CONTROL_LIGHTNESS_STANDBY);
+        put(DevicePropertyFormat.TIME_SECOND_16, DeviceProperty.TIME_SINCE_MOTION_SENSED, DeviceProperty.TIME_SINCE_PRESENCE_DETECTED);
+        put(DevicePropertyFormat.COUNT_24,
+                DeviceProperty.LIGHT_SOURCE_START_COUNTER_RESETTABLE, DeviceProperty.LIGHT_SOURCE_TOTAL_POWER_ON_CYCLES,
+                DeviceProperty.RATED_MEDIAN_USEFUL_LIGHT_SOURCE_STARTS, DeviceProperty.TOTAL_DEVICE_OFF_ON_CYCLES, DeviceProperty.TOTAL_DEVICE_POWER_ON_CYCLES,
+                DeviceProperty.TOTAL_DEVICE_STARTS);
+        put(DevicePropertyFormat.ILLUMINANCE,
+                DeviceProperty.LIGHT_CONTROL_AMBIENT_LUX_LEVEL_ON, DeviceProperty.LIGHT_CONTROL_AMBIENT_LUX_LEVEL_PROLONG,
+                DeviceProperty.LIGHT_CONTROL_AMBIENT_LUX_LEVEL_STANDBY, DeviceProperty.PRESENT_AMBIENT_LIGHT_LEVEL, DeviceProperty.PRESENT_ILLUMINANCE);
+        put(DevicePropertyFormat.TIME_HOUR_24,
+                DeviceProperty.DEVICE_RUN_TIME_SINCE_TURN_ON, DeviceProperty.DEVICE_RUNTIME_WARRANTY, DeviceProperty.RATED_MEDIAN_USEFUL_LIFE_OF_LUMINAIRE,
+                DeviceProperty.TOTAL_DEVICE_POWER_ON_TIME, DeviceProperty.TOTAL_DEVICE_RUNTIME, DeviceProperty.TOTAL_LIGHT_EXPOSURE_TIME);
+        put(DevicePropertyFormat.TIME_MILLISECOND_24,
+                DeviceProperty.LIGHT_CONTROL_TIME_FADE, DeviceProperty.LIGHT_CONTROL_TIME_FADE_ON, DeviceProperty.LIGHT_CONTROL_TIME_FADE_STANDBY_AUTO,
+                DeviceProperty.LIGHT_CONTROL_TIME_FADE_STANDBY_MANUAL, DeviceProperty.LIGHT_CONTROL_TIME_OCCUPANCY_DELAY, DeviceProperty.LIGHT_CONTROL_TIME_PROLONG,
+                DeviceProperty.LIGHT_CONTROL_TIME_RUN_ON);
+        put(DevicePropertyFormat.DATE_UTC, DeviceProperty.DEVICE_DATE_OF_MANUFACTURE, DeviceProperty.LUMINAIRE_TIME_OF_MANUFACTURE);
+        put(DevicePropertyFormat.PRESSURE, DeviceProperty.PRESSURE, DeviceProperty.AIR_PRESSURE);
+        put(DevicePropertyFormat.COEFFICIENT,
+                DeviceProperty.LIGHT_CONTROL_REGULATOR_KID, DeviceProperty.LIGHT_CONTROL_REGULATOR_KIU, DeviceProperty.LIGHT_CONTROL_REGULATOR_KPD,
+                DeviceProperty.LIGHT_CONTROL_REGULATOR_KPU, DeviceProperty.SENSOR_GAIN);
+        put(DevicePropertyFormat.ENERGY_32, DeviceProperty.ACTIVE_ENERGY_LOAD_SIDE, DeviceProperty.PRECISE_TOTAL_DEVICE_ENERGY_USE);
+        put(DevicePropertyFormat.POWER,
+                DeviceProperty.ACTIVE_POWER_LOAD_SIDE, DeviceProperty.LUMINAIRE_NOMINAL_INPUT_POWER, DeviceProperty.LUMINAIRE_POWER_AT_MINIMUM_DIM_LEVEL,
+                DeviceProperty.PRESENT_DEVICE_INPUT_POWER);
+        put(DevicePropertyFormat.ELECTRIC_CURRENT, DeviceProperty.PRESENT_INPUT_CURRENT, DeviceProperty.PRESENT_OUTPUT_CURRENT);
+    }
+
+    private DevicePropertyRegistry() {
+    }
+
+    private static void put(final DevicePropertyFormat format, final DeviceProperty... properties) {
+        for (DeviceProperty property : properties) {
+            sFormats[property.getPropertyId() & 0xFFFF] = format;
+        }
+    }
+
+    /**
+     * Returns the format of a property value.
+     *
+     * @param propertyId property id
+     * @return format or null if the property has no known numeric format
+     */
+    @Nullable
+    public static DevicePropertyFormat getFormat(final int propertyId) {
+        final DevicePropertyFormat[] formats = sFormats;
+        final int index = propertyId & 0xFFFF;
+        return index < formats.length ? formats[index] : null;
+    }
+
+    /**
+     * Returns the format of a property value.
+     *
+     * @param property device property
+     * @return format or null if the property has no known numeric format
+     */
+    @Nullable
+    public static DevicePropertyFormat getFormat(@NonNull final DeviceProperty property) {
+        return getFormat(property.getPropertyId());
+    }
+
+    /**
+     * Registers or replaces the format of a property value.
+     *
+     * @param propertyId property id
+     * @param format     format of the property value
+     * @throws IllegalArgumentException if the property id is not a valid 16-bit property id
+     */
+    public static synchronized void register(final int propertyId, @NonNull final DevicePropertyFormat format) {
+        if (propertyId <= 0 || propertyId > 0xFFFF)
+            throw new IllegalArgumentException("Invalid property id");
+        final DevicePropertyFormat[] formats = sFormats;
+        // Copied on write so that lookups do not need to lock
+        final DevicePropertyFormat[] updated = Arrays.copyOf(formats, Math.max(formats.length, propertyId + 1));
+        updated[propertyId] = format;
+        sFormats = updated;
+    }
+}
@@ -0,0 +1,60 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Minimum, maximum and average of the sensor values within a time window.
+ */
+public final class SensorAggregate {
+
+    private final double min;
+    private final double max;
+    private final double average;
+    private final int count;
+
+    SensorAggregate(final double min, final double max, final double average, final int count) {
+        this.min = min;
+        this.max = max;
+        this.average = average;
+        this.count = count;
+    }
+
+    /**
+     * Returns the minimum value.
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the maximum value.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the average value.
+     */
+    public double getAverage() {
+        return average;
+    }
+
+    /**
+     * Returns the number of samples aggregated.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SensorAggregate{" +
+                "min=" + min +
+                ", max=" + max +
+                ", average=" + average +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,180 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.utils.SensorFormat;
+
+/**
+ * Cursor over the marshalled sensor data of a Sensor Status message.
+ * <p>
+ * Reads the property id, length and value of each marshalled sensor data directly from the message parameters, using
+ * the formats of the {@link DevicePropertyRegistry}. No objects are allocated while iterating, so a single reader may
+ * be reused for every received status:
+ * </p>
+ * <pre>
+ * while (reader.next()) {
+ *     if (reader.getPropertyId() == DeviceProperty.PRESENT_AMBIENT_TEMPERATURE.getPropertyId())
+ *         temperature = reader.getValue();
+ * }
+ * </pre>
+ * A reader is not thread safe.
+ */
+public final class SensorDataReader {
+
+    private byte[] data;
+    private int end;
+    private int position;
+    private SensorFormat sensorFormat;
+    private int propertyId;
+    private int valueOffset;
+    private int length;
+    private DevicePropertyFormat format;
+
+    /**
+     * Positions the reader before the first marshalled sensor data.
+     *
+     * @param data marshalled sensor data, i.e. the parameters of a Sensor Status message
+     * @return this reader
+     */
+    @NonNull
+    public SensorDataReader reset(@NonNull final byte[] data) {
+        return reset(data, 0, data.length);
+    }
+
+    /**
+     * Positions the reader before the first marshalled sensor data.
+     *
+     * @param data   buffer containing the marshalled sensor data
+     * @param offset offset of the marshalled sensor data
+     * @param length length of the marshalled sensor data
+     * @return this reader
+     * @throws IllegalArgumentException if the range is outside of the buffer
+     */
+    @NonNull
+    public SensorDataReader reset(@NonNull final byte[] data, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > data.length)
+            throw new IllegalArgumentException("Invalid range");
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+        this.sensorFormat = null;
+        this.format = null;
+        return this;
+    }
+
+    /**
+     * Advances to the next marshalled sensor data.
+     *
+     * @return true if the reader is positioned on a marshalled sensor data, false if there is no more data
+     * @throws IllegalArgumentException if the marshalled sensor data is truncated
+     */
+    public boolean next() {
+        if (data == null || position >= end) {
+            sensorFormat = null;
+            format = null;
+            return false;
+        }
+        int offset = position;
+        final int octet0 = data[offset++] & 0xFF;
+        if ((octet0 & 0x01) == 0) {
+            if (offset >= end)
+                throw new IllegalArgumentException("Truncated marshalled property id");
+            final int octet1 = data[offset++] & 0xFF;
+            sensorFormat = SensorFormat.FORMAT_A;
+            // 1-based length of 4 bits followed by an 11-bit property id
+            length = ((octet0 >> 1) & 0x0F) + 1;
+            propertyId = (octet1 << 3) | (octet0 >> 5);
+        } else {
+            if (offset + 1 >= end)
+                throw new IllegalArgumentException("Truncated marshalled property id");
+            final int octet1 = data[offset++] & 0xFF;
+            final int octet2 = data[offset++] & 0xFF;
+            sensorFormat = SensorFormat.FORMAT_B;
+            // 1-based length of 7 bits, where 0x7F represents a length of zero, followed by a 16-bit property id
+            final int lengthField = octet0 >> 1;
+            length = lengthField == 0x7F ? 0 : lengthField + 1;
+            propertyId = octet1 | (octet2 << 8);
+        }
+        if (offset + length > end)
+            throw new IllegalArgumentException("Truncated value of property 0x" + Integer.toHexString(propertyId));
+        valueOffset = offset;
+        position = offset + length;
+        final DevicePropertyFormat format = DevicePropertyRegistry.getFormat(propertyId);
+        this.format = format != null && format.getLength() == length ? format : null;
+        return true;
+    }
+
+    /**
+     * Returns the format of the marshalled property id.
+     */
+    public SensorFormat getSensorFormat() {
+        return sensorFormat;
+    }
+
+    /**
+     * Returns the property id of the current marshalled sensor data.
+     */
+    public int getPropertyId() {
+        return propertyId;
+    }
+
+    /**
+     * Returns the length of the current value in octets.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the offset of the current value in the buffer.
+     */
+    public int getValueOffset() {
+        return valueOffset;
+    }
+
+    /**
+     * Returns the buffer the reader is reading from.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the format of the current value, or null if the property has no numeric format matching the length.
+     */
+    @Nullable
+    public DevicePropertyFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns true if the current value is numeric and known.
+     */
+    public boolean hasValue() {
+        return format != null && !format.isUnknown(format.readRaw(data, valueOffset));
+    }
+
+    /**
+     * Returns the current value with the resolution of its format applied.
+     *
+     * @return value or {@link Double#NaN} if the property has no numeric format or the value is not known
+     */
+    public double getValue() {
+        return format == null ? Double.NaN : format.read(data, valueOffset);
+    }
+
+    /**
+     * Returns the current value as an unsigned little endian integer of up to 8 octets, without applying a format.
+     *
+     * @throws IllegalStateException if the value is longer than 8 octets
+     */
+    public long getRawValue() {
+        if (length > 8)
+            throw new IllegalStateException("Value of property 0x" + Integer.toHexString(propertyId) + " is longer than 8 octets");
+        long raw = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            raw = (raw << 8) | (data[valueOffset + i] & 0xFF);
+        }
+        return raw;
+    }
+}
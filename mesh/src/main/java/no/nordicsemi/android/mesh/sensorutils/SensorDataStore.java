@@ -0,0 +1,529 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Time series store of received sensor values.
+ * <p>
+ * Values are kept per element address and property id in fixed size ring buffers of primitives. Each series keeps the
+ * most recent samples and, for every {@link Tier}, the minimum, maximum and average of the samples over fixed
+ * intervals, so that longer periods may be queried at a lower resolution. Once a ring buffer is full the oldest entry
+ * is overwritten, the capacities therefore define the retention of each resolution.
+ * </p>
+ * <p>
+ * A series takes about 16 bytes per sample and 36 bytes per downsampled interval. The default configuration keeps
+ * 10 minutes of samples published every 5 seconds, 1 hour of 1 minute intervals and 1 day of 15 minute intervals.
+ * </p>
+ * <p>
+ * The columns reported in Sensor Column Status and Sensor Series Status messages are not a time series. The most
+ * recent value of each column is kept instead, see {@link #getColumns}.
+ * </p>
+ */
+public final class SensorDataStore {
+
+    /**
+     * Downsampling tier.
+     */
+    public static final class Tier {
+        private final long interval;
+        private final int capacity;
+
+        /**
+         * Constructs a downsampling tier.
+         *
+         * @param interval interval aggregated into one entry, in milliseconds
+         * @param capacity number of intervals kept
+         * @throws IllegalArgumentException if the interval or capacity is not positive
+         */
+        public Tier(final long interval, final int capacity) {
+            if (interval <= 0)
+                throw new IllegalArgumentException("Tier interval must be positive");
+            if (capacity <= 0)
+                throw new IllegalArgumentException("Tier capacity must be positive");
+            this.interval = interval;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Returns the interval aggregated into one entry, in milliseconds.
+         */
+        public long getInterval() {
+            return interval;
+        }
+
+        /**
+         * Returns the number of intervals kept.
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+
+    public static final int DEFAULT_SAMPLE_CAPACITY = 120;
+    private static final Tier[] DEFAULT_TIERS = {new Tier(60 * 1000, 60), new Tier(15 * 60 * 1000, 96)};
+
+    private final int mSampleCapacity;
+    private final Tier[] mTiers;
+    private final Map<Integer, Series> mSeries = new HashMap<>();
+    private final Map<Integer, Columns> mColumns = new HashMap<>();
+
+    /**
+     * Constructs a store with the default capacities.
+     */
+    public SensorDataStore() {
+        this(DEFAULT_SAMPLE_CAPACITY, DEFAULT_TIERS);
+    }
+
+    /**
+     * Constructs a store.
+     *
+     * @param sampleCapacity number of samples kept per series
+     * @param tiers          downsampling tiers, ordered from the finest to the coarsest interval
+     * @throws IllegalArgumentException if the sample capacity is not positive or the tiers are not ordered
+     */
+    public SensorDataStore(final int sampleCapacity, @NonNull final Tier... tiers) {
+        if (sampleCapacity <= 0)
+            throw new IllegalArgumentException("Sample capacity must be positive");
+        for (int i = 1; i < tiers.length; i++) {
+            if (tiers[i].interval <= tiers[i - 1].interval)
+                throw new IllegalArgumentException("Tiers must be ordered from the finest to the coarsest interval");
+        }
+        this.mSampleCapacity = sampleCapacity;
+        this.mTiers = tiers.clone();
+    }
+
+    private static int key(final int elementAddress, final int propertyId) {
+        return (elementAddress & 0xFFFF) << 16 | (propertyId & 0xFFFF);
+    }
+
+    /**
+     * Returns the number of downsampling tiers.
+     */
+    public int getTierCount() {
+        return mTiers.length;
+    }
+
+    /**
+     * Returns the downsampling tier at a given index.
+     *
+     * @param index index, 0 being the finest tier
+     */
+    @NonNull
+    public Tier getTier(final int index) {
+        return mTiers[index];
+    }
+
+    /**
+     * Adds a sample to a series.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param timestamp      time the value was received, in milliseconds
+     * @param value          value, {@link Double#NaN} values are ignored
+     */
+    public synchronized void add(final int elementAddress, final int propertyId, final long timestamp, final double value) {
+        if (Double.isNaN(value))
+            return;
+        final Integer key = key(elementAddress, propertyId);
+        Series series = mSeries.get(key);
+        if (series == null) {
+            series = new Series(mSampleCapacity, mTiers);
+            mSeries.put(key, series);
+        }
+        series.add(timestamp, value);
+    }
+
+    /**
+     * Adds the known numeric values of marshalled sensor data, e.g. the contents of a Sensor Status message.
+     *
+     * @param elementAddress address of the element containing the sensors
+     * @param timestamp      time the values were received, in milliseconds
+     * @param reader         reader positioned before the first marshalled sensor data
+     */
+    public synchronized void add(final int elementAddress, final long timestamp, @NonNull final SensorDataReader reader) {
+        while (reader.next()) {
+            add(elementAddress, reader.getPropertyId(), timestamp, reader.getValue());
+        }
+    }
+
+    /**
+     * Updates columns with the Raw Value X, Column Width and Raw Value Y triplets of a Sensor Column Status or Sensor
+     * Series Status message. Columns of properties without a known numeric format are ignored.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param data           buffer containing the columns
+     * @param offset         offset of the first column
+     * @param length         length of the columns
+     */
+    public synchronized void addColumns(final int elementAddress,
+                                        final int propertyId,
+                                        @NonNull final byte[] data,
+                                        final int offset,
+                                        final int length) {
+        final DevicePropertyFormat format = DevicePropertyRegistry.getFormat(propertyId);
+        if (format == null)
+            return;
+        final int valueLength = format.getLength();
+        final int end = Math.min(offset + length, data.length);
+        for (int position = offset; position + 3 * valueLength <= end; position += 3 * valueLength) {
+            final double x = format.read(data, position);
+            if (Double.isNaN(x))
+                continue;
+            final Integer key = key(elementAddress, propertyId);
+            Columns columns = mColumns.get(key);
+            if (columns == null) {
+                columns = new Columns();
+                mColumns.put(key, columns);
+            }
+            columns.put(x, format.read(data, position + valueLength), format.read(data, position + 2 * valueLength));
+        }
+    }
+
+    /**
+     * Removes all series and columns of an element.
+     *
+     * @param elementAddress element address
+     */
+    public synchronized void remove(final int elementAddress) {
+        removeKeys(mSeries, elementAddress & 0xFFFF);
+        removeKeys(mColumns, elementAddress & 0xFFFF);
+    }
+
+    private static void removeKeys(final Map<Integer, ?> map, final int elementAddress) {
+        final Iterator<Integer> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() >>> 16 == elementAddress) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all series and columns.
+     */
+    public synchronized void clear() {
+        mSeries.clear();
+        mColumns.clear();
+    }
+
+    /**
+     * Returns the value of the most recent sample, or {@link Double#NaN} if there is none.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     */
+    public synchronized double getLatest(final int elementAddress, final int propertyId) {
+        final Series series = mSeries.get(key(elementAddress, propertyId));
+        if (series == null || series.size == 0)
+            return Double.NaN;
+        return series.values[series.index(series.size - 1)];
+    }
+
+    /**
+     * Copies the samples of a time window, oldest first.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param from           start of the window, inclusive, in milliseconds
+     * @param to             end of the window, exclusive, in milliseconds
+     * @param timestamps     array receiving the sample times
+     * @param values         array receiving the sample values
+     * @return number of samples copied, at most the length of the arrays
+     */
+    public synchronized int getSamples(final int elementAddress,
+                                       final int propertyId,
+                                       final long from,
+                                       final long to,
+                                       @NonNull final long[] timestamps,
+                                       @NonNull final double[] values) {
+        final Series series = mSeries.get(key(elementAddress, propertyId));
+        if (series == null)
+            return 0;
+        final int max = Math.min(timestamps.length, values.length);
+        int count = 0;
+        for (int i = 0; i < series.size && count < max; i++) {
+            final int index = series.index(i);
+            final long timestamp = series.timestamps[index];
+            if (timestamp >= from && timestamp < to) {
+                timestamps[count] = timestamp;
+                values[count] = series.values[index];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the downsampled intervals of a tier starting within a time window, oldest first.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param tier           tier index
+     * @param from           start of the window, inclusive, in milliseconds
+     * @param to             end of the window, exclusive, in milliseconds
+     * @param starts         array receiving the interval start times
+     * @param min            array receiving the minimum of each interval
+     * @param max            array receiving the maximum of each interval
+     * @param average        array receiving the average of each interval
+     * @return number of intervals copied, at most the length of the arrays
+     */
+    public synchronized int getDownsampled(final int elementAddress,
+                                           final int propertyId,
+                                           final int tier,
+                                           final long from,
+                                           final long to,
+                                           @NonNull final long[] starts,
+                                           @NonNull final double[] min,
+                                           @NonNull final double[] max,
+                                           @NonNull final double[] average) {
+        final Series series = mSeries.get(key(elementAddress, propertyId));
+        if (series == null)
+            return 0;
+        final Buckets buckets = series.tiers[tier];
+        final int limit = Math.min(Math.min(starts.length, min.length), Math.min(max.length, average.length));
+        int count = 0;
+        for (int i = 0; i < buckets.size && count < limit; i++) {
+            final int index = buckets.index(i);
+            final long start = buckets.starts[index];
+            if (start >= from && start < to) {
+                starts[count] = start;
+                min[count] = buckets.min[index];
+                max[count] = buckets.max[index];
+                average[count] = buckets.sum[index] / buckets.count[index];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the minimum, maximum and average value over a time window.
+     * <p>
+     * The samples are used if they cover the window, otherwise the finest tier covering it. Downsampled intervals are
+     * included if they start within the window. If no resolution covers the whole window, the coarsest tier is used.
+     * </p>
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param from           start of the window, inclusive, in milliseconds
+     * @param to             end of the window, exclusive, in milliseconds
+     * @return aggregate or null if there are no values within the window
+     */
+    @Nullable
+    public synchronized SensorAggregate getAggregate(final int elementAddress,
+                                                     final int propertyId,
+                                                     final long from,
+                                                     final long to) {
+        final Series series = mSeries.get(key(elementAddress, propertyId));
+        if (series == null || series.size == 0)
+            return null;
+        if (series.tiers.length == 0 || series.timestamps[series.index(0)] <= from) {
+            return series.aggregate(from, to);
+        }
+        Buckets buckets = series.tiers[series.tiers.length - 1];
+        for (Buckets tier : series.tiers) {
+            if (tier.size > 0 && tier.starts[tier.index(0)] <= from) {
+                buckets = tier;
+                break;
+            }
+        }
+        return buckets.aggregate(from, to);
+    }
+
+    /**
+     * Copies the most recent value of each column, ordered by Raw Value X.
+     *
+     * @param elementAddress address of the element containing the sensor
+     * @param propertyId     property id
+     * @param x              array receiving the Raw Value X of each column
+     * @param width          array receiving the Column Width of each column
+     * @param y              array receiving the Raw Value Y of each column
+     * @return number of columns copied, at most the length of the arrays
+     */
+    public synchronized int getColumns(final int elementAddress,
+                                       final int propertyId,
+                                       @NonNull final double[] x,
+                                       @NonNull final double[] width,
+                                       @NonNull final double[] y) {
+        final Columns columns = mColumns.get(key(elementAddress, propertyId));
+        if (columns == null)
+            return 0;
+        final int count = Math.min(columns.size, Math.min(x.length, Math.min(width.length, y.length)));
+        System.arraycopy(columns.x, 0, x, 0, count);
+        System.arraycopy(columns.width, 0, width, 0, count);
+        System.arraycopy(columns.y, 0, y, 0, count);
+        return count;
+    }
+
+    /**
+     * Ring buffer of samples and their downsampled intervals.
+     */
+    private static final class Series {
+        final long[] timestamps;
+        final double[] values;
+        final Buckets[] tiers;
+        int head;
+        int size;
+
+        Series(final int capacity, final Tier[] tiers) {
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+            this.tiers = new Buckets[tiers.length];
+            for (int i = 0; i < tiers.length; i++) {
+                this.tiers[i] = new Buckets(tiers[i]);
+            }
+        }
+
+        int index(final int i) {
+            return (head + i) % timestamps.length;
+        }
+
+        void add(final long timestamp, final double value) {
+            final int index;
+            if (size < timestamps.length) {
+                index = index(size);
+                size++;
+            } else {
+                index = head;
+                head = (head + 1) % timestamps.length;
+            }
+            timestamps[index] = timestamp;
+            values[index] = value;
+            for (Buckets tier : tiers) {
+                tier.add(timestamp, value);
+            }
+        }
+
+        SensorAggregate aggregate(final long from, final long to) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                final int index = index(i);
+                if (timestamps[index] >= from && timestamps[index] < to) {
+                    final double value = values[index];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    sum += value;
+                    count++;
+                }
+            }
+            return count == 0 ? null : new SensorAggregate(min, max, sum / count, count);
+        }
+    }
+
+    /**
+     * Ring buffer of downsampled intervals.
+     */
+    private static final class Buckets {
+        final long interval;
+        final long[] starts;
+        final double[] min;
+        final double[] max;
+        final double[] sum;
+        final int[] count;
+        int head;
+        int size;
+
+        Buckets(final Tier tier) {
+            this.interval = tier.interval;
+            this.starts = new long[tier.capacity];
+            this.min = new double[tier.capacity];
+            this.max = new double[tier.capacity];
+            this.sum = new double[tier.capacity];
+            this.count = new int[tier.capacity];
+        }
+
+        int index(final int i) {
+            return (head + i) % starts.length;
+        }
+
+        void add(final long timestamp, final double value) {
+            final long start = timestamp - Math.floorMod(timestamp, interval);
+            // Samples are usually received in order, look for the interval from the most recent one
+            for (int i = size - 1; i >= 0; i--) {
+                final int index = index(i);
+                if (starts[index] == start) {
+                    min[index] = Math.min(min[index], value);
+                    max[index] = Math.max(max[index], value);
+                    sum[index] += value;
+                    count[index]++;
+                    return;
+                }
+                if (starts[index] < start)
+                    break;
+            }
+            if (size > 0 && starts[index(size - 1)] > start)
+                return; // Older than the intervals kept
+            final int index;
+            if (size < starts.length) {
+                index = index(size);
+                size++;
+            } else {
+                index = head;
+                head = (head + 1) % starts.length;
+            }
+            starts[index] = start;
+            min[index] = value;
+            max[index] = value;
+            sum[index] = value;
+            count[index] = 1;
+        }
+
+        SensorAggregate aggregate(final long from, final long to) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                final int index = index(i);
+                if (starts[index] >= from && starts[index] < to) {
+                    min = Math.min(min, this.min[index]);
+                    max = Math.max(max, this.max[index]);
+                    sum += this.sum[index];
+                    count += this.count[index];
+                }
+            }
+            return count == 0 ? null : new SensorAggregate(min, max, sum / count, count);
+        }
+    }
+
+    /**
+     * Most recent value of each column, ordered by Raw Value X.
+     */
+    private static final class Columns {
+        double[] x = new double[4];
+        double[] width = new double[4];
+        double[] y = new double[4];
+        int size;
+
+        void put(final double x, final double width, final double y) {
+            int index = 0;
+            while (index < size && this.x[index] < x) {
+                index++;
+            }
+            if (index == size || this.x[index] != x) {
+                if (size == this.x.length) {
+                    this.x = Arrays.copyOf(this.x, size * 2);
+                    this.width = Arrays.copyOf(this.width, size * 2);
+                    this.y = Arrays.copyOf(this.y, size * 2);
+                }
+                System.arraycopy(this.x, index, this.x, index + 1, size - index);
+                System.arraycopy(this.width, index, this.width, index + 1, size - index);
+                System.arraycopy(this.y, index, this.y, index + 1, size - index);
+                size++;
+            }
+            this.x[index] = x;
+            this.width[index] = width;
+            this.y[index] = y;
+        }
+    }
+}
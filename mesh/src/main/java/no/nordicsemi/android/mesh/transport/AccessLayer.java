@@ -25,6 +25,7 @@ package no.nordicsemi.android.mesh.transport;
 import android.content.Context;
 import android.os.Handler;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -78,6 +79,7 @@ abstract class AccessLayer {
      */
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     final void createAccessMessage(@NonNull final AccessMessage accessMessage) {
+        final long start = MeshTracer.begin();
         final byte[] opCodes = getOpCode(accessMessage.getOpCode());
         final byte[] parameters = accessMessage.getParameters();
         final ByteBuffer accessMessageBuffer;
@@ -92,6 +94,7 @@ abstract class AccessLayer {
 
         MeshLogger.verbose(TAG, "Created Access PDU " + bytesToHex(accessPdu, false));
         accessMessage.setAccessPdu(accessMessageBuffer.array());
+        MeshTracer.end("access.encode", accessMessage.getDst(), start);
     }
 
     /**
@@ -101,6 +104,7 @@ abstract class AccessLayer {
      */
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     final void createCustomAccessMessage(@NonNull final AccessMessage accessMessage) {
+        final long start = MeshTracer.begin();
         final byte[] parameters = accessMessage.getParameters();
         final byte[] vendorOpcode = createVendorOpCode(accessMessage.getOpCode(),
                 accessMessage.getCompanyIdentifier());
@@ -116,6 +120,7 @@ abstract class AccessLayer {
         final byte[] accessPdu = accessMessageBuffer.array();
         MeshLogger.verbose(TAG, "Created Access PDU " + bytesToHex(accessPdu, false));
         accessMessage.setAccessPdu(accessPdu);
+        MeshTracer.end("access.encode", accessMessage.getDst(), start);
     }
 
     /**
@@ -48,6 +48,17 @@ abstract class ApplicationMessage extends MeshMessage {
         return mParameters;
     }
 
+    /**
+     * Returns true if the message is not acknowledged with a status message.
+     * <p>
+     * Unacknowledged messages are repeated with the same access payload when repeats are enabled using
+     * {@link no.nordicsemi.android.mesh.MeshMngrApi#setUnacknowledgedMessageRepeats(int, long, long)}.
+     * </p>
+     */
+    public boolean isUnacknowledged() {
+        return false;
+    }
+
     /**
      * Creates the parameters for a given mesh message.
      */
@@ -23,15 +23,22 @@
 package no.nordicsemi.android.mesh.transport;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.SystemClock;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
+import no.nordicsemi.android.mesh.metrics.MeshMetrics;
 import android.util.SparseArray;
 
 import org.spongycastle.crypto.InvalidCipherTextException;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -63,6 +70,12 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
     protected MeshStatusCallbacks mStatusCallbacks;
     private final SparseArray<MeshTransport> transportSparseArray = new SparseArray<>();
     private final SparseArray<MeshMessageState> stateSparseArray = new SparseArray<>();
+    private final MessageRepeatScheduler mRepeatScheduler;
+    private final NetworkMessageCache mNetworkMessageCache = new NetworkMessageCache();
+    private final OpCodeMap<VendorStatusDecoder> mVendorStatusDecoders = new OpCodeMap<>();
+    private final Handler mHandler;
+    private volatile StatusBatchQueue mStatusBatchQueue;
+    private ExecutorService mStatusDecoder;
 
     /**
      * Constructs BaseMessageHandler
@@ -78,6 +91,8 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
                                      @NonNull final UpperTransportLayerCallbacks upperTransportLayerCallbacks) {
         this.mContext = context;
         this.mInternalTransportCallbacks = internalTransportCallbacks;
+        this.mHandler = new Handler(context.getMainLooper());
+        this.mRepeatScheduler = new MessageRepeatScheduler(mHandler);
         this.networkLayerCallbacks = networkLayerCallbacks;
         this.upperTransportLayerCallbacks = upperTransportLayerCallbacks;
     }
@@ -102,6 +117,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
         final List<NetworkKey> networkKeys = network.getNetKeys();
         final int ivi = ((pdu[1] & 0xFF) >>> 7) & 0x01;
         final int nid = pdu[1] & 0x7F;
+        final long start = MeshTracer.begin();
         final int acceptedIvIndex = network.getIvIndex().getIvIndex();
         int ivIndex = acceptedIvIndex == 0 ? 0 : acceptedIvIndex - 1;
         int tempIvIndex = ivIndex;
@@ -133,7 +149,14 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
             // IF the node was found we can safely try to decrypt message with the network key which we found src of the message.
             if(node != null && k2Output != null) {
                 final byte[] sequenceNumber = ByteBuffer.allocate(3).order(ByteOrder.BIG_ENDIAN).put(networkHeader, 1, 3).array();
-                MeshLogger.verbose(TAG, "Sequence number of received Network PDU: " + MeshParserUtils.convert24BitsToInt(sequenceNumber));
+                final int seq = MeshParserUtils.convert24BitsToInt(sequenceNumber);
+                MeshLogger.verbose(TAG, "Sequence number of received Network PDU: " + seq);
+                final long cacheKey = NetworkMessageCache.createKey(src, seq, tempIvIndex);
+                if (mNetworkMessageCache.contains(cacheKey)) {
+                    MeshLogger.verbose(TAG, "Dropping duplicate Network PDU from 0x" + Integer.toHexString(src) + " with sequence number " + seq);
+                    MeshMetrics.onDuplicateDropped();
+                    return;
+                }
                 //TODO validate ivi
                 byte[] nonce;
                 try {
@@ -151,12 +174,16 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
                         decryptedPayload = SecureUtils.decryptCCM(transportPdu, k2Output.getEncryptionKey(), nonce, SecureUtils.getNetMicLength(ctl));
                         state = getState(MeshAddress.UNASSIGNED_ADDRESS);
                     }
+                    //The pdu has been authenticated, so it is safe to add it to the cache
+                    mNetworkMessageCache.add(cacheKey);
+                    MeshTracer.end("network.decrypt", src, start);
                     if (state != null) {
                         //TODO look in to proxy filter messages
                         ((DefaultNoOperationMessageState) state).parseMeshPdu(networkKey, node, pdu, networkHeader, decryptedPayload, tempIvIndex, sequenceNumber);
                         return;
                     }
                 } catch (InvalidCipherTextException ex) {
+                    MeshTracer.instant("network.decrypt_failed", src);
                     throw new ExtendedInvalidCipherTextException(ex.getMessage(), ex.getCause(), TAG);
                 }
             }
@@ -185,6 +212,159 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
         stateSparseArray.put(address, toggleState(getTransport(address), getState(address).getMeshMessage()));
     }
 
+    @Nullable
+    @Override
+    public final synchronized VendorStatusDecoder getVendorStatusDecoder(final int companyIdentifier, final int opCode) {
+        return mVendorStatusDecoders.get(vendorKey(companyIdentifier, opCode));
+    }
+
+    /**
+     * Registers a decoder for a vendor model message, replacing any decoder registered for the same message.
+     *
+     * @param companyIdentifier 16-bit company identifier
+     * @param opCode            6-bit vendor opcode
+     * @param decoder           {@link VendorStatusDecoder} decoder
+     * @throws IllegalArgumentException if the company identifier or opcode is out of range
+     */
+    public final synchronized void registerVendorStatusDecoder(final int companyIdentifier, final int opCode,
+                                                               @NonNull final VendorStatusDecoder decoder) throws IllegalArgumentException {
+        mVendorStatusDecoders.put(vendorKey(companyIdentifier, opCode), decoder);
+    }
+
+    /**
+     * Removes the decoder registered for a vendor model message.
+     *
+     * @param companyIdentifier 16-bit company identifier
+     * @param opCode            6-bit vendor opcode
+     * @throws IllegalArgumentException if the company identifier or opcode is out of range
+     */
+    public final synchronized void unregisterVendorStatusDecoder(final int companyIdentifier, final int opCode) throws IllegalArgumentException {
+        mVendorStatusDecoders.remove(vendorKey(companyIdentifier, opCode));
+    }
+
+    @Override
+    public final boolean offerStatus(@NonNull final AccessMessage message, @NonNull final StatusFactory factory) {
+        final StatusBatchQueue queue = mStatusBatchQueue;
+        if (queue == null)
+            return false;
+        if (queue.offer(message, factory)) {
+            scheduleStatusBatch(queue);
+        }
+        return true;
+    }
+
+    /**
+     * Enables batched delivery of application status messages that do not change the persisted network, such as
+     * sensor and generic level statuses. Queued statuses are decoded on a worker thread and delivered through
+     * {@link MeshStatusCallbacks#onMeshMessagesReceived(List)} at most once per interval.
+     *
+     * @param interval minimum interval between two batches in milliseconds
+     * @param capacity maximum number of statuses queued between two batches
+     * @param policy   {@link StatusOverflowPolicy} applied when the queue is full
+     * @throws IllegalArgumentException if the interval is not positive or the capacity is less than 1
+     */
+    public final synchronized void setStatusBatching(final long interval, final int capacity,
+                                                     @NonNull final StatusOverflowPolicy policy) throws IllegalArgumentException {
+        final StatusBatchQueue queue = new StatusBatchQueue(interval, capacity, policy);
+        if (mStatusDecoder == null) {
+            mStatusDecoder = Executors.newSingleThreadExecutor();
+        }
+        final StatusBatchQueue previous = mStatusBatchQueue;
+        mStatusBatchQueue = queue;
+        if (previous != null) {
+            decodeStatusBatch(previous.drain());
+        }
+    }
+
+    /**
+     * Disables batched delivery of status messages. Statuses already queued are still delivered.
+     */
+    public final synchronized void disableStatusBatching() {
+        final StatusBatchQueue previous = mStatusBatchQueue;
+        mStatusBatchQueue = null;
+        if (previous != null) {
+            decodeStatusBatch(previous.drain());
+        }
+    }
+
+    /**
+     * Returns the number of status messages dropped because the batch queue was full.
+     */
+    public final int getDroppedStatusCount() {
+        final StatusBatchQueue queue = mStatusBatchQueue;
+        return queue == null ? 0 : queue.getDroppedCount();
+    }
+
+    /**
+     * Returns the number of status messages waiting for the next batch.
+     */
+    public final int getQueuedStatusCount() {
+        final StatusBatchQueue queue = mStatusBatchQueue;
+        return queue == null ? 0 : queue.size();
+    }
+
+    private void scheduleStatusBatch(@NonNull final StatusBatchQueue queue) {
+        final long time = queue.getNextBatchTime();
+        final Runnable runnable = () -> deliverStatusBatch(queue);
+        if (time == Long.MIN_VALUE) {
+            mHandler.post(runnable);
+        } else {
+            mHandler.postAtTime(runnable, time);
+        }
+    }
+
+    private void deliverStatusBatch(@NonNull final StatusBatchQueue queue) {
+        final List<StatusBatchQueue.Entry> entries = queue.poll(SystemClock.uptimeMillis());
+        if (entries == null) {
+            scheduleStatusBatch(queue);
+        } else {
+            decodeStatusBatch(entries);
+        }
+    }
+
+    /**
+     * Decodes a batch on the worker thread and delivers the statuses on the handler.
+     *
+     * @param entries queued statuses
+     */
+    private void decodeStatusBatch(@NonNull final List<StatusBatchQueue.Entry> entries) {
+        if (entries.isEmpty())
+            return;
+        mStatusDecoder.execute(() -> {
+            final List<MeshMessage> statuses = new ArrayList<>(entries.size());
+            for (StatusBatchQueue.Entry entry : entries) {
+                try {
+                    statuses.add(entry.decode());
+                } catch (Exception ex) {
+                    MeshLogger.error(TAG, "Failed to decode status 0x" + Integer.toHexString(entry.message.getOpCode()) + " : " + ex.getMessage());
+                }
+            }
+            if (!statuses.isEmpty()) {
+                mHandler.post(() -> onStatusBatchDecoded(statuses));
+            }
+        });
+    }
+
+    private void onStatusBatchDecoded(@NonNull final List<MeshMessage> statuses) {
+        for (MeshMessage status : statuses) {
+            mInternalTransportCallbacks.updateMeshNetwork(status);
+        }
+        if (mStatusCallbacks != null) {
+            mStatusCallbacks.onMeshMessagesReceived(statuses);
+        }
+    }
+
+    /**
+     * Returns the key of a vendor message, laid out like the 3-octet opcode as sent over the air.
+     */
+    private static int vendorKey(final int companyIdentifier, final int opCode) {
+        if (companyIdentifier != (companyIdentifier & 0xFFFF))
+            throw new IllegalArgumentException("Invalid company identifier: " + companyIdentifier);
+        if (opCode != (opCode & 0x3F))
+            throw new IllegalArgumentException("Invalid vendor opcode, opcode must be 6 bits");
+        return (0xC0 | opCode) << 16 | (companyIdentifier & 0xFF) << 8 | companyIdentifier >> 8;
+    }
+
     /**
      * Toggles the current state to default state of a node
      *
@@ -232,12 +412,17 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param address unicast address of the node
      */
     public void resetState(final int address) {
+        mRepeatScheduler.cancel(address);
+        mNetworkMessageCache.removeSource(address);
         stateSparseArray.remove(address);
         transportSparseArray.remove(address);
     }
 
     @Override
     public void createMeshMessage(final int src, final int dst, @Nullable final UUID label, @NonNull final MeshMessage meshMessage) {
+        MeshTracer.beginTrace(dst, meshMessage.getOpCode());
+        //A newer message supersedes any repeats of the previous unacknowledged message sent to the same destination
+        mRepeatScheduler.cancel(dst);
         if (meshMessage instanceof ProxyConfigMessage) {
             createProxyConfigMeshMessage(src, dst, (ProxyConfigMessage) meshMessage);
         } else if (meshMessage instanceof ConfigMessage) {
@@ -294,21 +479,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param applicationMessage Mesh message containing the message opcode and message parameters.
      */
     private void createAppMeshMessage(final int src, final int dst, @NonNull final ApplicationMessage applicationMessage) {
-        final ApplicationMessageState currentState;
-        if (applicationMessage instanceof VendorModelMessageAcked) {
-            currentState = new VendorModelMessageAckedState(src, dst, (VendorModelMessageAcked) applicationMessage, getTransport(dst),
-                    this, mInternalTransportCallbacks, mStatusCallbacks);
-        } else if (applicationMessage instanceof VendorModelMessageUnacked) {
-            currentState = new VendorModelMessageUnackedState(src, dst, (VendorModelMessageUnacked) applicationMessage, getTransport(dst),
-                    this, mInternalTransportCallbacks, mStatusCallbacks);
-        } else {
-            currentState = new ApplicationMessageState(src, dst, applicationMessage, getTransport(dst),
-                    this, mInternalTransportCallbacks, mStatusCallbacks);
-        }
-        if (MeshAddress.isValidUnicastAddress(dst)) {
-            stateSparseArray.put(dst, toggleState(getTransport(dst), applicationMessage));
-        }
-        currentState.executeSend();
+        createAppMeshMessage(src, dst, null, applicationMessage, false);
     }
 
 
@@ -325,6 +496,25 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param applicationMessage Mesh message containing the message opcode and message parameters.
      */
     private void createAppMeshMessage(final int src, final int dst, @NonNull UUID label, @NonNull final ApplicationMessage applicationMessage) {
+        createAppMeshMessage(src, dst, label, applicationMessage, false);
+    }
+
+    /**
+     * Encrypts and sends an application message.
+     * <p>
+     * Every call re-encrypts the same access payload with a new sequence number, so repeats of unacknowledged messages
+     * keep the Transaction Identifier of the original message while being accepted by the replay protection of the
+     * receiving nodes.
+     * </p>
+     *
+     * @param src                source address where the message is originating from
+     * @param dst                Destination to which the message must be sent to, this could be a unicast address or a group address.
+     * @param label              Label UUID of destination address or null if the destination is not a virtual address
+     * @param applicationMessage Mesh message containing the message opcode and message parameters.
+     * @param repeat             true if this is a repeat of a message that has already been sent
+     */
+    private void createAppMeshMessage(final int src, final int dst, @Nullable final UUID label,
+                                      @NonNull final ApplicationMessage applicationMessage, final boolean repeat) {
         final ApplicationMessageState currentState;
         if (applicationMessage instanceof VendorModelMessageAcked) {
             currentState = new VendorModelMessageAckedState(src, dst, label, (VendorModelMessageAcked) applicationMessage, getTransport(dst),
@@ -339,6 +529,54 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
         if (MeshAddress.isValidUnicastAddress(dst)) {
             stateSparseArray.put(dst, toggleState(getTransport(dst), applicationMessage));
         }
-        currentState.executeSend();
+        if (repeat) {
+            MeshLogger.verbose(TAG, "Repeating unacknowledged message to 0x" + Integer.toHexString(dst));
+            currentState.executeRepeat();
+        } else {
+            currentState.executeSend();
+            if (applicationMessage.isUnacknowledged()) {
+                mRepeatScheduler.schedule(dst, () -> createAppMeshMessage(src, dst, label, applicationMessage, true));
+            }
+        }
+    }
+
+    /**
+     * Sets the number of times unacknowledged application messages are repeated after they have been sent.
+     *
+     * @param count    number of repeats, 0 disables repeats
+     * @param interval interval between two transmissions in milliseconds
+     * @param jitter   maximum random delay in milliseconds added to each interval
+     * @throws IllegalArgumentException if any of the values is negative
+     */
+    public void setUnacknowledgedMessageRepeats(final int count, final long interval, final long jitter) throws IllegalArgumentException {
+        mRepeatScheduler.setRepeatSettings(count, interval, jitter);
+    }
+
+    /**
+     * Cancels all pending repeats of unacknowledged messages.
+     */
+    public void cancelMessageRepeats() {
+        mRepeatScheduler.clear();
+    }
+
+    /**
+     * Removes all messages from the network message cache.
+     */
+    public void clearNetworkMessageCache() {
+        mNetworkMessageCache.clear();
+    }
+
+    /**
+     * Returns the number of received network pdus that were dropped by the network message cache as duplicates.
+     */
+    public long getNetworkMessageCacheHitCount() {
+        return mNetworkMessageCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of received network pdus that were not found in the network message cache.
+     */
+    public long getNetworkMessageCacheMissCount() {
+        return mNetworkMessageCache.getMissCount();
     }
 }
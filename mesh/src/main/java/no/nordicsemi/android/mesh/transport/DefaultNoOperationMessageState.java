@@ -5,6 +5,8 @@ import static no.nordicsemi.android.mesh.models.SigModelParser.SCENE_SERVER;
 import static no.nordicsemi.android.mesh.utils.MeshAddress.ALL_PROXIES_ADDRESS;
 import static no.nordicsemi.android.mesh.utils.MeshAddress.isValidUnassignedAddress;
 
+import android.os.SystemClock;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -20,8 +22,11 @@ import no.nordicsemi.android.mesh.MeshNetwork;
 import no.nordicsemi.android.mesh.MeshStatusCallbacks;
 import no.nordicsemi.android.mesh.NetworkKey;
 import no.nordicsemi.android.mesh.control.BlockAcknowledgementMessage;
+import no.nordicsemi.android.mesh.control.HeartbeatMessage;
 import no.nordicsemi.android.mesh.control.TransportControlMessage;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
+import no.nordicsemi.android.mesh.metrics.MeshMetrics;
 import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
 import no.nordicsemi.android.mesh.models.SceneServer;
 import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
@@ -82,463 +87,507 @@ class DefaultNoOperationMessageState extends MeshMessageState {
             }
         } catch (ExtendedInvalidCipherTextException e) {
             MeshLogger.error(TAG, "Decryption failed in " + e.getTag() + " : " + e.getMessage());
+            MeshMetrics.onDecryptionFailed(e.getTag());
             mMeshStatusCallbacks.onMessageDecryptionFailed(e.getTag(), e.getMessage());
         }
     }
 
+    /**
+     * Decodes an access message with a SIG defined opcode.
+     */
+    private interface StatusDecoder {
+
+        /**
+         * Decodes the message and updates the network with its contents.
+         *
+         * @param state   state that received the message
+         * @param node    node that sent the message
+         * @param message access message received by the access layer
+         */
+        void decode(@NonNull final DefaultNoOperationMessageState state,
+                    final ProvisionedMeshNode node,
+                    @NonNull final AccessMessage message);
+    }
+
+    /**
+     * Decoders of the SIG defined messages, built once and indexed by the opcode of the message.
+     * 1 and 2-octet opcodes do not overlap, so both are stored in the same table.
+     */
+    private static final OpCodeMap<StatusDecoder> STATUS_DECODERS = new OpCodeMap<>(80);
+
+    static {
+        // 1-octet opcodes
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS, DefaultNoOperationMessageState::parseCompositionDataStatus);
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.HEALTH_CURRENT_STATUS, application(HealthCurrentStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.HEALTH_FAULT_STATUS, application(HealthFaultStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SCENE_STATUS, DefaultNoOperationMessageState::parseSceneStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_STATUS, DefaultNoOperationMessageState::parseHeartbeatPublicationStatus);
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_STATUS, application(GenericLocationGlobalStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS, application(SensorDescriptorStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS, application(SensorCadenceStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_SETTINGS_STATUS, application(SensorSettingsStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_SETTING_STATUS, application(SensorSettingStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_STATUS, application(SensorStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_COLUMN_STATUS, application(SensorColumnStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SENSOR_SERIES_STATUS, application(SensorSeriesStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SCHEDULER_ACTION_STATUS, application(SchedulerActionStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_STATUS, application(GenericPropertyStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_STATUS, application(GenericPropertyStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_STATUS, application(GenericPropertyStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.TIME_STATUS, application(TimeStatus::new));
+
+        // 2-octet opcodes
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_STATUS, DefaultNoOperationMessageState::parseDefaultTtlStatus);
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_STATUS, application(GenericOnPowerUpStatus::new));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_NETKEY_STATUS, DefaultNoOperationMessageState::parseNetKeyStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_NETKEY_LIST, DefaultNoOperationMessageState::parseNetKeyList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_APPKEY_STATUS, DefaultNoOperationMessageState::parseAppKeyStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_APPKEY_LIST, DefaultNoOperationMessageState::parseAppKeyList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS, DefaultNoOperationMessageState::parseModelAppStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_LIST, DefaultNoOperationMessageState::parseSigModelAppList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_LIST, DefaultNoOperationMessageState::parseVendorModelAppList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_STATUS, DefaultNoOperationMessageState::parseModelPublicationStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_STATUS, DefaultNoOperationMessageState::parseModelSubscriptionStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_LIST, DefaultNoOperationMessageState::parseSigModelSubscriptionList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_LIST, DefaultNoOperationMessageState::parseVendorModelSubscriptionList);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_STATUS, DefaultNoOperationMessageState::parseHeartbeatSubscriptionStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_STATUS, DefaultNoOperationMessageState::parseNodeIdentityStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS, DefaultNoOperationMessageState::parseNodeResetStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_STATUS, DefaultNoOperationMessageState::parseNetworkTransmitStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_RELAY_STATUS, DefaultNoOperationMessageState::parseRelayStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_BEACON_STATUS, DefaultNoOperationMessageState::parseBeaconStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_FRIEND_STATUS, DefaultNoOperationMessageState::parseFriendStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_STATUS, (state, node, message) -> state.onStatusReceived(new ConfigKeyRefreshPhaseStatus(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_GATT_PROXY_STATUS, DefaultNoOperationMessageState::parseGattProxyStatus);
+        STATUS_DECODERS.put(ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_STATUS, (state, node, message) -> state.onStatusReceived(new ConfigLowPowerNodePollTimeoutStatus(message)));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.HEALTH_PERIOD_STATUS, application(HealthPeriodStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS, application(GenericOnOffStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_LEVEL_STATUS, application(GenericLevelStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_STATUS, application(GenericPowerLevelStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_BATTERY_STATUS, application(GenericBatteryStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_LIGHTNESS_STATUS, application(LightLightnessStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_CTL_STATUS, application(LightCtlStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_STATUS, application(LightCtlTemperatureRangeStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_HSL_STATUS, application(LightHslStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_LC_MODE_STATUS, application(LightLCModeStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_STATUS, application(LightLCOccupancyModeStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_STATUS, application(LightLCLightOnOffStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_STATUS, application(LightLCPropertyStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SCENE_REGISTER_STATUS, DefaultNoOperationMessageState::parseSceneRegisterStatus);
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.SCHEDULER_STATUS, application(SchedulerStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.TIME_ZONE_STATUS, application(TimeZoneStatus::new));
+        STATUS_DECODERS.put(ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_STATUS, application(GenericDefaultTransitionTimeStatus::new));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_STATUS, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningScanStatus(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_REPORT, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningScanReport(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_EXTENDED_SCAN_REPORT, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningExtendedScanReport(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_STATUS, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningLinkStatus(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_REPORT, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningLinkReport(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_OUTBOUND_REPORT, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningPDUOutboundReport(message)));
+        STATUS_DECODERS.put(ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_REPORT, (state, node, message) -> state.onRemoteProvisioningStatusReceived(new RemoteProvisioningPDUReport(message)));
+    }
+
+    /**
+     * Returns the decoder of an application status that changes no persisted state and may be delivered in a batch.
+     *
+     * @param factory creates the status from the access message
+     */
+    private static StatusDecoder application(@NonNull final StatusFactory factory) {
+        return (state, node, message) -> {
+            if (!state.meshMessageHandlerCallbacks.offerStatus(message, factory)) {
+                state.onStatusReceived(factory.create(message));
+            }
+        };
+    }
+
+    /**
+     * Returns true if a decoder is registered for a SIG defined opcode.
+     *
+     * @param opCode 1 or 2-octet opcode
+     */
+    static boolean hasStatusDecoder(final int opCode) {
+        return STATUS_DECODERS.get(opCode) != null;
+    }
+
     /**
      * Parses Access message received
      *
      * @param message access message received by the access layer
      */
     private void parseAccessMessage(final AccessMessage message) {
+        MeshMetrics.onResponseReceived(message.getSrc(), SystemClock.uptimeMillis());
         final ProvisionedMeshNode node = mInternalTransportCallbacks.getNode(message.getSrc());
         final int opCodeLength = MeshParserUtils.getOpCodeLength(message.getAccessPdu()[0] & 0xFF);
-        //OpCode length
-        switch (opCodeLength) {
-            case 1:
-                if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS) {
-                    final ConfigCompositionDataStatus status = new ConfigCompositionDataStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setCompositionData(status);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.HEALTH_CURRENT_STATUS) {
-                    final HealthCurrentStatus healthCurrentStatus = new HealthCurrentStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(healthCurrentStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), healthCurrentStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.HEALTH_FAULT_STATUS) {
-                    final HealthFaultStatus healthFaultStatus = new HealthFaultStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(healthFaultStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), healthFaultStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCENE_STATUS) {
-                    final SceneStatus sceneStatus = new SceneStatus(message);
-                    if (sceneStatus.isSuccessful()) {
-                        final MeshModel model = getMeshModel(node, sceneStatus.getSrc(), SCENE_SERVER);
-                        if (model != null) {
-                            final SceneServer sceneServer = ((SceneServer) model);
-                            sceneServer.currentScene = sceneStatus.getCurrentScene();
-                            sceneServer.targetScene = sceneStatus.getTargetScene();
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(sceneStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), sceneStatus);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_STATUS) {
-                    final ConfigHeartbeatPublicationStatus status = new ConfigHeartbeatPublicationStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final ConfigurationServerModel model = (ConfigurationServerModel) getMeshModel(node, status.getSrc(), CONFIGURATION_SERVER);
-                            if (model != null) {
-                                model.setHeartbeatPublication(!isValidUnassignedAddress(status.getHeartbeatPublication().getDst()) ?
-                                        status.getHeartbeatPublication() : null);
-                            }
-                        }
+        final long start = MeshTracer.begin();
+        if (opCodeLength == 3) {
+            parseVendorMessage(message);
+        } else {
+            final StatusDecoder decoder = STATUS_DECODERS.get(message.getOpCode());
+            if (decoder != null) {
+                decoder.decode(this, node, message);
+            } else {
+                handleUnknownPdu(message);
+            }
+        }
+        MeshTracer.end("access.decode", message.getSrc(), start);
+        MeshTracer.endTrace(message.getSrc(), message.getOpCode());
+    }
+
+    /**
+     * Parses a vendor model message using the decoder registered for it or the vendor model message that was sent.
+     *
+     * @param message access message received by the access layer
+     */
+    private void parseVendorMessage(final AccessMessage message) {
+        final VendorStatusDecoder decoder =
+                meshMessageHandlerCallbacks.getVendorStatusDecoder(message.getCompanyIdentifier(), message.getOpCode());
+        if (decoder != null) {
+            final MeshMessage status = decoder.decode(message);
+            if (status != null) {
+                mInternalTransportCallbacks.updateMeshNetwork(status);
+                mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+            } else {
+                handleUnknownPdu(message);
+            }
+        } else if (mMeshMessage instanceof VendorModelMessageAcked) {
+            final VendorModelMessageAcked vendorModelMessageAcked = (VendorModelMessageAcked) mMeshMessage;
+            final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageAcked.getModelIdentifier());
+            mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+            MeshLogger.verbose(TAG, "Vendor model Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
+        } else if (mMeshMessage instanceof VendorModelMessageUnacked) {
+            final VendorModelMessageUnacked vendorModelMessageUnacked = (VendorModelMessageUnacked) mMeshMessage;
+            final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageUnacked.getModelIdentifier());
+            mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+        } else {
+            handleUnknownPdu(message);
+        }
+    }
+
+    /**
+     * Updates the network and notifies the app of a status that needs no further processing.
+     *
+     * @param status status message received
+     */
+    private void onStatusReceived(@NonNull final MeshMessage status) {
+        mInternalTransportCallbacks.updateMeshNetwork(status);
+        mMeshStatusCallbacks.onMeshMessageReceived(status.getSrc(), status);
+    }
+
+    private void onRemoteProvisioningStatusReceived(@NonNull final ConfigStatusMessage status) {
+        mInternalTransportCallbacks.onRemoteProvisioningStatusReceived(status);
+        mMeshStatusCallbacks.onMeshMessageReceived(status.getSrc(), status);
+    }
+
+    private void parseCompositionDataStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigCompositionDataStatus status = new ConfigCompositionDataStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setCompositionData(status);
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseSceneStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final SceneStatus sceneStatus = new SceneStatus(message);
+        if (sceneStatus.isSuccessful()) {
+            final MeshModel model = getMeshModel(node, sceneStatus.getSrc(), SCENE_SERVER);
+            if (model != null) {
+                final SceneServer sceneServer = ((SceneServer) model);
+                sceneServer.currentScene = sceneStatus.getCurrentScene();
+                sceneServer.targetScene = sceneStatus.getTargetScene();
+            }
+        }
+        onStatusReceived(sceneStatus);
+    }
+
+    private void parseHeartbeatPublicationStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigHeartbeatPublicationStatus status = new ConfigHeartbeatPublicationStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final ConfigurationServerModel model = (ConfigurationServerModel) getMeshModel(node, status.getSrc(), CONFIGURATION_SERVER);
+                if (model != null) {
+                    model.setHeartbeatPublication(!isValidUnassignedAddress(status.getHeartbeatPublication().getDst()) ?
+                            status.getHeartbeatPublication() : null);
+                }
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseDefaultTtlStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigDefaultTtlStatus status = new ConfigDefaultTtlStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setTtl(status.getTtl());
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseNetKeyStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigNetKeyStatus status = new ConfigNetKeyStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigNetKeyAdd) {
+                    node.setAddedNetKeyIndex(status.getNetKeyIndex());
+                    // Let's mark any keys added to the node as insecure if the node was provisioned insecurely.
+                    if (!node.isSecurelyProvisioned()) {
+                        final NetworkKey key = mInternalTransportCallbacks.getMeshNetwork().getNetKey(status.getNetKeyIndex());
+                        key.markAsInsecure();
                     }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_STATUS) {
-                    final GenericLocationGlobalStatus genericLocationGlobalStatus = new GenericLocationGlobalStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericLocationGlobalStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericLocationGlobalStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS) {
-                    final SensorDescriptorStatus status = new SensorDescriptorStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS) {
-                    final SensorCadenceStatus status = new SensorCadenceStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SETTINGS_STATUS) {
-                    final SensorSettingsStatus status = new SensorSettingsStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SETTING_STATUS) {
-                    final SensorSettingStatus status = new SensorSettingStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_STATUS) {
-                    final SensorStatus status = new SensorStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_COLUMN_STATUS) {
-                    final SensorColumnStatus status = new SensorColumnStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SERIES_STATUS) {
-                    final SensorSeriesStatus status = new SensorSeriesStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCHEDULER_ACTION_STATUS) {
-                    final SchedulerActionStatus schedulerActionStatus = new SchedulerActionStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(schedulerActionStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), schedulerActionStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_STATUS ||
-                        message.getOpCode() == ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_STATUS ||
-                        message.getOpCode() == ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_STATUS) {
-                    final GenericPropertyStatus status = new GenericPropertyStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.TIME_STATUS) {
-                    final TimeStatus timeStatus = new TimeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(timeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), timeStatus);
+                } else if (mMeshMessage instanceof ConfigNetKeyUpdate) {
+                    node.updateAddedNetKey(status.getNetKeyIndex());
+                } else if (mMeshMessage instanceof ConfigNetKeyDelete) {
+                    node.removeAddedNetKeyIndex(status.getNetKeyIndex());
+                }
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseNetKeyList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigNetKeyList netKeyList = new ConfigNetKeyList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (netKeyList.isSuccessful()) {
+                node.updateNetKeyList(netKeyList.getKeyIndexes());
+            }
+        }
+        onStatusReceived(netKeyList);
+    }
+
+    private void parseAppKeyStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigAppKeyStatus status = new ConfigAppKeyStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigAppKeyAdd) {
+                    node.setAddedAppKeyIndex(status.getAppKeyIndex());
+                } else if (mMeshMessage instanceof ConfigAppKeyUpdate) {
+                    node.updateAddedAppKey(status.getAppKeyIndex());
+                } else if (mMeshMessage instanceof ConfigAppKeyDelete) {
+                    node.removeAddedAppKeyIndex(status.getAppKeyIndex());
+                }
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseAppKeyList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigAppKeyList appKeyList = new ConfigAppKeyList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                node.updateAppKeyList(appKeyList.getNetKeyIndex(), appKeyList.getKeyIndexes(),
+                        mInternalTransportCallbacks.getApplicationKeys(appKeyList.getNetKeyIndex()));
+            }
+        }
+        onStatusReceived(appKeyList);
+    }
+
+    private void parseModelAppStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigModelAppStatus status = new ConfigModelAppStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigModelAppBind) {
+                    node.setAppKeyBindStatus(status);
                 } else {
-                    handleUnknownPdu(message);
+                    node.setAppKeyUnbindStatus(status);
                 }
-                break;
-            case 2:
-                if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_STATUS) {
-                    final ConfigDefaultTtlStatus status = new ConfigDefaultTtlStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setTtl(status.getTtl());
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_STATUS) {
-                    final GenericOnPowerUpStatus genericOnPowerUpStatus = new GenericOnPowerUpStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericOnPowerUpStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericOnPowerUpStatus);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETKEY_STATUS) {
-                    final ConfigNetKeyStatus status = new ConfigNetKeyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigNetKeyAdd) {
-                                node.setAddedNetKeyIndex(status.getNetKeyIndex());
-                                // Let's mark any keys added to the node as insecure if the node was provisioned insecurely.
-                                if (!node.isSecurelyProvisioned()) {
-                                    final NetworkKey key = mInternalTransportCallbacks.getMeshNetwork().getNetKey(status.getNetKeyIndex());
-                                    key.markAsInsecure();
-                                }
-                            } else if (mMeshMessage instanceof ConfigNetKeyUpdate) {
-                                node.updateAddedNetKey(status.getNetKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigNetKeyDelete) {
-                                node.removeAddedNetKeyIndex(status.getNetKeyIndex());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETKEY_LIST) {
-                    final ConfigNetKeyList netKeyList = new ConfigNetKeyList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (netKeyList.isSuccessful()) {
-                            node.updateNetKeyList(netKeyList.getKeyIndexes());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(netKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), netKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_APPKEY_STATUS) {
-                    final ConfigAppKeyStatus status = new ConfigAppKeyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigAppKeyAdd) {
-                                node.setAddedAppKeyIndex(status.getAppKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigAppKeyUpdate) {
-                                node.updateAddedAppKey(status.getAppKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigAppKeyDelete) {
-                                node.removeAddedAppKeyIndex(status.getAppKeyIndex());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_APPKEY_LIST) {
-                    final ConfigAppKeyList appKeyList = new ConfigAppKeyList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            node.updateAppKeyList(appKeyList.getNetKeyIndex(), appKeyList.getKeyIndexes(),
-                                    mInternalTransportCallbacks.getApplicationKeys(appKeyList.getNetKeyIndex()));
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS) {
-                    final ConfigModelAppStatus status = new ConfigModelAppStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigModelAppBind) {
-                                node.setAppKeyBindStatus(status);
-                            } else {
-                                node.setAppKeyUnbindStatus(status);
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_LIST) {
-                    final ConfigSigModelAppList appKeyList = new ConfigSigModelAppList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
-                            if (model != null) {
-                                model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_LIST) {
-                    final ConfigVendorModelAppList appKeyList = new ConfigVendorModelAppList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
-                            if (model != null) {
-                                model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_STATUS) {
-                    final ConfigModelPublicationStatus status = new ConfigModelPublicationStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                if (mMeshMessage instanceof ConfigModelPublicationGet) {
-                                    model.updatePublicationStatus(status);
-                                } else if (mMeshMessage instanceof ConfigModelPublicationSet) {
-                                    model.setPublicationStatus(status, null);
-                                } else if (mMeshMessage instanceof ConfigModelPublicationVirtualAddressSet) {
-                                    final UUID labelUUID = ((ConfigModelPublicationVirtualAddressSet) mMeshMessage).
-                                            getLabelUuid();
-                                    model.setPublicationStatus(status, labelUUID);
-                                }
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_STATUS) {
-                    final ConfigModelSubscriptionStatus status = new ConfigModelSubscriptionStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                if (mMeshMessage instanceof ConfigModelSubscriptionAdd) {
-                                    model.addSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressAdd) {
-                                    model.addSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressAdd) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionOverwrite) {
-                                    model.overwriteSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressOverwrite) {
-                                    model.overwriteSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressOverwrite) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionDelete) {
-                                    model.removeSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressDelete) {
-                                    model.removeSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressDelete) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionDeleteAll) {
-                                    model.removeAllSubscriptionAddresses();
-                                }
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_LIST) {
-                    final ConfigSigModelSubscriptionList status = new ConfigSigModelSubscriptionList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
-                            }
-                            createGroups(status.getSubscriptionAddresses());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_LIST) {
-                    final ConfigVendorModelSubscriptionList status = new ConfigVendorModelSubscriptionList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
-                            }
-                            createGroups(status.getSubscriptionAddresses());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_STATUS) {
-                    final ConfigHeartbeatSubscriptionStatus status = new ConfigHeartbeatSubscriptionStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, message.getSrc(), CONFIGURATION_SERVER);
-                            if (model != null) {
-                                ((ConfigurationServerModel) model).
-                                        setHeartbeatSubscription((!isValidUnassignedAddress(status.getHeartbeatSubscription().getSrc()) ||
-                                                !isValidUnassignedAddress(status.getHeartbeatSubscription().getDst()))
-                                                ? status.getHeartbeatSubscription() : null);
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_STATUS) {
-                    final ConfigNodeIdentityStatus status = new ConfigNodeIdentityStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeIdentityState = status.getNodeIdentityState();
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS) {
-                    final ConfigNodeResetStatus status = new ConfigNodeResetStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        mInternalTransportCallbacks.onMeshNodeReset(node);
-                    }
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_STATUS) {
-                    final ConfigNetworkTransmitStatus status = new ConfigNetworkTransmitStatus(message);
-                    final NetworkTransmitSettings networkTransmitSettings =
-                            new NetworkTransmitSettings(status.getNetworkTransmitCount(), status.getNetworkTransmitIntervalSteps());
-                    node.setNetworkTransmitSettings(networkTransmitSettings);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_RELAY_STATUS) {
-                    final ConfigRelayStatus status = new ConfigRelayStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        final RelaySettings relaySettings =
-                                new RelaySettings(status.getRelayRetransmitCount(), status.getRelayRetransmitIntervalSteps());
-                        node.setRelaySettings(relaySettings);
-                        // Let's update the feature state based on the status message.
-                        node.nodeFeatures.setRelay(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_BEACON_STATUS) {
-                    final ConfigBeaconStatus status = new ConfigBeaconStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setSecureNetworkBeaconSupported(status.isEnable());
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_FRIEND_STATUS) {
-                    final ConfigFriendStatus status = new ConfigFriendStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeFeatures.setFriend(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_STATUS) {
-                    final ConfigKeyRefreshPhaseStatus status = new ConfigKeyRefreshPhaseStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_GATT_PROXY_STATUS) {
-                    final ConfigGattProxyStatus status = new ConfigGattProxyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeFeatures.setProxy(status.isProxyFeatureEnabled() ? Features.ENABLED : Features.DISABLED);
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseSigModelAppList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigSigModelAppList appKeyList = new ConfigSigModelAppList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
+                if (model != null) {
+                    model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
+                }
+            }
+        }
+        onStatusReceived(appKeyList);
+    }
+
+    private void parseVendorModelAppList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigVendorModelAppList appKeyList = new ConfigVendorModelAppList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
+                if (model != null) {
+                    model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
+                }
+            }
+        }
+        onStatusReceived(appKeyList);
+    }
+
+    private void parseModelPublicationStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigModelPublicationStatus status = new ConfigModelPublicationStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    if (mMeshMessage instanceof ConfigModelPublicationGet) {
+                        model.updatePublicationStatus(status);
+                    } else if (mMeshMessage instanceof ConfigModelPublicationSet) {
+                        model.setPublicationStatus(status, null);
+                    } else if (mMeshMessage instanceof ConfigModelPublicationVirtualAddressSet) {
+                        final UUID labelUUID = ((ConfigModelPublicationVirtualAddressSet) mMeshMessage).
+                                getLabelUuid();
+                        model.setPublicationStatus(status, labelUUID);
                     }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_STATUS) {
-                    final ConfigLowPowerNodePollTimeoutStatus status = new ConfigLowPowerNodePollTimeoutStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS) {
-                    final GenericOnOffStatus status = new GenericOnOffStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_LEVEL_STATUS) {
-                    final GenericLevelStatus genericLevelStatus = new GenericLevelStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericLevelStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericLevelStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_STATUS) {
-                    final GenericPowerLevelStatus genericPowerLevelStatus = new GenericPowerLevelStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericPowerLevelStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericPowerLevelStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_BATTERY_STATUS) {
-                    final GenericBatteryStatus status = new GenericBatteryStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LIGHTNESS_STATUS) {
-                    final LightLightnessStatus lightLightnessStatus = new LightLightnessStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLightnessStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLightnessStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_CTL_STATUS) {
-                    final LightCtlStatus lightCtlStatus = new LightCtlStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightCtlStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightCtlStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_STATUS) {
-                    final LightCtlTemperatureRangeStatus lightCtlTemperatureRangeStatus = new LightCtlTemperatureRangeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightCtlTemperatureRangeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightCtlTemperatureRangeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_HSL_STATUS) {
-                    final LightHslStatus lightHslStatus = new LightHslStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightHslStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightHslStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_MODE_STATUS) {
-                    final LightLCModeStatus lightLcModeStatus = new LightLCModeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcModeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcModeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_STATUS) {
-                    final LightLCOccupancyModeStatus lightLcOccupancyModeStatus = new LightLCOccupancyModeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcOccupancyModeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcOccupancyModeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_STATUS) {
-                    final LightLCLightOnOffStatus lightLcLightOnOffStatus = new LightLCLightOnOffStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcLightOnOffStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcLightOnOffStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_STATUS) {
-                    final LightLCPropertyStatus status = new LightLCPropertyStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCENE_REGISTER_STATUS) {
-                    if (mMeshMessage instanceof SceneRegisterGet) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneStore) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        storeScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneRecall) {
-                        final SceneStatus status = new SceneStatus(message);
-                        storeScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneDelete) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        deleteScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+                }
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseModelSubscriptionStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigModelSubscriptionStatus status = new ConfigModelSubscriptionStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    if (mMeshMessage instanceof ConfigModelSubscriptionAdd) {
+                        model.addSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressAdd) {
+                        model.addSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressAdd) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionOverwrite) {
+                        model.overwriteSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressOverwrite) {
+                        model.overwriteSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressOverwrite) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionDelete) {
+                        model.removeSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressDelete) {
+                        model.removeSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressDelete) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionDeleteAll) {
+                        model.removeAllSubscriptionAddresses();
                     }
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCHEDULER_STATUS) {
-                    final SchedulerStatus schedulerStatus = new SchedulerStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(schedulerStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), schedulerStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.TIME_ZONE_STATUS) {
-                    final TimeZoneStatus timeZoneStatus = new TimeZoneStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(timeZoneStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), timeZoneStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_STATUS) {
-                    final GenericDefaultTransitionTimeStatus genericDefaultTransitionTimeStatus = new GenericDefaultTransitionTimeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericDefaultTransitionTimeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericDefaultTransitionTimeStatus);
-                } else {
-                    handleUnknownPdu(message);
                 }
-                break;
-            case 3:
-                if (mMeshMessage instanceof VendorModelMessageAcked) {
-                    final VendorModelMessageAcked vendorModelMessageAcked = (VendorModelMessageAcked) mMeshMessage;
-                    final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageAcked.getModelIdentifier());
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    MeshLogger.verbose(TAG, "Vendor model Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
-                } else if (mMeshMessage instanceof VendorModelMessageUnacked) {
-                    final VendorModelMessageUnacked vendorModelMessageUnacked = (VendorModelMessageUnacked) mMeshMessage;
-                    final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageUnacked.getModelIdentifier());
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else {
-                    handleUnknownPdu(message);
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseSigModelSubscriptionList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigSigModelSubscriptionList status = new ConfigSigModelSubscriptionList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
+                }
+                createGroups(status.getSubscriptionAddresses());
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseVendorModelSubscriptionList(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigVendorModelSubscriptionList status = new ConfigVendorModelSubscriptionList(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
                 }
-                break;
+                createGroups(status.getSubscriptionAddresses());
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseHeartbeatSubscriptionStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigHeartbeatSubscriptionStatus status = new ConfigHeartbeatSubscriptionStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, message.getSrc(), CONFIGURATION_SERVER);
+                if (model != null) {
+                    ((ConfigurationServerModel) model).
+                            setHeartbeatSubscription((!isValidUnassignedAddress(status.getHeartbeatSubscription().getSrc()) ||
+                                    !isValidUnassignedAddress(status.getHeartbeatSubscription().getDst()))
+                                    ? status.getHeartbeatSubscription() : null);
+                }
+            }
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseNodeIdentityStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigNodeIdentityStatus status = new ConfigNodeIdentityStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeIdentityState = status.getNodeIdentityState();
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseNodeResetStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigNodeResetStatus status = new ConfigNodeResetStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            mInternalTransportCallbacks.onMeshNodeReset(node);
+        }
+        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+    }
+
+    private void parseNetworkTransmitStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigNetworkTransmitStatus status = new ConfigNetworkTransmitStatus(message);
+        final NetworkTransmitSettings networkTransmitSettings =
+                new NetworkTransmitSettings(status.getNetworkTransmitCount(), status.getNetworkTransmitIntervalSteps());
+        node.setNetworkTransmitSettings(networkTransmitSettings);
+        onStatusReceived(status);
+    }
+
+    private void parseRelayStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigRelayStatus status = new ConfigRelayStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            final RelaySettings relaySettings =
+                    new RelaySettings(status.getRelayRetransmitCount(), status.getRelayRetransmitIntervalSteps());
+            node.setRelaySettings(relaySettings);
+            // Let's update the feature state based on the status message.
+            node.nodeFeatures.setRelay(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseBeaconStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigBeaconStatus status = new ConfigBeaconStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setSecureNetworkBeaconSupported(status.isEnable());
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseFriendStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigFriendStatus status = new ConfigFriendStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeFeatures.setFriend(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseGattProxyStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        final ConfigGattProxyStatus status = new ConfigGattProxyStatus(message);
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeFeatures.setProxy(status.isProxyFeatureEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+        onStatusReceived(status);
+    }
+
+    private void parseSceneRegisterStatus(final ProvisionedMeshNode node, final AccessMessage message) {
+        if (mMeshMessage instanceof SceneRegisterGet) {
+            onStatusReceived(new SceneRegisterStatus(message));
+        } else if (mMeshMessage instanceof SceneStore) {
+            final SceneRegisterStatus status = new SceneRegisterStatus(message);
+            storeScene(node, status);
+            onStatusReceived(status);
+        } else if (mMeshMessage instanceof SceneRecall) {
+            final SceneStatus status = new SceneStatus(message);
+            storeScene(node, status);
+            onStatusReceived(status);
+        } else if (mMeshMessage instanceof SceneDelete) {
+            final SceneRegisterStatus status = new SceneRegisterStatus(message);
+            deleteScene(node, status);
+            onStatusReceived(status);
         }
     }
 
@@ -560,10 +609,13 @@ class DefaultNoOperationMessageState extends MeshMessageState {
             if (transportControlMessage.getState() == TransportControlMessage.TransportControlMessageState.LOWER_TRANSPORT_BLOCK_ACKNOWLEDGEMENT) {
                 MeshLogger.verbose(TAG, "Acknowledgement payload: " + MeshParserUtils.bytesToHex(controlMessage.getTransportControlPdu(), false));
                 final ArrayList<Integer> retransmitPduIndexes = BlockAcknowledgementMessage.getSegmentsToBeRetransmitted(controlMessage.getTransportControlPdu(), segmentCount);
+                MeshMetrics.onBlockAckReceived();
+                MeshTracer.instant("lower_transport.block_ack_received", controlMessage.getSrc());
                 mMeshStatusCallbacks.onBlockAcknowledgementReceived(controlMessage.getSrc(), controlMessage);
                 executeResend(retransmitPduIndexes);
             } else if (transportControlMessage.getState() == TransportControlMessage.TransportControlMessageState.LOWER_TRANSPORT_HEARTBEAT_MESSAGE) {
                 MeshLogger.verbose(TAG, "Heartbeat message received");
+                mInternalTransportCallbacks.onHeartbeatReceived(controlMessage, (HeartbeatMessage) transportControlMessage);
                 mMeshStatusCallbacks.onHeartbeatMessageReceived(controlMessage.getSrc(), controlMessage);
             } else {
                 MeshLogger.verbose(TAG, "Unexpected control message received, ignoring message");
@@ -0,0 +1,289 @@
+package no.nordicsemi.android.mesh.transport;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.MeshTypeAdapters;
+import no.nordicsemi.android.mesh.data.ElementEntity;
+import no.nordicsemi.android.mesh.data.ModelBindingEntity;
+import no.nordicsemi.android.mesh.data.ModelEntity;
+import no.nordicsemi.android.mesh.data.ModelSubscriptionEntity;
+import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
+import no.nordicsemi.android.mesh.models.SceneServer;
+import no.nordicsemi.android.mesh.models.SigModelParser;
+import no.nordicsemi.android.mesh.models.VendorModel;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Maps the elements of a node to the rows of the elements, models, model_subscriptions and model_bindings tables
+ * and back.
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class ElementEntityMapper {
+
+    private static final Gson STATE_GSON = MeshTypeAdapters.getGson();
+
+    private ElementEntityMapper() {
+    }
+
+    /**
+     * Returns the element rows of a node.
+     *
+     * @param nodeUuid uuid of the node
+     * @param elements elements of the node
+     */
+    @NonNull
+    public static List<ElementEntity> toElementEntities(@NonNull final String nodeUuid,
+                                                        @NonNull final Map<Integer, Element> elements) {
+        final List<ElementEntity> entities = new ArrayList<>(elements.size());
+        for (Element element : elements.values()) {
+            entities.add(new ElementEntity(nodeUuid, element.getElementAddress(),
+                    element.getLocationDescriptor(), element.getName()));
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the model rows of all elements of a node.
+     *
+     * @param nodeUuid uuid of the node
+     * @param elements elements of the node
+     */
+    @NonNull
+    public static List<ModelEntity> toModelEntities(@NonNull final String nodeUuid,
+                                                    @NonNull final Map<Integer, Element> elements) {
+        final List<ModelEntity> entities = new ArrayList<>();
+        for (Element element : elements.values()) {
+            for (MeshModel model : element.getMeshModels().values()) {
+                entities.add(toModelEntity(nodeUuid, element.getElementAddress(), model));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the subscription rows of all models of a node.
+     *
+     * @param nodeUuid uuid of the node
+     * @param elements elements of the node
+     */
+    @NonNull
+    public static List<ModelSubscriptionEntity> toSubscriptionEntities(@NonNull final String nodeUuid,
+                                                                       @NonNull final Map<Integer, Element> elements) {
+        final List<ModelSubscriptionEntity> entities = new ArrayList<>();
+        for (Element element : elements.values()) {
+            for (MeshModel model : element.getMeshModels().values()) {
+                entities.addAll(toSubscriptionEntities(nodeUuid, element.getElementAddress(), model));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the binding rows of all models of a node.
+     *
+     * @param nodeUuid uuid of the node
+     * @param elements elements of the node
+     */
+    @NonNull
+    public static List<ModelBindingEntity> toBindingEntities(@NonNull final String nodeUuid,
+                                                             @NonNull final Map<Integer, Element> elements) {
+        final List<ModelBindingEntity> entities = new ArrayList<>();
+        for (Element element : elements.values()) {
+            for (MeshModel model : element.getMeshModels().values()) {
+                entities.addAll(toBindingEntities(nodeUuid, element.getElementAddress(), model));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the row of a model.
+     *
+     * @param nodeUuid       uuid of the node
+     * @param elementAddress address of the element containing the model
+     * @param model          mesh model
+     */
+    @NonNull
+    public static ModelEntity toModelEntity(@NonNull final String nodeUuid,
+                                            final int elementAddress,
+                                            @NonNull final MeshModel model) {
+        final PublicationSettings settings = model.getPublicationSettings();
+        if (settings == null) {
+            return new ModelEntity(nodeUuid, elementAddress, model.getModelId(), null, null, null, null,
+                    null, null, null, null, null, getState(model));
+        }
+        final UUID labelUuid = settings.getLabelUUID();
+        return new ModelEntity(nodeUuid, elementAddress, model.getModelId(),
+                settings.getPublishAddress(),
+                labelUuid == null ? null : labelUuid.toString(),
+                settings.getAppKeyIndex(),
+                settings.getCredentialFlag(),
+                settings.getPublishTtl(),
+                settings.getPublicationSteps(),
+                settings.getPublicationResolution(),
+                settings.getPublishRetransmitCount(),
+                settings.getPublishRetransmitIntervalSteps(),
+                getState(model));
+    }
+
+    /**
+     * Returns the subscription rows of a model.
+     *
+     * @param nodeUuid       uuid of the node
+     * @param elementAddress address of the element containing the model
+     * @param model          mesh model
+     */
+    @NonNull
+    public static List<ModelSubscriptionEntity> toSubscriptionEntities(@NonNull final String nodeUuid,
+                                                                       final int elementAddress,
+                                                                       @NonNull final MeshModel model) {
+        final List<ModelSubscriptionEntity> entities = new ArrayList<>(model.subscriptionAddresses.size());
+        for (Integer address : model.subscriptionAddresses) {
+            final UUID labelUuid = MeshAddress.isValidVirtualAddress(address) ? model.getLabelUUID(address) : null;
+            entities.add(new ModelSubscriptionEntity(nodeUuid, elementAddress, model.getModelId(), address,
+                    labelUuid == null ? null : labelUuid.toString()));
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the binding rows of a model.
+     *
+     * @param nodeUuid       uuid of the node
+     * @param elementAddress address of the element containing the model
+     * @param model          mesh model
+     */
+    @NonNull
+    public static List<ModelBindingEntity> toBindingEntities(@NonNull final String nodeUuid,
+                                                             final int elementAddress,
+                                                             @NonNull final MeshModel model) {
+        final List<ModelBindingEntity> entities = new ArrayList<>(model.mBoundAppKeyIndexes.size());
+        for (Integer index : model.mBoundAppKeyIndexes) {
+            entities.add(new ModelBindingEntity(nodeUuid, elementAddress, model.getModelId(), index));
+        }
+        return entities;
+    }
+
+    /**
+     * Builds the elements of each node from the rows loaded from the database.
+     *
+     * @param elements      element rows ordered by element address
+     * @param models        model rows ordered by model id
+     * @param subscriptions subscription rows in the order they were inserted
+     * @param bindings      binding rows in the order they were inserted
+     * @return elements mapped by the uuid of the node they belong to
+     */
+    @NonNull
+    public static Map<String, Map<Integer, Element>> toElements(@NonNull final List<ElementEntity> elements,
+                                                                @NonNull final List<ModelEntity> models,
+                                                                @NonNull final List<ModelSubscriptionEntity> subscriptions,
+                                                                @NonNull final List<ModelBindingEntity> bindings) {
+        final Map<String, Map<Integer, Element>> nodes = new HashMap<>();
+        for (ElementEntity entity : elements) {
+            Map<Integer, Element> nodeElements = nodes.get(entity.nodeUuid);
+            if (nodeElements == null) {
+                nodeElements = new LinkedHashMap<>();
+                nodes.put(entity.nodeUuid, nodeElements);
+            }
+            final Element element = entity.name == null ?
+                    new Element(entity.elementAddress, entity.locationDescriptor, new LinkedHashMap<>()) :
+                    new Element(entity.elementAddress, entity.locationDescriptor, new LinkedHashMap<>(), entity.name);
+            nodeElements.put(entity.elementAddress, element);
+        }
+        for (ModelEntity entity : models) {
+            final Element element = getElement(nodes, entity.nodeUuid, entity.elementAddress);
+            if (element != null) {
+                element.meshModels.put(entity.modelId, toMeshModel(entity));
+            }
+        }
+        for (ModelSubscriptionEntity entity : subscriptions) {
+            final MeshModel model = getMeshModel(nodes, entity.nodeUuid, entity.elementAddress, entity.modelId);
+            if (model != null) {
+                if (entity.labelUuid != null) {
+                    model.addSubscriptionAddress(UUID.fromString(entity.labelUuid), entity.address);
+                } else {
+                    model.addSubscriptionAddress(entity.address);
+                }
+            }
+        }
+        for (ModelBindingEntity entity : bindings) {
+            final MeshModel model = getMeshModel(nodes, entity.nodeUuid, entity.elementAddress, entity.modelId);
+            if (model != null && !model.mBoundAppKeyIndexes.contains(entity.appKeyIndex)) {
+                model.mBoundAppKeyIndexes.add(entity.appKeyIndex);
+            }
+        }
+        return nodes;
+    }
+
+    private static MeshModel toMeshModel(@NonNull final ModelEntity entity) {
+        final MeshModel model;
+        if (entity.state != null) {
+            model = STATE_GSON.fromJson(entity.state, MeshModel.class);
+        } else if (MeshParserUtils.isVendorModel(entity.modelId)) {
+            model = new VendorModel(entity.modelId);
+        } else {
+            model = SigModelParser.getSigModel(entity.modelId);
+        }
+        if (entity.publishAddress != null) {
+            model.mPublicationSettings = new PublicationSettings(entity.publishAddress,
+                    entity.publishLabelUuid == null ? null : UUID.fromString(entity.publishLabelUuid),
+                    valueOf(entity.publishAppKeyIndex),
+                    entity.publishCredentialFlag != null && entity.publishCredentialFlag,
+                    valueOf(entity.publishTtl),
+                    valueOf(entity.publicationSteps),
+                    valueOf(entity.publicationResolution),
+                    valueOf(entity.publishRetransmitCount),
+                    valueOf(entity.publishRetransmitIntervalSteps));
+        }
+        return model;
+    }
+
+    /**
+     * Returns the model specific state that is not stored in columns, or null if the model has none.
+     */
+    @Nullable
+    private static String getState(@NonNull final MeshModel model) {
+        if (!(model instanceof ConfigurationServerModel) && !(model instanceof SceneServer))
+            return null;
+        final JsonObject state = STATE_GSON.toJsonTree(model).getAsJsonObject();
+        state.remove("subscriptionAddresses");
+        state.remove("labelUuids");
+        state.remove("mPublicationSettings");
+        state.add("mBoundAppKeyIndexes", new JsonArray());
+        return state.toString();
+    }
+
+    @Nullable
+    private static Element getElement(@NonNull final Map<String, Map<Integer, Element>> nodes,
+                                      @NonNull final String nodeUuid,
+                                      final int elementAddress) {
+        final Map<Integer, Element> elements = nodes.get(nodeUuid);
+        return elements == null ? null : elements.get(elementAddress);
+    }
+
+    @Nullable
+    private static MeshModel getMeshModel(@NonNull final Map<String, Map<Integer, Element>> nodes,
+                                          @NonNull final String nodeUuid,
+                                          final int elementAddress,
+                                          final int modelId) {
+        final Element element = getElement(nodes, nodeUuid, elementAddress);
+        return element == null ? null : element.meshModels.get(modelId);
+    }
+
+    private static int valueOf(@Nullable final Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,110 @@
+package no.nordicsemi.android.mesh.transport;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Hand written {@link TypeAdapter} for {@link Element}s stored in the database.
+ * <p>
+ * Reads the same formats as the {@link ElementDbMigrator}, including the byte array element addresses and hex
+ * location descriptors used by older versions of the library.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class ElementTypeAdapter extends TypeAdapter<Element> {
+
+    private final MeshModelTypeAdapter mModelAdapter = new MeshModelTypeAdapter();
+
+    @Override
+    public void write(final JsonWriter out, final Element element) throws IOException {
+        if (element == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("locationDescriptor").value(element.locationDescriptor);
+        out.name("meshModels").beginObject();
+        for (Map.Entry<Integer, MeshModel> entry : element.meshModels.entrySet()) {
+            out.name(String.valueOf(entry.getKey()));
+            mModelAdapter.write(out, entry.getValue());
+        }
+        out.endObject();
+        out.name("elementAddress").value(element.elementAddress);
+        if (element.name != null) {
+            out.name("name").value(element.name);
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Element read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int address = 0;
+        int location = 0;
+        String name = null;
+        boolean legacy = false;
+        final LinkedHashMap<Integer, MeshModel> models = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "elementAddress":
+                    if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                        legacy = true;
+                        in.beginArray();
+                        final byte msb = (byte) in.nextInt();
+                        final byte lsb = (byte) in.nextInt();
+                        while (in.hasNext()) {
+                            in.skipValue();
+                        }
+                        in.endArray();
+                        address = MeshParserUtils.unsignedBytesToInt(lsb, msb);
+                    } else {
+                        address = in.nextInt();
+                    }
+                    break;
+                case "locationDescriptor":
+                    if (in.peek() == JsonToken.STRING) {
+                        location = Integer.parseInt(in.nextString(), 16);
+                    } else {
+                        location = in.nextInt();
+                    }
+                    break;
+                case "name":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        name = in.nextString();
+                    }
+                    break;
+                case "meshModels":
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        final int modelId = Integer.parseInt(in.nextName());
+                        models.put(modelId, mModelAdapter.read(in));
+                    }
+                    in.endObject();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        if (legacy || name == null) {
+            return new Element(address, location, models);
+        }
+        return new Element(address, location, models, name);
+    }
+}
@@ -76,6 +76,11 @@ public class GenericLevelSetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = SecureUtils.calculateK4(mAppKey.getKey());
@@ -65,6 +65,11 @@ public final class GenericLocationGlobalSetUnacknowledged extends ApplicationMes
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     /**
      * Returns the Global Latitude
      *
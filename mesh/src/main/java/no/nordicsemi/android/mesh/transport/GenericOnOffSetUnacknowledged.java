@@ -73,6 +73,11 @@ public class GenericOnOffSetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = SecureUtils.calculateK4(mAppKey.getKey());
@@ -0,0 +1,54 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * HealthFaultGet message, requesting the registered faults of a Health Server.
+ */
+public class HealthFaultGet extends ApplicationMessage {
+
+    private static final String TAG = HealthFaultGet.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.HEALTH_FAULT_GET;
+
+    private final int companyId;
+
+    /**
+     * Constructs HealthFaultGet message.
+     *
+     * @param appKey    {@link ApplicationKey} key for this message.
+     * @param companyId Company identifier of the faults to be read.
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public HealthFaultGet(@NonNull final ApplicationKey appKey, final int companyId) {
+        super(appKey);
+        if (companyId < 0 || companyId > 0xFFFF)
+            throw new IllegalArgumentException("Company identifier must be a 16-bit value");
+        this.companyId = companyId;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(2).order(LITTLE_ENDIAN).putShort((short) companyId).array();
+    }
+
+    /**
+     * Returns the company identifier of the faults requested.
+     */
+    public int getCompanyId() {
+        return companyId;
+    }
+}
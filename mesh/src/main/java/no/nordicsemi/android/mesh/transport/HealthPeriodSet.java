@@ -0,0 +1,51 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+/**
+ * HealthPeriodSet message, setting the divisor of the publish period of a Health Server while it has faults.
+ */
+public class HealthPeriodSet extends ApplicationMessage {
+
+    private static final String TAG = HealthPeriodSet.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.HEALTH_PERIOD_SET;
+
+    private final int fastPeriodDivisor;
+
+    /**
+     * Constructs HealthPeriodSet message.
+     *
+     * @param appKey            {@link ApplicationKey} key for this message.
+     * @param fastPeriodDivisor Fast period divisor, the publish period being divided by 2^fastPeriodDivisor while
+     *                          the Health Server has current faults, from 0 to 15.
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public HealthPeriodSet(@NonNull final ApplicationKey appKey, final int fastPeriodDivisor) {
+        super(appKey);
+        if (fastPeriodDivisor < 0 || fastPeriodDivisor > 15)
+            throw new IllegalArgumentException("Fast period divisor must range from 0 to 15");
+        this.fastPeriodDivisor = fastPeriodDivisor;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = new byte[]{(byte) fastPeriodDivisor};
+    }
+
+    /**
+     * Returns the fast period divisor.
+     */
+    public int getFastPeriodDivisor() {
+        return fastPeriodDivisor;
+    }
+}
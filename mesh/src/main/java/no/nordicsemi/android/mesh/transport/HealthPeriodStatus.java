@@ -0,0 +1,47 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+public class HealthPeriodStatus extends ApplicationStatusMessage {
+
+    private static final String TAG = HealthPeriodStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.HEALTH_PERIOD_STATUS;
+
+    private int mFastPeriodDivisor;
+
+    /**
+     * Constructs HealthPeriodStatus message
+     * @param message access message
+     */
+    public HealthPeriodStatus(@NonNull AccessMessage message) {
+        super(message);
+        this.mMessage = message;
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        MeshLogger.verbose(TAG, "Received health period status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true));
+        mFastPeriodDivisor = mParameters[0] & 0xFF;
+        MeshLogger.verbose(TAG, "Fast period divisor: " + mFastPeriodDivisor);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the fast period divisor of the Health Server
+     *
+     * @return fast period divisor
+     */
+    public int getFastPeriodDivisor() {
+        return mFastPeriodDivisor;
+    }
+}
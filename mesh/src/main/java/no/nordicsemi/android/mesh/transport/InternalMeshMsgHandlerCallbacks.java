@@ -22,6 +22,9 @@
 
 package no.nordicsemi.android.mesh.transport;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 /**
  * Callbacks to notify the mesh message handler to notify events from transport layers.
  */
@@ -34,4 +37,21 @@ interface InternalMeshMsgHandlerCallbacks {
      */
     void onIncompleteTimerExpired(final int address);
 
+    /**
+     * Returns the decoder registered for a vendor model message or null if there is none
+     *
+     * @param companyIdentifier company identifier of the message
+     * @param opCode            6-bit vendor opcode of the message
+     */
+    @Nullable
+    VendorStatusDecoder getVendorStatusDecoder(final int companyIdentifier, final int opCode);
+
+    /**
+     * Queues a received status message to be decoded and delivered in a batch
+     *
+     * @param message access message received
+     * @param factory creates the status message from the access message
+     * @return true if the message was queued, false if status batching is disabled
+     */
+    boolean offerStatus(@NonNull final AccessMessage message, @NonNull final StatusFactory factory);
 }
@@ -50,6 +50,11 @@ public class LightCtlTemperatureRangeSetUnacknowledged extends ApplicationMessag
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = SecureUtils.calculateK4(mAppKey.getKey());
@@ -93,6 +93,11 @@ public class LightHslSetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = SecureUtils.calculateK4(mAppKey.getKey());
@@ -70,6 +70,11 @@ public class LightLCLightOnOffSetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = (byte) mAppKey.getAid();
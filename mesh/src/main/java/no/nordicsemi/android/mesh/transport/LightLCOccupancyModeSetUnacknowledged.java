@@ -34,6 +34,11 @@ public class LightLCOccupancyModeSetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = (byte) mAppKey.getAid();
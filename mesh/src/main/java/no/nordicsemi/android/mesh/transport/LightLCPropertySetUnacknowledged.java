@@ -41,6 +41,11 @@ public class LightLCPropertySetUnacknowledged extends ApplicationMessage {
         return OP_CODE;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     @Override
     void assembleMessageParameters() {
         mAid = (byte) mAppKey.getAid();
@@ -34,6 +34,7 @@ import no.nordicsemi.android.mesh.MeshManagerApi;
 import no.nordicsemi.android.mesh.control.BlockAcknowledgementMessage;
 import no.nordicsemi.android.mesh.control.HeartbeatMessage;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
 import no.nordicsemi.android.mesh.opcodes.TransportLayerOpCodes;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
@@ -117,6 +118,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     @Override
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     public final void createLowerTransportAccessPDU(@NonNull final AccessMessage message) {
+        final long start = MeshTracer.begin();
         final byte[] upperTransportPDU = message.getUpperTransportPdu();
         final SparseArray<byte[]> lowerTransportAccessPduMap;
         if (upperTransportPDU.length <= MAX_UNSEGMENTED_ACCESS_PAYLOAD_LENGTH) {
@@ -130,6 +132,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
         }
 
         message.setLowerTransportAccessPdu(lowerTransportAccessPduMap);
+        MeshTracer.end("lower_transport.segment", message.getDst(), start);
     }
 
     @Override
@@ -1,6 +1,10 @@
 package no.nordicsemi.android.mesh.transport;
 
+import android.os.SystemClock;
+
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
+import no.nordicsemi.android.mesh.metrics.MeshMetrics;
 
 import java.util.List;
 
@@ -8,6 +12,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import no.nordicsemi.android.mesh.InternalTransportCallbacks;
 import no.nordicsemi.android.mesh.MeshStatusCallbacks;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
 /**
@@ -24,7 +29,7 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
 
     MeshMessage mMeshMessage;
     final MeshTransport mMeshTransport;
-    private final InternalMeshMsgHandlerCallbacks meshMessageHandlerCallbacks;
+    final InternalMeshMsgHandlerCallbacks meshMessageHandlerCallbacks;
     protected InternalTransportCallbacks mInternalTransportCallbacks;
     MeshStatusCallbacks mMeshStatusCallbacks;
     int mSrc;
@@ -83,6 +88,12 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
             for (int i = 0; i < message.getNetworkLayerPdu().size(); i++) {
                 mInternalTransportCallbacks.onMeshPduCreated(mDst, message.getNetworkLayerPdu().get(i));
             }
+            if (message.getNetworkLayerPdu().size() > 1) {
+                MeshMetrics.onSegmentsSent(message.getNetworkLayerPdu().size());
+            }
+            if (isAcknowledged(mMeshMessage) && MeshAddress.isValidUnicastAddress(mDst)) {
+                MeshMetrics.onRequestSent(mDst, mMeshMessage.getOpCode(), SystemClock.uptimeMillis());
+            }
 
             if (mMeshStatusCallbacks != null) {
                 mMeshStatusCallbacks.onMeshMessageProcessed(mDst, mMeshMessage);
@@ -90,6 +101,15 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
         }
     }
 
+    /**
+     * Sends a repeat of the mesh pdu without notifying that the message was processed
+     */
+    final void executeRepeat() {
+        for (int i = 0; i < message.getNetworkLayerPdu().size(); i++) {
+            mInternalTransportCallbacks.onMeshPduCreated(mDst, message.getNetworkLayerPdu().get(i));
+        }
+    }
+
     /**
      * Re-sends the mesh pdu segments that were lost in flight
      *
@@ -104,6 +124,8 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
                     MeshLogger.verbose(TAG, "Resending segment " + segO + " : " + MeshParserUtils.bytesToHex(pdu, false));
                     final Message retransmitMeshMessage = mMeshTransport.createRetransmitMeshMessage(message, segO);
                     mInternalTransportCallbacks.onMeshPduCreated(mDst, retransmitMeshMessage.getNetworkLayerPdu().get(segO));
+                    MeshMetrics.onSegmentRetransmitted();
+                    MeshTracer.instant("lower_transport.segment_retransmitted", mDst);
                 }
             }
         }
@@ -112,6 +134,8 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
     @Override
     public void onIncompleteTimerExpired() {
         MeshLogger.verbose(TAG, "Incomplete timer has expired, all segments were not received!");
+        MeshMetrics.onIncompleteTimerExpired();
+        MeshTracer.instant("lower_transport.incomplete_timer_expired", mDst);
         if (meshMessageHandlerCallbacks != null) {
             meshMessageHandlerCallbacks.onIncompleteTimerExpired(mDst);
 
@@ -132,9 +156,20 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
         final ControlMessage message = mMeshTransport.createSegmentBlockAcknowledgementMessage(controlMessage);
         MeshLogger.verbose(TAG, "Sending acknowledgement: " + MeshParserUtils.bytesToHex(message.getNetworkLayerPdu().get(0), false));
         mInternalTransportCallbacks.onMeshPduCreated(message.getDst(), message.getNetworkLayerPdu().get(0));
+        MeshMetrics.onBlockAckSent();
+        MeshTracer.instant("lower_transport.block_ack_sent", message.getDst());
         mMeshStatusCallbacks.onBlockAcknowledgementProcessed(message.getDst(), controlMessage);
     }
 
+    /**
+     * Returns true if the message is answered with a status message.
+     */
+    private static boolean isAcknowledged(@Nullable final MeshMessage meshMessage) {
+        if (meshMessage instanceof ConfigMessage)
+            return true;
+        return meshMessage instanceof ApplicationMessage && !((ApplicationMessage) meshMessage).isUnacknowledged();
+    }
+
     public enum MessageState {
 
         //Proxy configuration message
@@ -36,6 +36,7 @@ import java.util.UUID;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 
 /**
@@ -128,7 +129,8 @@ public abstract class MeshModel implements Parcelable {
     }
 
     @SuppressWarnings("RedundantCollectionOperation")
-    protected void removeBoundAppKeyIndex(final int appKeyIndex) {
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void removeBoundAppKeyIndex(final int appKeyIndex) {
         if (mBoundAppKeyIndexes.contains(appKeyIndex)) {
             final int position = mBoundAppKeyIndexes.indexOf(appKeyIndex);
             mBoundAppKeyIndexes.remove(position);
@@ -252,7 +254,8 @@ public abstract class MeshModel implements Parcelable {
      *
      * @param address Subscription address
      */
-    protected void removeSubscriptionAddress(@NonNull final Integer address) {
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void removeSubscriptionAddress(@NonNull final Integer address) {
         subscriptionAddresses.remove(address);
     }
 
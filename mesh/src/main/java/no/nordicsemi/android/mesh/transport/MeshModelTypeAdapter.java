@@ -0,0 +1,135 @@
+package no.nordicsemi.android.mesh.transport;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.Features;
+import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
+import no.nordicsemi.android.mesh.utils.HeartbeatPublication;
+import no.nordicsemi.android.mesh.utils.HeartbeatSubscription;
+
+/**
+ * Hand written {@link TypeAdapter} for {@link MeshModel}s stored in the database.
+ * <p>
+ * Only writing streams: models are written straight to the {@link JsonWriter} without reflection. Reading still
+ * parses each model in to a json tree and uses the {@link InternalMeshModelDeserializer}, which also reads the formats
+ * used by older versions of the library. Those formats need the whole object at hand, as a pre-migration model is
+ * wrapped in a data object, addresses may be stored as byte arrays and the heartbeat settings are written before the
+ * model id that decides the type of the model.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class MeshModelTypeAdapter extends TypeAdapter<MeshModel> {
+
+    private final InternalMeshModelDeserializer mDeserializer = new InternalMeshModelDeserializer();
+
+    @Override
+    public void write(final JsonWriter out, final MeshModel model) throws IOException {
+        if (model == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (model instanceof ConfigurationServerModel) {
+            final ConfigurationServerModel configurationServer = (ConfigurationServerModel) model;
+            if (configurationServer.getHeartbeatPublication() != null) {
+                out.name("heartbeatPub");
+                writeHeartbeatPublication(out, configurationServer.getHeartbeatPublication());
+            }
+            if (configurationServer.getHeartbeatSubscription() != null) {
+                out.name("heartbeatSub");
+                writeHeartbeatSubscription(out, configurationServer.getHeartbeatSubscription());
+            }
+        }
+        out.name("mModelId").value(model.mModelId);
+        out.name("mBoundAppKeyIndexes").beginArray();
+        for (Integer index : model.mBoundAppKeyIndexes) {
+            out.value(index);
+        }
+        out.endArray();
+        out.name("subscriptionAddresses").beginArray();
+        for (Integer address : model.subscriptionAddresses) {
+            out.value(address);
+        }
+        out.endArray();
+        out.name("labelUuids").beginArray();
+        for (UUID uuid : model.labelUuids) {
+            out.value(uuid.toString());
+        }
+        out.endArray();
+        if (model.mPublicationSettings != null) {
+            out.name("mPublicationSettings");
+            writePublicationSettings(out, model.mPublicationSettings);
+        }
+        out.name("sceneNumbers").beginArray();
+        for (Integer scene : model.sceneNumbers) {
+            out.value(scene);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public MeshModel read(final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        final JsonElement json = JsonParser.parseReader(in);
+        return mDeserializer.deserialize(json, MeshModel.class, null);
+    }
+
+    private static void writePublicationSettings(final JsonWriter out, final PublicationSettings settings) throws IOException {
+        out.beginObject();
+        out.name("publishAddress").value(settings.getPublishAddress());
+        if (settings.getLabelUUID() != null) {
+            out.name("labelUUID").value(settings.getLabelUUID().toString());
+        }
+        out.name("appKeyIndex").value(settings.getAppKeyIndex());
+        out.name("credentialFlag").value(settings.getCredentialFlag());
+        out.name("publishTtl").value(settings.getPublishTtl());
+        out.name("publicationSteps").value(settings.getPublicationSteps());
+        out.name("publicationResolution").value(settings.getPublicationResolution());
+        out.name("publishRetransmitCount").value(settings.getPublishRetransmitCount());
+        out.name("publishRetransmitIntervalSteps").value(settings.getPublishRetransmitIntervalSteps());
+        out.endObject();
+    }
+
+    private static void writeHeartbeatPublication(final JsonWriter out, final HeartbeatPublication publication) throws IOException {
+        out.beginObject();
+        out.name("ttl").value(publication.getTtl());
+        final Features features = publication.getFeatures();
+        if (features != null) {
+            out.name("features").beginObject();
+            out.name("friend").value(features.getFriend());
+            out.name("lowPower").value(features.getLowPower());
+            out.name("proxy").value(features.getProxy());
+            out.name("relay").value(features.getRelay());
+            out.endObject();
+        }
+        out.name("index").value(publication.getNetKeyIndex());
+        out.name("destination").value(publication.getDst());
+        out.name("period").value(publication.getPeriodLog());
+        out.name("count").value(publication.getCountLog());
+        out.endObject();
+    }
+
+    private static void writeHeartbeatSubscription(final JsonWriter out, final HeartbeatSubscription subscription) throws IOException {
+        out.beginObject();
+        out.name("source").value(subscription.getSrc());
+        out.name("minHops").value(subscription.getMinHops());
+        out.name("maxHops").value(subscription.getMaxHops());
+        out.name("destination").value(subscription.getDst());
+        out.name("period").value(subscription.getPeriodLog());
+        out.name("count").value(subscription.getCountLog());
+        out.endObject();
+    }
+}
@@ -0,0 +1,172 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Handler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Schedules repeated transmissions of unacknowledged messages.
+ * <p>
+ * Unacknowledged messages are not confirmed by the receiver, so they are repeated a number of times to improve the
+ * chance that at least one copy is received on a lossy link. Every repeat carries the same access payload, including
+ * the Transaction Identifier, so that servers treat all copies as a single transaction. A random jitter is added to
+ * each interval so that repeats from multiple provisioners do not keep colliding.
+ * </p>
+ * <p>
+ * Only one message is repeated per destination. Scheduling a new message or cancelling a destination drops any repeats
+ * that are still pending, so that an outdated value is never sent after a newer one.
+ * </p>
+ * <p>
+ * Messages are scheduled on the sending thread while the repeats run on the handler, so the pending repeats are
+ * guarded by the scheduler's lock. A repeat is sent while holding the lock, so a message to the same destination waits
+ * for a repeat that has already started instead of being overtaken by it.
+ * </p>
+ */
+final class MessageRepeatScheduler {
+
+    static final long DEFAULT_INTERVAL = 50;
+    static final long DEFAULT_JITTER = 20;
+
+    private final Handler mHandler;
+    private final Random mRandom = new Random();
+    private final Map<Integer, Repeat> mRepeats = new HashMap<>();
+    private int mCount;
+    private long mInterval = DEFAULT_INTERVAL;
+    private long mJitter = DEFAULT_JITTER;
+
+    /**
+     * Constructs the scheduler
+     *
+     * @param handler handler on which the repeats are sent
+     */
+    MessageRepeatScheduler(@NonNull final Handler handler) {
+        this.mHandler = handler;
+    }
+
+    /**
+     * Sets the number of repeats and the interval between them.
+     *
+     * @param count    number of repeats sent after the original transmission, 0 disables repeats
+     * @param interval interval between two transmissions in milliseconds
+     * @param jitter   maximum random delay in milliseconds added to each interval
+     * @throws IllegalArgumentException if any of the values is negative
+     */
+    synchronized void setRepeatSettings(final int count, final long interval, final long jitter) throws IllegalArgumentException {
+        if (count < 0)
+            throw new IllegalArgumentException("Repeat count must not be negative");
+        if (interval < 0)
+            throw new IllegalArgumentException("Repeat interval must not be negative");
+        if (jitter < 0)
+            throw new IllegalArgumentException("Repeat jitter must not be negative");
+        mCount = count;
+        mInterval = interval;
+        mJitter = jitter;
+    }
+
+    /**
+     * Returns the number of repeats sent after the original transmission.
+     */
+    synchronized int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns the interval between two transmissions in milliseconds.
+     */
+    synchronized long getInterval() {
+        return mInterval;
+    }
+
+    /**
+     * Returns the maximum random delay in milliseconds added to each interval.
+     */
+    synchronized long getJitter() {
+        return mJitter;
+    }
+
+    /**
+     * Schedules the repeats of a message that has just been sent to a destination.
+     * Any repeats still pending for the destination are cancelled.
+     *
+     * @param dst          destination address
+     * @param transmission sends one repeat of the message
+     */
+    synchronized void schedule(final int dst, @NonNull final Runnable transmission) {
+        cancel(dst);
+        if (mCount > 0) {
+            final Repeat repeat = new Repeat(dst, transmission, mCount);
+            mRepeats.put(dst, repeat);
+            mHandler.postDelayed(repeat, nextDelay());
+        }
+    }
+
+    /**
+     * Cancels the repeats pending for a destination.
+     *
+     * @param dst destination address
+     */
+    synchronized void cancel(final int dst) {
+        final Repeat repeat = mRepeats.remove(dst);
+        if (repeat != null) {
+            mHandler.removeCallbacks(repeat);
+        }
+    }
+
+    /**
+     * Cancels all pending repeats.
+     */
+    synchronized void clear() {
+        for (Repeat repeat : mRepeats.values()) {
+            mHandler.removeCallbacks(repeat);
+        }
+        mRepeats.clear();
+    }
+
+    /**
+     * Returns true if repeats are pending for a destination.
+     *
+     * @param dst destination address
+     */
+    synchronized boolean isPending(final int dst) {
+        return mRepeats.containsKey(dst);
+    }
+
+    private long nextDelay() {
+        if (mJitter == 0) {
+            return mInterval;
+        }
+        return mInterval + (long) (mRandom.nextDouble() * (mJitter + 1));
+    }
+
+    private final class Repeat implements Runnable {
+
+        private final int dst;
+        private final Runnable transmission;
+        private int remaining;
+
+        Repeat(final int dst, @NonNull final Runnable transmission, final int count) {
+            this.dst = dst;
+            this.transmission = transmission;
+            this.remaining = count;
+        }
+
+        @Override
+        public void run() {
+            synchronized (MessageRepeatScheduler.this) {
+                if (mRepeats.get(dst) != this)
+                    return;
+                if (--remaining > 0) {
+                    mHandler.postDelayed(this, nextDelay());
+                } else {
+                    mRepeats.remove(dst);
+                }
+                // Sent under the lock, so that a newer message cancelling the repeats is never overtaken by them
+                transmission.run();
+            }
+        }
+    }
+}
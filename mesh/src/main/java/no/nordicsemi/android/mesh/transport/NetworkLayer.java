@@ -22,6 +22,7 @@
 package no.nordicsemi.android.mesh.transport;
 
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
 import android.util.SparseArray;
 
 import org.spongycastle.crypto.InvalidCipherTextException;
@@ -92,6 +93,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
 
     @Override
     public final Message createNetworkLayerPDU(@NonNull final Message message) {
+        final long start = MeshTracer.begin();
         final SecureUtils.K2Output k2Output = getK2Output(message);
         final int nid = k2Output.getNid();
         final byte[] encryptionKey = k2Output.getEncryptionKey();
@@ -167,7 +169,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
             pduArray.put(i, pdu);
             message.setNetworkLayerPdu(pduArray);
         }
-
+        MeshTracer.end("network.encrypt", message.getDst(), start);
         return message;
     }
 
@@ -293,6 +295,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
 
             if (isSegmentedMessage(decryptedNetworkPayload[2])) {
                 MeshLogger.verbose(TAG, "Received a segmented access message from: " + MeshAddress.formatAddress(src, false));
+                MeshTracer.instant("lower_transport.segment_received", src);
 
                 //Check if the received segmented message is from the same src as the previous segment
                 //Ideal case this check is not needed but let's leave it for now.
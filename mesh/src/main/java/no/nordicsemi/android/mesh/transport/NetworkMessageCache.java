@@ -0,0 +1,201 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.Arrays;
+
+/**
+ * Network message cache used to drop network pdus that have already been received.
+ * <p>
+ * The same network pdu is often delivered more than once, e.g. by a proxy relaying copies received from several relay
+ * nodes. Each message is identified by its source address, sequence number and IV Index, which are known as soon as the
+ * network header is de-obfuscated, so duplicates are dropped before the network pdu is decrypted.
+ * </p>
+ * <p>
+ * Entries are kept in an open addressing table of primitive keys with linear probing, so lookups and insertions do not
+ * allocate. The cache is bounded and the oldest entry is evicted once it is full.
+ * </p>
+ */
+final class NetworkMessageCache {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    //Key 0 can never be used as a valid message has a non zero source address
+    private static final long EMPTY = 0;
+
+    private final long[] mTable;
+    private final long[] mEntries;
+    private final int mMask;
+    private int mHead;
+    private int mCount;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * Constructs the network message cache with the default capacity.
+     */
+    NetworkMessageCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs the network message cache
+     *
+     * @param capacity maximum number of messages kept in the cache
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    NetworkMessageCache(final int capacity) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        //Keep the load factor at or below 0.5 so that probe sequences stay short
+        int tableSize = Integer.highestOneBit(capacity) << 1;
+        if (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        mTable = new long[tableSize];
+        mMask = tableSize - 1;
+        mEntries = new long[capacity];
+    }
+
+    /**
+     * Returns the cache key of a network pdu.
+     *
+     * @param src            source address
+     * @param sequenceNumber 24-bit sequence number
+     * @param ivIndex        IV Index used to decrypt the pdu
+     */
+    static long createKey(final int src, final int sequenceNumber, final int ivIndex) {
+        return ((long) (src & 0xFFFF) << 48) | ((long) (ivIndex & 0xFFFFFF) << 24) | (sequenceNumber & 0xFFFFFF);
+    }
+
+    /**
+     * Returns true if a message with the given key is in the cache and updates the hit and miss counters accordingly.
+     *
+     * @param key cache key created using {@link #createKey(int, int, int)}
+     */
+    synchronized boolean contains(final long key) {
+        if (indexOf(key) >= 0) {
+            mHitCount++;
+            return true;
+        }
+        mMissCount++;
+        return false;
+    }
+
+    /**
+     * Adds a message to the cache, evicting the oldest message if the cache is full.
+     * <p>
+     * Messages should be added only once they have been authenticated so that an invalid pdu cannot prevent a valid
+     * pdu from being processed.
+     * </p>
+     *
+     * @param key cache key created using {@link #createKey(int, int, int)}
+     */
+    synchronized void add(final long key) {
+        if (indexOf(key) >= 0)
+            return;
+        if (mCount == mEntries.length) {
+            remove(mEntries[mHead]);
+            mHead = (mHead + 1) % mEntries.length;
+            mCount--;
+        }
+        int index = hash(key);
+        while (mTable[index] != EMPTY) {
+            index = (index + 1) & mMask;
+        }
+        mTable[index] = key;
+        mEntries[(mHead + mCount) % mEntries.length] = key;
+        mCount++;
+    }
+
+    /**
+     * Removes all messages sent by the given source address, e.g. when a node is removed from the network and its
+     * address may be reused by a node starting from sequence number 0.
+     *
+     * @param src source address
+     */
+    synchronized void removeSource(final int src) {
+        //Compact the remaining entries in place so that eviction never reaches a removed key
+        int count = 0;
+        for (int i = 0; i < mCount; i++) {
+            final long key = mEntries[(mHead + i) % mEntries.length];
+            if ((int) (key >>> 48) == (src & 0xFFFF)) {
+                remove(key);
+            } else {
+                mEntries[(mHead + count) % mEntries.length] = key;
+                count++;
+            }
+        }
+        mCount = count;
+    }
+
+    /**
+     * Removes all messages from the cache. The hit and miss counters are not reset.
+     */
+    synchronized void clear() {
+        Arrays.fill(mTable, EMPTY);
+        mHead = 0;
+        mCount = 0;
+    }
+
+    /**
+     * Returns the number of received pdus that were dropped as duplicates.
+     */
+    synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Returns the number of received pdus that were not found in the cache.
+     */
+    synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Returns the number of messages in the cache.
+     */
+    synchronized int size() {
+        return mCount;
+    }
+
+    private int indexOf(final long key) {
+        int index = hash(key);
+        while (mTable[index] != EMPTY) {
+            if (mTable[index] == key)
+                return index;
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a key using backward shift deletion so that no tombstones are needed.
+     */
+    private void remove(final long key) {
+        int hole = indexOf(key);
+        if (hole < 0)
+            return;
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mMask;
+            final long current = mTable[index];
+            if (current == EMPTY)
+                break;
+            final int home = hash(current);
+            //Move the key in to the hole unless its home slot lies cyclically within (hole, index]
+            final boolean inRange = hole <= index ? (hole < home && home <= index) : (hole < home || home <= index);
+            if (!inRange) {
+                mTable[hole] = current;
+                hole = index;
+            }
+        }
+        mTable[hole] = EMPTY;
+    }
+
+    private int hash(final long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mMask;
+    }
+}
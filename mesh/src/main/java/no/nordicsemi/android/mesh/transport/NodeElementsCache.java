@@ -0,0 +1,176 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+/**
+ * Keeps the elements of a bounded number of provisioned nodes in memory.
+ * <p>
+ * Nodes attached to the cache are loaded as a summary without their elements, models, subscriptions and bindings.
+ * The elements of a node are loaded through the {@link Loader} the first time they are accessed, or ahead of time
+ * using {@link #prefetch(List)}. Once more nodes than the maximum have been loaded, the elements of the least recently
+ * used nodes are released and loaded again on their next access.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class NodeElementsCache {
+
+    private static final String TAG = NodeElementsCache.class.getSimpleName();
+    private static final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+
+    /**
+     * Loads the elements of a node from storage.
+     */
+    public interface Loader {
+
+        /**
+         * Returns the elements of the node with the given uuid, or null if they could not be loaded.
+         *
+         * @param nodeUuid uuid of the node
+         */
+        @Nullable
+        Map<Integer, Element> loadElements(@NonNull final String nodeUuid);
+    }
+
+    private final Loader mLoader;
+    // Access ordered, the eldest entry is the least recently used node
+    private final LinkedHashMap<String, ProvisionedMeshNode> mLoadedNodes = new LinkedHashMap<>(16, 0.75f, true);
+    private int mMaxNodes;
+
+    /**
+     * Constructs the cache
+     *
+     * @param loader   loader used to load the elements of a node
+     * @param maxNodes maximum number of nodes kept with their elements in memory, 0 to never release elements
+     */
+    public NodeElementsCache(@NonNull final Loader loader, final int maxNodes) {
+        if (maxNodes < 0)
+            throw new IllegalArgumentException("Maximum number of nodes must not be negative");
+        mLoader = loader;
+        mMaxNodes = maxNodes;
+    }
+
+    /**
+     * Returns the maximum number of nodes kept with their elements in memory, 0 if elements are never released.
+     */
+    public synchronized int getMaxNodes() {
+        return mMaxNodes;
+    }
+
+    /**
+     * Sets the maximum number of nodes kept with their elements in memory, releasing the least recently used nodes
+     * if more nodes are loaded.
+     *
+     * @param maxNodes maximum number of nodes, 0 to never release elements
+     */
+    public void setMaxNodes(final int maxNodes) {
+        if (maxNodes < 0)
+            throw new IllegalArgumentException("Maximum number of nodes must not be negative");
+        final List<ProvisionedMeshNode> evicted;
+        synchronized (this) {
+            mMaxNodes = maxNodes;
+            evicted = trim();
+        }
+        release(evicted);
+    }
+
+    /**
+     * Returns the number of nodes currently tracked with their elements in memory.
+     */
+    public synchronized int size() {
+        return mLoadedNodes.size();
+    }
+
+    /**
+     * Loads the elements of the nodes in the background, up to the maximum number of nodes kept in memory.
+     *
+     * @param nodes nodes in the order they are likely to be accessed
+     */
+    public void prefetch(@NonNull final List<ProvisionedMeshNode> nodes) {
+        final int maxNodes = getMaxNodes();
+        final List<ProvisionedMeshNode> pending = new ArrayList<>();
+        for (ProvisionedMeshNode node : nodes) {
+            if (maxNodes > 0 && pending.size() == maxNodes)
+                break;
+            pending.add(node);
+        }
+        prefetchExecutor.execute(() -> {
+            for (ProvisionedMeshNode node : pending) {
+                if (!node.isElementsLoaded()) {
+                    node.getElements();
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops tracking a node, e.g. after it has been removed from the network.
+     */
+    public synchronized void remove(@NonNull final ProvisionedMeshNode node) {
+        mLoadedNodes.remove(node.getUuid());
+    }
+
+    /**
+     * Stops tracking all nodes, e.g. when a different network is loaded.
+     */
+    public synchronized void clear() {
+        mLoadedNodes.clear();
+    }
+
+    @Nullable
+    Map<Integer, Element> load(@NonNull final ProvisionedMeshNode node) {
+        final long start = System.nanoTime();
+        final Map<Integer, Element> elements = mLoader.loadElements(node.getUuid());
+        if (elements == null) {
+            MeshLogger.error(TAG, "Unable to load the elements of node " + node.getUuid());
+        } else {
+            MeshLogger.verbose(TAG, "Loaded " + elements.size() + " elements of node " + node.getUuid() +
+                    " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        }
+        return elements;
+    }
+
+    /**
+     * Marks the node as the most recently used, releasing the least recently used nodes if required.
+     */
+    void onAccessed(@NonNull final ProvisionedMeshNode node) {
+        final List<ProvisionedMeshNode> evicted;
+        synchronized (this) {
+            mLoadedNodes.put(node.getUuid(), node);
+            evicted = trim();
+        }
+        release(evicted);
+    }
+
+    @Nullable
+    private List<ProvisionedMeshNode> trim() {
+        if (mMaxNodes == 0 || mLoadedNodes.size() <= mMaxNodes)
+            return null;
+        final List<ProvisionedMeshNode> evicted = new ArrayList<>();
+        final Iterator<ProvisionedMeshNode> iterator = mLoadedNodes.values().iterator();
+        while (mLoadedNodes.size() > mMaxNodes) {
+            evicted.add(iterator.next());
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    // Nodes are released outside the lock of the cache as releasing takes the lock of the node
+    private static void release(@Nullable final List<ProvisionedMeshNode> evicted) {
+        if (evicted != null) {
+            for (ProvisionedMeshNode node : evicted) {
+                node.releaseElements();
+            }
+        }
+    }
+}
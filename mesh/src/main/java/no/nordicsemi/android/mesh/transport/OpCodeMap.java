@@ -0,0 +1,178 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Open addressing hash map from an opcode to a value.
+ * <p>
+ * Opcodes are stored unboxed and probed linearly, so a lookup does not allocate and usually touches a single slot.
+ * The table is kept at most half full. A key of -1 is never a valid opcode and marks an empty slot.
+ * </p>
+ *
+ * @param <V> value type
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+public final class OpCodeMap<V> {
+
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public OpCodeMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs the map.
+     *
+     * @param expectedSize number of entries expected to be stored without resizing
+     */
+    public OpCodeMap(final int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value mapped to an opcode or null if there is none.
+     *
+     * @param opCode opcode
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(final int opCode) {
+        if (opCode == EMPTY)
+            return null;
+        final int mask = keys.length - 1;
+        int index = hash(opCode) & mask;
+        int key;
+        while ((key = keys[index]) != EMPTY) {
+            if (key == opCode)
+                return (V) values[index];
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Maps a value to an opcode, replacing any existing value.
+     *
+     * @param opCode opcode
+     * @param value  value
+     * @return the previous value or null if there was none
+     * @throws IllegalArgumentException if the opcode is negative
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(final int opCode, @NonNull final V value) {
+        if (opCode < 0)
+            throw new IllegalArgumentException("Invalid opcode: " + opCode);
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        final int mask = keys.length - 1;
+        int index = hash(opCode) & mask;
+        int key;
+        while ((key = keys[index]) != EMPTY) {
+            if (key == opCode) {
+                final V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = opCode;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the value mapped to an opcode.
+     *
+     * @param opCode opcode
+     * @return the removed value or null if there was none
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(final int opCode) {
+        if (opCode == EMPTY)
+            return null;
+        final int mask = keys.length - 1;
+        int index = hash(opCode) & mask;
+        int key;
+        while ((key = keys[index]) != opCode) {
+            if (key == EMPTY)
+                return null;
+            index = (index + 1) & mask;
+        }
+        final V previous = (V) values[index];
+        // Shifts back the following entries of the cluster so that no probe sequence is broken by the hole
+        int hole = index;
+        index = (index + 1) & mask;
+        while ((key = keys[index]) != EMPTY) {
+            final int home = hash(key) & mask;
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                keys[hole] = key;
+                values[hole] = values[index];
+                hole = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        size--;
+        return previous;
+    }
+
+    private void resize(final int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = hash(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            keys[i] = EMPTY;
+        }
+    }
+
+    private static int tableSizeFor(final int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the opcode bits, as SIG opcodes of the same model group only differ in the low bits.
+     */
+    private static int hash(final int opCode) {
+        final int h = opCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
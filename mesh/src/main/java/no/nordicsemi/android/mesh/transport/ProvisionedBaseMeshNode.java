@@ -143,8 +143,7 @@ abstract class ProvisionedBaseMeshNode implements Parcelable {
     @Ignore
     @Expose
     byte[] mFlags;
-    @ColumnInfo(name = "elements")
-    @TypeConverters(MeshTypeConverters.class)
+    @Ignore
     @Expose
     Map<Integer, Element> mElements = new LinkedHashMap<>();
     @ColumnInfo(name = "excluded")
@@ -28,6 +28,7 @@ import android.os.Parcel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -77,6 +78,14 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
         }
     };
 
+    // Set when the elements of the node are loaded on demand, see NodeElementsCache
+    @Ignore
+    private transient NodeElementsCache mElementsCache;
+    @Ignore
+    private transient boolean mElementsLoaded = true;
+    @Ignore
+    private transient int mElementCount;
+
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public ProvisionedMeshNode() {
@@ -190,7 +199,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
         dest.writeValue(versionIdentifier);
         dest.writeValue(crpl);
         dest.writeValue(nodeFeatures);
-        dest.writeMap(mElements);
+        dest.writeMap(getElements());
         dest.writeList(mAddedAppKeys);
         dest.writeLong(mTimeStampInMillis);
         dest.writeParcelable(mSeqAuth, flags);
@@ -205,8 +214,79 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
         return 0;
     }
 
+    /**
+     * Returns the elements of the node, loading them first if the node was loaded without its elements.
+     */
     public Map<Integer, Element> getElements() {
-        return mElements;
+        final NodeElementsCache cache = mElementsCache;
+        if (cache == null)
+            return mElements;
+        final Map<Integer, Element> elements;
+        synchronized (this) {
+            if (!mElementsLoaded) {
+                final Map<Integer, Element> loadedElements = cache.load(this);
+                if (loadedElements == null)
+                    return mElements;
+                mElements = loadedElements;
+                mElementsLoaded = true;
+            }
+            elements = mElements;
+        }
+        cache.onAccessed(this);
+        return elements;
+    }
+
+    /**
+     * Returns true if the elements of the node are in memory, false if they will be loaded on the next access.
+     */
+    public synchronized boolean isElementsLoaded() {
+        return mElementsLoaded;
+    }
+
+    @Override
+    public synchronized int getNumberOfElements() {
+        return mElementsLoaded ? mElements.size() : mElementCount;
+    }
+
+    /**
+     * Attaches the cache used to load the elements of the node on demand.
+     * <p>This is to be used only by the library</p>
+     *
+     * @param cache node elements cache
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void setElementsCache(@NonNull final NodeElementsCache cache) {
+        final boolean loaded;
+        synchronized (this) {
+            mElementsCache = cache;
+            loaded = mElementsLoaded;
+        }
+        if (loaded) {
+            cache.onAccessed(this);
+        }
+    }
+
+    /**
+     * Marks the elements of the node as not loaded, they will be loaded through the node elements cache on the next
+     * access.
+     * <p>This is to be used only by the library</p>
+     *
+     * @param elementCount number of elements stored for the node
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public synchronized void setElementsUnloaded(final int elementCount) {
+        mElements = new LinkedHashMap<>();
+        mElementCount = elementCount;
+        mElementsLoaded = false;
+    }
+
+    /**
+     * Releases the elements of the node, callers still holding the previous elements map keep a consistent copy.
+     */
+    synchronized void releaseElements() {
+        if (mElementsLoaded && mElementsCache != null) {
+            setElementsUnloaded(mElements.size());
+        }
     }
 
     /**
@@ -218,6 +298,11 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     public boolean hasUnicastAddress(final int unicastAddress) {
         if (unicastAddress == getUnicastAddress())
             return true;
+        synchronized (this) {
+            // Element addresses are assigned sequentially, so the elements need not be loaded to answer this
+            if (!mElementsLoaded)
+                return unicastAddress > getUnicastAddress() && unicastAddress < getUnicastAddress() + mElementCount;
+        }
         for (Element element : mElements.values()) {
             if (element.getElementAddress() == unicastAddress)
                 return true;
@@ -226,8 +311,9 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     }
 
     @RestrictTo(RestrictTo.Scope.LIBRARY)
-    public void setElements(final Map<Integer, Element> elements) {
+    public synchronized void setElements(final Map<Integer, Element> elements) {
         mElements = elements;
+        mElementsLoaded = true;
     }
 
     public byte[] getDeviceKey() {
@@ -369,7 +455,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
             final int keyIndex = mAddedNetKeys.get(i).getIndex();
             if (keyIndex == index) {
                 mAddedNetKeys.remove(i);
-                for (Element element : mElements.values()) {
+                for (Element element : getElements().values()) {
                     for (MeshModel model : element.getMeshModels().values()) {
                         if (model.getModelId() == SigModelParser.CONFIGURATION_SERVER) {
                             final ConfigurationServerModel configServerModel = (ConfigurationServerModel) model;
@@ -506,7 +592,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
                 lowPowerFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED,
                 proxyFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED,
                 relayFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED);
-        mElements.putAll(configCompositionDataStatus.getElements());
+        getElements().putAll(configCompositionDataStatus.getElements());
     }
 
     /**
@@ -517,7 +603,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     void setAppKeyBindStatus(
             @NonNull final ConfigModelAppStatus configModelAppStatus) {
         if (configModelAppStatus.isSuccessful()) {
-            final Element element = mElements.get(configModelAppStatus.getElementAddress());
+            final Element element = getElements().get(configModelAppStatus.getElementAddress());
             if (element != null) {
                 final int modelIdentifier = configModelAppStatus.getModelIdentifier();
                 final MeshModel model = element.getMeshModels().get(modelIdentifier);
@@ -537,7 +623,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     void setAppKeyUnbindStatus(
             @NonNull final ConfigModelAppStatus configModelAppStatus) {
         if (configModelAppStatus.isSuccessful()) {
-            final Element element = mElements.get(configModelAppStatus.getElementAddress());
+            final Element element = getElements().get(configModelAppStatus.getElementAddress());
             if (element != null) {
                 final int modelIdentifier = configModelAppStatus.getModelIdentifier();
                 final MeshModel model = element.getMeshModels().get(modelIdentifier);
@@ -573,7 +659,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     }
 
     public boolean isExist(final int modelId) {
-        for (Map.Entry<Integer, Element> elementEntry : mElements.entrySet()) {
+        for (Map.Entry<Integer, Element> elementEntry : getElements().entrySet()) {
             final Element element = elementEntry.getValue();
             for (Map.Entry<Integer, MeshModel> modelEntry : element.getMeshModels().entrySet()) {
                 final MeshModel model = modelEntry.getValue();
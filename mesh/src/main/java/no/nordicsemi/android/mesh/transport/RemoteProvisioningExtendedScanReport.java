@@ -0,0 +1,105 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningExtendedScanReport message.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningExtendedScanReport extends RemoteProvisioningStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningExtendedScanReport.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_EXTENDED_SCAN_REPORT;
+
+    private UUID mUuid;
+    private byte[] mOobInformation;
+    private byte[] mAdvertisingStructures;
+
+    private static final Creator<RemoteProvisioningExtendedScanReport> CREATOR = new Creator<RemoteProvisioningExtendedScanReport>() {
+        @Override
+        public RemoteProvisioningExtendedScanReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningExtendedScanReport(message);
+        }
+
+        @Override
+        public RemoteProvisioningExtendedScanReport[] newArray(int size) {
+            return new RemoteProvisioningExtendedScanReport[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningExtendedScanReport message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningExtendedScanReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters);
+        setStatusCode(buffer.get() & 0xFF);
+        mUuid = new UUID(buffer.getLong(), buffer.getLong());
+        if (buffer.remaining() >= 2) {
+            mOobInformation = new byte[2];
+            buffer.get(mOobInformation, 0, 2);
+        }
+        if (buffer.hasRemaining()) {
+            mAdvertisingStructures = new byte[buffer.remaining()];
+            buffer.get(mAdvertisingStructures);
+        }
+    }
+
+    /**
+     * Returns the device UUID of the scanned device, or of the server.
+     */
+    @NonNull
+    public UUID getUuid() {
+        return mUuid;
+    }
+
+    /**
+     * Returns the OOB information of the device, or null if not reported.
+     */
+    @Nullable
+    public byte[] getOobInformation() {
+        return mOobInformation;
+    }
+
+    /**
+     * Returns the advertising structures matching the AD type filter, or null if none were found.
+     */
+    @Nullable
+    public byte[] getAdvertisingStructures() {
+        return mAdvertisingStructures;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,61 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Creates the RemoteProvisioningExtendedScanStart message, requesting the advertising data of an unprovisioned device,
+ * or of the Remote Provisioning Server itself. The result is reported using {@link RemoteProvisioningExtendedScanReport}.
+ */
+@SuppressWarnings("unused")
+public class RemoteProvisioningExtendedScanStart extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningExtendedScanStart.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_EXTENDED_SCAN_START;
+    private static final int MAX_AD_TYPE_FILTER_COUNT = 16;
+
+    private final byte[] mAdTypeFilter;
+    private final UUID mUuid;
+    private final int mTimeout;
+
+    /**
+     * Constructs RemoteProvisioningExtendedScanStart message.
+     *
+     * @param adTypeFilter AD types requested, at most 16
+     * @param uuid         Device UUID of the device to scan, or null to request the advertising data of the server
+     * @param timeout      Scan timeout in seconds, 1 to 5, ignored if the uuid is null
+     * @throws IllegalArgumentException if the filter or the timeout are out of range
+     */
+    public RemoteProvisioningExtendedScanStart(@NonNull final byte[] adTypeFilter, @Nullable final UUID uuid, final int timeout) {
+        if (adTypeFilter.length > MAX_AD_TYPE_FILTER_COUNT || (uuid == null && adTypeFilter.length == 0))
+            throw new IllegalArgumentException("AD type filter must contain 1 to 16 AD types, or at most 16 if a device UUID is given");
+        if (uuid != null && (timeout < 1 || timeout > 5))
+            throw new IllegalArgumentException("Extended scan timeout must range from 1 to 5 seconds");
+        mAdTypeFilter = adTypeFilter;
+        mUuid = uuid;
+        mTimeout = timeout;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + mAdTypeFilter.length + (mUuid == null ? 0 : 17));
+        buffer.put((byte) mAdTypeFilter.length);
+        buffer.put(mAdTypeFilter);
+        if (mUuid != null) {
+            buffer.put(MeshParserUtils.uuidToBytes(mUuid));
+            buffer.put((byte) mTimeout);
+        }
+        mParameters = buffer.array();
+    }
+}
@@ -0,0 +1,54 @@
+package no.nordicsemi.android.mesh.transport;
+
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * Creates the RemoteProvisioningLinkClose message.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RemoteProvisioningLinkClose extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningLinkClose.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_CLOSE;
+
+    /**
+     * The provisioning completed successfully.
+     */
+    public static final int REASON_SUCCESS = 0x00;
+    /**
+     * The provisioning failed or was cancelled.
+     */
+    public static final int REASON_FAIL = 0x02;
+
+    private final int mReason;
+
+    /**
+     * Constructs RemoteProvisioningLinkClose message.
+     *
+     * @param reason {@link #REASON_SUCCESS} or {@link #REASON_FAIL}
+     * @throws IllegalArgumentException if the reason is neither
+     */
+    public RemoteProvisioningLinkClose(final int reason) {
+        if (reason != REASON_SUCCESS && reason != REASON_FAIL)
+            throw new IllegalArgumentException("Link close reason must be either success or fail");
+        mReason = reason;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mParameters = new byte[]{(byte) mReason};
+    }
+
+    /**
+     * Returns the reason the link is closed.
+     */
+    public int getReason() {
+        return mReason;
+    }
+}
@@ -0,0 +1,115 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Creates the RemoteProvisioningLinkOpen message.
+ * <p>
+ * Opens a provisioning link from a Remote Provisioning Server to an unprovisioned device, or to the server itself
+ * to run a Node Provisioning Protocol Interface (NPPI) procedure. The server responds with {@link RemoteProvisioningLinkStatus}
+ * and reports the link once opened using {@link RemoteProvisioningLinkReport}.
+ * </p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RemoteProvisioningLinkOpen extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningLinkOpen.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_OPEN;
+
+    /**
+     * Refreshes the device key of the node without changing its address or composition.
+     */
+    public static final int NPPI_DEVICE_KEY_REFRESH = 0x00;
+    /**
+     * Assigns a new unicast address to the node.
+     */
+    public static final int NPPI_NODE_ADDRESS_REFRESH = 0x01;
+    /**
+     * Refreshes the composition data of the node after a firmware update.
+     */
+    public static final int NPPI_NODE_COMPOSITION_REFRESH = 0x02;
+
+    private final UUID mUuid;
+    private final int mTimeout;
+    private final int mNppiProcedure;
+
+    /**
+     * Constructs RemoteProvisioningLinkOpen message opening a link to an unprovisioned device using the default timeout.
+     *
+     * @param uuid Device UUID of the unprovisioned device
+     */
+    public RemoteProvisioningLinkOpen(@NonNull final UUID uuid) {
+        this(uuid, 0);
+    }
+
+    /**
+     * Constructs RemoteProvisioningLinkOpen message opening a link to an unprovisioned device.
+     *
+     * @param uuid    Device UUID of the unprovisioned device
+     * @param timeout Link open timeout in seconds, 1 to 60, or 0 for the default timeout of 10 seconds
+     * @throws IllegalArgumentException if the timeout is out of range
+     */
+    public RemoteProvisioningLinkOpen(@NonNull final UUID uuid, final int timeout) {
+        if (timeout < 0 || timeout > 60)
+            throw new IllegalArgumentException("Link open timeout must range from 1 to 60 seconds");
+        mUuid = uuid;
+        mTimeout = timeout;
+        mNppiProcedure = -1;
+        assembleMessageParameters();
+    }
+
+    /**
+     * Constructs RemoteProvisioningLinkOpen message opening a link to the server itself for a Node Provisioning Protocol
+     * Interface procedure.
+     *
+     * @param nppiProcedure One of {@link #NPPI_DEVICE_KEY_REFRESH}, {@link #NPPI_NODE_ADDRESS_REFRESH} or
+     *                      {@link #NPPI_NODE_COMPOSITION_REFRESH}
+     * @throws IllegalArgumentException if the procedure is unknown
+     */
+    public RemoteProvisioningLinkOpen(final int nppiProcedure) {
+        if (nppiProcedure < NPPI_DEVICE_KEY_REFRESH || nppiProcedure > NPPI_NODE_COMPOSITION_REFRESH)
+            throw new IllegalArgumentException("Unknown NPPI procedure: " + nppiProcedure);
+        mUuid = null;
+        mTimeout = 0;
+        mNppiProcedure = nppiProcedure;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        if (mUuid == null) {
+            mParameters = new byte[]{(byte) mNppiProcedure};
+        } else {
+            final ByteBuffer buffer = ByteBuffer.allocate(mTimeout == 0 ? 16 : 17);
+            buffer.put(MeshParserUtils.uuidToBytes(mUuid));
+            if (mTimeout != 0) {
+                buffer.put((byte) mTimeout);
+            }
+            mParameters = buffer.array();
+        }
+    }
+
+    /**
+     * Returns the device UUID of the device the link is opened to, or null for a NPPI procedure.
+     */
+    public UUID getUuid() {
+        return mUuid;
+    }
+
+    /**
+     * Returns the NPPI procedure or -1 if the link is opened to an unprovisioned device.
+     */
+    public int getNppiProcedure() {
+        return mNppiProcedure;
+    }
+}
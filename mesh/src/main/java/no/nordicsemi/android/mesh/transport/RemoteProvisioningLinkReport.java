@@ -0,0 +1,98 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningLinkReport message, reporting a change of the
+ * state of the link.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningLinkReport extends RemoteProvisioningStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningLinkReport.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_REPORT;
+
+    /**
+     * The link was closed after the provisioning completed.
+     */
+    public static final int REASON_SUCCESS = 0x00;
+    /**
+     * The link was closed as the device stopped responding.
+     */
+    public static final int REASON_TIMEOUT = 0x01;
+    /**
+     * The link was closed as the provisioning failed.
+     */
+    public static final int REASON_FAIL = 0x02;
+
+    private int mLinkState;
+    private int mReason = -1;
+
+    private static final Creator<RemoteProvisioningLinkReport> CREATOR = new Creator<RemoteProvisioningLinkReport>() {
+        @Override
+        public RemoteProvisioningLinkReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningLinkReport(message);
+        }
+
+        @Override
+        public RemoteProvisioningLinkReport[] newArray(int size) {
+            return new RemoteProvisioningLinkReport[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningLinkReport message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningLinkReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        setStatusCode(mParameters[0] & 0xFF);
+        mLinkState = mParameters[1] & 0xFF;
+        if (mParameters.length > 2) {
+            mReason = mParameters[2] & 0xFF;
+        }
+    }
+
+    /**
+     * Returns the state of the link, one of the {@link RemoteProvisioningLinkStatus} LINK_STATE constants.
+     */
+    public int getLinkState() {
+        return mLinkState;
+    }
+
+    /**
+     * Returns the reason the link was closed, or -1 if not given.
+     */
+    public int getReason() {
+        return mReason;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
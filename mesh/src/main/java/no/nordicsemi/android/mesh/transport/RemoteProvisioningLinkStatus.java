@@ -0,0 +1,79 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningLinkStatus message.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningLinkStatus extends RemoteProvisioningStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningLinkStatus.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_STATUS;
+
+    public static final int LINK_STATE_IDLE = 0x00;
+    public static final int LINK_STATE_OPENING = 0x01;
+    public static final int LINK_STATE_ACTIVE = 0x02;
+    public static final int LINK_STATE_OUTBOUND_PACKET_TRANSFER = 0x03;
+    public static final int LINK_STATE_CLOSING = 0x04;
+
+    private int mLinkState;
+
+    private static final Creator<RemoteProvisioningLinkStatus> CREATOR = new Creator<RemoteProvisioningLinkStatus>() {
+        @Override
+        public RemoteProvisioningLinkStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningLinkStatus(message);
+        }
+
+        @Override
+        public RemoteProvisioningLinkStatus[] newArray(int size) {
+            return new RemoteProvisioningLinkStatus[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningLinkStatus message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningLinkStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        setStatusCode(mParameters[0] & 0xFF);
+        mLinkState = mParameters[1] & 0xFF;
+    }
+
+    /**
+     * Returns the state of the link, one of the LINK_STATE constants.
+     */
+    public int getLinkState() {
+        return mLinkState;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
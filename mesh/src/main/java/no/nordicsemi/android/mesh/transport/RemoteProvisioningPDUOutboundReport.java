@@ -0,0 +1,73 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningPDUOutboundReport message, confirming that a
+ * provisioning pdu was delivered to the device.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningPDUOutboundReport extends ConfigStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningPDUOutboundReport.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_OUTBOUND_REPORT;
+
+    private int mOutboundPduNumber;
+
+    private static final Creator<RemoteProvisioningPDUOutboundReport> CREATOR = new Creator<RemoteProvisioningPDUOutboundReport>() {
+        @Override
+        public RemoteProvisioningPDUOutboundReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningPDUOutboundReport(message);
+        }
+
+        @Override
+        public RemoteProvisioningPDUOutboundReport[] newArray(int size) {
+            return new RemoteProvisioningPDUOutboundReport[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningPDUOutboundReport message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningPDUOutboundReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        mOutboundPduNumber = mParameters[0] & 0xFF;
+    }
+
+    /**
+     * Returns the number of the pdu delivered.
+     */
+    public int getOutboundPduNumber() {
+        return mOutboundPduNumber;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,85 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningPDUReport message, carrying a provisioning pdu
+ * received from the device at the other end of the link.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningPDUReport extends ConfigStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningPDUReport.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_REPORT;
+
+    private int mInboundPduNumber;
+    private byte[] mProvisioningPdu;
+
+    private static final Creator<RemoteProvisioningPDUReport> CREATOR = new Creator<RemoteProvisioningPDUReport>() {
+        @Override
+        public RemoteProvisioningPDUReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningPDUReport(message);
+        }
+
+        @Override
+        public RemoteProvisioningPDUReport[] newArray(int size) {
+            return new RemoteProvisioningPDUReport[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningPDUReport message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningPDUReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        mInboundPduNumber = mParameters[0] & 0xFF;
+        mProvisioningPdu = Arrays.copyOfRange(mParameters, 1, mParameters.length);
+    }
+
+    /**
+     * Returns the number of the pdu on the link, starting from 1.
+     */
+    public int getInboundPduNumber() {
+        return mInboundPduNumber;
+    }
+
+    /**
+     * Returns the provisioning pdu starting with the provisioning pdu type.
+     */
+    @NonNull
+    public byte[] getProvisioningPdu() {
+        return mProvisioningPdu;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,55 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * Creates the RemoteProvisioningPDUSend message, carrying a provisioning pdu to the device at the other end of the
+ * link. The server confirms the delivery using {@link RemoteProvisioningPDUOutboundReport}.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RemoteProvisioningPDUSend extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningPDUSend.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_SEND;
+
+    private final int mOutboundPduNumber;
+    private final byte[] mProvisioningPdu;
+
+    /**
+     * Constructs RemoteProvisioningPDUSend message.
+     *
+     * @param outboundPduNumber Number of the pdu on the link, starting from 1
+     * @param provisioningPdu   Provisioning pdu starting with the provisioning pdu type
+     * @throws IllegalArgumentException if the pdu is empty
+     */
+    public RemoteProvisioningPDUSend(final int outboundPduNumber, @NonNull final byte[] provisioningPdu) {
+        if (provisioningPdu.length == 0)
+            throw new IllegalArgumentException("Provisioning pdu cannot be empty");
+        mOutboundPduNumber = outboundPduNumber & 0xFF;
+        mProvisioningPdu = provisioningPdu;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mParameters = ByteBuffer.allocate(1 + mProvisioningPdu.length)
+                .put((byte) mOutboundPduNumber)
+                .put(mProvisioningPdu)
+                .array();
+    }
+
+    /**
+     * Returns the outbound pdu number.
+     */
+    public int getOutboundPduNumber() {
+        return mOutboundPduNumber;
+    }
+}
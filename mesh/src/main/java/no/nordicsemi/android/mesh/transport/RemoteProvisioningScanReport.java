@@ -0,0 +1,111 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningScanReport message, reporting an
+ * unprovisioned device found by a Remote Provisioning Server.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningScanReport extends ConfigStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningScanReport.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_REPORT;
+
+    private int mRssi;
+    private UUID mUuid;
+    private final byte[] mOobInformation = new byte[2];
+    private byte[] mUriHash;
+
+    private static final Creator<RemoteProvisioningScanReport> CREATOR = new Creator<RemoteProvisioningScanReport>() {
+        @Override
+        public RemoteProvisioningScanReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningScanReport(message);
+        }
+
+        @Override
+        public RemoteProvisioningScanReport[] newArray(int size) {
+            return new RemoteProvisioningScanReport[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningScanReport message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningScanReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters);
+        mRssi = buffer.get();
+        mUuid = new UUID(buffer.getLong(), buffer.getLong());
+        buffer.get(mOobInformation, 0, 2);
+        if (buffer.remaining() >= 4) {
+            mUriHash = new byte[4];
+            buffer.get(mUriHash, 0, 4);
+        }
+    }
+
+    /**
+     * Returns the RSSI of the device as received by the server, in dBm.
+     */
+    public int getRssi() {
+        return mRssi;
+    }
+
+    /**
+     * Returns the device UUID of the unprovisioned device.
+     */
+    @NonNull
+    public UUID getUuid() {
+        return mUuid;
+    }
+
+    /**
+     * Returns the OOB information advertised by the device.
+     */
+    @NonNull
+    public byte[] getOobInformation() {
+        return mOobInformation;
+    }
+
+    /**
+     * Returns the hash of the URI advertised by the device, or null if the device does not advertise a URI.
+     */
+    @Nullable
+    public byte[] getUriHash() {
+        return mUriHash;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
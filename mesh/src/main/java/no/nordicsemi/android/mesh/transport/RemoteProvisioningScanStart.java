@@ -0,0 +1,58 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Creates the RemoteProvisioningScanStart message, starting a scan for unprovisioned devices on a Remote Provisioning
+ * Server. Devices found are reported using {@link RemoteProvisioningScanReport}.
+ */
+@SuppressWarnings("unused")
+public class RemoteProvisioningScanStart extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningScanStart.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_START;
+
+    private final int mScannedItemsLimit;
+    private final int mTimeout;
+    private final UUID mUuid;
+
+    /**
+     * Constructs RemoteProvisioningScanStart message.
+     *
+     * @param scannedItemsLimit Maximum number of devices reported, 0 to let the server decide
+     * @param timeout           Scan timeout in seconds, 1 to 255
+     * @param uuid              Device UUID of a single device to scan for, or null to scan for any device
+     * @throws IllegalArgumentException if the limit or the timeout are out of range
+     */
+    public RemoteProvisioningScanStart(final int scannedItemsLimit, final int timeout, @Nullable final UUID uuid) {
+        if (scannedItemsLimit < 0 || scannedItemsLimit > 0xFF)
+            throw new IllegalArgumentException("Scanned items limit must range from 0 to 255");
+        if (timeout < 1 || timeout > 0xFF)
+            throw new IllegalArgumentException("Scan timeout must range from 1 to 255 seconds");
+        mScannedItemsLimit = scannedItemsLimit;
+        mTimeout = timeout;
+        mUuid = uuid;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        final ByteBuffer buffer = ByteBuffer.allocate(mUuid == null ? 2 : 18);
+        buffer.put((byte) mScannedItemsLimit);
+        buffer.put((byte) mTimeout);
+        if (mUuid != null) {
+            buffer.put(MeshParserUtils.uuidToBytes(mUuid));
+        }
+        mParameters = buffer.array();
+    }
+}
@@ -0,0 +1,96 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class for when creating the RemoteProvisioningScanStatus message.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class RemoteProvisioningScanStatus extends RemoteProvisioningStatusMessage implements Parcelable {
+
+    private static final String TAG = RemoteProvisioningScanStatus.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_STATUS;
+
+    public static final int SCANNING_STATE_IDLE = 0x00;
+    public static final int SCANNING_STATE_MULTIPLE_DEVICES = 0x01;
+    public static final int SCANNING_STATE_SINGLE_DEVICE = 0x02;
+
+    private int mScanningState;
+    private int mScannedItemsLimit;
+    private int mTimeout;
+
+    private static final Creator<RemoteProvisioningScanStatus> CREATOR = new Creator<RemoteProvisioningScanStatus>() {
+        @Override
+        public RemoteProvisioningScanStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new RemoteProvisioningScanStatus(message);
+        }
+
+        @Override
+        public RemoteProvisioningScanStatus[] newArray(int size) {
+            return new RemoteProvisioningScanStatus[size];
+        }
+    };
+
+    /**
+     * Constructs a RemoteProvisioningScanStatus message.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningScanStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void parseStatusParameters() {
+        setStatusCode(mParameters[0] & 0xFF);
+        mScanningState = mParameters[1] & 0xFF;
+        mScannedItemsLimit = mParameters[2] & 0xFF;
+        mTimeout = mParameters[3] & 0xFF;
+    }
+
+    /**
+     * Returns the scanning state, one of {@link #SCANNING_STATE_IDLE}, {@link #SCANNING_STATE_MULTIPLE_DEVICES} or
+     * {@link #SCANNING_STATE_SINGLE_DEVICE}.
+     */
+    public int getScanningState() {
+        return mScanningState;
+    }
+
+    /**
+     * Returns the maximum number of devices reported.
+     */
+    public int getScannedItemsLimit() {
+        return mScannedItemsLimit;
+    }
+
+    /**
+     * Returns the scan timeout in seconds.
+     */
+    public int getTimeout() {
+        return mTimeout;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
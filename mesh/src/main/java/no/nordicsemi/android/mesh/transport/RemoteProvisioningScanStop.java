@@ -0,0 +1,30 @@
+package no.nordicsemi.android.mesh.transport;
+
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * Creates the RemoteProvisioningScanStop message.
+ */
+@SuppressWarnings("unused")
+public class RemoteProvisioningScanStop extends ConfigMessage {
+
+    private static final String TAG = RemoteProvisioningScanStop.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.REMOTE_PROVISIONING_SCAN_STOP;
+
+    /**
+     * Constructs RemoteProvisioningScanStop message.
+     */
+    public RemoteProvisioningScanStop() {
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        //Do nothing as RemoteProvisioningScanStop message does not have parameters
+    }
+}
@@ -0,0 +1,88 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Base class of the Remote Provisioning status messages that carry a Remote Provisioning status code.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class RemoteProvisioningStatusMessage extends ConfigStatusMessage {
+
+    public static final int STATUS_SUCCESS = 0x00;
+    public static final int STATUS_SCANNING_CANNOT_START = 0x01;
+    public static final int STATUS_INVALID_STATE = 0x02;
+    public static final int STATUS_LIMITED_RESOURCES = 0x03;
+    public static final int STATUS_LINK_CANNOT_OPEN = 0x04;
+    public static final int STATUS_LINK_OPEN_FAILED = 0x05;
+    public static final int STATUS_LINK_CLOSED_BY_DEVICE = 0x06;
+    public static final int STATUS_LINK_CLOSED_BY_SERVER = 0x07;
+    public static final int STATUS_LINK_CLOSED_BY_CLIENT = 0x08;
+    public static final int STATUS_LINK_CLOSED_AS_CANNOT_RECEIVE_PDU = 0x09;
+    public static final int STATUS_LINK_CLOSED_AS_CANNOT_SEND_PDU = 0x0A;
+    public static final int STATUS_LINK_CLOSED_AS_CANNOT_DELIVER_PDU_REPORT = 0x0B;
+    public static final int STATUS_LINK_CLOSED_AS_CANNOT_DELIVER_PDU_OUTBOUND_REPORT = 0x0C;
+
+    /**
+     * Constructs the RemoteProvisioningStatusMessage.
+     *
+     * @param message Access message received
+     */
+    public RemoteProvisioningStatusMessage(@NonNull final AccessMessage message) {
+        super(message);
+    }
+
+    /**
+     * Returns if the message was successful.
+     */
+    public final boolean isSuccessful() {
+        return mStatusCode == STATUS_SUCCESS;
+    }
+
+    /**
+     * Sets the status code and its name.
+     *
+     * @param statusCode Remote Provisioning status code
+     */
+    final void setStatusCode(final int statusCode) {
+        mStatusCode = statusCode;
+        mStatusCodeName = getRemoteProvisioningStatusName(statusCode);
+    }
+
+    /**
+     * Returns the name of a Remote Provisioning status code.
+     *
+     * @param statusCode Remote Provisioning status code
+     */
+    public static String getRemoteProvisioningStatusName(final int statusCode) {
+        switch (statusCode) {
+            case STATUS_SUCCESS:
+                return "Success";
+            case STATUS_SCANNING_CANNOT_START:
+                return "Scanning Cannot Start";
+            case STATUS_INVALID_STATE:
+                return "Invalid State";
+            case STATUS_LIMITED_RESOURCES:
+                return "Limited Resources";
+            case STATUS_LINK_CANNOT_OPEN:
+                return "Link Cannot Open";
+            case STATUS_LINK_OPEN_FAILED:
+                return "Link Open Failed";
+            case STATUS_LINK_CLOSED_BY_DEVICE:
+                return "Link Closed by Device";
+            case STATUS_LINK_CLOSED_BY_SERVER:
+                return "Link Closed by Server";
+            case STATUS_LINK_CLOSED_BY_CLIENT:
+                return "Link Closed by Client";
+            case STATUS_LINK_CLOSED_AS_CANNOT_RECEIVE_PDU:
+                return "Link Closed as Cannot Receive PDU";
+            case STATUS_LINK_CLOSED_AS_CANNOT_SEND_PDU:
+                return "Link Closed as Cannot Send PDU";
+            case STATUS_LINK_CLOSED_AS_CANNOT_DELIVER_PDU_REPORT:
+                return "Link Closed as Cannot Deliver PDU Report";
+            case STATUS_LINK_CLOSED_AS_CANNOT_DELIVER_PDU_OUTBOUND_REPORT:
+                return "Link Closed as Cannot Deliver PDU Outbound Report";
+            default:
+                return "RFU";
+        }
+    }
+}
@@ -33,7 +33,7 @@ import androidx.annotation.NonNull;
 import no.nordicsemi.android.mesh.sensorutils.DeviceProperty;
 import no.nordicsemi.android.mesh.sensorutils.MarshalledPropertyId;
 import no.nordicsemi.android.mesh.sensorutils.MarshalledSensorData;
-import no.nordicsemi.android.mesh.utils.SensorFormat;
+import no.nordicsemi.android.mesh.sensorutils.SensorDataReader;
 
 import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_STATUS;
 
@@ -44,7 +44,7 @@ import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSO
 public final class SensorStatus extends ApplicationStatusMessage implements Parcelable, SceneStatuses {
     private static final String TAG = SensorStatus.class.getSimpleName();
     private static final int OP_CODE = SENSOR_STATUS;
-    private final ArrayList<MarshalledSensorData> marshalledSensorDataList = new ArrayList<>();
+    private ArrayList<MarshalledSensorData> marshalledSensorDataList;
 
     private static final Creator<SensorStatus> CREATOR = new Creator<SensorStatus>() {
         @Override
@@ -73,35 +73,7 @@ public final class SensorStatus extends ApplicationStatusMessage implements Parc
 
     @Override
     void parseStatusParameters() {
-        int offset = 0;
-        SensorFormat sensorFormat;
-        int length;
-        short propertyId;
-        while (offset < mParameters.length) {
-            final int octet0 = mParameters[offset++] & 0xFF;
-            final int octet1 = mParameters[offset++] & 0xFF;
-            sensorFormat = SensorFormat.from((byte) ((octet0) & 0x01));
-            switch (sensorFormat) {
-                case FORMAT_A:
-                    length = ((octet0 & 0x1E) >> 1) + 1; // zero based
-                    propertyId = (short) ((octet1 << 3) | ((octet0) >> 5));
-                    break;
-                case FORMAT_B:
-                    final int octet2 = mParameters[offset++] & 0xFF;
-                    final int tempLength = ((octet0 & 0xFE) >> 1);
-                    length = tempLength == 0x7F ? 0 : tempLength;
-                    propertyId = (short) (octet2 | octet1);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid data");
-            }
-            final MarshalledPropertyId marshalledPropertyId = new MarshalledPropertyId(sensorFormat, length, DeviceProperty.from(sensorFormat, propertyId));
-            final byte[] raw = Arrays.copyOfRange(mParameters, offset, offset + length);
-            final MarshalledSensorData marshalledSensorData = new MarshalledSensorData(marshalledPropertyId, raw);
-            MeshLogger.debug(TAG, "Result: " + marshalledSensorData.toString());
-            marshalledSensorDataList.add(marshalledSensorData);
-            offset += length;
-        }
+        // The marshalled sensor data is decoded on demand, see getMarshalledSensorData() and getSensorData()
     }
 
     @Override
@@ -121,7 +93,39 @@ public final class SensorStatus extends ApplicationStatusMessage implements Parc
         dest.writeParcelable(message, flags);
     }
 
-    public ArrayList<MarshalledSensorData> getMarshalledSensorData() {
+    /**
+     * Returns the marshalled sensor data.
+     * <p>
+     * The list is created on the first call. Use {@link #getSensorData(SensorDataReader)} to read the values without
+     * allocating objects for each property.
+     * </p>
+     */
+    public synchronized ArrayList<MarshalledSensorData> getMarshalledSensorData() {
+        if (marshalledSensorDataList == null) {
+            final ArrayList<MarshalledSensorData> list = new ArrayList<>();
+            final SensorDataReader reader = getSensorData(new SensorDataReader());
+            while (reader.next()) {
+                final MarshalledPropertyId marshalledPropertyId = new MarshalledPropertyId(reader.getSensorFormat(),
+                        reader.getLength(), DeviceProperty.from((short) reader.getPropertyId()));
+                final int offset = reader.getValueOffset();
+                final byte[] raw = Arrays.copyOfRange(mParameters, offset, offset + reader.getLength());
+                final MarshalledSensorData marshalledSensorData = new MarshalledSensorData(marshalledPropertyId, raw);
+                MeshLogger.debug(TAG, "Result: " + marshalledSensorData.toString());
+                list.add(marshalledSensorData);
+            }
+            marshalledSensorDataList = list;
+        }
         return marshalledSensorDataList;
     }
+
+    /**
+     * Positions a reader before the first marshalled sensor data of this status.
+     *
+     * @param reader reader, which may be reused for subsequent statuses
+     * @return the reader
+     */
+    @NonNull
+    public SensorDataReader getSensorData(@NonNull final SensorDataReader reader) {
+        return reader.reset(mParameters);
+    }
 }
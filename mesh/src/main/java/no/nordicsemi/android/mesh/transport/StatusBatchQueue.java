@@ -0,0 +1,153 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bounded queue of received status messages that are decoded and delivered to the app in batches.
+ * <p>
+ * Access messages are queued undecoded as they are received. A batch containing every queued message is taken at most
+ * once per interval, so the app is notified at a bounded rate however fast the statuses arrive. When the queue is full
+ * a status is dropped according to the {@link StatusOverflowPolicy}.
+ * </p>
+ */
+final class StatusBatchQueue {
+
+    static final long DEFAULT_INTERVAL = 200;
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final long mInterval;
+    private final int mCapacity;
+    private final StatusOverflowPolicy mPolicy;
+    private final ArrayDeque<Entry> mEntries;
+    private long mLastBatchTime = Long.MIN_VALUE;
+    private boolean mScheduled;
+    private int mDroppedCount;
+
+    /**
+     * Queued status message.
+     */
+    static final class Entry {
+
+        final AccessMessage message;
+        final StatusFactory factory;
+
+        Entry(@NonNull final AccessMessage message, @NonNull final StatusFactory factory) {
+            this.message = message;
+            this.factory = factory;
+        }
+
+        /**
+         * Decodes the status message.
+         */
+        @NonNull
+        MeshMessage decode() {
+            return factory.create(message);
+        }
+    }
+
+    /**
+     * Constructs the StatusBatchQueue
+     *
+     * @param interval minimum interval between two batches in milliseconds
+     * @param capacity maximum number of queued statuses
+     * @param policy   {@link StatusOverflowPolicy} applied when the queue is full
+     * @throws IllegalArgumentException if the interval is not positive or the capacity is less than 1
+     */
+    StatusBatchQueue(final long interval, final int capacity, @NonNull final StatusOverflowPolicy policy) {
+        if (interval <= 0)
+            throw new IllegalArgumentException("Batch interval must be positive");
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        mInterval = interval;
+        mCapacity = capacity;
+        mPolicy = policy;
+        mEntries = new ArrayDeque<>(Math.min(capacity, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Returns the number of statuses dropped because the queue was full.
+     */
+    synchronized int getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Returns the number of queued statuses.
+     */
+    synchronized int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Queues a status message.
+     *
+     * @param message access message received
+     * @param factory creates the status message from the access message
+     * @return true if a batch must be scheduled, false if one already is
+     */
+    synchronized boolean offer(@NonNull final AccessMessage message, @NonNull final StatusFactory factory) {
+        if (mEntries.size() >= mCapacity) {
+            drop(message.getSrc());
+        }
+        mEntries.addLast(new Entry(message, factory));
+        if (mScheduled)
+            return false;
+        mScheduled = true;
+        return true;
+    }
+
+    /**
+     * Returns the time at which the next batch may be taken, in the time base of {@link #poll(long)}.
+     */
+    synchronized long getNextBatchTime() {
+        return mLastBatchTime == Long.MIN_VALUE ? Long.MIN_VALUE : mLastBatchTime + mInterval;
+    }
+
+    /**
+     * Takes all queued statuses if the interval since the last batch has elapsed.
+     *
+     * @param now current time in milliseconds
+     * @return the batch, or null if the interval has not elapsed yet and the batch must be scheduled again
+     */
+    @Nullable
+    synchronized List<Entry> poll(final long now) {
+        if (mLastBatchTime != Long.MIN_VALUE && now < mLastBatchTime + mInterval)
+            return null;
+        final List<Entry> batch = new ArrayList<>(mEntries);
+        mEntries.clear();
+        mLastBatchTime = now;
+        mScheduled = false;
+        return batch;
+    }
+
+    /**
+     * Takes all queued statuses regardless of the interval.
+     */
+    @NonNull
+    synchronized List<Entry> drain() {
+        final List<Entry> batch = new ArrayList<>(mEntries);
+        mEntries.clear();
+        mScheduled = false;
+        return batch;
+    }
+
+    private void drop(final int src) {
+        mDroppedCount++;
+        if (mPolicy == StatusOverflowPolicy.LATEST_PER_SOURCE) {
+            final Iterator<Entry> iterator = mEntries.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().message.getSrc() == src) {
+                    iterator.remove();
+                    return;
+                }
+            }
+        }
+        mEntries.pollFirst();
+    }
+}
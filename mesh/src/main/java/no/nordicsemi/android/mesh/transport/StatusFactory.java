@@ -0,0 +1,17 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Creates a status message from a received access message.
+ */
+interface StatusFactory {
+
+    /**
+     * Creates the status message.
+     *
+     * @param message access message received by the access layer
+     */
+    @NonNull
+    MeshMessage create(@NonNull final AccessMessage message);
+}
@@ -0,0 +1,20 @@
+package no.nordicsemi.android.mesh.transport;
+
+/**
+ * Defines which status is dropped when the queue of batched status messages is full.
+ *
+ * @see no.nordicsemi.android.mesh.MeshMngrApi#setStatusBatching(long, int, StatusOverflowPolicy)
+ */
+public enum StatusOverflowPolicy {
+
+    /**
+     * The oldest queued status is dropped.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The oldest queued status of the same source is dropped, so that the latest status of every source is kept.
+     * If no status of the same source is queued, the oldest queued status is dropped.
+     */
+    LATEST_PER_SOURCE
+}
@@ -23,6 +23,7 @@
 package no.nordicsemi.android.mesh.transport;
 
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.metrics.MeshTracer;
 
 import org.spongycastle.crypto.InvalidCipherTextException;
 
@@ -180,8 +181,10 @@ abstract class UpperTransportLayer extends AccessLayer {
                     if (message instanceof AccessMessage) { //Access message
                         final AccessMessage accessMessage = (AccessMessage) message;
                         reassembleLowerTransportAccessPDU(accessMessage);
+                        final long start = MeshTracer.begin();
                         final byte[] decryptedUpperTransportControlPdu = decryptUpperTransportPDU(accessMessage);
                         accessMessage.setAccessPdu(decryptedUpperTransportControlPdu);
+                        MeshTracer.end("upper_transport.decrypt", accessMessage.getSrc(), start);
                     } else {
                         //TODO
                         //this where control messages such as heartbeat and friendship messages are to be implemented
@@ -201,6 +204,7 @@ abstract class UpperTransportLayer extends AccessLayer {
                     break;
             }
         } catch (InvalidCipherTextException ex) {
+            MeshTracer.instant("upper_transport.decrypt_failed", message.getSrc());
             throw new ExtendedInvalidCipherTextException(ex.getMessage(), ex.getCause(), TAG);
         }
     }
@@ -212,6 +216,7 @@ abstract class UpperTransportLayer extends AccessLayer {
      * @return encrypted upper transport pdu
      */
     private byte[] encryptUpperTransportPDU(@NonNull final AccessMessage message) {
+        final long start = MeshTracer.begin();
         final byte[] accessPDU = message.getAccessPdu();
         final int akf = message.getAkf();
         final int aszmic = message.getAszmic(); // upper transport layer will always have the aszmic as 0 because the mic is always 32bit
@@ -241,11 +246,14 @@ abstract class UpperTransportLayer extends AccessLayer {
         } else {
             transMicLength = SecureUtils.getTransMicLength(message.getAszmic());
         }
+        final byte[] upperTransportPdu;
         if (MeshAddress.isValidVirtualAddress(dst)) {
-            return SecureUtils.encryptCCM(accessPDU, key, nonce, MeshParserUtils.uuidToBytes(message.getLabel()), transMicLength);
+            upperTransportPdu = SecureUtils.encryptCCM(accessPDU, key, nonce, MeshParserUtils.uuidToBytes(message.getLabel()), transMicLength);
         } else {
-            return SecureUtils.encryptCCM(accessPDU, key, nonce, transMicLength);
+            upperTransportPdu = SecureUtils.encryptCCM(accessPDU, key, nonce, transMicLength);
         }
+        MeshTracer.end("upper_transport.encrypt", dst, start);
+        return upperTransportPdu;
     }
 
     /**
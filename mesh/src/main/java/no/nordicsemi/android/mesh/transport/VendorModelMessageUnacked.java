@@ -48,6 +48,11 @@ public class VendorModelMessageUnacked extends ApplicationMessage {
         return mOpCode;
     }
 
+    @Override
+    public boolean isUnacknowledged() {
+        return true;
+    }
+
     /**
      * Returns the company identifier of the model
      *
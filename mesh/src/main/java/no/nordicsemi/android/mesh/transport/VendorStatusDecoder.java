@@ -0,0 +1,26 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Decodes vendor model messages received from the mesh network.
+ * <p>
+ * Decoders are registered for a company identifier and a vendor opcode using
+ * {@link no.nordicsemi.android.mesh.MeshMngrApi#registerVendorStatusDecoder(int, int, VendorStatusDecoder)} and are used
+ * for every matching message, including unsolicited messages such as publications.
+ * </p>
+ */
+public interface VendorStatusDecoder {
+
+    /**
+     * Decodes a vendor model message.
+     *
+     * @param message access message received, containing the source address, opcode, company identifier and parameters
+     * @return the decoded message delivered to
+     * {@link no.nordicsemi.android.mesh.MeshStatusCallbacks#onMeshMessageReceived(int, MeshMessage)},
+     * usually a {@link VendorModelMessageStatus}, or null if the message could not be decoded
+     */
+    @Nullable
+    MeshMessage decode(@NonNull final AccessMessage message);
+}
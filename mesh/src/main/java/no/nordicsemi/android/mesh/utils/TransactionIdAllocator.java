@@ -0,0 +1,69 @@
+package no.nordicsemi.android.mesh.utils;
+
+import android.util.SparseIntArray;
+
+import java.util.Random;
+
+/**
+ * Allocates Transaction Identifiers (TID) for transactional messages such as Generic OnOff Set, Generic Level Set,
+ * Light Lightness Set or Scene Recall.
+ * <p>
+ * Servers treat messages with the same source, destination and TID received within 6 seconds as a single transaction.
+ * A new TID must therefore be allocated for every new value sent to a destination, while repeated transmissions of the
+ * same value must reuse the TID allocated for it.
+ * </p>
+ */
+public final class TransactionIdAllocator {
+
+    private static final int TID_MASK = 0xFF;
+
+    private final SparseIntArray mLastTransactionIds = new SparseIntArray();
+    private final Random mRandom = new Random();
+
+    /**
+     * Allocates the next transaction identifier for a given destination.
+     * <p>
+     * The first identifier for a destination is chosen at random so that the provisioner does not collide with
+     * the identifiers used before the application was restarted.
+     * </p>
+     *
+     * @param dst Destination address.
+     * @return transaction identifier ranging from 0x00 to 0xFF.
+     */
+    public synchronized int next(final int dst) {
+        final int index = mLastTransactionIds.indexOfKey(dst);
+        final int tid;
+        if (index < 0) {
+            tid = mRandom.nextInt(TID_MASK + 1);
+        } else {
+            tid = (mLastTransactionIds.valueAt(index) + 1) & TID_MASK;
+        }
+        mLastTransactionIds.put(dst, tid);
+        return tid;
+    }
+
+    /**
+     * Returns the last transaction identifier allocated for a given destination or -1 if none was allocated.
+     *
+     * @param dst Destination address.
+     */
+    public synchronized int last(final int dst) {
+        return mLastTransactionIds.get(dst, -1);
+    }
+
+    /**
+     * Forgets the transaction identifiers allocated for a given destination.
+     *
+     * @param dst Destination address.
+     */
+    public synchronized void reset(final int dst) {
+        mLastTransactionIds.delete(dst);
+    }
+
+    /**
+     * Forgets all allocated transaction identifiers.
+     */
+    public synchronized void clear() {
+        mLastTransactionIds.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CommitJournalTest {
+
+    private final List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger transactions = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    private CommitJournal createJournal(final CommitJournal.Transactor transactor) {
+        return new CommitJournal(transactor, completed::addAndGet);
+    }
+
+    @Test
+    public void enqueue_appliesMutationsInOrderInFewTransactions() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CommitJournal journal = createJournal(batch -> {
+            transactions.incrementAndGet();
+            batch.run();
+        });
+        // Hold the writer so that the following mutations are queued and batched
+        journal.enqueue(() -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        long sequence = 0;
+        for (int i = 0; i < 1000; i++) {
+            final int value = i;
+            sequence = journal.enqueue(() -> applied.add(value));
+        }
+        blocked.countDown();
+        journal.awaitCompleted(sequence);
+
+        assertEquals(1000, applied.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) applied.get(i));
+        }
+        // One transaction for the blocking mutation and 1000 / MAX_BATCH_SIZE rounded up for the rest
+        assertTrue(transactions.get() <= 1 + (1000 + CommitJournal.MAX_BATCH_SIZE - 1) / CommitJournal.MAX_BATCH_SIZE);
+        assertEquals(1001, completed.get());
+
+        final DatabaseWriteMetrics metrics = journal.getMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1001, metrics.getCommittedWrites());
+        assertEquals(0, metrics.getFailedWrites());
+        assertEquals(transactions.get(), metrics.getFlushes());
+        // The writer may have taken some of the mutations along with the blocking one
+        assertTrue(metrics.getMaxQueueDepth() >= 1000 - CommitJournal.MAX_BATCH_SIZE);
+        assertTrue(metrics.getMaxFlushLatencyMicros() >= metrics.getAverageFlushLatencyMicros());
+    }
+
+    @Test
+    public void flush_appliesMutationsOneByOneIfTheBatchFails() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        // Rolls back the mutations of a failed transaction
+        final CommitJournal journal = createJournal(batch -> {
+            transactions.incrementAndGet();
+            final List<Integer> snapshot = new ArrayList<>(applied);
+            try {
+                batch.run();
+            } catch (RuntimeException ex) {
+                applied.clear();
+                applied.addAll(snapshot);
+                throw ex;
+            }
+        });
+        journal.enqueue(() -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        journal.enqueue(() -> applied.add(1));
+        journal.enqueue(() -> {
+            throw new IllegalStateException("Constraint failed");
+        });
+        final long sequence = journal.enqueue(() -> applied.add(3));
+        blocked.countDown();
+        journal.awaitCompleted(sequence);
+
+        assertEquals(2, applied.size());
+        assertEquals(1, (int) applied.get(0));
+        assertEquals(3, (int) applied.get(1));
+        final DatabaseWriteMetrics metrics = journal.getMetrics();
+        assertEquals(3, metrics.getCommittedWrites());
+        assertEquals(1, metrics.getFailedWrites());
+    }
+
+    @Test
+    public void awaitCompleted_returnsAfterPrecedingMutations() throws InterruptedException {
+        final CommitJournal journal = createJournal(Runnable::run);
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            journal.enqueue(() -> applied.add(value));
+        }
+        journal.awaitCompleted(journal.getLastSequence());
+        assertEquals(10, applied.size());
+        assertEquals(10, journal.getLastSequence());
+        assertEquals(10, completed.get());
+    }
+
+    @Test
+    public void flush_releasesWaitersIfTheListenerThrows() throws InterruptedException {
+        final CommitJournal journal = new CommitJournal(Runnable::run, count -> {
+            if (completed.getAndAdd(count) == 0)
+                throw new IllegalStateException("Listener failed");
+        });
+        journal.awaitCompleted(journal.enqueue(() -> applied.add(1)));
+
+        // The writer keeps applying mutations enqueued afterwards
+        journal.awaitCompleted(journal.enqueue(() -> applied.add(2)));
+        assertEquals(2, applied.size());
+        assertEquals(2, completed.get());
+        assertEquals(2, journal.getMetrics().getCommittedWrites());
+    }
+
+    @Test
+    public void flush_releasesWaitersIfAMutationThrowsAnError() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CommitJournal journal = createJournal(Runnable::run);
+        journal.enqueue(() -> {
+            try {
+                blocked.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            throw new AssertionError("Mutation failed");
+        });
+        final long failed = journal.enqueue(() -> applied.add(1));
+        blocked.countDown();
+        journal.awaitCompleted(failed);
+
+        // Mutations queued behind the failed batch are still applied
+        journal.awaitCompleted(journal.enqueue(() -> applied.add(2)));
+        assertEquals(2, (int) applied.get(applied.size() - 1));
+        final DatabaseWriteMetrics metrics = journal.getMetrics();
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(3, metrics.getCommittedWrites() + metrics.getFailedWrites());
+        assertTrue(metrics.getFailedWrites() >= 1);
+    }
+}
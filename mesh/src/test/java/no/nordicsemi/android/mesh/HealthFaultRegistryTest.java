@@ -0,0 +1,68 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HealthFaultRegistryTest {
+
+    private static final int ELEMENT = 0x0002;
+    private static final int OTHER_ELEMENT = 0x0003;
+    private static final int NORDIC = 0x0059;
+    private static final int OTHER_COMPANY = 0x0001;
+
+    private final HealthFaultRegistry registry = new HealthFaultRegistry();
+
+    @Test
+    public void currentFaults_areKeptPerElementAndCompany() {
+        final HealthFaults faults = registry.addCurrentFaults(ELEMENT, 0, NORDIC, new byte[]{0x05, 0x01, (byte) 0xA0, 0x01}, 1000);
+        registry.addCurrentFaults(ELEMENT, 0, OTHER_COMPANY, null, 1000);
+
+        assertNotNull(faults);
+        assertArrayEquals(new int[]{0x01, 0x05, 0xA0}, faults.getCurrentFaults());
+        assertTrue(faults.hasCurrentFault(0xA0));
+        assertEquals(0, faults.getRegisteredFaults().length);
+        assertFalse(registry.get(ELEMENT, OTHER_COMPANY).hasCurrentFaults());
+        assertEquals(2, registry.getAll(false).size());
+        assertEquals(1, registry.getAll(true).size());
+    }
+
+    @Test
+    public void identicalReports_areCountedAsDuplicates() {
+        assertNotNull(registry.addCurrentFaults(ELEMENT, 0, NORDIC, new byte[]{0x05}, 1000));
+        assertNull(registry.addCurrentFaults(ELEMENT, 0, NORDIC, new byte[]{0x05, 0x05}, 2000));
+        // The first report of registered faults is not a duplicate of the current faults
+        assertNotNull(registry.addRegisteredFaults(ELEMENT, 0, NORDIC, new byte[]{0x05}, 3000));
+        assertNotNull(registry.addCurrentFaults(ELEMENT, 0, NORDIC, new byte[]{0x00}, 4000));
+
+        final HealthFaults faults = registry.get(ELEMENT, NORDIC);
+        assertEquals(4, faults.getReportCount());
+        assertEquals(1, faults.getDuplicateCount());
+        assertEquals(4000, faults.getLastChange());
+        assertFalse(faults.hasCurrentFaults());
+        assertArrayEquals(new int[]{0x05}, faults.getRegisteredFaults());
+    }
+
+    @Test
+    public void testIdChange_isNotADuplicate() {
+        registry.addCurrentFaults(ELEMENT, 0, NORDIC, null, 1000);
+        assertNotNull(registry.addCurrentFaults(ELEMENT, 1, NORDIC, null, 2000));
+        assertEquals(1, registry.get(ELEMENT, NORDIC).getTestId());
+    }
+
+    @Test
+    public void remove_dropsAllCompaniesOfElement() {
+        registry.addCurrentFaults(ELEMENT, 0, NORDIC, new byte[]{0x01}, 1000);
+        registry.addCurrentFaults(ELEMENT, 0, OTHER_COMPANY, new byte[]{0x01}, 1000);
+        registry.addCurrentFaults(OTHER_ELEMENT, 0, NORDIC, new byte[]{0x01}, 1000);
+        registry.remove(ELEMENT);
+
+        assertEquals(1, registry.getAll(false).size());
+        assertEquals(OTHER_ELEMENT, registry.getAll(false).get(0).getElementAddress());
+    }
+}
@@ -0,0 +1,80 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.HEALTH_FAULT_GET;
+import static org.junit.Assert.assertEquals;
+
+public class HealthPollingSchedulerTest {
+
+    private static final int SERVER = 0x0002;
+    private static final int PUBLISHING_SERVER = 0x0003;
+    private static final int NORDIC = 0x0059;
+    private static final long PUBLISH_PERIOD = 60 * 1000;
+
+    private final List<Integer> sent = new ArrayList<>();
+    private final ApplicationKey appKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734FBD76E3B40519D1D94A48"));
+    private HealthPollingScheduler scheduler;
+    private long now;
+
+    @Before
+    public void setUp() {
+        scheduler = new HealthPollingScheduler((dst, factory) -> {
+            assertEquals(HEALTH_FAULT_GET, factory.getOpCode());
+            sent.add(dst);
+        });
+    }
+
+    /**
+     * Runs the scheduler until a given time, like the handler would.
+     */
+    private void runUntil(final long time) {
+        while (true) {
+            final long next = scheduler.poll(now);
+            if (next > time)
+                break;
+            now = Math.max(now, next);
+        }
+        now = time;
+    }
+
+    @Test
+    public void poll_pollsServersThatDoNotPublish() {
+        scheduler.add(SERVER, appKey, NORDIC, 0, now);
+        runUntil(HealthPollingScheduler.DEFAULT_INTERVAL * 2);
+        assertEquals(3, sent.size());
+
+        // A status received delays the next poll
+        scheduler.onStatusReceived(SERVER, now);
+        runUntil(now + HealthPollingScheduler.DEFAULT_INTERVAL - 1);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void poll_fallsBackToPollingWhenPublicationsStop() {
+        scheduler.add(PUBLISHING_SERVER, appKey, NORDIC, PUBLISH_PERIOD, now);
+        for (long time = PUBLISH_PERIOD; time <= 5 * PUBLISH_PERIOD; time += PUBLISH_PERIOD) {
+            runUntil(time);
+            scheduler.onStatusReceived(PUBLISHING_SERVER, now);
+        }
+        assertEquals(0, sent.size());
+
+        runUntil(now + 2 * PUBLISH_PERIOD);
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void poll_spreadsRequestsOverTime() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.add(SERVER + i, appKey, NORDIC, 0, now);
+        }
+        runUntil(5 * 1000);
+        assertEquals(6, sent.size());
+    }
+}
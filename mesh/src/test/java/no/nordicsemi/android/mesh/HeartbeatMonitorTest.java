@@ -0,0 +1,109 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HeartbeatMonitorTest {
+
+    private static final int NODE = 0x0002;
+    private static final int OTHER_NODE = 0x0010;
+    private static final long PERIOD = 4000;
+
+    private final List<int[]> missed = new ArrayList<>();
+    private HeartbeatMonitor monitor;
+    private long now;
+
+    @Before
+    public void setUp() {
+        monitor = new HeartbeatMonitor((src, count) -> missed.add(new int[]{src, count}));
+        now = 100_000;
+    }
+
+    /**
+     * Advances the monitor until a given time, like the handler would.
+     */
+    private void runUntil(final long time) {
+        while (true) {
+            final long next = monitor.advance(now);
+            if (next > time)
+                break;
+            now = Math.max(now, next);
+        }
+        now = time;
+        monitor.advance(now);
+    }
+
+    @Test
+    public void heartbeat_tracksHopsAndFeatures() {
+        monitor.onHeartbeatReceived(NODE, 5, 5, 0x03, 0, now);
+        monitor.onHeartbeatReceived(NODE, 5, 2, 0x01, 0, now + 10);
+        monitor.onHeartbeatReceived(NODE, 5, 4, 0x01, 0, now + 20);
+
+        final int index = monitor.indexOf(NODE);
+        assertEquals(1, monitor.size());
+        assertEquals(NODE, monitor.getSource(index));
+        assertEquals(2, monitor.getHops(index));
+        assertEquals(1, monitor.getMinHops(index));
+        assertEquals(4, monitor.getMaxHops(index));
+        assertEquals(0x01, monitor.getFeatures(index));
+        assertEquals(3, monitor.getReceivedCount(index));
+        assertEquals(now + 20, monitor.getLastSeen(index));
+        assertEquals(-1, monitor.indexOf(OTHER_NODE));
+    }
+
+    @Test
+    public void advance_reportsMissedHeartbeats() {
+        monitor.onHeartbeatReceived(NODE, 5, 5, 0, PERIOD, now);
+        monitor.onHeartbeatReceived(OTHER_NODE, 5, 5, 0, PERIOD, now);
+        final long start = now;
+
+        // The other node keeps publishing
+        for (long time = start + PERIOD; time <= start + 3 * PERIOD; time += PERIOD) {
+            runUntil(time);
+            monitor.onHeartbeatReceived(OTHER_NODE, 5, 5, 0, 0, now);
+        }
+
+        assertEquals(2, missed.size());
+        assertEquals(NODE, missed.get(0)[0]);
+        assertEquals(1, missed.get(0)[1]);
+        assertEquals(2, missed.get(1)[1]);
+        final int index = monitor.indexOf(NODE);
+        assertEquals(2, monitor.getMissedCount(index));
+        assertFalse(monitor.isAlive(index));
+        assertTrue(monitor.isAlive(monitor.indexOf(OTHER_NODE)));
+
+        monitor.onHeartbeatReceived(NODE, 5, 5, 0, 0, now);
+        assertTrue(monitor.isAlive(index));
+        assertEquals(0, monitor.getConsecutiveMissedCount(index));
+    }
+
+    @Test
+    public void advance_catchesUpAfterLongPause() {
+        monitor.expect(NODE, PERIOD, now);
+        now += 10 * 60 * 1000;
+        monitor.advance(now);
+
+        assertEquals(1, missed.size());
+        assertEquals(149, missed.get(0)[1]);
+    }
+
+    @Test
+    public void remove_keepsOtherNodesScheduled() {
+        monitor.expect(NODE, PERIOD, now);
+        monitor.expect(OTHER_NODE, 2 * PERIOD, now);
+        monitor.remove(NODE);
+
+        assertEquals(1, monitor.size());
+        assertEquals(0, monitor.indexOf(OTHER_NODE));
+        runUntil(now + 3 * PERIOD);
+        assertEquals(1, missed.size());
+        assertEquals(OTHER_NODE, missed.get(0)[0]);
+    }
+}
@@ -0,0 +1,216 @@
+package no.nordicsemi.android.mesh;
+
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.NetworkTransmitSettings;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ImportExportUtilsTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String MESH_UUID = "B3F2A5E1C3D44D0F9C1A2B3C4D5E6F70";
+    private static final String ELEMENTS_JSON = "{\"0\":{\"locationDescriptor\":0,\"meshModels\":{" +
+            "\"0\":{\"mModelId\":0,\"mBoundAppKeyIndexes\":[],\"subscriptionAddresses\":[],\"labelUuids\":[]}," +
+            "\"4096\":{\"mModelId\":4096,\"mBoundAppKeyIndexes\":[0],\"subscriptionAddresses\":[49154]," +
+            "\"labelUuids\":[],\"mPublicationSettings\":{\"publishAddress\":49153,\"appKeyIndex\":0," +
+            "\"credentialFlag\":false,\"publishTtl\":5,\"publicationSteps\":2,\"publicationResolution\":1," +
+            "\"publishRetransmitCount\":1,\"publishRetransmitIntervalSteps\":2}}}," +
+            "\"elementAddress\":%d,\"name\":\"Primary\"}}";
+    private static final int NODES = 1000;
+
+    private final ImportExportUtils utils = new ImportExportUtils();
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    @Test
+    public void export_streamMatchesString() throws IOException {
+        final MeshNetwork network = createNetwork(3);
+        final String json = utils.export(network, false);
+        assertNotNull(json);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.export(network, false, outputStream);
+        assertEquals(json, new String(outputStream.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void importNetwork_streamRestoresExportedNetwork() throws IOException {
+        final MeshNetwork network = createNetwork(3);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.export(network, false, outputStream);
+
+        final MeshNetwork restored = utils.importNetwork(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(MeshParserUtils.formatUuid(MESH_UUID), restored.getMeshUUID());
+        assertEquals(network.getMeshName(), restored.getMeshName());
+        assertEquals(1, restored.getNetKeys().size());
+        assertEquals(1, restored.getProvisioners().size());
+        assertEquals(Integer.valueOf(0x0001), restored.getProvisioners().get(0).getProvisionerAddress());
+        assertEquals(4, restored.getNodes().size());
+        final ProvisionedMeshNode node = restored.getNodes().get(1);
+        assertEquals(restored.getMeshUUID(), node.getMeshUuid());
+        assertArrayEquals(network.getNodes().get(1).getDeviceKey(), node.getDeviceKey());
+        final MeshModel model = node.getElements().get(0x0002).getMeshModels().get(0x1000);
+        assertEquals(Collections.singletonList(0xC002), model.getSubscribedAddresses());
+        assertEquals(1, restored.getGroups().size());
+        assertEquals(1, restored.getScenes().size());
+
+        // The string import uses the same reader and must produce the same tree when exported again
+        final MeshNetwork fromString = utils.importNetwork(new String(outputStream.toByteArray(), UTF_8));
+        assertEquals(JsonParser.parseString(utils.export(restored, false)),
+                JsonParser.parseString(utils.export(fromString, false)));
+    }
+
+    @Test
+    public void export_appliesConfigurationWithoutModifyingTheNetwork() throws IOException {
+        final MeshNetwork network = createNetwork(3);
+        final ProvisionedMeshNode exported = network.getNodes().get(1);
+        final ProvisionedMeshNode withoutKey = network.getNodes().get(2);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.export(network,
+                new NetworkKeysConfig.ExportAll().build(),
+                new ApplicationKeysConfig.ExportSome(new ArrayList<>()).build(),
+                new NodesConfig.ExportSome(Collections.singletonList(exported), Collections.singletonList(withoutKey)).build(),
+                new ProvisionersConfig.ExportAll().build(),
+                new GroupsConfig.ExportRelated().build(),
+                new ScenesConfig.ExportAll().build(),
+                outputStream);
+
+        final MeshNetwork partial = utils.importNetwork(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertTrue(partial.isPartial());
+        assertEquals(0, partial.getAppKeys().size());
+        // The selected nodes followed by the provisioner node
+        assertEquals(3, partial.getNodes().size());
+        assertNotNull(partial.getNodes().get(0).getDeviceKey());
+        // Device keys that are not exported are written as an empty string
+        assertEquals(0, partial.getNodes().get(1).getDeviceKey().length);
+        final MeshModel model = partial.getNodes().get(0).getElements().get(0x0002).getMeshModels().get(0x1000);
+        assertTrue(model.getBoundAppKeyIndexes().isEmpty());
+        assertNull(model.getPublicationSettings());
+        // The group is still related through the subscription, the publication used an excluded key
+        assertEquals(1, partial.getGroups().size());
+        assertEquals(Arrays.asList(0x0002, 0x0003), partial.getScenes().get(0).getAddresses());
+
+        // The network itself is left untouched
+        assertNotNull(withoutKey.getDeviceKey());
+        final MeshModel original = exported.getElements().get(0x0002).getMeshModels().get(0x1000);
+        assertEquals(Collections.singletonList(0), original.getBoundAppKeyIndexes());
+        assertNotNull(original.getPublicationSettings());
+        assertEquals(Arrays.asList(0x0002, 0x0003, 0x0004), network.getScenes().get(0).getAddresses());
+    }
+
+    @Test
+    public void export_streamWritesInBoundedChunks() throws IOException {
+        final MeshNetwork network = createNetwork(NODES);
+        final long[] written = new long[2]; // Total bytes written and largest single write
+        final OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(@NonNull final byte[] b, final int off, final int len) {
+                written[0] += len;
+                written[1] = Math.max(written[1], len);
+            }
+        };
+        utils.export(network, false, outputStream);
+
+        // The document is never held in memory as a whole, it reaches the stream one buffer at a time
+        assertTrue(written[0] > 1024 * 1024);
+        assertTrue(written[1] <= 64 * 1024);
+    }
+
+    static MeshNetwork createNetwork(final int nodes) {
+        final MeshNetwork network = new MeshNetwork(MESH_UUID);
+        network.meshName = "Mesh Network";
+        network.ivIndex = new IvIndex(3, false, Calendar.getInstance());
+
+        final NetworkKey netKey = new NetworkKey(0, MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6"));
+        netKey.setMeshUuid(MESH_UUID);
+        network.netKeys.add(netKey);
+        final ApplicationKey appKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734FBD76E3B40519D1D94A48"));
+        appKey.setMeshUuid(MESH_UUID);
+        network.appKeys.add(appKey);
+
+        final List<AllocatedUnicastRange> unicastRanges = new ArrayList<>();
+        unicastRanges.add(new AllocatedUnicastRange(0x0001, 0x7FFF));
+        final List<AllocatedGroupRange> groupRanges = new ArrayList<>();
+        groupRanges.add(new AllocatedGroupRange(0xC000, 0xFEFF));
+        final List<AllocatedSceneRange> sceneRanges = new ArrayList<>();
+        sceneRanges.add(new AllocatedSceneRange(0x0001, 0x3333));
+        final String provisionerUuid = UUID.randomUUID().toString().toUpperCase();
+        final Provisioner provisioner = new Provisioner(provisionerUuid, unicastRanges, groupRanges, sceneRanges, MESH_UUID);
+        provisioner.setProvisionerName("Provisioner");
+        provisioner.setProvisionerAddress(0x0001);
+        network.provisioners.add(provisioner);
+        network.nodes.add(new ProvisionedMeshNode(provisioner, network.netKeys, network.appKeys));
+
+        final MeshTypeConverters converters = new MeshTypeConverters();
+        for (int i = 0; i < nodes; i++) {
+            final int address = 0x0002 + i;
+            final ProvisionedMeshNode node = new ProvisionedMeshNode();
+            node.setUuid(UUID.randomUUID().toString().toUpperCase());
+            node.setMeshUuid(MESH_UUID);
+            node.setNodeName("Node " + i);
+            node.setUnicastAddress(address);
+            node.setConfigured(true);
+            node.setDeviceKey(MeshParserUtils.toByteArray("9D6DD0E96EB25DC19A40ED9914F8F03F"));
+            node.setCompanyIdentifier(0x0059);
+            node.setNetworkTransmitSettings(new NetworkTransmitSettings(3, 2));
+            node.setAddedNetKeys(new ArrayList<>(Collections.singletonList(new NodeKey(0))));
+            node.setAddedAppKeys(new ArrayList<>(Collections.singletonList(new NodeKey(0))));
+            final Map<Integer, Element> elements = converters.fromJsonToElements(String.format(ELEMENTS_JSON, address));
+            final Element element = elements.remove(0);
+            elements.put(address, element);
+            node.setElements(elements);
+            network.nodes.add(node);
+        }
+
+        final Group group = new Group(0xC002, MESH_UUID);
+        group.setName("Group");
+        network.groups.add(group);
+        final Scene scene = new Scene(1, new ArrayList<>(Arrays.asList(0x0002, 0x0003, 0x0004)), MESH_UUID);
+        scene.setName("Scene");
+        network.scenes.add(scene);
+        return network;
+    }
+}
@@ -0,0 +1,204 @@
+package no.nordicsemi.android.mesh;
+
+import android.os.Handler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.utils.TransactionIdAllocator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MeshMessageCoalescerTest {
+
+    private static final int DST = 0x0002;
+    private static final int OTHER_DST = 0x0003;
+    private static final int OP_LEVEL = 0x8206;
+    private static final int OP_ONOFF = 0x8202;
+
+    private final List<Object[]> posted = new ArrayList<>();
+    private MeshMngrApi api;
+    private TransactionIdAllocator allocator;
+    private MeshMessageCoalescer coalescer;
+    private long now;
+
+    @Before
+    public void setUp() {
+        final Handler handler = mock(Handler.class);
+        doAnswer(invocation -> {
+            posted.add(new Object[]{now + (long) invocation.getArgument(1), invocation.getArgument(0)});
+            return true;
+        }).when(handler).postDelayed(any(Runnable.class), anyLong());
+        doAnswer(invocation -> {
+            final Iterator<Object[]> iterator = posted.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next()[1] == invocation.getArgument(0))
+                    iterator.remove();
+            }
+            return null;
+        }).when(handler).removeCallbacks(any(Runnable.class));
+        api = mock(MeshMngrApi.class);
+        allocator = mock(TransactionIdAllocator.class);
+        coalescer = new MeshMessageCoalescer(handler, api, allocator);
+    }
+
+    /**
+     * Runs the posted callbacks that are due until a given time, like the handler would.
+     */
+    private void runUntil(final long time) {
+        while (true) {
+            Object[] next = null;
+            for (Object[] callback : posted) {
+                if (next == null || (long) callback[0] < (long) next[0])
+                    next = callback;
+            }
+            if (next == null || (long) next[0] > time)
+                break;
+            posted.remove(next);
+            now = (long) next[0];
+            ((Runnable) next[1]).run();
+        }
+        now = time;
+    }
+
+    private static TransactionalMessageFactory factory(final int opCode, final MeshMessage message) {
+        return new TransactionalMessageFactory() {
+            @Override
+            public int getOpCode() {
+                return opCode;
+            }
+
+            @NonNull
+            @Override
+            public MeshMessage createMessage(final int tid) {
+                return message;
+            }
+        };
+    }
+
+    @Test
+    public void submit_sendsFromTheHandler() {
+        final MeshMessage message = mock(MeshMessage.class);
+        coalescer.submit(DST, factory(OP_LEVEL, message));
+
+        verify(api, never()).createMeshPdu(anyInt(), any(MeshMessage.class));
+        runUntil(0);
+        verify(api).createMeshPdu(DST, message);
+    }
+
+    @Test
+    public void submit_replacesPendingMessageWithTheSameOpCode() {
+        final MeshMessage first = mock(MeshMessage.class);
+        final MeshMessage second = mock(MeshMessage.class);
+        final MeshMessage third = mock(MeshMessage.class);
+        final MeshMessage onOff = mock(MeshMessage.class);
+        coalescer.submit(DST, factory(OP_LEVEL, first));
+        coalescer.submit(DST, factory(OP_ONOFF, onOff));
+        coalescer.submit(DST, factory(OP_LEVEL, second));
+        coalescer.submit(DST, factory(OP_LEVEL, third));
+
+        runUntil(1000);
+
+        final ArgumentCaptor<MeshMessage> sent = ArgumentCaptor.forClass(MeshMessage.class);
+        verify(api, times(2)).createMeshPdu(eq(DST), sent.capture());
+        // The replacement keeps the place of the message it replaced
+        assertSame(third, sent.getAllValues().get(0));
+        assertSame(onOff, sent.getAllValues().get(1));
+        assertEquals(2, coalescer.getSupersededCount());
+    }
+
+    @Test
+    public void submit_limitsRatePerDestination() {
+        coalescer.submit(DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        coalescer.submit(OTHER_DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        runUntil(0);
+        verify(api).createMeshPdu(eq(DST), any(MeshMessage.class));
+        verify(api).createMeshPdu(eq(OTHER_DST), any(MeshMessage.class));
+
+        // A message submitted within the interval waits for the interval to pass
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL / 2);
+        coalescer.submit(DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL - 1);
+        verify(api).createMeshPdu(eq(DST), any(MeshMessage.class));
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL);
+        verify(api, times(2)).createMeshPdu(eq(DST), any(MeshMessage.class));
+        verify(api).createMeshPdu(eq(OTHER_DST), any(MeshMessage.class));
+    }
+
+    @Test
+    public void run_dropsIdleDestinations() {
+        coalescer.submit(DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        runUntil(0);
+        assertEquals(1, coalescer.getDestinationCount());
+
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL);
+        assertEquals(0, coalescer.getDestinationCount());
+        assertTrue(posted.isEmpty());
+
+        // An idle destination is sent to right away again
+        coalescer.submit(DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL);
+        verify(api, times(2)).createMeshPdu(eq(DST), any(MeshMessage.class));
+    }
+
+    @Test
+    public void run_allocatesTransactionIdsOnlyForSentMessages() {
+        when(allocator.next(DST)).thenReturn(7, 8);
+        final List<Integer> tids = new ArrayList<>();
+        final TransactionalMessageFactory factory = new TransactionalMessageFactory() {
+            @Override
+            public int getOpCode() {
+                return OP_LEVEL;
+            }
+
+            @NonNull
+            @Override
+            public MeshMessage createMessage(final int tid) {
+                tids.add(tid);
+                return mock(MeshMessage.class);
+            }
+        };
+        for (int i = 0; i < 5; i++) {
+            coalescer.submit(DST, factory);
+        }
+        runUntil(0);
+        for (int i = 0; i < 5; i++) {
+            coalescer.submit(DST, factory);
+        }
+        runUntil(MeshMessageCoalescer.DEFAULT_INTERVAL);
+
+        verify(allocator, times(2)).next(DST);
+        assertEquals(2, tids.size());
+        assertEquals(7, (int) tids.get(0));
+        assertEquals(8, (int) tids.get(1));
+    }
+
+    @Test
+    public void cancel_dropsPendingMessages() {
+        coalescer.submit(DST, factory(OP_LEVEL, mock(MeshMessage.class)));
+        coalescer.cancel(DST);
+        runUntil(1000);
+
+        verify(api, never()).createMeshPdu(anyInt(), any(MeshMessage.class));
+        assertEquals(0, coalescer.getDestinationCount());
+    }
+}
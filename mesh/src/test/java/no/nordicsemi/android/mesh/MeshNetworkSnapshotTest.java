@@ -0,0 +1,295 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import no.nordicsemi.android.mesh.data.ElementEntity;
+import no.nordicsemi.android.mesh.data.ModelBindingEntity;
+import no.nordicsemi.android.mesh.data.ModelEntity;
+import no.nordicsemi.android.mesh.data.ModelSubscriptionEntity;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ElementEntityMapper;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.NetworkTransmitSettings;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MeshNetworkSnapshotTest {
+
+    private static final String MESH_UUID = "B3F2A5E1C3D44D0F9C1A2B3C4D5E6F70";
+    private static final String ELEMENTS_JSON = "{\"0\":{\"locationDescriptor\":0,\"meshModels\":{" +
+            "\"0\":{\"mModelId\":0,\"mBoundAppKeyIndexes\":[],\"subscriptionAddresses\":[],\"labelUuids\":[]}," +
+            "\"4096\":{\"mModelId\":4096,\"mBoundAppKeyIndexes\":[0],\"subscriptionAddresses\":[49154]," +
+            "\"labelUuids\":[],\"mPublicationSettings\":{\"publishAddress\":49153,\"appKeyIndex\":0," +
+            "\"credentialFlag\":false,\"publishTtl\":5,\"publicationSteps\":2,\"publicationResolution\":1," +
+            "\"publishRetransmitCount\":1,\"publishRetransmitIntervalSteps\":2}}}," +
+            "\"elementAddress\":%d,\"name\":\"Primary\"}}";
+    private static final int NODES = 20;
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        mFile = File.createTempFile("mesh_network", ".snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+    }
+
+    @Test
+    public void encodeDecode_restoresTheNetwork() throws IOException {
+        final MeshNetwork network = createNetwork(2);
+
+        final MeshNetwork restored = MeshNetworkSnapshot.decode(
+                ByteBuffer.wrap(MeshNetworkSnapshot.encode(network, MeshNetworkDb.DATABASE_VERSION)), MeshNetworkDb.DATABASE_VERSION);
+
+        assertEquals(MESH_UUID, restored.getMeshUUID());
+        assertEquals(network.getMeshName(), restored.getMeshName());
+        assertEquals(network.getTimestamp(), restored.getTimestamp());
+        assertEquals(network.getIvIndex().getIvIndex(), restored.getIvIndex().getIvIndex());
+        assertEquals(network.getNetworkExclusions(), restored.getNetworkExclusions());
+
+        assertEquals(1, restored.getNetKeys().size());
+        final NetworkKey netKey = restored.getNetKeys().get(0);
+        assertEquals(7, netKey.getId());
+        assertArrayEquals(network.getNetKeys().get(0).getKey(), netKey.getKey());
+        assertNull(netKey.getOldKey());
+        assertEquals(1, restored.getAppKeys().size());
+        assertArrayEquals(network.getAppKeys().get(0).getKey(), restored.getAppKeys().get(0).getKey());
+
+        assertEquals(1, restored.getProvisioners().size());
+        final Provisioner provisioner = restored.getProvisioners().get(0);
+        assertEquals(Integer.valueOf(0x0001), provisioner.getProvisionerAddress());
+        assertEquals(0x7FFF, provisioner.getAllocatedUnicastRanges().get(0).getHighAddress());
+        assertEquals(0xFEFF, provisioner.getAllocatedGroupRanges().get(0).getHighAddress());
+
+        assertEquals(2, restored.getNodes().size());
+        final ProvisionedMeshNode node = restored.getNodes().get(1);
+        final ProvisionedMeshNode original = network.getNodes().get(1);
+        assertEquals(original.getUuid(), node.getUuid());
+        assertEquals(original.getUnicastAddress(), node.getUnicastAddress());
+        assertArrayEquals(original.getDeviceKey(), node.getDeviceKey());
+        assertEquals(Integer.valueOf(0x0059), node.getCompanyIdentifier());
+        assertNull(node.getProductIdentifier());
+        assertEquals(3, node.getNetworkTransmitSettings().getNetworkTransmitCount());
+        assertNull(node.getRelaySettings());
+        assertEquals(1, node.getAddedAppKeys().size());
+        final Element element = node.getElements().get(original.getUnicastAddress());
+        assertNotNull(element);
+        final MeshModel model = element.getMeshModels().get(0x1000);
+        assertEquals(Arrays.asList(0xC002), model.getSubscribedAddresses());
+        assertEquals(0xC001, model.getPublicationSettings().getPublishAddress());
+
+        assertEquals(1, restored.getGroups().size());
+        assertEquals(0xC001, restored.getGroups().get(0).getAddress());
+        assertEquals(1, restored.getScenes().size());
+        assertEquals(Arrays.asList(0x0002, 0x0003), restored.getScenes().get(0).getAddresses());
+    }
+
+    @Test
+    public void encodeDecode_keepsNodesWithoutLoadedElementsUnloaded() throws IOException {
+        final MeshNetwork network = createNetwork(2);
+        network.getNodes().get(0).setElementsUnloaded(4);
+
+        final MeshNetwork restored = MeshNetworkSnapshot.decode(
+                ByteBuffer.wrap(MeshNetworkSnapshot.encode(network, MeshNetworkDb.DATABASE_VERSION)), MeshNetworkDb.DATABASE_VERSION);
+
+        final ProvisionedMeshNode node = restored.getNodes().get(0);
+        assertFalse(node.isElementsLoaded());
+        assertEquals(4, node.getNumberOfElements());
+        assertTrue(restored.getNodes().get(1).isElementsLoaded());
+        assertEquals(1, restored.getNodes().get(1).getElements().size());
+        assertEquals(1, restored.getGroups().size());
+    }
+
+    @Test
+    public void decode_rejectsCorruptAndOutdatedSnapshots() {
+        final byte[] data = MeshNetworkSnapshot.encode(createNetwork(1), MeshNetworkDb.DATABASE_VERSION);
+        try {
+            MeshNetworkSnapshot.decode(ByteBuffer.wrap(data), MeshNetworkDb.DATABASE_VERSION + 1);
+            fail("Snapshot of another database version must be rejected");
+        } catch (IOException ignored) {
+        }
+        data[data.length / 2] ^= 0x01;
+        try {
+            MeshNetworkSnapshot.decode(ByteBuffer.wrap(data), MeshNetworkDb.DATABASE_VERSION);
+            fail("Corrupt snapshot must be rejected");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void read_returnsNullOnceAWriteHasBegun() throws IOException {
+        writeFile(MeshNetworkSnapshot.encode(createNetwork(1), MeshNetworkDb.DATABASE_VERSION));
+        final MeshNetworkSnapshot snapshot = new MeshNetworkSnapshot(mFile, MeshNetworkDb.DATABASE_VERSION);
+        assertNotNull(snapshot.read());
+
+        snapshot.beginWrite();
+        assertFalse(mFile.exists());
+        assertNull(snapshot.read());
+        snapshot.endWrite();
+    }
+
+    @Test
+    public void save_encodesTheNetworkOnTheThreadOfTheSource() throws InterruptedException {
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+        final MeshNetwork network = createNetwork(1);
+        final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        final AtomicInteger reads = new AtomicInteger();
+        final MeshNetworkSnapshot snapshot = new MeshNetworkSnapshot(mFile, MeshNetworkDb.DATABASE_VERSION);
+        snapshot.setSource(new MeshNetworkSnapshot.Source() {
+            @Override
+            public MeshNetwork getMeshNetwork() {
+                reads.incrementAndGet();
+                return network;
+            }
+
+            @Override
+            public void execute(final Runnable task) {
+                tasks.add(task);
+            }
+        });
+
+        final Runnable encode = tasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(encode);
+        assertEquals(0, reads.get());
+        encode.run();
+        assertEquals(1, reads.get());
+        for (int i = 0; i < 500 && !mFile.exists(); i++) {
+            Thread.sleep(10);
+        }
+        final MeshNetwork restored = snapshot.read();
+        assertNotNull(restored);
+        assertEquals(MESH_UUID, restored.getMeshUUID());
+        snapshot.setSource(null);
+    }
+
+    @Test
+    public void read_returnsNullForCorruptFiles() throws IOException {
+        writeFile(new byte[]{1, 2, 3});
+        assertNull(new MeshNetworkSnapshot(mFile, MeshNetworkDb.DATABASE_VERSION).read());
+    }
+
+    @Test
+    public void read_restoresTheSameNodesAsTheRoomRows() throws IOException {
+        final MeshNetwork network = createNetwork(NODES);
+        writeFile(MeshNetworkSnapshot.encode(network, MeshNetworkDb.DATABASE_VERSION));
+
+        // The key columns and element rows Room would load for every node
+        final List<ElementEntity> elements = new ArrayList<>();
+        final List<ModelEntity> models = new ArrayList<>();
+        final List<ModelSubscriptionEntity> subscriptions = new ArrayList<>();
+        final List<ModelBindingEntity> bindings = new ArrayList<>();
+        for (ProvisionedMeshNode node : network.getNodes()) {
+            elements.addAll(ElementEntityMapper.toElementEntities(node.getUuid(), node.getElements()));
+            models.addAll(ElementEntityMapper.toModelEntities(node.getUuid(), node.getElements()));
+            subscriptions.addAll(ElementEntityMapper.toSubscriptionEntities(node.getUuid(), node.getElements()));
+            bindings.addAll(ElementEntityMapper.toBindingEntities(node.getUuid(), node.getElements()));
+        }
+        final Map<String, Map<Integer, Element>> rows = ElementEntityMapper.toElements(elements, models, subscriptions, bindings);
+
+        final MeshNetwork restored = new MeshNetworkSnapshot(mFile, MeshNetworkDb.DATABASE_VERSION).read();
+        assertNotNull(restored);
+        assertEquals(NODES, restored.getNodes().size());
+        for (int i = 0; i < NODES; i++) {
+            final ProvisionedMeshNode original = network.getNodes().get(i);
+            final ProvisionedMeshNode node = restored.getNodes().get(i);
+            assertEquals(MeshTypeConverters.nodeKeysToJson(original.getAddedNetKeys()),
+                    MeshTypeConverters.nodeKeysToJson(node.getAddedNetKeys()));
+            assertEquals(MeshTypeConverters.nodeKeysToJson(original.getAddedAppKeys()),
+                    MeshTypeConverters.nodeKeysToJson(node.getAddedAppKeys()));
+            assertEquals(MeshTypeConverters.elementsToJson(rows.get(node.getUuid())),
+                    MeshTypeConverters.elementsToJson(node.getElements()));
+        }
+    }
+
+    private void writeFile(final byte[] data) throws IOException {
+        final FileOutputStream outputStream = new FileOutputStream(mFile);
+        try {
+            outputStream.write(data);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static MeshNetwork createNetwork(final int nodes) {
+        final MeshNetwork network = new MeshNetwork(MESH_UUID);
+        network.ivIndex = new IvIndex(3, false, Calendar.getInstance());
+        network.networkExclusions.put(3, new ArrayList<>(Arrays.asList(0x0010, 0x0011)));
+
+        final NetworkKey netKey = new NetworkKey(0, MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6"));
+        netKey.setId(7);
+        netKey.setMeshUuid(MESH_UUID);
+        network.netKeys.add(netKey);
+        final ApplicationKey appKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734FBD76E3B40519D1D94A48"));
+        appKey.setMeshUuid(MESH_UUID);
+        network.appKeys.add(appKey);
+
+        final List<AllocatedUnicastRange> unicastRanges = new ArrayList<>();
+        unicastRanges.add(new AllocatedUnicastRange(0x0001, 0x7FFF));
+        final List<AllocatedGroupRange> groupRanges = new ArrayList<>();
+        groupRanges.add(new AllocatedGroupRange(0xC000, 0xFEFF));
+        final List<AllocatedSceneRange> sceneRanges = new ArrayList<>();
+        sceneRanges.add(new AllocatedSceneRange(0x0001, 0x3333));
+        final Provisioner provisioner = new Provisioner(UUID.randomUUID().toString(), unicastRanges, groupRanges, sceneRanges, MESH_UUID);
+        provisioner.setProvisionerAddress(0x0001);
+        network.provisioners.add(provisioner);
+
+        final MeshTypeConverters converters = new MeshTypeConverters();
+        for (int i = 0; i < nodes; i++) {
+            final int address = 0x0002 + i;
+            final ProvisionedMeshNode node = new ProvisionedMeshNode();
+            node.setUuid(UUID.randomUUID().toString().replace("-", "").toUpperCase());
+            node.setMeshUuid(MESH_UUID);
+            node.setNodeName("Node " + i);
+            node.setUnicastAddress(address);
+            node.setConfigured(true);
+            node.setDeviceKey(MeshParserUtils.toByteArray("9D6DD0E96EB25DC19A40ED9914F8F03F"));
+            node.setCompanyIdentifier(0x0059);
+            node.setNetworkTransmitSettings(new NetworkTransmitSettings(3, 2));
+            node.setAddedNetKeys(new ArrayList<>(Arrays.asList(new NodeKey(0))));
+            node.setAddedAppKeys(new ArrayList<>(Arrays.asList(new NodeKey(0))));
+            final Map<Integer, Element> elements = converters.fromJsonToElements(String.format(ELEMENTS_JSON, address));
+            final Element element = elements.remove(0);
+            elements.put(address, element);
+            node.setElements(elements);
+            network.nodes.add(node);
+        }
+
+        network.groups.add(new Group(0xC001, MESH_UUID));
+        network.scenes.add(new Scene(1, Arrays.asList(0x0002, 0x0003), MESH_UUID));
+        return network;
+    }
+}
@@ -0,0 +1,125 @@
+package no.nordicsemi.android.mesh;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ElementDbMigrator;
+import no.nordicsemi.android.mesh.transport.InternalMeshModelDeserializer;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class MeshTypeConvertersTest {
+
+    private static final String ELEMENTS_JSON = "{\"0\":{\"locationDescriptor\":0,\"meshModels\":{" +
+            "\"0\":{\"heartbeatPub\":{\"destination\":49153,\"period\":4,\"count\":3,\"ttl\":5," +
+            "\"features\":{\"friend\":2,\"lowPower\":2,\"proxy\":1,\"relay\":1},\"index\":0}," +
+            "\"mModelId\":0,\"mBoundAppKeyIndexes\":[],\"subscriptionAddresses\":[],\"labelUuids\":[]}," +
+            "\"4096\":{\"mModelId\":4096,\"mBoundAppKeyIndexes\":[0,1],\"subscriptionAddresses\":[49154]," +
+            "\"labelUuids\":[],\"mPublicationSettings\":{\"publishAddress\":49153,\"appKeyIndex\":1," +
+            "\"credentialFlag\":false,\"publishTtl\":5,\"publicationSteps\":2,\"publicationResolution\":1," +
+            "\"publishRetransmitCount\":1,\"publishRetransmitIntervalSteps\":2}}}," +
+            "\"elementAddress\":2,\"name\":\"Primary\"}," +
+            "\"1\":{\"locationDescriptor\":\"0001\",\"meshModels\":{" +
+            "\"4098\":{\"mModelId\":4098,\"mBoundAppKeyIndexes\":[0],\"subscriptionAddresses\":[],\"labelUuids\":[]}}," +
+            "\"elementAddress\":[0,3]}}";
+
+    private final MeshTypeConverters mConverters = new MeshTypeConverters();
+
+    @Test
+    public void elements_roundTrip() {
+        final Map<Integer, Element> elements = mConverters.fromJsonToElements(ELEMENTS_JSON);
+        assertElements(elements);
+
+        final Map<Integer, Element> restored = mConverters.fromJsonToElements(MeshTypeConverters.elementsToJson(elements));
+        assertElements(restored);
+        assertEquals(MeshTypeConverters.elementsToJson(elements), MeshTypeConverters.elementsToJson(restored));
+    }
+
+    @Test
+    public void elements_readTheSameAsThePerCallConverter() {
+        final Map<Integer, Element> legacy = legacyFromJsonToElements(ELEMENTS_JSON);
+        final Map<Integer, Element> elements = mConverters.fromJsonToElements(ELEMENTS_JSON);
+        assertEquals(MeshTypeConverters.elementsToJson(legacy), MeshTypeConverters.elementsToJson(elements));
+    }
+
+    @Test
+    public void nodeKeysIvIndexAndRanges_writeTheSameJsonAsReflectiveGson() {
+        final Gson gson = new Gson();
+        final List<NodeKey> keys = Arrays.asList(new NodeKey(0), new NodeKey(1, true));
+        final String keysJson = MeshTypeConverters.nodeKeysToJson(keys);
+        assertEquals(JsonParser.parseString(gson.toJson(keys)), JsonParser.parseString(keysJson));
+        final List<NodeKey> restoredKeys = MeshTypeConverters.fromJsonToNodeKeys(keysJson);
+        assertEquals(2, restoredKeys.size());
+        assertEquals(1, restoredKeys.get(1).getIndex());
+        assertTrue(restoredKeys.get(1).isUpdated());
+
+        final Calendar calendar = Calendar.getInstance();
+        calendar.set(2020, Calendar.MARCH, 4, 5, 6, 7);
+        final IvIndex ivIndex = new IvIndex(5, true, calendar);
+        final String ivIndexJson = MeshTypeConverters.ivIndexToJson(ivIndex);
+        assertEquals(JsonParser.parseString(gson.toJson(ivIndex)), JsonParser.parseString(ivIndexJson));
+        final IvIndex restoredIvIndex = MeshTypeConverters.fromJsonToIvIndex(ivIndexJson);
+        assertEquals(5, restoredIvIndex.getIvIndex());
+        assertTrue(restoredIvIndex.isIvUpdateActive());
+        assertNotNull(restoredIvIndex.getTransitionDate());
+        assertEquals(calendar.get(Calendar.MINUTE), restoredIvIndex.getTransitionDate().get(Calendar.MINUTE));
+
+        final List<AllocatedUnicastRange> unicastRanges = new ArrayList<>();
+        unicastRanges.add(new AllocatedUnicastRange(0x0001, 0x199A));
+        final String unicastJson = MeshTypeConverters.allocatedUnicastRangeToJson(unicastRanges);
+        assertEquals(JsonParser.parseString(gson.toJson(unicastRanges)), JsonParser.parseString(unicastJson));
+        assertEquals(0x199A, MeshTypeConverters.fromJsonToAllocatedUnicastRanges(unicastJson).get(0).getHighAddress());
+
+        final List<AllocatedSceneRange> sceneRanges = new ArrayList<>();
+        sceneRanges.add(new AllocatedSceneRange(0x0001, 0x3333));
+        final String sceneJson = MeshTypeConverters.allocatedSceneRangeToJson(sceneRanges);
+        assertEquals(JsonParser.parseString(gson.toJson(sceneRanges)), JsonParser.parseString(sceneJson));
+        assertEquals(0x3333, MeshTypeConverters.fromJsonToAllocatedSceneRanges(sceneJson).get(0).getLastScene());
+    }
+
+    private static void assertElements(final Map<Integer, Element> elements) {
+        assertEquals(2, elements.size());
+        final Element primary = elements.get(0);
+        assertEquals(0x0002, primary.getElementAddress());
+        assertEquals("Primary", primary.getName());
+        assertEquals(2, primary.getMeshModels().size());
+        final ConfigurationServerModel configurationServer = (ConfigurationServerModel) primary.getMeshModels().get(0);
+        assertNotNull(configurationServer.getHeartbeatPublication());
+        assertEquals(0xC001, configurationServer.getHeartbeatPublication().getDst());
+        final MeshModel onOffServer = primary.getMeshModels().get(0x1000);
+        assertEquals(Arrays.asList(0, 1), onOffServer.getBoundAppKeyIndexes());
+        assertEquals(Arrays.asList(0xC002), onOffServer.getSubscribedAddresses());
+        assertEquals(0xC001, onOffServer.getPublicationSettings().getPublishAddress());
+
+        final Element secondary = elements.get(1);
+        assertEquals(0x0003, secondary.getElementAddress());
+        assertEquals(1, secondary.getLocationDescriptor());
+        assertEquals(1, secondary.getMeshModels().size());
+    }
+
+    private static Map<Integer, Element> legacyFromJsonToElements(final String elementsJson) {
+        final Type elements = new TypeToken<Map<Integer, Element>>() {
+        }.getType();
+        return new GsonBuilder().
+                excludeFieldsWithoutExposeAnnotation().
+                registerTypeAdapter(Element.class, new ElementDbMigrator()).
+                registerTypeAdapter(MeshModel.class, new InternalMeshModelDeserializer()).
+                create().fromJson(elementsJson, elements);
+    }
+}
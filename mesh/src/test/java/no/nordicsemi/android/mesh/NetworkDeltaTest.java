@@ -0,0 +1,171 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import no.nordicsemi.android.mesh.data.NetworkChange;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static no.nordicsemi.android.mesh.NetworkChangeLog.idOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NetworkDeltaTest {
+
+    private final ImportExportUtils utils = new ImportExportUtils();
+    private MeshNetwork local;
+    private MeshNetwork remote;
+    private NetworkChangeLog localLog;
+    private NetworkChangeLog remoteLog;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        remote = ImportExportUtilsTest.createNetwork(10);
+        local = utils.importNetwork(utils.export(remote, false));
+        remoteLog = new NetworkChangeLog();
+        remoteLog.load(remote.getMeshUUID(), new ArrayList<>(), remote.getNetworkExclusions());
+        localLog = new NetworkChangeLog();
+        localLog.load(local.getMeshUUID(), new ArrayList<>(), local.getNetworkExclusions());
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    @Test
+    public void exportDelta_containsOnlyTheAddedNode() throws IOException {
+        final ProvisionedMeshNode node = ImportExportUtilsTest.createNetwork(1).getNodes().get(1);
+        node.setUuid(UUID.randomUUID().toString().toUpperCase());
+        node.setUnicastAddress(0x1000);
+        remote.nodes.add(node);
+        remoteLog.record(NetworkChangeLog.NODE, idOf(node), false);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.exportDelta(remote, remoteLog.getChangesSince(0), 0, remoteLog.getRevision(), outputStream);
+        final String full = utils.export(remote, false);
+        assertNotNull(full);
+        assertTrue(outputStream.size() < 2048);
+        assertTrue(outputStream.size() < full.length());
+
+        final NetworkDelta delta = utils.importDelta(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(0, delta.getFromRevision());
+        assertEquals(1, delta.getToRevision());
+        assertEquals(1, delta.getNetwork().getNodes().size());
+        assertTrue(delta.merge(local, localLog, 0).isEmpty());
+        assertEquals(remote.getNodes().size(), local.getNodes().size());
+        final ProvisionedMeshNode merged = (ProvisionedMeshNode) NetworkDelta.find(local, NetworkChangeLog.NODE, idOf(node));
+        assertNotNull(merged);
+        assertEquals(0x1000, merged.getUnicastAddress());
+        assertEquals(local.getMeshUUID(), merged.getMeshUuid());
+    }
+
+    @Test
+    public void exportDelta_onlyIncludesChangesAfterTheRevision() {
+        final Group group = remote.getGroups().get(0);
+        group.setName("Kitchen");
+        remoteLog.record(NetworkChangeLog.GROUP, idOf(group), false);
+        final long synced = remoteLog.getRevision();
+        final Scene scene = remote.getScenes().get(0);
+        scene.setName("Evening");
+        remoteLog.record(NetworkChangeLog.SCENE, idOf(scene), false);
+
+        final NetworkDelta delta = utils.importDelta(utils.exportDelta(remote, remoteLog.getChangesSince(synced), synced,
+                remoteLog.getRevision()));
+        assertEquals(1, delta.getChanges().size());
+        assertTrue(delta.getNetwork().getGroups().isEmpty());
+        assertTrue(delta.merge(local, localLog, 0).isEmpty());
+        assertEquals("Group", local.getGroups().get(0).getName());
+        assertEquals("Evening", local.getScenes().get(0).getName());
+    }
+
+    @Test
+    public void merge_appliesDeletionsAndExclusions() {
+        final Scene scene = remote.getScenes().get(0);
+        remote.scenes.remove(scene);
+        remoteLog.record(NetworkChangeLog.SCENE, idOf(scene), true);
+        final Map<Integer, List<Integer>> exclusions = new HashMap<>();
+        exclusions.put(3, new ArrayList<>(Collections.singletonList(0x0005)));
+        remote.setNetworkExclusions(exclusions);
+        assertNotNull(remoteLog.recordExclusions(remote.getNetworkExclusions()));
+        assertNull(remoteLog.recordExclusions(remote.getNetworkExclusions()));
+
+        final NetworkDelta delta = utils.importDelta(utils.exportDelta(remote, remoteLog.getChangesSince(0), 0,
+                remoteLog.getRevision()));
+        assertTrue(delta.merge(local, localLog, 0).isEmpty());
+        assertTrue(local.getScenes().isEmpty());
+        assertEquals(Collections.singletonList(0x0005), local.getNetworkExclusions().get(3));
+    }
+
+    @Test
+    public void merge_reportsConflictingLocalChanges() {
+        final Group remoteGroup = remote.getGroups().get(0);
+        remoteGroup.setName("Kitchen");
+        remoteLog.record(NetworkChangeLog.GROUP, idOf(remoteGroup), false);
+        final Scene remoteScene = remote.getScenes().get(0);
+        remoteScene.setName("Evening");
+        remoteLog.record(NetworkChangeLog.SCENE, idOf(remoteScene), false);
+
+        final long synced = localLog.getRevision();
+        final Group localGroup = local.getGroups().get(0);
+        localGroup.setName("Living room");
+        localLog.record(NetworkChangeLog.GROUP, idOf(localGroup), false);
+        // Changing an entity to the same result does not conflict
+        final Scene localScene = local.getScenes().get(0);
+        localScene.setName("Evening");
+        localLog.record(NetworkChangeLog.SCENE, idOf(localScene), false);
+
+        final NetworkDelta delta = utils.importDelta(utils.exportDelta(remote, remoteLog.getChangesSince(0), 0,
+                remoteLog.getRevision()));
+        final List<NetworkDeltaConflict> conflicts = delta.merge(local, localLog, synced);
+        assertEquals(1, conflicts.size());
+        assertEquals(NetworkDeltaConflict.GROUP, conflicts.get(0).getType());
+        assertEquals(idOf(localGroup), conflicts.get(0).getId());
+        assertEquals("Living room", local.getGroups().get(0).getName());
+
+        // Once the local change has been synced it no longer conflicts
+        assertTrue(delta.merge(local, localLog, localLog.getRevision()).isEmpty());
+        assertEquals("Kitchen", local.getGroups().get(0).getName());
+    }
+
+    @Test
+    public void merge_rejectsDeltaOfAnotherNetwork() {
+        final String otherJson = utils.export(ImportExportUtilsTest.createNetwork(1), false);
+        assertNotNull(otherJson);
+        final MeshNetwork other = utils.importNetwork(
+                otherJson.replace(MeshParserUtils.uuidToHex(local.getMeshUUID()), "0123456789ABCDEF0123456789ABCDEF"));
+        final NetworkChangeLog otherLog = new NetworkChangeLog();
+        otherLog.load(other.getMeshUUID(), new ArrayList<NetworkChange>(), other.getNetworkExclusions());
+        otherLog.record(NetworkChangeLog.SCENE, idOf(other.getScenes().get(0)), false);
+
+        final String json = utils.exportDelta(other, otherLog.getChangesSince(0), 0, otherLog.getRevision());
+        assertNotNull(json);
+        final NetworkDelta delta = utils.importDelta(json);
+        try {
+            delta.merge(local, localLog, 0);
+            fail("Delta of another network must not be merged");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals(Arrays.asList(0x0002, 0x0003, 0x0004), local.getScenes().get(0).getAddresses());
+    }
+}
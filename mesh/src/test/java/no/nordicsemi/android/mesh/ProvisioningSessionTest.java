@@ -0,0 +1,144 @@
+package no.nordicsemi.android.mesh;
+
+import android.content.Context;
+import android.os.Handler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningKeyPairPool;
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningState;
+import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ProvisioningSessionTest {
+
+    private static final UUID DEVICE = UUID.fromString("70CF7C97-32A3-45B6-9149-4810D2E9CBF4");
+    private static final byte[] CAPABILITIES = {0x03, 0x01, 0x02, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
+    private static final byte[] COMPLETE = {0x03, 0x08};
+    private static final byte[] FAILED = {0x03, 0x09, 0x02};
+
+    private final List<ProvisioningSession> closed = new ArrayList<>();
+    private Handler handler;
+    private InternalTransportCallbacks transportCallbacks;
+    private InternalMeshManagerCallbacks meshManagerCallbacks;
+    private MeshProvisioningStatusCallbacks statusCallbacks;
+    private ProvisioningSession session;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        handler = mock(Handler.class);
+        transportCallbacks = mock(InternalTransportCallbacks.class);
+        meshManagerCallbacks = mock(InternalMeshManagerCallbacks.class);
+        statusCallbacks = mock(MeshProvisioningStatusCallbacks.class);
+        session = new ProvisioningSession(DEVICE, mock(Context.class), handler, new ProvisioningKeyPairPool(),
+                transportCallbacks, meshManagerCallbacks, statusCallbacks, closed::add);
+        final NetworkKey networkKey = new NetworkKey(0, MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6"));
+        session.identify(networkKey, 0, 0, 5, 5);
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    /**
+     * Delivers the invite and the capabilities of the device.
+     */
+    private void receiveCapabilities() {
+        session.handleProvisioningWriteCallbacks();
+        session.parseProvisioningNotifications(CAPABILITIES);
+    }
+
+    @Test
+    public void identify_sendsInviteAndStartsTimeout() {
+        verify(transportCallbacks).sendProvisioningPdu(any(UnprovisionedMeshNode.class), any(byte[].class));
+        verify(handler).postDelayed(any(Runnable.class), eq(ProvisioningSession.PROVISIONING_TIMEOUT));
+        assertTrue(closed.isEmpty());
+    }
+
+    @Test
+    public void complete_addsNodeAndClosesSession() {
+        receiveCapabilities();
+        session.parseProvisioningNotifications(COMPLETE);
+
+        verify(meshManagerCallbacks).onNodeProvisioned(any(ProvisionedMeshNode.class), eq(2));
+        verify(statusCallbacks).onProvisioningCompleted(any(ProvisionedMeshNode.class),
+                eq(ProvisioningState.States.PROVISIONING_COMPLETE), eq(COMPLETE));
+        assertEquals(1, closed.size());
+        verify(handler, atLeastOnce()).removeCallbacks(any(Runnable.class));
+
+        // Pdus received once the session is closed are ignored
+        session.parseProvisioningNotifications(COMPLETE);
+        verify(meshManagerCallbacks).onNodeProvisioned(any(ProvisionedMeshNode.class), anyInt());
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    public void failed_reportsFailureAndClosesSession() {
+        receiveCapabilities();
+        session.parseProvisioningNotifications(FAILED);
+
+        verify(statusCallbacks).onProvisioningFailed(any(UnprovisionedMeshNode.class),
+                eq(ProvisioningState.States.PROVISIONING_FAILED), eq(FAILED));
+        verify(meshManagerCallbacks, never()).onNodeProvisioned(any(ProvisionedMeshNode.class), anyInt());
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    public void timeout_failsSession() {
+        final ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(handler).postDelayed(timeout.capture(), anyLong());
+
+        timeout.getValue().run();
+
+        verify(statusCallbacks).onProvisioningFailed(any(UnprovisionedMeshNode.class),
+                eq(ProvisioningState.States.PROVISIONING_FAILED), isNull());
+        assertEquals(1, closed.size());
+
+        // A timeout that was already posted when the session closed has no effect
+        timeout.getValue().run();
+        verify(statusCallbacks).onProvisioningFailed(any(UnprovisionedMeshNode.class),
+                any(ProvisioningState.States.class), isNull());
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    public void cancel_closesSessionWithoutNotifyingCallbacks() {
+        receiveCapabilities();
+        session.cancel();
+        session.cancel();
+
+        assertEquals(1, closed.size());
+        verify(handler, atLeastOnce()).removeCallbacks(any(Runnable.class));
+        verify(statusCallbacks, never()).onProvisioningFailed(any(UnprovisionedMeshNode.class),
+                any(ProvisioningState.States.class), any());
+        verify(statusCallbacks, never()).onProvisioningCompleted(any(ProvisionedMeshNode.class),
+                any(ProvisioningState.States.class), any());
+
+        session.parseProvisioningNotifications(COMPLETE);
+        verify(meshManagerCallbacks, never()).onNodeProvisioned(any(ProvisionedMeshNode.class), anyInt());
+    }
+}
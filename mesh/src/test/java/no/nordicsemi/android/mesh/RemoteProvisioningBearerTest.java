@@ -0,0 +1,156 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.transport.AccessMessage;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkClose;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkOpen;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningLinkReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUOutboundReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUReport;
+import no.nordicsemi.android.mesh.transport.RemoteProvisioningPDUSend;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteProvisioningBearerTest {
+
+    private static final int SERVER = 0x0005;
+    private static final UUID DEVICE = UUID.fromString("70CF7C97-32A3-45B6-9149-4810D2E9CBF4");
+
+    private final List<MeshMessage> sent = new ArrayList<>();
+    private final List<byte[]> received = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private RemoteProvisioningBearer bearer;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        bearer = new RemoteProvisioningBearer(new RemoteProvisioningBearer.Callbacks() {
+            @Override
+            public void sendRemoteProvisioningMessage(final int serverAddress, @NonNull final MeshMessage message) {
+                assertEquals(SERVER, serverAddress);
+                sent.add(message);
+            }
+
+            @Override
+            public void onLinkOpened(@NonNull final UUID deviceUuid, final int attentionTimer) {
+                events.add("opened " + attentionTimer);
+            }
+
+            @Override
+            public void onLinkClosed(@NonNull final UUID deviceUuid, final int statusCode) {
+                events.add("closed " + statusCode);
+            }
+
+            @Override
+            public void onProvisioningPduReceived(@NonNull final UUID deviceUuid, @NonNull final byte[] pdu) {
+                received.add(pdu);
+            }
+
+            @Override
+            public void onProvisioningPduSent(@NonNull final UUID deviceUuid) {
+                events.add("sent");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    private static AccessMessage createMessage(final int opCode, final byte... parameters) {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(SERVER);
+        message.setOpCode(opCode);
+        message.setParameters(parameters);
+        return message;
+    }
+
+    private void openLink() {
+        bearer.openLink(SERVER, DEVICE, new RemoteProvisioningLinkOpen(DEVICE), 5);
+        bearer.onStatusReceived(new RemoteProvisioningLinkReport(createMessage(ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_REPORT,
+                (byte) 0x00, (byte) 0x02)));
+    }
+
+    @Test
+    public void openLink_identifiesDeviceOnceLinkIsActive() {
+        bearer.openLink(SERVER, DEVICE, new RemoteProvisioningLinkOpen(DEVICE), 5);
+        assertTrue(sent.get(0) instanceof RemoteProvisioningLinkOpen);
+        assertTrue(bearer.isLinked(DEVICE));
+        assertTrue(events.isEmpty());
+
+        bearer.onStatusReceived(new RemoteProvisioningLinkReport(createMessage(ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_REPORT,
+                (byte) 0x00, (byte) 0x02)));
+        assertEquals("opened 5", events.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openLink_rejectsSecondLinkOnTheSameServer() {
+        openLink();
+        bearer.openLink(SERVER, UUID.randomUUID(), new RemoteProvisioningLinkOpen(UUID.randomUUID()), 5);
+    }
+
+    @Test
+    public void send_carriesProvisioningPdusInPduSendMessages() {
+        openLink();
+        // Provisioning invite with the provisioning proxy pdu type
+        assertTrue(bearer.send(DEVICE, new byte[]{0x03, 0x00, 0x05}));
+        final RemoteProvisioningPDUSend pduSend = (RemoteProvisioningPDUSend) sent.get(1);
+        assertEquals(1, pduSend.getOutboundPduNumber());
+
+        bearer.onStatusReceived(new RemoteProvisioningPDUOutboundReport(createMessage(
+                ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_OUTBOUND_REPORT, (byte) 0x01)));
+        assertEquals("sent", events.get(1));
+        assertFalse(bearer.send(UUID.randomUUID(), new byte[]{0x03, 0x00, 0x05}));
+    }
+
+    @Test
+    public void onStatusReceived_deliversEachPduReportOnce() {
+        openLink();
+        final RemoteProvisioningPDUReport report = new RemoteProvisioningPDUReport(createMessage(
+                ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_REPORT, (byte) 0x01, (byte) 0x01, (byte) 0x01));
+        bearer.onStatusReceived(report);
+        // Retransmitted by the server
+        bearer.onStatusReceived(report);
+        assertEquals(1, received.size());
+        assertArrayEquals(new byte[]{0x03, 0x01, 0x01}, received.get(0));
+    }
+
+    @Test
+    public void closeLink_reportsSuccessAfterProvisioningComplete() {
+        openLink();
+        bearer.onStatusReceived(new RemoteProvisioningPDUReport(createMessage(
+                ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_REPORT, (byte) 0x01, (byte) 0x08)));
+        bearer.closeLink(DEVICE);
+        final RemoteProvisioningLinkClose linkClose = (RemoteProvisioningLinkClose) sent.get(sent.size() - 1);
+        assertEquals(RemoteProvisioningLinkClose.REASON_SUCCESS, linkClose.getReason());
+        assertFalse(bearer.isLinked(DEVICE));
+    }
+
+    @Test
+    public void onStatusReceived_closesLinkClosedByTheServer() {
+        openLink();
+        bearer.onStatusReceived(new RemoteProvisioningLinkReport(createMessage(ConfigMessageOpCodes.REMOTE_PROVISIONING_LINK_REPORT,
+                (byte) 0x06, (byte) 0x00)));
+        assertEquals("closed 6", events.get(1));
+        assertFalse(bearer.isLinked(DEVICE));
+        // Nothing to close any more
+        bearer.closeLink(DEVICE);
+        assertEquals(1, sent.size());
+    }
+}
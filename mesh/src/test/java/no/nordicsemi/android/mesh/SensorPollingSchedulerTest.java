@@ -0,0 +1,143 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.sensorutils.DeviceProperty;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_CADENCE_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_GET;
+import static no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes.SENSOR_STATUS;
+import static org.junit.Assert.assertEquals;
+
+public class SensorPollingSchedulerTest {
+
+    private static final int SENSOR = 0x0002;
+    private static final int OTHER_SENSOR = 0x0003;
+    private static final int TEMPERATURE = DeviceProperty.PRESENT_AMBIENT_TEMPERATURE.getPropertyId();
+
+    private final List<int[]> sent = new ArrayList<>();
+    private final ApplicationKey appKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734FBD76E3B40519D1D94A48"));
+    private SensorPollingScheduler scheduler;
+    private long now;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        scheduler = new SensorPollingScheduler((dst, factory) -> sent.add(new int[]{dst, factory.getOpCode()}));
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    private static byte[] descriptor(final int propertyId) {
+        // Property id, tolerances, sampling function, measurement period and no update interval
+        return new byte[]{(byte) propertyId, (byte) (propertyId >> 8), 0, 0, 0, 0, 0, 0};
+    }
+
+    private static byte[] temperature(final double value) {
+        return new byte[]{(byte) ((TEMPERATURE & 0x07) << 5), (byte) (TEMPERATURE >> 3), (byte) (value * 2)};
+    }
+
+    /**
+     * Runs the scheduler until a given time, like the handler would.
+     */
+    private void runUntil(final long time) {
+        while (true) {
+            final long next = scheduler.poll(now);
+            if (next > time)
+                break;
+            now = Math.max(now, next);
+        }
+        now = time;
+    }
+
+    @Test
+    public void poll_readsDescriptorsAndCadenceBeforePolling() {
+        scheduler.add(SENSOR, appKey, 0, 0);
+        // The descriptors are requested again if there is no response
+        assertEquals(SensorPollingScheduler.DEFAULT_INTERVAL, scheduler.poll(0));
+        assertEquals(SENSOR_DESCRIPTOR_GET, sent.get(0)[1]);
+
+        scheduler.onStatusReceived(SENSOR, SENSOR_DESCRIPTOR_STATUS, descriptor(TEMPERATURE), 500);
+        scheduler.poll(1000);
+        assertEquals(SENSOR_CADENCE_GET, sent.get(1)[1]);
+        scheduler.poll(2000);
+        assertEquals(SENSOR_GET, sent.get(2)[1]);
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void poll_spreadsRequestsWithinBudget() {
+        scheduler.setBudget(6); // One message every 10 seconds
+        scheduler.add(SENSOR, appKey, 0, 0);
+        scheduler.add(OTHER_SENSOR, appKey, 0, 0);
+        assertEquals(10000, scheduler.poll(0));
+        assertEquals(1, sent.size());
+        scheduler.poll(10000);
+        assertEquals(2, sent.size());
+        assertEquals(OTHER_SENSOR, sent.get(1)[0]);
+    }
+
+    @Test
+    public void onStatusReceived_stretchesIntervalWhileValuesAreStable() {
+        scheduler.add(SENSOR, appKey, 0, 0);
+        scheduler.onStatusReceived(SENSOR, SENSOR_DESCRIPTOR_STATUS, descriptor(TEMPERATURE), 0);
+        // Status Trigger Delta of 1 degree up and down
+        scheduler.onStatusReceived(SENSOR, SENSOR_CADENCE_STATUS,
+                new byte[]{(byte) TEMPERATURE, (byte) (TEMPERATURE >> 8), 0x01, 2, 2, 0, 0, 0}, 0);
+        assertEquals(SensorPollingScheduler.DEFAULT_INTERVAL, scheduler.getInterval(SENSOR));
+
+        scheduler.onStatusReceived(SENSOR, SENSOR_STATUS, temperature(20.0), 1000);
+        scheduler.onStatusReceived(SENSOR, SENSOR_STATUS, temperature(20.5), 2000);
+        assertEquals(4 * SensorPollingScheduler.DEFAULT_INTERVAL, scheduler.getInterval(SENSOR));
+
+        // Changes by more than the delta, polled at the interval divided by the period divisor of 2^1
+        scheduler.onStatusReceived(SENSOR, SENSOR_STATUS, temperature(22.0), 3000);
+        assertEquals(SensorPollingScheduler.DEFAULT_INTERVAL / 2, scheduler.getInterval(SENSOR));
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.onStatusReceived(SENSOR, SENSOR_STATUS, temperature(22.0), 4000 + i);
+        }
+        assertEquals(SensorPollingScheduler.DEFAULT_MAX_INTERVAL, scheduler.getInterval(SENSOR));
+    }
+
+    @Test
+    public void poll_skipsPublishingSensorsWhilePublicationsArrive() {
+        scheduler.add(SENSOR, appKey, 10000, 0);
+        scheduler.onStatusReceived(SENSOR, SENSOR_DESCRIPTOR_STATUS, new byte[]{(byte) TEMPERATURE, (byte) (TEMPERATURE >> 8)}, 0);
+        runUntil(0);
+        // Polled once for the initial values
+        assertEquals(1, sent.size());
+        assertEquals(SENSOR_GET, sent.get(0)[1]);
+
+        // Published every 10 seconds for 5 minutes
+        for (long time = 0; time < 300000; time += 10000) {
+            runUntil(time);
+            scheduler.onStatusReceived(SENSOR, SENSOR_STATUS, temperature(time % 20000 == 0 ? 20 : 25), time);
+        }
+        assertEquals(1, sent.size());
+
+        // Publications stop, the sensor is polled again
+        runUntil(290000 + 20000);
+        assertEquals(2, sent.size());
+        assertEquals(SENSOR_GET, sent.get(1)[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setIntervals_rejectsShortIntervals() {
+        scheduler.setIntervals(1000, 60000);
+    }
+}
@@ -0,0 +1,52 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class UnicastAddressReservationTest {
+
+    private MeshNetwork network;
+    private Provisioner provisioner;
+
+    @Before
+    public void setUp() {
+        // The provisioner and the two nodes use addresses 0x0001 to 0x0003
+        network = ImportExportUtilsTest.createNetwork(2);
+        provisioner = network.provisioners.get(0);
+    }
+
+    @Test
+    public void reserveUnicastAddress_assignsDistinctAddressesToConcurrentDevices() {
+        final int first = network.reserveUnicastAddress(UUID.randomUUID(), 0x0004, 2, provisioner);
+        // Both devices were offered the same address before either of them has been provisioned
+        final int second = network.reserveUnicastAddress(UUID.randomUUID(), 0x0004, 2, provisioner);
+        assertEquals(0x0004, first);
+        assertEquals(0x0006, second);
+        assertEquals(0x0008, network.nextAvailableUnicastAddress(1, provisioner));
+    }
+
+    @Test
+    public void reserveUnicastAddress_skipsAddressesInUse() {
+        assertEquals(0x0004, network.reserveUnicastAddress(UUID.randomUUID(), 0x0002, 1, provisioner));
+    }
+
+    @Test
+    public void releaseUnicastAddress_makesAddressesAvailableAgain() {
+        final UUID device = UUID.randomUUID();
+        network.reserveUnicastAddress(device, 0x0004, 3, provisioner);
+        network.releaseUnicastAddress(device);
+        assertEquals(0x0004, network.reserveUnicastAddress(UUID.randomUUID(), 0x0004, 3, provisioner));
+    }
+
+    @Test
+    public void reserveUnicastAddress_replacesPreviousReservationOfTheDevice() {
+        final UUID device = UUID.randomUUID();
+        network.reserveUnicastAddress(device, 0x0004, 1, provisioner);
+        assertEquals(0x0004, network.reserveUnicastAddress(device, 0x0004, 2, provisioner));
+        assertEquals(0x0006, network.nextAvailableUnicastAddress(1, provisioner));
+    }
+}
@@ -0,0 +1,81 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * In-memory {@link MeshBearer} that records the segments written to it.
+ */
+public class FakeMeshBearer implements MeshBearer {
+
+    private final String identifier;
+    private final int proxyAddress;
+    private int mtu;
+    private boolean failing;
+    final List<byte[]> sentSegments = new ArrayList<>();
+
+    public FakeMeshBearer(@NonNull final String identifier, final int mtu) {
+        this(identifier, mtu, MeshAddress.UNASSIGNED_ADDRESS);
+    }
+
+    public FakeMeshBearer(@NonNull final String identifier, final int mtu, final int proxyAddress) {
+        this.identifier = identifier;
+        this.mtu = mtu;
+        this.proxyAddress = proxyAddress;
+    }
+
+    @NonNull
+    @Override
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public int getMtu() {
+        return mtu;
+    }
+
+    public void setMtu(final int mtu) {
+        this.mtu = mtu;
+    }
+
+    @Override
+    public int getProxyAddress() {
+        return proxyAddress;
+    }
+
+    /**
+     * Makes every following write fail, as if the connection was lost.
+     */
+    public void setFailing(final boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public boolean send(@NonNull final byte[] buffer, final int offset, final int length) {
+        if (failing)
+            return false;
+        if (length > mtu)
+            throw new IllegalStateException("Segment of " + length + " bytes exceeds the MTU of " + mtu);
+        final byte[] segment = new byte[length];
+        System.arraycopy(buffer, offset, segment, 0, length);
+        sentSegments.add(segment);
+        return true;
+    }
+
+    /**
+     * Returns the number of pdus written, counting a segmented pdu once.
+     */
+    public int getSentPduCount() {
+        int count = 0;
+        for (byte[] segment : sentSegments) {
+            final int sar = (segment[0] & 0xFF) >> 6;
+            if (sar == 0b00 || sar == 0b11)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,232 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.utils.ProxyFilter;
+import no.nordicsemi.android.mesh.utils.ProxyFilterType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyBearerManagerTest {
+
+    private static final byte PDU_TYPE_NETWORK = 0x00;
+    private static final byte PDU_TYPE_PROXY_CONFIGURATION = 0x02;
+
+    private ProxyBearerManager manager;
+    private final List<byte[]> receivedPdus = new ArrayList<>();
+    private final List<MeshBearer> failedBearers = new ArrayList<>();
+    private final List<MeshBearer> expiredBearers = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        manager = new ProxyBearerManager();
+        manager.setCallbacks(new ProxyBearerManager.Callbacks() {
+            @Override
+            public void onPduReceived(@NonNull final MeshBearer bearer, @NonNull final byte[] pdu) {
+                receivedPdus.add(pdu);
+            }
+
+            @Override
+            public void onBearerFailed(@NonNull final MeshBearer bearer) {
+                failedBearers.add(bearer);
+            }
+
+            @Override
+            public void onSarTimeout(@NonNull final MeshBearer bearer) {
+                expiredBearers.add(bearer);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    @Test
+    public void send_segmentsToBearerMtuAndReassemblesOnReceive() {
+        final FakeMeshBearer sender = new FakeMeshBearer("A", 20);
+        manager.addBearer(sender);
+        final byte[] pdu = createPdu(PDU_TYPE_NETWORK, 50, 1);
+
+        assertTrue(manager.send(0x0002, pdu));
+        assertEquals(3, sender.sentSegments.size());
+
+        //Loop the segments back as if the proxy node notified them
+        for (byte[] segment : sender.sentSegments) {
+            manager.onDataReceived(sender, segment);
+        }
+        assertEquals(1, receivedPdus.size());
+        assertArrayEquals(pdu, receivedPdus.get(0));
+    }
+
+    @Test
+    public void onDataReceived_keepsReassemblyStatePerBearer() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 20);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 23);
+        manager.addBearer(a);
+        manager.addBearer(b);
+        final byte[] first = createPdu(PDU_TYPE_NETWORK, 40, 1);
+        final byte[] second = createPdu(PDU_TYPE_NETWORK, 45, 2);
+        final List<byte[]> firstSegments = segment(first, a.getMtu());
+        final List<byte[]> secondSegments = segment(second, b.getMtu());
+
+        //Interleave the segments of two pdus received through two different bearers
+        for (int i = 0; i < Math.max(firstSegments.size(), secondSegments.size()); i++) {
+            if (i < firstSegments.size())
+                manager.onDataReceived(a, firstSegments.get(i));
+            if (i < secondSegments.size())
+                manager.onDataReceived(b, secondSegments.get(i));
+        }
+        assertEquals(2, receivedPdus.size());
+        assertArrayEquals(second, receivedPdus.get(0));
+        assertArrayEquals(first, receivedPdus.get(1));
+    }
+
+    @Test
+    public void onDataReceived_dropsDuplicatesReceivedThroughAnotherBearer() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66);
+        manager.addBearer(a);
+        manager.addBearer(b);
+        final byte[] pdu = createPdu(PDU_TYPE_NETWORK, 30, 7);
+
+        manager.onDataReceived(a, pdu);
+        manager.onDataReceived(b, pdu);
+
+        assertEquals(1, receivedPdus.size());
+        assertEquals(1, manager.getDuplicateCount());
+    }
+
+    @Test
+    public void send_byDestinationIsStableAndFailsOver() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66);
+        manager.addBearer(a);
+        manager.addBearer(b);
+        final byte[] pdu = createPdu(PDU_TYPE_NETWORK, 20, 3);
+
+        for (int i = 0; i < 5; i++) {
+            manager.send(0x0010, pdu);
+        }
+        final FakeMeshBearer used = a.getSentPduCount() > 0 ? a : b;
+        final FakeMeshBearer other = used == a ? b : a;
+        assertEquals(5, used.getSentPduCount());
+        assertEquals(0, other.getSentPduCount());
+
+        used.setFailing(true);
+        assertTrue(manager.send(0x0010, pdu));
+        assertEquals(1, other.getSentPduCount());
+        assertEquals(1, manager.getFailoverCount());
+        assertEquals(1, failedBearers.size());
+        assertSame(used, failedBearers.get(0));
+        assertEquals(1, manager.getBearers().size());
+    }
+
+    @Test
+    public void send_roundRobinSpreadsPdus() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66);
+        manager.addBearer(a);
+        manager.addBearer(b);
+        manager.setLoadBalancing(ProxyBearerManager.LoadBalancing.ROUND_ROBIN);
+
+        for (int i = 0; i < 6; i++) {
+            manager.send(0x0010, createPdu(PDU_TYPE_NETWORK, 20, i));
+        }
+        assertEquals(3, a.getSentPduCount());
+        assertEquals(3, b.getSentPduCount());
+    }
+
+    @Test
+    public void send_prefersBearerConnectedToDestination() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66, 0x0005);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66, 0x0006);
+        manager.addBearer(a);
+        manager.addBearer(b);
+
+        manager.send(0x0006, createPdu(PDU_TYPE_NETWORK, 20, 1));
+        assertEquals(0, a.getSentPduCount());
+        assertEquals(1, b.getSentPduCount());
+    }
+
+    @Test
+    public void send_proxyConfigurationGoesToAllBearers() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66);
+        manager.addBearer(a);
+        manager.addBearer(b);
+
+        manager.send(0x0000, createPdu(PDU_TYPE_PROXY_CONFIGURATION, 20, 1));
+        assertEquals(1, a.getSentPduCount());
+        assertEquals(1, b.getSentPduCount());
+    }
+
+    @Test
+    public void send_returnsFalseWithoutBearers() {
+        assertFalse(manager.send(0x0001, createPdu(PDU_TYPE_NETWORK, 20, 1)));
+    }
+
+    @Test
+    public void proxyFilter_isKeptPerBearer() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 66);
+        final FakeMeshBearer b = new FakeMeshBearer("B", 66);
+        manager.addBearer(a);
+        manager.addBearer(b);
+        final ProxyFilter filter = new ProxyFilter(new ProxyFilterType(ProxyFilterType.INCLUSION_LIST_FILTER));
+
+        manager.setProxyFilter(a, filter);
+        assertSame(filter, manager.getProxyFilter(a));
+        assertNull(manager.getProxyFilter(b));
+    }
+
+    @Test
+    public void onDataReceived_discardsPartialPduWhenSarTimeoutExpired() {
+        final FakeMeshBearer a = new FakeMeshBearer("A", 20);
+        manager.addBearer(a);
+        manager.setSarTimeout(0);
+        final List<byte[]> segments = segment(createPdu(PDU_TYPE_NETWORK, 40, 1), a.getMtu());
+
+        for (byte[] segment : segments) {
+            manager.onDataReceived(a, segment);
+        }
+        assertTrue(receivedPdus.isEmpty());
+        assertEquals(1, expiredBearers.size());
+        assertSame(a, expiredBearers.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addBearer_rejectsDuplicateIdentifier() {
+        manager.addBearer(new FakeMeshBearer("A", 20));
+        manager.addBearer(new FakeMeshBearer("A", 20));
+    }
+
+    private static List<byte[]> segment(final byte[] pdu, final int mtu) {
+        final FakeMeshBearer bearer = new FakeMeshBearer("segmenter", mtu);
+        new BearerSession(bearer).send(pdu);
+        return bearer.sentSegments;
+    }
+
+    private static byte[] createPdu(final byte pduType, final int length, final int seed) {
+        final byte[] pdu = new byte[length];
+        pdu[0] = pduType;
+        for (int i = 1; i < length; i++) {
+            pdu[i] = (byte) (i * 31 + seed);
+        }
+        return pdu;
+    }
+}
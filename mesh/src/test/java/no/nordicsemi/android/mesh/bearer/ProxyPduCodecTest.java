@@ -0,0 +1,113 @@
+package no.nordicsemi.android.mesh.bearer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyPduCodecTest {
+
+    @Test
+    public void getSegmentCount() {
+        assertEquals(1, ProxyPduCodec.getSegmentCount(20, 20));
+        assertEquals(2, ProxyPduCodec.getSegmentCount(21, 20));
+        assertEquals(2, ProxyPduCodec.getSegmentCount(39, 20));
+        assertEquals(3, ProxyPduCodec.getSegmentCount(40, 20));
+    }
+
+    @Test
+    public void segment_writesMtuSizedSegmentsWithSarHeaders() {
+        final byte[] pdu = createPdu(0x03, 40);
+        final List<byte[]> segments = segment(new ProxyPduCodec(), pdu, 20);
+
+        assertEquals(3, segments.size());
+        assertEquals((byte) 0x43, segments.get(0)[0]);
+        assertEquals((byte) 0x83, segments.get(1)[0]);
+        assertEquals((byte) 0xC3, segments.get(2)[0]);
+        for (byte[] segment : segments) {
+            assertTrue(segment.length <= 20);
+        }
+    }
+
+    @Test
+    public void segment_doesNotSegmentShortPdus() {
+        final byte[] pdu = createPdu(0x00, 20);
+        final List<byte[]> segments = segment(new ProxyPduCodec(), pdu, 20);
+
+        assertEquals(1, segments.size());
+        assertArrayEquals(pdu, segments.get(0));
+    }
+
+    @Test
+    public void append_reassemblesSegmentedPdus() {
+        final ProxyPduCodec codec = new ProxyPduCodec();
+        for (int length = 2; length < 300; length += 7) {
+            final byte[] pdu = createPdu(0x01, length);
+            final List<byte[]> segments = segment(new ProxyPduCodec(), pdu, 23);
+            for (int i = 0; i < segments.size() - 1; i++) {
+                assertEquals(ProxyPduCodec.RESULT_INCOMPLETE, codec.append(segments.get(i)));
+                assertTrue(codec.isInProgress());
+            }
+            assertEquals(ProxyPduCodec.RESULT_COMPLETE, codec.append(segments.get(segments.size() - 1)));
+            assertFalse(codec.isInProgress());
+            assertArrayEquals(pdu, codec.getPdu());
+        }
+    }
+
+    @Test
+    public void append_discardsSegmentsOfAnotherPduType() {
+        final ProxyPduCodec codec = new ProxyPduCodec();
+        final List<byte[]> segments = segment(new ProxyPduCodec(), createPdu(0x00, 40), 20);
+
+        codec.append(segments.get(0));
+        final byte[] unexpected = segments.get(1).clone();
+        unexpected[0] = (byte) (unexpected[0] | 0x02);
+        assertEquals(ProxyPduCodec.RESULT_DISCARDED, codec.append(unexpected));
+        assertFalse(codec.isInProgress());
+    }
+
+    @Test
+    public void append_discardsContinuationWithoutFirstSegment() {
+        final ProxyPduCodec codec = new ProxyPduCodec();
+        final List<byte[]> segments = segment(new ProxyPduCodec(), createPdu(0x00, 40), 20);
+
+        assertEquals(ProxyPduCodec.RESULT_DISCARDED, codec.append(segments.get(1)));
+        assertEquals(ProxyPduCodec.RESULT_DISCARDED, codec.append(segments.get(2)));
+    }
+
+    @Test
+    public void hasExpired() {
+        final ProxyPduCodec codec = new ProxyPduCodec();
+        final List<byte[]> segments = segment(new ProxyPduCodec(), createPdu(0x00, 40), 20);
+
+        assertFalse(codec.hasExpired(0));
+        codec.append(segments.get(0));
+        assertTrue(codec.hasExpired(0));
+        assertFalse(codec.hasExpired(ProxyPduCodec.DEFAULT_SAR_TIMEOUT));
+    }
+
+    private static List<byte[]> segment(final ProxyPduCodec codec, final byte[] pdu, final int mtu) {
+        final List<byte[]> segments = new ArrayList<>();
+        codec.segment(pdu, mtu, (buffer, offset, length) -> {
+            final byte[] segment = new byte[length];
+            System.arraycopy(buffer, offset, segment, 0, length);
+            segments.add(segment);
+            return true;
+        });
+        return segments;
+    }
+
+    private static byte[] createPdu(final int pduType, final int length) {
+        final byte[] pdu = new byte[length];
+        pdu[0] = (byte) pduType;
+        for (int i = 1; i < length; i++) {
+            pdu[i] = (byte) (i * 17);
+        }
+        return pdu;
+    }
+}
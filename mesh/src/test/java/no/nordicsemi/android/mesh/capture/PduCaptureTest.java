@@ -0,0 +1,121 @@
+package no.nordicsemi.android.mesh.capture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.MeshManagerApi;
+
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+public class PduCaptureTest {
+
+    private static final byte[] NOTIFICATION = {0x00, 0x01, 0x02};
+    private static final byte[] WRITE_CALLBACK = {0x03, 0x04};
+    private static final byte[] PDU = {0x00, 0x05, 0x06, 0x07};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File capture() throws IOException {
+        final File file = folder.newFile("capture.bin");
+        final PduCaptureWriter writer = new PduCaptureWriter(file, 1_000_000);
+        writer.write(PduCaptureRecord.NOTIFICATION, 23, NOTIFICATION, 1_000_000);
+        writer.write(PduCaptureRecord.PDU_CREATED, 23, PDU, 1_500_000);
+        writer.write(PduCaptureRecord.WRITE_CALLBACK, 23, WRITE_CALLBACK, 3_000_000);
+        writer.close();
+        return file;
+    }
+
+    @Test
+    public void reader_readsRecordsWritten() throws IOException {
+        final PduCaptureReader reader = new PduCaptureReader(capture());
+        PduCaptureRecord record = reader.next();
+        assertEquals(PduCaptureRecord.NOTIFICATION, record.getType());
+        assertEquals(0, record.getTimestamp());
+        assertEquals(23, record.getMtu());
+        assertArrayEquals(NOTIFICATION, record.getData());
+
+        record = reader.next();
+        assertEquals(PduCaptureRecord.PDU_CREATED, record.getType());
+        assertEquals(500, record.getTimestamp());
+        assertArrayEquals(PDU, record.getData());
+
+        record = reader.next();
+        assertEquals(PduCaptureRecord.WRITE_CALLBACK, record.getType());
+        assertEquals(2000, record.getTimestamp());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void reader_readsRecordsLargerThanTheWriteBuffer() throws IOException {
+        final File file = folder.newFile("large.bin");
+        final byte[] data = new byte[0xFFFF];
+        data[data.length - 1] = 0x42;
+        final PduCaptureWriter writer = new PduCaptureWriter(file, 0);
+        for (int i = 0; i < 3; i++) {
+            writer.write(PduCaptureRecord.NOTIFICATION, 0, data, i * 1000L);
+        }
+        writer.close();
+
+        final PduCaptureReader reader = new PduCaptureReader(file);
+        for (int i = 0; i < 3; i++) {
+            final PduCaptureRecord record = reader.next();
+            assertEquals(i, record.getTimestamp());
+            assertArrayEquals(data, record.getData());
+        }
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void reader_rejectsOtherFiles() throws IOException {
+        final File file = folder.newFile("other.bin");
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[32]);
+        outputStream.close();
+        new PduCaptureReader(file);
+    }
+
+    @Test
+    public void replay_feedsInputsOnVirtualClock() throws IOException {
+        final MeshManagerApi api = mock(MeshManagerApi.class);
+        final List<Long> times = new ArrayList<>();
+        final List<PduCaptureRecord> created = new ArrayList<>();
+        final PduReplayer.Result result = new PduReplayer(api).replay(capture(), new PduReplayer.Callbacks() {
+            @Override
+            public void onTimeAdvanced(final long timestamp) {
+                times.add(timestamp);
+            }
+
+            @Override
+            public void onCapturedPduCreated(final PduCaptureRecord record) {
+                created.add(record);
+            }
+        });
+
+        final InOrder inOrder = inOrder(api);
+        inOrder.verify(api).handleNotifications(23, NOTIFICATION);
+        inOrder.verify(api).handleWriteCallbacks(23, WRITE_CALLBACK);
+        assertEquals(3, times.size());
+        assertEquals(2000L, (long) times.get(2));
+        assertEquals(1, created.size());
+        assertArrayEquals(PDU, created.get(0).getData());
+        assertEquals(2, result.getInputs());
+        assertEquals(NOTIFICATION.length + WRITE_CALLBACK.length, result.getBytes());
+        assertEquals(2000, result.getDuration());
+    }
+}
@@ -0,0 +1,102 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MeshMetricsTest {
+
+    @Before
+    public void setUp() {
+        MeshMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        MeshMetrics.unregisterGauge("test.gauge");
+        MeshMetrics.reset();
+    }
+
+    @Test
+    public void counter_sumsIncrementsFromAllThreads() throws InterruptedException {
+        final Counter counter = MeshMetrics.counter("test.counter");
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    counter.increment();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, counter.get());
+        assertEquals(40000, MeshMetrics.snapshot().getCounter("test.counter"));
+    }
+
+    @Test
+    public void histogram_reportsPercentilesWithinBucketPrecision() {
+        final Histogram histogram = MeshMetrics.histogram("test.histogram");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getSum());
+        assertEquals(100, snapshot.getMax());
+        // The 50th value is counted in the bucket of 32 to 63
+        assertEquals(63, snapshot.getPercentile(50));
+        assertEquals(100, snapshot.getPercentile(99));
+    }
+
+    @Test
+    public void onResponseReceived_recordsRoundTripTimePerOpCode() {
+        MeshMetrics.onRequestSent(0x0002, 0x8201, 1000);
+        MeshMetrics.onResponseReceived(0x0002, 1040);
+        // No request is pending anymore
+        MeshMetrics.onResponseReceived(0x0002, 1100);
+        final HistogramSnapshot rtt = MeshMetrics.snapshot().getHistograms().get("request.rtt_ms.0x8201");
+        assertEquals(1, rtt.getCount());
+        assertEquals(40, rtt.getMax());
+    }
+
+    @Test
+    public void onResponseReceived_keepsRecordingIntoTheRegisteredHistogramAfterReset() {
+        MeshMetrics.onRequestSent(0x0002, 0x8204, 1000);
+        MeshMetrics.onResponseReceived(0x0002, 1010);
+        MeshMetrics.reset();
+        MeshMetrics.onRequestSent(0x0003, 0x8204, 2000);
+        MeshMetrics.onResponseReceived(0x0003, 2025);
+        MeshMetrics.onRequestSent(0x0003, 0x8204, 3000);
+        MeshMetrics.onResponseReceived(0x0003, 3005);
+
+        final HistogramSnapshot rtt = MeshMetrics.histogram("request.rtt_ms.0x8204").snapshot();
+        assertEquals(2, rtt.getCount());
+        assertEquals(25, rtt.getMax());
+    }
+
+    @Test
+    public void toJson_exportsAllMetrics() {
+        MeshMetrics.onPduReceived(0x00);
+        MeshMetrics.onDecryptionFailed("NetworkLayer");
+        MeshMetrics.onDatabaseFlush(250);
+        MeshMetrics.registerGauge("test.gauge", () -> 7);
+
+        final JsonObject json = JsonParser.parseString(MeshMetrics.snapshot().toJson()).getAsJsonObject();
+        assertTrue(json.has("timestamp"));
+        final JsonObject counters = json.getAsJsonObject("counters");
+        assertEquals(1, counters.get("pdus.received.network").getAsLong());
+        assertEquals(0, counters.get("pdus.sent.network").getAsLong());
+        assertEquals(1, counters.get("decryption.failures.NetworkLayer").getAsLong());
+        assertEquals(7, json.getAsJsonObject("gauges").get("test.gauge").getAsLong());
+        assertEquals(250, json.getAsJsonObject("histograms").getAsJsonObject("db.write_latency_us").get("max").getAsLong());
+    }
+}
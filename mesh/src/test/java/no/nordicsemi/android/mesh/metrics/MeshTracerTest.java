@@ -0,0 +1,76 @@
+package no.nordicsemi.android.mesh.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MeshTracerTest {
+
+    @After
+    public void tearDown() {
+        MeshTracer.disable();
+    }
+
+    private static JsonArray events() {
+        return JsonParser.parseString(MeshTracer.exportChromeTrace()).getAsJsonObject().getAsJsonArray("traceEvents");
+    }
+
+    private static int id(final JsonArray events, final int index) {
+        return events.get(index).getAsJsonObject().getAsJsonObject("args").get("id").getAsInt();
+    }
+
+    @Test
+    public void spans_areNotRecordedWhenDisabled() {
+        assertFalse(MeshTracer.isEnabled());
+        assertEquals(MeshTracer.NOT_TRACING, MeshTracer.begin());
+        MeshTracer.beginTrace(0x0002, 0x8003);
+        MeshTracer.end("access.encode", 0x0002, MeshTracer.begin());
+        assertEquals(0, events().size());
+    }
+
+    @Test
+    public void spans_areCorrelatedByNodeAddress() {
+        MeshTracer.enable(16);
+        MeshTracer.beginTrace(0x0002, 0x803D);
+        MeshTracer.end("network.encrypt", 0x0002, MeshTracer.begin());
+        MeshTracer.instant("proxy.pdu_received", 0x0000);
+        MeshTracer.endTrace(0x0002, 0x803E);
+        // The trace has ended
+        MeshTracer.instant("access.decode", 0x0002);
+
+        final JsonArray events = events();
+        assertEquals(5, events.size());
+        final int id = id(events, 0);
+        assertEquals("0x803D", events.get(0).getAsJsonObject().getAsJsonObject("args").get("opCode").getAsString());
+        final JsonObject span = events.get(1).getAsJsonObject();
+        assertEquals("X", span.get("ph").getAsString());
+        assertEquals(id, id(events, 1));
+        assertEquals(0, id(events, 2));
+        assertEquals(id, id(events, 3));
+        assertEquals(0, id(events, 4));
+    }
+
+    @Test
+    public void ringBuffer_keepsMostRecentRecords() {
+        MeshTracer.enable(3);
+        for (int i = 0; i < 6; i++) {
+            MeshTracer.instant("event" + i, 0x0002);
+        }
+        // The capacity is rounded up to 4
+        final JsonArray events = events();
+        assertEquals(4, events.size());
+        assertEquals("event2", events.get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals("event5", events.get(3).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enable_rejectsEmptyBuffers() {
+        MeshTracer.enable(0);
+    }
+}
@@ -0,0 +1,85 @@
+package no.nordicsemi.android.mesh.provisionerstates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNotNull;
+
+public class ProvisioningKeyPairPoolTest {
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    private KeyPair generateKeyPair() throws GeneralSecurityException {
+        generated.incrementAndGet();
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    private static void awaitAvailable(final ProvisioningKeyPairPool pool, final int count) throws InterruptedException {
+        for (int i = 0; i < 500 && pool.getAvailable() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, pool.getAvailable());
+    }
+
+    @Test
+    public void take_returnsPregeneratedKeyPairsOnlyOnce() throws GeneralSecurityException, InterruptedException {
+        final ProvisioningKeyPairPool pool = new ProvisioningKeyPairPool(this::generateKeyPair);
+        pool.setSize(2);
+        awaitAvailable(pool, 2);
+
+        final KeyPair first = pool.take();
+        final KeyPair second = pool.take();
+        assertNotNull(first);
+        assertNotSame(first, second);
+        // Refilled in the background
+        awaitAvailable(pool, 2);
+        assertEquals(4, generated.get());
+    }
+
+    @Test
+    public void take_generatesKeyPairIfPoolIsEmpty() throws GeneralSecurityException {
+        final ProvisioningKeyPairPool pool = new ProvisioningKeyPairPool(this::generateKeyPair);
+        assertEquals(0, pool.getAvailable());
+        assertNotNull(pool.take());
+        assertEquals(0, pool.getAvailable());
+        assertEquals(1, generated.get());
+    }
+
+    @Test
+    public void setSize_dropsExcessKeyPairs() throws InterruptedException {
+        final ProvisioningKeyPairPool pool = new ProvisioningKeyPairPool(this::generateKeyPair);
+        pool.setSize(3);
+        awaitAvailable(pool, 3);
+        pool.setSize(1);
+        assertEquals(1, pool.getAvailable());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSize_rejectsNegativeSize() {
+        new ProvisioningKeyPairPool(this::generateKeyPair).setSize(-1);
+    }
+}
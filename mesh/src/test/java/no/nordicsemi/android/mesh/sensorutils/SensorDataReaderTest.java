@@ -0,0 +1,128 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import org.junit.Test;
+
+import no.nordicsemi.android.mesh.utils.SensorFormat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SensorDataReaderTest {
+
+    private static byte[] formatA(final DeviceProperty property, final byte... value) {
+        final int propertyId = property.getPropertyId();
+        final byte[] data = new byte[2 + value.length];
+        data[0] = (byte) (((value.length - 1) << 1) | ((propertyId & 0x07) << 5));
+        data[1] = (byte) (propertyId >> 3);
+        System.arraycopy(value, 0, data, 2, value.length);
+        return data;
+    }
+
+    private static byte[] formatB(final int propertyId, final byte... value) {
+        final byte[] data = new byte[3 + value.length];
+        data[0] = (byte) (value.length == 0 ? 0xFF : ((value.length - 1) << 1) | 0x01);
+        data[1] = (byte) propertyId;
+        data[2] = (byte) (propertyId >> 8);
+        System.arraycopy(value, 0, data, 3, value.length);
+        return data;
+    }
+
+    private static byte[] concat(final byte[]... arrays) {
+        int length = 0;
+        for (byte[] array : arrays) {
+            length += array.length;
+        }
+        final byte[] data = new byte[length];
+        int offset = 0;
+        for (byte[] array : arrays) {
+            System.arraycopy(array, 0, data, offset, array.length);
+            offset += array.length;
+        }
+        return data;
+    }
+
+    @Test
+    public void next_readsValuesOfBothFormats() {
+        final byte[] data = concat(
+                formatA(DeviceProperty.PRESENT_AMBIENT_TEMPERATURE, (byte) 0x2B),
+                formatB(DeviceProperty.PRECISE_PRESENT_AMBIENT_TEMPERATURE.getPropertyId(), (byte) 0x66, (byte) 0xF7),
+                formatA(DeviceProperty.PRESENT_AMBIENT_LIGHT_LEVEL, (byte) 0x10, (byte) 0x27, (byte) 0x00));
+        final SensorDataReader reader = new SensorDataReader().reset(data);
+
+        assertTrue(reader.next());
+        assertEquals(SensorFormat.FORMAT_A, reader.getSensorFormat());
+        assertEquals(DeviceProperty.PRESENT_AMBIENT_TEMPERATURE.getPropertyId(), reader.getPropertyId());
+        assertEquals(1, reader.getLength());
+        assertEquals(21.5, reader.getValue(), 0);
+
+        assertTrue(reader.next());
+        assertEquals(SensorFormat.FORMAT_B, reader.getSensorFormat());
+        assertEquals(DeviceProperty.PRECISE_PRESENT_AMBIENT_TEMPERATURE.getPropertyId(), reader.getPropertyId());
+        assertEquals(2, reader.getLength());
+        assertEquals(-22.02, reader.getValue(), 0);
+
+        assertTrue(reader.next());
+        assertEquals(100.0, reader.getValue(), 0);
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void getValue_returnsNaNForUnknownValue() {
+        final SensorDataReader reader = new SensorDataReader()
+                .reset(formatA(DeviceProperty.PEOPLE_COUNT, (byte) 0xFF, (byte) 0xFF));
+        assertTrue(reader.next());
+        assertFalse(reader.hasValue());
+        assertTrue(Double.isNaN(reader.getValue()));
+        assertEquals(0xFFFF, reader.getRawValue());
+    }
+
+    @Test
+    public void getValue_readsFloatingPointValues() {
+        final int bits = Float.floatToIntBits(1.25f);
+        final SensorDataReader reader = new SensorDataReader().reset(formatA(DeviceProperty.SENSOR_GAIN,
+                (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16), (byte) (bits >> 24)));
+        assertTrue(reader.next());
+        assertEquals(1.25, reader.getValue(), 0);
+    }
+
+    @Test
+    public void getValue_returnsNaNForPropertiesWithoutFormat() {
+        final SensorDataReader reader = new SensorDataReader().reset(formatB(0x1234, (byte) 0x01, (byte) 0x02));
+        assertTrue(reader.next());
+        assertNull(reader.getFormat());
+        assertTrue(Double.isNaN(reader.getValue()));
+        assertEquals(0x0201, reader.getRawValue());
+    }
+
+    @Test
+    public void next_readsZeroLengthValues() {
+        final SensorDataReader reader = new SensorDataReader().reset(formatB(0x0042));
+        assertTrue(reader.next());
+        assertEquals(0, reader.getLength());
+        assertFalse(reader.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void next_rejectsTruncatedValue() {
+        final byte[] data = formatA(DeviceProperty.PRESENT_AMBIENT_LIGHT_LEVEL, (byte) 0x10, (byte) 0x27, (byte) 0x00);
+        new SensorDataReader().reset(data, 0, data.length - 1).next();
+    }
+
+    @Test
+    public void register_addsFormatOfVendorProperty() {
+        DevicePropertyRegistry.register(0x4321, new DevicePropertyFormat(2, true, 5, -1, 0, DevicePropertyFormat.NO_UNKNOWN_VALUE));
+        final SensorDataReader reader = new SensorDataReader().reset(formatB(0x4321, (byte) 0xFE, (byte) 0xFF));
+        assertTrue(reader.next());
+        assertEquals(-1.0, reader.getValue(), 0);
+    }
+
+    @Test
+    public void from_returnsPropertyForEveryPropertyId() {
+        for (DeviceProperty property : DeviceProperty.values()) {
+            assertEquals(property, DeviceProperty.from(property.getPropertyId()));
+        }
+        assertEquals(DeviceProperty.UNKNOWN, DeviceProperty.from((short) 0x0800));
+    }
+}
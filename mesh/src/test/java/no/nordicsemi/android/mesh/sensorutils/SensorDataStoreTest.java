@@ -0,0 +1,103 @@
+package no.nordicsemi.android.mesh.sensorutils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SensorDataStoreTest {
+
+    private static final int ELEMENT = 0x0002;
+    private static final int TEMPERATURE = DeviceProperty.PRESENT_AMBIENT_TEMPERATURE.getPropertyId();
+
+    @Test
+    public void getSamples_returnsMostRecentSamplesWithinWindow() {
+        final SensorDataStore store = new SensorDataStore(3);
+        for (int i = 0; i < 5; i++) {
+            store.add(ELEMENT, TEMPERATURE, i * 1000, i);
+        }
+        final long[] timestamps = new long[5];
+        final double[] values = new double[5];
+        // The two oldest samples have been overwritten
+        assertEquals(3, store.getSamples(ELEMENT, TEMPERATURE, 0, 10000, timestamps, values));
+        assertEquals(2000, timestamps[0]);
+        assertEquals(4.0, values[2], 0);
+        assertEquals(2, store.getSamples(ELEMENT, TEMPERATURE, 2500, 10000, timestamps, values));
+        assertEquals(4.0, store.getLatest(ELEMENT, TEMPERATURE), 0);
+        assertTrue(Double.isNaN(store.getLatest(ELEMENT, 0x1234)));
+    }
+
+    @Test
+    public void getDownsampled_aggregatesIntervals() {
+        final SensorDataStore store = new SensorDataStore(2, new SensorDataStore.Tier(10000, 4));
+        store.add(ELEMENT, TEMPERATURE, 1000, 20);
+        store.add(ELEMENT, TEMPERATURE, 5000, 22);
+        store.add(ELEMENT, TEMPERATURE, 12000, 30);
+        final long[] starts = new long[4];
+        final double[] min = new double[4];
+        final double[] max = new double[4];
+        final double[] average = new double[4];
+        assertEquals(2, store.getDownsampled(ELEMENT, TEMPERATURE, 0, 0, 20000, starts, min, max, average));
+        assertEquals(0, starts[0]);
+        assertEquals(20.0, min[0], 0);
+        assertEquals(22.0, max[0], 0);
+        assertEquals(21.0, average[0], 0);
+        assertEquals(10000, starts[1]);
+    }
+
+    @Test
+    public void getAggregate_usesTierWhenSamplesDoNotCoverWindow() {
+        final SensorDataStore store = new SensorDataStore(2, new SensorDataStore.Tier(10000, 4));
+        store.add(ELEMENT, TEMPERATURE, 1000, 10);
+        store.add(ELEMENT, TEMPERATURE, 2000, 20);
+        store.add(ELEMENT, TEMPERATURE, 3000, 30);
+
+        final SensorAggregate recent = store.getAggregate(ELEMENT, TEMPERATURE, 2000, 4000);
+        assertEquals(2, recent.getCount());
+        assertEquals(25.0, recent.getAverage(), 0);
+
+        final SensorAggregate all = store.getAggregate(ELEMENT, TEMPERATURE, 0, 10000);
+        assertEquals(3, all.getCount());
+        assertEquals(10.0, all.getMin(), 0);
+        assertEquals(30.0, all.getMax(), 0);
+        assertNull(store.getAggregate(ELEMENT, TEMPERATURE, 20000, 30000));
+    }
+
+    @Test
+    public void add_storesKnownValuesOfMarshalledSensorData() {
+        final SensorDataStore store = new SensorDataStore();
+        final int id = TEMPERATURE;
+        // Format A, 1 octet temperature of 21.5 degrees followed by an unknown 2 octet people count
+        final int count = DeviceProperty.PEOPLE_COUNT.getPropertyId();
+        final byte[] data = {(byte) ((id & 0x07) << 5), (byte) (id >> 3), 0x2B,
+                (byte) (0x02 | (count & 0x07) << 5), (byte) (count >> 3), (byte) 0xFF, (byte) 0xFF};
+        store.add(ELEMENT, 1000, new SensorDataReader().reset(data));
+        assertEquals(21.5, store.getLatest(ELEMENT, id), 0);
+        assertTrue(Double.isNaN(store.getLatest(ELEMENT, count)));
+
+        store.remove(ELEMENT);
+        assertTrue(Double.isNaN(store.getLatest(ELEMENT, id)));
+    }
+
+    @Test
+    public void addColumns_keepsMostRecentValueOfEachColumn() {
+        final SensorDataStore store = new SensorDataStore();
+        final int id = DeviceProperty.PEOPLE_COUNT.getPropertyId();
+        store.addColumns(ELEMENT, id, new byte[]{0x0A, 0x00, 0x05, 0x00, 0x01, 0x00, 0x00, 0x00, 0x05, 0x00, 0x02, 0x00}, 0, 12);
+        store.addColumns(ELEMENT, id, new byte[]{0x0A, 0x00, 0x05, 0x00, 0x07, 0x00}, 0, 6);
+        final double[] x = new double[4];
+        final double[] width = new double[4];
+        final double[] y = new double[4];
+        assertEquals(2, store.getColumns(ELEMENT, id, x, width, y));
+        assertEquals(0.0, x[0], 0);
+        assertEquals(2.0, y[0], 0);
+        assertEquals(10.0, x[1], 0);
+        assertEquals(7.0, y[1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsUnorderedTiers() {
+        new SensorDataStore(10, new SensorDataStore.Tier(60000, 10), new SensorDataStore.Tier(1000, 10));
+    }
+}
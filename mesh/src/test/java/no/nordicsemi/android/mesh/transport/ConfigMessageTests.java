@@ -28,6 +28,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 
 import no.nordicsemi.android.mesh.ApplicationKey;
 import no.nordicsemi.android.mesh.NetworkKey;
@@ -35,6 +36,7 @@ import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Configuration message tests
@@ -113,4 +115,47 @@ public class ConfigMessageTests {
         final ConfigNetKeyList configNetKeyList = new ConfigNetKeyList(message);
         assertArrayEquals(keyIndexes.toArray(), configNetKeyList.getKeyIndexes().toArray());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void createRemoteProvisioningScanStart() {
+        final UUID uuid = UUID.fromString("70CF7C97-32A3-45B6-9149-4810D2E9CBF4");
+        final RemoteProvisioningScanStart scanStart = new RemoteProvisioningScanStart(4, 10, uuid);
+        assertEquals("040A70CF7C9732A345B691494810D2E9CBF4", MeshParserUtils.bytesToHex(scanStart.getParameters(), false));
+        assertEquals("040A", MeshParserUtils.bytesToHex(new RemoteProvisioningScanStart(4, 10, null).getParameters(), false));
+    }
+
+    @Test
+    public void createRemoteProvisioningLinkOpen() {
+        final UUID uuid = UUID.fromString("70CF7C97-32A3-45B6-9149-4810D2E9CBF4");
+        assertEquals("70CF7C9732A345B691494810D2E9CBF41E",
+                MeshParserUtils.bytesToHex(new RemoteProvisioningLinkOpen(uuid, 30).getParameters(), false));
+        assertEquals("01", MeshParserUtils.bytesToHex(
+                new RemoteProvisioningLinkOpen(RemoteProvisioningLinkOpen.NPPI_NODE_ADDRESS_REFRESH).getParameters(), false));
+    }
+
+    @Test
+    public void parseRemoteProvisioningScanReport() {
+        final AccessMessage message = new AccessMessage();
+        message.setOpCode(MeshParserUtils.hexToInt("8055"));
+        message.setParameters(MeshParserUtils.toByteArray("C470CF7C9732A345B691494810D2E9CBF40040"));
+
+        final RemoteProvisioningScanReport report = new RemoteProvisioningScanReport(message);
+        assertEquals(-60, report.getRssi());
+        assertEquals(UUID.fromString("70CF7C97-32A3-45B6-9149-4810D2E9CBF4"), report.getUuid());
+        assertArrayEquals(new byte[]{0x00, 0x40}, report.getOobInformation());
+        assertNull(report.getUriHash());
+    }
+
+    @Test
+    public void parseRemoteProvisioningLinkReport() {
+        final AccessMessage message = new AccessMessage();
+        message.setOpCode(MeshParserUtils.hexToInt("805C"));
+        message.setParameters(MeshParserUtils.toByteArray("060001"));
+
+        final RemoteProvisioningLinkReport report = new RemoteProvisioningLinkReport(message);
+        assertEquals(RemoteProvisioningStatusMessage.STATUS_LINK_CLOSED_BY_DEVICE, report.getStatusCode());
+        assertEquals("Link Closed by Device", report.getStatusCodeName());
+        assertEquals(RemoteProvisioningLinkStatus.LINK_STATE_IDLE, report.getLinkState());
+        assertEquals(RemoteProvisioningLinkReport.REASON_TIMEOUT, report.getReason());
+    }
+}
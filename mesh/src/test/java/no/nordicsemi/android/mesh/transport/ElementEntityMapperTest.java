@@ -0,0 +1,136 @@
+package no.nordicsemi.android.mesh.transport;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import no.nordicsemi.android.mesh.Features;
+import no.nordicsemi.android.mesh.data.ElementEntity;
+import no.nordicsemi.android.mesh.data.ModelBindingEntity;
+import no.nordicsemi.android.mesh.data.ModelEntity;
+import no.nordicsemi.android.mesh.data.ModelSubscriptionEntity;
+import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
+import no.nordicsemi.android.mesh.models.GenericLevelServerModel;
+import no.nordicsemi.android.mesh.models.GenericOnOffServerModel;
+import no.nordicsemi.android.mesh.models.SigModelParser;
+import no.nordicsemi.android.mesh.utils.HeartbeatPublication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ElementEntityMapperTest {
+
+    private static final String NODE_UUID = "70CF7C9732A345B691494810D2E9CBF4";
+
+    @Test
+    public void toEntities_createsOneRowPerElementModelSubscriptionAndBinding() {
+        final Map<Integer, Element> elements = createElements();
+
+        final List<ElementEntity> elementEntities = ElementEntityMapper.toElementEntities(NODE_UUID, elements);
+        final List<ModelEntity> modelEntities = ElementEntityMapper.toModelEntities(NODE_UUID, elements);
+        final List<ModelSubscriptionEntity> subscriptionEntities = ElementEntityMapper.toSubscriptionEntities(NODE_UUID, elements);
+        final List<ModelBindingEntity> bindingEntities = ElementEntityMapper.toBindingEntities(NODE_UUID, elements);
+
+        assertEquals(2, elementEntities.size());
+        assertEquals(3, modelEntities.size());
+        assertEquals(2, subscriptionEntities.size());
+        assertEquals(3, bindingEntities.size());
+
+        final ModelEntity configurationServer = modelEntities.get(0);
+        assertNull(configurationServer.publishAddress);
+        assertNotNull(configurationServer.state);
+        final ModelEntity onOffServer = modelEntities.get(1);
+        assertEquals(Integer.valueOf(0xC001), onOffServer.publishAddress);
+        assertEquals(Integer.valueOf(1), onOffServer.publishAppKeyIndex);
+        assertNull(onOffServer.state);
+    }
+
+    @Test
+    public void toElements_restoresTheElementsOfEachNode() {
+        final Map<Integer, Element> elements = createElements();
+        final Map<String, Map<Integer, Element>> nodes = ElementEntityMapper.toElements(
+                ElementEntityMapper.toElementEntities(NODE_UUID, elements),
+                ElementEntityMapper.toModelEntities(NODE_UUID, elements),
+                ElementEntityMapper.toSubscriptionEntities(NODE_UUID, elements),
+                ElementEntityMapper.toBindingEntities(NODE_UUID, elements));
+
+        assertEquals(1, nodes.size());
+        final Map<Integer, Element> restored = nodes.get(NODE_UUID);
+        assertNotNull(restored);
+        assertEquals(new ArrayList<>(elements.keySet()), new ArrayList<>(restored.keySet()));
+
+        final Element primary = restored.get(0x0001);
+        assertEquals("Primary", primary.getName());
+        assertEquals(0x0100, primary.getLocationDescriptor());
+
+        final MeshModel onOffServer = primary.getMeshModels().get((int) SigModelParser.GENERIC_ON_OFF_SERVER);
+        assertTrue(onOffServer instanceof GenericOnOffServerModel);
+        assertEquals(Arrays.asList(1, 2), onOffServer.getBoundAppKeyIndexes());
+        assertEquals(Arrays.asList(0xC000, 0xC002), onOffServer.getSubscribedAddresses());
+        final PublicationSettings settings = onOffServer.getPublicationSettings();
+        assertNotNull(settings);
+        assertEquals(0xC001, settings.getPublishAddress());
+        assertEquals(1, settings.getAppKeyIndex());
+        assertEquals(5, settings.getPublishTtl());
+        assertEquals(2, settings.getPublishRetransmitCount());
+
+        final MeshModel configurationServer = primary.getMeshModels().get((int) SigModelParser.CONFIGURATION_SERVER);
+        assertTrue(configurationServer instanceof ConfigurationServerModel);
+        final HeartbeatPublication heartbeatPublication = ((ConfigurationServerModel) configurationServer).getHeartbeatPublication();
+        assertNotNull(heartbeatPublication);
+        assertEquals(0xC003, heartbeatPublication.getDst());
+        assertTrue(configurationServer.getBoundAppKeyIndexes().isEmpty());
+
+        final MeshModel levelServer = restored.get(0x0002).getMeshModels().get((int) SigModelParser.GENERIC_LEVEL_SERVER);
+        assertTrue(levelServer instanceof GenericLevelServerModel);
+        assertEquals(Collections.singletonList(3), levelServer.getBoundAppKeyIndexes());
+    }
+
+    @Test
+    public void toSubscriptionEntities_mapsASingleModel() {
+        final MeshModel model = new GenericOnOffServerModel(SigModelParser.GENERIC_ON_OFF_SERVER);
+        model.addSubscriptionAddress(0xC005);
+
+        final List<ModelSubscriptionEntity> entities = ElementEntityMapper.toSubscriptionEntities(NODE_UUID, 0x0003, model);
+
+        assertEquals(1, entities.size());
+        assertEquals(0x0003, entities.get(0).elementAddress);
+        assertEquals(SigModelParser.GENERIC_ON_OFF_SERVER, entities.get(0).modelId);
+        assertEquals(0xC005, entities.get(0).address);
+        assertNull(entities.get(0).labelUuid);
+    }
+
+    private static Map<Integer, Element> createElements() {
+        final ConfigurationServerModel configurationServer = new ConfigurationServerModel(SigModelParser.CONFIGURATION_SERVER);
+        configurationServer.setHeartbeatPublication(new HeartbeatPublication(0xC003, (byte) 0x02, (byte) 0x03, 5,
+                new Features(Features.UNSUPPORTED, Features.UNSUPPORTED, Features.ENABLED, Features.ENABLED), 0));
+
+        final MeshModel onOffServer = new GenericOnOffServerModel(SigModelParser.GENERIC_ON_OFF_SERVER);
+        onOffServer.setBoundAppKeyIndex(1);
+        onOffServer.setBoundAppKeyIndex(2);
+        onOffServer.addSubscriptionAddress(0xC000);
+        onOffServer.addSubscriptionAddress(0xC002);
+        onOffServer.setPublicationSettings(new PublicationSettings(0xC001, 1, false, 5, 0, 0, 2, 1));
+
+        final Map<Integer, MeshModel> primaryModels = new LinkedHashMap<>();
+        primaryModels.put(configurationServer.getModelId(), configurationServer);
+        primaryModels.put(onOffServer.getModelId(), onOffServer);
+
+        final MeshModel levelServer = new GenericLevelServerModel(SigModelParser.GENERIC_LEVEL_SERVER);
+        levelServer.setBoundAppKeyIndex(3);
+        final Map<Integer, MeshModel> secondaryModels = new LinkedHashMap<>();
+        secondaryModels.put(levelServer.getModelId(), levelServer);
+
+        final Map<Integer, Element> elements = new LinkedHashMap<>();
+        elements.put(0x0001, new Element(0x0001, 0x0100, primaryModels, "Primary"));
+        elements.put(0x0002, new Element(0x0002, 0x0000, secondaryModels));
+        return elements;
+    }
+}
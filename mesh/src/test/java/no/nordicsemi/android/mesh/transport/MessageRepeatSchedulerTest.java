@@ -0,0 +1,194 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Handler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class MessageRepeatSchedulerTest {
+
+    private static final int DST = 0x0002;
+    private static final int OTHER_DST = 0x0003;
+
+    private final List<Object[]> posted = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final List<String> sent = new ArrayList<>();
+    private MessageRepeatScheduler scheduler;
+    private long now;
+
+    @Before
+    public void setUp() {
+        final Handler handler = mock(Handler.class);
+        doAnswer(invocation -> {
+            final long delay = invocation.getArgument(1);
+            delays.add(delay);
+            posted.add(new Object[]{now + delay, invocation.getArgument(0)});
+            return true;
+        }).when(handler).postDelayed(any(Runnable.class), anyLong());
+        doAnswer(invocation -> {
+            final Iterator<Object[]> iterator = posted.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next()[1] == invocation.getArgument(0))
+                    iterator.remove();
+            }
+            return null;
+        }).when(handler).removeCallbacks(any(Runnable.class));
+        scheduler = new MessageRepeatScheduler(handler);
+    }
+
+    /**
+     * Runs the posted callbacks that are due until a given time, like the handler would.
+     */
+    private void runUntil(final long time) {
+        while (true) {
+            Object[] next = null;
+            for (Object[] callback : posted) {
+                if (next == null || (long) callback[0] < (long) next[0])
+                    next = callback;
+            }
+            if (next == null || (long) next[0] > time)
+                break;
+            posted.remove(next);
+            now = (long) next[0];
+            ((Runnable) next[1]).run();
+        }
+        now = time;
+    }
+
+    @Test
+    public void schedule_sendsTheConfiguredNumberOfRepeats() {
+        scheduler.setRepeatSettings(3, 50, 0);
+        scheduler.schedule(DST, () -> sent.add("repeat " + now));
+        assertTrue(scheduler.isPending(DST));
+
+        runUntil(1000);
+
+        assertEquals(3, sent.size());
+        assertEquals("repeat 50", sent.get(0));
+        assertEquals("repeat 100", sent.get(1));
+        assertEquals("repeat 150", sent.get(2));
+        assertFalse(scheduler.isPending(DST));
+    }
+
+    @Test
+    public void schedule_withoutRepeatsPostsNothing() {
+        scheduler.setRepeatSettings(0, 50, 20);
+        scheduler.schedule(DST, () -> sent.add("repeat"));
+
+        assertTrue(posted.isEmpty());
+        assertFalse(scheduler.isPending(DST));
+    }
+
+    @Test
+    public void schedule_addsJitterWithinBounds() {
+        scheduler.setRepeatSettings(200, 50, 20);
+        scheduler.schedule(DST, () -> sent.add("repeat"));
+        runUntil(Long.MAX_VALUE / 2);
+
+        assertEquals(200, sent.size());
+        assertEquals(200, delays.size());
+        final Set<Long> distinct = new HashSet<>();
+        for (long delay : delays) {
+            assertTrue(delay >= 50 && delay <= 70);
+            distinct.add(delay);
+        }
+        assertTrue(distinct.size() > 1);
+    }
+
+    @Test
+    public void schedule_replacesPendingRepeatsOfTheSameDestination() {
+        scheduler.setRepeatSettings(2, 50, 0);
+        scheduler.schedule(DST, () -> sent.add("old"));
+        scheduler.schedule(OTHER_DST, () -> sent.add("other"));
+        runUntil(50);
+        scheduler.schedule(DST, () -> sent.add("new"));
+
+        runUntil(1000);
+
+        assertEquals(1, count("old"));
+        assertEquals(2, count("new"));
+        assertEquals(2, count("other"));
+    }
+
+    @Test
+    public void cancel_dropsPendingRepeats() {
+        scheduler.setRepeatSettings(2, 50, 0);
+        scheduler.schedule(DST, () -> sent.add("repeat"));
+        scheduler.schedule(OTHER_DST, () -> sent.add("other"));
+        scheduler.cancel(DST);
+        runUntil(1000);
+
+        assertEquals(0, count("repeat"));
+        assertEquals(2, count("other"));
+
+        scheduler.schedule(DST, () -> sent.add("repeat"));
+        scheduler.clear();
+        runUntil(2000);
+        assertEquals(0, count("repeat"));
+        assertFalse(scheduler.isPending(DST));
+    }
+
+    @Test
+    public void cancel_waitsForARepeatBeingSent() throws InterruptedException {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        scheduler.setRepeatSettings(3, 50, 0);
+        scheduler.schedule(DST, () -> {
+            sent.add("repeat");
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        final Thread handlerThread = new Thread((Runnable) posted.remove(0)[1]);
+        handlerThread.start();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // A newer message cancels the repeats on another thread while the repeat is being sent
+        final Thread sender = new Thread(() -> scheduler.cancel(DST));
+        sender.start();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (sender.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.BLOCKED, sender.getState());
+        release.countDown();
+        sender.join();
+        handlerThread.join();
+
+        assertEquals(1, sent.size());
+        assertFalse(scheduler.isPending(DST));
+        assertTrue(posted.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRepeatSettings_rejectsNegativeJitter() {
+        scheduler.setRepeatSettings(1, 50, -1);
+    }
+
+    private int count(final String transmission) {
+        int count = 0;
+        for (String value : sent) {
+            if (value.equals(transmission))
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+package no.nordicsemi.android.mesh.transport;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkMessageCacheTest {
+
+    @Test
+    public void contains_countsHitsAndMisses() {
+        final NetworkMessageCache cache = new NetworkMessageCache(4);
+        final long key = NetworkMessageCache.createKey(0x0001, 0x000010, 0);
+
+        assertFalse(cache.contains(key));
+        cache.add(key);
+        assertTrue(cache.contains(key));
+        assertTrue(cache.contains(key));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void createKey_distinguishesSourceSequenceAndIvIndex() {
+        final NetworkMessageCache cache = new NetworkMessageCache(8);
+        cache.add(NetworkMessageCache.createKey(0x0001, 0x000001, 0));
+
+        assertFalse(cache.contains(NetworkMessageCache.createKey(0x0002, 0x000001, 0)));
+        assertFalse(cache.contains(NetworkMessageCache.createKey(0x0001, 0x000002, 0)));
+        assertFalse(cache.contains(NetworkMessageCache.createKey(0x0001, 0x000001, 1)));
+    }
+
+    @Test
+    public void add_evictsOldestMessageWhenFull() {
+        final NetworkMessageCache cache = new NetworkMessageCache(3);
+        for (int seq = 1; seq <= 4; seq++) {
+            cache.add(NetworkMessageCache.createKey(0x0001, seq, 0));
+        }
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.contains(NetworkMessageCache.createKey(0x0001, 1, 0)));
+        for (int seq = 2; seq <= 4; seq++) {
+            assertTrue(cache.contains(NetworkMessageCache.createKey(0x0001, seq, 0)));
+        }
+    }
+
+    @Test
+    public void add_keepsMostRecentMessagesUnderChurn() {
+        final int capacity = 64;
+        final NetworkMessageCache cache = new NetworkMessageCache(capacity);
+        final Random random = new Random(42);
+        final long[] keys = new long[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = NetworkMessageCache.createKey(1 + random.nextInt(0x7FFE), random.nextInt(0xFFFFFF), 0);
+            cache.add(keys[i]);
+        }
+
+        assertEquals(capacity, cache.size());
+        for (int i = keys.length - capacity; i < keys.length; i++) {
+            assertTrue(cache.contains(keys[i]));
+        }
+    }
+
+    @Test
+    public void removeSource_removesOnlyMessagesFromThatSource() {
+        final NetworkMessageCache cache = new NetworkMessageCache(16);
+        for (int seq = 0; seq < 5; seq++) {
+            cache.add(NetworkMessageCache.createKey(0x0002, seq, 0));
+            cache.add(NetworkMessageCache.createKey(0x0003, seq, 0));
+        }
+
+        cache.removeSource(0x0002);
+
+        assertEquals(5, cache.size());
+        for (int seq = 0; seq < 5; seq++) {
+            assertFalse(cache.contains(NetworkMessageCache.createKey(0x0002, seq, 0)));
+            assertTrue(cache.contains(NetworkMessageCache.createKey(0x0003, seq, 0)));
+        }
+    }
+
+    @Test
+    public void removeSource_keepsReAddedMessagesUntilTheyAreOldest() {
+        final int capacity = 8;
+        final NetworkMessageCache cache = new NetworkMessageCache(capacity);
+        final long key = NetworkMessageCache.createKey(0x0002, 0, 0);
+        cache.add(key);
+        cache.add(NetworkMessageCache.createKey(0x0003, 0, 0));
+
+        cache.removeSource(0x0002);
+        cache.add(key);
+        assertEquals(2, cache.size());
+
+        // Fill the cache until only the re-added key and the newer messages fit
+        for (int seq = 1; seq < capacity; seq++) {
+            cache.add(NetworkMessageCache.createKey(0x0003, seq, 0));
+        }
+
+        assertEquals(capacity, cache.size());
+        assertTrue(cache.contains(key));
+        assertFalse(cache.contains(NetworkMessageCache.createKey(0x0003, 0, 0)));
+        for (int seq = 1; seq < capacity; seq++) {
+            assertTrue(cache.contains(NetworkMessageCache.createKey(0x0003, seq, 0)));
+        }
+
+        // The re-added key is now the oldest and is evicted next
+        cache.add(NetworkMessageCache.createKey(0x0003, capacity, 0));
+        assertFalse(cache.contains(key));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsInvalidCapacity() {
+        new NetworkMessageCache(0);
+    }
+}
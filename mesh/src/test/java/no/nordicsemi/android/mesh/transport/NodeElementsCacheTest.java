@@ -0,0 +1,146 @@
+package no.nordicsemi.android.mesh.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NodeElementsCacheTest {
+
+    private static final int NUMBER_OF_ELEMENTS = 3;
+
+    private final List<String> loads = new ArrayList<>();
+    private final Map<String, Integer> addresses = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    @Test
+    public void getElements_loadsElementsOnFirstAccess() {
+        final NodeElementsCache cache = createCache(0);
+        final ProvisionedMeshNode node = createNode(cache, "node-1", 0x0010);
+
+        assertFalse(node.isElementsLoaded());
+        assertEquals(NUMBER_OF_ELEMENTS, node.getNumberOfElements());
+        assertTrue(loads.isEmpty());
+
+        assertEquals(NUMBER_OF_ELEMENTS, node.getElements().size());
+        assertTrue(node.getElements().containsKey(0x0012));
+        assertTrue(node.isElementsLoaded());
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void hasUnicastAddress_doesNotLoadElements() {
+        final NodeElementsCache cache = createCache(0);
+        final ProvisionedMeshNode node = createNode(cache, "node-1", 0x0010);
+
+        assertTrue(node.hasUnicastAddress(0x0010));
+        assertTrue(node.hasUnicastAddress(0x0012));
+        assertFalse(node.hasUnicastAddress(0x0013));
+        assertFalse(node.hasUnicastAddress(0x000F));
+        assertTrue(loads.isEmpty());
+    }
+
+    @Test
+    public void getElements_releasesLeastRecentlyUsedNodes() {
+        final NodeElementsCache cache = createCache(2);
+        final ProvisionedMeshNode node1 = createNode(cache, "node-1", 0x0010);
+        final ProvisionedMeshNode node2 = createNode(cache, "node-2", 0x0020);
+        final ProvisionedMeshNode node3 = createNode(cache, "node-3", 0x0030);
+
+        node1.getElements();
+        node2.getElements();
+        node1.getElements();
+        final Map<Integer, Element> elements = node3.getElements();
+
+        assertEquals(2, cache.size());
+        assertTrue(node1.isElementsLoaded());
+        assertFalse(node2.isElementsLoaded());
+        assertTrue(node3.isElementsLoaded());
+        assertEquals(NUMBER_OF_ELEMENTS, node2.getNumberOfElements());
+
+        node2.getElements();
+        assertFalse(node1.isElementsLoaded());
+        assertEquals(4, loads.size());
+        assertEquals("node-2", loads.get(3));
+        // Maps returned before the node was released remain usable
+        assertEquals(NUMBER_OF_ELEMENTS, elements.size());
+    }
+
+    @Test
+    public void setMaxNodes_releasesNodesAboveTheLimit() {
+        final NodeElementsCache cache = createCache(0);
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final ProvisionedMeshNode node = createNode(cache, "node-" + i, 0x0010 * (i + 1));
+            node.getElements();
+            nodes.add(node);
+        }
+        assertEquals(5, cache.size());
+
+        cache.setMaxNodes(2);
+        assertEquals(2, cache.size());
+        assertFalse(nodes.get(0).isElementsLoaded());
+        assertFalse(nodes.get(2).isElementsLoaded());
+        assertTrue(nodes.get(3).isElementsLoaded());
+        assertTrue(nodes.get(4).isElementsLoaded());
+    }
+
+    @Test
+    public void setElements_marksElementsLoaded() {
+        final NodeElementsCache cache = createCache(0);
+        final ProvisionedMeshNode node = createNode(cache, "node-1", 0x0010);
+
+        node.setElements(new LinkedHashMap<>());
+        assertTrue(node.isElementsLoaded());
+        assertEquals(0, node.getNumberOfElements());
+        assertTrue(loads.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setMaxNodes_rejectsNegativeValues() {
+        createCache(0).setMaxNodes(-1);
+    }
+
+    private NodeElementsCache createCache(final int maxNodes) {
+        return new NodeElementsCache(nodeUuid -> {
+            loads.add(nodeUuid);
+            final int address = addresses.get(nodeUuid);
+            final Map<Integer, Element> elements = new LinkedHashMap<>();
+            for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+                elements.put(address + i, new Element(address + i, 0, new LinkedHashMap<>()));
+            }
+            return elements;
+        }, maxNodes);
+    }
+
+    private ProvisionedMeshNode createNode(final NodeElementsCache cache, final String uuid, final int address) {
+        addresses.put(uuid, address);
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUuid(uuid);
+        node.setUnicastAddress(address);
+        node.setElementsUnloaded(NUMBER_OF_ELEMENTS);
+        node.setElementsCache(cache);
+        return node;
+    }
+}
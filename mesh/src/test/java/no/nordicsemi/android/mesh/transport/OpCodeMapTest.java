@@ -0,0 +1,62 @@
+package no.nordicsemi.android.mesh.transport;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OpCodeMapTest {
+
+    @Test
+    public void put_replacesExistingValue() {
+        final OpCodeMap<String> map = new OpCodeMap<>();
+        assertNull(map.put(0x8204, "on off"));
+        assertEquals("on off", map.put(0x8204, "generic on off"));
+        assertEquals("generic on off", map.get(0x8204));
+        assertEquals(1, map.size());
+        assertNull(map.get(0x8205));
+    }
+
+    @Test
+    public void remove_keepsCollidingEntriesReachable() {
+        final OpCodeMap<Integer> map = new OpCodeMap<>();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            final int opCode = random.nextInt(0x200);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(opCode, i), map.put(opCode, i));
+            } else {
+                assertEquals(expected.remove(opCode), map.remove(opCode));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int opCode = 0; opCode < 0x200; opCode++) {
+            assertEquals(expected.get(opCode), map.get(opCode));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_rejectsNegativeOpCodes() {
+        new OpCodeMap<String>().put(-1, "invalid");
+    }
+
+    @Test
+    public void statusDecoders_coverOneAndTwoOctetOpCodes() {
+        assertTrue(DefaultNoOperationMessageState.hasStatusDecoder(ApplicationMessageOpCodes.SENSOR_STATUS));
+        assertTrue(DefaultNoOperationMessageState.hasStatusDecoder(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS));
+        assertTrue(DefaultNoOperationMessageState.hasStatusDecoder(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS));
+        assertTrue(DefaultNoOperationMessageState.hasStatusDecoder(ConfigMessageOpCodes.REMOTE_PROVISIONING_PDU_REPORT));
+        // Requests are never decoded as statuses
+        assertFalse(DefaultNoOperationMessageState.hasStatusDecoder(ApplicationMessageOpCodes.GENERIC_ON_OFF_GET));
+    }
+}
@@ -0,0 +1,89 @@
+package no.nordicsemi.android.mesh.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusBatchQueueTest {
+
+    private static final StatusFactory FACTORY = GenericLevelStatus::new;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+    }
+
+    @After
+    public void tearDown() {
+        MeshLogger.setLogHandler(null);
+    }
+
+    private static AccessMessage status(final int src, final int level) {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(src);
+        message.setParameters(new byte[]{(byte) level, (byte) (level >> 8)});
+        return message;
+    }
+
+    private static int src(final StatusBatchQueue.Entry entry) {
+        return entry.message.getSrc();
+    }
+
+    @Test
+    public void poll_deliversAtMostOneBatchPerInterval() {
+        final StatusBatchQueue queue = new StatusBatchQueue(100, 8, StatusOverflowPolicy.DROP_OLDEST);
+        assertTrue(queue.offer(status(0x0002, 1), FACTORY));
+        // A batch is already scheduled
+        assertFalse(queue.offer(status(0x0003, 2), FACTORY));
+        assertEquals(2, queue.poll(0).size());
+
+        assertTrue(queue.offer(status(0x0002, 3), FACTORY));
+        assertEquals(100, queue.getNextBatchTime());
+        assertNull(queue.poll(50));
+        assertEquals(1, queue.poll(100).size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void offer_dropsOldestStatusWhenFull() {
+        final StatusBatchQueue queue = new StatusBatchQueue(100, 2, StatusOverflowPolicy.DROP_OLDEST);
+        queue.offer(status(0x0002, 1), FACTORY);
+        queue.offer(status(0x0003, 2), FACTORY);
+        queue.offer(status(0x0002, 3), FACTORY);
+        final List<StatusBatchQueue.Entry> batch = queue.poll(0);
+        assertEquals(2, batch.size());
+        assertEquals(0x0003, src(batch.get(0)));
+        assertEquals(0x0002, src(batch.get(1)));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void offer_keepsLatestStatusOfEachSourceWhenFull() {
+        final StatusBatchQueue queue = new StatusBatchQueue(100, 3, StatusOverflowPolicy.LATEST_PER_SOURCE);
+        queue.offer(status(0x0002, 1), FACTORY);
+        queue.offer(status(0x0003, 2), FACTORY);
+        queue.offer(status(0x0004, 3), FACTORY);
+        // Replaces the queued status of 0x0003 instead of the oldest status, which is the only one of 0x0002
+        queue.offer(status(0x0003, 4), FACTORY);
+        final List<StatusBatchQueue.Entry> batch = queue.poll(0);
+        assertEquals(3, batch.size());
+        assertEquals(0x0002, src(batch.get(0)));
+        assertEquals(0x0004, src(batch.get(1)));
+        assertEquals(4, ((GenericLevelStatus) batch.get(2).decode()).getPresentLevel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsEmptyQueues() {
+        new StatusBatchQueue(100, 0, StatusOverflowPolicy.DROP_OLDEST);
+    }
+}
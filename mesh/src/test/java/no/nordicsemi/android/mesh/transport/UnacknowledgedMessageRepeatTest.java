@@ -0,0 +1,220 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.content.Context;
+import android.os.Handler;
+import android.util.SparseArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.InternalTransportCallbacks;
+import no.nordicsemi.android.mesh.MeshStatusCallbacks;
+import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UnacknowledgedMessageRepeatTest {
+
+    private static final int SRC = 0x0001;
+    private static final int DST = 0x0002;
+    private static final int REPEATS = 3;
+    private static final long INTERVAL = 50;
+
+    private final List<Object[]> posted = new ArrayList<>();
+    private final List<AccessMessage> transmissions = new ArrayList<>();
+    private MockedConstruction<Handler> handlers;
+    private MockedConstruction<SparseArray> sparseArrays;
+    private InternalTransportCallbacks transportCallbacks;
+    private ApplicationKey appKey;
+    private BaseMeshMessageHandler messageHandler;
+    private int sequenceNumber;
+    private long now;
+
+    @Before
+    public void setUp() {
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        // Every handler created by the message handler and its transports shares one fake message queue
+        handlers = mockConstruction(Handler.class, (handler, context) -> {
+            doAnswer(invocation -> {
+                posted.add(new Object[]{now + (long) invocation.getArgument(1), invocation.getArgument(0)});
+                return true;
+            }).when(handler).postDelayed(any(Runnable.class), anyLong());
+            doAnswer(invocation -> {
+                final Iterator<Object[]> iterator = posted.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next()[1] == invocation.getArgument(0))
+                        iterator.remove();
+                }
+                return null;
+            }).when(handler).removeCallbacks(any(Runnable.class));
+        });
+        sparseArrays = mockConstruction(SparseArray.class, (array, context) -> fakeSparseArray(array));
+
+        final NetworkKey networkKey = new NetworkKey(0, MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6"));
+        appKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734FBD76E3B40519D1D94A48"));
+        final ProvisionedMeshNode node = mock(ProvisionedMeshNode.class);
+        when(node.getTtl()).thenReturn(5);
+        when(node.incrementSequenceNumber()).thenAnswer(invocation -> sequenceNumber++);
+
+        final UpperTransportLayerCallbacks upperTransportLayerCallbacks = mock(UpperTransportLayerCallbacks.class);
+        when(upperTransportLayerCallbacks.getNode(SRC)).thenReturn(node);
+        when(upperTransportLayerCallbacks.getIvIndex()).thenReturn(new byte[]{0x00, 0x00, 0x00, 0x00});
+        final NetworkLayerCallbacks networkLayerCallbacks = mock(NetworkLayerCallbacks.class);
+        when(networkLayerCallbacks.getPrimaryNetworkKey()).thenReturn(networkKey);
+        when(networkLayerCallbacks.getNetworkKey(anyInt())).thenReturn(networkKey);
+
+        transportCallbacks = mock(InternalTransportCallbacks.class);
+        messageHandler = new BaseMeshMessageHandler(mock(Context.class), transportCallbacks,
+                networkLayerCallbacks, upperTransportLayerCallbacks) {
+            @Override
+            protected void setMeshStatusCallbacks(@NonNull final MeshStatusCallbacks statusCallbacks) {
+                mStatusCallbacks = statusCallbacks;
+            }
+        };
+        messageHandler.setMeshStatusCallbacks(mock(MeshStatusCallbacks.class));
+        messageHandler.setUnacknowledgedMessageRepeats(REPEATS, INTERVAL, 0);
+    }
+
+    @After
+    public void tearDown() {
+        sparseArrays.close();
+        handlers.close();
+        MeshLogger.setLogHandler(null);
+    }
+
+    /**
+     * Backs a mocked {@link SparseArray} with a sorted map, as the Android implementation is not available on the JVM.
+     */
+    @SuppressWarnings("unchecked")
+    private static void fakeSparseArray(final SparseArray array) {
+        final TreeMap<Integer, Object> values = new TreeMap<>();
+        doAnswer(invocation -> values.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(array).put(anyInt(), any());
+        doAnswer(invocation -> values.get((int) invocation.getArgument(0))).when(array).get(anyInt());
+        doAnswer(invocation -> values.remove((int) invocation.getArgument(0))).when(array).remove(anyInt());
+        doAnswer(invocation -> values.size()).when(array).size();
+        doAnswer(invocation -> new ArrayList<>(values.keySet()).get(invocation.getArgument(0)))
+                .when(array).keyAt(anyInt());
+        doAnswer(invocation -> new ArrayList<>(values.values()).get(invocation.getArgument(0)))
+                .when(array).valueAt(anyInt());
+        doAnswer(invocation -> {
+            final SparseArray copy = new SparseArray();
+            for (Map.Entry<Integer, Object> entry : values.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+            return copy;
+        }).when(array).clone();
+    }
+
+    /**
+     * Runs the posted callbacks that are due until a given time and records the messages encrypted by them.
+     */
+    private void runUntil(final long time, @NonNull final MeshMessage meshMessage) {
+        while (true) {
+            Object[] next = null;
+            for (Object[] callback : posted) {
+                if (next == null || (long) callback[0] < (long) next[0])
+                    next = callback;
+            }
+            if (next == null || (long) next[0] > time)
+                break;
+            posted.remove(next);
+            now = (long) next[0];
+            ((Runnable) next[1]).run();
+            if (transmissions.get(transmissions.size() - 1) != meshMessage.getMessage())
+                transmissions.add((AccessMessage) meshMessage.getMessage());
+        }
+        now = time;
+    }
+
+    private void send(@NonNull final MeshMessage meshMessage) {
+        messageHandler.createMeshMessage(SRC, DST, null, meshMessage);
+        transmissions.add((AccessMessage) meshMessage.getMessage());
+    }
+
+    @Test
+    public void unacknowledgedMessage_isRepeatedWithFreshSequenceNumbers() {
+        final GenericOnOffSetUnacknowledged onOff = new GenericOnOffSetUnacknowledged(appKey, true, 1);
+        send(onOff);
+        runUntil(REPEATS * INTERVAL * 10, onOff);
+
+        final ArgumentCaptor<byte[]> pdus = ArgumentCaptor.forClass(byte[].class);
+        verify(transportCallbacks, times(1 + REPEATS)).onMeshPduCreated(eq(DST), pdus.capture());
+        assertEquals(1 + REPEATS, transmissions.size());
+        assertEquals(1 + REPEATS, sequenceNumber);
+        final Set<Integer> sequenceNumbers = new HashSet<>();
+        final Set<String> encryptedPdus = new HashSet<>();
+        for (int i = 0; i < transmissions.size(); i++) {
+            final AccessMessage message = transmissions.get(i);
+            sequenceNumbers.add(MeshParserUtils.convert24BitsToInt(message.getSequenceNumber()));
+            encryptedPdus.add(Arrays.toString(pdus.getAllValues().get(i)));
+            // Repeats carry the access payload, and so the TID, of the original message
+            assertArrayEquals(transmissions.get(0).getAccessPdu(), message.getAccessPdu());
+            assertArrayEquals(message.getNetworkLayerPdu().get(0), pdus.getAllValues().get(i));
+        }
+        assertEquals(1 + REPEATS, sequenceNumbers.size());
+        assertEquals(1 + REPEATS, encryptedPdus.size());
+    }
+
+    @Test
+    public void newerMessage_cancelsPendingRepeats() {
+        final GenericOnOffSetUnacknowledged on = new GenericOnOffSetUnacknowledged(appKey, true, 1);
+        send(on);
+        runUntil(INTERVAL, on);
+        assertEquals(2, transmissions.size());
+
+        final GenericOnOffSetUnacknowledged off = new GenericOnOffSetUnacknowledged(appKey, false, 2);
+        send(off);
+        runUntil(REPEATS * INTERVAL * 10, off);
+
+        // Only the newer value is repeated once it has been sent
+        verify(transportCallbacks, times(2 + 1 + REPEATS)).onMeshPduCreated(eq(DST), any(byte[].class));
+        assertEquals(2 + 1 + REPEATS, transmissions.size());
+        for (int i = 2; i < transmissions.size(); i++) {
+            assertArrayEquals(transmissions.get(2).getAccessPdu(), transmissions.get(i).getAccessPdu());
+        }
+        assertFalse(Arrays.equals(transmissions.get(0).getAccessPdu(), transmissions.get(2).getAccessPdu()));
+        assertTrue(posted.isEmpty());
+    }
+
+    @Test
+    public void cancelMessageRepeats_dropsPendingRepeats() {
+        final GenericOnOffSetUnacknowledged onOff = new GenericOnOffSetUnacknowledged(appKey, true, 1);
+        send(onOff);
+        messageHandler.cancelMessageRepeats();
+        runUntil(REPEATS * INTERVAL * 10, onOff);
+
+        verify(transportCallbacks, times(1)).onMeshPduCreated(eq(DST), any(byte[].class));
+        assertEquals(1, sequenceNumber);
+    }
+}